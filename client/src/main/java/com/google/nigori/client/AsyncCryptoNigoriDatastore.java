@@ -0,0 +1,333 @@
+/*
+ * Copyright (C) 2012 Daniel Thomas (drt24)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.nigori.client;
+
+import java.io.UnsupportedEncodingException;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+import com.google.nigori.common.Index;
+import com.google.nigori.common.MessageLibrary;
+import com.google.nigori.common.NigoriCryptographyException;
+import com.google.nigori.common.NigoriMessages.DeleteRequest;
+import com.google.nigori.common.NigoriMessages.GetIndicesRequest;
+import com.google.nigori.common.NigoriMessages.GetIndicesResponse;
+import com.google.nigori.common.NigoriMessages.GetRequest;
+import com.google.nigori.common.NigoriMessages.GetResponse;
+import com.google.nigori.common.NigoriMessages.GetRevisionsRequest;
+import com.google.nigori.common.NigoriMessages.GetRevisionsResponse;
+import com.google.nigori.common.NigoriMessages.PutRequest;
+import com.google.nigori.common.NotFoundException;
+import com.google.nigori.common.RevValue;
+import com.google.nigori.common.Revision;
+import com.google.nigori.common.Session;
+import com.google.nigori.common.UnauthorisedException;
+import com.google.nigori.common.Util;
+
+/**
+ * A {@link CryptoNigoriDatastore} which can also be used asynchronously without a thread per
+ * request: requests are encrypted and signed on the calling thread and sent over an
+ * {@link AsyncNigoriProtocol} such as {@link PipelinedNigoriProtocol}, and callbacks run when the
+ * responses arrive.
+ *
+ * Establishing a session (see {@link #startSession()}) is synchronous so the first request after a
+ * session expires waits for the new one.
+ *
+ * @author drt24
+ *
+ */
+public class AsyncCryptoNigoriDatastore extends CryptoNigoriDatastore implements
+    AsyncNigoriDatastore {
+
+  private final AsyncNigoriProtocol asyncProtocol;
+  private final ExecutorService executor = Executors.newCachedThreadPool(new ThreadFactory() {
+    @Override
+    public Thread newThread(Runnable r) {
+      Thread thread = new Thread(r, "nigori-async-datastore");
+      thread.setDaemon(true);
+      return thread;
+    }
+  });
+
+  public AsyncCryptoNigoriDatastore(AsyncNigoriProtocol protocol, String username,
+      String password, String serverName) throws UnsupportedEncodingException,
+      NigoriCryptographyException {
+    super(new BlockingNigoriProtocol(protocol), username, password, serverName);
+    this.asyncProtocol = protocol;
+  }
+
+  @Override
+  public void finalize() throws Throwable {
+    executor.shutdown();
+  }
+
+  /**
+   * Sends a request, authenticated with {@code session} or signed if it is null
+   */
+  private interface Sender<F> {
+    NigoriFuture<F> send(Session session) throws Exception;
+  }
+
+  /**
+   * Sends a request and completes {@code callback} with the decoded result, a not found failure is
+   * a null result. If the request was sent in {@code session} and is unauthorised, the session is
+   * discarded and the request retried once signed with DSA.
+   */
+  private <F, T> void deliver(final Sender<F> sender, final Session session,
+      final NigoriFuture.Transform<? super F, ? extends T> decode,
+      final AsyncCallback<T> callback) {
+    final Throwable from = new Throwable();
+    NigoriFuture<F> future;
+    try {
+      future = sender.send(session);
+    } catch (Exception e) {
+      callback.onFailure(e);
+      return;
+    }
+    future.addCallback(new AsyncCallback<F>() {
+
+      @Override
+      public void onSuccess(F result) {
+        T answer;
+        try {
+          answer = decode.apply(result);
+        } catch (Throwable t) {
+          onFailure(t);
+          return;
+        }
+        callback.onSuccess(answer);
+      }
+
+      @Override
+      public void onFailure(Throwable caught) {
+        if (caught instanceof NotFoundException) {
+          callback.onSuccess(null);
+          return;
+        }
+        if (caught instanceof UnauthorisedException && session != null) {
+          sessionRejected(session);
+          // Sign on an executor thread rather than the one delivering responses
+          execute(new Runnable() {
+            @Override
+            public void run() {
+              deliver(sender, null, decode, callback);
+            }
+          });
+          return;
+        }
+        Util.addFrom(caught, from);
+        callback.onFailure(caught);
+      }
+    });
+  }
+
+  private static <T> NigoriFuture.Transform<T, T> identity() {
+    return new NigoriFuture.Transform<T, T>() {
+      @Override
+      public T apply(T from) {
+        return from;
+      }
+    };
+  }
+
+  @Override
+  public void authenticate(AsyncCallback<Boolean> callback) {
+    deliver(new Sender<Boolean>() {
+      @Override
+      public NigoriFuture<Boolean> send(Session session) throws Exception {
+        return asyncProtocol.authenticate(MessageLibrary.authenticateRequestAsProtobuf(keyManager
+            .getServerName(), keyManager.signer()));
+      }
+    }, null, AsyncCryptoNigoriDatastore.<Boolean> identity(), callback);
+  }
+
+  @Override
+  public void getIndices(AsyncCallback<List<Index>> callback) {
+    try {
+      deliver(new Sender<GetIndicesResponse>() {
+        @Override
+        public NigoriFuture<GetIndicesResponse> send(Session session) throws Exception {
+          GetIndicesRequest request;
+          if (session == null) {
+            request =
+                MessageLibrary.getIndicesRequestAsProtobuf(keyManager.getServerName(),
+                    keyManager.signer());
+          } else {
+            request =
+                MessageLibrary.getIndicesRequestAsProtobuf(keyManager.getServerName(), session);
+          }
+          return asyncProtocol.getIndices(request);
+        }
+      }, session(), new NigoriFuture.Transform<GetIndicesResponse, List<Index>>() {
+        @Override
+        public List<Index> apply(GetIndicesResponse response) throws Exception {
+          return indices(response);
+        }
+      }, callback);
+    } catch (Exception e) {
+      callback.onFailure(e);
+    }
+  }
+
+  private Sender<GetResponse> getSender(Index index, Revision revision)
+      throws NigoriCryptographyException {
+    final byte[] encIndex = keyManager.encryptDeterministically(index.getBytes());
+    final byte[] encRevision =
+        revision == null ? null : keyManager.encryptDeterministically(revision.getBytes());
+    return new Sender<GetResponse>() {
+      @Override
+      public NigoriFuture<GetResponse> send(Session session) throws Exception {
+        GetRequest request;
+        if (session == null) {
+          request =
+              MessageLibrary.getRequestAsProtobuf(keyManager.getServerName(),
+                  keyManager.signer(), encIndex, encRevision);
+        } else {
+          request =
+              MessageLibrary.getRequestAsProtobuf(keyManager.getServerName(), session, encIndex,
+                  encRevision);
+        }
+        return asyncProtocol.get(request);
+      }
+    };
+  }
+
+  @Override
+  public void getRevision(Index index, Revision revision, AsyncCallback<byte[]> callback) {
+    try {
+      deliver(getSender(index, revision), session(),
+          new NigoriFuture.Transform<GetResponse, byte[]>() {
+            @Override
+            public byte[] apply(GetResponse response) throws Exception {
+              if (response == null || response.getRevisionsCount() != 1) {
+                return null;
+              }
+              return revValues(response.getRevisionsList()).get(0).getValue();
+            }
+          }, callback);
+    } catch (Exception e) {
+      callback.onFailure(e);
+    }
+  }
+
+  @Override
+  public void get(Index index, AsyncCallback<List<RevValue>> callback) {
+    try {
+      deliver(getSender(index, null), session(),
+          new NigoriFuture.Transform<GetResponse, List<RevValue>>() {
+            @Override
+            public List<RevValue> apply(GetResponse response) throws Exception {
+              if (response == null) {
+                return null;
+              }
+              return revValues(response.getRevisionsList());
+            }
+          }, callback);
+    } catch (Exception e) {
+      callback.onFailure(e);
+    }
+  }
+
+  @Override
+  public void getRevisions(Index index, AsyncCallback<List<Revision>> callback) {
+    try {
+      final byte[] encIndex = keyManager.encryptDeterministically(index.getBytes());
+      deliver(new Sender<GetRevisionsResponse>() {
+        @Override
+        public NigoriFuture<GetRevisionsResponse> send(Session session) throws Exception {
+          GetRevisionsRequest request;
+          if (session == null) {
+            request =
+                MessageLibrary.getRevisionsRequestAsProtobuf(keyManager.getServerName(),
+                    keyManager.signer(), encIndex);
+          } else {
+            request =
+                MessageLibrary.getRevisionsRequestAsProtobuf(keyManager.getServerName(), session,
+                    encIndex);
+          }
+          return asyncProtocol.getRevisions(request);
+        }
+      }, session(), new NigoriFuture.Transform<GetRevisionsResponse, List<Revision>>() {
+        @Override
+        public List<Revision> apply(GetRevisionsResponse response) throws Exception {
+          return revisions(response);
+        }
+      }, callback);
+    } catch (Exception e) {
+      callback.onFailure(e);
+    }
+  }
+
+  @Override
+  public void put(Index index, Revision revision, byte[] value, AsyncCallback<Boolean> callback) {
+    if (value == null) {
+      throw new IllegalArgumentException("Null values not yet supported");
+    }
+    try {
+      final byte[] encIndex = keyManager.encryptDeterministically(index.getBytes());
+      final byte[] encRevision = keyManager.encryptDeterministically(revision.getBytes());
+      final byte[] encValue = keyManager.encrypt(value);
+      deliver(new Sender<Boolean>() {
+        @Override
+        public NigoriFuture<Boolean> send(Session session) throws Exception {
+          PutRequest request;
+          if (session == null) {
+            request =
+                MessageLibrary.putRequestAsProtobuf(keyManager.getServerName(),
+                    keyManager.signer(), encIndex, encRevision, encValue);
+          } else {
+            request =
+                MessageLibrary.putRequestAsProtobuf(keyManager.getServerName(), session,
+                    encIndex, encRevision, encValue);
+          }
+          return asyncProtocol.put(request);
+        }
+      }, session(), AsyncCryptoNigoriDatastore.<Boolean> identity(), callback);
+    } catch (Exception e) {
+      callback.onFailure(e);
+    }
+  }
+
+  @Override
+  public void delete(Index index, byte[] token, AsyncCallback<Boolean> callback) {
+    try {
+      final byte[] encIndex = keyManager.encryptDeterministically(index.getBytes());
+      deliver(new Sender<Boolean>() {
+        @Override
+        public NigoriFuture<Boolean> send(Session session) throws Exception {
+          DeleteRequest request;
+          if (session == null) {
+            request =
+                MessageLibrary.deleteRequestAsProtobuf(keyManager.getServerName(),
+                    keyManager.signer(), encIndex);
+          } else {
+            request =
+                MessageLibrary.deleteRequestAsProtobuf(keyManager.getServerName(), session,
+                    encIndex);
+          }
+          return asyncProtocol.delete(request);
+        }
+      }, session(), AsyncCryptoNigoriDatastore.<Boolean> identity(), callback);
+    } catch (Exception e) {
+      callback.onFailure(e);
+    }
+  }
+
+  @Override
+  public void execute(Runnable command) {
+    executor.execute(command);
+  }
+}
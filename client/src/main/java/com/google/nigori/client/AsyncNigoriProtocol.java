@@ -0,0 +1,85 @@
+/*
+ * Copyright (C) 2012 Daniel Thomas (drt24)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.nigori.client;
+
+import com.google.nigori.common.NigoriMessages.AuthenticateRequest;
+import com.google.nigori.common.NigoriMessages.BatchDeleteRequest;
+import com.google.nigori.common.NigoriMessages.BatchGetRequest;
+import com.google.nigori.common.NigoriMessages.BatchGetResponse;
+import com.google.nigori.common.NigoriMessages.BatchPutRequest;
+import com.google.nigori.common.NigoriMessages.DeleteRequest;
+import com.google.nigori.common.NigoriMessages.GetChangesRequest;
+import com.google.nigori.common.NigoriMessages.GetChangesResponse;
+import com.google.nigori.common.NigoriMessages.GetDigestRequest;
+import com.google.nigori.common.NigoriMessages.GetDigestResponse;
+import com.google.nigori.common.NigoriMessages.GetIndicesRequest;
+import com.google.nigori.common.NigoriMessages.GetIndicesResponse;
+import com.google.nigori.common.NigoriMessages.GetRequest;
+import com.google.nigori.common.NigoriMessages.GetResponse;
+import com.google.nigori.common.NigoriMessages.GetRevisionsRequest;
+import com.google.nigori.common.NigoriMessages.GetRevisionsResponse;
+import com.google.nigori.common.NigoriMessages.PutRequest;
+import com.google.nigori.common.NigoriMessages.RegisterRequest;
+import com.google.nigori.common.NigoriMessages.SessionRequest;
+import com.google.nigori.common.NigoriMessages.SessionResponse;
+import com.google.nigori.common.NigoriMessages.UnregisterRequest;
+import com.google.nigori.common.NigoriProtocol;
+import com.google.nigori.common.NotFoundException;
+import com.google.nigori.common.UnauthorisedException;
+
+/**
+ * An asynchronous version of {@link NigoriProtocol}, each method returns as soon as the request has
+ * been queued. The results are the same as for the corresponding {@link NigoriProtocol} method, and
+ * the futures fail with the exceptions it would throw: {@link java.io.IOException},
+ * {@link UnauthorisedException} and {@link NotFoundException}.
+ *
+ * @author drt24
+ *
+ */
+public interface AsyncNigoriProtocol {
+
+  NigoriFuture<Boolean> authenticate(AuthenticateRequest request);
+
+  NigoriFuture<Boolean> register(RegisterRequest request);
+
+  NigoriFuture<Boolean> unregister(UnregisterRequest request);
+
+  /**
+   * @return a future for the response, or null if there is no such index
+   */
+  NigoriFuture<GetResponse> get(GetRequest request);
+
+  NigoriFuture<GetIndicesResponse> getIndices(GetIndicesRequest request);
+
+  /**
+   * @return a future which fails with a {@link NotFoundException} if there is no such index
+   */
+  NigoriFuture<GetRevisionsResponse> getRevisions(GetRevisionsRequest request);
+
+  NigoriFuture<Boolean> put(PutRequest request);
+
+  NigoriFuture<Boolean> delete(DeleteRequest request);
+
+  NigoriFuture<SessionResponse> session(SessionRequest request);
+
+  NigoriFuture<BatchGetResponse> batchGet(BatchGetRequest request);
+
+  NigoriFuture<Boolean> batchPut(BatchPutRequest request);
+
+  NigoriFuture<Boolean> batchDelete(BatchDeleteRequest request);
+
+  NigoriFuture<GetChangesResponse> getChanges(GetChangesRequest request);
+
+  NigoriFuture<GetDigestResponse> getDigest(GetDigestRequest request);
+}
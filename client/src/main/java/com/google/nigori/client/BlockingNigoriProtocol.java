@@ -0,0 +1,185 @@
+/*
+ * Copyright (C) 2012 Daniel Thomas (drt24)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.nigori.client;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.ExecutionException;
+
+import com.google.nigori.common.NigoriMessages.AuthenticateRequest;
+import com.google.nigori.common.NigoriMessages.BatchDeleteRequest;
+import com.google.nigori.common.NigoriMessages.BatchGetRequest;
+import com.google.nigori.common.NigoriMessages.BatchGetResponse;
+import com.google.nigori.common.NigoriMessages.BatchPutRequest;
+import com.google.nigori.common.NigoriMessages.DeleteRequest;
+import com.google.nigori.common.NigoriMessages.GetChangesRequest;
+import com.google.nigori.common.NigoriMessages.GetChangesResponse;
+import com.google.nigori.common.NigoriMessages.GetDigestRequest;
+import com.google.nigori.common.NigoriMessages.GetDigestResponse;
+import com.google.nigori.common.NigoriMessages.GetIndicesRequest;
+import com.google.nigori.common.NigoriMessages.GetIndicesResponse;
+import com.google.nigori.common.NigoriMessages.GetRequest;
+import com.google.nigori.common.NigoriMessages.GetResponse;
+import com.google.nigori.common.NigoriMessages.GetRevisionsRequest;
+import com.google.nigori.common.NigoriMessages.GetRevisionsResponse;
+import com.google.nigori.common.NigoriMessages.PutRequest;
+import com.google.nigori.common.NigoriMessages.RegisterRequest;
+import com.google.nigori.common.NigoriMessages.SessionRequest;
+import com.google.nigori.common.NigoriMessages.SessionResponse;
+import com.google.nigori.common.NigoriMessages.UnregisterRequest;
+import com.google.nigori.common.NigoriProtocol;
+import com.google.nigori.common.NotFoundException;
+import com.google.nigori.common.UnauthorisedException;
+
+/**
+ * Presents an {@link AsyncNigoriProtocol} as a {@link NigoriProtocol} by waiting for each request
+ * to complete.
+ *
+ * @author drt24
+ *
+ */
+public class BlockingNigoriProtocol implements NigoriProtocol {
+
+  private final AsyncNigoriProtocol protocol;
+
+  public BlockingNigoriProtocol(AsyncNigoriProtocol protocol) {
+    this.protocol = protocol;
+  }
+
+  /**
+   * Wait for {@code future} and rethrow its failure
+   */
+  static <T> T await(NigoriFuture<T> future) throws IOException, UnauthorisedException {
+    try {
+      return awaitFound(future);
+    } catch (NotFoundException e) {
+      throw new IOException(e);
+    }
+  }
+
+  /**
+   * Wait for {@code future} and rethrow its failure
+   */
+  static <T> T awaitFound(NigoriFuture<T> future) throws IOException, UnauthorisedException,
+      NotFoundException {
+    try {
+      return future.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      future.cancel(false);
+      throw new InterruptedIOException("Interrupted waiting for response");
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof IOException) {
+        throw (IOException) cause;
+      } else if (cause instanceof UnauthorisedException) {
+        throw (UnauthorisedException) cause;
+      } else if (cause instanceof NotFoundException) {
+        throw (NotFoundException) cause;
+      } else if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      } else if (cause instanceof Error) {
+        throw (Error) cause;
+      }
+      throw new IOException(cause);
+    }
+  }
+
+  @Override
+  public boolean authenticate(AuthenticateRequest request) throws IOException {
+    try {
+      return await(protocol.authenticate(request));
+    } catch (UnauthorisedException e) {
+      return false;
+    }
+  }
+
+  @Override
+  public boolean register(RegisterRequest request) throws IOException {
+    try {
+      return await(protocol.register(request));
+    } catch (UnauthorisedException e) {
+      return false;
+    }
+  }
+
+  @Override
+  public boolean unregister(UnregisterRequest request) throws IOException, UnauthorisedException {
+    return await(protocol.unregister(request));
+  }
+
+  @Override
+  public GetResponse get(GetRequest request) throws IOException, NotFoundException,
+      UnauthorisedException {
+    return awaitFound(protocol.get(request));
+  }
+
+  @Override
+  public GetIndicesResponse getIndices(GetIndicesRequest request) throws IOException,
+      NotFoundException, UnauthorisedException {
+    return awaitFound(protocol.getIndices(request));
+  }
+
+  @Override
+  public GetRevisionsResponse getRevisions(GetRevisionsRequest request) throws IOException,
+      NotFoundException, UnauthorisedException {
+    return awaitFound(protocol.getRevisions(request));
+  }
+
+  @Override
+  public boolean put(PutRequest request) throws IOException, UnauthorisedException {
+    return await(protocol.put(request));
+  }
+
+  @Override
+  public boolean delete(DeleteRequest request) throws IOException, UnauthorisedException,
+      NotFoundException {
+    return awaitFound(protocol.delete(request));
+  }
+
+  @Override
+  public SessionResponse session(SessionRequest request) throws IOException,
+      UnauthorisedException {
+    return await(protocol.session(request));
+  }
+
+  @Override
+  public BatchGetResponse batchGet(BatchGetRequest request) throws IOException,
+      UnauthorisedException {
+    return await(protocol.batchGet(request));
+  }
+
+  @Override
+  public boolean batchPut(BatchPutRequest request) throws IOException, UnauthorisedException {
+    return await(protocol.batchPut(request));
+  }
+
+  @Override
+  public boolean batchDelete(BatchDeleteRequest request) throws IOException,
+      UnauthorisedException {
+    return await(protocol.batchDelete(request));
+  }
+
+  @Override
+  public GetChangesResponse getChanges(GetChangesRequest request) throws IOException,
+      UnauthorisedException {
+    return await(protocol.getChanges(request));
+  }
+
+  @Override
+  public GetDigestResponse getDigest(GetDigestRequest request) throws IOException,
+      UnauthorisedException {
+    return await(protocol.getDigest(request));
+  }
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright (C) 2012 Daniel Thomas (drt24)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.nigori.client;
+
+import java.io.IOException;
+import java.util.Set;
+
+import com.google.nigori.client.ChangeFeed.Changes;
+import com.google.nigori.common.Index;
+import com.google.nigori.common.NigoriCryptographyException;
+import com.google.nigori.common.UnauthorisedException;
+
+/**
+ * How far through the {@link ChangeFeed} of a store a syncing datastore has synced.
+ * 
+ * @author drt24
+ * 
+ */
+class ChangeCursor {
+
+  private static final int PAGE_SIZE = 1000;
+  private static final long UNKNOWN = -1;
+
+  private final ChangeFeed feed;
+  private long sequence = UNKNOWN;
+  private long pending = UNKNOWN;
+
+  /**
+   * @param store tracked if it is a {@link ChangeFeed}
+   */
+  ChangeCursor(Object store) {
+    this.feed = store instanceof ChangeFeed ? (ChangeFeed) store : null;
+  }
+
+  /**
+   * @return whether the store has a {@link ChangeFeed}
+   */
+  boolean isTracking() {
+    return feed != null;
+  }
+
+  /**
+   * @return whether {@link #changed(Set)} can be used
+   */
+  boolean isValid() {
+    return feed != null && sequence != UNKNOWN;
+  }
+
+  /**
+   * Find the current end of the feed, called before a full sync so that changes made during it are
+   * seen by the next sync. Takes effect on {@link #commit()}.
+   */
+  void reset() throws IOException, NigoriCryptographyException, UnauthorisedException {
+    pending = feed == null ? UNKNOWN : feed.getChanges(0, 0).getSequence();
+  }
+
+  /**
+   * Move the cursor to the position found by the last {@link #reset()} or
+   * {@link #changed(Set)}, called once the sync has succeeded.
+   */
+  void commit() {
+    sequence = pending;
+  }
+
+  /**
+   * Add the indices changed since the cursor to {@code indices}, a following {@link #commit()}
+   * moves the cursor past them.
+   * 
+   * @return false if the store no longer has the changes since the cursor, in which case everything
+   *         must be synced
+   */
+  boolean changed(Set<Index> indices) throws IOException, NigoriCryptographyException,
+      UnauthorisedException {
+    if (!isValid()) {
+      return false;
+    }
+    long current = sequence;
+    Changes changes;
+    do {
+      changes = feed.getChanges(current, PAGE_SIZE);
+      if (changes.isReset(current)) {
+        return false;
+      }
+      indices.addAll(changes.getIndices());
+      current = changes.getSequence();
+    } while (changes.hasMore());
+    pending = current;
+    return true;
+  }
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright (C) 2012 Daniel Thomas (drt24)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.nigori.client;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Set;
+
+import com.google.nigori.common.Index;
+import com.google.nigori.common.NigoriCryptographyException;
+import com.google.nigori.common.UnauthorisedException;
+
+/**
+ * A datastore which numbers the changes made to it, so that a sync only needs to look at the
+ * indices which have changed since the last one.
+ * 
+ * @author drt24
+ * 
+ */
+public interface ChangeFeed {
+
+  /**
+   * @param since the sequence number from an earlier {@link Changes#getSequence()} or 0 for all
+   *          changes
+   * @param limit the maximum number of changes to fetch, 0 to only fetch the current sequence number
+   */
+  Changes getChanges(long since, int limit) throws IOException, NigoriCryptographyException,
+      UnauthorisedException;
+
+  /**
+   * The indices changed between two sequence numbers
+   */
+  public static class Changes {
+    private final long sequence;
+    private final boolean more;
+    private final Set<Index> indices;
+
+    public Changes(long sequence, boolean more, Set<Index> indices) {
+      this.sequence = sequence;
+      this.more = more;
+      this.indices = Collections.unmodifiableSet(indices);
+    }
+
+    /**
+     * @return the sequence number to fetch the following changes from
+     */
+    public long getSequence() {
+      return sequence;
+    }
+
+    /**
+     * @return whether there are further changes after {@link #getSequence()}
+     */
+    public boolean hasMore() {
+      return more;
+    }
+
+    /**
+     * @return the indices which have had revisions added or been deleted
+     */
+    public Set<Index> getIndices() {
+      return indices;
+    }
+
+    /**
+     * @return whether the store no longer has the changes since {@code since} and so everything must
+     *         be synced
+     */
+    public boolean isReset(long since) {
+      return sequence < since;
+    }
+  }
+}
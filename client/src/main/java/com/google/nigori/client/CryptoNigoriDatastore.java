@@ -19,19 +19,45 @@ import static com.google.nigori.common.MessageLibrary.bytesToString;
 import java.io.IOException;
 import java.io.UnsupportedEncodingException;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
+import com.google.nigori.common.DSASign;
 import com.google.nigori.common.Index;
 import com.google.nigori.common.MessageLibrary;
 import com.google.nigori.common.NigoriCryptographyException;
+import com.google.nigori.common.NigoriMessages.BatchGetRequest;
+import com.google.nigori.common.NigoriMessages.BatchGetResponse;
+import com.google.nigori.common.NigoriMessages.BatchPutRequest;
+import com.google.nigori.common.NigoriMessages.Change;
+import com.google.nigori.common.NigoriMessages.DeleteRequest;
+import com.google.nigori.common.NigoriMessages.DigestNode;
+import com.google.nigori.common.NigoriMessages.GetChangesRequest;
+import com.google.nigori.common.NigoriMessages.GetChangesResponse;
+import com.google.nigori.common.NigoriMessages.GetDigestRequest;
+import com.google.nigori.common.NigoriMessages.GetDigestResponse;
+import com.google.nigori.common.NigoriMessages.GetIndicesRequest;
 import com.google.nigori.common.NigoriMessages.GetIndicesResponse;
+import com.google.nigori.common.NigoriMessages.GetRequest;
 import com.google.nigori.common.NigoriMessages.GetResponse;
+import com.google.nigori.common.NigoriMessages.GetRevisionsRequest;
 import com.google.nigori.common.NigoriMessages.GetRevisionsResponse;
+import com.google.nigori.common.NigoriMessages.KeyRevision;
+import com.google.nigori.common.NigoriMessages.KeyRevisionValue;
+import com.google.nigori.common.NigoriMessages.PutRequest;
 import com.google.nigori.common.NigoriMessages.RevisionValue;
+import com.google.nigori.common.NigoriMessages.SessionResponse;
 import com.google.nigori.common.NigoriProtocol;
 import com.google.nigori.common.NotFoundException;
 import com.google.nigori.common.RevValue;
 import com.google.nigori.common.Revision;
+import com.google.nigori.common.Session;
+import com.google.nigori.common.SessionKeyExchange;
 import com.google.nigori.common.UnauthorisedException;
 import com.google.protobuf.ByteString;
 
@@ -44,12 +70,38 @@ import com.google.protobuf.ByteString;
  *         of the methods in it until we have a "list indexes" method which at least for now we
  *         don't intend to do. putAll from {@link java.util.Map} might be worth implementing
  */
-public class CryptoNigoriDatastore implements NigoriDatastore {
+public class CryptoNigoriDatastore implements NigoriDatastore, ChangeFeed {
 
-  private final KeyManager keyManager;
+  /**
+   * Default maximum number of indices or records sent in one batch request
+   */
+  public static final int DEFAULT_BATCH_SIZE = 100;
+  /**
+   * Subtrees with at most this many pairs are compared pair by pair rather than by descending
+   */
+  private static final int DIGEST_RECORD_LIMIT = 64;
+  /**
+   * Default number of indices whose revisions are remembered so that only changes are fetched
+   */
+  public static final int DEFAULT_REVISION_CACHE_SIZE = 64;
+
+  final KeyManager keyManager;
 
   private final NigoriProtocol protocol;
 
+  private volatile boolean useSessions = false;
+  /**
+   * The current session if {@link #useSessions} otherwise null
+   */
+  private volatile Session session;
+
+  private volatile int batchSize = DEFAULT_BATCH_SIZE;
+
+  /**
+   * null if disabled
+   */
+  private volatile RevisionCache revisionCache = new RevisionCache(DEFAULT_REVISION_CACHE_SIZE);
+
   public CryptoNigoriDatastore(NigoriProtocol protocol, String username, String password,
       String serverName) throws UnsupportedEncodingException, NigoriCryptographyException {
     this.protocol = protocol;
@@ -127,6 +179,107 @@ public class CryptoNigoriDatastore implements NigoriDatastore {
         keyManager.getServerName(), keyManager.signer()));
   }
 
+  /**
+   * Establish a session with the server so that subsequent requests are authenticated with an HMAC
+   * under a session key rather than a DSA signature, which is much cheaper for the server to check.
+   * The session is renewed when it expires until {@link #endSession()} is called. If the server
+   * rejects the session (for example because it has restarted) the request is retried once signed
+   * with DSA and the next request establishes a new session.
+   */
+  public void startSession() throws IOException, NigoriCryptographyException,
+      UnauthorisedException {
+    synchronized (this) {
+      session = newSession();
+      useSessions = true;
+    }
+  }
+
+  /**
+   * Go back to signing every request.
+   */
+  public void endSession() {
+    synchronized (this) {
+      useSessions = false;
+      session = null;
+    }
+  }
+
+  private Session newSession() throws IOException, NigoriCryptographyException,
+      UnauthorisedException {
+    DSASign signer = keyManager.signer();
+    SessionKeyExchange exchange = new SessionKeyExchange();
+    long requested = System.currentTimeMillis();
+    SessionResponse response =
+        protocol.session(MessageLibrary.sessionRequestAsProtobuf(keyManager.getServerName(),
+            signer, exchange.getPublicValue()));
+    byte[] sessionKey = exchange.agree(response.getDhPublic().toByteArray());
+    return new Session(signer.getPublicHash(), response.getTicket().toByteArray(), sessionKey,
+        requested + response.getLifetime() * 1000L, response.getCounters());
+  }
+
+  /**
+   * @return the session to authenticate the next request with or null if it should be signed
+   */
+  Session session() throws IOException, NigoriCryptographyException,
+      UnauthorisedException {
+    if (!useSessions) {
+      return null;
+    }
+    Session current = session;
+    if (current == null || current.isExpired()) {
+      synchronized (this) {
+        current = session;
+        if (useSessions && (current == null || current.isExpired())) {
+          current = newSession();
+          session = current;
+        }
+      }
+    }
+    return current;
+  }
+
+  /**
+   * Discard {@code used} if it is still the current session so that the next request establishes a
+   * new one. Called when the server rejects a request authenticated with {@code used}, for example
+   * because it has restarted or the request reached an instance which does not share the key the
+   * ticket was sealed under, the request is then retried once signed with DSA.
+   */
+  void sessionRejected(Session used) {
+    synchronized (this) {
+      if (session == used) {
+        session = null;
+      }
+    }
+  }
+
+  /**
+   * Set the maximum number of indices or records sent in a single request by
+   * {@link #getAll(Collection)} and {@link #putAll(Map)}. Larger batches need fewer round trips
+   * and signatures but each request must still fit within the server's maximum request size.
+   * 
+   * @param batchSize must be positive, defaults to {@link #DEFAULT_BATCH_SIZE}
+   */
+  public void setBatchSize(int batchSize) {
+    if (batchSize < 1) {
+      throw new IllegalArgumentException("Batch size must be positive: " + batchSize);
+    }
+    this.batchSize = batchSize;
+  }
+
+  /**
+   * Set how many indices to remember the revisions (and values) of. {@link #get(Index)},
+   * {@link #getRevision(Index, Revision)} and {@link #getRevisions(Index)} then send the server a
+   * fingerprint of what is already known and are sent only what is missing from it.
+   * 
+   * @param size 0 to disable, defaults to {@link #DEFAULT_REVISION_CACHE_SIZE}
+   */
+  public void setRevisionCacheSize(int size) {
+    if (size < 0) {
+      throw new IllegalArgumentException("Cache size must not be negative: " + size);
+    }
+    revisionCache = size == 0 ? null : new RevisionCache(size);
+  }
+
   @Override
   public boolean register() throws IOException, NigoriCryptographyException {
     byte[] token = {};
@@ -198,75 +351,411 @@ public class CryptoNigoriDatastore implements NigoriDatastore {
       }
     }
 
-    try {
-      GetResponse getResponse =
-          protocol.get(MessageLibrary.getRequestAsProtobuf(keyManager.getServerName(),
-              keyManager.signer(), encIndex, encRevision));
-      if (getResponse == null) {
-        return null;
+    // Only values under the user's own key are cached
+    RevisionCache cache = encKey == null ? revisionCache : null;
+    Map<ByteString, RevValue> known = null;
+    byte[] fingerprint = null;
+    if (cache != null) {
+      if (revision == null) {
+        known = cache.getValues(index);
+      } else {
+        ByteString encRevisionBytes = ByteString.copyFrom(encRevision);
+        RevValue value = cache.getValue(index, encRevisionBytes);
+        if (value != null) {
+          known = new HashMap<ByteString, RevValue>();
+          known.put(encRevisionBytes, value);
+        }
       }
-      List<RevisionValue> revisions = getResponse.getRevisionsList();
-      List<RevValue> answer = new ArrayList<RevValue>(revisions.size());
-      for (RevisionValue revisionValue : revisions) {
-        byte[] revisionciphertext = revisionValue.getRevision().toByteArray();
-        byte[] valueciphertext = revisionValue.getValue().toByteArray();
-        if (encKey == null) {
-          answer.add(new RevValue(keyManager.decrypt(revisionciphertext), keyManager
-              .decrypt(valueciphertext)));
+      if (known != null) {
+        fingerprint = RevisionCache.fingerprint(known.keySet());
+      }
+    }
+
+    Session session = session();
+    while (true) {
+      GetRequest request;
+      if (session == null) {
+        request =
+            MessageLibrary.getRequestAsProtobuf(keyManager.getServerName(), keyManager.signer(),
+                encIndex, encRevision, fingerprint);
+      } else {
+        request =
+            MessageLibrary.getRequestAsProtobuf(keyManager.getServerName(), session, encIndex,
+                encRevision, fingerprint);
+      }
+      try {
+        GetResponse getResponse = protocol.get(request);
+        if (getResponse == null) {
+          return null;
+        }
+        Map<ByteString, RevValue> answer;
+        if (known != null && getResponse.getPartial()) {
+          answer = known;
         } else {
-          answer.add(new RevValue(keyManager.decrypt(encKey, revisionciphertext), keyManager
-              .decrypt(encKey, valueciphertext)));
+          answer = new LinkedHashMap<ByteString, RevValue>();
+        }
+        for (RevisionValue revisionValue : getResponse.getRevisionsList()) {
+          byte[] revisionciphertext = revisionValue.getRevision().toByteArray();
+          byte[] valueciphertext = revisionValue.getValue().toByteArray();
+          if (encKey == null) {
+            answer.put(revisionValue.getRevision(), new RevValue(keyManager
+                .decrypt(revisionciphertext), keyManager.decrypt(valueciphertext)));
+          } else {
+            answer.put(revisionValue.getRevision(), new RevValue(keyManager.decrypt(encKey,
+                revisionciphertext), keyManager.decrypt(encKey, valueciphertext)));
+          }
+        }
+        if (cache != null) {
+          if (revision == null) {
+            cache.putValues(index, answer);
+          } else {
+            for (Map.Entry<ByteString, RevValue> value : answer.entrySet()) {
+              cache.putValue(index, value.getKey(), value.getValue());
+            }
+          }
+        }
+        return new ArrayList<RevValue>(answer.values());
+      } catch (NotFoundException e) {
+        if (cache != null) {
+          cache.remove(index);
+        }
+        return null;
+      } catch (UnauthorisedException e) {
+        if (session == null) {
+          throw e;
+        }
+        sessionRejected(session);
+        session = null;
+      }
+    }
+  }
+
+  /**
+   * @return WARNING: there is no assurance that the value for the revision is a pair once specified
+   *         by a valid client - the server can pair any value with any revision.
+   */
+  @Override
+  public Map<Index, List<RevValue>> getAll(Collection<Index> indices) throws IOException,
+      NigoriCryptographyException, UnauthorisedException {
+    Map<Index, List<RevValue>> answer = new HashMap<Index, List<RevValue>>();
+    int size = batchSize;
+    List<Index> batch = new ArrayList<Index>(Math.min(size, indices.size()));
+    for (Index index : indices) {
+      batch.add(index);
+      if (batch.size() == size) {
+        getBatch(batch, answer);
+        batch.clear();
+      }
+    }
+    if (!batch.isEmpty()) {
+      getBatch(batch, answer);
+    }
+    return answer;
+  }
+
+  private void getBatch(List<Index> indices, Map<Index, List<RevValue>> answer)
+      throws IOException, NigoriCryptographyException, UnauthorisedException {
+    List<byte[]> encIndices = new ArrayList<byte[]>(indices.size());
+    for (Index index : indices) {
+      encIndices.add(keyManager.encryptDeterministically(index.getBytes()));
+    }
+
+    BatchGetRequest request;
+    BatchGetResponse batchResponse;
+    Session session = session();
+    while (true) {
+      if (session == null) {
+        request =
+            MessageLibrary.batchGetRequestAsProtobuf(keyManager.getServerName(),
+                keyManager.signer(), encIndices);
+      } else {
+        request =
+            MessageLibrary.batchGetRequestAsProtobuf(keyManager.getServerName(), session,
+                encIndices);
+      }
+      try {
+        batchResponse = protocol.batchGet(request);
+        break;
+      } catch (UnauthorisedException e) {
+        if (session == null) {
+          throw e;
         }
+        sessionRejected(session);
+        session = null;
+      }
+    }
+    List<GetResponse> responses = batchResponse.getResponsesList();
+    if (responses.size() != indices.size()) {
+      throw new IOException("Server sent " + responses.size() + " responses for "
+          + indices.size() + " indices");
+    }
+    for (int i = 0; i < responses.size(); ++i) {
+      GetResponse getResponse = responses.get(i);
+      if (!getResponse.getKey().equals(request.getKeys(i))) {
+        throw new IOException("Server sent responses out of order");
+      }
+      List<RevisionValue> revisions = getResponse.getRevisionsList();
+      if (revisions.isEmpty()) {
+        continue;
       }
-      return answer;
-    } catch (NotFoundException e) {
+      answer.put(indices.get(i), revValues(revisions));
+    }
+  }
+
+  /**
+   * Decrypt revisions and values encrypted under the user's key
+   */
+  List<RevValue> revValues(List<RevisionValue> revisions) throws NigoriCryptographyException {
+    List<RevValue> answer = new ArrayList<RevValue>(revisions.size());
+    for (RevisionValue revisionValue : revisions) {
+      answer.add(new RevValue(keyManager.decrypt(revisionValue.getRevision().toByteArray()),
+          keyManager.decrypt(revisionValue.getValue().toByteArray())));
+    }
+    return answer;
+  }
+
+  /**
+   * @return the decrypted indices or null if {@code response} is null
+   */
+  List<Index> indices(GetIndicesResponse response) throws NigoriCryptographyException {
+    if (response == null) {
+      return null;
+    }
+    List<ByteString> indices = response.getIndicesList();
+    List<Index> answer = new ArrayList<Index>(indices.size());
+    for (ByteString index : indices) {
+      answer.add(new Index(keyManager.decrypt(index.toByteArray())));
+    }
+    return answer;
+  }
+
+  /**
+   * @return the decrypted revisions or null if {@code response} is null
+   */
+  List<Revision> revisions(GetRevisionsResponse response) throws NigoriCryptographyException {
+    if (response == null) {
       return null;
     }
+    List<ByteString> revisions = response.getRevisionsList();
+    List<Revision> answer = new ArrayList<Revision>(revisions.size());
+    for (ByteString revision : revisions) {
+      answer.add(new Revision(keyManager.decrypt(revision.toByteArray())));
+    }
+    return answer;
   }
 
   @Override
   public List<Index> getIndices() throws NigoriCryptographyException, IOException,
       UnauthorisedException {
 
-    try {
-      GetIndicesResponse getResponse =
-          protocol.getIndices(MessageLibrary.getIndicesRequestAsProtobuf(
-              keyManager.getServerName(), keyManager.signer()));
-      if (getResponse == null) {
+    Session session = session();
+    while (true) {
+      GetIndicesRequest request;
+      if (session == null) {
+        request =
+            MessageLibrary.getIndicesRequestAsProtobuf(keyManager.getServerName(),
+                keyManager.signer());
+      } else {
+        request = MessageLibrary.getIndicesRequestAsProtobuf(keyManager.getServerName(), session);
+      }
+      try {
+        return indices(protocol.getIndices(request));
+      } catch (NotFoundException e) {
         return null;
+      } catch (UnauthorisedException e) {
+        if (session == null) {
+          throw e;
+        }
+        sessionRejected(session);
+        session = null;
       }
-      List<ByteString> indices = getResponse.getIndicesList();
-      List<Index> answer = new ArrayList<Index>(indices.size());
-      for (ByteString index : indices) {
-        answer.add(new Index(keyManager.decrypt(index.toByteArray())));
+    }
+  }
+
+  @Override
+  public Changes getChanges(long since, int limit) throws IOException,
+      NigoriCryptographyException, UnauthorisedException {
+    GetChangesResponse response;
+    Session session = session();
+    while (true) {
+      GetChangesRequest request;
+      if (session == null) {
+        request =
+            MessageLibrary.getChangesRequestAsProtobuf(keyManager.getServerName(),
+                keyManager.signer(), since, limit);
+      } else {
+        request =
+            MessageLibrary.getChangesRequestAsProtobuf(keyManager.getServerName(), session, since,
+                limit);
       }
-      return answer;
-    } catch (NotFoundException e) {
-      return null;
+      try {
+        response = protocol.getChanges(request);
+        break;
+      } catch (UnauthorisedException e) {
+        if (session == null) {
+          throw e;
+        }
+        sessionRejected(session);
+        session = null;
+      }
+    }
+    Set<Index> indices = new HashSet<Index>();
+    for (Change change : response.getChangesList()) {
+      indices.add(new Index(keyManager.decrypt(change.getKey().toByteArray())));
+    }
+    return new Changes(response.getSequence(), response.getMore(), indices);
+  }
+
+  /**
+   * @return the digests of the non-empty nodes {@code depth} levels below {@code path} and, if
+   *         {@code depth} is 0 and there are at most {@code recordLimit} of them, the (encrypted)
+   *         pairs under {@code path}
+   */
+  GetDigestResponse getDigest(byte[] path, int depth, int recordLimit) throws IOException,
+      NigoriCryptographyException, UnauthorisedException {
+    Session session = session();
+    while (true) {
+      GetDigestRequest request;
+      if (session == null) {
+        request =
+            MessageLibrary.getDigestRequestAsProtobuf(keyManager.getServerName(),
+                keyManager.signer(), path, depth, recordLimit);
+      } else {
+        request =
+            MessageLibrary.getDigestRequestAsProtobuf(keyManager.getServerName(), session, path,
+                depth, recordLimit);
+      }
+      try {
+        return protocol.getDigest(request);
+      } catch (UnauthorisedException e) {
+        if (session == null) {
+          throw e;
+        }
+        sessionRejected(session);
+        session = null;
+      }
+    }
+  }
+
+  /**
+   * Find the indices which have different revisions here and in {@code other} by comparing the
+   * servers' digests, descending only into subtrees which differ. Digests are over the encrypted
+   * indices and revisions, so both datastores must use the same keys.
+   * 
+   * @return the indices with a revision in one datastore but not the other
+   */
+  public Set<Index> differingIndices(CryptoNigoriDatastore other) throws IOException,
+      NigoriCryptographyException, UnauthorisedException {
+    Set<Index> answer = new HashSet<Index>();
+    differingIndices(other, new byte[0], answer);
+    return answer;
+  }
+
+  private void differingIndices(CryptoNigoriDatastore other, byte[] path, Set<Index> answer)
+      throws IOException, NigoriCryptographyException, UnauthorisedException {
+    GetDigestResponse mine = getDigest(path, 0, DIGEST_RECORD_LIMIT);
+    GetDigestResponse theirs = other.getDigest(path, 0, DIGEST_RECORD_LIMIT);
+    DigestNode myNode = mine.getNodesCount() == 0 ? null : mine.getNodes(0);
+    DigestNode theirNode = theirs.getNodesCount() == 0 ? null : theirs.getNodes(0);
+    if (myNode == null ? theirNode == null : myNode.equals(theirNode)) {
+      return;
+    }
+    if (hasAllRecords(myNode, mine) && hasAllRecords(theirNode, theirs)) {
+      Set<KeyRevision> myRecords = new HashSet<KeyRevision>(mine.getRecordsList());
+      Set<KeyRevision> theirRecords = new HashSet<KeyRevision>(theirs.getRecordsList());
+      for (KeyRevision record : myRecords) {
+        if (!theirRecords.contains(record)) {
+          answer.add(new Index(keyManager.decrypt(record.getKey().toByteArray())));
+        }
+      }
+      for (KeyRevision record : theirRecords) {
+        if (!myRecords.contains(record)) {
+          answer.add(new Index(keyManager.decrypt(record.getKey().toByteArray())));
+        }
+      }
+      return;
+    }
+    Map<ByteString, DigestNode> myChildren = new HashMap<ByteString, DigestNode>();
+    for (DigestNode child : getDigest(path, 1, 0).getNodesList()) {
+      myChildren.put(child.getPath(), child);
+    }
+    Set<ByteString> differing = new HashSet<ByteString>(myChildren.keySet());
+    for (DigestNode child : other.getDigest(path, 1, 0).getNodesList()) {
+      if (child.equals(myChildren.get(child.getPath()))) {
+        differing.remove(child.getPath());
+      } else {
+        differing.add(child.getPath());
+      }
+    }
+    for (ByteString child : differing) {
+      differingIndices(other, child.toByteArray(), answer);
     }
   }
 
+  private static boolean hasAllRecords(DigestNode node, GetDigestResponse response) {
+    return node == null || node.getCount() == response.getRecordsCount();
+  }
+
   @Override
   public List<Revision> getRevisions(Index index) throws NigoriCryptographyException,
       UnsupportedEncodingException, IOException, UnauthorisedException {
     byte[] encIndex = keyManager.encryptDeterministically(index.getBytes());
-
-    try {
-      GetRevisionsResponse getResponse =
-          protocol.getRevisions(MessageLibrary.getRevisionsRequestAsProtobuf(
-              keyManager.getServerName(), keyManager.signer(), encIndex));
-      if (getResponse == null) {
-        return null;
+    RevisionCache cache = revisionCache;
+    Map<ByteString, Revision> known = cache == null ? null : cache.getRevisions(index);
+
+    Session session = session();
+    while (true) {
+      GetRevisionsRequest request;
+      if (known == null) {
+        if (session == null) {
+          request =
+              MessageLibrary.getRevisionsRequestAsProtobuf(keyManager.getServerName(),
+                  keyManager.signer(), encIndex);
+        } else {
+          request =
+              MessageLibrary.getRevisionsRequestAsProtobuf(keyManager.getServerName(), session,
+                  encIndex);
+        }
+      } else {
+        byte[] fingerprint = RevisionCache.fingerprint(known.keySet());
+        if (session == null) {
+          request =
+              MessageLibrary.getRevisionsRequestAsProtobuf(keyManager.getServerName(),
+                  keyManager.signer(), encIndex, fingerprint);
+        } else {
+          request =
+              MessageLibrary.getRevisionsRequestAsProtobuf(keyManager.getServerName(), session,
+                  encIndex, fingerprint);
+        }
       }
-      List<ByteString> revisions = getResponse.getRevisionsList();
-      List<Revision> answer = new ArrayList<Revision>(revisions.size());
-      for (ByteString revision : revisions) {
-        answer.add(new Revision(keyManager.decrypt(revision.toByteArray())));
+      try {
+        GetRevisionsResponse response = protocol.getRevisions(request);
+        if (cache == null || response == null) {
+          return revisions(response);
+        }
+        Map<ByteString, Revision> answer;
+        if (known != null && response.getPartial()) {
+          answer = known;
+        } else {
+          answer = new LinkedHashMap<ByteString, Revision>();
+        }
+        for (ByteString revision : response.getRevisionsList()) {
+          answer.put(revision, new Revision(keyManager.decrypt(revision.toByteArray())));
+        }
+        cache.putRevisions(index, answer);
+        return new ArrayList<Revision>(answer.values());
+      } catch (NotFoundException e) {
+        if (cache != null) {
+          cache.remove(index);
+        }
+        return null;
+      } catch (UnauthorisedException e) {
+        if (session == null) {
+          throw e;
+        }
+        sessionRejected(session);
+        session = null;
       }
-      return answer;
-
-    } catch (NotFoundException e) {
-      return null;
     }
   }
 
@@ -304,8 +793,81 @@ public class CryptoNigoriDatastore implements NigoriDatastore {
       encRevision = keyManager.encryptDeterministically(encKey, revision.getBytes());
       encValue = keyManager.encrypt(encKey, value);
     }
-    return protocol.put(MessageLibrary.putRequestAsProtobuf(keyManager.getServerName(),
-        keyManager.signer(), encIndex, encRevision, encValue));
+    Session session = session();
+    while (true) {
+      PutRequest request;
+      if (session == null) {
+        request =
+            MessageLibrary.putRequestAsProtobuf(keyManager.getServerName(), keyManager.signer(),
+                encIndex, encRevision, encValue);
+      } else {
+        request =
+            MessageLibrary.putRequestAsProtobuf(keyManager.getServerName(), session, encIndex,
+                encRevision, encValue);
+      }
+      try {
+        return protocol.put(request);
+      } catch (UnauthorisedException e) {
+        if (session == null) {
+          throw e;
+        }
+        sessionRejected(session);
+        session = null;
+      }
+    }
+  }
+
+  /**
+   * Each batch is stored atomically but earlier batches remain stored if a later one fails.
+   */
+  @Override
+  public boolean putAll(Map<Index, ? extends Collection<RevValue>> records) throws IOException,
+      NigoriCryptographyException, UnauthorisedException {
+    int size = batchSize;
+    List<KeyRevisionValue> batch = new ArrayList<KeyRevisionValue>();
+    for (Map.Entry<Index, ? extends Collection<RevValue>> entry : records.entrySet()) {
+      byte[] encIndex = keyManager.encryptDeterministically(entry.getKey().getBytes());
+      for (RevValue revValue : entry.getValue()) {
+        if (revValue.getValue() == null) {
+          throw new IllegalArgumentException("Null values not yet supported");
+        }
+        batch.add(MessageLibrary.keyRevisionValueAsProtobuf(encIndex,
+            keyManager.encryptDeterministically(revValue.getRevision().getBytes()),
+            keyManager.encrypt(revValue.getValue())));
+        if (batch.size() == size) {
+          if (!putBatch(batch)) {
+            return false;
+          }
+          batch.clear();
+        }
+      }
+    }
+    return batch.isEmpty() || putBatch(batch);
+  }
+
+  private boolean putBatch(List<KeyRevisionValue> records) throws IOException,
+      NigoriCryptographyException, UnauthorisedException {
+    Session session = session();
+    while (true) {
+      BatchPutRequest request;
+      if (session == null) {
+        request =
+            MessageLibrary.batchPutRequestAsProtobuf(keyManager.getServerName(),
+                keyManager.signer(), records);
+      } else {
+        request =
+            MessageLibrary.batchPutRequestAsProtobuf(keyManager.getServerName(), session, records);
+      }
+      try {
+        return protocol.batchPut(request);
+      } catch (UnauthorisedException e) {
+        if (session == null) {
+          throw e;
+        }
+        sessionRejected(session);
+        session = null;
+      }
+    }
   }
 
   @Override
@@ -323,11 +885,32 @@ public class CryptoNigoriDatastore implements NigoriDatastore {
     } else {
       encIndex = keyManager.encryptDeterministically(encKey, index.getBytes());
     }
-    try {
-      return protocol.delete(MessageLibrary.deleteRequestAsProtobuf(keyManager.getServerName(),
-          keyManager.signer(), encIndex));
-    } catch (NotFoundException e) {
-      return false;
+    RevisionCache cache = revisionCache;
+    if (cache != null) {
+      cache.remove(index);
+    }
+    Session session = session();
+    while (true) {
+      DeleteRequest request;
+      if (session == null) {
+        request =
+            MessageLibrary.deleteRequestAsProtobuf(keyManager.getServerName(), keyManager.signer(),
+                encIndex);
+      } else {
+        request =
+            MessageLibrary.deleteRequestAsProtobuf(keyManager.getServerName(), session, encIndex);
+      }
+      try {
+        return protocol.delete(request);
+      } catch (NotFoundException e) {
+        return false;
+      } catch (UnauthorisedException e) {
+        if (session == null) {
+          throw e;
+        }
+        sessionRejected(session);
+        session = null;
+      }
     }
   }
 
@@ -13,13 +13,15 @@
  */
 package com.google.nigori.client;
 
-import java.io.BufferedOutputStream;
-import java.io.DataOutputStream;
-import java.io.FileNotFoundException;
 import java.io.IOException;
-import java.io.InputStream;
+import java.io.OutputStream;
 import java.net.HttpURLConnection;
 import java.net.URL;
+import java.util.HashMap;
+import java.util.Map;
+
+import com.google.nigori.client.HttpClient.Body;
+import com.google.protobuf.MessageLite;
 
 /**
  * Encapsulates communication with server via http
@@ -32,50 +34,70 @@ public class Http {
 
   private final String serverUrl;
   private final String supportedMimetypes;
+  private final HttpClient client;
 
   public Http(String serverUrl, String supportedMimetypes) {
+    this(serverUrl, supportedMimetypes, new HttpClient());
+  }
+
+  /**
+   * @param client to send requests with, may be shared with other {@link Http}s
+   */
+  public Http(String serverUrl, String supportedMimetypes, HttpClient client) {
     this.serverUrl = serverUrl;
     this.supportedMimetypes = supportedMimetypes;
+    this.client = client;
+  }
+
+  public HttpClient getClient() {
+    return client;
   }
 
   public HttpResponse post(String requestType, byte[] data, String mimeType) throws IOException {
+    return post(requestType, new ByteArrayBody(data), mimeType);
+  }
+
+  /**
+   * Post a protobuf in its binary form, written straight to the connection without an intermediate
+   * byte array.
+   */
+  public HttpResponse post(String requestType, final MessageLite message, String mimeType)
+      throws IOException {
+    return post(requestType, new Body() {
+      @Override
+      public int length() {
+        return message.getSerializedSize();
+      }
 
-    URL url = new URL(serverUrl + requestType);
-    HttpURLConnection conn = (HttpURLConnection) url.openConnection();
+      @Override
+      public void writeTo(OutputStream out) throws IOException {
+        message.writeTo(out);
+      }
+    }, mimeType);
+  }
 
-    try {
-      HttpURLConnection.setFollowRedirects(true);
-      conn.setDoInput(true);
-      conn.setDoOutput(true);
-      conn.setRequestMethod("POST");
-      conn.setRequestProperty("Content-Length", "" + data.length);
-      conn.setRequestProperty("Content-Type", mimeType);
-      conn.setRequestProperty("Accept", supportedMimetypes);
-      BufferedOutputStream out =
-          new BufferedOutputStream(new DataOutputStream(conn.getOutputStream()));
-      try {
-        out.write(data);
-        out.flush();
+  private static class ByteArrayBody implements Body {
+    private final byte[] data;
 
-        conn.connect();
+    ByteArrayBody(byte[] data) {
+      this.data = data;
+    }
 
-        final int response = conn.getResponseCode();
-        final String message = conn.getResponseMessage();
-        final InputStream input = conn.getInputStream();
-        return new HttpResponse(response, message, input);
-      } finally {
-        out.close();
-      }
-    } catch (FileNotFoundException fnfe) { // Occurs in the case of HTTP 404 response code
-      final int response = conn.getResponseCode();
-      final String message = conn.getResponseMessage();
-      final InputStream input = conn.getErrorStream();
-      return new HttpResponse(response, message, input);
-    } catch (IOException ioe) { // Occurs in the case of HTTP 401 and others
-      final int response = conn.getResponseCode();
-      final String message = conn.getResponseMessage();
-      final InputStream input = conn.getErrorStream();
-      return new HttpResponse(response, message, input);
+    @Override
+    public int length() {
+      return data.length;
     }
+
+    @Override
+    public void writeTo(OutputStream out) throws IOException {
+      out.write(data);
+    }
+  }
+
+  private HttpResponse post(String requestType, Body data, String mimeType) throws IOException {
+    Map<String, String> headers = new HashMap<String, String>(4);
+    headers.put("Content-Type", mimeType);
+    headers.put("Accept", supportedMimetypes);
+    return client.post(new URL(serverUrl + requestType), headers, data);
   }
 }
@@ -0,0 +1,542 @@
+/*
+ * Copyright (C) 2012 Daniel Thomas (drt24)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.nigori.client;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.EOFException;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.net.URL;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.net.ssl.HttpsURLConnection;
+import javax.net.ssl.SSLPeerUnverifiedException;
+import javax.net.ssl.SSLSocket;
+import javax.net.ssl.SSLSocketFactory;
+
+import com.google.nigori.common.MessageLibrary;
+
+/**
+ * A minimal HTTP/1.1 client which keeps connections alive and reuses them for later requests to
+ * the same host, so that most requests do not pay for a TCP (and TLS) handshake. Response bodies
+ * are read completely before the response is returned so the connection can go straight back into
+ * the pool.
+ *
+ * Instances are thread safe and may be shared between several {@link Http}s.
+ *
+ * @author drt24
+ *
+ */
+public class HttpClient {
+
+  public static final int DEFAULT_CONNECT_TIMEOUT = 10 * 1000;
+  public static final int DEFAULT_READ_TIMEOUT = 30 * 1000;
+  public static final int DEFAULT_TOTAL_TIMEOUT = 60 * 1000;
+  public static final int DEFAULT_MAX_IDLE_PER_HOST = 4;
+  /**
+   * Idle connections older than this are closed rather than reused since the server has probably
+   * closed its end.
+   */
+  public static final long DEFAULT_KEEP_ALIVE = 15 * 1000;
+
+  private static final byte[] CRLF = {'\r', '\n'};
+  private static final int MAX_LINE_LENGTH = 8 * 1024;
+
+  private volatile int connectTimeout = DEFAULT_CONNECT_TIMEOUT;
+  private volatile int readTimeout = DEFAULT_READ_TIMEOUT;
+  private volatile int totalTimeout = DEFAULT_TOTAL_TIMEOUT;
+  private volatile int maxIdlePerHost = DEFAULT_MAX_IDLE_PER_HOST;
+  private volatile long keepAlive = DEFAULT_KEEP_ALIVE;
+
+  private final Map<String, LinkedList<Connection>> idle =
+      new HashMap<String, LinkedList<Connection>>();
+  private final AtomicLong connectionsOpened = new AtomicLong();
+  private final AtomicLong connectionsReused = new AtomicLong();
+
+  /**
+   * The body of a request, written straight to the connection.
+   */
+  public interface Body {
+    int length();
+
+    void writeTo(OutputStream out) throws IOException;
+  }
+
+  /**
+   * @param connectTimeout milliseconds to wait for a connection to be established, 0 for no limit
+   */
+  public void setConnectTimeout(int connectTimeout) {
+    this.connectTimeout = checkNotNegative(connectTimeout);
+  }
+
+  /**
+   * @param readTimeout milliseconds to wait for any single read from the server, 0 for no limit
+   */
+  public void setReadTimeout(int readTimeout) {
+    this.readTimeout = checkNotNegative(readTimeout);
+  }
+
+  /**
+   * @param totalTimeout milliseconds that sending a request and reading the whole response may
+   *          take, not including establishing the connection, 0 for no limit
+   */
+  public void setTotalTimeout(int totalTimeout) {
+    this.totalTimeout = checkNotNegative(totalTimeout);
+  }
+
+  /**
+   * @param maxIdlePerHost maximum number of idle connections kept open to each host, 0 disables
+   *          connection reuse
+   */
+  public void setMaxIdlePerHost(int maxIdlePerHost) {
+    this.maxIdlePerHost = checkNotNegative(maxIdlePerHost);
+  }
+
+  /**
+   * @param keepAlive milliseconds after which an idle connection is no longer reused
+   */
+  public void setKeepAlive(long keepAlive) {
+    if (keepAlive < 0) {
+      throw new IllegalArgumentException("Must not be negative: " + keepAlive);
+    }
+    this.keepAlive = keepAlive;
+  }
+
+  private static int checkNotNegative(int value) {
+    if (value < 0) {
+      throw new IllegalArgumentException("Must not be negative: " + value);
+    }
+    return value;
+  }
+
+  /**
+   * @return the number of new connections which have been established
+   */
+  public long getConnectionsOpened() {
+    return connectionsOpened.get();
+  }
+
+  /**
+   * @return the number of requests which were sent on an existing connection
+   */
+  public long getConnectionsReused() {
+    return connectionsReused.get();
+  }
+
+  /**
+   * POST {@code body} to {@code url}
+   *
+   * @param headers additional request headers
+   * @return the complete response, whatever its status code
+   * @throws IOException if the request could not be sent or no valid response was received
+   */
+  public HttpResponse post(URL url, Map<String, String> headers, Body body) throws IOException {
+    String protocol = url.getProtocol();
+    boolean secure;
+    if ("https".equals(protocol)) {
+      secure = true;
+    } else if ("http".equals(protocol)) {
+      secure = false;
+    } else {
+      throw new IOException("Unsupported protocol: " + protocol);
+    }
+    int port = url.getPort() == -1 ? url.getDefaultPort() : url.getPort();
+    String hostKey = protocol + "://" + url.getHost() + ":" + port;
+
+    Connection conn = takeIdle(hostKey);
+    if (conn != null) {
+      connectionsReused.incrementAndGet();
+      try {
+        return exchange(hostKey, conn, url, headers, body);
+      } catch (StaleConnectionException e) {
+        // The server closed the idle connection before it saw our request, so it is safe to send it
+        // again on a fresh connection.
+        conn.close();
+      }
+    }
+    conn = open(url.getHost(), port, secure);
+    connectionsOpened.incrementAndGet();
+    try {
+      return exchange(hostKey, conn, url, headers, body);
+    } catch (StaleConnectionException e) {
+      throw (IOException) e.getCause();
+    }
+  }
+
+  /**
+   * Close all idle connections
+   */
+  public void close() {
+    synchronized (idle) {
+      for (LinkedList<Connection> connections : idle.values()) {
+        for (Connection conn : connections) {
+          conn.close();
+        }
+      }
+      idle.clear();
+    }
+  }
+
+  private Connection takeIdle(String hostKey) {
+    long oldest = System.currentTimeMillis() - keepAlive;
+    synchronized (idle) {
+      LinkedList<Connection> connections = idle.get(hostKey);
+      while (connections != null && !connections.isEmpty()) {
+        // most recently used first as it is the least likely to have been closed by the server
+        Connection conn = connections.removeLast();
+        if (conn.lastUsed >= oldest) {
+          return conn;
+        }
+        conn.close();
+      }
+    }
+    return null;
+  }
+
+  private void release(String hostKey, Connection conn) {
+    conn.lastUsed = System.currentTimeMillis();
+    synchronized (idle) {
+      LinkedList<Connection> connections = idle.get(hostKey);
+      if (connections == null) {
+        connections = new LinkedList<Connection>();
+        idle.put(hostKey, connections);
+      }
+      if (connections.size() < maxIdlePerHost) {
+        connections.addLast(conn);
+        return;
+      }
+    }
+    conn.close();
+  }
+
+  private Connection open(String host, int port, boolean secure) throws IOException {
+    Socket socket = new Socket();
+    try {
+      socket.setTcpNoDelay(true);
+      socket.connect(new InetSocketAddress(host, port), connectTimeout);
+      if (secure) {
+        socket.setSoTimeout(connectTimeout);
+        SSLSocket ssl =
+            (SSLSocket) ((SSLSocketFactory) SSLSocketFactory.getDefault()).createSocket(socket,
+                host, port, true);
+        ssl.startHandshake();
+        if (!HttpsURLConnection.getDefaultHostnameVerifier().verify(host, ssl.getSession())) {
+          throw new SSLPeerUnverifiedException("Certificate does not match host " + host);
+        }
+        socket = ssl;
+      }
+      return new Connection(socket);
+    } catch (IOException e) {
+      socket.close();
+      throw e;
+    }
+  }
+
+  private HttpResponse exchange(String hostKey, Connection conn, URL url,
+      Map<String, String> headers, Body body) throws IOException {
+    boolean reusable = false;
+    try {
+      int total = totalTimeout;
+      conn.raw.deadline = total == 0 ? 0 : System.currentTimeMillis() + total;
+      conn.raw.readTimeout = readTimeout;
+
+      try {
+        writeRequest(conn.out, url, headers, body);
+      } catch (IOException e) {
+        throw new StaleConnectionException(e);
+      }
+
+      String statusLine = conn.readLine();
+      if (statusLine == null) {
+        throw new StaleConnectionException(new EOFException(
+            "Server closed connection without responding"));
+      }
+      // HTTP/1.1 200 OK
+      String[] status = statusLine.split(" ", 3);
+      if (status.length < 2 || !status[0].startsWith("HTTP/")) {
+        throw new IOException("Invalid status line: " + statusLine);
+      }
+      int responseCode;
+      try {
+        responseCode = Integer.parseInt(status[1]);
+      } catch (NumberFormatException e) {
+        throw new IOException("Invalid status line: " + statusLine);
+      }
+      String responseMessage = status.length > 2 ? status[2] : "";
+
+      long contentLength = -1;
+      boolean chunked = false;
+      boolean keepAlive = !"HTTP/1.0".equals(status[0]);
+      String line;
+      while ((line = conn.readLine()) != null && line.length() > 0) {
+        int colon = line.indexOf(':');
+        if (colon < 1) {
+          continue;
+        }
+        String name = line.substring(0, colon).trim();
+        String value = line.substring(colon + 1).trim();
+        if ("Content-Length".equalsIgnoreCase(name)) {
+          try {
+            contentLength = Long.parseLong(value);
+          } catch (NumberFormatException e) {
+            throw new IOException("Invalid Content-Length: " + value);
+          }
+        } else if ("Transfer-Encoding".equalsIgnoreCase(name)) {
+          chunked = value.toLowerCase().contains("chunked");
+        } else if ("Connection".equalsIgnoreCase(name)) {
+          if ("close".equalsIgnoreCase(value)) {
+            keepAlive = false;
+          } else if ("keep-alive".equalsIgnoreCase(value)) {
+            keepAlive = true;
+          }
+        }
+      }
+      if (line == null) {
+        throw new EOFException("Connection closed while reading response headers");
+      }
+
+      byte[] responseBody;
+      if (responseCode == 204 || responseCode == 304 || (responseCode >= 100 && responseCode < 200)) {
+        responseBody = new byte[0];
+      } else if (chunked) {
+        responseBody = readChunked(conn);
+      } else if (contentLength >= 0) {
+        if (contentLength > Integer.MAX_VALUE) {
+          throw new IOException("Response too large: " + contentLength);
+        }
+        responseBody = new byte[(int) contentLength];
+        readFully(conn.in, responseBody, 0, responseBody.length);
+      } else {
+        // body delimited by the server closing the connection
+        responseBody = readToEnd(conn.in);
+        keepAlive = false;
+      }
+      reusable = keepAlive;
+      return new HttpResponse(responseCode, responseMessage, responseBody);
+    } finally {
+      if (reusable) {
+        release(hostKey, conn);
+      } else {
+        conn.close();
+      }
+    }
+  }
+
+  private static void writeRequest(OutputStream out, URL url, Map<String, String> headers,
+      Body body) throws IOException {
+    String path = url.getFile();
+    if (path.length() == 0) {
+      path = "/";
+    }
+    StringBuilder head = new StringBuilder(256);
+    head.append("POST ").append(path).append(" HTTP/1.1\r\n");
+    head.append("Host: ").append(url.getHost());
+    if (url.getPort() != -1) {
+      head.append(':').append(url.getPort());
+    }
+    head.append("\r\n");
+    for (Map.Entry<String, String> header : headers.entrySet()) {
+      head.append(header.getKey()).append(": ").append(header.getValue()).append("\r\n");
+    }
+    head.append("Content-Length: ").append(body.length()).append("\r\n");
+    head.append("Connection: keep-alive\r\n\r\n");
+    out.write(MessageLibrary.toBytes(head.toString()));
+    body.writeTo(out);
+    out.flush();
+  }
+
+  private static byte[] readChunked(Connection conn) throws IOException {
+    byte[] buffer = new byte[4096];
+    int size = 0;
+    while (true) {
+      String line = conn.readLine();
+      if (line == null) {
+        throw new EOFException("Connection closed while reading chunk size");
+      }
+      int extension = line.indexOf(';');
+      String hex = (extension == -1 ? line : line.substring(0, extension)).trim();
+      int chunkSize;
+      try {
+        chunkSize = Integer.parseInt(hex, 16);
+      } catch (NumberFormatException e) {
+        throw new IOException("Invalid chunk size: " + line);
+      }
+      if (chunkSize < 0) {
+        throw new IOException("Invalid chunk size: " + line);
+      }
+      if (chunkSize == 0) {
+        break;
+      }
+      if (size + chunkSize > buffer.length || size + chunkSize < 0) {
+        long newLength = Math.max(buffer.length * 2L, (long) size + chunkSize);
+        if (newLength > Integer.MAX_VALUE) {
+          throw new IOException("Response too large");
+        }
+        buffer = Arrays.copyOf(buffer, (int) newLength);
+      }
+      readFully(conn.in, buffer, size, chunkSize);
+      size += chunkSize;
+      if (conn.readLine() == null) {
+        throw new EOFException("Connection closed while reading chunk");
+      }
+    }
+    // trailers
+    String line;
+    while ((line = conn.readLine()) != null && line.length() > 0) {
+    }
+    if (line == null) {
+      throw new EOFException("Connection closed while reading trailers");
+    }
+    return Arrays.copyOf(buffer, size);
+  }
+
+  private static byte[] readToEnd(InputStream in) throws IOException {
+    byte[] buffer = new byte[4096];
+    int size = 0;
+    int read;
+    while ((read = in.read(buffer, size, buffer.length - size)) != -1) {
+      size += read;
+      if (size == buffer.length) {
+        buffer = Arrays.copyOf(buffer, buffer.length * 2);
+      }
+    }
+    return Arrays.copyOf(buffer, size);
+  }
+
+  private static void readFully(InputStream in, byte[] buffer, int offset, int length)
+      throws IOException {
+    while (length > 0) {
+      int read = in.read(buffer, offset, length);
+      if (read == -1) {
+        throw new EOFException("Connection closed with " + length + " bytes of the body unread");
+      }
+      offset += read;
+      length -= read;
+    }
+  }
+
+  /**
+   * Thrown when a connection fails before any of the response was received, as happens when the
+   * server has closed an idle connection
+   */
+  private static class StaleConnectionException extends IOException {
+    private static final long serialVersionUID = 1L;
+
+    StaleConnectionException(IOException cause) {
+      super(cause);
+    }
+  }
+
+  private static class Connection {
+    private final Socket socket;
+    private final TimeoutInputStream raw;
+    private final BufferedInputStream in;
+    private final OutputStream out;
+    private long lastUsed;
+
+    Connection(Socket socket) throws IOException {
+      this.socket = socket;
+      this.raw = new TimeoutInputStream(socket);
+      this.in = new BufferedInputStream(raw, 8192);
+      this.out = new BufferedOutputStream(socket.getOutputStream(), 8192);
+      this.lastUsed = System.currentTimeMillis();
+    }
+
+    /**
+     * @return the next CRLF terminated line without the terminator or null if the connection was
+     *         closed before any of it was read
+     */
+    String readLine() throws IOException {
+      StringBuilder line = new StringBuilder(64);
+      int b;
+      while ((b = in.read()) != -1) {
+        if (b == CRLF[1]) {
+          int length = line.length();
+          if (length > 0 && line.charAt(length - 1) == CRLF[0]) {
+            line.setLength(length - 1);
+          }
+          return line.toString();
+        }
+        if (line.length() >= MAX_LINE_LENGTH) {
+          throw new IOException("Response line too long");
+        }
+        // header lines are ASCII
+        line.append((char) b);
+      }
+      if (line.length() == 0) {
+        return null;
+      }
+      throw new EOFException("Connection closed part way through a line");
+    }
+
+    void close() {
+      try {
+        socket.close();
+      } catch (IOException e) {
+        // nothing more we can do
+      }
+    }
+  }
+
+  /**
+   * Applies both the per-read timeout and the deadline for the whole request to each read from the
+   * socket.
+   */
+  private static class TimeoutInputStream extends FilterInputStream {
+    private final Socket socket;
+    private long deadline;
+    private int readTimeout;
+
+    TimeoutInputStream(Socket socket) throws IOException {
+      super(socket.getInputStream());
+      this.socket = socket;
+    }
+
+    private void setTimeout() throws IOException {
+      int timeout = readTimeout;
+      if (deadline != 0) {
+        long remaining = deadline - System.currentTimeMillis();
+        if (remaining <= 0) {
+          throw new SocketTimeoutException("Request took longer than the total timeout");
+        }
+        if (timeout == 0 || remaining < timeout) {
+          timeout = (int) remaining;
+        }
+      }
+      socket.setSoTimeout(timeout);
+    }
+
+    @Override
+    public int read() throws IOException {
+      setTimeout();
+      return super.read();
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+      setTimeout();
+      return super.read(b, off, len);
+    }
+  }
+}
@@ -13,34 +13,27 @@
  */
 package com.google.nigori.client;
 
-import java.io.BufferedInputStream;
-import java.io.BufferedReader;
-import java.io.IOException;
+import java.io.ByteArrayInputStream;
 import java.io.InputStream;
-import java.io.InputStreamReader;
-import java.io.UnsupportedEncodingException;
-import java.util.logging.Level;
-import java.util.logging.Logger;
 
 import com.google.nigori.common.MessageLibrary;
 
 /**
- * Encapsulates response from server
+ * Encapsulates response from server, the whole body has already been read from the connection.
  * 
  * @author drt24
  * 
  */
 class HttpResponse {
-  private static Logger log = Logger.getLogger(HttpResponse.class.getCanonicalName());
 
-  private int responseCode;
-  private String responseMessage;
-  private InputStream input;
+  private final int responseCode;
+  private final String responseMessage;
+  private final byte[] body;
 
-  HttpResponse(int responseCode, String responseMessage, InputStream input) {
+  HttpResponse(int responseCode, String responseMessage, byte[] body) {
     this.responseCode = responseCode;
     this.responseMessage = responseMessage;
-    this.input = input;
+    this.body = body;
   }
 
   int getResponseCode() {
@@ -51,56 +44,34 @@ class HttpResponse {
     return responseMessage;
   }
 
-  public String toOutputString() throws IOException {
-    try {
-      BufferedInputStream in = new BufferedInputStream(input);
-      StringBuilder jsonResponse = new StringBuilder();
-      // TODO(beresford): optimise this buffer size
-      byte[] buffer = new byte[1024];
-      int bytesRead;
-      while ((bytesRead = in.read(buffer)) != -1) {
-        jsonResponse.append(new String(buffer, 0, bytesRead, MessageLibrary.CHARSET));
-      }
-      return jsonResponse.toString();
-    } finally {
-      input.close();
-    }
+  /**
+   * @return the body of the response
+   */
+  InputStream getInputStream() {
+    return new ByteArrayInputStream(body);
   }
 
-  @Override
-  public String toString() {
-
-    try {
-      StringBuilder buffer = new StringBuilder();
-      buffer.append("Response: " + getResponseCode() + " (" + getResponseMessage() + ")\n");
+  /**
+   * @return the body of the response, not copied so must not be modified
+   */
+  byte[] getBody() {
+    return body;
+  }
 
-      BufferedReader reader;
-      try {
-        reader = new BufferedReader(new InputStreamReader(input, MessageLibrary.CHARSET));
-      } catch (UnsupportedEncodingException e) {
-        throw new RuntimeException(e);// never happens as UTF-8 is supported
-      }
-      String line;
-      try {
-        while ((line = reader.readLine()) != null) {
-          buffer.append(line);
-        }
-        reader.close();
-      } catch (IOException e) {
-        buffer.append("*** read interrupted: " + e);
-      }
+  public String toOutputString() {
+    return MessageLibrary.bytesToString(body);
+  }
 
-      return buffer.toString();
-    } finally {
-      try {
-        input.close();
-      } catch (IOException e) {
-        log.log(Level.WARNING, "IOE while turning response to string", e);
-      }
-    }
+  @Override
+  public String toString() {
+    return "Response: " + getResponseCode() + " (" + getResponseMessage() + ")\n"
+        + toOutputString();
   }
 
-  public void close() throws IOException {
-    input.close();
+  /**
+   * Nothing to release as the connection has already been returned to the pool, kept so callers
+   * need not know that.
+   */
+  public void close() {
   }
-}
\ No newline at end of file
+}
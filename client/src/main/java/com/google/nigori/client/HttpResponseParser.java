@@ -0,0 +1,295 @@
+/*
+ * Copyright (C) 2012 Daniel Thomas (drt24)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.nigori.client;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Parses a sequence of HTTP/1.1 responses from buffers of bytes as they arrive from a non-blocking
+ * connection, so responses may be split across, or share, buffers arbitrarily.
+ *
+ * @author drt24
+ *
+ */
+class HttpResponseParser {
+
+  private static final int MAX_LINE_LENGTH = 8 * 1024;
+
+  private enum State {
+    STATUS, HEADERS, BODY, CHUNK_SIZE, CHUNK_DATA, CHUNK_END, TRAILERS, UNTIL_CLOSE
+  }
+
+  private State state = State.STATUS;
+  private final StringBuilder line = new StringBuilder(64);
+
+  private String version;
+  private int responseCode;
+  private String responseMessage;
+  private long contentLength;
+  private boolean chunked;
+  private boolean keepAlive;
+
+  private byte[] body;
+  private int bodySize;
+  private int remaining;
+
+  private boolean closeAfter = false;
+
+  /**
+   * @return the next complete response or null if {@code in} does not complete one, in which case
+   *         all of {@code in} has been consumed.
+   * @throws IOException if the response is malformed
+   */
+  HttpResponse parse(ByteBuffer in) throws IOException {
+    while (in.hasRemaining()) {
+      switch (state) {
+        case STATUS:
+          if (readLine(in)) {
+            startResponse(takeLine());
+          }
+          break;
+        case HEADERS:
+          if (readLine(in)) {
+            String header = takeLine();
+            if (header.length() == 0) {
+              HttpResponse response = startBody();
+              if (response != null) {
+                return response;
+              }
+            } else {
+              header(header);
+            }
+          }
+          break;
+        case BODY:
+        case CHUNK_DATA:
+          int length = Math.min(remaining, in.remaining());
+          in.get(body, bodySize, length);
+          bodySize += length;
+          remaining -= length;
+          if (remaining == 0) {
+            if (state == State.BODY) {
+              return finish();
+            }
+            state = State.CHUNK_END;
+          }
+          break;
+        case CHUNK_END:
+          if (readLine(in)) {
+            if (takeLine().length() != 0) {
+              throw new IOException("Missing CRLF after chunk");
+            }
+            state = State.CHUNK_SIZE;
+          }
+          break;
+        case CHUNK_SIZE:
+          if (readLine(in)) {
+            chunkSize(takeLine());
+          }
+          break;
+        case TRAILERS:
+          if (readLine(in)) {
+            if (takeLine().length() == 0) {
+              return finish();
+            }
+          }
+          break;
+        case UNTIL_CLOSE:
+          ensureCapacity(in.remaining());
+          int available = in.remaining();
+          in.get(body, bodySize, available);
+          bodySize += available;
+          break;
+        default:
+          throw new IllegalStateException(state.toString());
+      }
+    }
+    return null;
+  }
+
+  /**
+   * The connection has been closed by the server.
+   *
+   * @return the final response if its body was delimited by the connection closing, otherwise null
+   * @throws EOFException if the connection closed part way through a response
+   */
+  HttpResponse endOfInput() throws EOFException {
+    if (state == State.UNTIL_CLOSE) {
+      return finish();
+    }
+    if (state != State.STATUS || line.length() != 0) {
+      throw new EOFException("Connection closed part way through a response");
+    }
+    return null;
+  }
+
+  /**
+   * @return whether the most recently parsed response said that the server would close the
+   *         connection after it
+   */
+  boolean closeAfter() {
+    return closeAfter;
+  }
+
+  /**
+   * @return whether part of a response has been parsed but not yet returned
+   */
+  boolean inResponse() {
+    return state != State.STATUS || line.length() != 0;
+  }
+
+  private boolean readLine(ByteBuffer in) throws IOException {
+    while (in.hasRemaining()) {
+      byte b = in.get();
+      if (b == '\n') {
+        int length = line.length();
+        if (length > 0 && line.charAt(length - 1) == '\r') {
+          line.setLength(length - 1);
+        }
+        return true;
+      }
+      if (line.length() >= MAX_LINE_LENGTH) {
+        throw new IOException("Response line too long");
+      }
+      // status and header lines are ASCII
+      line.append((char) (b & 0xff));
+    }
+    return false;
+  }
+
+  private String takeLine() {
+    String answer = line.toString();
+    line.setLength(0);
+    return answer;
+  }
+
+  private void startResponse(String statusLine) throws IOException {
+    if (statusLine.length() == 0) {
+      // tolerate stray CRLFs between responses
+      return;
+    }
+    // HTTP/1.1 200 OK
+    String[] status = statusLine.split(" ", 3);
+    if (status.length < 2 || !status[0].startsWith("HTTP/")) {
+      throw new IOException("Invalid status line: " + statusLine);
+    }
+    version = status[0];
+    try {
+      responseCode = Integer.parseInt(status[1]);
+    } catch (NumberFormatException e) {
+      throw new IOException("Invalid status line: " + statusLine);
+    }
+    responseMessage = status.length > 2 ? status[2] : "";
+    contentLength = -1;
+    chunked = false;
+    keepAlive = !"HTTP/1.0".equals(version);
+    state = State.HEADERS;
+  }
+
+  private void header(String header) throws IOException {
+    int colon = header.indexOf(':');
+    if (colon < 1) {
+      return;
+    }
+    String name = header.substring(0, colon).trim();
+    String value = header.substring(colon + 1).trim();
+    if ("Content-Length".equalsIgnoreCase(name)) {
+      try {
+        contentLength = Long.parseLong(value);
+      } catch (NumberFormatException e) {
+        throw new IOException("Invalid Content-Length: " + value);
+      }
+    } else if ("Transfer-Encoding".equalsIgnoreCase(name)) {
+      chunked = value.toLowerCase().contains("chunked");
+    } else if ("Connection".equalsIgnoreCase(name)) {
+      if ("close".equalsIgnoreCase(value)) {
+        keepAlive = false;
+      } else if ("keep-alive".equalsIgnoreCase(value)) {
+        keepAlive = true;
+      }
+    }
+  }
+
+  /**
+   * @return the response if it has no body
+   */
+  private HttpResponse startBody() throws IOException {
+    bodySize = 0;
+    if (responseCode == 204 || responseCode == 304 || (responseCode >= 100 && responseCode < 200)) {
+      body = new byte[0];
+      return finish();
+    } else if (chunked) {
+      body = new byte[4096];
+      state = State.CHUNK_SIZE;
+    } else if (contentLength >= 0) {
+      if (contentLength > Integer.MAX_VALUE) {
+        throw new IOException("Response too large: " + contentLength);
+      }
+      body = new byte[(int) contentLength];
+      remaining = body.length;
+      if (remaining == 0) {
+        return finish();
+      }
+      state = State.BODY;
+    } else {
+      body = new byte[4096];
+      keepAlive = false;
+      state = State.UNTIL_CLOSE;
+    }
+    return null;
+  }
+
+  private void chunkSize(String sizeLine) throws IOException {
+    int extension = sizeLine.indexOf(';');
+    String hex = (extension == -1 ? sizeLine : sizeLine.substring(0, extension)).trim();
+    int chunkSize;
+    try {
+      chunkSize = Integer.parseInt(hex, 16);
+    } catch (NumberFormatException e) {
+      throw new IOException("Invalid chunk size: " + sizeLine);
+    }
+    if (chunkSize < 0) {
+      throw new IOException("Invalid chunk size: " + sizeLine);
+    }
+    if (chunkSize == 0) {
+      state = State.TRAILERS;
+      return;
+    }
+    ensureCapacity(chunkSize);
+    remaining = chunkSize;
+    state = State.CHUNK_DATA;
+  }
+
+  private void ensureCapacity(int extra) throws IOException {
+    long needed = (long) bodySize + extra;
+    if (needed > body.length) {
+      long newLength = Math.max(body.length * 2L, needed);
+      if (newLength > Integer.MAX_VALUE) {
+        throw new IOException("Response too large");
+      }
+      body = Arrays.copyOf(body, (int) newLength);
+    }
+  }
+
+  private HttpResponse finish() {
+    byte[] answer = bodySize == body.length ? body : Arrays.copyOf(body, bodySize);
+    body = null;
+    closeAfter = !keepAlive;
+    state = State.STATUS;
+    return new HttpResponse(responseCode, responseMessage, answer);
+  }
+}
@@ -16,13 +16,21 @@ package com.google.nigori.client;
 import static com.google.nigori.common.MessageLibrary.toBytes;
 
 import java.io.IOException;
-import java.io.UnsupportedEncodingException;
+import java.io.InputStreamReader;
 import java.net.HttpURLConnection;
 
 import com.google.nigori.common.MessageLibrary;
 import com.google.nigori.common.MessageLibrary.JsonConversionException;
 import com.google.nigori.common.NigoriMessages.AuthenticateRequest;
+import com.google.nigori.common.NigoriMessages.BatchDeleteRequest;
+import com.google.nigori.common.NigoriMessages.BatchGetRequest;
+import com.google.nigori.common.NigoriMessages.BatchGetResponse;
+import com.google.nigori.common.NigoriMessages.BatchPutRequest;
 import com.google.nigori.common.NigoriMessages.DeleteRequest;
+import com.google.nigori.common.NigoriMessages.GetChangesRequest;
+import com.google.nigori.common.NigoriMessages.GetChangesResponse;
+import com.google.nigori.common.NigoriMessages.GetDigestRequest;
+import com.google.nigori.common.NigoriMessages.GetDigestResponse;
 import com.google.nigori.common.NigoriMessages.GetIndicesRequest;
 import com.google.nigori.common.NigoriMessages.GetIndicesResponse;
 import com.google.nigori.common.NigoriMessages.GetRequest;
@@ -31,10 +39,13 @@ import com.google.nigori.common.NigoriMessages.GetRevisionsRequest;
 import com.google.nigori.common.NigoriMessages.GetRevisionsResponse;
 import com.google.nigori.common.NigoriMessages.PutRequest;
 import com.google.nigori.common.NigoriMessages.RegisterRequest;
+import com.google.nigori.common.NigoriMessages.SessionRequest;
+import com.google.nigori.common.NigoriMessages.SessionResponse;
 import com.google.nigori.common.NigoriMessages.UnregisterRequest;
 import com.google.nigori.common.NigoriProtocol;
 import com.google.nigori.common.NotFoundException;
 import com.google.nigori.common.UnauthorisedException;
+import com.google.protobuf.GeneratedMessage;
 
 /**
  * Implements the NigoriProtocol using Json and HTTP
@@ -49,12 +60,23 @@ public class JsonHTTPProtocol implements NigoriProtocol {
   private final Http http;
 
   public JsonHTTPProtocol(String server, int port, String serverPrefix) {
+    this(server, port, serverPrefix, new HttpClient());
+  }
+
+  /**
+   * @param client to send requests with, shares its pooled connections and timeouts
+   */
+  public JsonHTTPProtocol(String server, int port, String serverPrefix, HttpClient client) {
     String protocol = "https://";
     if ("localhost".equals(server)) {
       protocol = "http://";
     }
     http = new Http(protocol + server + ":" + port + "/" + serverPrefix + "/",
-            MessageLibrary.MIMETYPE_JSON);
+            MessageLibrary.MIMETYPE_JSON, client);
+  }
+
+  public HttpClient getClient() {
+    return http.getClient();
   }
 
   /**
@@ -113,16 +135,16 @@ public class JsonHTTPProtocol implements NigoriProtocol {
 
   private static void failure(Response response) throws IOException, UnauthorisedException {
     if (response.resp.getResponseCode() == Http.UNAUTHORIZED) {
-      throw new UnauthorisedException(response.jsonResponse);
+      throw new UnauthorisedException(response.body());
     }
     throw new IOException("Server did not accept request(" + response.resp.getResponseCode()
-        + "). " + response.jsonResponse);
+        + "). " + response.body());
   }
 
   @Override
   public GetResponse get(GetRequest request) throws IOException, UnauthorisedException {
     try {
-      Response response = postResponse(MessageLibrary.REQUEST_GET, MessageLibrary.toJson(request));
+      Response response = postResponse(MessageLibrary.REQUEST_GET, request);
 
       if (response.notFound()) {
         return null; // request was successful, but no data key by that name was found.
@@ -131,7 +153,7 @@ public class JsonHTTPProtocol implements NigoriProtocol {
       if (!success(response.resp)) {
         failure(response);
       }
-      return MessageLibrary.getResponseFromJson(response.jsonResponse);
+      return response.parse(GetResponse.class);
     } catch (JsonConversionException jce) {
       throw new IOException("Error reading JSON sent by server: " + jce.getMessage());
     }
@@ -142,7 +164,7 @@ public class JsonHTTPProtocol implements NigoriProtocol {
       UnauthorisedException {
     try {
       Response response =
-          postResponse(MessageLibrary.REQUEST_GET_INDICES, MessageLibrary.toJson(request));
+          postResponse(MessageLibrary.REQUEST_GET_INDICES, request);
 
       if (response.notFound()) {
         return null; // request was successful, but no data key by that name was found.
@@ -151,7 +173,7 @@ public class JsonHTTPProtocol implements NigoriProtocol {
       if (!success(response.resp)) {
         failure(response);
       }
-      return MessageLibrary.getIndicesResponseFromJson(response.jsonResponse);
+      return response.parse(GetIndicesResponse.class);
     } catch (JsonConversionException jce) {
       throw new IOException("Error reading JSON sent by server: " + jce.getMessage());
     }
@@ -162,17 +184,17 @@ public class JsonHTTPProtocol implements NigoriProtocol {
       NotFoundException, UnauthorisedException {
     try {
       Response response =
-          postResponse(MessageLibrary.REQUEST_GET_REVISIONS, MessageLibrary.toJson(request));
+          postResponse(MessageLibrary.REQUEST_GET_REVISIONS, request);
 
       if (response.notFound()) {
         // request was successful, but no data key by that name was found.
-        throw new NotFoundException(response.jsonResponse);
+        throw new NotFoundException(response.body());
       }
 
       if (!success(response.resp)) {
         failure(response);
       }
-      return MessageLibrary.getRevisionsResponseFromJson(response.jsonResponse);
+      return response.parse(GetRevisionsResponse.class);
     } catch (JsonConversionException jce) {
       throw new IOException("Error reading JSON sent by server: " + jce.getMessage());
     }
@@ -192,37 +214,149 @@ public class JsonHTTPProtocol implements NigoriProtocol {
 
   @Override
   public boolean delete(DeleteRequest request) throws IOException, UnauthorisedException {
-    Response response = postResponse(MessageLibrary.REQUEST_DELETE, MessageLibrary.toJson(request));
+    Response response = postResponse(MessageLibrary.REQUEST_DELETE, request);
 
     if (response.notFound()) {
+      response.resp.close();
       return false; // request was successful, but no data key by that name was found.
     }
 
     if (!success(response.resp)) {
       failure(response);
     }
+    response.resp.close();
     return true;
   }
 
-  private Response postResponse(String request, String jsonRequest)
-      throws UnsupportedEncodingException, IOException {
+  @Override
+  public BatchGetResponse batchGet(BatchGetRequest request) throws IOException,
+      UnauthorisedException {
+    try {
+      Response response = postResponse(MessageLibrary.REQUEST_BATCH_GET, request);
+
+      if (!success(response.resp)) {
+        failure(response);
+      }
+      return response.parse(BatchGetResponse.class);
+    } catch (JsonConversionException jce) {
+      throw new IOException("Error reading JSON sent by server: " + jce.getMessage());
+    }
+  }
+
+  @Override
+  public boolean batchPut(BatchPutRequest request) throws IOException, UnauthorisedException {
+    Response response = postResponse(MessageLibrary.REQUEST_BATCH_PUT, request);
+
+    if (response.resp.getResponseCode() == Http.UNAUTHORIZED) {
+      failure(response);
+    }
+    try {
+      return success(response.resp);
+    } finally {
+      response.resp.close();
+    }
+  }
+
+  @Override
+  public boolean batchDelete(BatchDeleteRequest request) throws IOException,
+      UnauthorisedException {
+    Response response = postResponse(MessageLibrary.REQUEST_BATCH_DELETE, request);
 
-    HttpResponse resp = http.post(request, toBytes(jsonRequest), MessageLibrary.MIMETYPE_JSON);
+    if (response.notFound()) {
+      response.resp.close();
+      return false; // request was successful, but not every key existed.
+    }
 
-    return new Response(resp, resp.toOutputString());
+    if (!success(response.resp)) {
+      failure(response);
+    }
+    response.resp.close();
+    return true;
+  }
+
+  @Override
+  public GetChangesResponse getChanges(GetChangesRequest request) throws IOException,
+      UnauthorisedException {
+    try {
+      Response response = postResponse(MessageLibrary.REQUEST_GET_CHANGES, request);
+
+      if (!success(response.resp)) {
+        failure(response);
+      }
+      return response.parse(GetChangesResponse.class);
+    } catch (JsonConversionException jce) {
+      throw new IOException("Error reading JSON sent by server: " + jce.getMessage());
+    }
+  }
+
+  @Override
+  public GetDigestResponse getDigest(GetDigestRequest request) throws IOException,
+      UnauthorisedException {
+    try {
+      Response response = postResponse(MessageLibrary.REQUEST_GET_DIGEST, request);
+
+      if (!success(response.resp)) {
+        failure(response);
+      }
+      return response.parse(GetDigestResponse.class);
+    } catch (JsonConversionException jce) {
+      throw new IOException("Error reading JSON sent by server: " + jce.getMessage());
+    }
+  }
+
+  @Override
+  public SessionResponse session(SessionRequest request) throws IOException,
+      UnauthorisedException {
+    try {
+      Response response =
+          postResponse(MessageLibrary.REQUEST_SESSION, request);
+
+      if (!success(response.resp)) {
+        failure(response);
+      }
+      return response.parse(SessionResponse.class);
+    } catch (JsonConversionException jce) {
+      throw new IOException("Error reading JSON sent by server: " + jce.getMessage());
+    }
+  }
+
+  private Response postResponse(String request, GeneratedMessage message) throws IOException {
+
+    HttpResponse resp =
+        http.post(request, toBytes(MessageLibrary.toJson(message)), MessageLibrary.MIMETYPE_JSON);
+
+    return new Response(resp);
   }
 
   private static class Response {
     public final HttpResponse resp;
-    public final String jsonResponse;
 
-    public Response(HttpResponse resp, String jsonResponse) {
+    public Response(HttpResponse resp) {
       this.resp = resp;
-      this.jsonResponse = jsonResponse;
     }
 
     public boolean notFound() {
       return (resp.getResponseCode() == HttpURLConnection.HTTP_NOT_FOUND);
     }
+
+    /**
+     * @return the body of the response as text, for error messages
+     */
+    public String body() throws IOException {
+      return resp.toOutputString();
+    }
+
+    /**
+     * Decode the body of the response straight from the connection.
+     */
+    public <T extends GeneratedMessage> T parse(Class<T> clz) throws IOException,
+        JsonConversionException {
+      try {
+        return MessageLibrary.fromJson(new InputStreamReader(resp.getInputStream(),
+            MessageLibrary.CHARSET), clz);
+      } finally {
+        resp.close();
+      }
+    }
   }
 }
@@ -16,7 +16,13 @@ package com.google.nigori.client;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -39,6 +45,8 @@ public class LocalAsyncRemoteSyncingNigoriDatastore implements NigoriDatastore {
   protected final NigoriDatastore local;
   protected final NigoriDatastore synchronousRemote;
   protected final AsyncNigoriDatastore remote;
+  private final ChangeCursor localCursor;
+  private final ChangeCursor remoteCursor;
   private final Logger log = Logger.getLogger(this.getClass().getCanonicalName());
 
   private void crypto(NigoriCryptographyException e) {
@@ -77,13 +85,30 @@ public class LocalAsyncRemoteSyncingNigoriDatastore implements NigoriDatastore {
     noRemote = true;
   }
 
+  /**
+   * If {@code remote} is also an {@link AsyncNigoriDatastore} (such as an
+   * {@link AsyncCryptoNigoriDatastore}) it is used directly, otherwise its requests are run on a
+   * small pool of threads.
+   */
   public LocalAsyncRemoteSyncingNigoriDatastore(NigoriDatastore local, NigoriDatastore remote) {
-    if (local == null || remote == null) {
+    this(local, remote, remote instanceof AsyncNigoriDatastore ? (AsyncNigoriDatastore) remote
+        : new AsyncNigoriDatastoreWrapper(remote));
+  }
+
+  /**
+   * @param synchronousRemote used when the remote result is needed straight away
+   * @param remote the same store as {@code synchronousRemote} used asynchronously
+   */
+  public LocalAsyncRemoteSyncingNigoriDatastore(NigoriDatastore local,
+      NigoriDatastore synchronousRemote, AsyncNigoriDatastore remote) {
+    if (local == null || synchronousRemote == null || remote == null) {
       throw new IllegalArgumentException("Datastores must not be null");
     }
     this.local = local;
-    this.synchronousRemote = remote;
-    this.remote = new AsyncNigoriDatastoreWrapper(remote);
+    this.synchronousRemote = synchronousRemote;
+    this.remote = remote;
+    this.localCursor = new ChangeCursor(local);
+    this.remoteCursor = new ChangeCursor(synchronousRemote);
   }
 
   /**
@@ -179,6 +204,14 @@ public class LocalAsyncRemoteSyncingNigoriDatastore implements NigoriDatastore {
    */
   public synchronized void syncAll() throws IOException, NigoriCryptographyException,
       UnauthorisedException {
+    if (syncChanges()) {
+      return;
+    }
+    boolean tracking = localCursor.isTracking() && remoteCursor.isTracking();
+    if (tracking) {
+      localCursor.reset();
+      remoteCursor.reset();
+    }
     List<Index> firstIndices = local.getIndices();
     List<Index> secondIndices = synchronousRemote.getIndices();
     if (!(firstIndices.containsAll(secondIndices) && secondIndices.containsAll(firstIndices))) {
@@ -188,7 +221,7 @@ public class LocalAsyncRemoteSyncingNigoriDatastore implements NigoriDatastore {
       addAllIndices(firstMSecond, local, synchronousRemote);
       List<Index> secondMFirst = new ArrayList<Index>(secondIndices);
       secondMFirst.removeAll(firstIndices);
-      addAllIndices(secondMFirst, synchronousRemote, synchronousRemote);
+      addAllIndices(secondMFirst, synchronousRemote, local);
       // make sure firstIndices has all the indices
       firstIndices.addAll(secondMFirst);
     }
@@ -197,6 +230,32 @@ public class LocalAsyncRemoteSyncingNigoriDatastore implements NigoriDatastore {
     for (Index index : indices) {
       syncRevisions(index);
     }
+    if (tracking) {
+      localCursor.commit();
+      remoteCursor.commit();
+    }
+  }
+
+  /**
+   * Sync only the indices which have changed since the last sync, possible when both stores have a
+   * {@link ChangeFeed} and have been synced before.
+   * 
+   * @return false if a full sync is needed instead
+   */
+  private boolean syncChanges() throws IOException, NigoriCryptographyException,
+      UnauthorisedException {
+    Set<Index> changed = new HashSet<Index>();
+    if (!(localCursor.changed(changed) && remoteCursor.changed(changed))) {
+      return false;
+    }
+    // Syncing writes changes to the feeds, these are seen next time but the indices will already be
+    // in sync.
+    for (Index index : changed) {
+      syncRevisions(index);
+    }
+    localCursor.commit();
+    remoteCursor.commit();
+    return true;
   }
 
   /**
@@ -232,9 +291,7 @@ public class LocalAsyncRemoteSyncingNigoriDatastore implements NigoriDatastore {
 
   private static void addAllRevValues(Index index, List<RevValue> revValues, NigoriDatastore to)
       throws IOException, NigoriCryptographyException, UnauthorisedException {
-    for (RevValue rv : revValues) {
-      to.put(index, rv.getRevision(), rv.getValue());
-    }
+    to.putAll(Collections.singletonMap(index, revValues));
   }
 
   /**
@@ -249,12 +306,14 @@ public class LocalAsyncRemoteSyncingNigoriDatastore implements NigoriDatastore {
    */
   private static void addAllRevisions(Index index, List<Revision> revisions, NigoriDatastore from,
       NigoriDatastore to) throws IOException, NigoriCryptographyException, UnauthorisedException {
+    List<RevValue> revValues = new ArrayList<RevValue>(revisions.size());
     for (Revision revision : revisions) {
       byte[] value = from.getRevision(index, revision);
       if (value != null) {
-        to.put(index, revision, value);
+        revValues.add(new RevValue(revision, value));
       }
     }
+    addAllRevValues(index, revValues, to);
   }
 
   /**
@@ -269,14 +328,28 @@ public class LocalAsyncRemoteSyncingNigoriDatastore implements NigoriDatastore {
    */
   private static void addAllIndices(List<Index> indices, NigoriDatastore from, NigoriDatastore to)
       throws IOException, NigoriCryptographyException, UnauthorisedException {
-    for (Index index : indices) {
-      List<RevValue> revs = from.get(index);
-      if (revs != null) {
-        for (RevValue rev : revs) {
-          to.put(index, rev.getRevision(), rev.getValue());
+    to.putAll(from.getAll(indices));
+  }
+
+  /**
+   * @return the revision-values in {@code from} which are not in {@code to}
+   */
+  private static Map<Index, List<RevValue>> missing(Map<Index, List<RevValue>> from,
+      Map<Index, List<RevValue>> to) {
+    Map<Index, List<RevValue>> answer = new HashMap<Index, List<RevValue>>();
+    for (Map.Entry<Index, List<RevValue>> entry : from.entrySet()) {
+      List<RevValue> existing = to.get(entry.getKey());
+      if (existing == null) {
+        answer.put(entry.getKey(), entry.getValue());
+      } else {
+        List<RevValue> fromMTo = new ArrayList<RevValue>(entry.getValue());
+        fromMTo.removeAll(existing);
+        if (!fromMTo.isEmpty()) {
+          answer.put(entry.getKey(), fromMTo);
         }
       }
     }
+    return answer;
   }
 
   private void ensureIndicesSynced(List<Index> localIndices, List<Index> remoteIndices)
@@ -376,6 +449,55 @@ public class LocalAsyncRemoteSyncingNigoriDatastore implements NigoriDatastore {
     return localPut;
   }
 
+  @Override
+  public boolean putAll(final Map<Index, ? extends Collection<RevValue>> records)
+      throws IOException, NigoriCryptographyException, UnauthorisedException {
+    final boolean localPut = local.putAll(records);
+    remote.execute(new Runnable() {
+
+      @Override
+      public void run() {
+        BAsyncCallback callback = new BAsyncCallback("putAll", localPut);
+        try {
+          callback.onSuccess(synchronousRemote.putAll(records));
+        } catch (Exception e) {
+          callback.onFailure(e);
+        }
+      }
+    });
+
+    return localPut;
+  }
+
+  @Override
+  public Map<Index, List<RevValue>> getAll(final Collection<Index> indices) throws IOException,
+      NigoriCryptographyException, UnauthorisedException {
+    final Map<Index, List<RevValue>> localGet = local.getAll(indices);
+    final Map<Index, List<RevValue>> localCopy = new HashMap<Index, List<RevValue>>(localGet);
+    remote.execute(new Runnable() {
+
+      @Override
+      public void run() {
+        try {
+          Map<Index, List<RevValue>> remoteGet = synchronousRemote.getAll(indices);
+          Map<Index, List<RevValue>> remoteMLocal = missing(remoteGet, localCopy);
+          if (!remoteMLocal.isEmpty()) {
+            local.putAll(remoteMLocal);
+          }
+          Map<Index, List<RevValue>> localMRemote = missing(localCopy, remoteGet);
+          if (!localMRemote.isEmpty()) {
+            synchronousRemote.putAll(localMRemote);
+          }
+          ensureSynced();
+        } catch (Exception e) {
+          failure(e);
+        }
+      }
+    });
+
+    return localGet;
+  }
+
   @Override
   public List<RevValue> get(final Index index) throws IOException, NigoriCryptographyException,
       UnauthorisedException {
@@ -16,7 +16,10 @@ package com.google.nigori.client;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.logging.Logger;
 
 import com.google.nigori.common.Index;
@@ -151,6 +154,20 @@ public class LocalFirstSyncingNigoriDatastore extends SyncingNigoriDatastore {
     return firstPut && secondPut;
   }
 
+  @Override
+  public boolean putAll(Map<Index, ? extends Collection<RevValue>> records) throws IOException,
+      NigoriCryptographyException, UnauthorisedException {
+    boolean firstPut = first.putAll(records);
+    boolean secondPut = true;
+    try {
+      secondPut = second.putAll(records);
+      ensureSynced();
+    } catch (IOException e) {
+      ioException(e);
+    }
+    return firstPut && secondPut;
+  }
+
   @Override
   public List<Index> getIndices() throws NigoriCryptographyException, IOException,
       UnauthorisedException {
@@ -193,6 +210,20 @@ public class LocalFirstSyncingNigoriDatastore extends SyncingNigoriDatastore {
     return firstRevVals;
   }
 
+  @Override
+  public Map<Index, List<RevValue>> getAll(Collection<Index> indices) throws IOException,
+      NigoriCryptographyException, UnauthorisedException {
+    Map<Index, List<RevValue>> firstRevVals =
+        new HashMap<Index, List<RevValue>>(first.getAll(indices));
+    try {
+      union(firstRevVals, second.getAll(indices));
+      ensureSynced();
+    } catch (IOException e) {
+      ioException(e);
+    }
+    return firstRevVals;
+  }
+
   @Override
   public byte[] getRevision(Index index, Revision revision) throws IOException,
       NigoriCryptographyException, UnauthorisedException {
@@ -14,7 +14,9 @@
 package com.google.nigori.client;
 
 import java.io.IOException;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 import com.google.nigori.common.Index;
 import com.google.nigori.common.NigoriCryptographyException;
@@ -55,6 +57,29 @@ public interface NigoriDatastore extends Datastore {
   public List<RevValue> get(Index index) throws IOException, NigoriCryptographyException,
       UnauthorisedException;
 
+  /**
+   * Retrieve the revision-values associated with each of {@code indices}, fetching many indices per
+   * request where the server supports it.
+   * 
+   * @param indices
+   * @return a Map from each index which has data to its revision-values, indices with no data are
+   *         not present in the map.
+   * @throws UnauthorisedException
+   */
+  public Map<Index, List<RevValue>> getAll(Collection<Index> indices) throws IOException,
+      NigoriCryptographyException, UnauthorisedException;
+
+  /**
+   * Insert the revision-values for each index, storing many per request where the server supports
+   * it.
+   * 
+   * @param records the revision-values to insert for each index
+   * @return true if all of the data was successfully inserted; false otherwise.
+   * @throws UnauthorisedException
+   */
+  public boolean putAll(Map<Index, ? extends Collection<RevValue>> records) throws IOException,
+      NigoriCryptographyException, UnauthorisedException;
+
   /**
    * Get the revisions for a particular index
    * 
@@ -0,0 +1,203 @@
+/*
+ * Copyright (C) 2012 Daniel Thomas (drt24)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.nigori.client;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * A {@link Future} which is completed explicitly and tells {@link AsyncCallback}s when it is.
+ * Callbacks run on the thread which completes the future, or straight away on the thread adding
+ * them if it has already been completed.
+ *
+ * @author drt24
+ *
+ * @param <T> the type of the result
+ */
+public class NigoriFuture<T> implements Future<T> {
+
+  private static final Logger log = Logger.getLogger(NigoriFuture.class.getName());
+
+  /**
+   * Converts the result of one future into the result of another
+   */
+  public interface Transform<F, T> {
+    /**
+     * @throws Exception to fail the transformed future
+     */
+    T apply(F from) throws Exception;
+  }
+
+  private final CountDownLatch done = new CountDownLatch(1);
+  private List<AsyncCallback<? super T>> callbacks = new ArrayList<AsyncCallback<? super T>>(1);
+  private boolean completed = false;// guarded by this
+  private T value;
+  private Throwable failure;
+
+  /**
+   * @return whether this call completed the future, false if it was already complete
+   */
+  public boolean set(T value) {
+    List<AsyncCallback<? super T>> toRun;
+    synchronized (this) {
+      if (completed) {
+        return false;
+      }
+      this.value = value;
+      toRun = complete();
+    }
+    for (AsyncCallback<? super T> callback : toRun) {
+      success(callback, value);
+    }
+    return true;
+  }
+
+  /**
+   * @return whether this call completed the future, false if it was already complete
+   */
+  public boolean setException(Throwable failure) {
+    if (failure == null) {
+      throw new NullPointerException("failure must not be null");
+    }
+    List<AsyncCallback<? super T>> toRun;
+    synchronized (this) {
+      if (completed) {
+        return false;
+      }
+      this.failure = failure;
+      toRun = complete();
+    }
+    for (AsyncCallback<? super T> callback : toRun) {
+      failure(callback, failure);
+    }
+    return true;
+  }
+
+  private List<AsyncCallback<? super T>> complete() {
+    completed = true;
+    List<AsyncCallback<? super T>> toRun = callbacks;
+    callbacks = null;
+    done.countDown();
+    return toRun;
+  }
+
+  /**
+   * Call {@code callback} when this future completes.
+   */
+  public void addCallback(AsyncCallback<? super T> callback) {
+    synchronized (this) {
+      if (!completed) {
+        callbacks.add(callback);
+        return;
+      }
+    }
+    if (failure == null) {
+      success(callback, value);
+    } else {
+      failure(callback, failure);
+    }
+  }
+
+  private static <T> void success(AsyncCallback<? super T> callback, T value) {
+    try {
+      callback.onSuccess(value);
+    } catch (RuntimeException e) {
+      log.log(Level.WARNING, "Callback threw exception", e);
+    }
+  }
+
+  private static void failure(AsyncCallback<?> callback, Throwable failure) {
+    try {
+      callback.onFailure(failure);
+    } catch (RuntimeException e) {
+      log.log(Level.WARNING, "Callback threw exception", e);
+    }
+  }
+
+  /**
+   * @return a future completed with the result of applying {@code transform} to the result of this
+   *         one, or with the failure of this one.
+   */
+  public <R> NigoriFuture<R> transform(final Transform<? super T, ? extends R> transform) {
+    final NigoriFuture<R> transformed = new NigoriFuture<R>();
+    addCallback(new AsyncCallback<T>() {
+
+      @Override
+      public void onSuccess(T result) {
+        try {
+          transformed.set(transform.apply(result));
+        } catch (Exception e) {
+          transformed.setException(e);
+        }
+      }
+
+      @Override
+      public void onFailure(Throwable caught) {
+        transformed.setException(caught);
+      }
+    });
+    return transformed;
+  }
+
+  /**
+   * Completes the future with a {@link CancellationException}. Any request already sent is still
+   * processed by the server, its result is discarded.
+   */
+  @Override
+  public boolean cancel(boolean mayInterruptIfRunning) {
+    return setException(new CancellationException());
+  }
+
+  @Override
+  public synchronized boolean isCancelled() {
+    return failure instanceof CancellationException;
+  }
+
+  @Override
+  public synchronized boolean isDone() {
+    return completed;
+  }
+
+  @Override
+  public T get() throws InterruptedException, ExecutionException {
+    done.await();
+    return result();
+  }
+
+  @Override
+  public T get(long timeout, TimeUnit unit) throws InterruptedException, ExecutionException,
+      TimeoutException {
+    if (!done.await(timeout, unit)) {
+      throw new TimeoutException();
+    }
+    return result();
+  }
+
+  private synchronized T result() throws ExecutionException {
+    if (failure instanceof CancellationException) {
+      throw (CancellationException) failure;
+    } else if (failure != null) {
+      throw new ExecutionException(failure);
+    }
+    return value;
+  }
+}
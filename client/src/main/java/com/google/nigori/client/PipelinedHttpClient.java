@@ -0,0 +1,582 @@
+/*
+ * Copyright (C) 2012 Daniel Thomas (drt24)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.nigori.client;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.InetSocketAddress;
+import java.net.SocketTimeoutException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import com.google.nigori.common.MessageLibrary;
+
+/**
+ * A non-blocking HTTP/1.1 client for a single server which pipelines requests: many requests are
+ * written to each of a small number of connections without waiting for earlier responses, which
+ * the server sends back in order.
+ *
+ * The number of requests in flight is bounded, {@link #post(String, Map, byte[])} blocks when the
+ * window is full until an earlier request completes. Futures are completed, and so their callbacks
+ * run, on a separate thread pool and never on the thread doing the network I/O, so callbacks may
+ * make further blocking requests.
+ *
+ * Only plain HTTP is supported, use {@link HttpClient} for HTTPS.
+ *
+ * @author drt24
+ *
+ */
+public class PipelinedHttpClient {
+
+  public static final int DEFAULT_CONNECTIONS = 2;
+  public static final int DEFAULT_MAX_IN_FLIGHT = 32;
+
+  private static final Logger log = Logger.getLogger(PipelinedHttpClient.class.getName());
+  private static final int READ_BUFFER_SIZE = 64 * 1024;
+  private static final int MAX_GATHER = 16;
+  private static final long SELECT_TIMEOUT = 250;
+
+  private final InetSocketAddress address;
+  private final String hostHeader;
+  private final Semaphore window;
+  private final Connection[] connections;
+  private final Selector selector;
+  private final ExecutorService callbackExecutor;
+  private final Thread ioThread;
+
+  private volatile boolean closed = false;
+  private volatile int connectTimeout = HttpClient.DEFAULT_CONNECT_TIMEOUT;
+  private volatile int readTimeout = HttpClient.DEFAULT_READ_TIMEOUT;
+  private volatile long keepAlive = HttpClient.DEFAULT_KEEP_ALIVE;
+
+  private final AtomicLong connectionsOpened = new AtomicLong();
+  private final AtomicLong requestsSent = new AtomicLong();
+
+  public PipelinedHttpClient(String host, int port) throws IOException {
+    this(host, port, DEFAULT_CONNECTIONS, DEFAULT_MAX_IN_FLIGHT);
+  }
+
+  /**
+   * @param connections the number of connections to open to the server
+   * @param maxInFlight the maximum number of requests which may be awaiting responses
+   */
+  public PipelinedHttpClient(String host, int port, int connections, int maxInFlight)
+      throws IOException {
+    if (connections < 1 || maxInFlight < 1) {
+      throw new IllegalArgumentException("Need at least one connection and one request in flight");
+    }
+    this.address = new InetSocketAddress(host, port);
+    this.hostHeader = host + ":" + port;
+    this.window = new Semaphore(maxInFlight);
+    this.connections = new Connection[connections];
+    for (int i = 0; i < connections; ++i) {
+      this.connections[i] = new Connection();
+    }
+    this.selector = Selector.open();
+    this.callbackExecutor = Executors.newCachedThreadPool(new ThreadFactory() {
+      private final AtomicInteger count = new AtomicInteger();
+
+      @Override
+      public Thread newThread(Runnable r) {
+        Thread thread = new Thread(r, "nigori-http-callback-" + count.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+      }
+    });
+    this.ioThread = new Thread("nigori-http-io-" + hostHeader) {
+      @Override
+      public void run() {
+        ioLoop();
+      }
+    };
+    ioThread.setDaemon(true);
+    ioThread.start();
+  }
+
+  public void setConnectTimeout(int connectTimeout) {
+    this.connectTimeout = connectTimeout;
+  }
+
+  /**
+   * @param readTimeout milliseconds a connection with requests in flight may go without receiving
+   *          anything before those requests fail, 0 for no limit
+   */
+  public void setReadTimeout(int readTimeout) {
+    this.readTimeout = readTimeout;
+  }
+
+  /**
+   * @param keepAlive milliseconds after which an idle connection is reopened rather than reused
+   */
+  public void setKeepAlive(long keepAlive) {
+    this.keepAlive = keepAlive;
+  }
+
+  public long getConnectionsOpened() {
+    return connectionsOpened.get();
+  }
+
+  public long getRequestsSent() {
+    return requestsSent.get();
+  }
+
+  /**
+   * @return the number of further requests which may be sent before {@link #post(String, Map,
+   *         byte[])} blocks
+   */
+  public int getAvailableWindow() {
+    return window.availablePermits();
+  }
+
+  /**
+   * POST {@code body} to {@code path} on the server, blocking while the in flight window is full.
+   *
+   * @return a future completed with the response, whatever its status code, or failed with an
+   *         {@link IOException} if no response was received.
+   * @throws InterruptedIOException if interrupted while waiting for space in the window
+   */
+  public NigoriFuture<HttpResponse> post(String path, Map<String, String> headers, byte[] body)
+      throws IOException {
+    if (closed) {
+      throw new IOException("Client has been closed");
+    }
+    try {
+      window.acquire();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted waiting to send request");
+    }
+    NigoriFuture<HttpResponse> future = new NigoriFuture<HttpResponse>();
+    submit(new Request(encode(path, headers, body), future));
+    return future;
+  }
+
+  private ByteBuffer encode(String path, Map<String, String> headers, byte[] body) {
+    StringBuilder head = new StringBuilder(256);
+    head.append("POST ").append(path).append(" HTTP/1.1\r\n");
+    head.append("Host: ").append(hostHeader).append("\r\n");
+    for (Map.Entry<String, String> header : headers.entrySet()) {
+      head.append(header.getKey()).append(": ").append(header.getValue()).append("\r\n");
+    }
+    head.append("Content-Length: ").append(body.length).append("\r\n\r\n");
+    byte[] headBytes = MessageLibrary.toBytes(head.toString());
+    ByteBuffer buffer = ByteBuffer.allocate(headBytes.length + body.length);
+    buffer.put(headBytes).put(body);
+    buffer.flip();
+    return buffer;
+  }
+
+  private void submit(Request request) {
+    // least loaded connection
+    Connection target = connections[0];
+    for (Connection conn : connections) {
+      if (conn.outstanding.get() < target.outstanding.get()) {
+        target = conn;
+      }
+    }
+    target.outstanding.incrementAndGet();
+    target.submitted.add(request);
+    if (closed) {
+      // raced with close(), make sure the request does not get lost
+      failSubmitted(target, new IOException("Client has been closed"));
+      return;
+    }
+    selector.wakeup();
+  }
+
+  /**
+   * Fail all outstanding requests and stop the I/O thread.
+   */
+  public void close() {
+    closed = true;
+    selector.wakeup();
+    try {
+      ioThread.join(1000);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    callbackExecutor.shutdown();
+  }
+
+  private void ioLoop() {
+    ByteBuffer readBuffer = ByteBuffer.allocateDirect(READ_BUFFER_SIZE);
+    try {
+      while (!closed) {
+        for (Connection conn : connections) {
+          prepare(conn);
+        }
+        selector.select(SELECT_TIMEOUT);
+        Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+        while (keys.hasNext()) {
+          SelectionKey key = keys.next();
+          keys.remove();
+          Connection conn = (Connection) key.attachment();
+          try {
+            if (key.isConnectable()) {
+              finishConnect(conn);
+            }
+            if (key.isValid() && key.isReadable()) {
+              read(conn, readBuffer);
+            }
+            if (key.isValid() && key.isWritable()) {
+              write(conn);
+            }
+          } catch (IOException e) {
+            connectionFailed(conn, e);
+          }
+        }
+        checkTimeouts();
+      }
+    } catch (IOException e) {
+      log.log(Level.SEVERE, "Selector failed", e);
+    } catch (RuntimeException e) {
+      log.log(Level.SEVERE, "Unexpected exception in I/O thread", e);
+    } finally {
+      closed = true;
+      IOException closedException = new IOException("Client has been closed");
+      for (Connection conn : connections) {
+        closeChannel(conn);
+        failAll(conn, closedException);
+      }
+      try {
+        selector.close();
+      } catch (IOException e) {
+        // nothing more we can do
+      }
+    }
+  }
+
+  /**
+   * Move newly submitted requests onto the connection, opening it if necessary
+   */
+  private void prepare(Connection conn) {
+    if (conn.submitted.isEmpty()) {
+      return;
+    }
+    try {
+      if (conn.channel != null && conn.inFlight.isEmpty() && conn.toWrite.isEmpty()
+          && System.currentTimeMillis() - conn.lastActivity > keepAlive) {
+        // The server may well have closed it, don't risk losing requests to that race
+        closeChannel(conn);
+      }
+      Request request;
+      while ((request = conn.submitted.poll()) != null) {
+        conn.toWrite.add(request);
+      }
+      if (conn.channel == null) {
+        open(conn);
+      }
+      if (conn.connected) {
+        conn.key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+      }
+    } catch (IOException e) {
+      connectionFailed(conn, e);
+    }
+  }
+
+  private void open(Connection conn) throws IOException {
+    SocketChannel channel = SocketChannel.open();
+    try {
+      channel.configureBlocking(false);
+      channel.socket().setTcpNoDelay(true);
+      conn.channel = channel;
+      conn.parser = new HttpResponseParser();
+      conn.connected = channel.connect(address);
+      conn.lastActivity = System.currentTimeMillis();
+      connectionsOpened.incrementAndGet();
+      if (conn.connected) {
+        conn.key = channel.register(selector, SelectionKey.OP_READ, conn);
+      } else {
+        conn.key = channel.register(selector, SelectionKey.OP_CONNECT, conn);
+      }
+    } catch (IOException e) {
+      channel.close();
+      conn.channel = null;
+      throw e;
+    }
+  }
+
+  private void finishConnect(Connection conn) throws IOException {
+    if (conn.channel.finishConnect()) {
+      conn.connected = true;
+      conn.lastActivity = System.currentTimeMillis();
+      conn.key.interestOps(SelectionKey.OP_READ
+          | (conn.toWrite.isEmpty() ? 0 : SelectionKey.OP_WRITE));
+    }
+  }
+
+  private void write(Connection conn) throws IOException {
+    while (!conn.toWrite.isEmpty()) {
+      int count = Math.min(conn.toWrite.size(), MAX_GATHER);
+      ByteBuffer[] buffers = new ByteBuffer[count];
+      Iterator<Request> requests = conn.toWrite.iterator();
+      for (int i = 0; i < count; ++i) {
+        Request request = requests.next();
+        if (!request.started) {
+          request.started = true;
+          conn.inFlight.add(request);
+          requestsSent.incrementAndGet();
+        }
+        buffers[i] = request.data;
+      }
+      long written = conn.channel.write(buffers);
+      if (written > 0) {
+        conn.lastActivity = System.currentTimeMillis();
+      }
+      while (!conn.toWrite.isEmpty() && !conn.toWrite.peek().data.hasRemaining()) {
+        conn.toWrite.poll();
+      }
+      if (buffers[count - 1].hasRemaining()) {
+        // socket buffer is full, wait until it is writable again
+        return;
+      }
+    }
+    conn.key.interestOps(SelectionKey.OP_READ);
+  }
+
+  private void read(Connection conn, ByteBuffer buffer) throws IOException {
+    buffer.clear();
+    int read = conn.channel.read(buffer);
+    if (read == -1) {
+      HttpResponse last = conn.parser.endOfInput();
+      if (last != null) {
+        complete(conn, last);
+      }
+      if (conn.inFlight.isEmpty() && conn.toWrite.isEmpty()) {
+        // server closed an idle connection
+        closeChannel(conn);
+      } else {
+        connectionFailed(conn, new EOFException("Server closed connection with requests in flight"));
+      }
+      return;
+    }
+    conn.lastActivity = System.currentTimeMillis();
+    buffer.flip();
+    HttpResponse response;
+    while ((response = conn.parser.parse(buffer)) != null) {
+      complete(conn, response);
+      if (conn.parser.closeAfter()) {
+        // The server processes nothing after this response so the rest can safely be sent again
+        List<Request> unanswered = new ArrayList<Request>(conn.inFlight);
+        for (Request request : conn.toWrite) {
+          if (!request.started) {
+            unanswered.add(request);
+          }
+        }
+        closeChannel(conn);
+        conn.inFlight.clear();
+        conn.toWrite.clear();
+        for (Request request : unanswered) {
+          resubmit(conn, request, new EOFException("Server closed connection"));
+        }
+        return;
+      }
+    }
+  }
+
+  private void complete(Connection conn, HttpResponse response) throws IOException {
+    Request request = conn.inFlight.poll();
+    if (request == null) {
+      throw new IOException("Received a response to a request that was not sent");
+    }
+    finished(conn);
+    dispatchSuccess(request.future, response);
+  }
+
+  private void checkTimeouts() {
+    long now = System.currentTimeMillis();
+    for (Connection conn : connections) {
+      if (conn.channel == null) {
+        continue;
+      }
+      if (!conn.connected) {
+        int timeout = connectTimeout;
+        if (timeout != 0 && now - conn.lastActivity > timeout) {
+          connectionFailed(conn, new SocketTimeoutException("Connect timed out"));
+        }
+      } else if (!conn.inFlight.isEmpty()) {
+        int timeout = readTimeout;
+        if (timeout != 0 && now - conn.lastActivity > timeout) {
+          connectionFailed(conn, new SocketTimeoutException("Read timed out"));
+        }
+      }
+    }
+  }
+
+  /**
+   * Close the connection, requests which were never sent are sent again on a new connection, the
+   * rest fail with {@code cause}.
+   */
+  private void connectionFailed(Connection conn, IOException cause) {
+    closeChannel(conn);
+    Request request;
+    while ((request = conn.inFlight.poll()) != null) {
+      finished(conn);
+      dispatchFailure(request.future, cause);
+    }
+    while ((request = conn.toWrite.poll()) != null) {
+      if (request.started) {
+        // already failed as it was in flight
+        continue;
+      }
+      resubmit(conn, request, cause);
+    }
+  }
+
+  /**
+   * Send a request which never reached the server again, it keeps its place in the window.
+   */
+  private void resubmit(Connection conn, Request request, IOException cause) {
+    if (request.attempts >= 2 || closed) {
+      finished(conn);
+      dispatchFailure(request.future, cause);
+      return;
+    }
+    request.data.rewind();
+    request.started = false;
+    request.attempts++;
+    conn.submitted.add(request);
+  }
+
+  /**
+   * A request on {@code conn} has finished (either way)
+   */
+  private void finished(Connection conn) {
+    conn.outstanding.decrementAndGet();
+    window.release();
+  }
+
+  /**
+   * Fail requests which have been submitted but not yet picked up by the I/O thread, safe to call
+   * from any thread.
+   */
+  private void failSubmitted(Connection conn, IOException cause) {
+    Request request;
+    while ((request = conn.submitted.poll()) != null) {
+      finished(conn);
+      dispatchFailure(request.future, cause);
+    }
+  }
+
+  private void failAll(Connection conn, IOException cause) {
+    List<Request> requests = new ArrayList<Request>(conn.inFlight);
+    for (Request request : conn.toWrite) {
+      if (!request.started) {
+        requests.add(request);
+      }
+    }
+    conn.inFlight.clear();
+    conn.toWrite.clear();
+    for (Request failed : requests) {
+      finished(conn);
+      dispatchFailure(failed.future, cause);
+    }
+    failSubmitted(conn, cause);
+  }
+
+  private void closeChannel(Connection conn) {
+    if (conn.channel != null) {
+      try {
+        conn.channel.close();
+      } catch (IOException e) {
+        // nothing more we can do
+      }
+    }
+    conn.channel = null;
+    conn.key = null;
+    conn.connected = false;
+  }
+
+  private void dispatchSuccess(final NigoriFuture<HttpResponse> future,
+      final HttpResponse response) {
+    try {
+      callbackExecutor.execute(new Runnable() {
+        @Override
+        public void run() {
+          future.set(response);
+        }
+      });
+    } catch (RuntimeException e) {
+      // executor shut down
+      future.set(response);
+    }
+  }
+
+  private void dispatchFailure(final NigoriFuture<HttpResponse> future, final IOException cause) {
+    try {
+      callbackExecutor.execute(new Runnable() {
+        @Override
+        public void run() {
+          future.setException(cause);
+        }
+      });
+    } catch (RuntimeException e) {
+      // executor shut down
+      future.setException(cause);
+    }
+  }
+
+  private static class Request {
+    final ByteBuffer data;
+    final NigoriFuture<HttpResponse> future;
+    boolean started = false;
+    int attempts = 1;
+
+    Request(ByteBuffer data, NigoriFuture<HttpResponse> future) {
+      this.data = data;
+      this.future = future;
+    }
+  }
+
+  /**
+   * State of one connection, everything except {@link #submitted} and {@link #outstanding} is only
+   * accessed from the I/O thread.
+   */
+  private static class Connection {
+    final Queue<Request> submitted = new ConcurrentLinkedQueue<Request>();
+    final AtomicInteger outstanding = new AtomicInteger();
+
+    SocketChannel channel;
+    SelectionKey key;
+    boolean connected;
+    HttpResponseParser parser;
+    long lastActivity;
+    /**
+     * Requests not yet completely written, in order
+     */
+    final ArrayDeque<Request> toWrite = new ArrayDeque<Request>();
+    /**
+     * Requests written, at least in part, which are waiting for a response, in order
+     */
+    final ArrayDeque<Request> inFlight = new ArrayDeque<Request>();
+  }
+}
@@ -0,0 +1,245 @@
+/*
+ * Copyright (C) 2012 Daniel Thomas (drt24)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.nigori.client;
+
+import static com.google.nigori.client.ProtobufHTTPProtocol.failure;
+import static com.google.nigori.client.ProtobufHTTPProtocol.notFound;
+import static com.google.nigori.client.ProtobufHTTPProtocol.parse;
+import static com.google.nigori.client.ProtobufHTTPProtocol.success;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+import com.google.nigori.common.MessageLibrary;
+import com.google.nigori.common.NigoriMessages.AuthenticateRequest;
+import com.google.nigori.common.NigoriMessages.BatchDeleteRequest;
+import com.google.nigori.common.NigoriMessages.BatchGetRequest;
+import com.google.nigori.common.NigoriMessages.BatchGetResponse;
+import com.google.nigori.common.NigoriMessages.BatchPutRequest;
+import com.google.nigori.common.NigoriMessages.DeleteRequest;
+import com.google.nigori.common.NigoriMessages.GetChangesRequest;
+import com.google.nigori.common.NigoriMessages.GetChangesResponse;
+import com.google.nigori.common.NigoriMessages.GetDigestRequest;
+import com.google.nigori.common.NigoriMessages.GetDigestResponse;
+import com.google.nigori.common.NigoriMessages.GetIndicesRequest;
+import com.google.nigori.common.NigoriMessages.GetIndicesResponse;
+import com.google.nigori.common.NigoriMessages.GetRequest;
+import com.google.nigori.common.NigoriMessages.GetResponse;
+import com.google.nigori.common.NigoriMessages.GetRevisionsRequest;
+import com.google.nigori.common.NigoriMessages.GetRevisionsResponse;
+import com.google.nigori.common.NigoriMessages.PutRequest;
+import com.google.nigori.common.NigoriMessages.RegisterRequest;
+import com.google.nigori.common.NigoriMessages.SessionRequest;
+import com.google.nigori.common.NigoriMessages.SessionResponse;
+import com.google.nigori.common.NigoriMessages.UnregisterRequest;
+import com.google.nigori.common.NotFoundException;
+import com.google.protobuf.MessageLite;
+import com.google.protobuf.Parser;
+
+/**
+ * Implements the {@link AsyncNigoriProtocol} using binary protobufs over a
+ * {@link PipelinedHttpClient}, so many requests can be in flight over a few connections. Responses
+ * are interpreted in the same way as by {@link ProtobufHTTPProtocol}.
+ *
+ * @author drt24
+ *
+ */
+public class PipelinedNigoriProtocol implements AsyncNigoriProtocol {
+
+  private final PipelinedHttpClient client;
+  private final String pathPrefix;
+  private final Map<String, String> headers;
+
+  /**
+   * Plain HTTP is used, so this should only be used with servers on the local machine or network.
+   */
+  public PipelinedNigoriProtocol(String server, int port, String serverPrefix) throws IOException {
+    this(new PipelinedHttpClient(server, port), serverPrefix);
+  }
+
+  /**
+   * @param client to send requests with, shares its connections and in flight window
+   */
+  public PipelinedNigoriProtocol(PipelinedHttpClient client, String serverPrefix) {
+    this.client = client;
+    this.pathPrefix = "/" + serverPrefix + "/";
+    Map<String, String> headers = new HashMap<String, String>(4);
+    headers.put("Content-Type", MessageLibrary.MIMETYPE_PROTOBUF);
+    headers.put("Accept", MessageLibrary.MIMETYPE_PROTOBUF);
+    this.headers = headers;
+  }
+
+  public PipelinedHttpClient getClient() {
+    return client;
+  }
+
+  private <T> NigoriFuture<T> post(String requestType, MessageLite request,
+      NigoriFuture.Transform<HttpResponse, T> interpret) {
+    try {
+      return client.post(pathPrefix + requestType, headers, request.toByteArray()).transform(
+          interpret);
+    } catch (IOException e) {
+      NigoriFuture<T> failed = new NigoriFuture<T>();
+      failed.setException(e);
+      return failed;
+    }
+  }
+
+  private static final NigoriFuture.Transform<HttpResponse, Boolean> SUCCESS =
+      new NigoriFuture.Transform<HttpResponse, Boolean>() {
+        @Override
+        public Boolean apply(HttpResponse resp) {
+          return success(resp);
+        }
+      };
+
+  /**
+   * Not found is false, other failures throw
+   */
+  private static final NigoriFuture.Transform<HttpResponse, Boolean> FOUND =
+      new NigoriFuture.Transform<HttpResponse, Boolean>() {
+        @Override
+        public Boolean apply(HttpResponse resp) throws Exception {
+          if (notFound(resp)) {
+            return false;
+          }
+          if (!success(resp)) {
+            failure(resp);
+          }
+          return true;
+        }
+      };
+
+  /**
+   * Parse successful responses, not found is null and other failures throw
+   */
+  private static class Parse<T> implements NigoriFuture.Transform<HttpResponse, T> {
+    private final Parser<T> parser;
+    private final boolean nullIfNotFound;
+
+    Parse(Parser<T> parser, boolean nullIfNotFound) {
+      this.parser = parser;
+      this.nullIfNotFound = nullIfNotFound;
+    }
+
+    @Override
+    public T apply(HttpResponse resp) throws Exception {
+      if (nullIfNotFound && notFound(resp)) {
+        return null;
+      }
+      if (!success(resp)) {
+        failure(resp);
+      }
+      return parse(resp, parser);
+    }
+  }
+
+  @Override
+  public NigoriFuture<Boolean> authenticate(AuthenticateRequest request) {
+    return post(MessageLibrary.REQUEST_AUTHENTICATE, request, SUCCESS);
+  }
+
+  @Override
+  public NigoriFuture<Boolean> register(RegisterRequest request) {
+    return post(MessageLibrary.REQUEST_REGISTER, request, SUCCESS);
+  }
+
+  @Override
+  public NigoriFuture<Boolean> unregister(UnregisterRequest request) {
+    return post(MessageLibrary.REQUEST_UNREGISTER, request, SUCCESS);
+  }
+
+  @Override
+  public NigoriFuture<GetResponse> get(GetRequest request) {
+    return post(MessageLibrary.REQUEST_GET, request, new Parse<GetResponse>(GetResponse.PARSER,
+        true));
+  }
+
+  @Override
+  public NigoriFuture<GetIndicesResponse> getIndices(GetIndicesRequest request) {
+    return post(MessageLibrary.REQUEST_GET_INDICES, request, new Parse<GetIndicesResponse>(
+        GetIndicesResponse.PARSER, true));
+  }
+
+  @Override
+  public NigoriFuture<GetRevisionsResponse> getRevisions(GetRevisionsRequest request) {
+    return post(MessageLibrary.REQUEST_GET_REVISIONS, request,
+        new NigoriFuture.Transform<HttpResponse, GetRevisionsResponse>() {
+          @Override
+          public GetRevisionsResponse apply(HttpResponse resp) throws Exception {
+            if (notFound(resp)) {
+              throw new NotFoundException(resp.toOutputString());
+            }
+            if (!success(resp)) {
+              failure(resp);
+            }
+            return parse(resp, GetRevisionsResponse.PARSER);
+          }
+        });
+  }
+
+  @Override
+  public NigoriFuture<Boolean> put(PutRequest request) {
+    return post(MessageLibrary.REQUEST_PUT, request, SUCCESS);
+  }
+
+  @Override
+  public NigoriFuture<Boolean> delete(DeleteRequest request) {
+    return post(MessageLibrary.REQUEST_DELETE, request, FOUND);
+  }
+
+  @Override
+  public NigoriFuture<SessionResponse> session(SessionRequest request) {
+    return post(MessageLibrary.REQUEST_SESSION, request, new Parse<SessionResponse>(
+        SessionResponse.PARSER, false));
+  }
+
+  @Override
+  public NigoriFuture<BatchGetResponse> batchGet(BatchGetRequest request) {
+    return post(MessageLibrary.REQUEST_BATCH_GET, request, new Parse<BatchGetResponse>(
+        BatchGetResponse.PARSER, false));
+  }
+
+  @Override
+  public NigoriFuture<Boolean> batchPut(BatchPutRequest request) {
+    return post(MessageLibrary.REQUEST_BATCH_PUT, request,
+        new NigoriFuture.Transform<HttpResponse, Boolean>() {
+          @Override
+          public Boolean apply(HttpResponse resp) throws Exception {
+            if (resp.getResponseCode() == Http.UNAUTHORIZED) {
+              failure(resp);
+            }
+            return success(resp);
+          }
+        });
+  }
+
+  @Override
+  public NigoriFuture<Boolean> batchDelete(BatchDeleteRequest request) {
+    return post(MessageLibrary.REQUEST_BATCH_DELETE, request, FOUND);
+  }
+
+  @Override
+  public NigoriFuture<GetChangesResponse> getChanges(GetChangesRequest request) {
+    return post(MessageLibrary.REQUEST_GET_CHANGES, request, new Parse<GetChangesResponse>(
+        GetChangesResponse.PARSER, false));
+  }
+
+  @Override
+  public NigoriFuture<GetDigestResponse> getDigest(GetDigestRequest request) {
+    return post(MessageLibrary.REQUEST_GET_DIGEST, request, new Parse<GetDigestResponse>(
+        GetDigestResponse.PARSER, false));
+  }
+}
@@ -0,0 +1,263 @@
+/*
+ * Copyright (C) 2012 Daniel Thomas (drt24)
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.nigori.client;
+
+import java.io.IOException;
+import java.net.HttpURLConnection;
+
+import com.google.nigori.common.MessageLibrary;
+import com.google.nigori.common.NigoriMessages.AuthenticateRequest;
+import com.google.nigori.common.NigoriMessages.BatchDeleteRequest;
+import com.google.nigori.common.NigoriMessages.BatchGetRequest;
+import com.google.nigori.common.NigoriMessages.BatchGetResponse;
+import com.google.nigori.common.NigoriMessages.BatchPutRequest;
+import com.google.nigori.common.NigoriMessages.DeleteRequest;
+import com.google.nigori.common.NigoriMessages.GetChangesRequest;
+import com.google.nigori.common.NigoriMessages.GetChangesResponse;
+import com.google.nigori.common.NigoriMessages.GetDigestRequest;
+import com.google.nigori.common.NigoriMessages.GetDigestResponse;
+import com.google.nigori.common.NigoriMessages.GetIndicesRequest;
+import com.google.nigori.common.NigoriMessages.GetIndicesResponse;
+import com.google.nigori.common.NigoriMessages.GetRequest;
+import com.google.nigori.common.NigoriMessages.GetResponse;
+import com.google.nigori.common.NigoriMessages.GetRevisionsRequest;
+import com.google.nigori.common.NigoriMessages.GetRevisionsResponse;
+import com.google.nigori.common.NigoriMessages.PutRequest;
+import com.google.nigori.common.NigoriMessages.RegisterRequest;
+import com.google.nigori.common.NigoriMessages.SessionRequest;
+import com.google.nigori.common.NigoriMessages.SessionResponse;
+import com.google.nigori.common.NigoriMessages.UnregisterRequest;
+import com.google.nigori.common.NigoriProtocol;
+import com.google.nigori.common.NotFoundException;
+import com.google.nigori.common.UnauthorisedException;
+import com.google.protobuf.MessageLite;
+import com.google.protobuf.Parser;
+
+/**
+ * Implements the NigoriProtocol using binary protobufs and HTTP, unlike {@link JsonHTTPProtocol}
+ * byte strings are sent as they are rather than base64 encoded.
+ * 
+ * @author drt24
+ * 
+ */
+public class ProtobufHTTPProtocol implements NigoriProtocol {
+
+  private final Http http;
+
+  public ProtobufHTTPProtocol(String server, int port, String serverPrefix) {
+    this(server, port, serverPrefix, new HttpClient());
+  }
+
+  /**
+   * @param client to send requests with, shares its pooled connections and timeouts
+   */
+  public ProtobufHTTPProtocol(String server, int port, String serverPrefix, HttpClient client) {
+    String protocol = "https://";
+    if ("localhost".equals(server)) {
+      protocol = "http://";
+    }
+    http = new Http(protocol + server + ":" + port + "/" + serverPrefix + "/",
+            MessageLibrary.MIMETYPE_PROTOBUF, client);
+  }
+
+  public HttpClient getClient() {
+    return http.getClient();
+  }
+
+  static boolean success(HttpResponse resp) {
+    return resp.getResponseCode() == HttpURLConnection.HTTP_OK;
+  }
+
+  /**
+   * Error responses are text
+   */
+  static void failure(HttpResponse resp) throws IOException, UnauthorisedException {
+    String message = resp.toOutputString();
+    if (resp.getResponseCode() == Http.UNAUTHORIZED) {
+      throw new UnauthorisedException(message);
+    }
+    throw new IOException("Server did not accept request(" + resp.getResponseCode() + "). "
+        + message);
+  }
+
+  static boolean notFound(HttpResponse resp) {
+    return resp.getResponseCode() == HttpURLConnection.HTTP_NOT_FOUND;
+  }
+
+  private HttpResponse post(String requestType, MessageLite request) throws IOException {
+    return http.post(requestType, request, MessageLibrary.MIMETYPE_PROTOBUF);
+  }
+
+  /**
+   * @return whether the request was successful, the body is discarded
+   */
+  private boolean postForSuccess(String requestType, MessageLite request) throws IOException {
+    HttpResponse resp = post(requestType, request);
+    try {
+      return success(resp);
+    } finally {
+      resp.close();
+    }
+  }
+
+  static <T> T parse(HttpResponse resp, Parser<T> parser) throws IOException {
+    try {
+      return parser.parseFrom(resp.getBody());
+    } finally {
+      resp.close();
+    }
+  }
+
+  @Override
+  public boolean authenticate(AuthenticateRequest request) throws IOException {
+    return postForSuccess(MessageLibrary.REQUEST_AUTHENTICATE, request);
+  }
+
+  @Override
+  public boolean register(RegisterRequest request) throws IOException {
+    return postForSuccess(MessageLibrary.REQUEST_REGISTER, request);
+  }
+
+  @Override
+  public boolean unregister(UnregisterRequest request) throws IOException {
+    return postForSuccess(MessageLibrary.REQUEST_UNREGISTER, request);
+  }
+
+  @Override
+  public GetResponse get(GetRequest request) throws IOException, UnauthorisedException {
+    HttpResponse resp = post(MessageLibrary.REQUEST_GET, request);
+    if (notFound(resp)) {
+      resp.close();
+      return null; // request was successful, but no data key by that name was found.
+    }
+    if (!success(resp)) {
+      failure(resp);
+    }
+    return parse(resp, GetResponse.PARSER);
+  }
+
+  @Override
+  public GetIndicesResponse getIndices(GetIndicesRequest request) throws IOException,
+      UnauthorisedException {
+    HttpResponse resp = post(MessageLibrary.REQUEST_GET_INDICES, request);
+    if (notFound(resp)) {
+      resp.close();
+      return null;
+    }
+    if (!success(resp)) {
+      failure(resp);
+    }
+    return parse(resp, GetIndicesResponse.PARSER);
+  }
+
+  @Override
+  public GetRevisionsResponse getRevisions(GetRevisionsRequest request) throws IOException,
+      NotFoundException, UnauthorisedException {
+    HttpResponse resp = post(MessageLibrary.REQUEST_GET_REVISIONS, request);
+    if (notFound(resp)) {
+      throw new NotFoundException(resp.toOutputString());
+    }
+    if (!success(resp)) {
+      failure(resp);
+    }
+    return parse(resp, GetRevisionsResponse.PARSER);
+  }
+
+  @Override
+  public boolean put(PutRequest request) throws IOException {
+    return postForSuccess(MessageLibrary.REQUEST_PUT, request);
+  }
+
+  @Override
+  public boolean delete(DeleteRequest request) throws IOException, UnauthorisedException {
+    HttpResponse resp = post(MessageLibrary.REQUEST_DELETE, request);
+    if (notFound(resp)) {
+      resp.close();
+      return false;
+    }
+    if (!success(resp)) {
+      failure(resp);
+    }
+    resp.close();
+    return true;
+  }
+
+  @Override
+  public BatchGetResponse batchGet(BatchGetRequest request) throws IOException,
+      UnauthorisedException {
+    HttpResponse resp = post(MessageLibrary.REQUEST_BATCH_GET, request);
+    if (!success(resp)) {
+      failure(resp);
+    }
+    return parse(resp, BatchGetResponse.PARSER);
+  }
+
+  @Override
+  public boolean batchPut(BatchPutRequest request) throws IOException, UnauthorisedException {
+    HttpResponse resp = post(MessageLibrary.REQUEST_BATCH_PUT, request);
+    if (resp.getResponseCode() == Http.UNAUTHORIZED) {
+      failure(resp);
+    }
+    try {
+      return success(resp);
+    } finally {
+      resp.close();
+    }
+  }
+
+  @Override
+  public boolean batchDelete(BatchDeleteRequest request) throws IOException,
+      UnauthorisedException {
+    HttpResponse resp = post(MessageLibrary.REQUEST_BATCH_DELETE, request);
+    if (notFound(resp)) {
+      resp.close();
+      return false; // request was successful, but not every key existed.
+    }
+    if (!success(resp)) {
+      failure(resp);
+    }
+    resp.close();
+    return true;
+  }
+
+  @Override
+  public GetChangesResponse getChanges(GetChangesRequest request) throws IOException,
+      UnauthorisedException {
+    HttpResponse resp = post(MessageLibrary.REQUEST_GET_CHANGES, request);
+    if (!success(resp)) {
+      failure(resp);
+    }
+    return parse(resp, GetChangesResponse.PARSER);
+  }
+
+  @Override
+  public GetDigestResponse getDigest(GetDigestRequest request) throws IOException,
+      UnauthorisedException {
+    HttpResponse resp = post(MessageLibrary.REQUEST_GET_DIGEST, request);
+    if (!success(resp)) {
+      failure(resp);
+    }
+    return parse(resp, GetDigestResponse.PARSER);
+  }
+
+  @Override
+  public SessionResponse session(SessionRequest request) throws IOException,
+      UnauthorisedException {
+    HttpResponse resp = post(MessageLibrary.REQUEST_SESSION, request);
+    if (!success(resp)) {
+      failure(resp);
+    }
+    return parse(resp, SessionResponse.PARSER);
+  }
+}
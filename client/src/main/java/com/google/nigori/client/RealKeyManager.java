@@ -66,6 +66,12 @@ public class RealKeyManager implements KeyManager {
   private byte[] password;
   private String serverName;
 
+  /**
+   * Built from {@link #userSecretKey} on first use and then shared, {@link DSASign} may be used
+   * from several threads at once.
+   */
+  private volatile DSASign signer;
+
   private final SecureRandom random = new SecureRandom();
   private final PasswordGenerator pwgen = new PasswordGenerator();
 
@@ -319,24 +325,36 @@ public class RealKeyManager implements KeyManager {
   }
 
   /**
-   * Return an instance of {@code SchnorrSign} which is capable of signing user-encrypted data.
-   * 
-   * @throws NoSuchAlgorithmException
+   * Return an instance of {@code DSASign} which is capable of signing user-encrypted data. The same
+   * instance is returned on every call until {@link #destroy()} is called.
    * 
    */
   @Override
   public DSASign signer() throws NigoriCryptographyException {
-    try {
-      return new DSASign(userSecretKey);
-    } catch (NoSuchAlgorithmException e) {
-      throw new NigoriCryptographyException(e);
+    DSASign result = signer;
+    if (result == null) {
+      synchronized (this) {
+        result = signer;
+        if (result == null) {
+          try {
+            result = new DSASign(userSecretKey);
+          } catch (NoSuchAlgorithmException e) {
+            throw new NigoriCryptographyException(e);
+          }
+          signer = result;
+        }
+      }
     }
+    return result;
   }
 
   /**
    * Destroy all the secret data stored in this KeyManager
    */
   public void destroy() {
+    synchronized (this) {
+      signer = null;
+    }
     Arrays.fill(userSecretKey, (byte) 0);
     Arrays.fill(encryptionSecretKey, (byte) 0);
     Arrays.fill(macSecretKey, (byte) 0);
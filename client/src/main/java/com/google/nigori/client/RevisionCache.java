@@ -0,0 +1,148 @@
+/*
+ * Copyright (C) 2012 Daniel R. Thomas (drt24)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.nigori.client;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.google.nigori.common.Index;
+import com.google.nigori.common.RevValue;
+import com.google.nigori.common.Revision;
+import com.google.nigori.common.RevisionFingerprint;
+import com.google.protobuf.ByteString;
+
+/**
+ * The revisions, and the values of some of them, which {@link CryptoNigoriDatastore} has most
+ * recently fetched for each of a bounded number of indices, so that it can send their
+ * {@link RevisionFingerprint} and be sent only what it does not already have. Revisions are keyed
+ * by their encrypted form as that is what the server fingerprints.
+ *
+ * Callers take a copy, make their request and then store the result, so concurrent requests for the
+ * same index may each fetch the same revisions.
+ *
+ * @author drt24
+ *
+ */
+class RevisionCache {
+
+  private static class Entry {
+    private final Map<ByteString, Revision> revisions;
+    private final Map<ByteString, RevValue> values;
+
+    Entry(Map<ByteString, Revision> revisions, Map<ByteString, RevValue> values) {
+      this.revisions = revisions;
+      this.values = values;
+    }
+  }
+
+  private final Map<Index, Entry> entries;// guarded by this
+
+  /**
+   * @param capacity the number of indices to cache
+   */
+  RevisionCache(final int capacity) {
+    entries = new LinkedHashMap<Index, Entry>(16, 0.75f, true) {
+      private static final long serialVersionUID = 1L;
+
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<Index, Entry> eldest) {
+        return size() > capacity;
+      }
+    };
+  }
+
+  static byte[] fingerprint(Collection<ByteString> revisions) {
+    List<byte[]> bytes = new ArrayList<byte[]>(revisions.size());
+    for (ByteString revision : revisions) {
+      bytes.add(revision.toByteArray());
+    }
+    return RevisionFingerprint.of(bytes);
+  }
+
+  /**
+   * @return a copy of the known revisions of {@code index} or null if there are none
+   */
+  synchronized Map<ByteString, Revision> getRevisions(Index index) {
+    Entry entry = entries.get(index);
+    return entry == null ? null : new LinkedHashMap<ByteString, Revision>(entry.revisions);
+  }
+
+  /**
+   * @return a copy of the known values of {@code index} or null if there are none
+   */
+  synchronized Map<ByteString, RevValue> getValues(Index index) {
+    Entry entry = entries.get(index);
+    return entry == null || entry.values.isEmpty() ? null : new LinkedHashMap<ByteString, RevValue>(
+        entry.values);
+  }
+
+  /**
+   * @return the value of the revision of {@code index} if known
+   */
+  synchronized RevValue getValue(Index index, ByteString revision) {
+    Entry entry = entries.get(index);
+    return entry == null ? null : entry.values.get(revision);
+  }
+
+  /**
+   * Record that {@code revisions} are all the revisions of {@code index}, forgetting the values of
+   * any others.
+   */
+  synchronized void putRevisions(Index index, Map<ByteString, Revision> revisions) {
+    Entry entry = entries.get(index);
+    Map<ByteString, RevValue> values = new HashMap<ByteString, RevValue>();
+    if (entry != null) {
+      values.putAll(entry.values);
+      values.keySet().retainAll(revisions.keySet());
+    }
+    entries.put(index, new Entry(new LinkedHashMap<ByteString, Revision>(revisions), values));
+  }
+
+  /**
+   * Record that {@code values} are all the revisions of {@code index} with their values.
+   */
+  synchronized void putValues(Index index, Map<ByteString, RevValue> values) {
+    Map<ByteString, Revision> revisions = new LinkedHashMap<ByteString, Revision>();
+    for (Map.Entry<ByteString, RevValue> value : values.entrySet()) {
+      revisions.put(value.getKey(), value.getValue().getRevision());
+    }
+    entries.put(index, new Entry(revisions, new LinkedHashMap<ByteString, RevValue>(values)));
+  }
+
+  /**
+   * Record the value of one revision of {@code index}
+   */
+  synchronized void putValue(Index index, ByteString revision, RevValue value) {
+    Entry entry = entries.get(index);
+    if (entry == null) {
+      entry =
+          new Entry(new LinkedHashMap<ByteString, Revision>(),
+              new LinkedHashMap<ByteString, RevValue>());
+      entries.put(index, entry);
+    }
+    entry.revisions.put(revision, value.getRevision());
+    entry.values.put(revision, value);
+  }
+
+  /**
+   * Forget everything about {@code index}, for example because it has been deleted
+   */
+  synchronized void remove(Index index) {
+    entries.remove(index);
+  }
+}
@@ -16,7 +16,13 @@ package com.google.nigori.client;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import com.google.nigori.common.Index;
 import com.google.nigori.common.NigoriCryptographyException;
@@ -33,6 +39,8 @@ public class SyncingNigoriDatastore implements NigoriDatastore {
 
   protected final NigoriDatastore first;
   protected final NigoriDatastore second;
+  private final ChangeCursor firstCursor;
+  private final ChangeCursor secondCursor;
 
   public SyncingNigoriDatastore(NigoriDatastore first, NigoriDatastore second) throws IOException,
       NigoriCryptographyException {
@@ -41,6 +49,8 @@ public class SyncingNigoriDatastore implements NigoriDatastore {
     }
     this.first = first;
     this.second = second;
+    this.firstCursor = new ChangeCursor(first);
+    this.secondCursor = new ChangeCursor(second);
   }
 
   /**
@@ -52,6 +62,14 @@ public class SyncingNigoriDatastore implements NigoriDatastore {
    */
   public synchronized void syncAll() throws IOException, NigoriCryptographyException,
       UnauthorisedException {
+    if (syncChanges()) {
+      return;
+    }
+    boolean tracking = firstCursor.isTracking() && secondCursor.isTracking();
+    if (tracking) {
+      firstCursor.reset();
+      secondCursor.reset();
+    }
     List<Index> firstIndices = first.getIndices();
     List<Index> secondIndices = second.getIndices();
     if (!(firstIndices.containsAll(secondIndices) && secondIndices.containsAll(firstIndices))) {
@@ -70,6 +88,32 @@ public class SyncingNigoriDatastore implements NigoriDatastore {
     for (Index index : indices) {
       syncRevisions(index);
     }
+    if (tracking) {
+      firstCursor.commit();
+      secondCursor.commit();
+    }
+  }
+
+  /**
+   * Sync only the indices which have changed since the last sync, possible when both stores have a
+   * {@link ChangeFeed} and have been synced before.
+   * 
+   * @return false if a full sync is needed instead
+   */
+  private boolean syncChanges() throws IOException, NigoriCryptographyException,
+      UnauthorisedException {
+    Set<Index> changed = new HashSet<Index>();
+    if (!(firstCursor.changed(changed) && secondCursor.changed(changed))) {
+      return false;
+    }
+    // Syncing writes changes to the feeds, these are seen next time but the indices will already be
+    // in sync.
+    for (Index index : changed) {
+      syncRevisions(index);
+    }
+    firstCursor.commit();
+    secondCursor.commit();
+    return true;
   }
 
   /**
@@ -82,7 +126,13 @@ public class SyncingNigoriDatastore implements NigoriDatastore {
       UnauthorisedException {
     List<Revision> firstRevisions = first.getRevisions(index);
     List<Revision> secondRevisions = second.getRevisions(index);
-    if (!(firstRevisions.containsAll(secondRevisions) && secondRevisions
+    if (firstRevisions == null) {
+      if (secondRevisions != null) {
+        addAllRevisions(index, secondRevisions, second, first);
+      }// else both null
+    } else if (secondRevisions == null) {
+      addAllRevisions(index, firstRevisions, first, second);
+    } else if (!(firstRevisions.containsAll(secondRevisions) && secondRevisions
         .containsAll(firstRevisions))) {
       // revisions not already synced
       List<Revision> firstMSecond = new ArrayList<Revision>(firstRevisions);
@@ -104,9 +154,11 @@ public class SyncingNigoriDatastore implements NigoriDatastore {
    */
   private void addAllRevisions(Index index, List<Revision> revisions, NigoriDatastore from,
       NigoriDatastore to) throws IOException, NigoriCryptographyException, UnauthorisedException {
+    List<RevValue> revValues = new ArrayList<RevValue>(revisions.size());
     for (Revision revision : revisions) {
-      to.put(index, revision, from.getRevision(index, revision));
+      revValues.add(new RevValue(revision, from.getRevision(index, revision)));
     }
+    to.putAll(Collections.singletonMap(index, revValues));
   }
 
   /**
@@ -121,12 +173,27 @@ public class SyncingNigoriDatastore implements NigoriDatastore {
    */
   private void addAllIndices(List<Index> indices, NigoriDatastore from, NigoriDatastore to)
       throws IOException, NigoriCryptographyException, UnauthorisedException {
-    for (Index index : indices) {
-      List<RevValue> revs = from.get(index);
-      for (RevValue rev : revs) {
-        to.put(index, rev.getRevision(), rev.getValue());
+    to.putAll(from.getAll(indices));
+  }
+
+  /**
+   * Add the revision-values in {@code other} to {@code into}
+   * 
+   * @return {@code into}
+   */
+  protected static Map<Index, List<RevValue>> union(Map<Index, List<RevValue>> into,
+      Map<Index, List<RevValue>> other) {
+    for (Map.Entry<Index, List<RevValue>> entry : other.entrySet()) {
+      List<RevValue> intoRevVals = into.get(entry.getKey());
+      if (intoRevVals == null) {
+        into.put(entry.getKey(), entry.getValue());
+      } else {
+        List<RevValue> otherRevVals = new ArrayList<RevValue>(entry.getValue());
+        otherRevVals.removeAll(intoRevVals);
+        intoRevVals.addAll(otherRevVals);// TODO(drt24) do a proper union and sync here
       }
     }
+    return into;
   }
 
   /**
@@ -173,6 +240,14 @@ public class SyncingNigoriDatastore implements NigoriDatastore {
     return firstPut && secondPut;
   }
 
+  @Override
+  public boolean putAll(Map<Index, ? extends Collection<RevValue>> records) throws IOException,
+      NigoriCryptographyException, UnauthorisedException {
+    boolean firstPut = first.putAll(records);
+    boolean secondPut = second.putAll(records);
+    return firstPut && secondPut;
+  }
+
   @Override
   public List<Index> getIndices() throws NigoriCryptographyException, IOException,
       UnauthorisedException {
@@ -203,6 +278,12 @@ public class SyncingNigoriDatastore implements NigoriDatastore {
     return firstRevVals;
   }
 
+  @Override
+  public Map<Index, List<RevValue>> getAll(Collection<Index> indices) throws IOException,
+      NigoriCryptographyException, UnauthorisedException {
+    return union(new HashMap<Index, List<RevValue>>(first.getAll(indices)), second.getAll(indices));
+  }
+
   @Override
   public byte[] getRevision(Index index, Revision revision) throws IOException,
       NigoriCryptographyException, UnauthorisedException {
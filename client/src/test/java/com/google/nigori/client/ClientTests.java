@@ -29,6 +29,8 @@ import com.google.nigori.client.accept.AcceptanceTests;
     ComparableMergerTest.class,
     DAGTest.class,
     DummyKeyManagerTest.class,
+    HttpClientTest.class,
+    PipelinedHttpClientTest.class,
     RealKeyManagerTest.class,
     AcceptanceTests.class,
     PasswordGeneratorTest.class
@@ -0,0 +1,214 @@
+/*
+ * Copyright (C) 2012 Daniel Thomas (drt24)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.nigori.client;
+
+import static com.google.nigori.common.MessageLibrary.toBytes;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.nigori.common.MessageLibrary;
+
+/**
+ * Runs {@link HttpClient} against a scripted server on a local socket.
+ *
+ * @author drt24
+ *
+ */
+public class HttpClientTest {
+
+  private ServerSocket serverSocket;
+  private Thread serverThread;
+  private HttpClient client;
+  private URL url;
+  /**
+   * Responses to send, one per request, in order. A null response closes the connection without
+   * responding.
+   */
+  private final List<String> responses = Collections.synchronizedList(new ArrayList<String>());
+  private final List<String> requestBodies = Collections.synchronizedList(new ArrayList<String>());
+
+  @Before
+  public void startServer() throws IOException {
+    serverSocket = new ServerSocket(0);
+    url = new URL("http://localhost:" + serverSocket.getLocalPort() + "/nigori/get");
+    client = new HttpClient();
+    serverThread = new Thread() {
+      @Override
+      public void run() {
+        try {
+          while (true) {
+            Socket socket = serverSocket.accept();
+            try {
+              serve(socket);
+            } catch (IOException e) {
+              // client went away
+            } finally {
+              socket.close();
+            }
+          }
+        } catch (IOException e) {
+          // server socket closed
+        }
+      }
+    };
+    serverThread.start();
+  }
+
+  @After
+  public void stopServer() throws IOException, InterruptedException {
+    client.close();
+    serverSocket.close();
+    serverThread.join(1000);
+  }
+
+  private void serve(Socket socket) throws IOException {
+    BufferedReader in =
+        new BufferedReader(new InputStreamReader(socket.getInputStream(), MessageLibrary.CHARSET));
+    OutputStream out = socket.getOutputStream();
+    String line;
+    while ((line = in.readLine()) != null) {
+      assertEquals("POST /nigori/get HTTP/1.1", line);
+      int length = 0;
+      while ((line = in.readLine()) != null && line.length() > 0) {
+        if (line.startsWith("Content-Length: ")) {
+          length = Integer.parseInt(line.substring("Content-Length: ".length()));
+        }
+      }
+      char[] body = new char[length];
+      int read = 0;
+      while (read < length) {
+        read += in.read(body, read, length - read);
+      }
+      requestBodies.add(new String(body));
+      String response = responses.isEmpty() ? null : responses.remove(0);
+      if (response == null) {
+        return;
+      }
+      out.write(toBytes(response));
+      out.flush();
+      if (response.contains("Connection: close")) {
+        return;
+      }
+    }
+  }
+
+  private String post(final String body) throws IOException {
+    HttpResponse response =
+        client.post(url, Collections.singletonMap("Content-Type", MessageLibrary.MIMETYPE_JSON),
+            new HttpClient.Body() {
+              private final byte[] data = toBytes(body);
+
+              @Override
+              public int length() {
+                return data.length;
+              }
+
+              @Override
+              public void writeTo(OutputStream out) throws IOException {
+                out.write(data);
+              }
+            });
+    assertEquals(200, response.getResponseCode());
+    return response.toOutputString();
+  }
+
+  private static String ok(String body) {
+    return "HTTP/1.1 200 OK\r\nContent-Length: " + toBytes(body).length + "\r\n\r\n" + body;
+  }
+
+  @Test
+  public void reusesConnection() throws IOException {
+    responses.add(ok("first"));
+    responses.add(ok("second"));
+    assertEquals("first", post("a"));
+    assertEquals("second", post("b"));
+    assertEquals(1, client.getConnectionsOpened());
+    assertEquals(1, client.getConnectionsReused());
+    assertEquals(2, requestBodies.size());
+    assertEquals("b", requestBodies.get(1));
+  }
+
+  @Test
+  public void chunked() throws IOException {
+    responses.add("HTTP/1.1 200 OK\r\nTransfer-Encoding: chunked\r\n\r\n"
+        + "5\r\nhello\r\n7;ext=1\r\n, world\r\n0\r\n\r\n");
+    responses.add(ok("again"));
+    assertEquals("hello, world", post("a"));
+    assertEquals("again", post("b"));
+    assertEquals(1, client.getConnectionsOpened());
+  }
+
+  @Test
+  public void connectionClose() throws IOException {
+    responses.add("HTTP/1.1 200 OK\r\nContent-Length: 3\r\nConnection: close\r\n\r\nbye");
+    responses.add(ok("new"));
+    assertEquals("bye", post("a"));
+    assertEquals("new", post("b"));
+    assertEquals(2, client.getConnectionsOpened());
+    assertEquals(0, client.getConnectionsReused());
+  }
+
+  @Test
+  public void retriesStaleConnection() throws IOException {
+    responses.add(ok("first"));
+    // server then drops the idle connection without saying so
+    responses.add(null);
+    responses.add(ok("second"));
+    assertEquals("first", post("a"));
+    assertEquals("second", post("b"));
+    assertEquals(2, client.getConnectionsOpened());
+    assertEquals(1, client.getConnectionsReused());
+  }
+
+  @Test
+  public void readTimeout() throws IOException {
+    responses.add("HTTP/1.1 200 OK\r\nContent-Length: 100\r\n\r\ntruncated");
+    client.setReadTimeout(200);
+    try {
+      post("a");
+      fail("Read of incomplete body did not time out");
+    } catch (SocketTimeoutException e) {
+      // expected
+    }
+  }
+
+  @Test
+  public void totalTimeout() throws IOException {
+    responses.add("HTTP/1.1 200 OK\r\nContent-Length: 100\r\n\r\ntruncated");
+    client.setTotalTimeout(200);
+    client.setReadTimeout(0);
+    try {
+      post("a");
+      fail("Read of incomplete body did not time out");
+    } catch (SocketTimeoutException e) {
+      // expected
+    }
+  }
+}
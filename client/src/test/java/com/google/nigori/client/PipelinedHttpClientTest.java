@@ -0,0 +1,277 @@
+/*
+ * Copyright (C) 2012 Daniel Thomas (drt24)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.nigori.client;
+
+import static com.google.nigori.common.MessageLibrary.toBytes;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.nigori.common.MessageLibrary;
+
+/**
+ * Runs {@link PipelinedHttpClient} against a local server which echoes request bodies back.
+ *
+ * @author drt24
+ *
+ */
+public class PipelinedHttpClientTest {
+
+  private static final long WAIT = 5;
+
+  private ServerSocket serverSocket;
+  private Thread serverThread;
+  private PipelinedHttpClient client;
+  /**
+   * A permit is needed for each response, unlimited unless a test takes them away
+   */
+  private final Semaphore respond = new Semaphore(Integer.MAX_VALUE);
+  private volatile boolean chunked = false;
+  private volatile boolean dropConnections = false;
+  private final List<Integer> connectionRequests = Collections
+      .synchronizedList(new ArrayList<Integer>());
+
+  @Before
+  public void startServer() throws IOException {
+    serverSocket = new ServerSocket(0);
+    serverThread = new Thread() {
+      @Override
+      public void run() {
+        try {
+          while (true) {
+            final Socket socket = serverSocket.accept();
+            new Thread() {
+              @Override
+              public void run() {
+                try {
+                  serve(socket);
+                } catch (Exception e) {
+                  // client went away
+                } finally {
+                  try {
+                    socket.close();
+                  } catch (IOException e) {
+                    // ignore
+                  }
+                }
+              }
+            }.start();
+          }
+        } catch (IOException e) {
+          // server socket closed
+        }
+      }
+    };
+    serverThread.start();
+  }
+
+  @After
+  public void stopServer() throws IOException, InterruptedException {
+    if (client != null) {
+      client.close();
+    }
+    serverSocket.close();
+    serverThread.join(1000);
+  }
+
+  private void serve(Socket socket) throws IOException, InterruptedException {
+    BufferedReader in =
+        new BufferedReader(new InputStreamReader(socket.getInputStream(), MessageLibrary.CHARSET));
+    OutputStream out = socket.getOutputStream();
+    int served = 0;
+    String line;
+    while ((line = in.readLine()) != null) {
+      assertEquals("POST /nigori/echo HTTP/1.1", line);
+      int length = 0;
+      while ((line = in.readLine()) != null && line.length() > 0) {
+        if (line.startsWith("Content-Length: ")) {
+          length = Integer.parseInt(line.substring("Content-Length: ".length()));
+        }
+      }
+      char[] body = new char[length];
+      int read = 0;
+      while (read < length) {
+        read += in.read(body, read, length - read);
+      }
+      if (dropConnections) {
+        return;
+      }
+      respond.acquire();
+      String echo = new String(body);
+      if (chunked) {
+        // one byte at a time so the client sees the response split across many reads
+        String response =
+            "HTTP/1.1 200 OK\r\nTransfer-Encoding: chunked\r\n\r\n" + Integer.toHexString(length)
+                + "\r\n" + echo + "\r\n0\r\n\r\n";
+        for (byte b : toBytes(response)) {
+          out.write(b);
+          out.flush();
+        }
+      } else {
+        out.write(toBytes("HTTP/1.1 200 OK\r\nContent-Length: " + toBytes(echo).length
+            + "\r\n\r\n" + echo));
+        out.flush();
+      }
+      connectionRequests.add(++served);
+    }
+  }
+
+  private NigoriFuture<HttpResponse> post(String body) throws IOException {
+    return client.post("/nigori/echo", Collections.singletonMap("Content-Type",
+        MessageLibrary.MIMETYPE_JSON), toBytes(body));
+  }
+
+  private static String body(NigoriFuture<HttpResponse> future) throws Exception {
+    HttpResponse response = future.get(WAIT, TimeUnit.SECONDS);
+    assertEquals(200, response.getResponseCode());
+    return response.toOutputString();
+  }
+
+  @Test
+  public void pipelinesOverOneConnection() throws Exception {
+    client = new PipelinedHttpClient("localhost", serverSocket.getLocalPort(), 1, 16);
+    // hold responses until every request has been sent
+    respond.drainPermits();
+    List<NigoriFuture<HttpResponse>> futures = new ArrayList<NigoriFuture<HttpResponse>>();
+    for (int i = 0; i < 10; ++i) {
+      futures.add(post("request " + i));
+    }
+    respond.release(10);
+    for (int i = 0; i < 10; ++i) {
+      assertEquals("request " + i, body(futures.get(i)));
+    }
+    assertEquals(1, client.getConnectionsOpened());
+    assertEquals(10, client.getRequestsSent());
+    assertEquals(16, client.getAvailableWindow());
+  }
+
+  @Test
+  public void chunkedSplitAcrossReads() throws Exception {
+    client = new PipelinedHttpClient("localhost", serverSocket.getLocalPort());
+    chunked = true;
+    NigoriFuture<HttpResponse> first = post("hello");
+    NigoriFuture<HttpResponse> second = post("world");
+    assertEquals("hello", body(first));
+    assertEquals("world", body(second));
+  }
+
+  @Test
+  public void callbacks() throws Exception {
+    client = new PipelinedHttpClient("localhost", serverSocket.getLocalPort());
+    final List<String> results = Collections.synchronizedList(new ArrayList<String>());
+    final Semaphore done = new Semaphore(0);
+    NigoriFuture<String> transformed =
+        post("callback").transform(new NigoriFuture.Transform<HttpResponse, String>() {
+          @Override
+          public String apply(HttpResponse from) {
+            return from.toOutputString();
+          }
+        });
+    transformed.addCallback(new AsyncCallback<String>() {
+      @Override
+      public void onSuccess(String result) {
+        results.add(result);
+        done.release();
+      }
+
+      @Override
+      public void onFailure(Throwable caught) {
+        done.release();
+      }
+    });
+    assertTrue(done.tryAcquire(WAIT, TimeUnit.SECONDS));
+    assertEquals(Collections.singletonList("callback"), results);
+  }
+
+  @Test
+  public void backpressure() throws Exception {
+    client = new PipelinedHttpClient("localhost", serverSocket.getLocalPort(), 1, 2);
+    respond.drainPermits();
+    NigoriFuture<HttpResponse> first = post("1");
+    NigoriFuture<HttpResponse> second = post("2");
+    assertEquals(0, client.getAvailableWindow());
+    final List<NigoriFuture<HttpResponse>> third =
+        Collections.synchronizedList(new ArrayList<NigoriFuture<HttpResponse>>());
+    Thread blocked = new Thread() {
+      @Override
+      public void run() {
+        try {
+          third.add(post("3"));
+        } catch (IOException e) {
+          // fails the test below
+        }
+      }
+    };
+    blocked.start();
+    blocked.join(200);
+    assertTrue("Request sent while window was full", blocked.isAlive());
+    respond.release(3);
+    blocked.join(WAIT * 1000);
+    assertEquals("1", body(first));
+    assertEquals("2", body(second));
+    assertEquals(1, third.size());
+    assertEquals("3", body(third.get(0)));
+  }
+
+  @Test
+  public void failsWhenServerDropsConnection() throws Exception {
+    client = new PipelinedHttpClient("localhost", serverSocket.getLocalPort(), 1, 4);
+    dropConnections = true;
+    try {
+      body(post("lost"));
+      fail("Request on dropped connection succeeded");
+    } catch (ExecutionException e) {
+      assertTrue(e.getCause() instanceof IOException);
+    }
+    assertEquals(4, client.getAvailableWindow());
+    dropConnections = false;
+    assertEquals("again", body(post("again")));
+  }
+
+  @Test
+  public void parserHandlesSharedAndSplitBuffers() throws IOException {
+    HttpResponseParser parser = new HttpResponseParser();
+    ByteBuffer buffer =
+        ByteBuffer.wrap(toBytes("HTTP/1.1 200 OK\r\nContent-Length: 2\r\n\r\nabHTTP/1.1 404 "
+            + "Not Found\r\nContent-Length: 3\r\nConnection: close\r\n\r\nxy"));
+    HttpResponse response = parser.parse(buffer);
+    assertEquals(200, response.getResponseCode());
+    assertEquals("ab", response.toOutputString());
+    assertTrue(buffer.hasRemaining());
+    assertEquals(null, parser.parse(buffer));
+    assertTrue(parser.inResponse());
+    response = parser.parse(ByteBuffer.wrap(toBytes("z")));
+    assertEquals(404, response.getResponseCode());
+    assertEquals("xyz", response.toOutputString());
+    assertTrue(parser.closeAfter());
+  }
+}
@@ -15,10 +15,13 @@ package com.google.nigori.client;
 
 import static com.google.nigori.common.MessageLibrary.toBytes;
 import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
 
 import org.junit.BeforeClass;
 import org.junit.Test;
 
+import com.google.nigori.common.DSASign;
 import com.google.nigori.common.NigoriCryptographyException;
 
 /**
@@ -49,6 +52,15 @@ public class RealKeyManagerTest extends AbstractKeyManagerTest {
     }
   }
 
+  @Test
+  public void signerReused() throws NigoriCryptographyException {
+    RealKeyManager keyManager = new RealKeyManager("test", toBytes("test"), toBytes("test"));
+    DSASign signer = keyManager.signer();
+    assertSame(signer, keyManager.signer());
+    keyManager.destroy();
+    assertNotSame(signer, keyManager.signer());
+  }
+
   // Answers generated by using System.out.println above to get the values we were generating on
   // 2012-12-17 which are hopefully correct.
   private static byte[] passwordSaltAnswer = {
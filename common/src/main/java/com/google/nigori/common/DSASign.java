@@ -16,18 +16,25 @@ package com.google.nigori.common;
 import java.math.BigInteger;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
-
-import org.bouncycastle.crypto.params.DSAPrivateKeyParameters;
+import java.security.SecureRandom;
 
 /**
  * Provides DSA Signature functionality.
  * 
+ * {@link #sign(byte[])} may be called concurrently so that a single instance can be shared between
+ * threads.
+ * 
  * @author Daniel Thomas (drt24)
  */
 public class DSASign extends DSAVerify {
 
+  private static final SecureRandom random = new SecureRandom();
+
+  /**
+   * Reduced modulo {@link NigoriConstants#DSA_Q}, this does not change the public key as the
+   * generator has order q.
+   */
   private final BigInteger privateKey;
-  protected DSAPrivateKeyParameters privateParams;
 
   /**
    * Given {@code privateKey} create a object capable of generating DSA signatures with it.
@@ -36,9 +43,12 @@ public class DSASign extends DSAVerify {
    * @throws NoSuchAlgorithmException
    */
   public DSASign(byte[] privateKey) throws NoSuchAlgorithmException {
-    super(NigoriConstants.DSA_G.modPow(Util.byteToBigInt(privateKey), NigoriConstants.DSA_P));
-    this.privateKey = Util.byteToBigInt(privateKey);
-    this.privateParams = new DSAPrivateKeyParameters(this.privateKey, NigoriConstants.DSA_PARAMS);
+    this(Util.byteToBigInt(privateKey).mod(NigoriConstants.DSA_Q));
+  }
+
+  private DSASign(BigInteger privateKey) throws NoSuchAlgorithmException {
+    super(generatorPow(privateKey));
+    this.privateKey = privateKey;
   }
 
   /**
@@ -49,11 +59,30 @@ public class DSASign extends DSAVerify {
    * @throws NoSuchAlgorithmException thrown is {@code DIGEST_ALGORITHM} is not available.
    */
   public DSASignature sign(byte[] message) throws NoSuchAlgorithmException {
-    signer.init(true, privateParams);
+    return sign(SignatureInput.raw(message));
+  }
+
+  /**
+   * Sign {@code message} without building it as a single array.
+   * 
+   * @see #sign(byte[])
+   */
+  public DSASignature sign(SignatureInput message) throws NoSuchAlgorithmException {
+    final BigInteger q = NigoriConstants.DSA_Q;
     MessageDigest hash = MessageDigest.getInstance(DIGEST_ALGORITHM);
-    hash.update(message);
-    BigInteger[] sig = signer.generateSignature(hash.digest());
-    return new DSASignature(Util.bigIntToByte(sig[0]), Util.bigIntToByte(sig[1]), message);
+    message.update(hash);
+    BigInteger m = messageRepresentative(hash.digest());
+
+    BigInteger r, s;
+    do {
+      BigInteger k;
+      do {
+        k = new BigInteger(q.bitLength(), random);
+      } while (k.signum() == 0 || k.compareTo(q) >= 0);
+      r = generatorPow(k).mod(q);
+      s = k.modInverse(q).multiply(m.add(privateKey.multiply(r))).mod(q);
+    } while (r.signum() == 0 || s.signum() == 0);
+    return new DSASignature(Util.bigIntToByte(r), Util.bigIntToByte(s), message);
   }
 
 }
\ No newline at end of file
@@ -22,7 +22,7 @@ public class DSASignature {
 
   private final byte[] s;
   private final byte[] r;
-  private final byte[] message;
+  private final SignatureInput message;
 
   /**
    * A data object representing a DSA Signature of {@code message}.
@@ -36,6 +36,13 @@ public class DSASignature {
    * @param message the message which has been signed.
    */
   public DSASignature(byte[] r, byte[] s, byte[] message) {
+    this(r, s, SignatureInput.raw(message));
+  }
+
+  /**
+   * As {@link #DSASignature(byte[], byte[], byte[])} for a message which is hashed part by part.
+   */
+  public DSASignature(byte[] r, byte[] s, SignatureInput message) {
     this.s = s;
     this.r = r;
     this.message = message;
@@ -49,7 +56,14 @@ public class DSASignature {
     return s;
   }
 
+  /**
+   * @return a copy of the message which has been signed
+   */
   public byte[] getMessage() {
+    return message.toByteArray();
+  }
+
+  public SignatureInput getInput() {
     return message;
   }
 }
\ No newline at end of file
@@ -17,32 +17,46 @@ import java.math.BigInteger;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 
-import org.bouncycastle.crypto.params.DSAPublicKeyParameters;
-import org.bouncycastle.crypto.signers.DSASigner;
-
 /**
  * Checks the validity of a previously generated DSASignature.
  * 
+ * {@link #verify(DSASignature)} may be called concurrently so that a single instance can be shared
+ * between threads.
+ * 
+ * Exponentiations of the generator {@link NigoriConstants#DSA_G} use a shared
+ * {@link FixedBaseExponentiation} table which is built the first time it is needed.
+ * 
  * @author Daniel Thomas (drt24)
  */
 public class DSAVerify {
 
   static final String DIGEST_ALGORITHM = NigoriConstants.A_KMAC;
-  protected final DSASigner signer;
 
   private final BigInteger publicKey;
-  protected DSAPublicKeyParameters publicParams;
   private byte[] publicHash;
 
+  /**
+   * Holder so that the table is only built when the first DSA key is used.
+   */
+  private static final class Generator {
+    static final FixedBaseExponentiation POWERS = new FixedBaseExponentiation(
+        NigoriConstants.DSA_G, NigoriConstants.DSA_P, NigoriConstants.DSA_Q);
+  }
+
+  /**
+   * @return {@link NigoriConstants#DSA_G}^exponent mod {@link NigoriConstants#DSA_P}
+   */
+  static BigInteger generatorPow(BigInteger exponent) {
+    return Generator.POWERS.pow(exponent);
+  }
+
   public DSAVerify(byte[] publicKey) throws NoSuchAlgorithmException {
     this(Util.byteToBigInt(publicKey));
   }
 
   protected DSAVerify(BigInteger publicKey) throws NoSuchAlgorithmException {
     this.publicKey = publicKey;
-    this.publicParams = new DSAPublicKeyParameters(this.publicKey, NigoriConstants.DSA_PARAMS);
     this.publicHash = Util.hashKey(getPublicKey());
-    signer = new DSASigner();
   }
 
   /**
@@ -69,10 +83,32 @@ public class DSAVerify {
    * @throws NoSuchAlgorithmException if {@code DIGEST_ALGORITHM} is not available.
    */
   public boolean verify(DSASignature sig) throws NoSuchAlgorithmException {
-    signer.init(false , publicParams);
+    final BigInteger q = NigoriConstants.DSA_Q;
+    BigInteger r = Util.byteToBigInt(sig.getR());
+    BigInteger s = Util.byteToBigInt(sig.getS());
+    if (r.signum() <= 0 || r.compareTo(q) >= 0 || s.signum() <= 0 || s.compareTo(q) >= 0) {
+      return false;
+    }
     MessageDigest hash = MessageDigest.getInstance(DIGEST_ALGORITHM);
-    hash.update(sig.getMessage());
-    return signer.verifySignature(hash.digest(), Util.byteToBigInt(sig.getR()), Util
-        .byteToBigInt(sig.getS()));
+    sig.getInput().update(hash);
+    BigInteger m = messageRepresentative(hash.digest());
+
+    BigInteger w = s.modInverse(q);
+    BigInteger u1 = m.multiply(w).mod(q);
+    BigInteger u2 = r.multiply(w).mod(q);
+    BigInteger v =
+        generatorPow(u1).multiply(publicKey.modPow(u2, NigoriConstants.DSA_P))
+            .mod(NigoriConstants.DSA_P).mod(q);
+    return v.equals(r);
+  }
+
+  /**
+   * The leftmost bits of the digest as a positive integer, as many bits as there are in
+   * {@link NigoriConstants#DSA_Q} (FIPS 186-3 section 4.6).
+   */
+  static BigInteger messageRepresentative(byte[] digest) {
+    BigInteger m = Util.byteToBigInt(digest);
+    int excess = digest.length * 8 - NigoriConstants.DSA_Q.bitLength();
+    return excess > 0 ? m.shiftRight(excess) : m;
   }
 }
@@ -0,0 +1,131 @@
+/*
+ * Copyright (C) 2012 Daniel R. Thomas (drt24)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.nigori.common;
+
+import java.math.BigInteger;
+
+/**
+ * Computes {@code base^e mod modulus} for a fixed base using a table of precomputed powers.
+ *
+ * The exponent is split into {@code window} bit digits d_i and the table holds
+ * {@code base^(j * 2^(window * i))} for every digit value j at every position i, so that an
+ * exponentiation is at most one modular multiplication per digit and needs no squarings. For a
+ * 256 bit exponent and a window of 6 that is 43 multiplications rather than the ~300 that
+ * {@link BigInteger#modPow(BigInteger, BigInteger)} needs.
+ *
+ * Exponents are reduced modulo the order of the base, so the order must be correct. Instances are
+ * immutable once constructed and so may be shared between threads.
+ *
+ * @author drt24
+ *
+ */
+public final class FixedBaseExponentiation {
+
+  public static final int DEFAULT_WINDOW = 6;
+
+  private final BigInteger base;
+  private final BigInteger modulus;
+  private final BigInteger order;
+  private final int window;
+  /**
+   * table[i][j] = base^(j * 2^(window * i)) mod modulus
+   */
+  private final BigInteger[][] table;
+
+  /**
+   * @param base the fixed base
+   * @param modulus
+   * @param order the order of base in the multiplicative group modulo modulus
+   */
+  public FixedBaseExponentiation(BigInteger base, BigInteger modulus, BigInteger order) {
+    this(base, modulus, order, DEFAULT_WINDOW);
+  }
+
+  /**
+   * @param base the fixed base
+   * @param modulus
+   * @param order the order of base in the multiplicative group modulo modulus
+   * @param window the number of exponent bits handled by each table lookup, the table holds
+   *          ceil(bits(order)/window) * 2^window entries
+   */
+  public FixedBaseExponentiation(BigInteger base, BigInteger modulus, BigInteger order, int window) {
+    if (window < 1 || window > 16) {
+      throw new IllegalArgumentException("window must be between 1 and 16 but was: " + window);
+    }
+    if (modulus.compareTo(BigInteger.ONE) <= 0) {
+      throw new IllegalArgumentException("modulus must be greater than one");
+    }
+    if (order.signum() <= 0) {
+      throw new IllegalArgumentException("order must be positive");
+    }
+    this.base = base.mod(modulus);
+    this.modulus = modulus;
+    this.order = order;
+    this.window = window;
+
+    int digits = (order.bitLength() + window - 1) / window;
+    table = new BigInteger[digits][1 << window];
+    BigInteger rowBase = this.base;
+    for (int i = 0; i < digits; ++i) {
+      BigInteger[] row = table[i];
+      row[0] = BigInteger.ONE;
+      row[1] = rowBase;
+      for (int j = 2; j < row.length; ++j) {
+        row[j] = row[j - 1].multiply(rowBase).mod(modulus);
+      }
+      // base^(2^(window * (i + 1))) = row[2^window - 1] * rowBase
+      rowBase = row[row.length - 1].multiply(rowBase).mod(modulus);
+    }
+  }
+
+  /**
+   * @param exponent any integer, it is reduced modulo the order of the base
+   * @return base^exponent mod modulus
+   */
+  public BigInteger pow(BigInteger exponent) {
+    if (exponent.signum() < 0 || exponent.compareTo(order) >= 0) {
+      exponent = exponent.mod(order);
+    }
+    BigInteger result = null;
+    int bits = exponent.bitLength();
+    for (int i = 0; i * window < bits; ++i) {
+      int digit = digit(exponent, i * window);
+      if (digit != 0) {
+        BigInteger power = table[i][digit];
+        result = result == null ? power : result.multiply(power).mod(modulus);
+      }
+    }
+    return result == null ? BigInteger.ONE : result;
+  }
+
+  private int digit(BigInteger exponent, int offset) {
+    int digit = 0;
+    for (int bit = window - 1; bit >= 0; --bit) {
+      digit = (digit << 1) | (exponent.testBit(offset + bit) ? 1 : 0);
+    }
+    return digit;
+  }
+
+  public BigInteger getBase() {
+    return base;
+  }
+
+  public BigInteger getModulus() {
+    return modulus;
+  }
+
+  public BigInteger getOrder() {
+    return order;
+  }
+}
@@ -0,0 +1,1107 @@
+/*
+ * Copyright (C) 2012 Daniel R. Thomas (drt24)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.nigori.common;
+
+import java.io.IOException;
+import java.util.List;
+
+import org.apache.commons.codec.binary.Base64;
+
+import com.google.gson.JsonParseException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import com.google.nigori.common.NigoriMessages.AuthenticateRequest;
+import com.google.nigori.common.NigoriMessages.BatchDeleteRequest;
+import com.google.nigori.common.NigoriMessages.BatchGetRequest;
+import com.google.nigori.common.NigoriMessages.BatchGetResponse;
+import com.google.nigori.common.NigoriMessages.BatchPutRequest;
+import com.google.nigori.common.NigoriMessages.Change;
+import com.google.nigori.common.NigoriMessages.DeleteRequest;
+import com.google.nigori.common.NigoriMessages.DigestNode;
+import com.google.nigori.common.NigoriMessages.GetChangesRequest;
+import com.google.nigori.common.NigoriMessages.GetChangesResponse;
+import com.google.nigori.common.NigoriMessages.GetDigestRequest;
+import com.google.nigori.common.NigoriMessages.GetDigestResponse;
+import com.google.nigori.common.NigoriMessages.GetIndicesRequest;
+import com.google.nigori.common.NigoriMessages.GetIndicesResponse;
+import com.google.nigori.common.NigoriMessages.GetRequest;
+import com.google.nigori.common.NigoriMessages.GetResponse;
+import com.google.nigori.common.NigoriMessages.GetRevisionsRequest;
+import com.google.nigori.common.NigoriMessages.GetRevisionsResponse;
+import com.google.nigori.common.NigoriMessages.KeyRevision;
+import com.google.nigori.common.NigoriMessages.KeyRevisionValue;
+import com.google.nigori.common.NigoriMessages.PutRequest;
+import com.google.nigori.common.NigoriMessages.RegisterRequest;
+import com.google.nigori.common.NigoriMessages.RevisionValue;
+import com.google.nigori.common.NigoriMessages.SessionRequest;
+import com.google.nigori.common.NigoriMessages.SessionResponse;
+import com.google.nigori.common.NigoriMessages.UnregisterRequest;
+import com.google.protobuf.ByteString;
+import com.google.protobuf.GeneratedMessage;
+import com.google.protobuf.Message;
+
+/**
+ * Streaming Gson type adapters for the Nigori messages.
+ *
+ * Each message is written field by field straight to a {@link JsonWriter} and read straight from a
+ * {@link JsonReader} into its builder, with no intermediate tree and no reflection. Field names are
+ * the protobuf field names, bytes fields are base64 strings and unset optional or empty repeated
+ * fields are omitted. Unknown and null fields are ignored when reading.
+ *
+ * @author drt24
+ *
+ */
+final class JsonCodec {
+
+  private JsonCodec() {
+  }
+
+  private abstract static class MessageAdapter<T extends GeneratedMessage, B extends Message.Builder>
+      extends TypeAdapter<T> {
+
+    @Override
+    public final void write(JsonWriter out, T value) throws IOException {
+      if (value == null) {
+        out.nullValue();
+        return;
+      }
+      out.beginObject();
+      writeFields(out, value);
+      out.endObject();
+    }
+
+    @Override
+    public final T read(JsonReader in) throws IOException {
+      if (in.peek() == JsonToken.NULL) {
+        in.nextNull();
+        return null;
+      }
+      B builder = newBuilder();
+      in.beginObject();
+      while (in.hasNext()) {
+        String name = in.nextName();
+        if (in.peek() == JsonToken.NULL || !readField(in, name, builder)) {
+          in.skipValue();
+        }
+      }
+      in.endObject();
+      if (!builder.isInitialized()) {
+        throw new JsonParseException("Missing required fields");
+      }
+      @SuppressWarnings("unchecked")
+      T message = (T) builder.build();
+      return message;
+    }
+
+    protected abstract B newBuilder();
+
+    protected abstract void writeFields(JsonWriter out, T value) throws IOException;
+
+    /**
+     * @return true if {@code name} is a field of this message and its value has been consumed
+     */
+    protected abstract boolean readField(JsonReader in, String name, B builder) throws IOException;
+  }
+
+  private static void writeBytes(JsonWriter out, String name, ByteString value) throws IOException {
+    writeBytes(out.name(name), value);
+  }
+
+  private static void writeBytes(JsonWriter out, ByteString value) throws IOException {
+    out.value(MessageLibrary.bytesToString(Base64.encodeBase64(value.toByteArray())));
+  }
+
+  @SuppressWarnings("deprecation")// see comment below
+  private static ByteString readBytes(JsonReader in) throws IOException {
+    byte[] jsonBytes = MessageLibrary.toBytes(in.nextString());
+    // (drt24) Since android ships with an ancient version of org.apache.commons.codec which
+    // overrides any version we ship we have to use old deprecated methods.
+    if (Base64.isArrayByteBase64(jsonBytes)) {
+      return ByteString.copyFrom(Base64.decodeBase64(jsonBytes));
+    } else {
+      throw new JsonParseException("JSON element is not correctly base64 encoded.");
+    }
+  }
+
+  static final TypeAdapter<AuthenticateRequest> AUTHENTICATE_REQUEST =
+      new MessageAdapter<AuthenticateRequest, AuthenticateRequest.Builder>() {
+        @Override
+        protected AuthenticateRequest.Builder newBuilder() {
+          return AuthenticateRequest.newBuilder();
+        }
+
+        @Override
+        protected void writeFields(JsonWriter out, AuthenticateRequest value) throws IOException {
+          if (value.hasPublicKey()) {
+            writeBytes(out, "public_key", value.getPublicKey());
+          }
+          if (value.hasSig()) {
+            writeBytes(out, "sig", value.getSig());
+          }
+          if (value.hasNonce()) {
+            writeBytes(out, "nonce", value.getNonce());
+          }
+          if (value.hasServerName()) {
+            out.name("server_name").value(value.getServerName());
+          }
+          if (value.hasTicket()) {
+            writeBytes(out, "ticket", value.getTicket());
+          }
+          if (value.hasCounter()) {
+            out.name("counter").value(value.getCounter());
+          }
+        }
+
+        @Override
+        protected boolean readField(JsonReader in, String name, AuthenticateRequest.Builder builder)
+            throws IOException {
+          if ("public_key".equals(name)) {
+            builder.setPublicKey(readBytes(in));
+          } else if ("sig".equals(name)) {
+            builder.setSig(readBytes(in));
+          } else if ("nonce".equals(name)) {
+            builder.setNonce(readBytes(in));
+          } else if ("server_name".equals(name)) {
+            builder.setServerName(in.nextString());
+          } else if ("ticket".equals(name)) {
+            builder.setTicket(readBytes(in));
+          } else if ("counter".equals(name)) {
+            builder.setCounter(in.nextLong());
+          } else {
+            return false;
+          }
+          return true;
+        }
+      };
+
+  static final TypeAdapter<RegisterRequest> REGISTER_REQUEST =
+      new MessageAdapter<RegisterRequest, RegisterRequest.Builder>() {
+        @Override
+        protected RegisterRequest.Builder newBuilder() {
+          return RegisterRequest.newBuilder();
+        }
+
+        @Override
+        protected void writeFields(JsonWriter out, RegisterRequest value) throws IOException {
+          if (value.hasPublicKey()) {
+            writeBytes(out, "public_key", value.getPublicKey());
+          }
+          if (value.hasToken()) {
+            writeBytes(out, "token", value.getToken());
+          }
+        }
+
+        @Override
+        protected boolean readField(JsonReader in, String name, RegisterRequest.Builder builder)
+            throws IOException {
+          if ("public_key".equals(name)) {
+            builder.setPublicKey(readBytes(in));
+          } else if ("token".equals(name)) {
+            builder.setToken(readBytes(in));
+          } else {
+            return false;
+          }
+          return true;
+        }
+      };
+
+  static final TypeAdapter<UnregisterRequest> UNREGISTER_REQUEST =
+      new MessageAdapter<UnregisterRequest, UnregisterRequest.Builder>() {
+        @Override
+        protected UnregisterRequest.Builder newBuilder() {
+          return UnregisterRequest.newBuilder();
+        }
+
+        @Override
+        protected void writeFields(JsonWriter out, UnregisterRequest value) throws IOException {
+          if (value.hasAuth()) {
+            AUTHENTICATE_REQUEST.write(out.name("auth"), value.getAuth());
+          }
+        }
+
+        @Override
+        protected boolean readField(JsonReader in, String name, UnregisterRequest.Builder builder)
+            throws IOException {
+          if ("auth".equals(name)) {
+            builder.setAuth(AUTHENTICATE_REQUEST.read(in));
+          } else {
+            return false;
+          }
+          return true;
+        }
+      };
+
+  static final TypeAdapter<RevisionValue> REVISION_VALUE =
+      new MessageAdapter<RevisionValue, RevisionValue.Builder>() {
+        @Override
+        protected RevisionValue.Builder newBuilder() {
+          return RevisionValue.newBuilder();
+        }
+
+        @Override
+        protected void writeFields(JsonWriter out, RevisionValue value) throws IOException {
+          if (value.hasRevision()) {
+            writeBytes(out, "revision", value.getRevision());
+          }
+          if (value.hasValue()) {
+            writeBytes(out, "value", value.getValue());
+          }
+        }
+
+        @Override
+        protected boolean readField(JsonReader in, String name, RevisionValue.Builder builder)
+            throws IOException {
+          if ("revision".equals(name)) {
+            builder.setRevision(readBytes(in));
+          } else if ("value".equals(name)) {
+            builder.setValue(readBytes(in));
+          } else {
+            return false;
+          }
+          return true;
+        }
+      };
+
+  static final TypeAdapter<GetRequest> GET_REQUEST =
+      new MessageAdapter<GetRequest, GetRequest.Builder>() {
+        @Override
+        protected GetRequest.Builder newBuilder() {
+          return GetRequest.newBuilder();
+        }
+
+        @Override
+        protected void writeFields(JsonWriter out, GetRequest value) throws IOException {
+          if (value.hasAuth()) {
+            AUTHENTICATE_REQUEST.write(out.name("auth"), value.getAuth());
+          }
+          if (value.hasKey()) {
+            writeBytes(out, "key", value.getKey());
+          }
+          if (value.hasRevision()) {
+            writeBytes(out, "revision", value.getRevision());
+          }
+          if (value.hasFingerprint()) {
+            writeBytes(out, "fingerprint", value.getFingerprint());
+          }
+        }
+
+        @Override
+        protected boolean readField(JsonReader in, String name, GetRequest.Builder builder)
+            throws IOException {
+          if ("auth".equals(name)) {
+            builder.setAuth(AUTHENTICATE_REQUEST.read(in));
+          } else if ("key".equals(name)) {
+            builder.setKey(readBytes(in));
+          } else if ("revision".equals(name)) {
+            builder.setRevision(readBytes(in));
+          } else if ("fingerprint".equals(name)) {
+            builder.setFingerprint(readBytes(in));
+          } else {
+            return false;
+          }
+          return true;
+        }
+      };
+
+  static final TypeAdapter<GetResponse> GET_RESPONSE =
+      new MessageAdapter<GetResponse, GetResponse.Builder>() {
+        @Override
+        protected GetResponse.Builder newBuilder() {
+          return GetResponse.newBuilder();
+        }
+
+        @Override
+        protected void writeFields(JsonWriter out, GetResponse value) throws IOException {
+          if (value.getRevisionsCount() > 0) {
+            out.name("revisions").beginArray();
+            for (RevisionValue revision : value.getRevisionsList()) {
+              REVISION_VALUE.write(out, revision);
+            }
+            out.endArray();
+          }
+          if (value.hasKey()) {
+            writeBytes(out, "key", value.getKey());
+          }
+          if (value.hasPartial()) {
+            out.name("partial").value(value.getPartial());
+          }
+        }
+
+        @Override
+        protected boolean readField(JsonReader in, String name, GetResponse.Builder builder)
+            throws IOException {
+          if ("revisions".equals(name)) {
+            in.beginArray();
+            while (in.hasNext()) {
+              builder.addRevisions(REVISION_VALUE.read(in));
+            }
+            in.endArray();
+          } else if ("key".equals(name)) {
+            builder.setKey(readBytes(in));
+          } else if ("partial".equals(name)) {
+            builder.setPartial(in.nextBoolean());
+          } else {
+            return false;
+          }
+          return true;
+        }
+      };
+
+  static final TypeAdapter<GetIndicesRequest> GET_INDICES_REQUEST =
+      new MessageAdapter<GetIndicesRequest, GetIndicesRequest.Builder>() {
+        @Override
+        protected GetIndicesRequest.Builder newBuilder() {
+          return GetIndicesRequest.newBuilder();
+        }
+
+        @Override
+        protected void writeFields(JsonWriter out, GetIndicesRequest value) throws IOException {
+          if (value.hasAuth()) {
+            AUTHENTICATE_REQUEST.write(out.name("auth"), value.getAuth());
+          }
+        }
+
+        @Override
+        protected boolean readField(JsonReader in, String name, GetIndicesRequest.Builder builder)
+            throws IOException {
+          if ("auth".equals(name)) {
+            builder.setAuth(AUTHENTICATE_REQUEST.read(in));
+          } else {
+            return false;
+          }
+          return true;
+        }
+      };
+
+  static final TypeAdapter<GetIndicesResponse> GET_INDICES_RESPONSE =
+      new MessageAdapter<GetIndicesResponse, GetIndicesResponse.Builder>() {
+        @Override
+        protected GetIndicesResponse.Builder newBuilder() {
+          return GetIndicesResponse.newBuilder();
+        }
+
+        @Override
+        protected void writeFields(JsonWriter out, GetIndicesResponse value) throws IOException {
+          if (value.getIndicesCount() > 0) {
+            out.name("indices").beginArray();
+            for (ByteString index : value.getIndicesList()) {
+              writeBytes(out, index);
+            }
+            out.endArray();
+          }
+        }
+
+        @Override
+        protected boolean readField(JsonReader in, String name, GetIndicesResponse.Builder builder)
+            throws IOException {
+          if ("indices".equals(name)) {
+            in.beginArray();
+            while (in.hasNext()) {
+              builder.addIndices(readBytes(in));
+            }
+            in.endArray();
+          } else {
+            return false;
+          }
+          return true;
+        }
+      };
+
+  static final TypeAdapter<GetRevisionsRequest> GET_REVISIONS_REQUEST =
+      new MessageAdapter<GetRevisionsRequest, GetRevisionsRequest.Builder>() {
+        @Override
+        protected GetRevisionsRequest.Builder newBuilder() {
+          return GetRevisionsRequest.newBuilder();
+        }
+
+        @Override
+        protected void writeFields(JsonWriter out, GetRevisionsRequest value) throws IOException {
+          if (value.hasAuth()) {
+            AUTHENTICATE_REQUEST.write(out.name("auth"), value.getAuth());
+          }
+          if (value.hasKey()) {
+            writeBytes(out, "key", value.getKey());
+          }
+          if (value.hasFingerprint()) {
+            writeBytes(out, "fingerprint", value.getFingerprint());
+          }
+        }
+
+        @Override
+        protected boolean readField(JsonReader in, String name, GetRevisionsRequest.Builder builder)
+            throws IOException {
+          if ("auth".equals(name)) {
+            builder.setAuth(AUTHENTICATE_REQUEST.read(in));
+          } else if ("key".equals(name)) {
+            builder.setKey(readBytes(in));
+          } else if ("fingerprint".equals(name)) {
+            builder.setFingerprint(readBytes(in));
+          } else {
+            return false;
+          }
+          return true;
+        }
+      };
+
+  static final TypeAdapter<GetRevisionsResponse> GET_REVISIONS_RESPONSE =
+      new MessageAdapter<GetRevisionsResponse, GetRevisionsResponse.Builder>() {
+        @Override
+        protected GetRevisionsResponse.Builder newBuilder() {
+          return GetRevisionsResponse.newBuilder();
+        }
+
+        @Override
+        protected void writeFields(JsonWriter out, GetRevisionsResponse value) throws IOException {
+          if (value.getRevisionsCount() > 0) {
+            out.name("revisions").beginArray();
+            for (ByteString revision : value.getRevisionsList()) {
+              writeBytes(out, revision);
+            }
+            out.endArray();
+          }
+          if (value.hasKey()) {
+            writeBytes(out, "key", value.getKey());
+          }
+          if (value.hasPartial()) {
+            out.name("partial").value(value.getPartial());
+          }
+        }
+
+        @Override
+        protected boolean readField(JsonReader in, String name,
+            GetRevisionsResponse.Builder builder) throws IOException {
+          if ("revisions".equals(name)) {
+            in.beginArray();
+            while (in.hasNext()) {
+              builder.addRevisions(readBytes(in));
+            }
+            in.endArray();
+          } else if ("key".equals(name)) {
+            builder.setKey(readBytes(in));
+          } else if ("partial".equals(name)) {
+            builder.setPartial(in.nextBoolean());
+          } else {
+            return false;
+          }
+          return true;
+        }
+      };
+
+  static final TypeAdapter<PutRequest> PUT_REQUEST =
+      new MessageAdapter<PutRequest, PutRequest.Builder>() {
+        @Override
+        protected PutRequest.Builder newBuilder() {
+          return PutRequest.newBuilder();
+        }
+
+        @Override
+        protected void writeFields(JsonWriter out, PutRequest value) throws IOException {
+          if (value.hasAuth()) {
+            AUTHENTICATE_REQUEST.write(out.name("auth"), value.getAuth());
+          }
+          if (value.hasKey()) {
+            writeBytes(out, "key", value.getKey());
+          }
+          if (value.hasRevision()) {
+            writeBytes(out, "revision", value.getRevision());
+          }
+          if (value.hasValue()) {
+            writeBytes(out, "value", value.getValue());
+          }
+        }
+
+        @Override
+        protected boolean readField(JsonReader in, String name, PutRequest.Builder builder)
+            throws IOException {
+          if ("auth".equals(name)) {
+            builder.setAuth(AUTHENTICATE_REQUEST.read(in));
+          } else if ("key".equals(name)) {
+            builder.setKey(readBytes(in));
+          } else if ("revision".equals(name)) {
+            builder.setRevision(readBytes(in));
+          } else if ("value".equals(name)) {
+            builder.setValue(readBytes(in));
+          } else {
+            return false;
+          }
+          return true;
+        }
+      };
+
+  static final TypeAdapter<DeleteRequest> DELETE_REQUEST =
+      new MessageAdapter<DeleteRequest, DeleteRequest.Builder>() {
+        @Override
+        protected DeleteRequest.Builder newBuilder() {
+          return DeleteRequest.newBuilder();
+        }
+
+        @Override
+        protected void writeFields(JsonWriter out, DeleteRequest value) throws IOException {
+          if (value.hasAuth()) {
+            AUTHENTICATE_REQUEST.write(out.name("auth"), value.getAuth());
+          }
+          if (value.hasKey()) {
+            writeBytes(out, "key", value.getKey());
+          }
+          if (value.hasRevision()) {
+            writeBytes(out, "revision", value.getRevision());
+          }
+        }
+
+        @Override
+        protected boolean readField(JsonReader in, String name, DeleteRequest.Builder builder)
+            throws IOException {
+          if ("auth".equals(name)) {
+            builder.setAuth(AUTHENTICATE_REQUEST.read(in));
+          } else if ("key".equals(name)) {
+            builder.setKey(readBytes(in));
+          } else if ("revision".equals(name)) {
+            builder.setRevision(readBytes(in));
+          } else {
+            return false;
+          }
+          return true;
+        }
+      };
+
+  static final TypeAdapter<SessionRequest> SESSION_REQUEST =
+      new MessageAdapter<SessionRequest, SessionRequest.Builder>() {
+        @Override
+        protected SessionRequest.Builder newBuilder() {
+          return SessionRequest.newBuilder();
+        }
+
+        @Override
+        protected void writeFields(JsonWriter out, SessionRequest value) throws IOException {
+          if (value.hasAuth()) {
+            AUTHENTICATE_REQUEST.write(out.name("auth"), value.getAuth());
+          }
+          if (value.hasDhPublic()) {
+            writeBytes(out, "dh_public", value.getDhPublic());
+          }
+        }
+
+        @Override
+        protected boolean readField(JsonReader in, String name, SessionRequest.Builder builder)
+            throws IOException {
+          if ("auth".equals(name)) {
+            builder.setAuth(AUTHENTICATE_REQUEST.read(in));
+          } else if ("dh_public".equals(name)) {
+            builder.setDhPublic(readBytes(in));
+          } else {
+            return false;
+          }
+          return true;
+        }
+      };
+
+  static final TypeAdapter<SessionResponse> SESSION_RESPONSE =
+      new MessageAdapter<SessionResponse, SessionResponse.Builder>() {
+        @Override
+        protected SessionResponse.Builder newBuilder() {
+          return SessionResponse.newBuilder();
+        }
+
+        @Override
+        protected void writeFields(JsonWriter out, SessionResponse value) throws IOException {
+          if (value.hasTicket()) {
+            writeBytes(out, "ticket", value.getTicket());
+          }
+          if (value.hasDhPublic()) {
+            writeBytes(out, "dh_public", value.getDhPublic());
+          }
+          if (value.hasLifetime()) {
+            out.name("lifetime").value(value.getLifetime());
+          }
+          if (value.hasCounters()) {
+            out.name("counters").value(value.getCounters());
+          }
+        }
+
+        @Override
+        protected boolean readField(JsonReader in, String name, SessionResponse.Builder builder)
+            throws IOException {
+          if ("ticket".equals(name)) {
+            builder.setTicket(readBytes(in));
+          } else if ("dh_public".equals(name)) {
+            builder.setDhPublic(readBytes(in));
+          } else if ("lifetime".equals(name)) {
+            builder.setLifetime(in.nextInt());
+          } else if ("counters".equals(name)) {
+            builder.setCounters(in.nextBoolean());
+          } else {
+            return false;
+          }
+          return true;
+        }
+      };
+
+  static final TypeAdapter<KeyRevisionValue> KEY_REVISION_VALUE =
+      new MessageAdapter<KeyRevisionValue, KeyRevisionValue.Builder>() {
+        @Override
+        protected KeyRevisionValue.Builder newBuilder() {
+          return KeyRevisionValue.newBuilder();
+        }
+
+        @Override
+        protected void writeFields(JsonWriter out, KeyRevisionValue value) throws IOException {
+          if (value.hasKey()) {
+            writeBytes(out, "key", value.getKey());
+          }
+          if (value.hasRevision()) {
+            writeBytes(out, "revision", value.getRevision());
+          }
+          if (value.hasValue()) {
+            writeBytes(out, "value", value.getValue());
+          }
+        }
+
+        @Override
+        protected boolean readField(JsonReader in, String name, KeyRevisionValue.Builder builder)
+            throws IOException {
+          if ("key".equals(name)) {
+            builder.setKey(readBytes(in));
+          } else if ("revision".equals(name)) {
+            builder.setRevision(readBytes(in));
+          } else if ("value".equals(name)) {
+            builder.setValue(readBytes(in));
+          } else {
+            return false;
+          }
+          return true;
+        }
+      };
+
+  private static void writeKeys(JsonWriter out, List<ByteString> keys) throws IOException {
+    if (keys.size() > 0) {
+      out.name("keys").beginArray();
+      for (ByteString key : keys) {
+        writeBytes(out, key);
+      }
+      out.endArray();
+    }
+  }
+
+  static final TypeAdapter<BatchGetRequest> BATCH_GET_REQUEST =
+      new MessageAdapter<BatchGetRequest, BatchGetRequest.Builder>() {
+        @Override
+        protected BatchGetRequest.Builder newBuilder() {
+          return BatchGetRequest.newBuilder();
+        }
+
+        @Override
+        protected void writeFields(JsonWriter out, BatchGetRequest value) throws IOException {
+          if (value.hasAuth()) {
+            AUTHENTICATE_REQUEST.write(out.name("auth"), value.getAuth());
+          }
+          writeKeys(out, value.getKeysList());
+        }
+
+        @Override
+        protected boolean readField(JsonReader in, String name, BatchGetRequest.Builder builder)
+            throws IOException {
+          if ("auth".equals(name)) {
+            builder.setAuth(AUTHENTICATE_REQUEST.read(in));
+          } else if ("keys".equals(name)) {
+            in.beginArray();
+            while (in.hasNext()) {
+              builder.addKeys(readBytes(in));
+            }
+            in.endArray();
+          } else {
+            return false;
+          }
+          return true;
+        }
+      };
+
+  static final TypeAdapter<BatchGetResponse> BATCH_GET_RESPONSE =
+      new MessageAdapter<BatchGetResponse, BatchGetResponse.Builder>() {
+        @Override
+        protected BatchGetResponse.Builder newBuilder() {
+          return BatchGetResponse.newBuilder();
+        }
+
+        @Override
+        protected void writeFields(JsonWriter out, BatchGetResponse value) throws IOException {
+          if (value.getResponsesCount() > 0) {
+            out.name("responses").beginArray();
+            for (GetResponse response : value.getResponsesList()) {
+              GET_RESPONSE.write(out, response);
+            }
+            out.endArray();
+          }
+        }
+
+        @Override
+        protected boolean readField(JsonReader in, String name, BatchGetResponse.Builder builder)
+            throws IOException {
+          if ("responses".equals(name)) {
+            in.beginArray();
+            while (in.hasNext()) {
+              builder.addResponses(GET_RESPONSE.read(in));
+            }
+            in.endArray();
+          } else {
+            return false;
+          }
+          return true;
+        }
+      };
+
+  static final TypeAdapter<BatchPutRequest> BATCH_PUT_REQUEST =
+      new MessageAdapter<BatchPutRequest, BatchPutRequest.Builder>() {
+        @Override
+        protected BatchPutRequest.Builder newBuilder() {
+          return BatchPutRequest.newBuilder();
+        }
+
+        @Override
+        protected void writeFields(JsonWriter out, BatchPutRequest value) throws IOException {
+          if (value.hasAuth()) {
+            AUTHENTICATE_REQUEST.write(out.name("auth"), value.getAuth());
+          }
+          if (value.getRecordsCount() > 0) {
+            out.name("records").beginArray();
+            for (KeyRevisionValue record : value.getRecordsList()) {
+              KEY_REVISION_VALUE.write(out, record);
+            }
+            out.endArray();
+          }
+        }
+
+        @Override
+        protected boolean readField(JsonReader in, String name, BatchPutRequest.Builder builder)
+            throws IOException {
+          if ("auth".equals(name)) {
+            builder.setAuth(AUTHENTICATE_REQUEST.read(in));
+          } else if ("records".equals(name)) {
+            in.beginArray();
+            while (in.hasNext()) {
+              builder.addRecords(KEY_REVISION_VALUE.read(in));
+            }
+            in.endArray();
+          } else {
+            return false;
+          }
+          return true;
+        }
+      };
+
+  static final TypeAdapter<BatchDeleteRequest> BATCH_DELETE_REQUEST =
+      new MessageAdapter<BatchDeleteRequest, BatchDeleteRequest.Builder>() {
+        @Override
+        protected BatchDeleteRequest.Builder newBuilder() {
+          return BatchDeleteRequest.newBuilder();
+        }
+
+        @Override
+        protected void writeFields(JsonWriter out, BatchDeleteRequest value) throws IOException {
+          if (value.hasAuth()) {
+            AUTHENTICATE_REQUEST.write(out.name("auth"), value.getAuth());
+          }
+          writeKeys(out, value.getKeysList());
+        }
+
+        @Override
+        protected boolean readField(JsonReader in, String name, BatchDeleteRequest.Builder builder)
+            throws IOException {
+          if ("auth".equals(name)) {
+            builder.setAuth(AUTHENTICATE_REQUEST.read(in));
+          } else if ("keys".equals(name)) {
+            in.beginArray();
+            while (in.hasNext()) {
+              builder.addKeys(readBytes(in));
+            }
+            in.endArray();
+          } else {
+            return false;
+          }
+          return true;
+        }
+      };
+
+  static final TypeAdapter<Change> CHANGE =
+      new MessageAdapter<Change, Change.Builder>() {
+        @Override
+        protected Change.Builder newBuilder() {
+          return Change.newBuilder();
+        }
+
+        @Override
+        protected void writeFields(JsonWriter out, Change value) throws IOException {
+          if (value.hasSequence()) {
+            out.name("sequence").value(value.getSequence());
+          }
+          if (value.hasKey()) {
+            writeBytes(out, "key", value.getKey());
+          }
+          if (value.hasRevision()) {
+            writeBytes(out, "revision", value.getRevision());
+          }
+        }
+
+        @Override
+        protected boolean readField(JsonReader in, String name, Change.Builder builder)
+            throws IOException {
+          if ("sequence".equals(name)) {
+            builder.setSequence(in.nextLong());
+          } else if ("key".equals(name)) {
+            builder.setKey(readBytes(in));
+          } else if ("revision".equals(name)) {
+            builder.setRevision(readBytes(in));
+          } else {
+            return false;
+          }
+          return true;
+        }
+      };
+
+  static final TypeAdapter<GetChangesRequest> GET_CHANGES_REQUEST =
+      new MessageAdapter<GetChangesRequest, GetChangesRequest.Builder>() {
+        @Override
+        protected GetChangesRequest.Builder newBuilder() {
+          return GetChangesRequest.newBuilder();
+        }
+
+        @Override
+        protected void writeFields(JsonWriter out, GetChangesRequest value) throws IOException {
+          if (value.hasAuth()) {
+            AUTHENTICATE_REQUEST.write(out.name("auth"), value.getAuth());
+          }
+          if (value.hasSinceSequence()) {
+            out.name("since_sequence").value(value.getSinceSequence());
+          }
+          if (value.hasLimit()) {
+            out.name("limit").value(value.getLimit());
+          }
+        }
+
+        @Override
+        protected boolean readField(JsonReader in, String name, GetChangesRequest.Builder builder)
+            throws IOException {
+          if ("auth".equals(name)) {
+            builder.setAuth(AUTHENTICATE_REQUEST.read(in));
+          } else if ("since_sequence".equals(name)) {
+            builder.setSinceSequence(in.nextLong());
+          } else if ("limit".equals(name)) {
+            builder.setLimit(in.nextInt());
+          } else {
+            return false;
+          }
+          return true;
+        }
+      };
+
+  static final TypeAdapter<GetChangesResponse> GET_CHANGES_RESPONSE =
+      new MessageAdapter<GetChangesResponse, GetChangesResponse.Builder>() {
+        @Override
+        protected GetChangesResponse.Builder newBuilder() {
+          return GetChangesResponse.newBuilder();
+        }
+
+        @Override
+        protected void writeFields(JsonWriter out, GetChangesResponse value) throws IOException {
+          if (value.getChangesCount() > 0) {
+            out.name("changes").beginArray();
+            for (Change change : value.getChangesList()) {
+              CHANGE.write(out, change);
+            }
+            out.endArray();
+          }
+          if (value.hasSequence()) {
+            out.name("sequence").value(value.getSequence());
+          }
+          if (value.hasMore()) {
+            out.name("more").value(value.getMore());
+          }
+        }
+
+        @Override
+        protected boolean readField(JsonReader in, String name, GetChangesResponse.Builder builder)
+            throws IOException {
+          if ("changes".equals(name)) {
+            in.beginArray();
+            while (in.hasNext()) {
+              builder.addChanges(CHANGE.read(in));
+            }
+            in.endArray();
+          } else if ("sequence".equals(name)) {
+            builder.setSequence(in.nextLong());
+          } else if ("more".equals(name)) {
+            builder.setMore(in.nextBoolean());
+          } else {
+            return false;
+          }
+          return true;
+        }
+      };
+
+  static final TypeAdapter<DigestNode> DIGEST_NODE =
+      new MessageAdapter<DigestNode, DigestNode.Builder>() {
+        @Override
+        protected DigestNode.Builder newBuilder() {
+          return DigestNode.newBuilder();
+        }
+
+        @Override
+        protected void writeFields(JsonWriter out, DigestNode value) throws IOException {
+          if (value.hasPath()) {
+            writeBytes(out, "path", value.getPath());
+          }
+          if (value.hasHash()) {
+            writeBytes(out, "hash", value.getHash());
+          }
+          if (value.hasCount()) {
+            out.name("count").value(value.getCount());
+          }
+        }
+
+        @Override
+        protected boolean readField(JsonReader in, String name, DigestNode.Builder builder)
+            throws IOException {
+          if ("path".equals(name)) {
+            builder.setPath(readBytes(in));
+          } else if ("hash".equals(name)) {
+            builder.setHash(readBytes(in));
+          } else if ("count".equals(name)) {
+            builder.setCount(in.nextInt());
+          } else {
+            return false;
+          }
+          return true;
+        }
+      };
+
+  static final TypeAdapter<KeyRevision> KEY_REVISION =
+      new MessageAdapter<KeyRevision, KeyRevision.Builder>() {
+        @Override
+        protected KeyRevision.Builder newBuilder() {
+          return KeyRevision.newBuilder();
+        }
+
+        @Override
+        protected void writeFields(JsonWriter out, KeyRevision value) throws IOException {
+          if (value.hasKey()) {
+            writeBytes(out, "key", value.getKey());
+          }
+          if (value.hasRevision()) {
+            writeBytes(out, "revision", value.getRevision());
+          }
+        }
+
+        @Override
+        protected boolean readField(JsonReader in, String name, KeyRevision.Builder builder)
+            throws IOException {
+          if ("key".equals(name)) {
+            builder.setKey(readBytes(in));
+          } else if ("revision".equals(name)) {
+            builder.setRevision(readBytes(in));
+          } else {
+            return false;
+          }
+          return true;
+        }
+      };
+
+  static final TypeAdapter<GetDigestRequest> GET_DIGEST_REQUEST =
+      new MessageAdapter<GetDigestRequest, GetDigestRequest.Builder>() {
+        @Override
+        protected GetDigestRequest.Builder newBuilder() {
+          return GetDigestRequest.newBuilder();
+        }
+
+        @Override
+        protected void writeFields(JsonWriter out, GetDigestRequest value) throws IOException {
+          if (value.hasAuth()) {
+            AUTHENTICATE_REQUEST.write(out.name("auth"), value.getAuth());
+          }
+          if (value.hasPath()) {
+            writeBytes(out, "path", value.getPath());
+          }
+          if (value.hasDepth()) {
+            out.name("depth").value(value.getDepth());
+          }
+          if (value.hasRecordLimit()) {
+            out.name("record_limit").value(value.getRecordLimit());
+          }
+        }
+
+        @Override
+        protected boolean readField(JsonReader in, String name, GetDigestRequest.Builder builder)
+            throws IOException {
+          if ("auth".equals(name)) {
+            builder.setAuth(AUTHENTICATE_REQUEST.read(in));
+          } else if ("path".equals(name)) {
+            builder.setPath(readBytes(in));
+          } else if ("depth".equals(name)) {
+            builder.setDepth(in.nextInt());
+          } else if ("record_limit".equals(name)) {
+            builder.setRecordLimit(in.nextInt());
+          } else {
+            return false;
+          }
+          return true;
+        }
+      };
+
+  static final TypeAdapter<GetDigestResponse> GET_DIGEST_RESPONSE =
+      new MessageAdapter<GetDigestResponse, GetDigestResponse.Builder>() {
+        @Override
+        protected GetDigestResponse.Builder newBuilder() {
+          return GetDigestResponse.newBuilder();
+        }
+
+        @Override
+        protected void writeFields(JsonWriter out, GetDigestResponse value) throws IOException {
+          if (value.getNodesCount() > 0) {
+            out.name("nodes").beginArray();
+            for (DigestNode node : value.getNodesList()) {
+              DIGEST_NODE.write(out, node);
+            }
+            out.endArray();
+          }
+          if (value.getRecordsCount() > 0) {
+            out.name("records").beginArray();
+            for (KeyRevision record : value.getRecordsList()) {
+              KEY_REVISION.write(out, record);
+            }
+            out.endArray();
+          }
+        }
+
+        @Override
+        protected boolean readField(JsonReader in, String name, GetDigestResponse.Builder builder)
+            throws IOException {
+          if ("nodes".equals(name)) {
+            in.beginArray();
+            while (in.hasNext()) {
+              builder.addNodes(DIGEST_NODE.read(in));
+            }
+            in.endArray();
+          } else if ("records".equals(name)) {
+            in.beginArray();
+            while (in.hasNext()) {
+              builder.addRecords(KEY_REVISION.read(in));
+            }
+            in.endArray();
+          } else {
+            return false;
+          }
+          return true;
+        }
+      };
+}
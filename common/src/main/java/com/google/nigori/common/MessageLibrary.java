@@ -15,7 +15,14 @@
  */
 package com.google.nigori.common;
 
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.StringReader;
 import java.io.UnsupportedEncodingException;
+import java.io.Writer;
 import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
 import java.util.Collection;
@@ -24,18 +31,36 @@ import java.util.List;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import com.google.gson.JsonParseException;
-import com.google.gson.JsonSyntaxException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import com.google.gson.stream.MalformedJsonException;
 import com.google.nigori.common.NigoriMessages.AuthenticateRequest;
+import com.google.nigori.common.NigoriMessages.BatchDeleteRequest;
+import com.google.nigori.common.NigoriMessages.BatchGetRequest;
+import com.google.nigori.common.NigoriMessages.BatchGetResponse;
+import com.google.nigori.common.NigoriMessages.BatchPutRequest;
+import com.google.nigori.common.NigoriMessages.Change;
 import com.google.nigori.common.NigoriMessages.DeleteRequest;
+import com.google.nigori.common.NigoriMessages.DigestNode;
+import com.google.nigori.common.NigoriMessages.GetChangesRequest;
+import com.google.nigori.common.NigoriMessages.GetChangesResponse;
+import com.google.nigori.common.NigoriMessages.GetDigestRequest;
+import com.google.nigori.common.NigoriMessages.GetDigestResponse;
 import com.google.nigori.common.NigoriMessages.GetIndicesRequest;
 import com.google.nigori.common.NigoriMessages.GetIndicesResponse;
 import com.google.nigori.common.NigoriMessages.GetRequest;
 import com.google.nigori.common.NigoriMessages.GetResponse;
 import com.google.nigori.common.NigoriMessages.GetRevisionsRequest;
 import com.google.nigori.common.NigoriMessages.GetRevisionsResponse;
+import com.google.nigori.common.NigoriMessages.KeyRevision;
+import com.google.nigori.common.NigoriMessages.KeyRevisionValue;
 import com.google.nigori.common.NigoriMessages.PutRequest;
 import com.google.nigori.common.NigoriMessages.RegisterRequest;
 import com.google.nigori.common.NigoriMessages.RevisionValue;
+import com.google.nigori.common.NigoriMessages.SessionRequest;
+import com.google.nigori.common.NigoriMessages.SessionResponse;
 import com.google.nigori.common.NigoriMessages.UnregisterRequest;
 import com.google.protobuf.ByteString;
 import com.google.protobuf.GeneratedMessage;
@@ -75,26 +100,45 @@ public class MessageLibrary {
 	public static final String REQUEST_AUTHENTICATE = "authenticate";
 	public static final String REQUEST_REGISTER = "register";
 	public static final String REQUEST_UNREGISTER = "unregister";
+	public static final String REQUEST_SESSION = "session";
+	public static final String REQUEST_BATCH_GET = "batch-get";
+	public static final String REQUEST_BATCH_PUT = "batch-put";
+	public static final String REQUEST_BATCH_DELETE = "batch-delete";
+	public static final String REQUEST_GET_CHANGES = "get-changes";
+	public static final String REQUEST_GET_DIGEST = "get-digest";
 
 	private static Gson gson = initializeGson();
 
 	private static Gson initializeGson() {
 
 		GsonBuilder gsonBuilder = new GsonBuilder();
-		gsonBuilder.registerTypeAdapter(GetRequest.class, new TypeAdapterProtobuf());
-		gsonBuilder.registerTypeAdapter(GetResponse.class, new TypeAdapterProtobuf());
-		gsonBuilder.registerTypeAdapter(GetIndicesRequest.class, new TypeAdapterProtobuf());
-    gsonBuilder.registerTypeAdapter(GetIndicesResponse.class, new TypeAdapterProtobuf());
-		gsonBuilder.registerTypeAdapter(GetRevisionsRequest.class, new TypeAdapterProtobuf());
-		gsonBuilder.registerTypeAdapter(GetRevisionsResponse.class, new TypeAdapterProtobuf());
-		gsonBuilder.registerTypeAdapter(PutRequest.class, new TypeAdapterProtobuf());
-		gsonBuilder.registerTypeAdapter(DeleteRequest.class, new TypeAdapterProtobuf());
-		gsonBuilder.registerTypeAdapter(RegisterRequest.class, new TypeAdapterProtobuf());
-		gsonBuilder.registerTypeAdapter(UnregisterRequest.class, new TypeAdapterProtobuf());
-		gsonBuilder.registerTypeAdapter(AuthenticateRequest.class, new TypeAdapterProtobuf());
-		gsonBuilder.registerTypeAdapter(RevisionValue.class, new TypeAdapterProtobuf());
-		gsonBuilder.registerTypeAdapter(ByteString.class, new TypeAdapterByteString());
-		gsonBuilder.setPrettyPrinting();
+		gsonBuilder.registerTypeAdapter(GetRequest.class, JsonCodec.GET_REQUEST);
+		gsonBuilder.registerTypeAdapter(GetResponse.class, JsonCodec.GET_RESPONSE);
+		gsonBuilder.registerTypeAdapter(GetIndicesRequest.class, JsonCodec.GET_INDICES_REQUEST);
+		gsonBuilder.registerTypeAdapter(GetIndicesResponse.class, JsonCodec.GET_INDICES_RESPONSE);
+		gsonBuilder.registerTypeAdapter(GetRevisionsRequest.class, JsonCodec.GET_REVISIONS_REQUEST);
+		gsonBuilder.registerTypeAdapter(GetRevisionsResponse.class, JsonCodec.GET_REVISIONS_RESPONSE);
+		gsonBuilder.registerTypeAdapter(PutRequest.class, JsonCodec.PUT_REQUEST);
+		gsonBuilder.registerTypeAdapter(DeleteRequest.class, JsonCodec.DELETE_REQUEST);
+		gsonBuilder.registerTypeAdapter(RegisterRequest.class, JsonCodec.REGISTER_REQUEST);
+		gsonBuilder.registerTypeAdapter(UnregisterRequest.class, JsonCodec.UNREGISTER_REQUEST);
+		gsonBuilder.registerTypeAdapter(AuthenticateRequest.class, JsonCodec.AUTHENTICATE_REQUEST);
+		gsonBuilder.registerTypeAdapter(RevisionValue.class, JsonCodec.REVISION_VALUE);
+		gsonBuilder.registerTypeAdapter(SessionRequest.class, JsonCodec.SESSION_REQUEST);
+		gsonBuilder.registerTypeAdapter(SessionResponse.class, JsonCodec.SESSION_RESPONSE);
+		gsonBuilder.registerTypeAdapter(KeyRevisionValue.class, JsonCodec.KEY_REVISION_VALUE);
+		gsonBuilder.registerTypeAdapter(BatchGetRequest.class, JsonCodec.BATCH_GET_REQUEST);
+		gsonBuilder.registerTypeAdapter(BatchGetResponse.class, JsonCodec.BATCH_GET_RESPONSE);
+		gsonBuilder.registerTypeAdapter(BatchPutRequest.class, JsonCodec.BATCH_PUT_REQUEST);
+		gsonBuilder.registerTypeAdapter(BatchDeleteRequest.class, JsonCodec.BATCH_DELETE_REQUEST);
+		gsonBuilder.registerTypeAdapter(Change.class, JsonCodec.CHANGE);
+		gsonBuilder.registerTypeAdapter(GetChangesRequest.class, JsonCodec.GET_CHANGES_REQUEST);
+		gsonBuilder.registerTypeAdapter(GetChangesResponse.class, JsonCodec.GET_CHANGES_RESPONSE);
+		gsonBuilder.registerTypeAdapter(DigestNode.class, JsonCodec.DIGEST_NODE);
+		gsonBuilder.registerTypeAdapter(KeyRevision.class, JsonCodec.KEY_REVISION);
+		gsonBuilder.registerTypeAdapter(GetDigestRequest.class, JsonCodec.GET_DIGEST_REQUEST);
+		gsonBuilder.registerTypeAdapter(GetDigestResponse.class, JsonCodec.GET_DIGEST_RESPONSE);
+		gsonBuilder.disableHtmlEscaping();
 		return gsonBuilder.create();
 	}
 
@@ -109,31 +153,117 @@ public class MessageLibrary {
 	  return gson.toJson(src);
 	}
 
+  /**
+   * Write {@code src} as JSON directly to {@code out} without building an intermediate string.
+   */
+  public static void toJson(GeneratedMessage src, Writer out) throws IOException {
+    JsonWriter writer = new JsonWriter(out);
+    writeJson(src, writer);
+    writer.flush();
+  }
+
+  /**
+   * Write {@code src} as UTF-8 encoded JSON directly to {@code out}.
+   */
+  public static void toJson(GeneratedMessage src, OutputStream out) throws IOException {
+    toJson(src, new OutputStreamWriter(out, CHARSET));
+  }
+
+  @SuppressWarnings("unchecked")
+  private static <T extends GeneratedMessage> void writeJson(T src, JsonWriter writer)
+      throws IOException {
+    TypeAdapter<T> adapter = (TypeAdapter<T>) gson.getAdapter(src.getClass());
+    adapter.write(writer, src);
+  }
+
   private static <T extends GeneratedMessage> T fromJson(String json, Class<T> clz)
       throws JsonConversionException {
     try {
-      return gson.fromJson(json, clz);
-    } catch (JsonSyntaxException jse) {
+      return fromJson(new StringReader(json), clz);
+    } catch (IOException e) {
       throw new JsonConversionException("Invalid JSON syntax" + ( DEBUG ? json : ""));
+    }
+  }
+
+  /**
+   * Read a message of type {@code clz} directly from {@code json}.
+   */
+  public static <T extends GeneratedMessage> T fromJson(Reader json, Class<T> clz)
+      throws JsonConversionException, IOException {
+    try {
+      JsonReader reader = new JsonReader(json);
+      reader.setLenient(true);
+      T message = gson.getAdapter(clz).read(reader);
+      if (message == null) {
+        throw new JsonConversionException("Empty JSON message");
+      }
+      if (reader.peek() != JsonToken.END_DOCUMENT) {
+        throw new JsonConversionException("Trailing data after JSON message");
+      }
+      return message;
+    } catch (MalformedJsonException e) {
+      throw new JsonConversionException("Invalid JSON syntax");
+    } catch (EOFException e) {
+      throw new JsonConversionException("Invalid JSON syntax");
+    } catch (IllegalStateException e) {
+      throw new JsonConversionException("Unable to parse JSON fields into correct message format");
+    } catch (NumberFormatException e) {
+      throw new JsonConversionException("Unable to parse JSON fields into correct message format");
     } catch (JsonParseException jse) {
-      throw new JsonConversionException("Unable to parse JSON fields into correct message format" + ( DEBUG ? json : ""));
+      throw new JsonConversionException("Unable to parse JSON fields into correct message format");
     }
   }
 
 	public static GetRequest getRequestAsProtobuf(String serverName, DSASign signer, byte[] index, byte[] revision) throws NigoriCryptographyException {
+	  return getRequestAsProtobuf(serverName, signer, index, revision, null);
+	}
 
-    if (revision != null) {
-      return GetRequest.newBuilder()
-          .setAuth(authenticateRequestAsProtobuf(serverName, signer, REQUEST_GET, index, revision))
-          .setKey(ByteString.copyFrom(index))
-          .setRevision(ByteString.copyFrom(revision)).build();
+  public static GetRequest getRequestAsProtobuf(String serverName, Session session, byte[] index,
+      byte[] revision) throws NigoriCryptographyException {
+    return getRequestAsProtobuf(serverName, session, index, revision, null);
+  }
+
+  /**
+   * @param fingerprint {@link RevisionFingerprint} of the revisions whose values the client already
+   *          has, or null
+   */
+  public static GetRequest getRequestAsProtobuf(String serverName, DSASign signer, byte[] index,
+      byte[] revision, byte[] fingerprint) throws NigoriCryptographyException {
+    return getRequestAsProtobuf(
+        authenticateRequestAsProtobuf(serverName, signer, REQUEST_GET, getPayload(index, revision,
+            fingerprint)), index, revision, fingerprint);
+  }
+
+  public static GetRequest getRequestAsProtobuf(String serverName, Session session, byte[] index,
+      byte[] revision, byte[] fingerprint) throws NigoriCryptographyException {
+    return getRequestAsProtobuf(
+        authenticateRequestAsProtobuf(serverName, session, REQUEST_GET, getPayload(index,
+            revision, fingerprint)), index, revision, fingerprint);
+  }
+
+  public static byte[][] getPayload(byte[] index, byte[] revision, byte[] fingerprint) {
+    if (fingerprint != null) {
+      // always three parts so that the fingerprint can not be mistaken for a revision
+      return new byte[][] {index, revision == null ? new byte[0] : revision, fingerprint};
+    } else if (revision != null) {
+      return new byte[][] {index, revision};
     } else {
-      return GetRequest.newBuilder()
-          .setAuth(authenticateRequestAsProtobuf(serverName, signer, REQUEST_GET, index))
-          .setKey(ByteString.copyFrom(index)).build();
+      return new byte[][] {index};
     }
+  }
 
-	}
+  private static GetRequest getRequestAsProtobuf(AuthenticateRequest auth, byte[] index,
+      byte[] revision, byte[] fingerprint) {
+    GetRequest.Builder builder =
+        GetRequest.newBuilder().setAuth(auth).setKey(ByteString.copyFrom(index));
+    if (revision != null) {
+      builder.setRevision(ByteString.copyFrom(revision));
+    }
+    if (fingerprint != null) {
+      builder.setFingerprint(ByteString.copyFrom(fingerprint));
+    }
+    return builder.build();
+  }
 
 	public static String getRequestAsJson(String serverName, DSASign signer, byte[] index, byte[] revision) throws NigoriCryptographyException {
 		return gson.toJson(getRequestAsProtobuf(serverName, signer, index, revision));
@@ -157,6 +287,30 @@ public class MessageLibrary {
 		return resp;
 	}
 
+  /**
+   * @param partial whether {@code revisions} are only those missing from the request's fingerprint
+   */
+  public static GetResponse getResponseAsProtobuf(Collection<RevValue> revisions, boolean partial) {
+    GetResponse response = getResponseAsProtobuf(revisions);
+    return partial ? response.toBuilder().setPartial(true).build() : response;
+  }
+
+  /**
+   * As {@link #getResponseAsProtobuf(Collection, boolean)} for revisions already built with
+   * {@link #revisionValueAsProtobuf(ByteString, ByteString)}, so that their values are not copied.
+   */
+  public static GetResponse getResponseAsProtobuf(List<RevisionValue> revisions, boolean partial) {
+    GetResponse.Builder response = GetResponse.newBuilder().addAllRevisions(revisions);
+    if (partial) {
+      response.setPartial(true);
+    }
+    return response.build();
+  }
+
+  public static RevisionValue revisionValueAsProtobuf(ByteString revision, ByteString value) {
+    return RevisionValue.newBuilder().setRevision(revision).setValue(value).build();
+  }
+
 	public static String getResponseAsJson(Collection<RevValue> revisions) {
 		return gson.toJson(getResponseAsProtobuf(revisions));
 	}
@@ -169,6 +323,10 @@ public class MessageLibrary {
     return GetIndicesRequest.newBuilder().setAuth(authenticateRequestAsProtobuf(serverName, signer, REQUEST_GET_INDICES)).build();
   }
 
+  public static GetIndicesRequest getIndicesRequestAsProtobuf(String serverName, Session session) throws NigoriCryptographyException {
+    return GetIndicesRequest.newBuilder().setAuth(authenticateRequestAsProtobuf(serverName, session, REQUEST_GET_INDICES)).build();
+  }
+
   public static String getIndicesRequestAsJson(String serverName, DSASign signer) throws NigoriCryptographyException {
     return gson.toJson(getIndicesRequestAsProtobuf(serverName, signer));
   }
@@ -199,6 +357,31 @@ public class MessageLibrary {
         .setKey(ByteString.copyFrom(index)).build();
   }
 
+  public static GetRevisionsRequest getRevisionsRequestAsProtobuf(String serverName, Session session, byte[] index) throws NigoriCryptographyException {
+    return GetRevisionsRequest.newBuilder()
+        .setAuth(authenticateRequestAsProtobuf(serverName, session, REQUEST_GET_REVISIONS,index))
+        .setKey(ByteString.copyFrom(index)).build();
+  }
+
+  /**
+   * @param fingerprint {@link RevisionFingerprint} of the revisions the client already has
+   */
+  public static GetRevisionsRequest getRevisionsRequestAsProtobuf(String serverName,
+      DSASign signer, byte[] index, byte[] fingerprint) throws NigoriCryptographyException {
+    return GetRevisionsRequest.newBuilder()
+        .setAuth(authenticateRequestAsProtobuf(serverName, signer, REQUEST_GET_REVISIONS, index,
+            fingerprint)).setKey(ByteString.copyFrom(index))
+        .setFingerprint(ByteString.copyFrom(fingerprint)).build();
+  }
+
+  public static GetRevisionsRequest getRevisionsRequestAsProtobuf(String serverName,
+      Session session, byte[] index, byte[] fingerprint) throws NigoriCryptographyException {
+    return GetRevisionsRequest.newBuilder()
+        .setAuth(authenticateRequestAsProtobuf(serverName, session, REQUEST_GET_REVISIONS, index,
+            fingerprint)).setKey(ByteString.copyFrom(index))
+        .setFingerprint(ByteString.copyFrom(fingerprint)).build();
+  }
+
   public static String getRevisionsRequestAsJson(String serverName, DSASign signer, byte[] encIndex) throws NigoriCryptographyException {
     return gson.toJson(getRevisionsRequestAsProtobuf(serverName, signer, encIndex));
   }
@@ -215,6 +398,16 @@ public class MessageLibrary {
     return GetRevisionsResponse.newBuilder().addAllRevisions(values).build();
   }
 
+  /**
+   * @param partial whether {@code value} is only the revisions missing from the request's
+   *          fingerprint
+   */
+  public static GetRevisionsResponse getRevisionsResponseAsProtobuf(Collection<byte[]> value,
+      boolean partial) {
+    GetRevisionsResponse response = getRevisionsResponseAsProtobuf(value);
+    return partial ? response.toBuilder().setPartial(true).build() : response;
+  }
+
   public static String getRevisionsResponseAsJson(Collection<byte[]> value){
     return gson.toJson(getRevisionsResponseAsProtobuf(value));
   }
@@ -225,9 +418,21 @@ public class MessageLibrary {
   }
 
   public static PutRequest putRequestAsProtobuf(String serverName, DSASign signer, byte[] index, byte[] revision, byte[] value) throws NigoriCryptographyException {
+    return putRequestAsProtobuf(
+        authenticateRequestAsProtobuf(serverName, signer, REQUEST_PUT, index, revision, value),
+        index, revision, value);
+  }
+
+  public static PutRequest putRequestAsProtobuf(String serverName, Session session, byte[] index, byte[] revision, byte[] value) throws NigoriCryptographyException {
+    return putRequestAsProtobuf(
+        authenticateRequestAsProtobuf(serverName, session, REQUEST_PUT, index, revision, value),
+        index, revision, value);
+  }
+
+  private static PutRequest putRequestAsProtobuf(AuthenticateRequest auth, byte[] index, byte[] revision, byte[] value) {
 
 	  PutRequest.Builder reqBuilder = PutRequest.newBuilder()
-	      .setAuth(authenticateRequestAsProtobuf(serverName, signer, REQUEST_PUT, index, revision, value))
+	      .setAuth(auth)
 	      .setKey(ByteString.copyFrom(index))
 	      .setRevision(ByteString.copyFrom(revision))
 	      .setValue(ByteString.copyFrom(value));
@@ -246,8 +451,16 @@ public class MessageLibrary {
 	}
 
 	public static DeleteRequest deleteRequestAsProtobuf(String serverName, DSASign signer, byte[] index) throws NigoriCryptographyException{
+	  return deleteRequestAsProtobuf(authenticateRequestAsProtobuf(serverName, signer, REQUEST_DELETE, index), index);
+	}
+
+  public static DeleteRequest deleteRequestAsProtobuf(String serverName, Session session, byte[] index) throws NigoriCryptographyException{
+    return deleteRequestAsProtobuf(authenticateRequestAsProtobuf(serverName, session, REQUEST_DELETE, index), index);
+  }
+
+	private static DeleteRequest deleteRequestAsProtobuf(AuthenticateRequest auth, byte[] index) {
 	  DeleteRequest.Builder delBuilder = DeleteRequest.newBuilder()
-	      .setAuth(authenticateRequestAsProtobuf(serverName, signer, REQUEST_DELETE, index))
+	      .setAuth(auth)
 	      .setKey(ByteString.copyFrom(index));
 
 	  DeleteRequest del = delBuilder.build();
@@ -270,12 +483,20 @@ public class MessageLibrary {
 
   protected static AuthenticateRequest authenticateRequestAsProtobuf(String serverName,
       DSASign signer, String command, byte[]... payload) throws NigoriCryptographyException {
+    return authenticateRequestAsProtobuf(serverName, signer, command, SignatureInput.wrap(payload));
+  }
+
+  /**
+   * As {@link #authenticateRequestAsProtobuf(String, DSASign, String, byte[]...)} for a payload
+   * taken straight from the fields of the request
+   */
+  protected static AuthenticateRequest authenticateRequestAsProtobuf(String serverName,
+      DSASign signer, String command, ByteString[] payload) throws NigoriCryptographyException {
 
     try {
       Nonce nonce = new Nonce();
       DSASignature signedNonce =
-          signer.sign(Util.joinBytes(MessageLibrary.toBytes(serverName), nonce.nt(), nonce.nr(),
-              toBytes(command), Util.joinBytes(payload)));
+          signer.sign(SignatureInput.forNonce(serverName, nonce, command, payload));
       byte[] sig = Util.joinBytes(signedNonce.getR(), signedNonce.getS());
 
       AuthenticateRequest req =
@@ -291,6 +512,49 @@ public class MessageLibrary {
     }
 	}
 
+  /**
+   * Authenticate using the session key rather than a DSA signature, the server checks the HMAC over
+   * the same data as the signature would cover, with the counter in place of the nonce if the
+   * session uses counters.
+   */
+  protected static AuthenticateRequest authenticateRequestAsProtobuf(String serverName,
+      Session session, String command, byte[]... payload) throws NigoriCryptographyException {
+    return authenticateRequestAsProtobuf(serverName, session, command, SignatureInput
+        .wrap(payload));
+  }
+
+  /**
+   * As {@link #authenticateRequestAsProtobuf(String, Session, String, byte[]...)} for a payload
+   * taken straight from the fields of the request
+   */
+  protected static AuthenticateRequest authenticateRequestAsProtobuf(String serverName,
+      Session session, String command, ByteString[] payload) throws NigoriCryptographyException {
+
+    AuthenticateRequest.Builder auth = AuthenticateRequest.newBuilder()
+        .setPublicKey(ByteString.copyFrom(session.getPublicHash()))
+        .setServerName(serverName)
+        .setTicket(ByteString.copyFrom(session.getTicket()));
+    byte[] mac;
+    if (session.usesCounters()) {
+      long counter = session.nextCounter();
+      mac = session.mac(SignatureInput.forCounter(serverName, counter, command, payload));
+      auth.setNonce(ByteString.EMPTY).setCounter(counter);
+    } else {
+      Nonce nonce = new Nonce();
+      mac = session.mac(SignatureInput.forNonce(serverName, nonce, command, payload));
+      auth.setNonce(ByteString.copyFrom(nonce.toToken()));
+    }
+    return auth.setSig(ByteString.copyFrom(mac)).build();
+  }
+
+  /**
+   * @return the data covered by the MAC of a request authenticated with a session counter
+   */
+  public static SignatureInput counterMessage(String serverName, long counter, String command,
+      byte[]... payload) {
+    return SignatureInput.forCounter(serverName, counter, command, SignatureInput.wrap(payload));
+  }
+
 	public static String authenticateRequestAsJson(String serverName, DSASign signer) throws NigoriCryptographyException {
 		return gson.toJson(authenticateRequestAsProtobuf(serverName, signer));
 	}
@@ -335,4 +599,274 @@ public class MessageLibrary {
       throws JsonConversionException {
     return fromJson(json, UnregisterRequest.class);
   }
+
+  public static SessionRequest sessionRequestAsProtobuf(String serverName, DSASign signer,
+      byte[] dhPublic) throws NigoriCryptographyException {
+    return SessionRequest.newBuilder()
+        .setAuth(authenticateRequestAsProtobuf(serverName, signer, REQUEST_SESSION, dhPublic))
+        .setDhPublic(ByteString.copyFrom(dhPublic)).build();
+  }
+
+  public static SessionRequest sessionRequestFromJson(String json) throws JsonConversionException {
+    return fromJson(json, SessionRequest.class);
+  }
+
+  public static SessionResponse sessionResponseAsProtobuf(byte[] ticket, byte[] dhPublic,
+      int lifetime, boolean counters) {
+    return SessionResponse.newBuilder()
+        .setTicket(ByteString.copyFrom(ticket))
+        .setDhPublic(ByteString.copyFrom(dhPublic))
+        .setLifetime(lifetime)
+        .setCounters(counters).build();
+  }
+
+  public static SessionResponse sessionResponseFromJson(String json)
+      throws JsonConversionException {
+    return fromJson(json, SessionResponse.class);
+  }
+
+  /**
+   * @return the data covered by the signature of a batch get or delete: every key in order
+   */
+  public static byte[][] batchPayload(List<ByteString> keys) {
+    byte[][] payload = new byte[keys.size()][];
+    for (int i = 0; i < payload.length; ++i) {
+      payload[i] = keys.get(i).toByteArray();
+    }
+    return payload;
+  }
+
+  /**
+   * @return every key, revision and value of a batch put in order, as the request's own
+   *         {@link ByteString}s so that they are hashed by {@link SignatureInput} without copying
+   */
+  public static ByteString[] batchPutPayload(List<KeyRevisionValue> records) {
+    ByteString[] payload = new ByteString[records.size() * 3];
+    int i = 0;
+    for (KeyRevisionValue record : records) {
+      payload[i++] = record.getKey();
+      payload[i++] = record.getRevision();
+      payload[i++] = record.getValue();
+    }
+    return payload;
+  }
+
+  private static List<ByteString> toByteStrings(List<byte[]> bytes) {
+    List<ByteString> answer = new ArrayList<ByteString>(bytes.size());
+    for (byte[] b : bytes) {
+      answer.add(ByteString.copyFrom(b));
+    }
+    return answer;
+  }
+
+  public static BatchGetRequest batchGetRequestAsProtobuf(String serverName, DSASign signer,
+      List<byte[]> keys) throws NigoriCryptographyException {
+    List<ByteString> protoKeys = toByteStrings(keys);
+    return BatchGetRequest.newBuilder()
+        .setAuth(authenticateRequestAsProtobuf(serverName, signer, REQUEST_BATCH_GET,
+            batchPayload(protoKeys)))
+        .addAllKeys(protoKeys).build();
+  }
+
+  public static BatchGetRequest batchGetRequestAsProtobuf(String serverName, Session session,
+      List<byte[]> keys) throws NigoriCryptographyException {
+    List<ByteString> protoKeys = toByteStrings(keys);
+    return BatchGetRequest.newBuilder()
+        .setAuth(authenticateRequestAsProtobuf(serverName, session, REQUEST_BATCH_GET,
+            batchPayload(protoKeys)))
+        .addAllKeys(protoKeys).build();
+  }
+
+  public static BatchGetRequest batchGetRequestFromJson(String json)
+      throws JsonConversionException {
+    return fromJson(json, BatchGetRequest.class);
+  }
+
+  /**
+   * @param keys the requested keys
+   * @param records the records for each key, in the same order, null if there are none
+   */
+  public static BatchGetResponse batchGetResponseAsProtobuf(List<ByteString> keys,
+      List<? extends Collection<RevValue>> records) {
+    BatchGetResponse.Builder builder = BatchGetResponse.newBuilder();
+    for (int i = 0; i < keys.size(); ++i) {
+      Collection<RevValue> revisions = records.get(i);
+      if (revisions == null) {
+        builder.addResponses(GetResponse.newBuilder().setKey(keys.get(i)));
+      } else {
+        builder.addResponses(getResponseAsProtobuf(revisions).toBuilder().setKey(keys.get(i)));
+      }
+    }
+    return builder.build();
+  }
+
+  public static BatchGetResponse batchGetResponseFromJson(String json)
+      throws JsonConversionException {
+    return fromJson(json, BatchGetResponse.class);
+  }
+
+  public static KeyRevisionValue keyRevisionValueAsProtobuf(byte[] key, byte[] revision,
+      byte[] value) {
+    return KeyRevisionValue.newBuilder()
+        .setKey(ByteString.copyFrom(key))
+        .setRevision(ByteString.copyFrom(revision))
+        .setValue(ByteString.copyFrom(value)).build();
+  }
+
+  public static BatchPutRequest batchPutRequestAsProtobuf(String serverName, DSASign signer,
+      List<KeyRevisionValue> records) throws NigoriCryptographyException {
+    return BatchPutRequest.newBuilder()
+        .setAuth(authenticateRequestAsProtobuf(serverName, signer, REQUEST_BATCH_PUT,
+            batchPutPayload(records)))
+        .addAllRecords(records).build();
+  }
+
+  public static BatchPutRequest batchPutRequestAsProtobuf(String serverName, Session session,
+      List<KeyRevisionValue> records) throws NigoriCryptographyException {
+    return BatchPutRequest.newBuilder()
+        .setAuth(authenticateRequestAsProtobuf(serverName, session, REQUEST_BATCH_PUT,
+            batchPutPayload(records)))
+        .addAllRecords(records).build();
+  }
+
+  public static BatchPutRequest batchPutRequestFromJson(String json)
+      throws JsonConversionException {
+    return fromJson(json, BatchPutRequest.class);
+  }
+
+  public static BatchDeleteRequest batchDeleteRequestAsProtobuf(String serverName,
+      DSASign signer, List<byte[]> keys) throws NigoriCryptographyException {
+    List<ByteString> protoKeys = toByteStrings(keys);
+    return BatchDeleteRequest.newBuilder()
+        .setAuth(authenticateRequestAsProtobuf(serverName, signer, REQUEST_BATCH_DELETE,
+            batchPayload(protoKeys)))
+        .addAllKeys(protoKeys).build();
+  }
+
+  public static BatchDeleteRequest batchDeleteRequestAsProtobuf(String serverName,
+      Session session, List<byte[]> keys) throws NigoriCryptographyException {
+    List<ByteString> protoKeys = toByteStrings(keys);
+    return BatchDeleteRequest.newBuilder()
+        .setAuth(authenticateRequestAsProtobuf(serverName, session, REQUEST_BATCH_DELETE,
+            batchPayload(protoKeys)))
+        .addAllKeys(protoKeys).build();
+  }
+
+  public static BatchDeleteRequest batchDeleteRequestFromJson(String json)
+      throws JsonConversionException {
+    return fromJson(json, BatchDeleteRequest.class);
+  }
+
+  /**
+   * @return the data covered by the signature of a get changes request
+   */
+  public static byte[][] getChangesPayload(long sinceSequence, int limit) {
+    return new byte[][] {Util.long2bin(sinceSequence), Util.int2bin(limit)};
+  }
+
+  public static GetChangesRequest getChangesRequestAsProtobuf(String serverName, DSASign signer,
+      long sinceSequence, int limit) throws NigoriCryptographyException {
+    return GetChangesRequest.newBuilder()
+        .setAuth(authenticateRequestAsProtobuf(serverName, signer, REQUEST_GET_CHANGES,
+            getChangesPayload(sinceSequence, limit)))
+        .setSinceSequence(sinceSequence)
+        .setLimit(limit).build();
+  }
+
+  public static GetChangesRequest getChangesRequestAsProtobuf(String serverName, Session session,
+      long sinceSequence, int limit) throws NigoriCryptographyException {
+    return GetChangesRequest.newBuilder()
+        .setAuth(authenticateRequestAsProtobuf(serverName, session, REQUEST_GET_CHANGES,
+            getChangesPayload(sinceSequence, limit)))
+        .setSinceSequence(sinceSequence)
+        .setLimit(limit).build();
+  }
+
+  public static GetChangesRequest getChangesRequestFromJson(String json)
+      throws JsonConversionException {
+    return fromJson(json, GetChangesRequest.class);
+  }
+
+  /**
+   * @param revision null if the key was deleted
+   */
+  public static Change changeAsProtobuf(long sequence, byte[] key, byte[] revision) {
+    Change.Builder builder = Change.newBuilder()
+        .setSequence(sequence)
+        .setKey(ByteString.copyFrom(key));
+    if (revision != null) {
+      builder.setRevision(ByteString.copyFrom(revision));
+    }
+    return builder.build();
+  }
+
+  public static GetChangesResponse getChangesResponseAsProtobuf(List<Change> changes,
+      long sequence, boolean more) {
+    return GetChangesResponse.newBuilder()
+        .addAllChanges(changes)
+        .setSequence(sequence)
+        .setMore(more).build();
+  }
+
+  public static GetChangesResponse getChangesResponseFromJson(String json)
+      throws JsonConversionException {
+    return fromJson(json, GetChangesResponse.class);
+  }
+
+  /**
+   * @return the data covered by the signature of a get digest request
+   */
+  public static byte[][] getDigestPayload(byte[] path, int depth, int recordLimit) {
+    return new byte[][] {path, Util.int2bin(depth), Util.int2bin(recordLimit)};
+  }
+
+  public static GetDigestRequest getDigestRequestAsProtobuf(String serverName, DSASign signer,
+      byte[] path, int depth, int recordLimit) throws NigoriCryptographyException {
+    return GetDigestRequest.newBuilder()
+        .setAuth(authenticateRequestAsProtobuf(serverName, signer, REQUEST_GET_DIGEST,
+            getDigestPayload(path, depth, recordLimit)))
+        .setPath(ByteString.copyFrom(path))
+        .setDepth(depth)
+        .setRecordLimit(recordLimit).build();
+  }
+
+  public static GetDigestRequest getDigestRequestAsProtobuf(String serverName, Session session,
+      byte[] path, int depth, int recordLimit) throws NigoriCryptographyException {
+    return GetDigestRequest.newBuilder()
+        .setAuth(authenticateRequestAsProtobuf(serverName, session, REQUEST_GET_DIGEST,
+            getDigestPayload(path, depth, recordLimit)))
+        .setPath(ByteString.copyFrom(path))
+        .setDepth(depth)
+        .setRecordLimit(recordLimit).build();
+  }
+
+  public static GetDigestRequest getDigestRequestFromJson(String json)
+      throws JsonConversionException {
+    return fromJson(json, GetDigestRequest.class);
+  }
+
+  public static DigestNode digestNodeAsProtobuf(byte[] path, byte[] hash, int count) {
+    return DigestNode.newBuilder()
+        .setPath(ByteString.copyFrom(path))
+        .setHash(ByteString.copyFrom(hash))
+        .setCount(count).build();
+  }
+
+  public static KeyRevision keyRevisionAsProtobuf(byte[] key, byte[] revision) {
+    return KeyRevision.newBuilder()
+        .setKey(ByteString.copyFrom(key))
+        .setRevision(ByteString.copyFrom(revision)).build();
+  }
+
+  public static GetDigestResponse getDigestResponseAsProtobuf(List<DigestNode> nodes,
+      List<KeyRevision> records) {
+    return GetDigestResponse.newBuilder()
+        .addAllNodes(nodes)
+        .addAllRecords(records).build();
+  }
+
+  public static GetDigestResponse getDigestResponseFromJson(String json)
+      throws JsonConversionException {
+    return fromJson(json, GetDigestResponse.class);
+  }
 }
@@ -3,133 +3,368 @@
 
 package com.google.nigori.common;
 
-@SuppressWarnings(value = {"all"})//generated code
 public final class NigoriMessages {
   private NigoriMessages() {}
   public static void registerAllExtensions(
       com.google.protobuf.ExtensionRegistry registry) {
   }
-  public interface AuthenticateRequestOrBuilder
-      extends com.google.protobuf.MessageOrBuilder {
-    
-    // required bytes public_key = 1;
+  public interface AuthenticateRequestOrBuilder extends
+      // @@protoc_insertion_point(interface_extends:nigori.AuthenticateRequest)
+      com.google.protobuf.MessageOrBuilder {
+
+    /**
+     * <code>required bytes public_key = 1;</code>
+     */
     boolean hasPublicKey();
+    /**
+     * <code>required bytes public_key = 1;</code>
+     */
     com.google.protobuf.ByteString getPublicKey();
-    
-    // required bytes sig = 2;
+
+    /**
+     * <code>required bytes sig = 2;</code>
+     */
     boolean hasSig();
+    /**
+     * <code>required bytes sig = 2;</code>
+     */
     com.google.protobuf.ByteString getSig();
-    
-    // required bytes nonce = 3;
+
+    /**
+     * <code>required bytes nonce = 3;</code>
+     */
     boolean hasNonce();
+    /**
+     * <code>required bytes nonce = 3;</code>
+     */
     com.google.protobuf.ByteString getNonce();
-    
-    // required string server_name = 4;
+
+    /**
+     * <code>required string server_name = 4;</code>
+     */
     boolean hasServerName();
-    String getServerName();
+    /**
+     * <code>required string server_name = 4;</code>
+     */
+    java.lang.String getServerName();
+    /**
+     * <code>required string server_name = 4;</code>
+     */
+    com.google.protobuf.ByteString
+        getServerNameBytes();
+
+    /**
+     * <code>optional bytes ticket = 5;</code>
+     *
+     * <pre>
+     * If present sig is an HMAC under the session key sealed in this ticket rather than a DSA
+     * signature, see SessionRequest.
+     * </pre>
+     */
+    boolean hasTicket();
+    /**
+     * <code>optional bytes ticket = 5;</code>
+     *
+     * <pre>
+     * If present sig is an HMAC under the session key sealed in this ticket rather than a DSA
+     * signature, see SessionRequest.
+     * </pre>
+     */
+    com.google.protobuf.ByteString getTicket();
+
+    /**
+     * <code>optional uint64 counter = 6;</code>
+     *
+     * <pre>
+     * If present replay protection uses this per session counter rather than the nonce, which should
+     * then be empty. Only valid with a ticket from a server which set SessionResponse.counters.
+     * </pre>
+     */
+    boolean hasCounter();
+    /**
+     * <code>optional uint64 counter = 6;</code>
+     *
+     * <pre>
+     * If present replay protection uses this per session counter rather than the nonce, which should
+     * then be empty. Only valid with a ticket from a server which set SessionResponse.counters.
+     * </pre>
+     */
+    long getCounter();
   }
+  /**
+   * Protobuf type {@code nigori.AuthenticateRequest}
+   */
   public static final class AuthenticateRequest extends
-      com.google.protobuf.GeneratedMessage
-      implements AuthenticateRequestOrBuilder {
+      com.google.protobuf.GeneratedMessage implements
+      // @@protoc_insertion_point(message_implements:nigori.AuthenticateRequest)
+      AuthenticateRequestOrBuilder {
     // Use AuthenticateRequest.newBuilder() to construct.
-    private AuthenticateRequest(Builder builder) {
+    private AuthenticateRequest(com.google.protobuf.GeneratedMessage.Builder<?> builder) {
       super(builder);
+      this.unknownFields = builder.getUnknownFields();
     }
-    private AuthenticateRequest(boolean noInit) {}
-    
+    private AuthenticateRequest(boolean noInit) { this.unknownFields = com.google.protobuf.UnknownFieldSet.getDefaultInstance(); }
+
     private static final AuthenticateRequest defaultInstance;
     public static AuthenticateRequest getDefaultInstance() {
       return defaultInstance;
     }
-    
+
     public AuthenticateRequest getDefaultInstanceForType() {
       return defaultInstance;
     }
-    
+
+    private final com.google.protobuf.UnknownFieldSet unknownFields;
+    @java.lang.Override
+    public final com.google.protobuf.UnknownFieldSet
+        getUnknownFields() {
+      return this.unknownFields;
+    }
+    private AuthenticateRequest(
+        com.google.protobuf.CodedInputStream input,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws com.google.protobuf.InvalidProtocolBufferException {
+      initFields();
+      int mutable_bitField0_ = 0;
+      com.google.protobuf.UnknownFieldSet.Builder unknownFields =
+          com.google.protobuf.UnknownFieldSet.newBuilder();
+      try {
+        boolean done = false;
+        while (!done) {
+          int tag = input.readTag();
+          switch (tag) {
+            case 0:
+              done = true;
+              break;
+            default: {
+              if (!parseUnknownField(input, unknownFields,
+                                     extensionRegistry, tag)) {
+                done = true;
+              }
+              break;
+            }
+            case 10: {
+              bitField0_ |= 0x00000001;
+              publicKey_ = input.readBytes();
+              break;
+            }
+            case 18: {
+              bitField0_ |= 0x00000002;
+              sig_ = input.readBytes();
+              break;
+            }
+            case 26: {
+              bitField0_ |= 0x00000004;
+              nonce_ = input.readBytes();
+              break;
+            }
+            case 34: {
+              com.google.protobuf.ByteString bs = input.readBytes();
+              bitField0_ |= 0x00000008;
+              serverName_ = bs;
+              break;
+            }
+            case 42: {
+              bitField0_ |= 0x00000010;
+              ticket_ = input.readBytes();
+              break;
+            }
+            case 48: {
+              bitField0_ |= 0x00000020;
+              counter_ = input.readUInt64();
+              break;
+            }
+          }
+        }
+      } catch (com.google.protobuf.InvalidProtocolBufferException e) {
+        throw e.setUnfinishedMessage(this);
+      } catch (java.io.IOException e) {
+        throw new com.google.protobuf.InvalidProtocolBufferException(
+            e.getMessage()).setUnfinishedMessage(this);
+      } finally {
+        this.unknownFields = unknownFields.build();
+        makeExtensionsImmutable();
+      }
+    }
     public static final com.google.protobuf.Descriptors.Descriptor
         getDescriptor() {
       return com.google.nigori.common.NigoriMessages.internal_static_nigori_AuthenticateRequest_descriptor;
     }
-    
+
     protected com.google.protobuf.GeneratedMessage.FieldAccessorTable
         internalGetFieldAccessorTable() {
-      return com.google.nigori.common.NigoriMessages.internal_static_nigori_AuthenticateRequest_fieldAccessorTable;
+      return com.google.nigori.common.NigoriMessages.internal_static_nigori_AuthenticateRequest_fieldAccessorTable
+          .ensureFieldAccessorsInitialized(
+              com.google.nigori.common.NigoriMessages.AuthenticateRequest.class, com.google.nigori.common.NigoriMessages.AuthenticateRequest.Builder.class);
+    }
+
+    public static com.google.protobuf.Parser<AuthenticateRequest> PARSER =
+        new com.google.protobuf.AbstractParser<AuthenticateRequest>() {
+      public AuthenticateRequest parsePartialFrom(
+          com.google.protobuf.CodedInputStream input,
+          com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+          throws com.google.protobuf.InvalidProtocolBufferException {
+        return new AuthenticateRequest(input, extensionRegistry);
+      }
+    };
+
+    @java.lang.Override
+    public com.google.protobuf.Parser<AuthenticateRequest> getParserForType() {
+      return PARSER;
     }
-    
+
     private int bitField0_;
-    // required bytes public_key = 1;
     public static final int PUBLIC_KEY_FIELD_NUMBER = 1;
     private com.google.protobuf.ByteString publicKey_;
+    /**
+     * <code>required bytes public_key = 1;</code>
+     */
     public boolean hasPublicKey() {
       return ((bitField0_ & 0x00000001) == 0x00000001);
     }
+    /**
+     * <code>required bytes public_key = 1;</code>
+     */
     public com.google.protobuf.ByteString getPublicKey() {
       return publicKey_;
     }
-    
-    // required bytes sig = 2;
+
     public static final int SIG_FIELD_NUMBER = 2;
     private com.google.protobuf.ByteString sig_;
+    /**
+     * <code>required bytes sig = 2;</code>
+     */
     public boolean hasSig() {
       return ((bitField0_ & 0x00000002) == 0x00000002);
     }
+    /**
+     * <code>required bytes sig = 2;</code>
+     */
     public com.google.protobuf.ByteString getSig() {
       return sig_;
     }
-    
-    // required bytes nonce = 3;
+
     public static final int NONCE_FIELD_NUMBER = 3;
     private com.google.protobuf.ByteString nonce_;
+    /**
+     * <code>required bytes nonce = 3;</code>
+     */
     public boolean hasNonce() {
       return ((bitField0_ & 0x00000004) == 0x00000004);
     }
+    /**
+     * <code>required bytes nonce = 3;</code>
+     */
     public com.google.protobuf.ByteString getNonce() {
       return nonce_;
     }
-    
-    // required string server_name = 4;
+
     public static final int SERVER_NAME_FIELD_NUMBER = 4;
-    private Object serverName_;
+    private java.lang.Object serverName_;
+    /**
+     * <code>required string server_name = 4;</code>
+     */
     public boolean hasServerName() {
       return ((bitField0_ & 0x00000008) == 0x00000008);
     }
-    public String getServerName() {
-      Object ref = serverName_;
-      if (ref instanceof String) {
-        return (String) ref;
+    /**
+     * <code>required string server_name = 4;</code>
+     */
+    public java.lang.String getServerName() {
+      java.lang.Object ref = serverName_;
+      if (ref instanceof java.lang.String) {
+        return (java.lang.String) ref;
       } else {
         com.google.protobuf.ByteString bs = 
             (com.google.protobuf.ByteString) ref;
-        String s = bs.toStringUtf8();
-        if (com.google.protobuf.Internal.isValidUtf8(bs)) {
+        java.lang.String s = bs.toStringUtf8();
+        if (bs.isValidUtf8()) {
           serverName_ = s;
         }
         return s;
       }
     }
-    private com.google.protobuf.ByteString getServerNameBytes() {
-      Object ref = serverName_;
-      if (ref instanceof String) {
+    /**
+     * <code>required string server_name = 4;</code>
+     */
+    public com.google.protobuf.ByteString
+        getServerNameBytes() {
+      java.lang.Object ref = serverName_;
+      if (ref instanceof java.lang.String) {
         com.google.protobuf.ByteString b = 
-            com.google.protobuf.ByteString.copyFromUtf8((String) ref);
+            com.google.protobuf.ByteString.copyFromUtf8(
+                (java.lang.String) ref);
         serverName_ = b;
         return b;
       } else {
         return (com.google.protobuf.ByteString) ref;
       }
     }
-    
+
+    public static final int TICKET_FIELD_NUMBER = 5;
+    private com.google.protobuf.ByteString ticket_;
+    /**
+     * <code>optional bytes ticket = 5;</code>
+     *
+     * <pre>
+     * If present sig is an HMAC under the session key sealed in this ticket rather than a DSA
+     * signature, see SessionRequest.
+     * </pre>
+     */
+    public boolean hasTicket() {
+      return ((bitField0_ & 0x00000010) == 0x00000010);
+    }
+    /**
+     * <code>optional bytes ticket = 5;</code>
+     *
+     * <pre>
+     * If present sig is an HMAC under the session key sealed in this ticket rather than a DSA
+     * signature, see SessionRequest.
+     * </pre>
+     */
+    public com.google.protobuf.ByteString getTicket() {
+      return ticket_;
+    }
+
+    public static final int COUNTER_FIELD_NUMBER = 6;
+    private long counter_;
+    /**
+     * <code>optional uint64 counter = 6;</code>
+     *
+     * <pre>
+     * If present replay protection uses this per session counter rather than the nonce, which should
+     * then be empty. Only valid with a ticket from a server which set SessionResponse.counters.
+     * </pre>
+     */
+    public boolean hasCounter() {
+      return ((bitField0_ & 0x00000020) == 0x00000020);
+    }
+    /**
+     * <code>optional uint64 counter = 6;</code>
+     *
+     * <pre>
+     * If present replay protection uses this per session counter rather than the nonce, which should
+     * then be empty. Only valid with a ticket from a server which set SessionResponse.counters.
+     * </pre>
+     */
+    public long getCounter() {
+      return counter_;
+    }
+
     private void initFields() {
       publicKey_ = com.google.protobuf.ByteString.EMPTY;
       sig_ = com.google.protobuf.ByteString.EMPTY;
       nonce_ = com.google.protobuf.ByteString.EMPTY;
       serverName_ = "";
+      ticket_ = com.google.protobuf.ByteString.EMPTY;
+      counter_ = 0L;
     }
     private byte memoizedIsInitialized = -1;
     public final boolean isInitialized() {
       byte isInitialized = memoizedIsInitialized;
-      if (isInitialized != -1) return isInitialized == 1;
-      
+      if (isInitialized == 1) return true;
+      if (isInitialized == 0) return false;
+
       if (!hasPublicKey()) {
         memoizedIsInitialized = 0;
         return false;
@@ -149,7 +384,7 @@ public final class NigoriMessages {
       memoizedIsInitialized = 1;
       return true;
     }
-    
+
     public void writeTo(com.google.protobuf.CodedOutputStream output)
                         throws java.io.IOException {
       getSerializedSize();
@@ -165,14 +400,20 @@ public final class NigoriMessages {
       if (((bitField0_ & 0x00000008) == 0x00000008)) {
         output.writeBytes(4, getServerNameBytes());
       }
+      if (((bitField0_ & 0x00000010) == 0x00000010)) {
+        output.writeBytes(5, ticket_);
+      }
+      if (((bitField0_ & 0x00000020) == 0x00000020)) {
+        output.writeUInt64(6, counter_);
+      }
       getUnknownFields().writeTo(output);
     }
-    
+
     private int memoizedSerializedSize = -1;
     public int getSerializedSize() {
       int size = memoizedSerializedSize;
       if (size != -1) return size;
-    
+
       size = 0;
       if (((bitField0_ & 0x00000001) == 0x00000001)) {
         size += com.google.protobuf.CodedOutputStream
@@ -190,115 +431,118 @@ public final class NigoriMessages {
         size += com.google.protobuf.CodedOutputStream
           .computeBytesSize(4, getServerNameBytes());
       }
+      if (((bitField0_ & 0x00000010) == 0x00000010)) {
+        size += com.google.protobuf.CodedOutputStream
+          .computeBytesSize(5, ticket_);
+      }
+      if (((bitField0_ & 0x00000020) == 0x00000020)) {
+        size += com.google.protobuf.CodedOutputStream
+          .computeUInt64Size(6, counter_);
+      }
       size += getUnknownFields().getSerializedSize();
       memoizedSerializedSize = size;
       return size;
     }
-    
+
+    private static final long serialVersionUID = 0L;
     @java.lang.Override
-    protected Object writeReplace() throws java.io.ObjectStreamException {
+    protected java.lang.Object writeReplace()
+        throws java.io.ObjectStreamException {
       return super.writeReplace();
     }
-    
+
     public static com.google.nigori.common.NigoriMessages.AuthenticateRequest parseFrom(
         com.google.protobuf.ByteString data)
         throws com.google.protobuf.InvalidProtocolBufferException {
-      return newBuilder().mergeFrom(data).buildParsed();
+      return PARSER.parseFrom(data);
     }
     public static com.google.nigori.common.NigoriMessages.AuthenticateRequest parseFrom(
         com.google.protobuf.ByteString data,
         com.google.protobuf.ExtensionRegistryLite extensionRegistry)
         throws com.google.protobuf.InvalidProtocolBufferException {
-      return newBuilder().mergeFrom(data, extensionRegistry)
-               .buildParsed();
+      return PARSER.parseFrom(data, extensionRegistry);
     }
     public static com.google.nigori.common.NigoriMessages.AuthenticateRequest parseFrom(byte[] data)
         throws com.google.protobuf.InvalidProtocolBufferException {
-      return newBuilder().mergeFrom(data).buildParsed();
+      return PARSER.parseFrom(data);
     }
     public static com.google.nigori.common.NigoriMessages.AuthenticateRequest parseFrom(
         byte[] data,
         com.google.protobuf.ExtensionRegistryLite extensionRegistry)
         throws com.google.protobuf.InvalidProtocolBufferException {
-      return newBuilder().mergeFrom(data, extensionRegistry)
-               .buildParsed();
+      return PARSER.parseFrom(data, extensionRegistry);
     }
     public static com.google.nigori.common.NigoriMessages.AuthenticateRequest parseFrom(java.io.InputStream input)
         throws java.io.IOException {
-      return newBuilder().mergeFrom(input).buildParsed();
+      return PARSER.parseFrom(input);
     }
     public static com.google.nigori.common.NigoriMessages.AuthenticateRequest parseFrom(
         java.io.InputStream input,
         com.google.protobuf.ExtensionRegistryLite extensionRegistry)
         throws java.io.IOException {
-      return newBuilder().mergeFrom(input, extensionRegistry)
-               .buildParsed();
+      return PARSER.parseFrom(input, extensionRegistry);
     }
     public static com.google.nigori.common.NigoriMessages.AuthenticateRequest parseDelimitedFrom(java.io.InputStream input)
         throws java.io.IOException {
-      Builder builder = newBuilder();
-      if (builder.mergeDelimitedFrom(input)) {
-        return builder.buildParsed();
-      } else {
-        return null;
-      }
+      return PARSER.parseDelimitedFrom(input);
     }
     public static com.google.nigori.common.NigoriMessages.AuthenticateRequest parseDelimitedFrom(
         java.io.InputStream input,
         com.google.protobuf.ExtensionRegistryLite extensionRegistry)
         throws java.io.IOException {
-      Builder builder = newBuilder();
-      if (builder.mergeDelimitedFrom(input, extensionRegistry)) {
-        return builder.buildParsed();
-      } else {
-        return null;
-      }
+      return PARSER.parseDelimitedFrom(input, extensionRegistry);
     }
     public static com.google.nigori.common.NigoriMessages.AuthenticateRequest parseFrom(
         com.google.protobuf.CodedInputStream input)
         throws java.io.IOException {
-      return newBuilder().mergeFrom(input).buildParsed();
+      return PARSER.parseFrom(input);
     }
     public static com.google.nigori.common.NigoriMessages.AuthenticateRequest parseFrom(
         com.google.protobuf.CodedInputStream input,
         com.google.protobuf.ExtensionRegistryLite extensionRegistry)
         throws java.io.IOException {
-      return newBuilder().mergeFrom(input, extensionRegistry)
-               .buildParsed();
+      return PARSER.parseFrom(input, extensionRegistry);
     }
-    
+
     public static Builder newBuilder() { return Builder.create(); }
     public Builder newBuilderForType() { return newBuilder(); }
     public static Builder newBuilder(com.google.nigori.common.NigoriMessages.AuthenticateRequest prototype) {
       return newBuilder().mergeFrom(prototype);
     }
     public Builder toBuilder() { return newBuilder(this); }
-    
+
     @java.lang.Override
     protected Builder newBuilderForType(
         com.google.protobuf.GeneratedMessage.BuilderParent parent) {
       Builder builder = new Builder(parent);
       return builder;
     }
+    /**
+     * Protobuf type {@code nigori.AuthenticateRequest}
+     */
     public static final class Builder extends
-        com.google.protobuf.GeneratedMessage.Builder<Builder>
-       implements com.google.nigori.common.NigoriMessages.AuthenticateRequestOrBuilder {
+        com.google.protobuf.GeneratedMessage.Builder<Builder> implements
+        // @@protoc_insertion_point(builder_implements:nigori.AuthenticateRequest)
+        com.google.nigori.common.NigoriMessages.AuthenticateRequestOrBuilder {
       public static final com.google.protobuf.Descriptors.Descriptor
           getDescriptor() {
         return com.google.nigori.common.NigoriMessages.internal_static_nigori_AuthenticateRequest_descriptor;
       }
-      
+
       protected com.google.protobuf.GeneratedMessage.FieldAccessorTable
           internalGetFieldAccessorTable() {
-        return com.google.nigori.common.NigoriMessages.internal_static_nigori_AuthenticateRequest_fieldAccessorTable;
+        return com.google.nigori.common.NigoriMessages.internal_static_nigori_AuthenticateRequest_fieldAccessorTable
+            .ensureFieldAccessorsInitialized(
+                com.google.nigori.common.NigoriMessages.AuthenticateRequest.class, com.google.nigori.common.NigoriMessages.AuthenticateRequest.Builder.class);
       }
-      
+
       // Construct using com.google.nigori.common.NigoriMessages.AuthenticateRequest.newBuilder()
       private Builder() {
         maybeForceBuilderInitialization();
       }
-      
-      private Builder(BuilderParent parent) {
+
+      private Builder(
+          com.google.protobuf.GeneratedMessage.BuilderParent parent) {
         super(parent);
         maybeForceBuilderInitialization();
       }
@@ -309,7 +553,7 @@ public final class NigoriMessages {
       private static Builder create() {
         return new Builder();
       }
-      
+
       public Builder clear() {
         super.clear();
         publicKey_ = com.google.protobuf.ByteString.EMPTY;
@@ -320,22 +564,26 @@ public final class NigoriMessages {
         bitField0_ = (bitField0_ & ~0x00000004);
         serverName_ = "";
         bitField0_ = (bitField0_ & ~0x00000008);
+        ticket_ = com.google.protobuf.ByteString.EMPTY;
+        bitField0_ = (bitField0_ & ~0x00000010);
+        counter_ = 0L;
+        bitField0_ = (bitField0_ & ~0x00000020);
         return this;
       }
-      
+
       public Builder clone() {
         return create().mergeFrom(buildPartial());
       }
-      
+
       public com.google.protobuf.Descriptors.Descriptor
           getDescriptorForType() {
-        return com.google.nigori.common.NigoriMessages.AuthenticateRequest.getDescriptor();
+        return com.google.nigori.common.NigoriMessages.internal_static_nigori_AuthenticateRequest_descriptor;
       }
-      
+
       public com.google.nigori.common.NigoriMessages.AuthenticateRequest getDefaultInstanceForType() {
         return com.google.nigori.common.NigoriMessages.AuthenticateRequest.getDefaultInstance();
       }
-      
+
       public com.google.nigori.common.NigoriMessages.AuthenticateRequest build() {
         com.google.nigori.common.NigoriMessages.AuthenticateRequest result = buildPartial();
         if (!result.isInitialized()) {
@@ -343,17 +591,7 @@ public final class NigoriMessages {
         }
         return result;
       }
-      
-      private com.google.nigori.common.NigoriMessages.AuthenticateRequest buildParsed()
-          throws com.google.protobuf.InvalidProtocolBufferException {
-        com.google.nigori.common.NigoriMessages.AuthenticateRequest result = buildPartial();
-        if (!result.isInitialized()) {
-          throw newUninitializedMessageException(
-            result).asInvalidProtocolBufferException();
-        }
-        return result;
-      }
-      
+
       public com.google.nigori.common.NigoriMessages.AuthenticateRequest buildPartial() {
         com.google.nigori.common.NigoriMessages.AuthenticateRequest result = new com.google.nigori.common.NigoriMessages.AuthenticateRequest(this);
         int from_bitField0_ = bitField0_;
@@ -374,11 +612,19 @@ public final class NigoriMessages {
           to_bitField0_ |= 0x00000008;
         }
         result.serverName_ = serverName_;
+        if (((from_bitField0_ & 0x00000010) == 0x00000010)) {
+          to_bitField0_ |= 0x00000010;
+        }
+        result.ticket_ = ticket_;
+        if (((from_bitField0_ & 0x00000020) == 0x00000020)) {
+          to_bitField0_ |= 0x00000020;
+        }
+        result.counter_ = counter_;
         result.bitField0_ = to_bitField0_;
         onBuilt();
         return result;
       }
-      
+
       public Builder mergeFrom(com.google.protobuf.Message other) {
         if (other instanceof com.google.nigori.common.NigoriMessages.AuthenticateRequest) {
           return mergeFrom((com.google.nigori.common.NigoriMessages.AuthenticateRequest)other);
@@ -387,7 +633,7 @@ public final class NigoriMessages {
           return this;
         }
       }
-      
+
       public Builder mergeFrom(com.google.nigori.common.NigoriMessages.AuthenticateRequest other) {
         if (other == com.google.nigori.common.NigoriMessages.AuthenticateRequest.getDefaultInstance()) return this;
         if (other.hasPublicKey()) {
@@ -400,12 +646,20 @@ public final class NigoriMessages {
           setNonce(other.getNonce());
         }
         if (other.hasServerName()) {
-          setServerName(other.getServerName());
+          bitField0_ |= 0x00000008;
+          serverName_ = other.serverName_;
+          onChanged();
+        }
+        if (other.hasTicket()) {
+          setTicket(other.getTicket());
+        }
+        if (other.hasCounter()) {
+          setCounter(other.getCounter());
         }
         this.mergeUnknownFields(other.getUnknownFields());
         return this;
       }
-      
+
       public final boolean isInitialized() {
         if (!hasPublicKey()) {
           
@@ -425,64 +679,42 @@ public final class NigoriMessages {
         }
         return true;
       }
-      
+
       public Builder mergeFrom(
           com.google.protobuf.CodedInputStream input,
           com.google.protobuf.ExtensionRegistryLite extensionRegistry)
           throws java.io.IOException {
-        com.google.protobuf.UnknownFieldSet.Builder unknownFields =
-          com.google.protobuf.UnknownFieldSet.newBuilder(
-            this.getUnknownFields());
-        while (true) {
-          int tag = input.readTag();
-          switch (tag) {
-            case 0:
-              this.setUnknownFields(unknownFields.build());
-              onChanged();
-              return this;
-            default: {
-              if (!parseUnknownField(input, unknownFields,
-                                     extensionRegistry, tag)) {
-                this.setUnknownFields(unknownFields.build());
-                onChanged();
-                return this;
-              }
-              break;
-            }
-            case 10: {
-              bitField0_ |= 0x00000001;
-              publicKey_ = input.readBytes();
-              break;
-            }
-            case 18: {
-              bitField0_ |= 0x00000002;
-              sig_ = input.readBytes();
-              break;
-            }
-            case 26: {
-              bitField0_ |= 0x00000004;
-              nonce_ = input.readBytes();
-              break;
-            }
-            case 34: {
-              bitField0_ |= 0x00000008;
-              serverName_ = input.readBytes();
-              break;
-            }
+        com.google.nigori.common.NigoriMessages.AuthenticateRequest parsedMessage = null;
+        try {
+          parsedMessage = PARSER.parsePartialFrom(input, extensionRegistry);
+        } catch (com.google.protobuf.InvalidProtocolBufferException e) {
+          parsedMessage = (com.google.nigori.common.NigoriMessages.AuthenticateRequest) e.getUnfinishedMessage();
+          throw e;
+        } finally {
+          if (parsedMessage != null) {
+            mergeFrom(parsedMessage);
           }
         }
+        return this;
       }
-      
       private int bitField0_;
-      
-      // required bytes public_key = 1;
+
       private com.google.protobuf.ByteString publicKey_ = com.google.protobuf.ByteString.EMPTY;
+      /**
+       * <code>required bytes public_key = 1;</code>
+       */
       public boolean hasPublicKey() {
         return ((bitField0_ & 0x00000001) == 0x00000001);
       }
+      /**
+       * <code>required bytes public_key = 1;</code>
+       */
       public com.google.protobuf.ByteString getPublicKey() {
         return publicKey_;
       }
+      /**
+       * <code>required bytes public_key = 1;</code>
+       */
       public Builder setPublicKey(com.google.protobuf.ByteString value) {
         if (value == null) {
     throw new NullPointerException();
@@ -492,21 +724,32 @@ public final class NigoriMessages {
         onChanged();
         return this;
       }
+      /**
+       * <code>required bytes public_key = 1;</code>
+       */
       public Builder clearPublicKey() {
         bitField0_ = (bitField0_ & ~0x00000001);
         publicKey_ = getDefaultInstance().getPublicKey();
         onChanged();
         return this;
       }
-      
-      // required bytes sig = 2;
+
       private com.google.protobuf.ByteString sig_ = com.google.protobuf.ByteString.EMPTY;
+      /**
+       * <code>required bytes sig = 2;</code>
+       */
       public boolean hasSig() {
         return ((bitField0_ & 0x00000002) == 0x00000002);
       }
+      /**
+       * <code>required bytes sig = 2;</code>
+       */
       public com.google.protobuf.ByteString getSig() {
         return sig_;
       }
+      /**
+       * <code>required bytes sig = 2;</code>
+       */
       public Builder setSig(com.google.protobuf.ByteString value) {
         if (value == null) {
     throw new NullPointerException();
@@ -516,21 +759,32 @@ public final class NigoriMessages {
         onChanged();
         return this;
       }
+      /**
+       * <code>required bytes sig = 2;</code>
+       */
       public Builder clearSig() {
         bitField0_ = (bitField0_ & ~0x00000002);
         sig_ = getDefaultInstance().getSig();
         onChanged();
         return this;
       }
-      
-      // required bytes nonce = 3;
+
       private com.google.protobuf.ByteString nonce_ = com.google.protobuf.ByteString.EMPTY;
+      /**
+       * <code>required bytes nonce = 3;</code>
+       */
       public boolean hasNonce() {
         return ((bitField0_ & 0x00000004) == 0x00000004);
       }
+      /**
+       * <code>required bytes nonce = 3;</code>
+       */
       public com.google.protobuf.ByteString getNonce() {
         return nonce_;
       }
+      /**
+       * <code>required bytes nonce = 3;</code>
+       */
       public Builder setNonce(com.google.protobuf.ByteString value) {
         if (value == null) {
     throw new NullPointerException();
@@ -540,29 +794,61 @@ public final class NigoriMessages {
         onChanged();
         return this;
       }
+      /**
+       * <code>required bytes nonce = 3;</code>
+       */
       public Builder clearNonce() {
         bitField0_ = (bitField0_ & ~0x00000004);
         nonce_ = getDefaultInstance().getNonce();
         onChanged();
         return this;
       }
-      
-      // required string server_name = 4;
-      private Object serverName_ = "";
+
+      private java.lang.Object serverName_ = "";
+      /**
+       * <code>required string server_name = 4;</code>
+       */
       public boolean hasServerName() {
         return ((bitField0_ & 0x00000008) == 0x00000008);
       }
-      public String getServerName() {
-        Object ref = serverName_;
-        if (!(ref instanceof String)) {
-          String s = ((com.google.protobuf.ByteString) ref).toStringUtf8();
-          serverName_ = s;
+      /**
+       * <code>required string server_name = 4;</code>
+       */
+      public java.lang.String getServerName() {
+        java.lang.Object ref = serverName_;
+        if (!(ref instanceof java.lang.String)) {
+          com.google.protobuf.ByteString bs =
+              (com.google.protobuf.ByteString) ref;
+          java.lang.String s = bs.toStringUtf8();
+          if (bs.isValidUtf8()) {
+            serverName_ = s;
+          }
           return s;
         } else {
-          return (String) ref;
+          return (java.lang.String) ref;
         }
       }
-      public Builder setServerName(String value) {
+      /**
+       * <code>required string server_name = 4;</code>
+       */
+      public com.google.protobuf.ByteString
+          getServerNameBytes() {
+        java.lang.Object ref = serverName_;
+        if (ref instanceof String) {
+          com.google.protobuf.ByteString b = 
+              com.google.protobuf.ByteString.copyFromUtf8(
+                  (java.lang.String) ref);
+          serverName_ = b;
+          return b;
+        } else {
+          return (com.google.protobuf.ByteString) ref;
+        }
+      }
+      /**
+       * <code>required string server_name = 4;</code>
+       */
+      public Builder setServerName(
+          java.lang.String value) {
         if (value == null) {
     throw new NullPointerException();
   }
@@ -571,89 +857,301 @@ public final class NigoriMessages {
         onChanged();
         return this;
       }
+      /**
+       * <code>required string server_name = 4;</code>
+       */
       public Builder clearServerName() {
         bitField0_ = (bitField0_ & ~0x00000008);
         serverName_ = getDefaultInstance().getServerName();
         onChanged();
         return this;
       }
-      void setServerName(com.google.protobuf.ByteString value) {
-        bitField0_ |= 0x00000008;
+      /**
+       * <code>required string server_name = 4;</code>
+       */
+      public Builder setServerNameBytes(
+          com.google.protobuf.ByteString value) {
+        if (value == null) {
+    throw new NullPointerException();
+  }
+  bitField0_ |= 0x00000008;
         serverName_ = value;
         onChanged();
+        return this;
+      }
+
+      private com.google.protobuf.ByteString ticket_ = com.google.protobuf.ByteString.EMPTY;
+      /**
+       * <code>optional bytes ticket = 5;</code>
+       *
+       * <pre>
+       * If present sig is an HMAC under the session key sealed in this ticket rather than a DSA
+       * signature, see SessionRequest.
+       * </pre>
+       */
+      public boolean hasTicket() {
+        return ((bitField0_ & 0x00000010) == 0x00000010);
+      }
+      /**
+       * <code>optional bytes ticket = 5;</code>
+       *
+       * <pre>
+       * If present sig is an HMAC under the session key sealed in this ticket rather than a DSA
+       * signature, see SessionRequest.
+       * </pre>
+       */
+      public com.google.protobuf.ByteString getTicket() {
+        return ticket_;
+      }
+      /**
+       * <code>optional bytes ticket = 5;</code>
+       *
+       * <pre>
+       * If present sig is an HMAC under the session key sealed in this ticket rather than a DSA
+       * signature, see SessionRequest.
+       * </pre>
+       */
+      public Builder setTicket(com.google.protobuf.ByteString value) {
+        if (value == null) {
+    throw new NullPointerException();
+  }
+  bitField0_ |= 0x00000010;
+        ticket_ = value;
+        onChanged();
+        return this;
+      }
+      /**
+       * <code>optional bytes ticket = 5;</code>
+       *
+       * <pre>
+       * If present sig is an HMAC under the session key sealed in this ticket rather than a DSA
+       * signature, see SessionRequest.
+       * </pre>
+       */
+      public Builder clearTicket() {
+        bitField0_ = (bitField0_ & ~0x00000010);
+        ticket_ = getDefaultInstance().getTicket();
+        onChanged();
+        return this;
+      }
+
+      private long counter_ ;
+      /**
+       * <code>optional uint64 counter = 6;</code>
+       *
+       * <pre>
+       * If present replay protection uses this per session counter rather than the nonce, which should
+       * then be empty. Only valid with a ticket from a server which set SessionResponse.counters.
+       * </pre>
+       */
+      public boolean hasCounter() {
+        return ((bitField0_ & 0x00000020) == 0x00000020);
+      }
+      /**
+       * <code>optional uint64 counter = 6;</code>
+       *
+       * <pre>
+       * If present replay protection uses this per session counter rather than the nonce, which should
+       * then be empty. Only valid with a ticket from a server which set SessionResponse.counters.
+       * </pre>
+       */
+      public long getCounter() {
+        return counter_;
+      }
+      /**
+       * <code>optional uint64 counter = 6;</code>
+       *
+       * <pre>
+       * If present replay protection uses this per session counter rather than the nonce, which should
+       * then be empty. Only valid with a ticket from a server which set SessionResponse.counters.
+       * </pre>
+       */
+      public Builder setCounter(long value) {
+        bitField0_ |= 0x00000020;
+        counter_ = value;
+        onChanged();
+        return this;
+      }
+      /**
+       * <code>optional uint64 counter = 6;</code>
+       *
+       * <pre>
+       * If present replay protection uses this per session counter rather than the nonce, which should
+       * then be empty. Only valid with a ticket from a server which set SessionResponse.counters.
+       * </pre>
+       */
+      public Builder clearCounter() {
+        bitField0_ = (bitField0_ & ~0x00000020);
+        counter_ = 0L;
+        onChanged();
+        return this;
       }
-      
+
       // @@protoc_insertion_point(builder_scope:nigori.AuthenticateRequest)
     }
-    
+
     static {
       defaultInstance = new AuthenticateRequest(true);
       defaultInstance.initFields();
     }
-    
+
     // @@protoc_insertion_point(class_scope:nigori.AuthenticateRequest)
   }
-  
-  public interface RegisterRequestOrBuilder
-      extends com.google.protobuf.MessageOrBuilder {
-    
-    // required bytes public_key = 1;
+
+  public interface RegisterRequestOrBuilder extends
+      // @@protoc_insertion_point(interface_extends:nigori.RegisterRequest)
+      com.google.protobuf.MessageOrBuilder {
+
+    /**
+     * <code>required bytes public_key = 1;</code>
+     */
     boolean hasPublicKey();
+    /**
+     * <code>required bytes public_key = 1;</code>
+     */
     com.google.protobuf.ByteString getPublicKey();
-    
-    // required bytes token = 2;
+
+    /**
+     * <code>required bytes token = 2;</code>
+     */
     boolean hasToken();
+    /**
+     * <code>required bytes token = 2;</code>
+     */
     com.google.protobuf.ByteString getToken();
   }
+  /**
+   * Protobuf type {@code nigori.RegisterRequest}
+   */
   public static final class RegisterRequest extends
-      com.google.protobuf.GeneratedMessage
-      implements RegisterRequestOrBuilder {
+      com.google.protobuf.GeneratedMessage implements
+      // @@protoc_insertion_point(message_implements:nigori.RegisterRequest)
+      RegisterRequestOrBuilder {
     // Use RegisterRequest.newBuilder() to construct.
-    private RegisterRequest(Builder builder) {
+    private RegisterRequest(com.google.protobuf.GeneratedMessage.Builder<?> builder) {
       super(builder);
+      this.unknownFields = builder.getUnknownFields();
     }
-    private RegisterRequest(boolean noInit) {}
-    
+    private RegisterRequest(boolean noInit) { this.unknownFields = com.google.protobuf.UnknownFieldSet.getDefaultInstance(); }
+
     private static final RegisterRequest defaultInstance;
     public static RegisterRequest getDefaultInstance() {
       return defaultInstance;
     }
-    
+
     public RegisterRequest getDefaultInstanceForType() {
       return defaultInstance;
     }
-    
+
+    private final com.google.protobuf.UnknownFieldSet unknownFields;
+    @java.lang.Override
+    public final com.google.protobuf.UnknownFieldSet
+        getUnknownFields() {
+      return this.unknownFields;
+    }
+    private RegisterRequest(
+        com.google.protobuf.CodedInputStream input,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws com.google.protobuf.InvalidProtocolBufferException {
+      initFields();
+      int mutable_bitField0_ = 0;
+      com.google.protobuf.UnknownFieldSet.Builder unknownFields =
+          com.google.protobuf.UnknownFieldSet.newBuilder();
+      try {
+        boolean done = false;
+        while (!done) {
+          int tag = input.readTag();
+          switch (tag) {
+            case 0:
+              done = true;
+              break;
+            default: {
+              if (!parseUnknownField(input, unknownFields,
+                                     extensionRegistry, tag)) {
+                done = true;
+              }
+              break;
+            }
+            case 10: {
+              bitField0_ |= 0x00000001;
+              publicKey_ = input.readBytes();
+              break;
+            }
+            case 18: {
+              bitField0_ |= 0x00000002;
+              token_ = input.readBytes();
+              break;
+            }
+          }
+        }
+      } catch (com.google.protobuf.InvalidProtocolBufferException e) {
+        throw e.setUnfinishedMessage(this);
+      } catch (java.io.IOException e) {
+        throw new com.google.protobuf.InvalidProtocolBufferException(
+            e.getMessage()).setUnfinishedMessage(this);
+      } finally {
+        this.unknownFields = unknownFields.build();
+        makeExtensionsImmutable();
+      }
+    }
     public static final com.google.protobuf.Descriptors.Descriptor
         getDescriptor() {
       return com.google.nigori.common.NigoriMessages.internal_static_nigori_RegisterRequest_descriptor;
     }
-    
+
     protected com.google.protobuf.GeneratedMessage.FieldAccessorTable
         internalGetFieldAccessorTable() {
-      return com.google.nigori.common.NigoriMessages.internal_static_nigori_RegisterRequest_fieldAccessorTable;
+      return com.google.nigori.common.NigoriMessages.internal_static_nigori_RegisterRequest_fieldAccessorTable
+          .ensureFieldAccessorsInitialized(
+              com.google.nigori.common.NigoriMessages.RegisterRequest.class, com.google.nigori.common.NigoriMessages.RegisterRequest.Builder.class);
+    }
+
+    public static com.google.protobuf.Parser<RegisterRequest> PARSER =
+        new com.google.protobuf.AbstractParser<RegisterRequest>() {
+      public RegisterRequest parsePartialFrom(
+          com.google.protobuf.CodedInputStream input,
+          com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+          throws com.google.protobuf.InvalidProtocolBufferException {
+        return new RegisterRequest(input, extensionRegistry);
+      }
+    };
+
+    @java.lang.Override
+    public com.google.protobuf.Parser<RegisterRequest> getParserForType() {
+      return PARSER;
     }
-    
+
     private int bitField0_;
-    // required bytes public_key = 1;
     public static final int PUBLIC_KEY_FIELD_NUMBER = 1;
     private com.google.protobuf.ByteString publicKey_;
+    /**
+     * <code>required bytes public_key = 1;</code>
+     */
     public boolean hasPublicKey() {
       return ((bitField0_ & 0x00000001) == 0x00000001);
     }
+    /**
+     * <code>required bytes public_key = 1;</code>
+     */
     public com.google.protobuf.ByteString getPublicKey() {
       return publicKey_;
     }
-    
-    // required bytes token = 2;
+
     public static final int TOKEN_FIELD_NUMBER = 2;
     private com.google.protobuf.ByteString token_;
+    /**
+     * <code>required bytes token = 2;</code>
+     */
     public boolean hasToken() {
       return ((bitField0_ & 0x00000002) == 0x00000002);
     }
+    /**
+     * <code>required bytes token = 2;</code>
+     */
     public com.google.protobuf.ByteString getToken() {
       return token_;
     }
-    
+
     private void initFields() {
       publicKey_ = com.google.protobuf.ByteString.EMPTY;
       token_ = com.google.protobuf.ByteString.EMPTY;
@@ -661,8 +1159,9 @@ public final class NigoriMessages {
     private byte memoizedIsInitialized = -1;
     public final boolean isInitialized() {
       byte isInitialized = memoizedIsInitialized;
-      if (isInitialized != -1) return isInitialized == 1;
-      
+      if (isInitialized == 1) return true;
+      if (isInitialized == 0) return false;
+
       if (!hasPublicKey()) {
         memoizedIsInitialized = 0;
         return false;
@@ -674,7 +1173,7 @@ public final class NigoriMessages {
       memoizedIsInitialized = 1;
       return true;
     }
-    
+
     public void writeTo(com.google.protobuf.CodedOutputStream output)
                         throws java.io.IOException {
       getSerializedSize();
@@ -686,12 +1185,12 @@ public final class NigoriMessages {
       }
       getUnknownFields().writeTo(output);
     }
-    
+
     private int memoizedSerializedSize = -1;
     public int getSerializedSize() {
       int size = memoizedSerializedSize;
       if (size != -1) return size;
-    
+
       size = 0;
       if (((bitField0_ & 0x00000001) == 0x00000001)) {
         size += com.google.protobuf.CodedOutputStream
@@ -705,111 +1204,106 @@ public final class NigoriMessages {
       memoizedSerializedSize = size;
       return size;
     }
-    
+
+    private static final long serialVersionUID = 0L;
     @java.lang.Override
-    protected Object writeReplace() throws java.io.ObjectStreamException {
+    protected java.lang.Object writeReplace()
+        throws java.io.ObjectStreamException {
       return super.writeReplace();
     }
-    
+
     public static com.google.nigori.common.NigoriMessages.RegisterRequest parseFrom(
         com.google.protobuf.ByteString data)
         throws com.google.protobuf.InvalidProtocolBufferException {
-      return newBuilder().mergeFrom(data).buildParsed();
+      return PARSER.parseFrom(data);
     }
     public static com.google.nigori.common.NigoriMessages.RegisterRequest parseFrom(
         com.google.protobuf.ByteString data,
         com.google.protobuf.ExtensionRegistryLite extensionRegistry)
         throws com.google.protobuf.InvalidProtocolBufferException {
-      return newBuilder().mergeFrom(data, extensionRegistry)
-               .buildParsed();
+      return PARSER.parseFrom(data, extensionRegistry);
     }
     public static com.google.nigori.common.NigoriMessages.RegisterRequest parseFrom(byte[] data)
         throws com.google.protobuf.InvalidProtocolBufferException {
-      return newBuilder().mergeFrom(data).buildParsed();
+      return PARSER.parseFrom(data);
     }
     public static com.google.nigori.common.NigoriMessages.RegisterRequest parseFrom(
         byte[] data,
         com.google.protobuf.ExtensionRegistryLite extensionRegistry)
         throws com.google.protobuf.InvalidProtocolBufferException {
-      return newBuilder().mergeFrom(data, extensionRegistry)
-               .buildParsed();
+      return PARSER.parseFrom(data, extensionRegistry);
     }
     public static com.google.nigori.common.NigoriMessages.RegisterRequest parseFrom(java.io.InputStream input)
         throws java.io.IOException {
-      return newBuilder().mergeFrom(input).buildParsed();
+      return PARSER.parseFrom(input);
     }
     public static com.google.nigori.common.NigoriMessages.RegisterRequest parseFrom(
         java.io.InputStream input,
         com.google.protobuf.ExtensionRegistryLite extensionRegistry)
         throws java.io.IOException {
-      return newBuilder().mergeFrom(input, extensionRegistry)
-               .buildParsed();
+      return PARSER.parseFrom(input, extensionRegistry);
     }
     public static com.google.nigori.common.NigoriMessages.RegisterRequest parseDelimitedFrom(java.io.InputStream input)
         throws java.io.IOException {
-      Builder builder = newBuilder();
-      if (builder.mergeDelimitedFrom(input)) {
-        return builder.buildParsed();
-      } else {
-        return null;
-      }
+      return PARSER.parseDelimitedFrom(input);
     }
     public static com.google.nigori.common.NigoriMessages.RegisterRequest parseDelimitedFrom(
         java.io.InputStream input,
         com.google.protobuf.ExtensionRegistryLite extensionRegistry)
         throws java.io.IOException {
-      Builder builder = newBuilder();
-      if (builder.mergeDelimitedFrom(input, extensionRegistry)) {
-        return builder.buildParsed();
-      } else {
-        return null;
-      }
+      return PARSER.parseDelimitedFrom(input, extensionRegistry);
     }
     public static com.google.nigori.common.NigoriMessages.RegisterRequest parseFrom(
         com.google.protobuf.CodedInputStream input)
         throws java.io.IOException {
-      return newBuilder().mergeFrom(input).buildParsed();
+      return PARSER.parseFrom(input);
     }
     public static com.google.nigori.common.NigoriMessages.RegisterRequest parseFrom(
         com.google.protobuf.CodedInputStream input,
         com.google.protobuf.ExtensionRegistryLite extensionRegistry)
         throws java.io.IOException {
-      return newBuilder().mergeFrom(input, extensionRegistry)
-               .buildParsed();
+      return PARSER.parseFrom(input, extensionRegistry);
     }
-    
+
     public static Builder newBuilder() { return Builder.create(); }
     public Builder newBuilderForType() { return newBuilder(); }
     public static Builder newBuilder(com.google.nigori.common.NigoriMessages.RegisterRequest prototype) {
       return newBuilder().mergeFrom(prototype);
     }
     public Builder toBuilder() { return newBuilder(this); }
-    
+
     @java.lang.Override
     protected Builder newBuilderForType(
         com.google.protobuf.GeneratedMessage.BuilderParent parent) {
       Builder builder = new Builder(parent);
       return builder;
     }
+    /**
+     * Protobuf type {@code nigori.RegisterRequest}
+     */
     public static final class Builder extends
-        com.google.protobuf.GeneratedMessage.Builder<Builder>
-       implements com.google.nigori.common.NigoriMessages.RegisterRequestOrBuilder {
+        com.google.protobuf.GeneratedMessage.Builder<Builder> implements
+        // @@protoc_insertion_point(builder_implements:nigori.RegisterRequest)
+        com.google.nigori.common.NigoriMessages.RegisterRequestOrBuilder {
       public static final com.google.protobuf.Descriptors.Descriptor
           getDescriptor() {
         return com.google.nigori.common.NigoriMessages.internal_static_nigori_RegisterRequest_descriptor;
       }
-      
+
       protected com.google.protobuf.GeneratedMessage.FieldAccessorTable
           internalGetFieldAccessorTable() {
-        return com.google.nigori.common.NigoriMessages.internal_static_nigori_RegisterRequest_fieldAccessorTable;
+        return com.google.nigori.common.NigoriMessages.internal_static_nigori_RegisterRequest_fieldAccessorTable
+            .ensureFieldAccessorsInitialized(
+                com.google.nigori.common.NigoriMessages.RegisterRequest.class, com.google.nigori.common.NigoriMessages.RegisterRequest.Builder.class);
       }
-      
+
       // Construct using com.google.nigori.common.NigoriMessages.RegisterRequest.newBuilder()
       private Builder() {
         maybeForceBuilderInitialization();
       }
-      
-      private Builder(BuilderParent parent) {
+
+      private Builder(
+          com.google.protobuf.GeneratedMessage.BuilderParent parent) {
         super(parent);
         maybeForceBuilderInitialization();
       }
@@ -820,7 +1314,7 @@ public final class NigoriMessages {
       private static Builder create() {
         return new Builder();
       }
-      
+
       public Builder clear() {
         super.clear();
         publicKey_ = com.google.protobuf.ByteString.EMPTY;
@@ -829,20 +1323,20 @@ public final class NigoriMessages {
         bitField0_ = (bitField0_ & ~0x00000002);
         return this;
       }
-      
+
       public Builder clone() {
         return create().mergeFrom(buildPartial());
       }
-      
+
       public com.google.protobuf.Descriptors.Descriptor
           getDescriptorForType() {
-        return com.google.nigori.common.NigoriMessages.RegisterRequest.getDescriptor();
+        return com.google.nigori.common.NigoriMessages.internal_static_nigori_RegisterRequest_descriptor;
       }
-      
+
       public com.google.nigori.common.NigoriMessages.RegisterRequest getDefaultInstanceForType() {
         return com.google.nigori.common.NigoriMessages.RegisterRequest.getDefaultInstance();
       }
-      
+
       public com.google.nigori.common.NigoriMessages.RegisterRequest build() {
         com.google.nigori.common.NigoriMessages.RegisterRequest result = buildPartial();
         if (!result.isInitialized()) {
@@ -850,17 +1344,7 @@ public final class NigoriMessages {
         }
         return result;
       }
-      
-      private com.google.nigori.common.NigoriMessages.RegisterRequest buildParsed()
-          throws com.google.protobuf.InvalidProtocolBufferException {
-        com.google.nigori.common.NigoriMessages.RegisterRequest result = buildPartial();
-        if (!result.isInitialized()) {
-          throw newUninitializedMessageException(
-            result).asInvalidProtocolBufferException();
-        }
-        return result;
-      }
-      
+
       public com.google.nigori.common.NigoriMessages.RegisterRequest buildPartial() {
         com.google.nigori.common.NigoriMessages.RegisterRequest result = new com.google.nigori.common.NigoriMessages.RegisterRequest(this);
         int from_bitField0_ = bitField0_;
@@ -877,7 +1361,7 @@ public final class NigoriMessages {
         onBuilt();
         return result;
       }
-      
+
       public Builder mergeFrom(com.google.protobuf.Message other) {
         if (other instanceof com.google.nigori.common.NigoriMessages.RegisterRequest) {
           return mergeFrom((com.google.nigori.common.NigoriMessages.RegisterRequest)other);
@@ -886,7 +1370,7 @@ public final class NigoriMessages {
           return this;
         }
       }
-      
+
       public Builder mergeFrom(com.google.nigori.common.NigoriMessages.RegisterRequest other) {
         if (other == com.google.nigori.common.NigoriMessages.RegisterRequest.getDefaultInstance()) return this;
         if (other.hasPublicKey()) {
@@ -898,7 +1382,7 @@ public final class NigoriMessages {
         this.mergeUnknownFields(other.getUnknownFields());
         return this;
       }
-      
+
       public final boolean isInitialized() {
         if (!hasPublicKey()) {
           
@@ -910,54 +1394,42 @@ public final class NigoriMessages {
         }
         return true;
       }
-      
+
       public Builder mergeFrom(
           com.google.protobuf.CodedInputStream input,
           com.google.protobuf.ExtensionRegistryLite extensionRegistry)
           throws java.io.IOException {
-        com.google.protobuf.UnknownFieldSet.Builder unknownFields =
-          com.google.protobuf.UnknownFieldSet.newBuilder(
-            this.getUnknownFields());
-        while (true) {
-          int tag = input.readTag();
-          switch (tag) {
-            case 0:
-              this.setUnknownFields(unknownFields.build());
-              onChanged();
-              return this;
-            default: {
-              if (!parseUnknownField(input, unknownFields,
-                                     extensionRegistry, tag)) {
-                this.setUnknownFields(unknownFields.build());
-                onChanged();
-                return this;
-              }
-              break;
-            }
-            case 10: {
-              bitField0_ |= 0x00000001;
-              publicKey_ = input.readBytes();
-              break;
-            }
-            case 18: {
-              bitField0_ |= 0x00000002;
-              token_ = input.readBytes();
-              break;
-            }
+        com.google.nigori.common.NigoriMessages.RegisterRequest parsedMessage = null;
+        try {
+          parsedMessage = PARSER.parsePartialFrom(input, extensionRegistry);
+        } catch (com.google.protobuf.InvalidProtocolBufferException e) {
+          parsedMessage = (com.google.nigori.common.NigoriMessages.RegisterRequest) e.getUnfinishedMessage();
+          throw e;
+        } finally {
+          if (parsedMessage != null) {
+            mergeFrom(parsedMessage);
           }
         }
+        return this;
       }
-      
       private int bitField0_;
-      
-      // required bytes public_key = 1;
+
       private com.google.protobuf.ByteString publicKey_ = com.google.protobuf.ByteString.EMPTY;
+      /**
+       * <code>required bytes public_key = 1;</code>
+       */
       public boolean hasPublicKey() {
         return ((bitField0_ & 0x00000001) == 0x00000001);
       }
+      /**
+       * <code>required bytes public_key = 1;</code>
+       */
       public com.google.protobuf.ByteString getPublicKey() {
         return publicKey_;
       }
+      /**
+       * <code>required bytes public_key = 1;</code>
+       */
       public Builder setPublicKey(com.google.protobuf.ByteString value) {
         if (value == null) {
     throw new NullPointerException();
@@ -967,21 +1439,32 @@ public final class NigoriMessages {
         onChanged();
         return this;
       }
+      /**
+       * <code>required bytes public_key = 1;</code>
+       */
       public Builder clearPublicKey() {
         bitField0_ = (bitField0_ & ~0x00000001);
         publicKey_ = getDefaultInstance().getPublicKey();
         onChanged();
         return this;
       }
-      
-      // required bytes token = 2;
+
       private com.google.protobuf.ByteString token_ = com.google.protobuf.ByteString.EMPTY;
+      /**
+       * <code>required bytes token = 2;</code>
+       */
       public boolean hasToken() {
         return ((bitField0_ & 0x00000002) == 0x00000002);
       }
+      /**
+       * <code>required bytes token = 2;</code>
+       */
       public com.google.protobuf.ByteString getToken() {
         return token_;
       }
+      /**
+       * <code>required bytes token = 2;</code>
+       */
       public Builder setToken(com.google.protobuf.ByteString value) {
         if (value == null) {
     throw new NullPointerException();
@@ -991,82 +1474,179 @@ public final class NigoriMessages {
         onChanged();
         return this;
       }
+      /**
+       * <code>required bytes token = 2;</code>
+       */
       public Builder clearToken() {
         bitField0_ = (bitField0_ & ~0x00000002);
         token_ = getDefaultInstance().getToken();
         onChanged();
         return this;
       }
-      
+
       // @@protoc_insertion_point(builder_scope:nigori.RegisterRequest)
     }
-    
+
     static {
       defaultInstance = new RegisterRequest(true);
       defaultInstance.initFields();
     }
-    
+
     // @@protoc_insertion_point(class_scope:nigori.RegisterRequest)
   }
-  
-  public interface UnregisterRequestOrBuilder
-      extends com.google.protobuf.MessageOrBuilder {
-    
-    // required .nigori.AuthenticateRequest auth = 1;
+
+  public interface UnregisterRequestOrBuilder extends
+      // @@protoc_insertion_point(interface_extends:nigori.UnregisterRequest)
+      com.google.protobuf.MessageOrBuilder {
+
+    /**
+     * <code>required .nigori.AuthenticateRequest auth = 1;</code>
+     */
     boolean hasAuth();
+    /**
+     * <code>required .nigori.AuthenticateRequest auth = 1;</code>
+     */
     com.google.nigori.common.NigoriMessages.AuthenticateRequest getAuth();
+    /**
+     * <code>required .nigori.AuthenticateRequest auth = 1;</code>
+     */
     com.google.nigori.common.NigoriMessages.AuthenticateRequestOrBuilder getAuthOrBuilder();
   }
+  /**
+   * Protobuf type {@code nigori.UnregisterRequest}
+   */
   public static final class UnregisterRequest extends
-      com.google.protobuf.GeneratedMessage
-      implements UnregisterRequestOrBuilder {
+      com.google.protobuf.GeneratedMessage implements
+      // @@protoc_insertion_point(message_implements:nigori.UnregisterRequest)
+      UnregisterRequestOrBuilder {
     // Use UnregisterRequest.newBuilder() to construct.
-    private UnregisterRequest(Builder builder) {
+    private UnregisterRequest(com.google.protobuf.GeneratedMessage.Builder<?> builder) {
       super(builder);
+      this.unknownFields = builder.getUnknownFields();
     }
-    private UnregisterRequest(boolean noInit) {}
-    
+    private UnregisterRequest(boolean noInit) { this.unknownFields = com.google.protobuf.UnknownFieldSet.getDefaultInstance(); }
+
     private static final UnregisterRequest defaultInstance;
     public static UnregisterRequest getDefaultInstance() {
       return defaultInstance;
     }
-    
+
     public UnregisterRequest getDefaultInstanceForType() {
       return defaultInstance;
     }
-    
+
+    private final com.google.protobuf.UnknownFieldSet unknownFields;
+    @java.lang.Override
+    public final com.google.protobuf.UnknownFieldSet
+        getUnknownFields() {
+      return this.unknownFields;
+    }
+    private UnregisterRequest(
+        com.google.protobuf.CodedInputStream input,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws com.google.protobuf.InvalidProtocolBufferException {
+      initFields();
+      int mutable_bitField0_ = 0;
+      com.google.protobuf.UnknownFieldSet.Builder unknownFields =
+          com.google.protobuf.UnknownFieldSet.newBuilder();
+      try {
+        boolean done = false;
+        while (!done) {
+          int tag = input.readTag();
+          switch (tag) {
+            case 0:
+              done = true;
+              break;
+            default: {
+              if (!parseUnknownField(input, unknownFields,
+                                     extensionRegistry, tag)) {
+                done = true;
+              }
+              break;
+            }
+            case 10: {
+              com.google.nigori.common.NigoriMessages.AuthenticateRequest.Builder subBuilder = null;
+              if (((bitField0_ & 0x00000001) == 0x00000001)) {
+                subBuilder = auth_.toBuilder();
+              }
+              auth_ = input.readMessage(com.google.nigori.common.NigoriMessages.AuthenticateRequest.PARSER, extensionRegistry);
+              if (subBuilder != null) {
+                subBuilder.mergeFrom(auth_);
+                auth_ = subBuilder.buildPartial();
+              }
+              bitField0_ |= 0x00000001;
+              break;
+            }
+          }
+        }
+      } catch (com.google.protobuf.InvalidProtocolBufferException e) {
+        throw e.setUnfinishedMessage(this);
+      } catch (java.io.IOException e) {
+        throw new com.google.protobuf.InvalidProtocolBufferException(
+            e.getMessage()).setUnfinishedMessage(this);
+      } finally {
+        this.unknownFields = unknownFields.build();
+        makeExtensionsImmutable();
+      }
+    }
     public static final com.google.protobuf.Descriptors.Descriptor
         getDescriptor() {
       return com.google.nigori.common.NigoriMessages.internal_static_nigori_UnregisterRequest_descriptor;
     }
-    
+
     protected com.google.protobuf.GeneratedMessage.FieldAccessorTable
         internalGetFieldAccessorTable() {
-      return com.google.nigori.common.NigoriMessages.internal_static_nigori_UnregisterRequest_fieldAccessorTable;
+      return com.google.nigori.common.NigoriMessages.internal_static_nigori_UnregisterRequest_fieldAccessorTable
+          .ensureFieldAccessorsInitialized(
+              com.google.nigori.common.NigoriMessages.UnregisterRequest.class, com.google.nigori.common.NigoriMessages.UnregisterRequest.Builder.class);
+    }
+
+    public static com.google.protobuf.Parser<UnregisterRequest> PARSER =
+        new com.google.protobuf.AbstractParser<UnregisterRequest>() {
+      public UnregisterRequest parsePartialFrom(
+          com.google.protobuf.CodedInputStream input,
+          com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+          throws com.google.protobuf.InvalidProtocolBufferException {
+        return new UnregisterRequest(input, extensionRegistry);
+      }
+    };
+
+    @java.lang.Override
+    public com.google.protobuf.Parser<UnregisterRequest> getParserForType() {
+      return PARSER;
     }
-    
+
     private int bitField0_;
-    // required .nigori.AuthenticateRequest auth = 1;
     public static final int AUTH_FIELD_NUMBER = 1;
     private com.google.nigori.common.NigoriMessages.AuthenticateRequest auth_;
+    /**
+     * <code>required .nigori.AuthenticateRequest auth = 1;</code>
+     */
     public boolean hasAuth() {
       return ((bitField0_ & 0x00000001) == 0x00000001);
     }
+    /**
+     * <code>required .nigori.AuthenticateRequest auth = 1;</code>
+     */
     public com.google.nigori.common.NigoriMessages.AuthenticateRequest getAuth() {
       return auth_;
     }
+    /**
+     * <code>required .nigori.AuthenticateRequest auth = 1;</code>
+     */
     public com.google.nigori.common.NigoriMessages.AuthenticateRequestOrBuilder getAuthOrBuilder() {
       return auth_;
     }
-    
+
     private void initFields() {
       auth_ = com.google.nigori.common.NigoriMessages.AuthenticateRequest.getDefaultInstance();
     }
     private byte memoizedIsInitialized = -1;
     public final boolean isInitialized() {
       byte isInitialized = memoizedIsInitialized;
-      if (isInitialized != -1) return isInitialized == 1;
-      
+      if (isInitialized == 1) return true;
+      if (isInitialized == 0) return false;
+
       if (!hasAuth()) {
         memoizedIsInitialized = 0;
         return false;
@@ -1078,7 +1658,7 @@ public final class NigoriMessages {
       memoizedIsInitialized = 1;
       return true;
     }
-    
+
     public void writeTo(com.google.protobuf.CodedOutputStream output)
                         throws java.io.IOException {
       getSerializedSize();
@@ -1087,12 +1667,12 @@ public final class NigoriMessages {
       }
       getUnknownFields().writeTo(output);
     }
-    
+
     private int memoizedSerializedSize = -1;
     public int getSerializedSize() {
       int size = memoizedSerializedSize;
       if (size != -1) return size;
-    
+
       size = 0;
       if (((bitField0_ & 0x00000001) == 0x00000001)) {
         size += com.google.protobuf.CodedOutputStream
@@ -1102,111 +1682,106 @@ public final class NigoriMessages {
       memoizedSerializedSize = size;
       return size;
     }
-    
+
+    private static final long serialVersionUID = 0L;
     @java.lang.Override
-    protected Object writeReplace() throws java.io.ObjectStreamException {
+    protected java.lang.Object writeReplace()
+        throws java.io.ObjectStreamException {
       return super.writeReplace();
     }
-    
+
     public static com.google.nigori.common.NigoriMessages.UnregisterRequest parseFrom(
         com.google.protobuf.ByteString data)
         throws com.google.protobuf.InvalidProtocolBufferException {
-      return newBuilder().mergeFrom(data).buildParsed();
+      return PARSER.parseFrom(data);
     }
     public static com.google.nigori.common.NigoriMessages.UnregisterRequest parseFrom(
         com.google.protobuf.ByteString data,
         com.google.protobuf.ExtensionRegistryLite extensionRegistry)
         throws com.google.protobuf.InvalidProtocolBufferException {
-      return newBuilder().mergeFrom(data, extensionRegistry)
-               .buildParsed();
+      return PARSER.parseFrom(data, extensionRegistry);
     }
     public static com.google.nigori.common.NigoriMessages.UnregisterRequest parseFrom(byte[] data)
         throws com.google.protobuf.InvalidProtocolBufferException {
-      return newBuilder().mergeFrom(data).buildParsed();
+      return PARSER.parseFrom(data);
     }
     public static com.google.nigori.common.NigoriMessages.UnregisterRequest parseFrom(
         byte[] data,
         com.google.protobuf.ExtensionRegistryLite extensionRegistry)
         throws com.google.protobuf.InvalidProtocolBufferException {
-      return newBuilder().mergeFrom(data, extensionRegistry)
-               .buildParsed();
+      return PARSER.parseFrom(data, extensionRegistry);
     }
     public static com.google.nigori.common.NigoriMessages.UnregisterRequest parseFrom(java.io.InputStream input)
         throws java.io.IOException {
-      return newBuilder().mergeFrom(input).buildParsed();
+      return PARSER.parseFrom(input);
     }
     public static com.google.nigori.common.NigoriMessages.UnregisterRequest parseFrom(
         java.io.InputStream input,
         com.google.protobuf.ExtensionRegistryLite extensionRegistry)
         throws java.io.IOException {
-      return newBuilder().mergeFrom(input, extensionRegistry)
-               .buildParsed();
+      return PARSER.parseFrom(input, extensionRegistry);
     }
     public static com.google.nigori.common.NigoriMessages.UnregisterRequest parseDelimitedFrom(java.io.InputStream input)
         throws java.io.IOException {
-      Builder builder = newBuilder();
-      if (builder.mergeDelimitedFrom(input)) {
-        return builder.buildParsed();
-      } else {
-        return null;
-      }
+      return PARSER.parseDelimitedFrom(input);
     }
     public static com.google.nigori.common.NigoriMessages.UnregisterRequest parseDelimitedFrom(
         java.io.InputStream input,
         com.google.protobuf.ExtensionRegistryLite extensionRegistry)
         throws java.io.IOException {
-      Builder builder = newBuilder();
-      if (builder.mergeDelimitedFrom(input, extensionRegistry)) {
-        return builder.buildParsed();
-      } else {
-        return null;
-      }
+      return PARSER.parseDelimitedFrom(input, extensionRegistry);
     }
     public static com.google.nigori.common.NigoriMessages.UnregisterRequest parseFrom(
         com.google.protobuf.CodedInputStream input)
         throws java.io.IOException {
-      return newBuilder().mergeFrom(input).buildParsed();
+      return PARSER.parseFrom(input);
     }
     public static com.google.nigori.common.NigoriMessages.UnregisterRequest parseFrom(
         com.google.protobuf.CodedInputStream input,
         com.google.protobuf.ExtensionRegistryLite extensionRegistry)
         throws java.io.IOException {
-      return newBuilder().mergeFrom(input, extensionRegistry)
-               .buildParsed();
+      return PARSER.parseFrom(input, extensionRegistry);
     }
-    
+
     public static Builder newBuilder() { return Builder.create(); }
     public Builder newBuilderForType() { return newBuilder(); }
     public static Builder newBuilder(com.google.nigori.common.NigoriMessages.UnregisterRequest prototype) {
       return newBuilder().mergeFrom(prototype);
     }
     public Builder toBuilder() { return newBuilder(this); }
-    
+
     @java.lang.Override
     protected Builder newBuilderForType(
         com.google.protobuf.GeneratedMessage.BuilderParent parent) {
       Builder builder = new Builder(parent);
       return builder;
     }
+    /**
+     * Protobuf type {@code nigori.UnregisterRequest}
+     */
     public static final class Builder extends
-        com.google.protobuf.GeneratedMessage.Builder<Builder>
-       implements com.google.nigori.common.NigoriMessages.UnregisterRequestOrBuilder {
+        com.google.protobuf.GeneratedMessage.Builder<Builder> implements
+        // @@protoc_insertion_point(builder_implements:nigori.UnregisterRequest)
+        com.google.nigori.common.NigoriMessages.UnregisterRequestOrBuilder {
       public static final com.google.protobuf.Descriptors.Descriptor
           getDescriptor() {
         return com.google.nigori.common.NigoriMessages.internal_static_nigori_UnregisterRequest_descriptor;
       }
-      
+
       protected com.google.protobuf.GeneratedMessage.FieldAccessorTable
           internalGetFieldAccessorTable() {
-        return com.google.nigori.common.NigoriMessages.internal_static_nigori_UnregisterRequest_fieldAccessorTable;
+        return com.google.nigori.common.NigoriMessages.internal_static_nigori_UnregisterRequest_fieldAccessorTable
+            .ensureFieldAccessorsInitialized(
+                com.google.nigori.common.NigoriMessages.UnregisterRequest.class, com.google.nigori.common.NigoriMessages.UnregisterRequest.Builder.class);
       }
-      
+
       // Construct using com.google.nigori.common.NigoriMessages.UnregisterRequest.newBuilder()
       private Builder() {
         maybeForceBuilderInitialization();
       }
-      
-      private Builder(BuilderParent parent) {
+
+      private Builder(
+          com.google.protobuf.GeneratedMessage.BuilderParent parent) {
         super(parent);
         maybeForceBuilderInitialization();
       }
@@ -1218,7 +1793,7 @@ public final class NigoriMessages {
       private static Builder create() {
         return new Builder();
       }
-      
+
       public Builder clear() {
         super.clear();
         if (authBuilder_ == null) {
@@ -1229,20 +1804,20 @@ public final class NigoriMessages {
         bitField0_ = (bitField0_ & ~0x00000001);
         return this;
       }
-      
+
       public Builder clone() {
         return create().mergeFrom(buildPartial());
       }
-      
+
       public com.google.protobuf.Descriptors.Descriptor
           getDescriptorForType() {
-        return com.google.nigori.common.NigoriMessages.UnregisterRequest.getDescriptor();
+        return com.google.nigori.common.NigoriMessages.internal_static_nigori_UnregisterRequest_descriptor;
       }
-      
+
       public com.google.nigori.common.NigoriMessages.UnregisterRequest getDefaultInstanceForType() {
         return com.google.nigori.common.NigoriMessages.UnregisterRequest.getDefaultInstance();
       }
-      
+
       public com.google.nigori.common.NigoriMessages.UnregisterRequest build() {
         com.google.nigori.common.NigoriMessages.UnregisterRequest result = buildPartial();
         if (!result.isInitialized()) {
@@ -1250,17 +1825,7 @@ public final class NigoriMessages {
         }
         return result;
       }
-      
-      private com.google.nigori.common.NigoriMessages.UnregisterRequest buildParsed()
-          throws com.google.protobuf.InvalidProtocolBufferException {
-        com.google.nigori.common.NigoriMessages.UnregisterRequest result = buildPartial();
-        if (!result.isInitialized()) {
-          throw newUninitializedMessageException(
-            result).asInvalidProtocolBufferException();
-        }
-        return result;
-      }
-      
+
       public com.google.nigori.common.NigoriMessages.UnregisterRequest buildPartial() {
         com.google.nigori.common.NigoriMessages.UnregisterRequest result = new com.google.nigori.common.NigoriMessages.UnregisterRequest(this);
         int from_bitField0_ = bitField0_;
@@ -1277,7 +1842,7 @@ public final class NigoriMessages {
         onBuilt();
         return result;
       }
-      
+
       public Builder mergeFrom(com.google.protobuf.Message other) {
         if (other instanceof com.google.nigori.common.NigoriMessages.UnregisterRequest) {
           return mergeFrom((com.google.nigori.common.NigoriMessages.UnregisterRequest)other);
@@ -1286,7 +1851,7 @@ public final class NigoriMessages {
           return this;
         }
       }
-      
+
       public Builder mergeFrom(com.google.nigori.common.NigoriMessages.UnregisterRequest other) {
         if (other == com.google.nigori.common.NigoriMessages.UnregisterRequest.getDefaultInstance()) return this;
         if (other.hasAuth()) {
@@ -1295,7 +1860,7 @@ public final class NigoriMessages {
         this.mergeUnknownFields(other.getUnknownFields());
         return this;
       }
-      
+
       public final boolean isInitialized() {
         if (!hasAuth()) {
           
@@ -1307,52 +1872,38 @@ public final class NigoriMessages {
         }
         return true;
       }
-      
+
       public Builder mergeFrom(
           com.google.protobuf.CodedInputStream input,
           com.google.protobuf.ExtensionRegistryLite extensionRegistry)
           throws java.io.IOException {
-        com.google.protobuf.UnknownFieldSet.Builder unknownFields =
-          com.google.protobuf.UnknownFieldSet.newBuilder(
-            this.getUnknownFields());
-        while (true) {
-          int tag = input.readTag();
-          switch (tag) {
-            case 0:
-              this.setUnknownFields(unknownFields.build());
-              onChanged();
-              return this;
-            default: {
-              if (!parseUnknownField(input, unknownFields,
-                                     extensionRegistry, tag)) {
-                this.setUnknownFields(unknownFields.build());
-                onChanged();
-                return this;
-              }
-              break;
-            }
-            case 10: {
-              com.google.nigori.common.NigoriMessages.AuthenticateRequest.Builder subBuilder = com.google.nigori.common.NigoriMessages.AuthenticateRequest.newBuilder();
-              if (hasAuth()) {
-                subBuilder.mergeFrom(getAuth());
-              }
-              input.readMessage(subBuilder, extensionRegistry);
-              setAuth(subBuilder.buildPartial());
-              break;
-            }
+        com.google.nigori.common.NigoriMessages.UnregisterRequest parsedMessage = null;
+        try {
+          parsedMessage = PARSER.parsePartialFrom(input, extensionRegistry);
+        } catch (com.google.protobuf.InvalidProtocolBufferException e) {
+          parsedMessage = (com.google.nigori.common.NigoriMessages.UnregisterRequest) e.getUnfinishedMessage();
+          throw e;
+        } finally {
+          if (parsedMessage != null) {
+            mergeFrom(parsedMessage);
           }
         }
+        return this;
       }
-      
       private int bitField0_;
-      
-      // required .nigori.AuthenticateRequest auth = 1;
+
       private com.google.nigori.common.NigoriMessages.AuthenticateRequest auth_ = com.google.nigori.common.NigoriMessages.AuthenticateRequest.getDefaultInstance();
       private com.google.protobuf.SingleFieldBuilder<
           com.google.nigori.common.NigoriMessages.AuthenticateRequest, com.google.nigori.common.NigoriMessages.AuthenticateRequest.Builder, com.google.nigori.common.NigoriMessages.AuthenticateRequestOrBuilder> authBuilder_;
+      /**
+       * <code>required .nigori.AuthenticateRequest auth = 1;</code>
+       */
       public boolean hasAuth() {
         return ((bitField0_ & 0x00000001) == 0x00000001);
       }
+      /**
+       * <code>required .nigori.AuthenticateRequest auth = 1;</code>
+       */
       public com.google.nigori.common.NigoriMessages.AuthenticateRequest getAuth() {
         if (authBuilder_ == null) {
           return auth_;
@@ -1360,6 +1911,9 @@ public final class NigoriMessages {
           return authBuilder_.getMessage();
         }
       }
+      /**
+       * <code>required .nigori.AuthenticateRequest auth = 1;</code>
+       */
       public Builder setAuth(com.google.nigori.common.NigoriMessages.AuthenticateRequest value) {
         if (authBuilder_ == null) {
           if (value == null) {
@@ -1373,6 +1927,9 @@ public final class NigoriMessages {
         bitField0_ |= 0x00000001;
         return this;
       }
+      /**
+       * <code>required .nigori.AuthenticateRequest auth = 1;</code>
+       */
       public Builder setAuth(
           com.google.nigori.common.NigoriMessages.AuthenticateRequest.Builder builderForValue) {
         if (authBuilder_ == null) {
@@ -1384,6 +1941,9 @@ public final class NigoriMessages {
         bitField0_ |= 0x00000001;
         return this;
       }
+      /**
+       * <code>required .nigori.AuthenticateRequest auth = 1;</code>
+       */
       public Builder mergeAuth(com.google.nigori.common.NigoriMessages.AuthenticateRequest value) {
         if (authBuilder_ == null) {
           if (((bitField0_ & 0x00000001) == 0x00000001) &&
@@ -1400,6 +1960,9 @@ public final class NigoriMessages {
         bitField0_ |= 0x00000001;
         return this;
       }
+      /**
+       * <code>required .nigori.AuthenticateRequest auth = 1;</code>
+       */
       public Builder clearAuth() {
         if (authBuilder_ == null) {
           auth_ = com.google.nigori.common.NigoriMessages.AuthenticateRequest.getDefaultInstance();
@@ -1410,11 +1973,17 @@ public final class NigoriMessages {
         bitField0_ = (bitField0_ & ~0x00000001);
         return this;
       }
+      /**
+       * <code>required .nigori.AuthenticateRequest auth = 1;</code>
+       */
       public com.google.nigori.common.NigoriMessages.AuthenticateRequest.Builder getAuthBuilder() {
         bitField0_ |= 0x00000001;
         onChanged();
         return getAuthFieldBuilder().getBuilder();
       }
+      /**
+       * <code>required .nigori.AuthenticateRequest auth = 1;</code>
+       */
       public com.google.nigori.common.NigoriMessages.AuthenticateRequestOrBuilder getAuthOrBuilder() {
         if (authBuilder_ != null) {
           return authBuilder_.getMessageOrBuilder();
@@ -1422,91 +1991,188 @@ public final class NigoriMessages {
           return auth_;
         }
       }
+      /**
+       * <code>required .nigori.AuthenticateRequest auth = 1;</code>
+       */
       private com.google.protobuf.SingleFieldBuilder<
           com.google.nigori.common.NigoriMessages.AuthenticateRequest, com.google.nigori.common.NigoriMessages.AuthenticateRequest.Builder, com.google.nigori.common.NigoriMessages.AuthenticateRequestOrBuilder> 
           getAuthFieldBuilder() {
         if (authBuilder_ == null) {
           authBuilder_ = new com.google.protobuf.SingleFieldBuilder<
               com.google.nigori.common.NigoriMessages.AuthenticateRequest, com.google.nigori.common.NigoriMessages.AuthenticateRequest.Builder, com.google.nigori.common.NigoriMessages.AuthenticateRequestOrBuilder>(
-                  auth_,
+                  getAuth(),
                   getParentForChildren(),
                   isClean());
           auth_ = null;
         }
         return authBuilder_;
       }
-      
+
       // @@protoc_insertion_point(builder_scope:nigori.UnregisterRequest)
     }
-    
+
     static {
       defaultInstance = new UnregisterRequest(true);
       defaultInstance.initFields();
     }
-    
+
     // @@protoc_insertion_point(class_scope:nigori.UnregisterRequest)
   }
-  
-  public interface RevisionValueOrBuilder
-      extends com.google.protobuf.MessageOrBuilder {
-    
-    // required bytes revision = 1;
+
+  public interface RevisionValueOrBuilder extends
+      // @@protoc_insertion_point(interface_extends:nigori.RevisionValue)
+      com.google.protobuf.MessageOrBuilder {
+
+    /**
+     * <code>required bytes revision = 1;</code>
+     */
     boolean hasRevision();
+    /**
+     * <code>required bytes revision = 1;</code>
+     */
     com.google.protobuf.ByteString getRevision();
-    
-    // required bytes value = 2;
+
+    /**
+     * <code>required bytes value = 2;</code>
+     */
     boolean hasValue();
+    /**
+     * <code>required bytes value = 2;</code>
+     */
     com.google.protobuf.ByteString getValue();
   }
+  /**
+   * Protobuf type {@code nigori.RevisionValue}
+   */
   public static final class RevisionValue extends
-      com.google.protobuf.GeneratedMessage
-      implements RevisionValueOrBuilder {
+      com.google.protobuf.GeneratedMessage implements
+      // @@protoc_insertion_point(message_implements:nigori.RevisionValue)
+      RevisionValueOrBuilder {
     // Use RevisionValue.newBuilder() to construct.
-    private RevisionValue(Builder builder) {
+    private RevisionValue(com.google.protobuf.GeneratedMessage.Builder<?> builder) {
       super(builder);
+      this.unknownFields = builder.getUnknownFields();
     }
-    private RevisionValue(boolean noInit) {}
-    
+    private RevisionValue(boolean noInit) { this.unknownFields = com.google.protobuf.UnknownFieldSet.getDefaultInstance(); }
+
     private static final RevisionValue defaultInstance;
     public static RevisionValue getDefaultInstance() {
       return defaultInstance;
     }
-    
+
     public RevisionValue getDefaultInstanceForType() {
       return defaultInstance;
     }
-    
+
+    private final com.google.protobuf.UnknownFieldSet unknownFields;
+    @java.lang.Override
+    public final com.google.protobuf.UnknownFieldSet
+        getUnknownFields() {
+      return this.unknownFields;
+    }
+    private RevisionValue(
+        com.google.protobuf.CodedInputStream input,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws com.google.protobuf.InvalidProtocolBufferException {
+      initFields();
+      int mutable_bitField0_ = 0;
+      com.google.protobuf.UnknownFieldSet.Builder unknownFields =
+          com.google.protobuf.UnknownFieldSet.newBuilder();
+      try {
+        boolean done = false;
+        while (!done) {
+          int tag = input.readTag();
+          switch (tag) {
+            case 0:
+              done = true;
+              break;
+            default: {
+              if (!parseUnknownField(input, unknownFields,
+                                     extensionRegistry, tag)) {
+                done = true;
+              }
+              break;
+            }
+            case 10: {
+              bitField0_ |= 0x00000001;
+              revision_ = input.readBytes();
+              break;
+            }
+            case 18: {
+              bitField0_ |= 0x00000002;
+              value_ = input.readBytes();
+              break;
+            }
+          }
+        }
+      } catch (com.google.protobuf.InvalidProtocolBufferException e) {
+        throw e.setUnfinishedMessage(this);
+      } catch (java.io.IOException e) {
+        throw new com.google.protobuf.InvalidProtocolBufferException(
+            e.getMessage()).setUnfinishedMessage(this);
+      } finally {
+        this.unknownFields = unknownFields.build();
+        makeExtensionsImmutable();
+      }
+    }
     public static final com.google.protobuf.Descriptors.Descriptor
         getDescriptor() {
       return com.google.nigori.common.NigoriMessages.internal_static_nigori_RevisionValue_descriptor;
     }
-    
+
     protected com.google.protobuf.GeneratedMessage.FieldAccessorTable
         internalGetFieldAccessorTable() {
-      return com.google.nigori.common.NigoriMessages.internal_static_nigori_RevisionValue_fieldAccessorTable;
+      return com.google.nigori.common.NigoriMessages.internal_static_nigori_RevisionValue_fieldAccessorTable
+          .ensureFieldAccessorsInitialized(
+              com.google.nigori.common.NigoriMessages.RevisionValue.class, com.google.nigori.common.NigoriMessages.RevisionValue.Builder.class);
+    }
+
+    public static com.google.protobuf.Parser<RevisionValue> PARSER =
+        new com.google.protobuf.AbstractParser<RevisionValue>() {
+      public RevisionValue parsePartialFrom(
+          com.google.protobuf.CodedInputStream input,
+          com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+          throws com.google.protobuf.InvalidProtocolBufferException {
+        return new RevisionValue(input, extensionRegistry);
+      }
+    };
+
+    @java.lang.Override
+    public com.google.protobuf.Parser<RevisionValue> getParserForType() {
+      return PARSER;
     }
-    
+
     private int bitField0_;
-    // required bytes revision = 1;
     public static final int REVISION_FIELD_NUMBER = 1;
     private com.google.protobuf.ByteString revision_;
+    /**
+     * <code>required bytes revision = 1;</code>
+     */
     public boolean hasRevision() {
       return ((bitField0_ & 0x00000001) == 0x00000001);
     }
+    /**
+     * <code>required bytes revision = 1;</code>
+     */
     public com.google.protobuf.ByteString getRevision() {
       return revision_;
     }
-    
-    // required bytes value = 2;
+
     public static final int VALUE_FIELD_NUMBER = 2;
     private com.google.protobuf.ByteString value_;
+    /**
+     * <code>required bytes value = 2;</code>
+     */
     public boolean hasValue() {
       return ((bitField0_ & 0x00000002) == 0x00000002);
     }
+    /**
+     * <code>required bytes value = 2;</code>
+     */
     public com.google.protobuf.ByteString getValue() {
       return value_;
     }
-    
+
     private void initFields() {
       revision_ = com.google.protobuf.ByteString.EMPTY;
       value_ = com.google.protobuf.ByteString.EMPTY;
@@ -1514,8 +2180,9 @@ public final class NigoriMessages {
     private byte memoizedIsInitialized = -1;
     public final boolean isInitialized() {
       byte isInitialized = memoizedIsInitialized;
-      if (isInitialized != -1) return isInitialized == 1;
-      
+      if (isInitialized == 1) return true;
+      if (isInitialized == 0) return false;
+
       if (!hasRevision()) {
         memoizedIsInitialized = 0;
         return false;
@@ -1527,7 +2194,7 @@ public final class NigoriMessages {
       memoizedIsInitialized = 1;
       return true;
     }
-    
+
     public void writeTo(com.google.protobuf.CodedOutputStream output)
                         throws java.io.IOException {
       getSerializedSize();
@@ -1539,12 +2206,12 @@ public final class NigoriMessages {
       }
       getUnknownFields().writeTo(output);
     }
-    
+
     private int memoizedSerializedSize = -1;
     public int getSerializedSize() {
       int size = memoizedSerializedSize;
       if (size != -1) return size;
-    
+
       size = 0;
       if (((bitField0_ & 0x00000001) == 0x00000001)) {
         size += com.google.protobuf.CodedOutputStream
@@ -1558,111 +2225,106 @@ public final class NigoriMessages {
       memoizedSerializedSize = size;
       return size;
     }
-    
+
+    private static final long serialVersionUID = 0L;
     @java.lang.Override
-    protected Object writeReplace() throws java.io.ObjectStreamException {
+    protected java.lang.Object writeReplace()
+        throws java.io.ObjectStreamException {
       return super.writeReplace();
     }
-    
+
     public static com.google.nigori.common.NigoriMessages.RevisionValue parseFrom(
         com.google.protobuf.ByteString data)
         throws com.google.protobuf.InvalidProtocolBufferException {
-      return newBuilder().mergeFrom(data).buildParsed();
+      return PARSER.parseFrom(data);
     }
     public static com.google.nigori.common.NigoriMessages.RevisionValue parseFrom(
         com.google.protobuf.ByteString data,
         com.google.protobuf.ExtensionRegistryLite extensionRegistry)
         throws com.google.protobuf.InvalidProtocolBufferException {
-      return newBuilder().mergeFrom(data, extensionRegistry)
-               .buildParsed();
+      return PARSER.parseFrom(data, extensionRegistry);
     }
     public static com.google.nigori.common.NigoriMessages.RevisionValue parseFrom(byte[] data)
         throws com.google.protobuf.InvalidProtocolBufferException {
-      return newBuilder().mergeFrom(data).buildParsed();
+      return PARSER.parseFrom(data);
     }
     public static com.google.nigori.common.NigoriMessages.RevisionValue parseFrom(
         byte[] data,
         com.google.protobuf.ExtensionRegistryLite extensionRegistry)
         throws com.google.protobuf.InvalidProtocolBufferException {
-      return newBuilder().mergeFrom(data, extensionRegistry)
-               .buildParsed();
+      return PARSER.parseFrom(data, extensionRegistry);
     }
     public static com.google.nigori.common.NigoriMessages.RevisionValue parseFrom(java.io.InputStream input)
         throws java.io.IOException {
-      return newBuilder().mergeFrom(input).buildParsed();
+      return PARSER.parseFrom(input);
     }
     public static com.google.nigori.common.NigoriMessages.RevisionValue parseFrom(
         java.io.InputStream input,
         com.google.protobuf.ExtensionRegistryLite extensionRegistry)
         throws java.io.IOException {
-      return newBuilder().mergeFrom(input, extensionRegistry)
-               .buildParsed();
+      return PARSER.parseFrom(input, extensionRegistry);
     }
     public static com.google.nigori.common.NigoriMessages.RevisionValue parseDelimitedFrom(java.io.InputStream input)
         throws java.io.IOException {
-      Builder builder = newBuilder();
-      if (builder.mergeDelimitedFrom(input)) {
-        return builder.buildParsed();
-      } else {
-        return null;
-      }
+      return PARSER.parseDelimitedFrom(input);
     }
     public static com.google.nigori.common.NigoriMessages.RevisionValue parseDelimitedFrom(
         java.io.InputStream input,
         com.google.protobuf.ExtensionRegistryLite extensionRegistry)
         throws java.io.IOException {
-      Builder builder = newBuilder();
-      if (builder.mergeDelimitedFrom(input, extensionRegistry)) {
-        return builder.buildParsed();
-      } else {
-        return null;
-      }
+      return PARSER.parseDelimitedFrom(input, extensionRegistry);
     }
     public static com.google.nigori.common.NigoriMessages.RevisionValue parseFrom(
         com.google.protobuf.CodedInputStream input)
         throws java.io.IOException {
-      return newBuilder().mergeFrom(input).buildParsed();
+      return PARSER.parseFrom(input);
     }
     public static com.google.nigori.common.NigoriMessages.RevisionValue parseFrom(
         com.google.protobuf.CodedInputStream input,
         com.google.protobuf.ExtensionRegistryLite extensionRegistry)
         throws java.io.IOException {
-      return newBuilder().mergeFrom(input, extensionRegistry)
-               .buildParsed();
+      return PARSER.parseFrom(input, extensionRegistry);
     }
-    
+
     public static Builder newBuilder() { return Builder.create(); }
     public Builder newBuilderForType() { return newBuilder(); }
     public static Builder newBuilder(com.google.nigori.common.NigoriMessages.RevisionValue prototype) {
       return newBuilder().mergeFrom(prototype);
     }
     public Builder toBuilder() { return newBuilder(this); }
-    
+
     @java.lang.Override
     protected Builder newBuilderForType(
         com.google.protobuf.GeneratedMessage.BuilderParent parent) {
       Builder builder = new Builder(parent);
       return builder;
     }
+    /**
+     * Protobuf type {@code nigori.RevisionValue}
+     */
     public static final class Builder extends
-        com.google.protobuf.GeneratedMessage.Builder<Builder>
-       implements com.google.nigori.common.NigoriMessages.RevisionValueOrBuilder {
+        com.google.protobuf.GeneratedMessage.Builder<Builder> implements
+        // @@protoc_insertion_point(builder_implements:nigori.RevisionValue)
+        com.google.nigori.common.NigoriMessages.RevisionValueOrBuilder {
       public static final com.google.protobuf.Descriptors.Descriptor
           getDescriptor() {
         return com.google.nigori.common.NigoriMessages.internal_static_nigori_RevisionValue_descriptor;
       }
-      
+
       protected com.google.protobuf.GeneratedMessage.FieldAccessorTable
           internalGetFieldAccessorTable() {
-        return com.google.nigori.common.NigoriMessages.internal_static_nigori_RevisionValue_fieldAccessorTable;
+        return com.google.nigori.common.NigoriMessages.internal_static_nigori_RevisionValue_fieldAccessorTable
+            .ensureFieldAccessorsInitialized(
+                com.google.nigori.common.NigoriMessages.RevisionValue.class, com.google.nigori.common.NigoriMessages.RevisionValue.Builder.class);
       }
-      
+
       // Construct using com.google.nigori.common.NigoriMessages.RevisionValue.newBuilder()
       private Builder() {
         maybeForceBuilderInitialization();
       }
-      
-      private Builder(BuilderParent parent) {
+
+      private Builder(
+          com.google.protobuf.GeneratedMessage.BuilderParent parent) {
         super(parent);
         maybeForceBuilderInitialization();
       }
@@ -1673,7 +2335,7 @@ public final class NigoriMessages {
       private static Builder create() {
         return new Builder();
       }
-      
+
       public Builder clear() {
         super.clear();
         revision_ = com.google.protobuf.ByteString.EMPTY;
@@ -1682,20 +2344,20 @@ public final class NigoriMessages {
         bitField0_ = (bitField0_ & ~0x00000002);
         return this;
       }
-      
+
       public Builder clone() {
         return create().mergeFrom(buildPartial());
       }
-      
+
       public com.google.protobuf.Descriptors.Descriptor
           getDescriptorForType() {
-        return com.google.nigori.common.NigoriMessages.RevisionValue.getDescriptor();
+        return com.google.nigori.common.NigoriMessages.internal_static_nigori_RevisionValue_descriptor;
       }
-      
+
       public com.google.nigori.common.NigoriMessages.RevisionValue getDefaultInstanceForType() {
         return com.google.nigori.common.NigoriMessages.RevisionValue.getDefaultInstance();
       }
-      
+
       public com.google.nigori.common.NigoriMessages.RevisionValue build() {
         com.google.nigori.common.NigoriMessages.RevisionValue result = buildPartial();
         if (!result.isInitialized()) {
@@ -1703,17 +2365,7 @@ public final class NigoriMessages {
         }
         return result;
       }
-      
-      private com.google.nigori.common.NigoriMessages.RevisionValue buildParsed()
-          throws com.google.protobuf.InvalidProtocolBufferException {
-        com.google.nigori.common.NigoriMessages.RevisionValue result = buildPartial();
-        if (!result.isInitialized()) {
-          throw newUninitializedMessageException(
-            result).asInvalidProtocolBufferException();
-        }
-        return result;
-      }
-      
+
       public com.google.nigori.common.NigoriMessages.RevisionValue buildPartial() {
         com.google.nigori.common.NigoriMessages.RevisionValue result = new com.google.nigori.common.NigoriMessages.RevisionValue(this);
         int from_bitField0_ = bitField0_;
@@ -1730,7 +2382,7 @@ public final class NigoriMessages {
         onBuilt();
         return result;
       }
-      
+
       public Builder mergeFrom(com.google.protobuf.Message other) {
         if (other instanceof com.google.nigori.common.NigoriMessages.RevisionValue) {
           return mergeFrom((com.google.nigori.common.NigoriMessages.RevisionValue)other);
@@ -1739,7 +2391,7 @@ public final class NigoriMessages {
           return this;
         }
       }
-      
+
       public Builder mergeFrom(com.google.nigori.common.NigoriMessages.RevisionValue other) {
         if (other == com.google.nigori.common.NigoriMessages.RevisionValue.getDefaultInstance()) return this;
         if (other.hasRevision()) {
@@ -1751,7 +2403,7 @@ public final class NigoriMessages {
         this.mergeUnknownFields(other.getUnknownFields());
         return this;
       }
-      
+
       public final boolean isInitialized() {
         if (!hasRevision()) {
           
@@ -1763,54 +2415,42 @@ public final class NigoriMessages {
         }
         return true;
       }
-      
+
       public Builder mergeFrom(
           com.google.protobuf.CodedInputStream input,
           com.google.protobuf.ExtensionRegistryLite extensionRegistry)
           throws java.io.IOException {
-        com.google.protobuf.UnknownFieldSet.Builder unknownFields =
-          com.google.protobuf.UnknownFieldSet.newBuilder(
-            this.getUnknownFields());
-        while (true) {
-          int tag = input.readTag();
-          switch (tag) {
-            case 0:
-              this.setUnknownFields(unknownFields.build());
-              onChanged();
-              return this;
-            default: {
-              if (!parseUnknownField(input, unknownFields,
-                                     extensionRegistry, tag)) {
-                this.setUnknownFields(unknownFields.build());
-                onChanged();
-                return this;
-              }
-              break;
-            }
-            case 10: {
-              bitField0_ |= 0x00000001;
-              revision_ = input.readBytes();
-              break;
-            }
-            case 18: {
-              bitField0_ |= 0x00000002;
-              value_ = input.readBytes();
-              break;
-            }
+        com.google.nigori.common.NigoriMessages.RevisionValue parsedMessage = null;
+        try {
+          parsedMessage = PARSER.parsePartialFrom(input, extensionRegistry);
+        } catch (com.google.protobuf.InvalidProtocolBufferException e) {
+          parsedMessage = (com.google.nigori.common.NigoriMessages.RevisionValue) e.getUnfinishedMessage();
+          throw e;
+        } finally {
+          if (parsedMessage != null) {
+            mergeFrom(parsedMessage);
           }
         }
+        return this;
       }
-      
       private int bitField0_;
-      
-      // required bytes revision = 1;
+
       private com.google.protobuf.ByteString revision_ = com.google.protobuf.ByteString.EMPTY;
+      /**
+       * <code>required bytes revision = 1;</code>
+       */
       public boolean hasRevision() {
         return ((bitField0_ & 0x00000001) == 0x00000001);
       }
+      /**
+       * <code>required bytes revision = 1;</code>
+       */
       public com.google.protobuf.ByteString getRevision() {
         return revision_;
       }
+      /**
+       * <code>required bytes revision = 1;</code>
+       */
       public Builder setRevision(com.google.protobuf.ByteString value) {
         if (value == null) {
     throw new NullPointerException();
@@ -1820,21 +2460,32 @@ public final class NigoriMessages {
         onChanged();
         return this;
       }
+      /**
+       * <code>required bytes revision = 1;</code>
+       */
       public Builder clearRevision() {
         bitField0_ = (bitField0_ & ~0x00000001);
         revision_ = getDefaultInstance().getRevision();
         onChanged();
         return this;
       }
-      
-      // required bytes value = 2;
+
       private com.google.protobuf.ByteString value_ = com.google.protobuf.ByteString.EMPTY;
+      /**
+       * <code>required bytes value = 2;</code>
+       */
       public boolean hasValue() {
         return ((bitField0_ & 0x00000002) == 0x00000002);
       }
+      /**
+       * <code>required bytes value = 2;</code>
+       */
       public com.google.protobuf.ByteString getValue() {
         return value_;
       }
+      /**
+       * <code>required bytes value = 2;</code>
+       */
       public Builder setValue(com.google.protobuf.ByteString value) {
         if (value == null) {
     throw new NullPointerException();
@@ -1844,112 +2495,285 @@ public final class NigoriMessages {
         onChanged();
         return this;
       }
+      /**
+       * <code>required bytes value = 2;</code>
+       */
       public Builder clearValue() {
         bitField0_ = (bitField0_ & ~0x00000002);
         value_ = getDefaultInstance().getValue();
         onChanged();
         return this;
       }
-      
+
       // @@protoc_insertion_point(builder_scope:nigori.RevisionValue)
     }
-    
+
     static {
       defaultInstance = new RevisionValue(true);
       defaultInstance.initFields();
     }
-    
+
     // @@protoc_insertion_point(class_scope:nigori.RevisionValue)
   }
-  
-  public interface GetRequestOrBuilder
-      extends com.google.protobuf.MessageOrBuilder {
-    
-    // required .nigori.AuthenticateRequest auth = 1;
+
+  public interface GetRequestOrBuilder extends
+      // @@protoc_insertion_point(interface_extends:nigori.GetRequest)
+      com.google.protobuf.MessageOrBuilder {
+
+    /**
+     * <code>required .nigori.AuthenticateRequest auth = 1;</code>
+     */
     boolean hasAuth();
+    /**
+     * <code>required .nigori.AuthenticateRequest auth = 1;</code>
+     */
     com.google.nigori.common.NigoriMessages.AuthenticateRequest getAuth();
+    /**
+     * <code>required .nigori.AuthenticateRequest auth = 1;</code>
+     */
     com.google.nigori.common.NigoriMessages.AuthenticateRequestOrBuilder getAuthOrBuilder();
-    
-    // required bytes key = 2;
+
+    /**
+     * <code>required bytes key = 2;</code>
+     */
     boolean hasKey();
+    /**
+     * <code>required bytes key = 2;</code>
+     */
     com.google.protobuf.ByteString getKey();
-    
-    // optional bytes revision = 3;
+
+    /**
+     * <code>optional bytes revision = 3;</code>
+     */
     boolean hasRevision();
+    /**
+     * <code>optional bytes revision = 3;</code>
+     */
     com.google.protobuf.ByteString getRevision();
+
+    /**
+     * <code>optional bytes fingerprint = 4;</code>
+     *
+     * <pre>
+     * RevisionFingerprint of the revisions whose values the client already has
+     * </pre>
+     */
+    boolean hasFingerprint();
+    /**
+     * <code>optional bytes fingerprint = 4;</code>
+     *
+     * <pre>
+     * RevisionFingerprint of the revisions whose values the client already has
+     * </pre>
+     */
+    com.google.protobuf.ByteString getFingerprint();
   }
+  /**
+   * Protobuf type {@code nigori.GetRequest}
+   */
   public static final class GetRequest extends
-      com.google.protobuf.GeneratedMessage
-      implements GetRequestOrBuilder {
+      com.google.protobuf.GeneratedMessage implements
+      // @@protoc_insertion_point(message_implements:nigori.GetRequest)
+      GetRequestOrBuilder {
     // Use GetRequest.newBuilder() to construct.
-    private GetRequest(Builder builder) {
+    private GetRequest(com.google.protobuf.GeneratedMessage.Builder<?> builder) {
       super(builder);
+      this.unknownFields = builder.getUnknownFields();
     }
-    private GetRequest(boolean noInit) {}
-    
+    private GetRequest(boolean noInit) { this.unknownFields = com.google.protobuf.UnknownFieldSet.getDefaultInstance(); }
+
     private static final GetRequest defaultInstance;
     public static GetRequest getDefaultInstance() {
       return defaultInstance;
     }
-    
+
     public GetRequest getDefaultInstanceForType() {
       return defaultInstance;
     }
-    
-    public static final com.google.protobuf.Descriptors.Descriptor
-        getDescriptor() {
-      return com.google.nigori.common.NigoriMessages.internal_static_nigori_GetRequest_descriptor;
-    }
-    
-    protected com.google.protobuf.GeneratedMessage.FieldAccessorTable
-        internalGetFieldAccessorTable() {
-      return com.google.nigori.common.NigoriMessages.internal_static_nigori_GetRequest_fieldAccessorTable;
-    }
-    
-    private int bitField0_;
-    // required .nigori.AuthenticateRequest auth = 1;
-    public static final int AUTH_FIELD_NUMBER = 1;
-    private com.google.nigori.common.NigoriMessages.AuthenticateRequest auth_;
-    public boolean hasAuth() {
-      return ((bitField0_ & 0x00000001) == 0x00000001);
-    }
-    public com.google.nigori.common.NigoriMessages.AuthenticateRequest getAuth() {
-      return auth_;
-    }
-    public com.google.nigori.common.NigoriMessages.AuthenticateRequestOrBuilder getAuthOrBuilder() {
-      return auth_;
-    }
-    
-    // required bytes key = 2;
-    public static final int KEY_FIELD_NUMBER = 2;
-    private com.google.protobuf.ByteString key_;
-    public boolean hasKey() {
-      return ((bitField0_ & 0x00000002) == 0x00000002);
+
+    private final com.google.protobuf.UnknownFieldSet unknownFields;
+    @java.lang.Override
+    public final com.google.protobuf.UnknownFieldSet
+        getUnknownFields() {
+      return this.unknownFields;
     }
-    public com.google.protobuf.ByteString getKey() {
+    private GetRequest(
+        com.google.protobuf.CodedInputStream input,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws com.google.protobuf.InvalidProtocolBufferException {
+      initFields();
+      int mutable_bitField0_ = 0;
+      com.google.protobuf.UnknownFieldSet.Builder unknownFields =
+          com.google.protobuf.UnknownFieldSet.newBuilder();
+      try {
+        boolean done = false;
+        while (!done) {
+          int tag = input.readTag();
+          switch (tag) {
+            case 0:
+              done = true;
+              break;
+            default: {
+              if (!parseUnknownField(input, unknownFields,
+                                     extensionRegistry, tag)) {
+                done = true;
+              }
+              break;
+            }
+            case 10: {
+              com.google.nigori.common.NigoriMessages.AuthenticateRequest.Builder subBuilder = null;
+              if (((bitField0_ & 0x00000001) == 0x00000001)) {
+                subBuilder = auth_.toBuilder();
+              }
+              auth_ = input.readMessage(com.google.nigori.common.NigoriMessages.AuthenticateRequest.PARSER, extensionRegistry);
+              if (subBuilder != null) {
+                subBuilder.mergeFrom(auth_);
+                auth_ = subBuilder.buildPartial();
+              }
+              bitField0_ |= 0x00000001;
+              break;
+            }
+            case 18: {
+              bitField0_ |= 0x00000002;
+              key_ = input.readBytes();
+              break;
+            }
+            case 26: {
+              bitField0_ |= 0x00000004;
+              revision_ = input.readBytes();
+              break;
+            }
+            case 34: {
+              bitField0_ |= 0x00000008;
+              fingerprint_ = input.readBytes();
+              break;
+            }
+          }
+        }
+      } catch (com.google.protobuf.InvalidProtocolBufferException e) {
+        throw e.setUnfinishedMessage(this);
+      } catch (java.io.IOException e) {
+        throw new com.google.protobuf.InvalidProtocolBufferException(
+            e.getMessage()).setUnfinishedMessage(this);
+      } finally {
+        this.unknownFields = unknownFields.build();
+        makeExtensionsImmutable();
+      }
+    }
+    public static final com.google.protobuf.Descriptors.Descriptor
+        getDescriptor() {
+      return com.google.nigori.common.NigoriMessages.internal_static_nigori_GetRequest_descriptor;
+    }
+
+    protected com.google.protobuf.GeneratedMessage.FieldAccessorTable
+        internalGetFieldAccessorTable() {
+      return com.google.nigori.common.NigoriMessages.internal_static_nigori_GetRequest_fieldAccessorTable
+          .ensureFieldAccessorsInitialized(
+              com.google.nigori.common.NigoriMessages.GetRequest.class, com.google.nigori.common.NigoriMessages.GetRequest.Builder.class);
+    }
+
+    public static com.google.protobuf.Parser<GetRequest> PARSER =
+        new com.google.protobuf.AbstractParser<GetRequest>() {
+      public GetRequest parsePartialFrom(
+          com.google.protobuf.CodedInputStream input,
+          com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+          throws com.google.protobuf.InvalidProtocolBufferException {
+        return new GetRequest(input, extensionRegistry);
+      }
+    };
+
+    @java.lang.Override
+    public com.google.protobuf.Parser<GetRequest> getParserForType() {
+      return PARSER;
+    }
+
+    private int bitField0_;
+    public static final int AUTH_FIELD_NUMBER = 1;
+    private com.google.nigori.common.NigoriMessages.AuthenticateRequest auth_;
+    /**
+     * <code>required .nigori.AuthenticateRequest auth = 1;</code>
+     */
+    public boolean hasAuth() {
+      return ((bitField0_ & 0x00000001) == 0x00000001);
+    }
+    /**
+     * <code>required .nigori.AuthenticateRequest auth = 1;</code>
+     */
+    public com.google.nigori.common.NigoriMessages.AuthenticateRequest getAuth() {
+      return auth_;
+    }
+    /**
+     * <code>required .nigori.AuthenticateRequest auth = 1;</code>
+     */
+    public com.google.nigori.common.NigoriMessages.AuthenticateRequestOrBuilder getAuthOrBuilder() {
+      return auth_;
+    }
+
+    public static final int KEY_FIELD_NUMBER = 2;
+    private com.google.protobuf.ByteString key_;
+    /**
+     * <code>required bytes key = 2;</code>
+     */
+    public boolean hasKey() {
+      return ((bitField0_ & 0x00000002) == 0x00000002);
+    }
+    /**
+     * <code>required bytes key = 2;</code>
+     */
+    public com.google.protobuf.ByteString getKey() {
       return key_;
     }
-    
-    // optional bytes revision = 3;
+
     public static final int REVISION_FIELD_NUMBER = 3;
     private com.google.protobuf.ByteString revision_;
+    /**
+     * <code>optional bytes revision = 3;</code>
+     */
     public boolean hasRevision() {
       return ((bitField0_ & 0x00000004) == 0x00000004);
     }
+    /**
+     * <code>optional bytes revision = 3;</code>
+     */
     public com.google.protobuf.ByteString getRevision() {
       return revision_;
     }
-    
+
+    public static final int FINGERPRINT_FIELD_NUMBER = 4;
+    private com.google.protobuf.ByteString fingerprint_;
+    /**
+     * <code>optional bytes fingerprint = 4;</code>
+     *
+     * <pre>
+     * RevisionFingerprint of the revisions whose values the client already has
+     * </pre>
+     */
+    public boolean hasFingerprint() {
+      return ((bitField0_ & 0x00000008) == 0x00000008);
+    }
+    /**
+     * <code>optional bytes fingerprint = 4;</code>
+     *
+     * <pre>
+     * RevisionFingerprint of the revisions whose values the client already has
+     * </pre>
+     */
+    public com.google.protobuf.ByteString getFingerprint() {
+      return fingerprint_;
+    }
+
     private void initFields() {
       auth_ = com.google.nigori.common.NigoriMessages.AuthenticateRequest.getDefaultInstance();
       key_ = com.google.protobuf.ByteString.EMPTY;
       revision_ = com.google.protobuf.ByteString.EMPTY;
+      fingerprint_ = com.google.protobuf.ByteString.EMPTY;
     }
     private byte memoizedIsInitialized = -1;
     public final boolean isInitialized() {
       byte isInitialized = memoizedIsInitialized;
-      if (isInitialized != -1) return isInitialized == 1;
-      
+      if (isInitialized == 1) return true;
+      if (isInitialized == 0) return false;
+
       if (!hasAuth()) {
         memoizedIsInitialized = 0;
         return false;
@@ -1965,7 +2789,7 @@ public final class NigoriMessages {
       memoizedIsInitialized = 1;
       return true;
     }
-    
+
     public void writeTo(com.google.protobuf.CodedOutputStream output)
                         throws java.io.IOException {
       getSerializedSize();
@@ -1978,14 +2802,17 @@ public final class NigoriMessages {
       if (((bitField0_ & 0x00000004) == 0x00000004)) {
         output.writeBytes(3, revision_);
       }
+      if (((bitField0_ & 0x00000008) == 0x00000008)) {
+        output.writeBytes(4, fingerprint_);
+      }
       getUnknownFields().writeTo(output);
     }
-    
+
     private int memoizedSerializedSize = -1;
     public int getSerializedSize() {
       int size = memoizedSerializedSize;
       if (size != -1) return size;
-    
+
       size = 0;
       if (((bitField0_ & 0x00000001) == 0x00000001)) {
         size += com.google.protobuf.CodedOutputStream
@@ -1999,115 +2826,114 @@ public final class NigoriMessages {
         size += com.google.protobuf.CodedOutputStream
           .computeBytesSize(3, revision_);
       }
+      if (((bitField0_ & 0x00000008) == 0x00000008)) {
+        size += com.google.protobuf.CodedOutputStream
+          .computeBytesSize(4, fingerprint_);
+      }
       size += getUnknownFields().getSerializedSize();
       memoizedSerializedSize = size;
       return size;
     }
-    
+
+    private static final long serialVersionUID = 0L;
     @java.lang.Override
-    protected Object writeReplace() throws java.io.ObjectStreamException {
+    protected java.lang.Object writeReplace()
+        throws java.io.ObjectStreamException {
       return super.writeReplace();
     }
-    
+
     public static com.google.nigori.common.NigoriMessages.GetRequest parseFrom(
         com.google.protobuf.ByteString data)
         throws com.google.protobuf.InvalidProtocolBufferException {
-      return newBuilder().mergeFrom(data).buildParsed();
+      return PARSER.parseFrom(data);
     }
     public static com.google.nigori.common.NigoriMessages.GetRequest parseFrom(
         com.google.protobuf.ByteString data,
         com.google.protobuf.ExtensionRegistryLite extensionRegistry)
         throws com.google.protobuf.InvalidProtocolBufferException {
-      return newBuilder().mergeFrom(data, extensionRegistry)
-               .buildParsed();
+      return PARSER.parseFrom(data, extensionRegistry);
     }
     public static com.google.nigori.common.NigoriMessages.GetRequest parseFrom(byte[] data)
         throws com.google.protobuf.InvalidProtocolBufferException {
-      return newBuilder().mergeFrom(data).buildParsed();
+      return PARSER.parseFrom(data);
     }
     public static com.google.nigori.common.NigoriMessages.GetRequest parseFrom(
         byte[] data,
         com.google.protobuf.ExtensionRegistryLite extensionRegistry)
         throws com.google.protobuf.InvalidProtocolBufferException {
-      return newBuilder().mergeFrom(data, extensionRegistry)
-               .buildParsed();
+      return PARSER.parseFrom(data, extensionRegistry);
     }
     public static com.google.nigori.common.NigoriMessages.GetRequest parseFrom(java.io.InputStream input)
         throws java.io.IOException {
-      return newBuilder().mergeFrom(input).buildParsed();
+      return PARSER.parseFrom(input);
     }
     public static com.google.nigori.common.NigoriMessages.GetRequest parseFrom(
         java.io.InputStream input,
         com.google.protobuf.ExtensionRegistryLite extensionRegistry)
         throws java.io.IOException {
-      return newBuilder().mergeFrom(input, extensionRegistry)
-               .buildParsed();
+      return PARSER.parseFrom(input, extensionRegistry);
     }
     public static com.google.nigori.common.NigoriMessages.GetRequest parseDelimitedFrom(java.io.InputStream input)
         throws java.io.IOException {
-      Builder builder = newBuilder();
-      if (builder.mergeDelimitedFrom(input)) {
-        return builder.buildParsed();
-      } else {
-        return null;
-      }
+      return PARSER.parseDelimitedFrom(input);
     }
     public static com.google.nigori.common.NigoriMessages.GetRequest parseDelimitedFrom(
         java.io.InputStream input,
         com.google.protobuf.ExtensionRegistryLite extensionRegistry)
         throws java.io.IOException {
-      Builder builder = newBuilder();
-      if (builder.mergeDelimitedFrom(input, extensionRegistry)) {
-        return builder.buildParsed();
-      } else {
-        return null;
-      }
+      return PARSER.parseDelimitedFrom(input, extensionRegistry);
     }
     public static com.google.nigori.common.NigoriMessages.GetRequest parseFrom(
         com.google.protobuf.CodedInputStream input)
         throws java.io.IOException {
-      return newBuilder().mergeFrom(input).buildParsed();
+      return PARSER.parseFrom(input);
     }
     public static com.google.nigori.common.NigoriMessages.GetRequest parseFrom(
         com.google.protobuf.CodedInputStream input,
         com.google.protobuf.ExtensionRegistryLite extensionRegistry)
         throws java.io.IOException {
-      return newBuilder().mergeFrom(input, extensionRegistry)
-               .buildParsed();
+      return PARSER.parseFrom(input, extensionRegistry);
     }
-    
+
     public static Builder newBuilder() { return Builder.create(); }
     public Builder newBuilderForType() { return newBuilder(); }
     public static Builder newBuilder(com.google.nigori.common.NigoriMessages.GetRequest prototype) {
       return newBuilder().mergeFrom(prototype);
     }
     public Builder toBuilder() { return newBuilder(this); }
-    
+
     @java.lang.Override
     protected Builder newBuilderForType(
         com.google.protobuf.GeneratedMessage.BuilderParent parent) {
       Builder builder = new Builder(parent);
       return builder;
     }
+    /**
+     * Protobuf type {@code nigori.GetRequest}
+     */
     public static final class Builder extends
-        com.google.protobuf.GeneratedMessage.Builder<Builder>
-       implements com.google.nigori.common.NigoriMessages.GetRequestOrBuilder {
+        com.google.protobuf.GeneratedMessage.Builder<Builder> implements
+        // @@protoc_insertion_point(builder_implements:nigori.GetRequest)
+        com.google.nigori.common.NigoriMessages.GetRequestOrBuilder {
       public static final com.google.protobuf.Descriptors.Descriptor
           getDescriptor() {
         return com.google.nigori.common.NigoriMessages.internal_static_nigori_GetRequest_descriptor;
       }
-      
+
       protected com.google.protobuf.GeneratedMessage.FieldAccessorTable
           internalGetFieldAccessorTable() {
-        return com.google.nigori.common.NigoriMessages.internal_static_nigori_GetRequest_fieldAccessorTable;
+        return com.google.nigori.common.NigoriMessages.internal_static_nigori_GetRequest_fieldAccessorTable
+            .ensureFieldAccessorsInitialized(
+                com.google.nigori.common.NigoriMessages.GetRequest.class, com.google.nigori.common.NigoriMessages.GetRequest.Builder.class);
       }
-      
+
       // Construct using com.google.nigori.common.NigoriMessages.GetRequest.newBuilder()
       private Builder() {
         maybeForceBuilderInitialization();
       }
-      
-      private Builder(BuilderParent parent) {
+
+      private Builder(
+          com.google.protobuf.GeneratedMessage.BuilderParent parent) {
         super(parent);
         maybeForceBuilderInitialization();
       }
@@ -2119,7 +2945,7 @@ public final class NigoriMessages {
       private static Builder create() {
         return new Builder();
       }
-      
+
       public Builder clear() {
         super.clear();
         if (authBuilder_ == null) {
@@ -2132,22 +2958,24 @@ public final class NigoriMessages {
         bitField0_ = (bitField0_ & ~0x00000002);
         revision_ = com.google.protobuf.ByteString.EMPTY;
         bitField0_ = (bitField0_ & ~0x00000004);
+        fingerprint_ = com.google.protobuf.ByteString.EMPTY;
+        bitField0_ = (bitField0_ & ~0x00000008);
         return this;
       }
-      
+
       public Builder clone() {
         return create().mergeFrom(buildPartial());
       }
-      
+
       public com.google.protobuf.Descriptors.Descriptor
           getDescriptorForType() {
-        return com.google.nigori.common.NigoriMessages.GetRequest.getDescriptor();
+        return com.google.nigori.common.NigoriMessages.internal_static_nigori_GetRequest_descriptor;
       }
-      
+
       public com.google.nigori.common.NigoriMessages.GetRequest getDefaultInstanceForType() {
         return com.google.nigori.common.NigoriMessages.GetRequest.getDefaultInstance();
       }
-      
+
       public com.google.nigori.common.NigoriMessages.GetRequest build() {
         com.google.nigori.common.NigoriMessages.GetRequest result = buildPartial();
         if (!result.isInitialized()) {
@@ -2155,17 +2983,7 @@ public final class NigoriMessages {
         }
         return result;
       }
-      
-      private com.google.nigori.common.NigoriMessages.GetRequest buildParsed()
-          throws com.google.protobuf.InvalidProtocolBufferException {
-        com.google.nigori.common.NigoriMessages.GetRequest result = buildPartial();
-        if (!result.isInitialized()) {
-          throw newUninitializedMessageException(
-            result).asInvalidProtocolBufferException();
-        }
-        return result;
-      }
-      
+
       public com.google.nigori.common.NigoriMessages.GetRequest buildPartial() {
         com.google.nigori.common.NigoriMessages.GetRequest result = new com.google.nigori.common.NigoriMessages.GetRequest(this);
         int from_bitField0_ = bitField0_;
@@ -2186,11 +3004,15 @@ public final class NigoriMessages {
           to_bitField0_ |= 0x00000004;
         }
         result.revision_ = revision_;
+        if (((from_bitField0_ & 0x00000008) == 0x00000008)) {
+          to_bitField0_ |= 0x00000008;
+        }
+        result.fingerprint_ = fingerprint_;
         result.bitField0_ = to_bitField0_;
         onBuilt();
         return result;
       }
-      
+
       public Builder mergeFrom(com.google.protobuf.Message other) {
         if (other instanceof com.google.nigori.common.NigoriMessages.GetRequest) {
           return mergeFrom((com.google.nigori.common.NigoriMessages.GetRequest)other);
@@ -2199,7 +3021,7 @@ public final class NigoriMessages {
           return this;
         }
       }
-      
+
       public Builder mergeFrom(com.google.nigori.common.NigoriMessages.GetRequest other) {
         if (other == com.google.nigori.common.NigoriMessages.GetRequest.getDefaultInstance()) return this;
         if (other.hasAuth()) {
@@ -2211,10 +3033,13 @@ public final class NigoriMessages {
         if (other.hasRevision()) {
           setRevision(other.getRevision());
         }
+        if (other.hasFingerprint()) {
+          setFingerprint(other.getFingerprint());
+        }
         this.mergeUnknownFields(other.getUnknownFields());
         return this;
       }
-      
+
       public final boolean isInitialized() {
         if (!hasAuth()) {
           
@@ -2230,62 +3055,38 @@ public final class NigoriMessages {
         }
         return true;
       }
-      
+
       public Builder mergeFrom(
           com.google.protobuf.CodedInputStream input,
           com.google.protobuf.ExtensionRegistryLite extensionRegistry)
           throws java.io.IOException {
-        com.google.protobuf.UnknownFieldSet.Builder unknownFields =
-          com.google.protobuf.UnknownFieldSet.newBuilder(
-            this.getUnknownFields());
-        while (true) {
-          int tag = input.readTag();
-          switch (tag) {
-            case 0:
-              this.setUnknownFields(unknownFields.build());
-              onChanged();
-              return this;
-            default: {
-              if (!parseUnknownField(input, unknownFields,
-                                     extensionRegistry, tag)) {
-                this.setUnknownFields(unknownFields.build());
-                onChanged();
-                return this;
-              }
-              break;
-            }
-            case 10: {
-              com.google.nigori.common.NigoriMessages.AuthenticateRequest.Builder subBuilder = com.google.nigori.common.NigoriMessages.AuthenticateRequest.newBuilder();
-              if (hasAuth()) {
-                subBuilder.mergeFrom(getAuth());
-              }
-              input.readMessage(subBuilder, extensionRegistry);
-              setAuth(subBuilder.buildPartial());
-              break;
-            }
-            case 18: {
-              bitField0_ |= 0x00000002;
-              key_ = input.readBytes();
-              break;
-            }
-            case 26: {
-              bitField0_ |= 0x00000004;
-              revision_ = input.readBytes();
-              break;
-            }
+        com.google.nigori.common.NigoriMessages.GetRequest parsedMessage = null;
+        try {
+          parsedMessage = PARSER.parsePartialFrom(input, extensionRegistry);
+        } catch (com.google.protobuf.InvalidProtocolBufferException e) {
+          parsedMessage = (com.google.nigori.common.NigoriMessages.GetRequest) e.getUnfinishedMessage();
+          throw e;
+        } finally {
+          if (parsedMessage != null) {
+            mergeFrom(parsedMessage);
           }
         }
+        return this;
       }
-      
       private int bitField0_;
-      
-      // required .nigori.AuthenticateRequest auth = 1;
+
       private com.google.nigori.common.NigoriMessages.AuthenticateRequest auth_ = com.google.nigori.common.NigoriMessages.AuthenticateRequest.getDefaultInstance();
       private com.google.protobuf.SingleFieldBuilder<
           com.google.nigori.common.NigoriMessages.AuthenticateRequest, com.google.nigori.common.NigoriMessages.AuthenticateRequest.Builder, com.google.nigori.common.NigoriMessages.AuthenticateRequestOrBuilder> authBuilder_;
+      /**
+       * <code>required .nigori.AuthenticateRequest auth = 1;</code>
+       */
       public boolean hasAuth() {
         return ((bitField0_ & 0x00000001) == 0x00000001);
       }
+      /**
+       * <code>required .nigori.AuthenticateRequest auth = 1;</code>
+       */
       public com.google.nigori.common.NigoriMessages.AuthenticateRequest getAuth() {
         if (authBuilder_ == null) {
           return auth_;
@@ -2293,6 +3094,9 @@ public final class NigoriMessages {
           return authBuilder_.getMessage();
         }
       }
+      /**
+       * <code>required .nigori.AuthenticateRequest auth = 1;</code>
+       */
       public Builder setAuth(com.google.nigori.common.NigoriMessages.AuthenticateRequest value) {
         if (authBuilder_ == null) {
           if (value == null) {
@@ -2306,6 +3110,9 @@ public final class NigoriMessages {
         bitField0_ |= 0x00000001;
         return this;
       }
+      /**
+       * <code>required .nigori.AuthenticateRequest auth = 1;</code>
+       */
       public Builder setAuth(
           com.google.nigori.common.NigoriMessages.AuthenticateRequest.Builder builderForValue) {
         if (authBuilder_ == null) {
@@ -2317,6 +3124,9 @@ public final class NigoriMessages {
         bitField0_ |= 0x00000001;
         return this;
       }
+      /**
+       * <code>required .nigori.AuthenticateRequest auth = 1;</code>
+       */
       public Builder mergeAuth(com.google.nigori.common.NigoriMessages.AuthenticateRequest value) {
         if (authBuilder_ == null) {
           if (((bitField0_ & 0x00000001) == 0x00000001) &&
@@ -2333,6 +3143,9 @@ public final class NigoriMessages {
         bitField0_ |= 0x00000001;
         return this;
       }
+      /**
+       * <code>required .nigori.AuthenticateRequest auth = 1;</code>
+       */
       public Builder clearAuth() {
         if (authBuilder_ == null) {
           auth_ = com.google.nigori.common.NigoriMessages.AuthenticateRequest.getDefaultInstance();
@@ -2343,11 +3156,17 @@ public final class NigoriMessages {
         bitField0_ = (bitField0_ & ~0x00000001);
         return this;
       }
+      /**
+       * <code>required .nigori.AuthenticateRequest auth = 1;</code>
+       */
       public com.google.nigori.common.NigoriMessages.AuthenticateRequest.Builder getAuthBuilder() {
         bitField0_ |= 0x00000001;
         onChanged();
         return getAuthFieldBuilder().getBuilder();
       }
+      /**
+       * <code>required .nigori.AuthenticateRequest auth = 1;</code>
+       */
       public com.google.nigori.common.NigoriMessages.AuthenticateRequestOrBuilder getAuthOrBuilder() {
         if (authBuilder_ != null) {
           return authBuilder_.getMessageOrBuilder();
@@ -2355,28 +3174,39 @@ public final class NigoriMessages {
           return auth_;
         }
       }
+      /**
+       * <code>required .nigori.AuthenticateRequest auth = 1;</code>
+       */
       private com.google.protobuf.SingleFieldBuilder<
           com.google.nigori.common.NigoriMessages.AuthenticateRequest, com.google.nigori.common.NigoriMessages.AuthenticateRequest.Builder, com.google.nigori.common.NigoriMessages.AuthenticateRequestOrBuilder> 
           getAuthFieldBuilder() {
         if (authBuilder_ == null) {
           authBuilder_ = new com.google.protobuf.SingleFieldBuilder<
               com.google.nigori.common.NigoriMessages.AuthenticateRequest, com.google.nigori.common.NigoriMessages.AuthenticateRequest.Builder, com.google.nigori.common.NigoriMessages.AuthenticateRequestOrBuilder>(
-                  auth_,
+                  getAuth(),
                   getParentForChildren(),
                   isClean());
           auth_ = null;
         }
         return authBuilder_;
       }
-      
-      // required bytes key = 2;
+
       private com.google.protobuf.ByteString key_ = com.google.protobuf.ByteString.EMPTY;
+      /**
+       * <code>required bytes key = 2;</code>
+       */
       public boolean hasKey() {
         return ((bitField0_ & 0x00000002) == 0x00000002);
       }
+      /**
+       * <code>required bytes key = 2;</code>
+       */
       public com.google.protobuf.ByteString getKey() {
         return key_;
       }
+      /**
+       * <code>required bytes key = 2;</code>
+       */
       public Builder setKey(com.google.protobuf.ByteString value) {
         if (value == null) {
     throw new NullPointerException();
@@ -2386,21 +3216,32 @@ public final class NigoriMessages {
         onChanged();
         return this;
       }
+      /**
+       * <code>required bytes key = 2;</code>
+       */
       public Builder clearKey() {
         bitField0_ = (bitField0_ & ~0x00000002);
         key_ = getDefaultInstance().getKey();
         onChanged();
         return this;
       }
-      
-      // optional bytes revision = 3;
+
       private com.google.protobuf.ByteString revision_ = com.google.protobuf.ByteString.EMPTY;
+      /**
+       * <code>optional bytes revision = 3;</code>
+       */
       public boolean hasRevision() {
         return ((bitField0_ & 0x00000004) == 0x00000004);
       }
+      /**
+       * <code>optional bytes revision = 3;</code>
+       */
       public com.google.protobuf.ByteString getRevision() {
         return revision_;
       }
+      /**
+       * <code>optional bytes revision = 3;</code>
+       */
       public Builder setRevision(com.google.protobuf.ByteString value) {
         if (value == null) {
     throw new NullPointerException();
@@ -2410,110 +3251,345 @@ public final class NigoriMessages {
         onChanged();
         return this;
       }
+      /**
+       * <code>optional bytes revision = 3;</code>
+       */
       public Builder clearRevision() {
         bitField0_ = (bitField0_ & ~0x00000004);
         revision_ = getDefaultInstance().getRevision();
         onChanged();
         return this;
       }
-      
+
+      private com.google.protobuf.ByteString fingerprint_ = com.google.protobuf.ByteString.EMPTY;
+      /**
+       * <code>optional bytes fingerprint = 4;</code>
+       *
+       * <pre>
+       * RevisionFingerprint of the revisions whose values the client already has
+       * </pre>
+       */
+      public boolean hasFingerprint() {
+        return ((bitField0_ & 0x00000008) == 0x00000008);
+      }
+      /**
+       * <code>optional bytes fingerprint = 4;</code>
+       *
+       * <pre>
+       * RevisionFingerprint of the revisions whose values the client already has
+       * </pre>
+       */
+      public com.google.protobuf.ByteString getFingerprint() {
+        return fingerprint_;
+      }
+      /**
+       * <code>optional bytes fingerprint = 4;</code>
+       *
+       * <pre>
+       * RevisionFingerprint of the revisions whose values the client already has
+       * </pre>
+       */
+      public Builder setFingerprint(com.google.protobuf.ByteString value) {
+        if (value == null) {
+    throw new NullPointerException();
+  }
+  bitField0_ |= 0x00000008;
+        fingerprint_ = value;
+        onChanged();
+        return this;
+      }
+      /**
+       * <code>optional bytes fingerprint = 4;</code>
+       *
+       * <pre>
+       * RevisionFingerprint of the revisions whose values the client already has
+       * </pre>
+       */
+      public Builder clearFingerprint() {
+        bitField0_ = (bitField0_ & ~0x00000008);
+        fingerprint_ = getDefaultInstance().getFingerprint();
+        onChanged();
+        return this;
+      }
+
       // @@protoc_insertion_point(builder_scope:nigori.GetRequest)
     }
-    
+
     static {
       defaultInstance = new GetRequest(true);
       defaultInstance.initFields();
     }
-    
+
     // @@protoc_insertion_point(class_scope:nigori.GetRequest)
   }
-  
-  public interface GetResponseOrBuilder
-      extends com.google.protobuf.MessageOrBuilder {
-    
-    // repeated .nigori.RevisionValue revisions = 1;
+
+  public interface GetResponseOrBuilder extends
+      // @@protoc_insertion_point(interface_extends:nigori.GetResponse)
+      com.google.protobuf.MessageOrBuilder {
+
+    /**
+     * <code>repeated .nigori.RevisionValue revisions = 1;</code>
+     */
     java.util.List<com.google.nigori.common.NigoriMessages.RevisionValue> 
         getRevisionsList();
+    /**
+     * <code>repeated .nigori.RevisionValue revisions = 1;</code>
+     */
     com.google.nigori.common.NigoriMessages.RevisionValue getRevisions(int index);
+    /**
+     * <code>repeated .nigori.RevisionValue revisions = 1;</code>
+     */
     int getRevisionsCount();
+    /**
+     * <code>repeated .nigori.RevisionValue revisions = 1;</code>
+     */
     java.util.List<? extends com.google.nigori.common.NigoriMessages.RevisionValueOrBuilder> 
         getRevisionsOrBuilderList();
+    /**
+     * <code>repeated .nigori.RevisionValue revisions = 1;</code>
+     */
     com.google.nigori.common.NigoriMessages.RevisionValueOrBuilder getRevisionsOrBuilder(
         int index);
-    
-    // optional bytes key = 2;
+
+    /**
+     * <code>optional bytes key = 2;</code>
+     *
+     * <pre>
+     * optional as may want to keep packet size down.
+     * </pre>
+     */
     boolean hasKey();
+    /**
+     * <code>optional bytes key = 2;</code>
+     *
+     * <pre>
+     * optional as may want to keep packet size down.
+     * </pre>
+     */
     com.google.protobuf.ByteString getKey();
+
+    /**
+     * <code>optional bool partial = 3;</code>
+     *
+     * <pre>
+     * Only the revisions missing from the request's fingerprint are included, none if not modified
+     * </pre>
+     */
+    boolean hasPartial();
+    /**
+     * <code>optional bool partial = 3;</code>
+     *
+     * <pre>
+     * Only the revisions missing from the request's fingerprint are included, none if not modified
+     * </pre>
+     */
+    boolean getPartial();
   }
+  /**
+   * Protobuf type {@code nigori.GetResponse}
+   */
   public static final class GetResponse extends
-      com.google.protobuf.GeneratedMessage
-      implements GetResponseOrBuilder {
+      com.google.protobuf.GeneratedMessage implements
+      // @@protoc_insertion_point(message_implements:nigori.GetResponse)
+      GetResponseOrBuilder {
     // Use GetResponse.newBuilder() to construct.
-    private GetResponse(Builder builder) {
+    private GetResponse(com.google.protobuf.GeneratedMessage.Builder<?> builder) {
       super(builder);
+      this.unknownFields = builder.getUnknownFields();
     }
-    private GetResponse(boolean noInit) {}
-    
+    private GetResponse(boolean noInit) { this.unknownFields = com.google.protobuf.UnknownFieldSet.getDefaultInstance(); }
+
     private static final GetResponse defaultInstance;
     public static GetResponse getDefaultInstance() {
       return defaultInstance;
     }
-    
+
     public GetResponse getDefaultInstanceForType() {
       return defaultInstance;
     }
-    
+
+    private final com.google.protobuf.UnknownFieldSet unknownFields;
+    @java.lang.Override
+    public final com.google.protobuf.UnknownFieldSet
+        getUnknownFields() {
+      return this.unknownFields;
+    }
+    private GetResponse(
+        com.google.protobuf.CodedInputStream input,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws com.google.protobuf.InvalidProtocolBufferException {
+      initFields();
+      int mutable_bitField0_ = 0;
+      com.google.protobuf.UnknownFieldSet.Builder unknownFields =
+          com.google.protobuf.UnknownFieldSet.newBuilder();
+      try {
+        boolean done = false;
+        while (!done) {
+          int tag = input.readTag();
+          switch (tag) {
+            case 0:
+              done = true;
+              break;
+            default: {
+              if (!parseUnknownField(input, unknownFields,
+                                     extensionRegistry, tag)) {
+                done = true;
+              }
+              break;
+            }
+            case 10: {
+              if (!((mutable_bitField0_ & 0x00000001) == 0x00000001)) {
+                revisions_ = new java.util.ArrayList<com.google.nigori.common.NigoriMessages.RevisionValue>();
+                mutable_bitField0_ |= 0x00000001;
+              }
+              revisions_.add(input.readMessage(com.google.nigori.common.NigoriMessages.RevisionValue.PARSER, extensionRegistry));
+              break;
+            }
+            case 18: {
+              bitField0_ |= 0x00000001;
+              key_ = input.readBytes();
+              break;
+            }
+            case 24: {
+              bitField0_ |= 0x00000002;
+              partial_ = input.readBool();
+              break;
+            }
+          }
+        }
+      } catch (com.google.protobuf.InvalidProtocolBufferException e) {
+        throw e.setUnfinishedMessage(this);
+      } catch (java.io.IOException e) {
+        throw new com.google.protobuf.InvalidProtocolBufferException(
+            e.getMessage()).setUnfinishedMessage(this);
+      } finally {
+        if (((mutable_bitField0_ & 0x00000001) == 0x00000001)) {
+          revisions_ = java.util.Collections.unmodifiableList(revisions_);
+        }
+        this.unknownFields = unknownFields.build();
+        makeExtensionsImmutable();
+      }
+    }
     public static final com.google.protobuf.Descriptors.Descriptor
         getDescriptor() {
       return com.google.nigori.common.NigoriMessages.internal_static_nigori_GetResponse_descriptor;
     }
-    
+
     protected com.google.protobuf.GeneratedMessage.FieldAccessorTable
         internalGetFieldAccessorTable() {
-      return com.google.nigori.common.NigoriMessages.internal_static_nigori_GetResponse_fieldAccessorTable;
+      return com.google.nigori.common.NigoriMessages.internal_static_nigori_GetResponse_fieldAccessorTable
+          .ensureFieldAccessorsInitialized(
+              com.google.nigori.common.NigoriMessages.GetResponse.class, com.google.nigori.common.NigoriMessages.GetResponse.Builder.class);
+    }
+
+    public static com.google.protobuf.Parser<GetResponse> PARSER =
+        new com.google.protobuf.AbstractParser<GetResponse>() {
+      public GetResponse parsePartialFrom(
+          com.google.protobuf.CodedInputStream input,
+          com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+          throws com.google.protobuf.InvalidProtocolBufferException {
+        return new GetResponse(input, extensionRegistry);
+      }
+    };
+
+    @java.lang.Override
+    public com.google.protobuf.Parser<GetResponse> getParserForType() {
+      return PARSER;
     }
-    
+
     private int bitField0_;
-    // repeated .nigori.RevisionValue revisions = 1;
     public static final int REVISIONS_FIELD_NUMBER = 1;
     private java.util.List<com.google.nigori.common.NigoriMessages.RevisionValue> revisions_;
+    /**
+     * <code>repeated .nigori.RevisionValue revisions = 1;</code>
+     */
     public java.util.List<com.google.nigori.common.NigoriMessages.RevisionValue> getRevisionsList() {
       return revisions_;
     }
+    /**
+     * <code>repeated .nigori.RevisionValue revisions = 1;</code>
+     */
     public java.util.List<? extends com.google.nigori.common.NigoriMessages.RevisionValueOrBuilder> 
         getRevisionsOrBuilderList() {
       return revisions_;
     }
+    /**
+     * <code>repeated .nigori.RevisionValue revisions = 1;</code>
+     */
     public int getRevisionsCount() {
       return revisions_.size();
     }
+    /**
+     * <code>repeated .nigori.RevisionValue revisions = 1;</code>
+     */
     public com.google.nigori.common.NigoriMessages.RevisionValue getRevisions(int index) {
       return revisions_.get(index);
     }
+    /**
+     * <code>repeated .nigori.RevisionValue revisions = 1;</code>
+     */
     public com.google.nigori.common.NigoriMessages.RevisionValueOrBuilder getRevisionsOrBuilder(
         int index) {
       return revisions_.get(index);
     }
-    
-    // optional bytes key = 2;
+
     public static final int KEY_FIELD_NUMBER = 2;
     private com.google.protobuf.ByteString key_;
+    /**
+     * <code>optional bytes key = 2;</code>
+     *
+     * <pre>
+     * optional as may want to keep packet size down.
+     * </pre>
+     */
     public boolean hasKey() {
       return ((bitField0_ & 0x00000001) == 0x00000001);
     }
+    /**
+     * <code>optional bytes key = 2;</code>
+     *
+     * <pre>
+     * optional as may want to keep packet size down.
+     * </pre>
+     */
     public com.google.protobuf.ByteString getKey() {
       return key_;
     }
-    
+
+    public static final int PARTIAL_FIELD_NUMBER = 3;
+    private boolean partial_;
+    /**
+     * <code>optional bool partial = 3;</code>
+     *
+     * <pre>
+     * Only the revisions missing from the request's fingerprint are included, none if not modified
+     * </pre>
+     */
+    public boolean hasPartial() {
+      return ((bitField0_ & 0x00000002) == 0x00000002);
+    }
+    /**
+     * <code>optional bool partial = 3;</code>
+     *
+     * <pre>
+     * Only the revisions missing from the request's fingerprint are included, none if not modified
+     * </pre>
+     */
+    public boolean getPartial() {
+      return partial_;
+    }
+
     private void initFields() {
       revisions_ = java.util.Collections.emptyList();
       key_ = com.google.protobuf.ByteString.EMPTY;
+      partial_ = false;
     }
     private byte memoizedIsInitialized = -1;
     public final boolean isInitialized() {
       byte isInitialized = memoizedIsInitialized;
-      if (isInitialized != -1) return isInitialized == 1;
-      
+      if (isInitialized == 1) return true;
+      if (isInitialized == 0) return false;
+
       for (int i = 0; i < getRevisionsCount(); i++) {
         if (!getRevisions(i).isInitialized()) {
           memoizedIsInitialized = 0;
@@ -2523,7 +3599,7 @@ public final class NigoriMessages {
       memoizedIsInitialized = 1;
       return true;
     }
-    
+
     public void writeTo(com.google.protobuf.CodedOutputStream output)
                         throws java.io.IOException {
       getSerializedSize();
@@ -2533,14 +3609,17 @@ public final class NigoriMessages {
       if (((bitField0_ & 0x00000001) == 0x00000001)) {
         output.writeBytes(2, key_);
       }
+      if (((bitField0_ & 0x00000002) == 0x00000002)) {
+        output.writeBool(3, partial_);
+      }
       getUnknownFields().writeTo(output);
     }
-    
+
     private int memoizedSerializedSize = -1;
     public int getSerializedSize() {
       int size = memoizedSerializedSize;
       if (size != -1) return size;
-    
+
       size = 0;
       for (int i = 0; i < revisions_.size(); i++) {
         size += com.google.protobuf.CodedOutputStream
@@ -2550,115 +3629,114 @@ public final class NigoriMessages {
         size += com.google.protobuf.CodedOutputStream
           .computeBytesSize(2, key_);
       }
+      if (((bitField0_ & 0x00000002) == 0x00000002)) {
+        size += com.google.protobuf.CodedOutputStream
+          .computeBoolSize(3, partial_);
+      }
       size += getUnknownFields().getSerializedSize();
       memoizedSerializedSize = size;
       return size;
     }
-    
+
+    private static final long serialVersionUID = 0L;
     @java.lang.Override
-    protected Object writeReplace() throws java.io.ObjectStreamException {
+    protected java.lang.Object writeReplace()
+        throws java.io.ObjectStreamException {
       return super.writeReplace();
     }
-    
+
     public static com.google.nigori.common.NigoriMessages.GetResponse parseFrom(
         com.google.protobuf.ByteString data)
         throws com.google.protobuf.InvalidProtocolBufferException {
-      return newBuilder().mergeFrom(data).buildParsed();
+      return PARSER.parseFrom(data);
     }
     public static com.google.nigori.common.NigoriMessages.GetResponse parseFrom(
         com.google.protobuf.ByteString data,
         com.google.protobuf.ExtensionRegistryLite extensionRegistry)
         throws com.google.protobuf.InvalidProtocolBufferException {
-      return newBuilder().mergeFrom(data, extensionRegistry)
-               .buildParsed();
+      return PARSER.parseFrom(data, extensionRegistry);
     }
     public static com.google.nigori.common.NigoriMessages.GetResponse parseFrom(byte[] data)
         throws com.google.protobuf.InvalidProtocolBufferException {
-      return newBuilder().mergeFrom(data).buildParsed();
+      return PARSER.parseFrom(data);
     }
     public static com.google.nigori.common.NigoriMessages.GetResponse parseFrom(
         byte[] data,
         com.google.protobuf.ExtensionRegistryLite extensionRegistry)
         throws com.google.protobuf.InvalidProtocolBufferException {
-      return newBuilder().mergeFrom(data, extensionRegistry)
-               .buildParsed();
+      return PARSER.parseFrom(data, extensionRegistry);
     }
     public static com.google.nigori.common.NigoriMessages.GetResponse parseFrom(java.io.InputStream input)
         throws java.io.IOException {
-      return newBuilder().mergeFrom(input).buildParsed();
+      return PARSER.parseFrom(input);
     }
     public static com.google.nigori.common.NigoriMessages.GetResponse parseFrom(
         java.io.InputStream input,
         com.google.protobuf.ExtensionRegistryLite extensionRegistry)
         throws java.io.IOException {
-      return newBuilder().mergeFrom(input, extensionRegistry)
-               .buildParsed();
+      return PARSER.parseFrom(input, extensionRegistry);
     }
     public static com.google.nigori.common.NigoriMessages.GetResponse parseDelimitedFrom(java.io.InputStream input)
         throws java.io.IOException {
-      Builder builder = newBuilder();
-      if (builder.mergeDelimitedFrom(input)) {
-        return builder.buildParsed();
-      } else {
-        return null;
-      }
+      return PARSER.parseDelimitedFrom(input);
     }
     public static com.google.nigori.common.NigoriMessages.GetResponse parseDelimitedFrom(
         java.io.InputStream input,
         com.google.protobuf.ExtensionRegistryLite extensionRegistry)
         throws java.io.IOException {
-      Builder builder = newBuilder();
-      if (builder.mergeDelimitedFrom(input, extensionRegistry)) {
-        return builder.buildParsed();
-      } else {
-        return null;
-      }
+      return PARSER.parseDelimitedFrom(input, extensionRegistry);
     }
     public static com.google.nigori.common.NigoriMessages.GetResponse parseFrom(
         com.google.protobuf.CodedInputStream input)
         throws java.io.IOException {
-      return newBuilder().mergeFrom(input).buildParsed();
+      return PARSER.parseFrom(input);
     }
     public static com.google.nigori.common.NigoriMessages.GetResponse parseFrom(
         com.google.protobuf.CodedInputStream input,
         com.google.protobuf.ExtensionRegistryLite extensionRegistry)
         throws java.io.IOException {
-      return newBuilder().mergeFrom(input, extensionRegistry)
-               .buildParsed();
+      return PARSER.parseFrom(input, extensionRegistry);
     }
-    
+
     public static Builder newBuilder() { return Builder.create(); }
     public Builder newBuilderForType() { return newBuilder(); }
     public static Builder newBuilder(com.google.nigori.common.NigoriMessages.GetResponse prototype) {
       return newBuilder().mergeFrom(prototype);
     }
     public Builder toBuilder() { return newBuilder(this); }
-    
+
     @java.lang.Override
     protected Builder newBuilderForType(
         com.google.protobuf.GeneratedMessage.BuilderParent parent) {
       Builder builder = new Builder(parent);
       return builder;
     }
+    /**
+     * Protobuf type {@code nigori.GetResponse}
+     */
     public static final class Builder extends
-        com.google.protobuf.GeneratedMessage.Builder<Builder>
-       implements com.google.nigori.common.NigoriMessages.GetResponseOrBuilder {
+        com.google.protobuf.GeneratedMessage.Builder<Builder> implements
+        // @@protoc_insertion_point(builder_implements:nigori.GetResponse)
+        com.google.nigori.common.NigoriMessages.GetResponseOrBuilder {
       public static final com.google.protobuf.Descriptors.Descriptor
           getDescriptor() {
         return com.google.nigori.common.NigoriMessages.internal_static_nigori_GetResponse_descriptor;
       }
-      
+
       protected com.google.protobuf.GeneratedMessage.FieldAccessorTable
           internalGetFieldAccessorTable() {
-        return com.google.nigori.common.NigoriMessages.internal_static_nigori_GetResponse_fieldAccessorTable;
+        return com.google.nigori.common.NigoriMessages.internal_static_nigori_GetResponse_fieldAccessorTable
+            .ensureFieldAccessorsInitialized(
+                com.google.nigori.common.NigoriMessages.GetResponse.class, com.google.nigori.common.NigoriMessages.GetResponse.Builder.class);
       }
-      
+
       // Construct using com.google.nigori.common.NigoriMessages.GetResponse.newBuilder()
       private Builder() {
         maybeForceBuilderInitialization();
       }
-      
-      private Builder(BuilderParent parent) {
+
+      private Builder(
+          com.google.protobuf.GeneratedMessage.BuilderParent parent) {
         super(parent);
         maybeForceBuilderInitialization();
       }
@@ -2670,7 +3748,7 @@ public final class NigoriMessages {
       private static Builder create() {
         return new Builder();
       }
-      
+
       public Builder clear() {
         super.clear();
         if (revisionsBuilder_ == null) {
@@ -2681,22 +3759,24 @@ public final class NigoriMessages {
         }
         key_ = com.google.protobuf.ByteString.EMPTY;
         bitField0_ = (bitField0_ & ~0x00000002);
+        partial_ = false;
+        bitField0_ = (bitField0_ & ~0x00000004);
         return this;
       }
-      
+
       public Builder clone() {
         return create().mergeFrom(buildPartial());
       }
-      
+
       public com.google.protobuf.Descriptors.Descriptor
           getDescriptorForType() {
-        return com.google.nigori.common.NigoriMessages.GetResponse.getDescriptor();
+        return com.google.nigori.common.NigoriMessages.internal_static_nigori_GetResponse_descriptor;
       }
-      
+
       public com.google.nigori.common.NigoriMessages.GetResponse getDefaultInstanceForType() {
         return com.google.nigori.common.NigoriMessages.GetResponse.getDefaultInstance();
       }
-      
+
       public com.google.nigori.common.NigoriMessages.GetResponse build() {
         com.google.nigori.common.NigoriMessages.GetResponse result = buildPartial();
         if (!result.isInitialized()) {
@@ -2704,17 +3784,7 @@ public final class NigoriMessages {
         }
         return result;
       }
-      
-      private com.google.nigori.common.NigoriMessages.GetResponse buildParsed()
-          throws com.google.protobuf.InvalidProtocolBufferException {
-        com.google.nigori.common.NigoriMessages.GetResponse result = buildPartial();
-        if (!result.isInitialized()) {
-          throw newUninitializedMessageException(
-            result).asInvalidProtocolBufferException();
-        }
-        return result;
-      }
-      
+
       public com.google.nigori.common.NigoriMessages.GetResponse buildPartial() {
         com.google.nigori.common.NigoriMessages.GetResponse result = new com.google.nigori.common.NigoriMessages.GetResponse(this);
         int from_bitField0_ = bitField0_;
@@ -2732,11 +3802,15 @@ public final class NigoriMessages {
           to_bitField0_ |= 0x00000001;
         }
         result.key_ = key_;
+        if (((from_bitField0_ & 0x00000004) == 0x00000004)) {
+          to_bitField0_ |= 0x00000002;
+        }
+        result.partial_ = partial_;
         result.bitField0_ = to_bitField0_;
         onBuilt();
         return result;
       }
-      
+
       public Builder mergeFrom(com.google.protobuf.Message other) {
         if (other instanceof com.google.nigori.common.NigoriMessages.GetResponse) {
           return mergeFrom((com.google.nigori.common.NigoriMessages.GetResponse)other);
@@ -2745,7 +3819,7 @@ public final class NigoriMessages {
           return this;
         }
       }
-      
+
       public Builder mergeFrom(com.google.nigori.common.NigoriMessages.GetResponse other) {
         if (other == com.google.nigori.common.NigoriMessages.GetResponse.getDefaultInstance()) return this;
         if (revisionsBuilder_ == null) {
@@ -2777,10 +3851,13 @@ public final class NigoriMessages {
         if (other.hasKey()) {
           setKey(other.getKey());
         }
+        if (other.hasPartial()) {
+          setPartial(other.getPartial());
+        }
         this.mergeUnknownFields(other.getUnknownFields());
         return this;
       }
-      
+
       public final boolean isInitialized() {
         for (int i = 0; i < getRevisionsCount(); i++) {
           if (!getRevisions(i).isInitialized()) {
@@ -2790,48 +3867,26 @@ public final class NigoriMessages {
         }
         return true;
       }
-      
+
       public Builder mergeFrom(
           com.google.protobuf.CodedInputStream input,
           com.google.protobuf.ExtensionRegistryLite extensionRegistry)
           throws java.io.IOException {
-        com.google.protobuf.UnknownFieldSet.Builder unknownFields =
-          com.google.protobuf.UnknownFieldSet.newBuilder(
-            this.getUnknownFields());
-        while (true) {
-          int tag = input.readTag();
-          switch (tag) {
-            case 0:
-              this.setUnknownFields(unknownFields.build());
-              onChanged();
-              return this;
-            default: {
-              if (!parseUnknownField(input, unknownFields,
-                                     extensionRegistry, tag)) {
-                this.setUnknownFields(unknownFields.build());
-                onChanged();
-                return this;
-              }
-              break;
-            }
-            case 10: {
-              com.google.nigori.common.NigoriMessages.RevisionValue.Builder subBuilder = com.google.nigori.common.NigoriMessages.RevisionValue.newBuilder();
-              input.readMessage(subBuilder, extensionRegistry);
-              addRevisions(subBuilder.buildPartial());
-              break;
-            }
-            case 18: {
-              bitField0_ |= 0x00000002;
-              key_ = input.readBytes();
-              break;
-            }
+        com.google.nigori.common.NigoriMessages.GetResponse parsedMessage = null;
+        try {
+          parsedMessage = PARSER.parsePartialFrom(input, extensionRegistry);
+        } catch (com.google.protobuf.InvalidProtocolBufferException e) {
+          parsedMessage = (com.google.nigori.common.NigoriMessages.GetResponse) e.getUnfinishedMessage();
+          throw e;
+        } finally {
+          if (parsedMessage != null) {
+            mergeFrom(parsedMessage);
           }
         }
+        return this;
       }
-      
       private int bitField0_;
-      
-      // repeated .nigori.RevisionValue revisions = 1;
+
       private java.util.List<com.google.nigori.common.NigoriMessages.RevisionValue> revisions_ =
         java.util.Collections.emptyList();
       private void ensureRevisionsIsMutable() {
@@ -2840,10 +3895,13 @@ public final class NigoriMessages {
           bitField0_ |= 0x00000001;
          }
       }
-      
+
       private com.google.protobuf.RepeatedFieldBuilder<
           com.google.nigori.common.NigoriMessages.RevisionValue, com.google.nigori.common.NigoriMessages.RevisionValue.Builder, com.google.nigori.common.NigoriMessages.RevisionValueOrBuilder> revisionsBuilder_;
-      
+
+      /**
+       * <code>repeated .nigori.RevisionValue revisions = 1;</code>
+       */
       public java.util.List<com.google.nigori.common.NigoriMessages.RevisionValue> getRevisionsList() {
         if (revisionsBuilder_ == null) {
           return java.util.Collections.unmodifiableList(revisions_);
@@ -2851,6 +3909,9 @@ public final class NigoriMessages {
           return revisionsBuilder_.getMessageList();
         }
       }
+      /**
+       * <code>repeated .nigori.RevisionValue revisions = 1;</code>
+       */
       public int getRevisionsCount() {
         if (revisionsBuilder_ == null) {
           return revisions_.size();
@@ -2858,6 +3919,9 @@ public final class NigoriMessages {
           return revisionsBuilder_.getCount();
         }
       }
+      /**
+       * <code>repeated .nigori.RevisionValue revisions = 1;</code>
+       */
       public com.google.nigori.common.NigoriMessages.RevisionValue getRevisions(int index) {
         if (revisionsBuilder_ == null) {
           return revisions_.get(index);
@@ -2865,6 +3929,9 @@ public final class NigoriMessages {
           return revisionsBuilder_.getMessage(index);
         }
       }
+      /**
+       * <code>repeated .nigori.RevisionValue revisions = 1;</code>
+       */
       public Builder setRevisions(
           int index, com.google.nigori.common.NigoriMessages.RevisionValue value) {
         if (revisionsBuilder_ == null) {
@@ -2879,6 +3946,9 @@ public final class NigoriMessages {
         }
         return this;
       }
+      /**
+       * <code>repeated .nigori.RevisionValue revisions = 1;</code>
+       */
       public Builder setRevisions(
           int index, com.google.nigori.common.NigoriMessages.RevisionValue.Builder builderForValue) {
         if (revisionsBuilder_ == null) {
@@ -2890,6 +3960,9 @@ public final class NigoriMessages {
         }
         return this;
       }
+      /**
+       * <code>repeated .nigori.RevisionValue revisions = 1;</code>
+       */
       public Builder addRevisions(com.google.nigori.common.NigoriMessages.RevisionValue value) {
         if (revisionsBuilder_ == null) {
           if (value == null) {
@@ -2903,6 +3976,9 @@ public final class NigoriMessages {
         }
         return this;
       }
+      /**
+       * <code>repeated .nigori.RevisionValue revisions = 1;</code>
+       */
       public Builder addRevisions(
           int index, com.google.nigori.common.NigoriMessages.RevisionValue value) {
         if (revisionsBuilder_ == null) {
@@ -2917,6 +3993,9 @@ public final class NigoriMessages {
         }
         return this;
       }
+      /**
+       * <code>repeated .nigori.RevisionValue revisions = 1;</code>
+       */
       public Builder addRevisions(
           com.google.nigori.common.NigoriMessages.RevisionValue.Builder builderForValue) {
         if (revisionsBuilder_ == null) {
@@ -2928,6 +4007,9 @@ public final class NigoriMessages {
         }
         return this;
       }
+      /**
+       * <code>repeated .nigori.RevisionValue revisions = 1;</code>
+       */
       public Builder addRevisions(
           int index, com.google.nigori.common.NigoriMessages.RevisionValue.Builder builderForValue) {
         if (revisionsBuilder_ == null) {
@@ -2939,17 +4021,24 @@ public final class NigoriMessages {
         }
         return this;
       }
+      /**
+       * <code>repeated .nigori.RevisionValue revisions = 1;</code>
+       */
       public Builder addAllRevisions(
           java.lang.Iterable<? extends com.google.nigori.common.NigoriMessages.RevisionValue> values) {
         if (revisionsBuilder_ == null) {
           ensureRevisionsIsMutable();
-          super.addAll(values, revisions_);
+          com.google.protobuf.AbstractMessageLite.Builder.addAll(
+              values, revisions_);
           onChanged();
         } else {
           revisionsBuilder_.addAllMessages(values);
         }
         return this;
       }
+      /**
+       * <code>repeated .nigori.RevisionValue revisions = 1;</code>
+       */
       public Builder clearRevisions() {
         if (revisionsBuilder_ == null) {
           revisions_ = java.util.Collections.emptyList();
@@ -2960,6 +4049,9 @@ public final class NigoriMessages {
         }
         return this;
       }
+      /**
+       * <code>repeated .nigori.RevisionValue revisions = 1;</code>
+       */
       public Builder removeRevisions(int index) {
         if (revisionsBuilder_ == null) {
           ensureRevisionsIsMutable();
@@ -2970,10 +4062,16 @@ public final class NigoriMessages {
         }
         return this;
       }
+      /**
+       * <code>repeated .nigori.RevisionValue revisions = 1;</code>
+       */
       public com.google.nigori.common.NigoriMessages.RevisionValue.Builder getRevisionsBuilder(
           int index) {
         return getRevisionsFieldBuilder().getBuilder(index);
       }
+      /**
+       * <code>repeated .nigori.RevisionValue revisions = 1;</code>
+       */
       public com.google.nigori.common.NigoriMessages.RevisionValueOrBuilder getRevisionsOrBuilder(
           int index) {
         if (revisionsBuilder_ == null) {
@@ -2981,6 +4079,9 @@ public final class NigoriMessages {
           return revisionsBuilder_.getMessageOrBuilder(index);
         }
       }
+      /**
+       * <code>repeated .nigori.RevisionValue revisions = 1;</code>
+       */
       public java.util.List<? extends com.google.nigori.common.NigoriMessages.RevisionValueOrBuilder> 
            getRevisionsOrBuilderList() {
         if (revisionsBuilder_ != null) {
@@ -2989,15 +4090,24 @@ public final class NigoriMessages {
           return java.util.Collections.unmodifiableList(revisions_);
         }
       }
+      /**
+       * <code>repeated .nigori.RevisionValue revisions = 1;</code>
+       */
       public com.google.nigori.common.NigoriMessages.RevisionValue.Builder addRevisionsBuilder() {
         return getRevisionsFieldBuilder().addBuilder(
             com.google.nigori.common.NigoriMessages.RevisionValue.getDefaultInstance());
       }
+      /**
+       * <code>repeated .nigori.RevisionValue revisions = 1;</code>
+       */
       public com.google.nigori.common.NigoriMessages.RevisionValue.Builder addRevisionsBuilder(
           int index) {
         return getRevisionsFieldBuilder().addBuilder(
             index, com.google.nigori.common.NigoriMessages.RevisionValue.getDefaultInstance());
       }
+      /**
+       * <code>repeated .nigori.RevisionValue revisions = 1;</code>
+       */
       public java.util.List<com.google.nigori.common.NigoriMessages.RevisionValue.Builder> 
            getRevisionsBuilderList() {
         return getRevisionsFieldBuilder().getBuilderList();
@@ -3016,15 +4126,35 @@ public final class NigoriMessages {
         }
         return revisionsBuilder_;
       }
-      
-      // optional bytes key = 2;
+
       private com.google.protobuf.ByteString key_ = com.google.protobuf.ByteString.EMPTY;
+      /**
+       * <code>optional bytes key = 2;</code>
+       *
+       * <pre>
+       * optional as may want to keep packet size down.
+       * </pre>
+       */
       public boolean hasKey() {
         return ((bitField0_ & 0x00000002) == 0x00000002);
       }
+      /**
+       * <code>optional bytes key = 2;</code>
+       *
+       * <pre>
+       * optional as may want to keep packet size down.
+       * </pre>
+       */
       public com.google.protobuf.ByteString getKey() {
         return key_;
       }
+      /**
+       * <code>optional bytes key = 2;</code>
+       *
+       * <pre>
+       * optional as may want to keep packet size down.
+       * </pre>
+       */
       public Builder setKey(com.google.protobuf.ByteString value) {
         if (value == null) {
     throw new NullPointerException();
@@ -3034,82 +4164,231 @@ public final class NigoriMessages {
         onChanged();
         return this;
       }
+      /**
+       * <code>optional bytes key = 2;</code>
+       *
+       * <pre>
+       * optional as may want to keep packet size down.
+       * </pre>
+       */
       public Builder clearKey() {
         bitField0_ = (bitField0_ & ~0x00000002);
         key_ = getDefaultInstance().getKey();
         onChanged();
         return this;
       }
-      
+
+      private boolean partial_ ;
+      /**
+       * <code>optional bool partial = 3;</code>
+       *
+       * <pre>
+       * Only the revisions missing from the request's fingerprint are included, none if not modified
+       * </pre>
+       */
+      public boolean hasPartial() {
+        return ((bitField0_ & 0x00000004) == 0x00000004);
+      }
+      /**
+       * <code>optional bool partial = 3;</code>
+       *
+       * <pre>
+       * Only the revisions missing from the request's fingerprint are included, none if not modified
+       * </pre>
+       */
+      public boolean getPartial() {
+        return partial_;
+      }
+      /**
+       * <code>optional bool partial = 3;</code>
+       *
+       * <pre>
+       * Only the revisions missing from the request's fingerprint are included, none if not modified
+       * </pre>
+       */
+      public Builder setPartial(boolean value) {
+        bitField0_ |= 0x00000004;
+        partial_ = value;
+        onChanged();
+        return this;
+      }
+      /**
+       * <code>optional bool partial = 3;</code>
+       *
+       * <pre>
+       * Only the revisions missing from the request's fingerprint are included, none if not modified
+       * </pre>
+       */
+      public Builder clearPartial() {
+        bitField0_ = (bitField0_ & ~0x00000004);
+        partial_ = false;
+        onChanged();
+        return this;
+      }
+
       // @@protoc_insertion_point(builder_scope:nigori.GetResponse)
     }
-    
+
     static {
       defaultInstance = new GetResponse(true);
       defaultInstance.initFields();
     }
-    
+
     // @@protoc_insertion_point(class_scope:nigori.GetResponse)
   }
-  
-  public interface GetIndicesRequestOrBuilder
-      extends com.google.protobuf.MessageOrBuilder {
-    
-    // required .nigori.AuthenticateRequest auth = 1;
+
+  public interface GetIndicesRequestOrBuilder extends
+      // @@protoc_insertion_point(interface_extends:nigori.GetIndicesRequest)
+      com.google.protobuf.MessageOrBuilder {
+
+    /**
+     * <code>required .nigori.AuthenticateRequest auth = 1;</code>
+     */
     boolean hasAuth();
+    /**
+     * <code>required .nigori.AuthenticateRequest auth = 1;</code>
+     */
     com.google.nigori.common.NigoriMessages.AuthenticateRequest getAuth();
+    /**
+     * <code>required .nigori.AuthenticateRequest auth = 1;</code>
+     */
     com.google.nigori.common.NigoriMessages.AuthenticateRequestOrBuilder getAuthOrBuilder();
   }
+  /**
+   * Protobuf type {@code nigori.GetIndicesRequest}
+   */
   public static final class GetIndicesRequest extends
-      com.google.protobuf.GeneratedMessage
-      implements GetIndicesRequestOrBuilder {
+      com.google.protobuf.GeneratedMessage implements
+      // @@protoc_insertion_point(message_implements:nigori.GetIndicesRequest)
+      GetIndicesRequestOrBuilder {
     // Use GetIndicesRequest.newBuilder() to construct.
-    private GetIndicesRequest(Builder builder) {
+    private GetIndicesRequest(com.google.protobuf.GeneratedMessage.Builder<?> builder) {
       super(builder);
+      this.unknownFields = builder.getUnknownFields();
     }
-    private GetIndicesRequest(boolean noInit) {}
-    
+    private GetIndicesRequest(boolean noInit) { this.unknownFields = com.google.protobuf.UnknownFieldSet.getDefaultInstance(); }
+
     private static final GetIndicesRequest defaultInstance;
     public static GetIndicesRequest getDefaultInstance() {
       return defaultInstance;
     }
-    
+
     public GetIndicesRequest getDefaultInstanceForType() {
       return defaultInstance;
     }
-    
+
+    private final com.google.protobuf.UnknownFieldSet unknownFields;
+    @java.lang.Override
+    public final com.google.protobuf.UnknownFieldSet
+        getUnknownFields() {
+      return this.unknownFields;
+    }
+    private GetIndicesRequest(
+        com.google.protobuf.CodedInputStream input,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws com.google.protobuf.InvalidProtocolBufferException {
+      initFields();
+      int mutable_bitField0_ = 0;
+      com.google.protobuf.UnknownFieldSet.Builder unknownFields =
+          com.google.protobuf.UnknownFieldSet.newBuilder();
+      try {
+        boolean done = false;
+        while (!done) {
+          int tag = input.readTag();
+          switch (tag) {
+            case 0:
+              done = true;
+              break;
+            default: {
+              if (!parseUnknownField(input, unknownFields,
+                                     extensionRegistry, tag)) {
+                done = true;
+              }
+              break;
+            }
+            case 10: {
+              com.google.nigori.common.NigoriMessages.AuthenticateRequest.Builder subBuilder = null;
+              if (((bitField0_ & 0x00000001) == 0x00000001)) {
+                subBuilder = auth_.toBuilder();
+              }
+              auth_ = input.readMessage(com.google.nigori.common.NigoriMessages.AuthenticateRequest.PARSER, extensionRegistry);
+              if (subBuilder != null) {
+                subBuilder.mergeFrom(auth_);
+                auth_ = subBuilder.buildPartial();
+              }
+              bitField0_ |= 0x00000001;
+              break;
+            }
+          }
+        }
+      } catch (com.google.protobuf.InvalidProtocolBufferException e) {
+        throw e.setUnfinishedMessage(this);
+      } catch (java.io.IOException e) {
+        throw new com.google.protobuf.InvalidProtocolBufferException(
+            e.getMessage()).setUnfinishedMessage(this);
+      } finally {
+        this.unknownFields = unknownFields.build();
+        makeExtensionsImmutable();
+      }
+    }
     public static final com.google.protobuf.Descriptors.Descriptor
         getDescriptor() {
       return com.google.nigori.common.NigoriMessages.internal_static_nigori_GetIndicesRequest_descriptor;
     }
-    
+
     protected com.google.protobuf.GeneratedMessage.FieldAccessorTable
         internalGetFieldAccessorTable() {
-      return com.google.nigori.common.NigoriMessages.internal_static_nigori_GetIndicesRequest_fieldAccessorTable;
+      return com.google.nigori.common.NigoriMessages.internal_static_nigori_GetIndicesRequest_fieldAccessorTable
+          .ensureFieldAccessorsInitialized(
+              com.google.nigori.common.NigoriMessages.GetIndicesRequest.class, com.google.nigori.common.NigoriMessages.GetIndicesRequest.Builder.class);
+    }
+
+    public static com.google.protobuf.Parser<GetIndicesRequest> PARSER =
+        new com.google.protobuf.AbstractParser<GetIndicesRequest>() {
+      public GetIndicesRequest parsePartialFrom(
+          com.google.protobuf.CodedInputStream input,
+          com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+          throws com.google.protobuf.InvalidProtocolBufferException {
+        return new GetIndicesRequest(input, extensionRegistry);
+      }
+    };
+
+    @java.lang.Override
+    public com.google.protobuf.Parser<GetIndicesRequest> getParserForType() {
+      return PARSER;
     }
-    
+
     private int bitField0_;
-    // required .nigori.AuthenticateRequest auth = 1;
     public static final int AUTH_FIELD_NUMBER = 1;
     private com.google.nigori.common.NigoriMessages.AuthenticateRequest auth_;
+    /**
+     * <code>required .nigori.AuthenticateRequest auth = 1;</code>
+     */
     public boolean hasAuth() {
       return ((bitField0_ & 0x00000001) == 0x00000001);
     }
+    /**
+     * <code>required .nigori.AuthenticateRequest auth = 1;</code>
+     */
     public com.google.nigori.common.NigoriMessages.AuthenticateRequest getAuth() {
       return auth_;
     }
+    /**
+     * <code>required .nigori.AuthenticateRequest auth = 1;</code>
+     */
     public com.google.nigori.common.NigoriMessages.AuthenticateRequestOrBuilder getAuthOrBuilder() {
       return auth_;
     }
-    
+
     private void initFields() {
       auth_ = com.google.nigori.common.NigoriMessages.AuthenticateRequest.getDefaultInstance();
     }
     private byte memoizedIsInitialized = -1;
     public final boolean isInitialized() {
       byte isInitialized = memoizedIsInitialized;
-      if (isInitialized != -1) return isInitialized == 1;
-      
+      if (isInitialized == 1) return true;
+      if (isInitialized == 0) return false;
+
       if (!hasAuth()) {
         memoizedIsInitialized = 0;
         return false;
@@ -3121,7 +4400,7 @@ public final class NigoriMessages {
       memoizedIsInitialized = 1;
       return true;
     }
-    
+
     public void writeTo(com.google.protobuf.CodedOutputStream output)
                         throws java.io.IOException {
       getSerializedSize();
@@ -3130,12 +4409,12 @@ public final class NigoriMessages {
       }
       getUnknownFields().writeTo(output);
     }
-    
+
     private int memoizedSerializedSize = -1;
     public int getSerializedSize() {
       int size = memoizedSerializedSize;
       if (size != -1) return size;
-    
+
       size = 0;
       if (((bitField0_ & 0x00000001) == 0x00000001)) {
         size += com.google.protobuf.CodedOutputStream
@@ -3145,111 +4424,106 @@ public final class NigoriMessages {
       memoizedSerializedSize = size;
       return size;
     }
-    
+
+    private static final long serialVersionUID = 0L;
     @java.lang.Override
-    protected Object writeReplace() throws java.io.ObjectStreamException {
+    protected java.lang.Object writeReplace()
+        throws java.io.ObjectStreamException {
       return super.writeReplace();
     }
-    
+
     public static com.google.nigori.common.NigoriMessages.GetIndicesRequest parseFrom(
         com.google.protobuf.ByteString data)
         throws com.google.protobuf.InvalidProtocolBufferException {
-      return newBuilder().mergeFrom(data).buildParsed();
+      return PARSER.parseFrom(data);
     }
     public static com.google.nigori.common.NigoriMessages.GetIndicesRequest parseFrom(
         com.google.protobuf.ByteString data,
         com.google.protobuf.ExtensionRegistryLite extensionRegistry)
         throws com.google.protobuf.InvalidProtocolBufferException {
-      return newBuilder().mergeFrom(data, extensionRegistry)
-               .buildParsed();
+      return PARSER.parseFrom(data, extensionRegistry);
     }
     public static com.google.nigori.common.NigoriMessages.GetIndicesRequest parseFrom(byte[] data)
         throws com.google.protobuf.InvalidProtocolBufferException {
-      return newBuilder().mergeFrom(data).buildParsed();
+      return PARSER.parseFrom(data);
     }
     public static com.google.nigori.common.NigoriMessages.GetIndicesRequest parseFrom(
         byte[] data,
         com.google.protobuf.ExtensionRegistryLite extensionRegistry)
         throws com.google.protobuf.InvalidProtocolBufferException {
-      return newBuilder().mergeFrom(data, extensionRegistry)
-               .buildParsed();
+      return PARSER.parseFrom(data, extensionRegistry);
     }
     public static com.google.nigori.common.NigoriMessages.GetIndicesRequest parseFrom(java.io.InputStream input)
         throws java.io.IOException {
-      return newBuilder().mergeFrom(input).buildParsed();
+      return PARSER.parseFrom(input);
     }
     public static com.google.nigori.common.NigoriMessages.GetIndicesRequest parseFrom(
         java.io.InputStream input,
         com.google.protobuf.ExtensionRegistryLite extensionRegistry)
         throws java.io.IOException {
-      return newBuilder().mergeFrom(input, extensionRegistry)
-               .buildParsed();
+      return PARSER.parseFrom(input, extensionRegistry);
     }
     public static com.google.nigori.common.NigoriMessages.GetIndicesRequest parseDelimitedFrom(java.io.InputStream input)
         throws java.io.IOException {
-      Builder builder = newBuilder();
-      if (builder.mergeDelimitedFrom(input)) {
-        return builder.buildParsed();
-      } else {
-        return null;
-      }
+      return PARSER.parseDelimitedFrom(input);
     }
     public static com.google.nigori.common.NigoriMessages.GetIndicesRequest parseDelimitedFrom(
         java.io.InputStream input,
         com.google.protobuf.ExtensionRegistryLite extensionRegistry)
         throws java.io.IOException {
-      Builder builder = newBuilder();
-      if (builder.mergeDelimitedFrom(input, extensionRegistry)) {
-        return builder.buildParsed();
-      } else {
-        return null;
-      }
+      return PARSER.parseDelimitedFrom(input, extensionRegistry);
     }
     public static com.google.nigori.common.NigoriMessages.GetIndicesRequest parseFrom(
         com.google.protobuf.CodedInputStream input)
         throws java.io.IOException {
-      return newBuilder().mergeFrom(input).buildParsed();
+      return PARSER.parseFrom(input);
     }
     public static com.google.nigori.common.NigoriMessages.GetIndicesRequest parseFrom(
         com.google.protobuf.CodedInputStream input,
         com.google.protobuf.ExtensionRegistryLite extensionRegistry)
         throws java.io.IOException {
-      return newBuilder().mergeFrom(input, extensionRegistry)
-               .buildParsed();
+      return PARSER.parseFrom(input, extensionRegistry);
     }
-    
+
     public static Builder newBuilder() { return Builder.create(); }
     public Builder newBuilderForType() { return newBuilder(); }
     public static Builder newBuilder(com.google.nigori.common.NigoriMessages.GetIndicesRequest prototype) {
       return newBuilder().mergeFrom(prototype);
     }
     public Builder toBuilder() { return newBuilder(this); }
-    
+
     @java.lang.Override
     protected Builder newBuilderForType(
         com.google.protobuf.GeneratedMessage.BuilderParent parent) {
       Builder builder = new Builder(parent);
       return builder;
     }
+    /**
+     * Protobuf type {@code nigori.GetIndicesRequest}
+     */
     public static final class Builder extends
-        com.google.protobuf.GeneratedMessage.Builder<Builder>
-       implements com.google.nigori.common.NigoriMessages.GetIndicesRequestOrBuilder {
+        com.google.protobuf.GeneratedMessage.Builder<Builder> implements
+        // @@protoc_insertion_point(builder_implements:nigori.GetIndicesRequest)
+        com.google.nigori.common.NigoriMessages.GetIndicesRequestOrBuilder {
       public static final com.google.protobuf.Descriptors.Descriptor
           getDescriptor() {
         return com.google.nigori.common.NigoriMessages.internal_static_nigori_GetIndicesRequest_descriptor;
       }
-      
+
       protected com.google.protobuf.GeneratedMessage.FieldAccessorTable
           internalGetFieldAccessorTable() {
-        return com.google.nigori.common.NigoriMessages.internal_static_nigori_GetIndicesRequest_fieldAccessorTable;
+        return com.google.nigori.common.NigoriMessages.internal_static_nigori_GetIndicesRequest_fieldAccessorTable
+            .ensureFieldAccessorsInitialized(
+                com.google.nigori.common.NigoriMessages.GetIndicesRequest.class, com.google.nigori.common.NigoriMessages.GetIndicesRequest.Builder.class);
       }
-      
+
       // Construct using com.google.nigori.common.NigoriMessages.GetIndicesRequest.newBuilder()
       private Builder() {
         maybeForceBuilderInitialization();
       }
-      
-      private Builder(BuilderParent parent) {
+
+      private Builder(
+          com.google.protobuf.GeneratedMessage.BuilderParent parent) {
         super(parent);
         maybeForceBuilderInitialization();
       }
@@ -3261,7 +4535,7 @@ public final class NigoriMessages {
       private static Builder create() {
         return new Builder();
       }
-      
+
       public Builder clear() {
         super.clear();
         if (authBuilder_ == null) {
@@ -3272,20 +4546,20 @@ public final class NigoriMessages {
         bitField0_ = (bitField0_ & ~0x00000001);
         return this;
       }
-      
+
       public Builder clone() {
         return create().mergeFrom(buildPartial());
       }
-      
+
       public com.google.protobuf.Descriptors.Descriptor
           getDescriptorForType() {
-        return com.google.nigori.common.NigoriMessages.GetIndicesRequest.getDescriptor();
+        return com.google.nigori.common.NigoriMessages.internal_static_nigori_GetIndicesRequest_descriptor;
       }
-      
+
       public com.google.nigori.common.NigoriMessages.GetIndicesRequest getDefaultInstanceForType() {
         return com.google.nigori.common.NigoriMessages.GetIndicesRequest.getDefaultInstance();
       }
-      
+
       public com.google.nigori.common.NigoriMessages.GetIndicesRequest build() {
         com.google.nigori.common.NigoriMessages.GetIndicesRequest result = buildPartial();
         if (!result.isInitialized()) {
@@ -3293,17 +4567,7 @@ public final class NigoriMessages {
         }
         return result;
       }
-      
-      private com.google.nigori.common.NigoriMessages.GetIndicesRequest buildParsed()
-          throws com.google.protobuf.InvalidProtocolBufferException {
-        com.google.nigori.common.NigoriMessages.GetIndicesRequest result = buildPartial();
-        if (!result.isInitialized()) {
-          throw newUninitializedMessageException(
-            result).asInvalidProtocolBufferException();
-        }
-        return result;
-      }
-      
+
       public com.google.nigori.common.NigoriMessages.GetIndicesRequest buildPartial() {
         com.google.nigori.common.NigoriMessages.GetIndicesRequest result = new com.google.nigori.common.NigoriMessages.GetIndicesRequest(this);
         int from_bitField0_ = bitField0_;
@@ -3320,7 +4584,7 @@ public final class NigoriMessages {
         onBuilt();
         return result;
       }
-      
+
       public Builder mergeFrom(com.google.protobuf.Message other) {
         if (other instanceof com.google.nigori.common.NigoriMessages.GetIndicesRequest) {
           return mergeFrom((com.google.nigori.common.NigoriMessages.GetIndicesRequest)other);
@@ -3329,7 +4593,7 @@ public final class NigoriMessages {
           return this;
         }
       }
-      
+
       public Builder mergeFrom(com.google.nigori.common.NigoriMessages.GetIndicesRequest other) {
         if (other == com.google.nigori.common.NigoriMessages.GetIndicesRequest.getDefaultInstance()) return this;
         if (other.hasAuth()) {
@@ -3338,7 +4602,7 @@ public final class NigoriMessages {
         this.mergeUnknownFields(other.getUnknownFields());
         return this;
       }
-      
+
       public final boolean isInitialized() {
         if (!hasAuth()) {
           
@@ -3350,52 +4614,38 @@ public final class NigoriMessages {
         }
         return true;
       }
-      
+
       public Builder mergeFrom(
           com.google.protobuf.CodedInputStream input,
           com.google.protobuf.ExtensionRegistryLite extensionRegistry)
           throws java.io.IOException {
-        com.google.protobuf.UnknownFieldSet.Builder unknownFields =
-          com.google.protobuf.UnknownFieldSet.newBuilder(
-            this.getUnknownFields());
-        while (true) {
-          int tag = input.readTag();
-          switch (tag) {
-            case 0:
-              this.setUnknownFields(unknownFields.build());
-              onChanged();
-              return this;
-            default: {
-              if (!parseUnknownField(input, unknownFields,
-                                     extensionRegistry, tag)) {
-                this.setUnknownFields(unknownFields.build());
-                onChanged();
-                return this;
-              }
-              break;
-            }
-            case 10: {
-              com.google.nigori.common.NigoriMessages.AuthenticateRequest.Builder subBuilder = com.google.nigori.common.NigoriMessages.AuthenticateRequest.newBuilder();
-              if (hasAuth()) {
-                subBuilder.mergeFrom(getAuth());
-              }
-              input.readMessage(subBuilder, extensionRegistry);
-              setAuth(subBuilder.buildPartial());
-              break;
-            }
+        com.google.nigori.common.NigoriMessages.GetIndicesRequest parsedMessage = null;
+        try {
+          parsedMessage = PARSER.parsePartialFrom(input, extensionRegistry);
+        } catch (com.google.protobuf.InvalidProtocolBufferException e) {
+          parsedMessage = (com.google.nigori.common.NigoriMessages.GetIndicesRequest) e.getUnfinishedMessage();
+          throw e;
+        } finally {
+          if (parsedMessage != null) {
+            mergeFrom(parsedMessage);
           }
         }
+        return this;
       }
-      
       private int bitField0_;
-      
-      // required .nigori.AuthenticateRequest auth = 1;
+
       private com.google.nigori.common.NigoriMessages.AuthenticateRequest auth_ = com.google.nigori.common.NigoriMessages.AuthenticateRequest.getDefaultInstance();
       private com.google.protobuf.SingleFieldBuilder<
           com.google.nigori.common.NigoriMessages.AuthenticateRequest, com.google.nigori.common.NigoriMessages.AuthenticateRequest.Builder, com.google.nigori.common.NigoriMessages.AuthenticateRequestOrBuilder> authBuilder_;
+      /**
+       * <code>required .nigori.AuthenticateRequest auth = 1;</code>
+       */
       public boolean hasAuth() {
         return ((bitField0_ & 0x00000001) == 0x00000001);
       }
+      /**
+       * <code>required .nigori.AuthenticateRequest auth = 1;</code>
+       */
       public com.google.nigori.common.NigoriMessages.AuthenticateRequest getAuth() {
         if (authBuilder_ == null) {
           return auth_;
@@ -3403,6 +4653,9 @@ public final class NigoriMessages {
           return authBuilder_.getMessage();
         }
       }
+      /**
+       * <code>required .nigori.AuthenticateRequest auth = 1;</code>
+       */
       public Builder setAuth(com.google.nigori.common.NigoriMessages.AuthenticateRequest value) {
         if (authBuilder_ == null) {
           if (value == null) {
@@ -3416,6 +4669,9 @@ public final class NigoriMessages {
         bitField0_ |= 0x00000001;
         return this;
       }
+      /**
+       * <code>required .nigori.AuthenticateRequest auth = 1;</code>
+       */
       public Builder setAuth(
           com.google.nigori.common.NigoriMessages.AuthenticateRequest.Builder builderForValue) {
         if (authBuilder_ == null) {
@@ -3427,6 +4683,9 @@ public final class NigoriMessages {
         bitField0_ |= 0x00000001;
         return this;
       }
+      /**
+       * <code>required .nigori.AuthenticateRequest auth = 1;</code>
+       */
       public Builder mergeAuth(com.google.nigori.common.NigoriMessages.AuthenticateRequest value) {
         if (authBuilder_ == null) {
           if (((bitField0_ & 0x00000001) == 0x00000001) &&
@@ -3443,6 +4702,9 @@ public final class NigoriMessages {
         bitField0_ |= 0x00000001;
         return this;
       }
+      /**
+       * <code>required .nigori.AuthenticateRequest auth = 1;</code>
+       */
       public Builder clearAuth() {
         if (authBuilder_ == null) {
           auth_ = com.google.nigori.common.NigoriMessages.AuthenticateRequest.getDefaultInstance();
@@ -3453,11 +4715,17 @@ public final class NigoriMessages {
         bitField0_ = (bitField0_ & ~0x00000001);
         return this;
       }
+      /**
+       * <code>required .nigori.AuthenticateRequest auth = 1;</code>
+       */
       public com.google.nigori.common.NigoriMessages.AuthenticateRequest.Builder getAuthBuilder() {
         bitField0_ |= 0x00000001;
         onChanged();
         return getAuthFieldBuilder().getBuilder();
       }
+      /**
+       * <code>required .nigori.AuthenticateRequest auth = 1;</code>
+       */
       public com.google.nigori.common.NigoriMessages.AuthenticateRequestOrBuilder getAuthOrBuilder() {
         if (authBuilder_ != null) {
           return authBuilder_.getMessageOrBuilder();
@@ -3465,93 +4733,188 @@ public final class NigoriMessages {
           return auth_;
         }
       }
+      /**
+       * <code>required .nigori.AuthenticateRequest auth = 1;</code>
+       */
       private com.google.protobuf.SingleFieldBuilder<
           com.google.nigori.common.NigoriMessages.AuthenticateRequest, com.google.nigori.common.NigoriMessages.AuthenticateRequest.Builder, com.google.nigori.common.NigoriMessages.AuthenticateRequestOrBuilder> 
           getAuthFieldBuilder() {
         if (authBuilder_ == null) {
           authBuilder_ = new com.google.protobuf.SingleFieldBuilder<
               com.google.nigori.common.NigoriMessages.AuthenticateRequest, com.google.nigori.common.NigoriMessages.AuthenticateRequest.Builder, com.google.nigori.common.NigoriMessages.AuthenticateRequestOrBuilder>(
-                  auth_,
+                  getAuth(),
                   getParentForChildren(),
                   isClean());
           auth_ = null;
         }
         return authBuilder_;
       }
-      
+
       // @@protoc_insertion_point(builder_scope:nigori.GetIndicesRequest)
     }
-    
+
     static {
       defaultInstance = new GetIndicesRequest(true);
       defaultInstance.initFields();
     }
-    
+
     // @@protoc_insertion_point(class_scope:nigori.GetIndicesRequest)
   }
-  
-  public interface GetIndicesResponseOrBuilder
-      extends com.google.protobuf.MessageOrBuilder {
-    
-    // repeated bytes indices = 1;
+
+  public interface GetIndicesResponseOrBuilder extends
+      // @@protoc_insertion_point(interface_extends:nigori.GetIndicesResponse)
+      com.google.protobuf.MessageOrBuilder {
+
+    /**
+     * <code>repeated bytes indices = 1;</code>
+     */
     java.util.List<com.google.protobuf.ByteString> getIndicesList();
+    /**
+     * <code>repeated bytes indices = 1;</code>
+     */
     int getIndicesCount();
+    /**
+     * <code>repeated bytes indices = 1;</code>
+     */
     com.google.protobuf.ByteString getIndices(int index);
   }
+  /**
+   * Protobuf type {@code nigori.GetIndicesResponse}
+   */
   public static final class GetIndicesResponse extends
-      com.google.protobuf.GeneratedMessage
-      implements GetIndicesResponseOrBuilder {
+      com.google.protobuf.GeneratedMessage implements
+      // @@protoc_insertion_point(message_implements:nigori.GetIndicesResponse)
+      GetIndicesResponseOrBuilder {
     // Use GetIndicesResponse.newBuilder() to construct.
-    private GetIndicesResponse(Builder builder) {
+    private GetIndicesResponse(com.google.protobuf.GeneratedMessage.Builder<?> builder) {
       super(builder);
+      this.unknownFields = builder.getUnknownFields();
     }
-    private GetIndicesResponse(boolean noInit) {}
-    
+    private GetIndicesResponse(boolean noInit) { this.unknownFields = com.google.protobuf.UnknownFieldSet.getDefaultInstance(); }
+
     private static final GetIndicesResponse defaultInstance;
     public static GetIndicesResponse getDefaultInstance() {
       return defaultInstance;
     }
-    
+
     public GetIndicesResponse getDefaultInstanceForType() {
       return defaultInstance;
     }
-    
+
+    private final com.google.protobuf.UnknownFieldSet unknownFields;
+    @java.lang.Override
+    public final com.google.protobuf.UnknownFieldSet
+        getUnknownFields() {
+      return this.unknownFields;
+    }
+    private GetIndicesResponse(
+        com.google.protobuf.CodedInputStream input,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws com.google.protobuf.InvalidProtocolBufferException {
+      initFields();
+      int mutable_bitField0_ = 0;
+      com.google.protobuf.UnknownFieldSet.Builder unknownFields =
+          com.google.protobuf.UnknownFieldSet.newBuilder();
+      try {
+        boolean done = false;
+        while (!done) {
+          int tag = input.readTag();
+          switch (tag) {
+            case 0:
+              done = true;
+              break;
+            default: {
+              if (!parseUnknownField(input, unknownFields,
+                                     extensionRegistry, tag)) {
+                done = true;
+              }
+              break;
+            }
+            case 10: {
+              if (!((mutable_bitField0_ & 0x00000001) == 0x00000001)) {
+                indices_ = new java.util.ArrayList<com.google.protobuf.ByteString>();
+                mutable_bitField0_ |= 0x00000001;
+              }
+              indices_.add(input.readBytes());
+              break;
+            }
+          }
+        }
+      } catch (com.google.protobuf.InvalidProtocolBufferException e) {
+        throw e.setUnfinishedMessage(this);
+      } catch (java.io.IOException e) {
+        throw new com.google.protobuf.InvalidProtocolBufferException(
+            e.getMessage()).setUnfinishedMessage(this);
+      } finally {
+        if (((mutable_bitField0_ & 0x00000001) == 0x00000001)) {
+          indices_ = java.util.Collections.unmodifiableList(indices_);
+        }
+        this.unknownFields = unknownFields.build();
+        makeExtensionsImmutable();
+      }
+    }
     public static final com.google.protobuf.Descriptors.Descriptor
         getDescriptor() {
       return com.google.nigori.common.NigoriMessages.internal_static_nigori_GetIndicesResponse_descriptor;
     }
-    
+
     protected com.google.protobuf.GeneratedMessage.FieldAccessorTable
         internalGetFieldAccessorTable() {
-      return com.google.nigori.common.NigoriMessages.internal_static_nigori_GetIndicesResponse_fieldAccessorTable;
+      return com.google.nigori.common.NigoriMessages.internal_static_nigori_GetIndicesResponse_fieldAccessorTable
+          .ensureFieldAccessorsInitialized(
+              com.google.nigori.common.NigoriMessages.GetIndicesResponse.class, com.google.nigori.common.NigoriMessages.GetIndicesResponse.Builder.class);
+    }
+
+    public static com.google.protobuf.Parser<GetIndicesResponse> PARSER =
+        new com.google.protobuf.AbstractParser<GetIndicesResponse>() {
+      public GetIndicesResponse parsePartialFrom(
+          com.google.protobuf.CodedInputStream input,
+          com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+          throws com.google.protobuf.InvalidProtocolBufferException {
+        return new GetIndicesResponse(input, extensionRegistry);
+      }
+    };
+
+    @java.lang.Override
+    public com.google.protobuf.Parser<GetIndicesResponse> getParserForType() {
+      return PARSER;
     }
-    
-    // repeated bytes indices = 1;
+
     public static final int INDICES_FIELD_NUMBER = 1;
     private java.util.List<com.google.protobuf.ByteString> indices_;
+    /**
+     * <code>repeated bytes indices = 1;</code>
+     */
     public java.util.List<com.google.protobuf.ByteString>
         getIndicesList() {
       return indices_;
     }
+    /**
+     * <code>repeated bytes indices = 1;</code>
+     */
     public int getIndicesCount() {
       return indices_.size();
     }
+    /**
+     * <code>repeated bytes indices = 1;</code>
+     */
     public com.google.protobuf.ByteString getIndices(int index) {
       return indices_.get(index);
     }
-    
+
     private void initFields() {
-      indices_ = java.util.Collections.emptyList();;
+      indices_ = java.util.Collections.emptyList();
     }
     private byte memoizedIsInitialized = -1;
     public final boolean isInitialized() {
       byte isInitialized = memoizedIsInitialized;
-      if (isInitialized != -1) return isInitialized == 1;
-      
+      if (isInitialized == 1) return true;
+      if (isInitialized == 0) return false;
+
       memoizedIsInitialized = 1;
       return true;
     }
-    
+
     public void writeTo(com.google.protobuf.CodedOutputStream output)
                         throws java.io.IOException {
       getSerializedSize();
@@ -3560,12 +4923,12 @@ public final class NigoriMessages {
       }
       getUnknownFields().writeTo(output);
     }
-    
+
     private int memoizedSerializedSize = -1;
     public int getSerializedSize() {
       int size = memoizedSerializedSize;
       if (size != -1) return size;
-    
+
       size = 0;
       {
         int dataSize = 0;
@@ -3580,111 +4943,106 @@ public final class NigoriMessages {
       memoizedSerializedSize = size;
       return size;
     }
-    
+
+    private static final long serialVersionUID = 0L;
     @java.lang.Override
-    protected Object writeReplace() throws java.io.ObjectStreamException {
+    protected java.lang.Object writeReplace()
+        throws java.io.ObjectStreamException {
       return super.writeReplace();
     }
-    
+
     public static com.google.nigori.common.NigoriMessages.GetIndicesResponse parseFrom(
         com.google.protobuf.ByteString data)
         throws com.google.protobuf.InvalidProtocolBufferException {
-      return newBuilder().mergeFrom(data).buildParsed();
+      return PARSER.parseFrom(data);
     }
     public static com.google.nigori.common.NigoriMessages.GetIndicesResponse parseFrom(
         com.google.protobuf.ByteString data,
         com.google.protobuf.ExtensionRegistryLite extensionRegistry)
         throws com.google.protobuf.InvalidProtocolBufferException {
-      return newBuilder().mergeFrom(data, extensionRegistry)
-               .buildParsed();
+      return PARSER.parseFrom(data, extensionRegistry);
     }
     public static com.google.nigori.common.NigoriMessages.GetIndicesResponse parseFrom(byte[] data)
         throws com.google.protobuf.InvalidProtocolBufferException {
-      return newBuilder().mergeFrom(data).buildParsed();
+      return PARSER.parseFrom(data);
     }
     public static com.google.nigori.common.NigoriMessages.GetIndicesResponse parseFrom(
         byte[] data,
         com.google.protobuf.ExtensionRegistryLite extensionRegistry)
         throws com.google.protobuf.InvalidProtocolBufferException {
-      return newBuilder().mergeFrom(data, extensionRegistry)
-               .buildParsed();
+      return PARSER.parseFrom(data, extensionRegistry);
     }
     public static com.google.nigori.common.NigoriMessages.GetIndicesResponse parseFrom(java.io.InputStream input)
         throws java.io.IOException {
-      return newBuilder().mergeFrom(input).buildParsed();
+      return PARSER.parseFrom(input);
     }
     public static com.google.nigori.common.NigoriMessages.GetIndicesResponse parseFrom(
         java.io.InputStream input,
         com.google.protobuf.ExtensionRegistryLite extensionRegistry)
         throws java.io.IOException {
-      return newBuilder().mergeFrom(input, extensionRegistry)
-               .buildParsed();
+      return PARSER.parseFrom(input, extensionRegistry);
     }
     public static com.google.nigori.common.NigoriMessages.GetIndicesResponse parseDelimitedFrom(java.io.InputStream input)
         throws java.io.IOException {
-      Builder builder = newBuilder();
-      if (builder.mergeDelimitedFrom(input)) {
-        return builder.buildParsed();
-      } else {
-        return null;
-      }
+      return PARSER.parseDelimitedFrom(input);
     }
     public static com.google.nigori.common.NigoriMessages.GetIndicesResponse parseDelimitedFrom(
         java.io.InputStream input,
         com.google.protobuf.ExtensionRegistryLite extensionRegistry)
         throws java.io.IOException {
-      Builder builder = newBuilder();
-      if (builder.mergeDelimitedFrom(input, extensionRegistry)) {
-        return builder.buildParsed();
-      } else {
-        return null;
-      }
+      return PARSER.parseDelimitedFrom(input, extensionRegistry);
     }
     public static com.google.nigori.common.NigoriMessages.GetIndicesResponse parseFrom(
         com.google.protobuf.CodedInputStream input)
         throws java.io.IOException {
-      return newBuilder().mergeFrom(input).buildParsed();
+      return PARSER.parseFrom(input);
     }
     public static com.google.nigori.common.NigoriMessages.GetIndicesResponse parseFrom(
         com.google.protobuf.CodedInputStream input,
         com.google.protobuf.ExtensionRegistryLite extensionRegistry)
         throws java.io.IOException {
-      return newBuilder().mergeFrom(input, extensionRegistry)
-               .buildParsed();
+      return PARSER.parseFrom(input, extensionRegistry);
     }
-    
+
     public static Builder newBuilder() { return Builder.create(); }
     public Builder newBuilderForType() { return newBuilder(); }
     public static Builder newBuilder(com.google.nigori.common.NigoriMessages.GetIndicesResponse prototype) {
       return newBuilder().mergeFrom(prototype);
     }
     public Builder toBuilder() { return newBuilder(this); }
-    
+
     @java.lang.Override
     protected Builder newBuilderForType(
         com.google.protobuf.GeneratedMessage.BuilderParent parent) {
       Builder builder = new Builder(parent);
       return builder;
     }
+    /**
+     * Protobuf type {@code nigori.GetIndicesResponse}
+     */
     public static final class Builder extends
-        com.google.protobuf.GeneratedMessage.Builder<Builder>
-       implements com.google.nigori.common.NigoriMessages.GetIndicesResponseOrBuilder {
+        com.google.protobuf.GeneratedMessage.Builder<Builder> implements
+        // @@protoc_insertion_point(builder_implements:nigori.GetIndicesResponse)
+        com.google.nigori.common.NigoriMessages.GetIndicesResponseOrBuilder {
       public static final com.google.protobuf.Descriptors.Descriptor
           getDescriptor() {
         return com.google.nigori.common.NigoriMessages.internal_static_nigori_GetIndicesResponse_descriptor;
       }
-      
+
       protected com.google.protobuf.GeneratedMessage.FieldAccessorTable
           internalGetFieldAccessorTable() {
-        return com.google.nigori.common.NigoriMessages.internal_static_nigori_GetIndicesResponse_fieldAccessorTable;
+        return com.google.nigori.common.NigoriMessages.internal_static_nigori_GetIndicesResponse_fieldAccessorTable
+            .ensureFieldAccessorsInitialized(
+                com.google.nigori.common.NigoriMessages.GetIndicesResponse.class, com.google.nigori.common.NigoriMessages.GetIndicesResponse.Builder.class);
       }
-      
+
       // Construct using com.google.nigori.common.NigoriMessages.GetIndicesResponse.newBuilder()
       private Builder() {
         maybeForceBuilderInitialization();
       }
-      
-      private Builder(BuilderParent parent) {
+
+      private Builder(
+          com.google.protobuf.GeneratedMessage.BuilderParent parent) {
         super(parent);
         maybeForceBuilderInitialization();
       }
@@ -3695,27 +5053,27 @@ public final class NigoriMessages {
       private static Builder create() {
         return new Builder();
       }
-      
+
       public Builder clear() {
         super.clear();
-        indices_ = java.util.Collections.emptyList();;
+        indices_ = java.util.Collections.emptyList();
         bitField0_ = (bitField0_ & ~0x00000001);
         return this;
       }
-      
+
       public Builder clone() {
         return create().mergeFrom(buildPartial());
       }
-      
+
       public com.google.protobuf.Descriptors.Descriptor
           getDescriptorForType() {
-        return com.google.nigori.common.NigoriMessages.GetIndicesResponse.getDescriptor();
+        return com.google.nigori.common.NigoriMessages.internal_static_nigori_GetIndicesResponse_descriptor;
       }
-      
+
       public com.google.nigori.common.NigoriMessages.GetIndicesResponse getDefaultInstanceForType() {
         return com.google.nigori.common.NigoriMessages.GetIndicesResponse.getDefaultInstance();
       }
-      
+
       public com.google.nigori.common.NigoriMessages.GetIndicesResponse build() {
         com.google.nigori.common.NigoriMessages.GetIndicesResponse result = buildPartial();
         if (!result.isInitialized()) {
@@ -3723,17 +5081,7 @@ public final class NigoriMessages {
         }
         return result;
       }
-      
-      private com.google.nigori.common.NigoriMessages.GetIndicesResponse buildParsed()
-          throws com.google.protobuf.InvalidProtocolBufferException {
-        com.google.nigori.common.NigoriMessages.GetIndicesResponse result = buildPartial();
-        if (!result.isInitialized()) {
-          throw newUninitializedMessageException(
-            result).asInvalidProtocolBufferException();
-        }
-        return result;
-      }
-      
+
       public com.google.nigori.common.NigoriMessages.GetIndicesResponse buildPartial() {
         com.google.nigori.common.NigoriMessages.GetIndicesResponse result = new com.google.nigori.common.NigoriMessages.GetIndicesResponse(this);
         int from_bitField0_ = bitField0_;
@@ -3745,7 +5093,7 @@ public final class NigoriMessages {
         onBuilt();
         return result;
       }
-      
+
       public Builder mergeFrom(com.google.protobuf.Message other) {
         if (other instanceof com.google.nigori.common.NigoriMessages.GetIndicesResponse) {
           return mergeFrom((com.google.nigori.common.NigoriMessages.GetIndicesResponse)other);
@@ -3754,7 +5102,7 @@ public final class NigoriMessages {
           return this;
         }
       }
-      
+
       public Builder mergeFrom(com.google.nigori.common.NigoriMessages.GetIndicesResponse other) {
         if (other == com.google.nigori.common.NigoriMessages.GetIndicesResponse.getDefaultInstance()) return this;
         if (!other.indices_.isEmpty()) {
@@ -3770,63 +5118,59 @@ public final class NigoriMessages {
         this.mergeUnknownFields(other.getUnknownFields());
         return this;
       }
-      
+
       public final boolean isInitialized() {
         return true;
       }
-      
+
       public Builder mergeFrom(
           com.google.protobuf.CodedInputStream input,
           com.google.protobuf.ExtensionRegistryLite extensionRegistry)
           throws java.io.IOException {
-        com.google.protobuf.UnknownFieldSet.Builder unknownFields =
-          com.google.protobuf.UnknownFieldSet.newBuilder(
-            this.getUnknownFields());
-        while (true) {
-          int tag = input.readTag();
-          switch (tag) {
-            case 0:
-              this.setUnknownFields(unknownFields.build());
-              onChanged();
-              return this;
-            default: {
-              if (!parseUnknownField(input, unknownFields,
-                                     extensionRegistry, tag)) {
-                this.setUnknownFields(unknownFields.build());
-                onChanged();
-                return this;
-              }
-              break;
-            }
-            case 10: {
-              ensureIndicesIsMutable();
-              indices_.add(input.readBytes());
-              break;
-            }
+        com.google.nigori.common.NigoriMessages.GetIndicesResponse parsedMessage = null;
+        try {
+          parsedMessage = PARSER.parsePartialFrom(input, extensionRegistry);
+        } catch (com.google.protobuf.InvalidProtocolBufferException e) {
+          parsedMessage = (com.google.nigori.common.NigoriMessages.GetIndicesResponse) e.getUnfinishedMessage();
+          throw e;
+        } finally {
+          if (parsedMessage != null) {
+            mergeFrom(parsedMessage);
           }
         }
+        return this;
       }
-      
       private int bitField0_;
-      
-      // repeated bytes indices = 1;
-      private java.util.List<com.google.protobuf.ByteString> indices_ = java.util.Collections.emptyList();;
+
+      private java.util.List<com.google.protobuf.ByteString> indices_ = java.util.Collections.emptyList();
       private void ensureIndicesIsMutable() {
         if (!((bitField0_ & 0x00000001) == 0x00000001)) {
           indices_ = new java.util.ArrayList<com.google.protobuf.ByteString>(indices_);
           bitField0_ |= 0x00000001;
          }
       }
+      /**
+       * <code>repeated bytes indices = 1;</code>
+       */
       public java.util.List<com.google.protobuf.ByteString>
           getIndicesList() {
         return java.util.Collections.unmodifiableList(indices_);
       }
+      /**
+       * <code>repeated bytes indices = 1;</code>
+       */
       public int getIndicesCount() {
         return indices_.size();
       }
+      /**
+       * <code>repeated bytes indices = 1;</code>
+       */
       public com.google.protobuf.ByteString getIndices(int index) {
         return indices_.get(index);
       }
+      /**
+       * <code>repeated bytes indices = 1;</code>
+       */
       public Builder setIndices(
           int index, com.google.protobuf.ByteString value) {
         if (value == null) {
@@ -3837,6 +5181,9 @@ public final class NigoriMessages {
         onChanged();
         return this;
       }
+      /**
+       * <code>repeated bytes indices = 1;</code>
+       */
       public Builder addIndices(com.google.protobuf.ByteString value) {
         if (value == null) {
     throw new NullPointerException();
@@ -3846,104 +5193,266 @@ public final class NigoriMessages {
         onChanged();
         return this;
       }
+      /**
+       * <code>repeated bytes indices = 1;</code>
+       */
       public Builder addAllIndices(
           java.lang.Iterable<? extends com.google.protobuf.ByteString> values) {
         ensureIndicesIsMutable();
-        super.addAll(values, indices_);
+        com.google.protobuf.AbstractMessageLite.Builder.addAll(
+            values, indices_);
         onChanged();
         return this;
       }
+      /**
+       * <code>repeated bytes indices = 1;</code>
+       */
       public Builder clearIndices() {
-        indices_ = java.util.Collections.emptyList();;
+        indices_ = java.util.Collections.emptyList();
         bitField0_ = (bitField0_ & ~0x00000001);
         onChanged();
         return this;
       }
-      
+
       // @@protoc_insertion_point(builder_scope:nigori.GetIndicesResponse)
     }
-    
+
     static {
       defaultInstance = new GetIndicesResponse(true);
       defaultInstance.initFields();
     }
-    
+
     // @@protoc_insertion_point(class_scope:nigori.GetIndicesResponse)
   }
-  
-  public interface GetRevisionsRequestOrBuilder
-      extends com.google.protobuf.MessageOrBuilder {
-    
-    // required .nigori.AuthenticateRequest auth = 1;
+
+  public interface GetRevisionsRequestOrBuilder extends
+      // @@protoc_insertion_point(interface_extends:nigori.GetRevisionsRequest)
+      com.google.protobuf.MessageOrBuilder {
+
+    /**
+     * <code>required .nigori.AuthenticateRequest auth = 1;</code>
+     */
     boolean hasAuth();
+    /**
+     * <code>required .nigori.AuthenticateRequest auth = 1;</code>
+     */
     com.google.nigori.common.NigoriMessages.AuthenticateRequest getAuth();
+    /**
+     * <code>required .nigori.AuthenticateRequest auth = 1;</code>
+     */
     com.google.nigori.common.NigoriMessages.AuthenticateRequestOrBuilder getAuthOrBuilder();
-    
-    // required bytes key = 2;
+
+    /**
+     * <code>required bytes key = 2;</code>
+     */
     boolean hasKey();
+    /**
+     * <code>required bytes key = 2;</code>
+     */
     com.google.protobuf.ByteString getKey();
+
+    /**
+     * <code>optional bytes fingerprint = 3;</code>
+     *
+     * <pre>
+     * RevisionFingerprint of the revisions the client already has
+     * </pre>
+     */
+    boolean hasFingerprint();
+    /**
+     * <code>optional bytes fingerprint = 3;</code>
+     *
+     * <pre>
+     * RevisionFingerprint of the revisions the client already has
+     * </pre>
+     */
+    com.google.protobuf.ByteString getFingerprint();
   }
+  /**
+   * Protobuf type {@code nigori.GetRevisionsRequest}
+   */
   public static final class GetRevisionsRequest extends
-      com.google.protobuf.GeneratedMessage
-      implements GetRevisionsRequestOrBuilder {
+      com.google.protobuf.GeneratedMessage implements
+      // @@protoc_insertion_point(message_implements:nigori.GetRevisionsRequest)
+      GetRevisionsRequestOrBuilder {
     // Use GetRevisionsRequest.newBuilder() to construct.
-    private GetRevisionsRequest(Builder builder) {
+    private GetRevisionsRequest(com.google.protobuf.GeneratedMessage.Builder<?> builder) {
       super(builder);
+      this.unknownFields = builder.getUnknownFields();
     }
-    private GetRevisionsRequest(boolean noInit) {}
-    
+    private GetRevisionsRequest(boolean noInit) { this.unknownFields = com.google.protobuf.UnknownFieldSet.getDefaultInstance(); }
+
     private static final GetRevisionsRequest defaultInstance;
     public static GetRevisionsRequest getDefaultInstance() {
       return defaultInstance;
     }
-    
+
     public GetRevisionsRequest getDefaultInstanceForType() {
       return defaultInstance;
     }
-    
-    public static final com.google.protobuf.Descriptors.Descriptor
-        getDescriptor() {
-      return com.google.nigori.common.NigoriMessages.internal_static_nigori_GetRevisionsRequest_descriptor;
-    }
-    
-    protected com.google.protobuf.GeneratedMessage.FieldAccessorTable
-        internalGetFieldAccessorTable() {
-      return com.google.nigori.common.NigoriMessages.internal_static_nigori_GetRevisionsRequest_fieldAccessorTable;
-    }
-    
-    private int bitField0_;
-    // required .nigori.AuthenticateRequest auth = 1;
-    public static final int AUTH_FIELD_NUMBER = 1;
-    private com.google.nigori.common.NigoriMessages.AuthenticateRequest auth_;
-    public boolean hasAuth() {
-      return ((bitField0_ & 0x00000001) == 0x00000001);
-    }
-    public com.google.nigori.common.NigoriMessages.AuthenticateRequest getAuth() {
-      return auth_;
-    }
-    public com.google.nigori.common.NigoriMessages.AuthenticateRequestOrBuilder getAuthOrBuilder() {
-      return auth_;
+
+    private final com.google.protobuf.UnknownFieldSet unknownFields;
+    @java.lang.Override
+    public final com.google.protobuf.UnknownFieldSet
+        getUnknownFields() {
+      return this.unknownFields;
     }
-    
-    // required bytes key = 2;
-    public static final int KEY_FIELD_NUMBER = 2;
+    private GetRevisionsRequest(
+        com.google.protobuf.CodedInputStream input,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws com.google.protobuf.InvalidProtocolBufferException {
+      initFields();
+      int mutable_bitField0_ = 0;
+      com.google.protobuf.UnknownFieldSet.Builder unknownFields =
+          com.google.protobuf.UnknownFieldSet.newBuilder();
+      try {
+        boolean done = false;
+        while (!done) {
+          int tag = input.readTag();
+          switch (tag) {
+            case 0:
+              done = true;
+              break;
+            default: {
+              if (!parseUnknownField(input, unknownFields,
+                                     extensionRegistry, tag)) {
+                done = true;
+              }
+              break;
+            }
+            case 10: {
+              com.google.nigori.common.NigoriMessages.AuthenticateRequest.Builder subBuilder = null;
+              if (((bitField0_ & 0x00000001) == 0x00000001)) {
+                subBuilder = auth_.toBuilder();
+              }
+              auth_ = input.readMessage(com.google.nigori.common.NigoriMessages.AuthenticateRequest.PARSER, extensionRegistry);
+              if (subBuilder != null) {
+                subBuilder.mergeFrom(auth_);
+                auth_ = subBuilder.buildPartial();
+              }
+              bitField0_ |= 0x00000001;
+              break;
+            }
+            case 18: {
+              bitField0_ |= 0x00000002;
+              key_ = input.readBytes();
+              break;
+            }
+            case 26: {
+              bitField0_ |= 0x00000004;
+              fingerprint_ = input.readBytes();
+              break;
+            }
+          }
+        }
+      } catch (com.google.protobuf.InvalidProtocolBufferException e) {
+        throw e.setUnfinishedMessage(this);
+      } catch (java.io.IOException e) {
+        throw new com.google.protobuf.InvalidProtocolBufferException(
+            e.getMessage()).setUnfinishedMessage(this);
+      } finally {
+        this.unknownFields = unknownFields.build();
+        makeExtensionsImmutable();
+      }
+    }
+    public static final com.google.protobuf.Descriptors.Descriptor
+        getDescriptor() {
+      return com.google.nigori.common.NigoriMessages.internal_static_nigori_GetRevisionsRequest_descriptor;
+    }
+
+    protected com.google.protobuf.GeneratedMessage.FieldAccessorTable
+        internalGetFieldAccessorTable() {
+      return com.google.nigori.common.NigoriMessages.internal_static_nigori_GetRevisionsRequest_fieldAccessorTable
+          .ensureFieldAccessorsInitialized(
+              com.google.nigori.common.NigoriMessages.GetRevisionsRequest.class, com.google.nigori.common.NigoriMessages.GetRevisionsRequest.Builder.class);
+    }
+
+    public static com.google.protobuf.Parser<GetRevisionsRequest> PARSER =
+        new com.google.protobuf.AbstractParser<GetRevisionsRequest>() {
+      public GetRevisionsRequest parsePartialFrom(
+          com.google.protobuf.CodedInputStream input,
+          com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+          throws com.google.protobuf.InvalidProtocolBufferException {
+        return new GetRevisionsRequest(input, extensionRegistry);
+      }
+    };
+
+    @java.lang.Override
+    public com.google.protobuf.Parser<GetRevisionsRequest> getParserForType() {
+      return PARSER;
+    }
+
+    private int bitField0_;
+    public static final int AUTH_FIELD_NUMBER = 1;
+    private com.google.nigori.common.NigoriMessages.AuthenticateRequest auth_;
+    /**
+     * <code>required .nigori.AuthenticateRequest auth = 1;</code>
+     */
+    public boolean hasAuth() {
+      return ((bitField0_ & 0x00000001) == 0x00000001);
+    }
+    /**
+     * <code>required .nigori.AuthenticateRequest auth = 1;</code>
+     */
+    public com.google.nigori.common.NigoriMessages.AuthenticateRequest getAuth() {
+      return auth_;
+    }
+    /**
+     * <code>required .nigori.AuthenticateRequest auth = 1;</code>
+     */
+    public com.google.nigori.common.NigoriMessages.AuthenticateRequestOrBuilder getAuthOrBuilder() {
+      return auth_;
+    }
+
+    public static final int KEY_FIELD_NUMBER = 2;
     private com.google.protobuf.ByteString key_;
+    /**
+     * <code>required bytes key = 2;</code>
+     */
     public boolean hasKey() {
       return ((bitField0_ & 0x00000002) == 0x00000002);
     }
+    /**
+     * <code>required bytes key = 2;</code>
+     */
     public com.google.protobuf.ByteString getKey() {
       return key_;
     }
-    
+
+    public static final int FINGERPRINT_FIELD_NUMBER = 3;
+    private com.google.protobuf.ByteString fingerprint_;
+    /**
+     * <code>optional bytes fingerprint = 3;</code>
+     *
+     * <pre>
+     * RevisionFingerprint of the revisions the client already has
+     * </pre>
+     */
+    public boolean hasFingerprint() {
+      return ((bitField0_ & 0x00000004) == 0x00000004);
+    }
+    /**
+     * <code>optional bytes fingerprint = 3;</code>
+     *
+     * <pre>
+     * RevisionFingerprint of the revisions the client already has
+     * </pre>
+     */
+    public com.google.protobuf.ByteString getFingerprint() {
+      return fingerprint_;
+    }
+
     private void initFields() {
       auth_ = com.google.nigori.common.NigoriMessages.AuthenticateRequest.getDefaultInstance();
       key_ = com.google.protobuf.ByteString.EMPTY;
+      fingerprint_ = com.google.protobuf.ByteString.EMPTY;
     }
     private byte memoizedIsInitialized = -1;
     public final boolean isInitialized() {
       byte isInitialized = memoizedIsInitialized;
-      if (isInitialized != -1) return isInitialized == 1;
-      
+      if (isInitialized == 1) return true;
+      if (isInitialized == 0) return false;
+
       if (!hasAuth()) {
         memoizedIsInitialized = 0;
         return false;
@@ -3959,7 +5468,7 @@ public final class NigoriMessages {
       memoizedIsInitialized = 1;
       return true;
     }
-    
+
     public void writeTo(com.google.protobuf.CodedOutputStream output)
                         throws java.io.IOException {
       getSerializedSize();
@@ -3969,14 +5478,17 @@ public final class NigoriMessages {
       if (((bitField0_ & 0x00000002) == 0x00000002)) {
         output.writeBytes(2, key_);
       }
+      if (((bitField0_ & 0x00000004) == 0x00000004)) {
+        output.writeBytes(3, fingerprint_);
+      }
       getUnknownFields().writeTo(output);
     }
-    
+
     private int memoizedSerializedSize = -1;
     public int getSerializedSize() {
       int size = memoizedSerializedSize;
       if (size != -1) return size;
-    
+
       size = 0;
       if (((bitField0_ & 0x00000001) == 0x00000001)) {
         size += com.google.protobuf.CodedOutputStream
@@ -3986,115 +5498,114 @@ public final class NigoriMessages {
         size += com.google.protobuf.CodedOutputStream
           .computeBytesSize(2, key_);
       }
+      if (((bitField0_ & 0x00000004) == 0x00000004)) {
+        size += com.google.protobuf.CodedOutputStream
+          .computeBytesSize(3, fingerprint_);
+      }
       size += getUnknownFields().getSerializedSize();
       memoizedSerializedSize = size;
       return size;
     }
-    
+
+    private static final long serialVersionUID = 0L;
     @java.lang.Override
-    protected Object writeReplace() throws java.io.ObjectStreamException {
+    protected java.lang.Object writeReplace()
+        throws java.io.ObjectStreamException {
       return super.writeReplace();
     }
-    
+
     public static com.google.nigori.common.NigoriMessages.GetRevisionsRequest parseFrom(
         com.google.protobuf.ByteString data)
         throws com.google.protobuf.InvalidProtocolBufferException {
-      return newBuilder().mergeFrom(data).buildParsed();
+      return PARSER.parseFrom(data);
     }
     public static com.google.nigori.common.NigoriMessages.GetRevisionsRequest parseFrom(
         com.google.protobuf.ByteString data,
         com.google.protobuf.ExtensionRegistryLite extensionRegistry)
         throws com.google.protobuf.InvalidProtocolBufferException {
-      return newBuilder().mergeFrom(data, extensionRegistry)
-               .buildParsed();
+      return PARSER.parseFrom(data, extensionRegistry);
     }
     public static com.google.nigori.common.NigoriMessages.GetRevisionsRequest parseFrom(byte[] data)
         throws com.google.protobuf.InvalidProtocolBufferException {
-      return newBuilder().mergeFrom(data).buildParsed();
+      return PARSER.parseFrom(data);
     }
     public static com.google.nigori.common.NigoriMessages.GetRevisionsRequest parseFrom(
         byte[] data,
         com.google.protobuf.ExtensionRegistryLite extensionRegistry)
         throws com.google.protobuf.InvalidProtocolBufferException {
-      return newBuilder().mergeFrom(data, extensionRegistry)
-               .buildParsed();
+      return PARSER.parseFrom(data, extensionRegistry);
     }
     public static com.google.nigori.common.NigoriMessages.GetRevisionsRequest parseFrom(java.io.InputStream input)
         throws java.io.IOException {
-      return newBuilder().mergeFrom(input).buildParsed();
+      return PARSER.parseFrom(input);
     }
     public static com.google.nigori.common.NigoriMessages.GetRevisionsRequest parseFrom(
         java.io.InputStream input,
         com.google.protobuf.ExtensionRegistryLite extensionRegistry)
         throws java.io.IOException {
-      return newBuilder().mergeFrom(input, extensionRegistry)
-               .buildParsed();
+      return PARSER.parseFrom(input, extensionRegistry);
     }
     public static com.google.nigori.common.NigoriMessages.GetRevisionsRequest parseDelimitedFrom(java.io.InputStream input)
         throws java.io.IOException {
-      Builder builder = newBuilder();
-      if (builder.mergeDelimitedFrom(input)) {
-        return builder.buildParsed();
-      } else {
-        return null;
-      }
+      return PARSER.parseDelimitedFrom(input);
     }
     public static com.google.nigori.common.NigoriMessages.GetRevisionsRequest parseDelimitedFrom(
         java.io.InputStream input,
         com.google.protobuf.ExtensionRegistryLite extensionRegistry)
         throws java.io.IOException {
-      Builder builder = newBuilder();
-      if (builder.mergeDelimitedFrom(input, extensionRegistry)) {
-        return builder.buildParsed();
-      } else {
-        return null;
-      }
+      return PARSER.parseDelimitedFrom(input, extensionRegistry);
     }
     public static com.google.nigori.common.NigoriMessages.GetRevisionsRequest parseFrom(
         com.google.protobuf.CodedInputStream input)
         throws java.io.IOException {
-      return newBuilder().mergeFrom(input).buildParsed();
+      return PARSER.parseFrom(input);
     }
     public static com.google.nigori.common.NigoriMessages.GetRevisionsRequest parseFrom(
         com.google.protobuf.CodedInputStream input,
         com.google.protobuf.ExtensionRegistryLite extensionRegistry)
         throws java.io.IOException {
-      return newBuilder().mergeFrom(input, extensionRegistry)
-               .buildParsed();
+      return PARSER.parseFrom(input, extensionRegistry);
     }
-    
+
     public static Builder newBuilder() { return Builder.create(); }
     public Builder newBuilderForType() { return newBuilder(); }
     public static Builder newBuilder(com.google.nigori.common.NigoriMessages.GetRevisionsRequest prototype) {
       return newBuilder().mergeFrom(prototype);
     }
     public Builder toBuilder() { return newBuilder(this); }
-    
+
     @java.lang.Override
     protected Builder newBuilderForType(
         com.google.protobuf.GeneratedMessage.BuilderParent parent) {
       Builder builder = new Builder(parent);
       return builder;
     }
+    /**
+     * Protobuf type {@code nigori.GetRevisionsRequest}
+     */
     public static final class Builder extends
-        com.google.protobuf.GeneratedMessage.Builder<Builder>
-       implements com.google.nigori.common.NigoriMessages.GetRevisionsRequestOrBuilder {
+        com.google.protobuf.GeneratedMessage.Builder<Builder> implements
+        // @@protoc_insertion_point(builder_implements:nigori.GetRevisionsRequest)
+        com.google.nigori.common.NigoriMessages.GetRevisionsRequestOrBuilder {
       public static final com.google.protobuf.Descriptors.Descriptor
           getDescriptor() {
         return com.google.nigori.common.NigoriMessages.internal_static_nigori_GetRevisionsRequest_descriptor;
       }
-      
+
       protected com.google.protobuf.GeneratedMessage.FieldAccessorTable
           internalGetFieldAccessorTable() {
-        return com.google.nigori.common.NigoriMessages.internal_static_nigori_GetRevisionsRequest_fieldAccessorTable;
+        return com.google.nigori.common.NigoriMessages.internal_static_nigori_GetRevisionsRequest_fieldAccessorTable
+            .ensureFieldAccessorsInitialized(
+                com.google.nigori.common.NigoriMessages.GetRevisionsRequest.class, com.google.nigori.common.NigoriMessages.GetRevisionsRequest.Builder.class);
       }
-      
+
       // Construct using com.google.nigori.common.NigoriMessages.GetRevisionsRequest.newBuilder()
       private Builder() {
         maybeForceBuilderInitialization();
       }
-      
-      private Builder(BuilderParent parent) {
+
+      private Builder(
+          com.google.protobuf.GeneratedMessage.BuilderParent parent) {
         super(parent);
         maybeForceBuilderInitialization();
       }
@@ -4106,7 +5617,7 @@ public final class NigoriMessages {
       private static Builder create() {
         return new Builder();
       }
-      
+
       public Builder clear() {
         super.clear();
         if (authBuilder_ == null) {
@@ -4117,22 +5628,24 @@ public final class NigoriMessages {
         bitField0_ = (bitField0_ & ~0x00000001);
         key_ = com.google.protobuf.ByteString.EMPTY;
         bitField0_ = (bitField0_ & ~0x00000002);
+        fingerprint_ = com.google.protobuf.ByteString.EMPTY;
+        bitField0_ = (bitField0_ & ~0x00000004);
         return this;
       }
-      
+
       public Builder clone() {
         return create().mergeFrom(buildPartial());
       }
-      
+
       public com.google.protobuf.Descriptors.Descriptor
           getDescriptorForType() {
-        return com.google.nigori.common.NigoriMessages.GetRevisionsRequest.getDescriptor();
+        return com.google.nigori.common.NigoriMessages.internal_static_nigori_GetRevisionsRequest_descriptor;
       }
-      
+
       public com.google.nigori.common.NigoriMessages.GetRevisionsRequest getDefaultInstanceForType() {
         return com.google.nigori.common.NigoriMessages.GetRevisionsRequest.getDefaultInstance();
       }
-      
+
       public com.google.nigori.common.NigoriMessages.GetRevisionsRequest build() {
         com.google.nigori.common.NigoriMessages.GetRevisionsRequest result = buildPartial();
         if (!result.isInitialized()) {
@@ -4140,17 +5653,7 @@ public final class NigoriMessages {
         }
         return result;
       }
-      
-      private com.google.nigori.common.NigoriMessages.GetRevisionsRequest buildParsed()
-          throws com.google.protobuf.InvalidProtocolBufferException {
-        com.google.nigori.common.NigoriMessages.GetRevisionsRequest result = buildPartial();
-        if (!result.isInitialized()) {
-          throw newUninitializedMessageException(
-            result).asInvalidProtocolBufferException();
-        }
-        return result;
-      }
-      
+
       public com.google.nigori.common.NigoriMessages.GetRevisionsRequest buildPartial() {
         com.google.nigori.common.NigoriMessages.GetRevisionsRequest result = new com.google.nigori.common.NigoriMessages.GetRevisionsRequest(this);
         int from_bitField0_ = bitField0_;
@@ -4167,11 +5670,15 @@ public final class NigoriMessages {
           to_bitField0_ |= 0x00000002;
         }
         result.key_ = key_;
+        if (((from_bitField0_ & 0x00000004) == 0x00000004)) {
+          to_bitField0_ |= 0x00000004;
+        }
+        result.fingerprint_ = fingerprint_;
         result.bitField0_ = to_bitField0_;
         onBuilt();
         return result;
       }
-      
+
       public Builder mergeFrom(com.google.protobuf.Message other) {
         if (other instanceof com.google.nigori.common.NigoriMessages.GetRevisionsRequest) {
           return mergeFrom((com.google.nigori.common.NigoriMessages.GetRevisionsRequest)other);
@@ -4180,7 +5687,7 @@ public final class NigoriMessages {
           return this;
         }
       }
-      
+
       public Builder mergeFrom(com.google.nigori.common.NigoriMessages.GetRevisionsRequest other) {
         if (other == com.google.nigori.common.NigoriMessages.GetRevisionsRequest.getDefaultInstance()) return this;
         if (other.hasAuth()) {
@@ -4189,10 +5696,13 @@ public final class NigoriMessages {
         if (other.hasKey()) {
           setKey(other.getKey());
         }
+        if (other.hasFingerprint()) {
+          setFingerprint(other.getFingerprint());
+        }
         this.mergeUnknownFields(other.getUnknownFields());
         return this;
       }
-      
+
       public final boolean isInitialized() {
         if (!hasAuth()) {
           
@@ -4208,57 +5718,38 @@ public final class NigoriMessages {
         }
         return true;
       }
-      
+
       public Builder mergeFrom(
           com.google.protobuf.CodedInputStream input,
           com.google.protobuf.ExtensionRegistryLite extensionRegistry)
           throws java.io.IOException {
-        com.google.protobuf.UnknownFieldSet.Builder unknownFields =
-          com.google.protobuf.UnknownFieldSet.newBuilder(
-            this.getUnknownFields());
-        while (true) {
-          int tag = input.readTag();
-          switch (tag) {
-            case 0:
-              this.setUnknownFields(unknownFields.build());
-              onChanged();
-              return this;
-            default: {
-              if (!parseUnknownField(input, unknownFields,
-                                     extensionRegistry, tag)) {
-                this.setUnknownFields(unknownFields.build());
-                onChanged();
-                return this;
-              }
-              break;
-            }
-            case 10: {
-              com.google.nigori.common.NigoriMessages.AuthenticateRequest.Builder subBuilder = com.google.nigori.common.NigoriMessages.AuthenticateRequest.newBuilder();
-              if (hasAuth()) {
-                subBuilder.mergeFrom(getAuth());
-              }
-              input.readMessage(subBuilder, extensionRegistry);
-              setAuth(subBuilder.buildPartial());
-              break;
-            }
-            case 18: {
-              bitField0_ |= 0x00000002;
-              key_ = input.readBytes();
-              break;
-            }
+        com.google.nigori.common.NigoriMessages.GetRevisionsRequest parsedMessage = null;
+        try {
+          parsedMessage = PARSER.parsePartialFrom(input, extensionRegistry);
+        } catch (com.google.protobuf.InvalidProtocolBufferException e) {
+          parsedMessage = (com.google.nigori.common.NigoriMessages.GetRevisionsRequest) e.getUnfinishedMessage();
+          throw e;
+        } finally {
+          if (parsedMessage != null) {
+            mergeFrom(parsedMessage);
           }
         }
+        return this;
       }
-      
       private int bitField0_;
-      
-      // required .nigori.AuthenticateRequest auth = 1;
+
       private com.google.nigori.common.NigoriMessages.AuthenticateRequest auth_ = com.google.nigori.common.NigoriMessages.AuthenticateRequest.getDefaultInstance();
       private com.google.protobuf.SingleFieldBuilder<
           com.google.nigori.common.NigoriMessages.AuthenticateRequest, com.google.nigori.common.NigoriMessages.AuthenticateRequest.Builder, com.google.nigori.common.NigoriMessages.AuthenticateRequestOrBuilder> authBuilder_;
+      /**
+       * <code>required .nigori.AuthenticateRequest auth = 1;</code>
+       */
       public boolean hasAuth() {
         return ((bitField0_ & 0x00000001) == 0x00000001);
       }
+      /**
+       * <code>required .nigori.AuthenticateRequest auth = 1;</code>
+       */
       public com.google.nigori.common.NigoriMessages.AuthenticateRequest getAuth() {
         if (authBuilder_ == null) {
           return auth_;
@@ -4266,6 +5757,9 @@ public final class NigoriMessages {
           return authBuilder_.getMessage();
         }
       }
+      /**
+       * <code>required .nigori.AuthenticateRequest auth = 1;</code>
+       */
       public Builder setAuth(com.google.nigori.common.NigoriMessages.AuthenticateRequest value) {
         if (authBuilder_ == null) {
           if (value == null) {
@@ -4279,6 +5773,9 @@ public final class NigoriMessages {
         bitField0_ |= 0x00000001;
         return this;
       }
+      /**
+       * <code>required .nigori.AuthenticateRequest auth = 1;</code>
+       */
       public Builder setAuth(
           com.google.nigori.common.NigoriMessages.AuthenticateRequest.Builder builderForValue) {
         if (authBuilder_ == null) {
@@ -4290,6 +5787,9 @@ public final class NigoriMessages {
         bitField0_ |= 0x00000001;
         return this;
       }
+      /**
+       * <code>required .nigori.AuthenticateRequest auth = 1;</code>
+       */
       public Builder mergeAuth(com.google.nigori.common.NigoriMessages.AuthenticateRequest value) {
         if (authBuilder_ == null) {
           if (((bitField0_ & 0x00000001) == 0x00000001) &&
@@ -4306,6 +5806,9 @@ public final class NigoriMessages {
         bitField0_ |= 0x00000001;
         return this;
       }
+      /**
+       * <code>required .nigori.AuthenticateRequest auth = 1;</code>
+       */
       public Builder clearAuth() {
         if (authBuilder_ == null) {
           auth_ = com.google.nigori.common.NigoriMessages.AuthenticateRequest.getDefaultInstance();
@@ -4316,11 +5819,17 @@ public final class NigoriMessages {
         bitField0_ = (bitField0_ & ~0x00000001);
         return this;
       }
+      /**
+       * <code>required .nigori.AuthenticateRequest auth = 1;</code>
+       */
       public com.google.nigori.common.NigoriMessages.AuthenticateRequest.Builder getAuthBuilder() {
         bitField0_ |= 0x00000001;
         onChanged();
         return getAuthFieldBuilder().getBuilder();
       }
+      /**
+       * <code>required .nigori.AuthenticateRequest auth = 1;</code>
+       */
       public com.google.nigori.common.NigoriMessages.AuthenticateRequestOrBuilder getAuthOrBuilder() {
         if (authBuilder_ != null) {
           return authBuilder_.getMessageOrBuilder();
@@ -4328,28 +5837,39 @@ public final class NigoriMessages {
           return auth_;
         }
       }
+      /**
+       * <code>required .nigori.AuthenticateRequest auth = 1;</code>
+       */
       private com.google.protobuf.SingleFieldBuilder<
           com.google.nigori.common.NigoriMessages.AuthenticateRequest, com.google.nigori.common.NigoriMessages.AuthenticateRequest.Builder, com.google.nigori.common.NigoriMessages.AuthenticateRequestOrBuilder> 
           getAuthFieldBuilder() {
         if (authBuilder_ == null) {
           authBuilder_ = new com.google.protobuf.SingleFieldBuilder<
               com.google.nigori.common.NigoriMessages.AuthenticateRequest, com.google.nigori.common.NigoriMessages.AuthenticateRequest.Builder, com.google.nigori.common.NigoriMessages.AuthenticateRequestOrBuilder>(
-                  auth_,
+                  getAuth(),
                   getParentForChildren(),
                   isClean());
           auth_ = null;
         }
         return authBuilder_;
       }
-      
-      // required bytes key = 2;
+
       private com.google.protobuf.ByteString key_ = com.google.protobuf.ByteString.EMPTY;
+      /**
+       * <code>required bytes key = 2;</code>
+       */
       public boolean hasKey() {
         return ((bitField0_ & 0x00000002) == 0x00000002);
       }
+      /**
+       * <code>required bytes key = 2;</code>
+       */
       public com.google.protobuf.ByteString getKey() {
         return key_;
       }
+      /**
+       * <code>required bytes key = 2;</code>
+       */
       public Builder setKey(com.google.protobuf.ByteString value) {
         if (value == null) {
     throw new NullPointerException();
@@ -4359,102 +5879,309 @@ public final class NigoriMessages {
         onChanged();
         return this;
       }
+      /**
+       * <code>required bytes key = 2;</code>
+       */
       public Builder clearKey() {
         bitField0_ = (bitField0_ & ~0x00000002);
         key_ = getDefaultInstance().getKey();
         onChanged();
         return this;
       }
-      
+
+      private com.google.protobuf.ByteString fingerprint_ = com.google.protobuf.ByteString.EMPTY;
+      /**
+       * <code>optional bytes fingerprint = 3;</code>
+       *
+       * <pre>
+       * RevisionFingerprint of the revisions the client already has
+       * </pre>
+       */
+      public boolean hasFingerprint() {
+        return ((bitField0_ & 0x00000004) == 0x00000004);
+      }
+      /**
+       * <code>optional bytes fingerprint = 3;</code>
+       *
+       * <pre>
+       * RevisionFingerprint of the revisions the client already has
+       * </pre>
+       */
+      public com.google.protobuf.ByteString getFingerprint() {
+        return fingerprint_;
+      }
+      /**
+       * <code>optional bytes fingerprint = 3;</code>
+       *
+       * <pre>
+       * RevisionFingerprint of the revisions the client already has
+       * </pre>
+       */
+      public Builder setFingerprint(com.google.protobuf.ByteString value) {
+        if (value == null) {
+    throw new NullPointerException();
+  }
+  bitField0_ |= 0x00000004;
+        fingerprint_ = value;
+        onChanged();
+        return this;
+      }
+      /**
+       * <code>optional bytes fingerprint = 3;</code>
+       *
+       * <pre>
+       * RevisionFingerprint of the revisions the client already has
+       * </pre>
+       */
+      public Builder clearFingerprint() {
+        bitField0_ = (bitField0_ & ~0x00000004);
+        fingerprint_ = getDefaultInstance().getFingerprint();
+        onChanged();
+        return this;
+      }
+
       // @@protoc_insertion_point(builder_scope:nigori.GetRevisionsRequest)
     }
-    
+
     static {
       defaultInstance = new GetRevisionsRequest(true);
       defaultInstance.initFields();
     }
-    
+
     // @@protoc_insertion_point(class_scope:nigori.GetRevisionsRequest)
   }
-  
-  public interface GetRevisionsResponseOrBuilder
-      extends com.google.protobuf.MessageOrBuilder {
-    
-    // repeated bytes revisions = 1;
+
+  public interface GetRevisionsResponseOrBuilder extends
+      // @@protoc_insertion_point(interface_extends:nigori.GetRevisionsResponse)
+      com.google.protobuf.MessageOrBuilder {
+
+    /**
+     * <code>repeated bytes revisions = 1;</code>
+     */
     java.util.List<com.google.protobuf.ByteString> getRevisionsList();
+    /**
+     * <code>repeated bytes revisions = 1;</code>
+     */
     int getRevisionsCount();
+    /**
+     * <code>repeated bytes revisions = 1;</code>
+     */
     com.google.protobuf.ByteString getRevisions(int index);
-    
-    // optional bytes key = 2;
+
+    /**
+     * <code>optional bytes key = 2;</code>
+     */
     boolean hasKey();
+    /**
+     * <code>optional bytes key = 2;</code>
+     */
     com.google.protobuf.ByteString getKey();
+
+    /**
+     * <code>optional bool partial = 3;</code>
+     *
+     * <pre>
+     * Only the revisions missing from the request's fingerprint are included, none if not modified
+     * </pre>
+     */
+    boolean hasPartial();
+    /**
+     * <code>optional bool partial = 3;</code>
+     *
+     * <pre>
+     * Only the revisions missing from the request's fingerprint are included, none if not modified
+     * </pre>
+     */
+    boolean getPartial();
   }
+  /**
+   * Protobuf type {@code nigori.GetRevisionsResponse}
+   */
   public static final class GetRevisionsResponse extends
-      com.google.protobuf.GeneratedMessage
-      implements GetRevisionsResponseOrBuilder {
+      com.google.protobuf.GeneratedMessage implements
+      // @@protoc_insertion_point(message_implements:nigori.GetRevisionsResponse)
+      GetRevisionsResponseOrBuilder {
     // Use GetRevisionsResponse.newBuilder() to construct.
-    private GetRevisionsResponse(Builder builder) {
+    private GetRevisionsResponse(com.google.protobuf.GeneratedMessage.Builder<?> builder) {
       super(builder);
+      this.unknownFields = builder.getUnknownFields();
     }
-    private GetRevisionsResponse(boolean noInit) {}
-    
+    private GetRevisionsResponse(boolean noInit) { this.unknownFields = com.google.protobuf.UnknownFieldSet.getDefaultInstance(); }
+
     private static final GetRevisionsResponse defaultInstance;
     public static GetRevisionsResponse getDefaultInstance() {
       return defaultInstance;
     }
-    
+
     public GetRevisionsResponse getDefaultInstanceForType() {
       return defaultInstance;
     }
-    
+
+    private final com.google.protobuf.UnknownFieldSet unknownFields;
+    @java.lang.Override
+    public final com.google.protobuf.UnknownFieldSet
+        getUnknownFields() {
+      return this.unknownFields;
+    }
+    private GetRevisionsResponse(
+        com.google.protobuf.CodedInputStream input,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws com.google.protobuf.InvalidProtocolBufferException {
+      initFields();
+      int mutable_bitField0_ = 0;
+      com.google.protobuf.UnknownFieldSet.Builder unknownFields =
+          com.google.protobuf.UnknownFieldSet.newBuilder();
+      try {
+        boolean done = false;
+        while (!done) {
+          int tag = input.readTag();
+          switch (tag) {
+            case 0:
+              done = true;
+              break;
+            default: {
+              if (!parseUnknownField(input, unknownFields,
+                                     extensionRegistry, tag)) {
+                done = true;
+              }
+              break;
+            }
+            case 10: {
+              if (!((mutable_bitField0_ & 0x00000001) == 0x00000001)) {
+                revisions_ = new java.util.ArrayList<com.google.protobuf.ByteString>();
+                mutable_bitField0_ |= 0x00000001;
+              }
+              revisions_.add(input.readBytes());
+              break;
+            }
+            case 18: {
+              bitField0_ |= 0x00000001;
+              key_ = input.readBytes();
+              break;
+            }
+            case 24: {
+              bitField0_ |= 0x00000002;
+              partial_ = input.readBool();
+              break;
+            }
+          }
+        }
+      } catch (com.google.protobuf.InvalidProtocolBufferException e) {
+        throw e.setUnfinishedMessage(this);
+      } catch (java.io.IOException e) {
+        throw new com.google.protobuf.InvalidProtocolBufferException(
+            e.getMessage()).setUnfinishedMessage(this);
+      } finally {
+        if (((mutable_bitField0_ & 0x00000001) == 0x00000001)) {
+          revisions_ = java.util.Collections.unmodifiableList(revisions_);
+        }
+        this.unknownFields = unknownFields.build();
+        makeExtensionsImmutable();
+      }
+    }
     public static final com.google.protobuf.Descriptors.Descriptor
         getDescriptor() {
       return com.google.nigori.common.NigoriMessages.internal_static_nigori_GetRevisionsResponse_descriptor;
     }
-    
+
     protected com.google.protobuf.GeneratedMessage.FieldAccessorTable
         internalGetFieldAccessorTable() {
-      return com.google.nigori.common.NigoriMessages.internal_static_nigori_GetRevisionsResponse_fieldAccessorTable;
+      return com.google.nigori.common.NigoriMessages.internal_static_nigori_GetRevisionsResponse_fieldAccessorTable
+          .ensureFieldAccessorsInitialized(
+              com.google.nigori.common.NigoriMessages.GetRevisionsResponse.class, com.google.nigori.common.NigoriMessages.GetRevisionsResponse.Builder.class);
+    }
+
+    public static com.google.protobuf.Parser<GetRevisionsResponse> PARSER =
+        new com.google.protobuf.AbstractParser<GetRevisionsResponse>() {
+      public GetRevisionsResponse parsePartialFrom(
+          com.google.protobuf.CodedInputStream input,
+          com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+          throws com.google.protobuf.InvalidProtocolBufferException {
+        return new GetRevisionsResponse(input, extensionRegistry);
+      }
+    };
+
+    @java.lang.Override
+    public com.google.protobuf.Parser<GetRevisionsResponse> getParserForType() {
+      return PARSER;
     }
-    
+
     private int bitField0_;
-    // repeated bytes revisions = 1;
     public static final int REVISIONS_FIELD_NUMBER = 1;
     private java.util.List<com.google.protobuf.ByteString> revisions_;
+    /**
+     * <code>repeated bytes revisions = 1;</code>
+     */
     public java.util.List<com.google.protobuf.ByteString>
         getRevisionsList() {
       return revisions_;
     }
+    /**
+     * <code>repeated bytes revisions = 1;</code>
+     */
     public int getRevisionsCount() {
       return revisions_.size();
     }
+    /**
+     * <code>repeated bytes revisions = 1;</code>
+     */
     public com.google.protobuf.ByteString getRevisions(int index) {
       return revisions_.get(index);
     }
-    
-    // optional bytes key = 2;
+
     public static final int KEY_FIELD_NUMBER = 2;
     private com.google.protobuf.ByteString key_;
+    /**
+     * <code>optional bytes key = 2;</code>
+     */
     public boolean hasKey() {
       return ((bitField0_ & 0x00000001) == 0x00000001);
     }
+    /**
+     * <code>optional bytes key = 2;</code>
+     */
     public com.google.protobuf.ByteString getKey() {
       return key_;
     }
-    
+
+    public static final int PARTIAL_FIELD_NUMBER = 3;
+    private boolean partial_;
+    /**
+     * <code>optional bool partial = 3;</code>
+     *
+     * <pre>
+     * Only the revisions missing from the request's fingerprint are included, none if not modified
+     * </pre>
+     */
+    public boolean hasPartial() {
+      return ((bitField0_ & 0x00000002) == 0x00000002);
+    }
+    /**
+     * <code>optional bool partial = 3;</code>
+     *
+     * <pre>
+     * Only the revisions missing from the request's fingerprint are included, none if not modified
+     * </pre>
+     */
+    public boolean getPartial() {
+      return partial_;
+    }
+
     private void initFields() {
-      revisions_ = java.util.Collections.emptyList();;
+      revisions_ = java.util.Collections.emptyList();
       key_ = com.google.protobuf.ByteString.EMPTY;
+      partial_ = false;
     }
     private byte memoizedIsInitialized = -1;
     public final boolean isInitialized() {
       byte isInitialized = memoizedIsInitialized;
-      if (isInitialized != -1) return isInitialized == 1;
-      
+      if (isInitialized == 1) return true;
+      if (isInitialized == 0) return false;
+
       memoizedIsInitialized = 1;
       return true;
     }
-    
+
     public void writeTo(com.google.protobuf.CodedOutputStream output)
                         throws java.io.IOException {
       getSerializedSize();
@@ -4464,14 +6191,17 @@ public final class NigoriMessages {
       if (((bitField0_ & 0x00000001) == 0x00000001)) {
         output.writeBytes(2, key_);
       }
+      if (((bitField0_ & 0x00000002) == 0x00000002)) {
+        output.writeBool(3, partial_);
+      }
       getUnknownFields().writeTo(output);
     }
-    
+
     private int memoizedSerializedSize = -1;
     public int getSerializedSize() {
       int size = memoizedSerializedSize;
       if (size != -1) return size;
-    
+
       size = 0;
       {
         int dataSize = 0;
@@ -4486,115 +6216,114 @@ public final class NigoriMessages {
         size += com.google.protobuf.CodedOutputStream
           .computeBytesSize(2, key_);
       }
+      if (((bitField0_ & 0x00000002) == 0x00000002)) {
+        size += com.google.protobuf.CodedOutputStream
+          .computeBoolSize(3, partial_);
+      }
       size += getUnknownFields().getSerializedSize();
       memoizedSerializedSize = size;
       return size;
     }
-    
+
+    private static final long serialVersionUID = 0L;
     @java.lang.Override
-    protected Object writeReplace() throws java.io.ObjectStreamException {
+    protected java.lang.Object writeReplace()
+        throws java.io.ObjectStreamException {
       return super.writeReplace();
     }
-    
+
     public static com.google.nigori.common.NigoriMessages.GetRevisionsResponse parseFrom(
         com.google.protobuf.ByteString data)
         throws com.google.protobuf.InvalidProtocolBufferException {
-      return newBuilder().mergeFrom(data).buildParsed();
+      return PARSER.parseFrom(data);
     }
     public static com.google.nigori.common.NigoriMessages.GetRevisionsResponse parseFrom(
         com.google.protobuf.ByteString data,
         com.google.protobuf.ExtensionRegistryLite extensionRegistry)
         throws com.google.protobuf.InvalidProtocolBufferException {
-      return newBuilder().mergeFrom(data, extensionRegistry)
-               .buildParsed();
+      return PARSER.parseFrom(data, extensionRegistry);
     }
     public static com.google.nigori.common.NigoriMessages.GetRevisionsResponse parseFrom(byte[] data)
         throws com.google.protobuf.InvalidProtocolBufferException {
-      return newBuilder().mergeFrom(data).buildParsed();
+      return PARSER.parseFrom(data);
     }
     public static com.google.nigori.common.NigoriMessages.GetRevisionsResponse parseFrom(
         byte[] data,
         com.google.protobuf.ExtensionRegistryLite extensionRegistry)
         throws com.google.protobuf.InvalidProtocolBufferException {
-      return newBuilder().mergeFrom(data, extensionRegistry)
-               .buildParsed();
+      return PARSER.parseFrom(data, extensionRegistry);
     }
     public static com.google.nigori.common.NigoriMessages.GetRevisionsResponse parseFrom(java.io.InputStream input)
         throws java.io.IOException {
-      return newBuilder().mergeFrom(input).buildParsed();
+      return PARSER.parseFrom(input);
     }
     public static com.google.nigori.common.NigoriMessages.GetRevisionsResponse parseFrom(
         java.io.InputStream input,
         com.google.protobuf.ExtensionRegistryLite extensionRegistry)
         throws java.io.IOException {
-      return newBuilder().mergeFrom(input, extensionRegistry)
-               .buildParsed();
+      return PARSER.parseFrom(input, extensionRegistry);
     }
     public static com.google.nigori.common.NigoriMessages.GetRevisionsResponse parseDelimitedFrom(java.io.InputStream input)
         throws java.io.IOException {
-      Builder builder = newBuilder();
-      if (builder.mergeDelimitedFrom(input)) {
-        return builder.buildParsed();
-      } else {
-        return null;
-      }
+      return PARSER.parseDelimitedFrom(input);
     }
     public static com.google.nigori.common.NigoriMessages.GetRevisionsResponse parseDelimitedFrom(
         java.io.InputStream input,
         com.google.protobuf.ExtensionRegistryLite extensionRegistry)
         throws java.io.IOException {
-      Builder builder = newBuilder();
-      if (builder.mergeDelimitedFrom(input, extensionRegistry)) {
-        return builder.buildParsed();
-      } else {
-        return null;
-      }
+      return PARSER.parseDelimitedFrom(input, extensionRegistry);
     }
     public static com.google.nigori.common.NigoriMessages.GetRevisionsResponse parseFrom(
         com.google.protobuf.CodedInputStream input)
         throws java.io.IOException {
-      return newBuilder().mergeFrom(input).buildParsed();
+      return PARSER.parseFrom(input);
     }
     public static com.google.nigori.common.NigoriMessages.GetRevisionsResponse parseFrom(
         com.google.protobuf.CodedInputStream input,
         com.google.protobuf.ExtensionRegistryLite extensionRegistry)
         throws java.io.IOException {
-      return newBuilder().mergeFrom(input, extensionRegistry)
-               .buildParsed();
+      return PARSER.parseFrom(input, extensionRegistry);
     }
-    
+
     public static Builder newBuilder() { return Builder.create(); }
     public Builder newBuilderForType() { return newBuilder(); }
     public static Builder newBuilder(com.google.nigori.common.NigoriMessages.GetRevisionsResponse prototype) {
       return newBuilder().mergeFrom(prototype);
     }
     public Builder toBuilder() { return newBuilder(this); }
-    
+
     @java.lang.Override
     protected Builder newBuilderForType(
         com.google.protobuf.GeneratedMessage.BuilderParent parent) {
       Builder builder = new Builder(parent);
       return builder;
     }
+    /**
+     * Protobuf type {@code nigori.GetRevisionsResponse}
+     */
     public static final class Builder extends
-        com.google.protobuf.GeneratedMessage.Builder<Builder>
-       implements com.google.nigori.common.NigoriMessages.GetRevisionsResponseOrBuilder {
+        com.google.protobuf.GeneratedMessage.Builder<Builder> implements
+        // @@protoc_insertion_point(builder_implements:nigori.GetRevisionsResponse)
+        com.google.nigori.common.NigoriMessages.GetRevisionsResponseOrBuilder {
       public static final com.google.protobuf.Descriptors.Descriptor
           getDescriptor() {
         return com.google.nigori.common.NigoriMessages.internal_static_nigori_GetRevisionsResponse_descriptor;
       }
-      
+
       protected com.google.protobuf.GeneratedMessage.FieldAccessorTable
           internalGetFieldAccessorTable() {
-        return com.google.nigori.common.NigoriMessages.internal_static_nigori_GetRevisionsResponse_fieldAccessorTable;
+        return com.google.nigori.common.NigoriMessages.internal_static_nigori_GetRevisionsResponse_fieldAccessorTable
+            .ensureFieldAccessorsInitialized(
+                com.google.nigori.common.NigoriMessages.GetRevisionsResponse.class, com.google.nigori.common.NigoriMessages.GetRevisionsResponse.Builder.class);
       }
-      
+
       // Construct using com.google.nigori.common.NigoriMessages.GetRevisionsResponse.newBuilder()
       private Builder() {
         maybeForceBuilderInitialization();
       }
-      
-      private Builder(BuilderParent parent) {
+
+      private Builder(
+          com.google.protobuf.GeneratedMessage.BuilderParent parent) {
         super(parent);
         maybeForceBuilderInitialization();
       }
@@ -4605,29 +6334,31 @@ public final class NigoriMessages {
       private static Builder create() {
         return new Builder();
       }
-      
+
       public Builder clear() {
         super.clear();
-        revisions_ = java.util.Collections.emptyList();;
+        revisions_ = java.util.Collections.emptyList();
         bitField0_ = (bitField0_ & ~0x00000001);
         key_ = com.google.protobuf.ByteString.EMPTY;
         bitField0_ = (bitField0_ & ~0x00000002);
+        partial_ = false;
+        bitField0_ = (bitField0_ & ~0x00000004);
         return this;
       }
-      
+
       public Builder clone() {
         return create().mergeFrom(buildPartial());
       }
-      
+
       public com.google.protobuf.Descriptors.Descriptor
           getDescriptorForType() {
-        return com.google.nigori.common.NigoriMessages.GetRevisionsResponse.getDescriptor();
+        return com.google.nigori.common.NigoriMessages.internal_static_nigori_GetRevisionsResponse_descriptor;
       }
-      
+
       public com.google.nigori.common.NigoriMessages.GetRevisionsResponse getDefaultInstanceForType() {
         return com.google.nigori.common.NigoriMessages.GetRevisionsResponse.getDefaultInstance();
       }
-      
+
       public com.google.nigori.common.NigoriMessages.GetRevisionsResponse build() {
         com.google.nigori.common.NigoriMessages.GetRevisionsResponse result = buildPartial();
         if (!result.isInitialized()) {
@@ -4635,17 +6366,7 @@ public final class NigoriMessages {
         }
         return result;
       }
-      
-      private com.google.nigori.common.NigoriMessages.GetRevisionsResponse buildParsed()
-          throws com.google.protobuf.InvalidProtocolBufferException {
-        com.google.nigori.common.NigoriMessages.GetRevisionsResponse result = buildPartial();
-        if (!result.isInitialized()) {
-          throw newUninitializedMessageException(
-            result).asInvalidProtocolBufferException();
-        }
-        return result;
-      }
-      
+
       public com.google.nigori.common.NigoriMessages.GetRevisionsResponse buildPartial() {
         com.google.nigori.common.NigoriMessages.GetRevisionsResponse result = new com.google.nigori.common.NigoriMessages.GetRevisionsResponse(this);
         int from_bitField0_ = bitField0_;
@@ -4659,11 +6380,15 @@ public final class NigoriMessages {
           to_bitField0_ |= 0x00000001;
         }
         result.key_ = key_;
+        if (((from_bitField0_ & 0x00000004) == 0x00000004)) {
+          to_bitField0_ |= 0x00000002;
+        }
+        result.partial_ = partial_;
         result.bitField0_ = to_bitField0_;
         onBuilt();
         return result;
       }
-      
+
       public Builder mergeFrom(com.google.protobuf.Message other) {
         if (other instanceof com.google.nigori.common.NigoriMessages.GetRevisionsResponse) {
           return mergeFrom((com.google.nigori.common.NigoriMessages.GetRevisionsResponse)other);
@@ -4672,7 +6397,7 @@ public final class NigoriMessages {
           return this;
         }
       }
-      
+
       public Builder mergeFrom(com.google.nigori.common.NigoriMessages.GetRevisionsResponse other) {
         if (other == com.google.nigori.common.NigoriMessages.GetRevisionsResponse.getDefaultInstance()) return this;
         if (!other.revisions_.isEmpty()) {
@@ -4688,71 +6413,65 @@ public final class NigoriMessages {
         if (other.hasKey()) {
           setKey(other.getKey());
         }
+        if (other.hasPartial()) {
+          setPartial(other.getPartial());
+        }
         this.mergeUnknownFields(other.getUnknownFields());
         return this;
       }
-      
+
       public final boolean isInitialized() {
         return true;
       }
-      
+
       public Builder mergeFrom(
           com.google.protobuf.CodedInputStream input,
           com.google.protobuf.ExtensionRegistryLite extensionRegistry)
           throws java.io.IOException {
-        com.google.protobuf.UnknownFieldSet.Builder unknownFields =
-          com.google.protobuf.UnknownFieldSet.newBuilder(
-            this.getUnknownFields());
-        while (true) {
-          int tag = input.readTag();
-          switch (tag) {
-            case 0:
-              this.setUnknownFields(unknownFields.build());
-              onChanged();
-              return this;
-            default: {
-              if (!parseUnknownField(input, unknownFields,
-                                     extensionRegistry, tag)) {
-                this.setUnknownFields(unknownFields.build());
-                onChanged();
-                return this;
-              }
-              break;
-            }
-            case 10: {
-              ensureRevisionsIsMutable();
-              revisions_.add(input.readBytes());
-              break;
-            }
-            case 18: {
-              bitField0_ |= 0x00000002;
-              key_ = input.readBytes();
-              break;
-            }
+        com.google.nigori.common.NigoriMessages.GetRevisionsResponse parsedMessage = null;
+        try {
+          parsedMessage = PARSER.parsePartialFrom(input, extensionRegistry);
+        } catch (com.google.protobuf.InvalidProtocolBufferException e) {
+          parsedMessage = (com.google.nigori.common.NigoriMessages.GetRevisionsResponse) e.getUnfinishedMessage();
+          throw e;
+        } finally {
+          if (parsedMessage != null) {
+            mergeFrom(parsedMessage);
           }
         }
+        return this;
       }
-      
       private int bitField0_;
-      
-      // repeated bytes revisions = 1;
-      private java.util.List<com.google.protobuf.ByteString> revisions_ = java.util.Collections.emptyList();;
+
+      private java.util.List<com.google.protobuf.ByteString> revisions_ = java.util.Collections.emptyList();
       private void ensureRevisionsIsMutable() {
         if (!((bitField0_ & 0x00000001) == 0x00000001)) {
           revisions_ = new java.util.ArrayList<com.google.protobuf.ByteString>(revisions_);
           bitField0_ |= 0x00000001;
          }
       }
+      /**
+       * <code>repeated bytes revisions = 1;</code>
+       */
       public java.util.List<com.google.protobuf.ByteString>
           getRevisionsList() {
         return java.util.Collections.unmodifiableList(revisions_);
       }
+      /**
+       * <code>repeated bytes revisions = 1;</code>
+       */
       public int getRevisionsCount() {
         return revisions_.size();
       }
+      /**
+       * <code>repeated bytes revisions = 1;</code>
+       */
       public com.google.protobuf.ByteString getRevisions(int index) {
         return revisions_.get(index);
       }
+      /**
+       * <code>repeated bytes revisions = 1;</code>
+       */
       public Builder setRevisions(
           int index, com.google.protobuf.ByteString value) {
         if (value == null) {
@@ -4763,6 +6482,9 @@ public final class NigoriMessages {
         onChanged();
         return this;
       }
+      /**
+       * <code>repeated bytes revisions = 1;</code>
+       */
       public Builder addRevisions(com.google.protobuf.ByteString value) {
         if (value == null) {
     throw new NullPointerException();
@@ -4772,28 +6494,43 @@ public final class NigoriMessages {
         onChanged();
         return this;
       }
+      /**
+       * <code>repeated bytes revisions = 1;</code>
+       */
       public Builder addAllRevisions(
           java.lang.Iterable<? extends com.google.protobuf.ByteString> values) {
         ensureRevisionsIsMutable();
-        super.addAll(values, revisions_);
+        com.google.protobuf.AbstractMessageLite.Builder.addAll(
+            values, revisions_);
         onChanged();
         return this;
       }
+      /**
+       * <code>repeated bytes revisions = 1;</code>
+       */
       public Builder clearRevisions() {
-        revisions_ = java.util.Collections.emptyList();;
+        revisions_ = java.util.Collections.emptyList();
         bitField0_ = (bitField0_ & ~0x00000001);
         onChanged();
         return this;
       }
-      
-      // optional bytes key = 2;
+
       private com.google.protobuf.ByteString key_ = com.google.protobuf.ByteString.EMPTY;
+      /**
+       * <code>optional bytes key = 2;</code>
+       */
       public boolean hasKey() {
         return ((bitField0_ & 0x00000002) == 0x00000002);
       }
+      /**
+       * <code>optional bytes key = 2;</code>
+       */
       public com.google.protobuf.ByteString getKey() {
         return key_;
       }
+      /**
+       * <code>optional bytes key = 2;</code>
+       */
       public Builder setKey(com.google.protobuf.ByteString value) {
         if (value == null) {
     throw new NullPointerException();
@@ -4803,116 +6540,305 @@ public final class NigoriMessages {
         onChanged();
         return this;
       }
+      /**
+       * <code>optional bytes key = 2;</code>
+       */
       public Builder clearKey() {
         bitField0_ = (bitField0_ & ~0x00000002);
         key_ = getDefaultInstance().getKey();
         onChanged();
         return this;
       }
-      
+
+      private boolean partial_ ;
+      /**
+       * <code>optional bool partial = 3;</code>
+       *
+       * <pre>
+       * Only the revisions missing from the request's fingerprint are included, none if not modified
+       * </pre>
+       */
+      public boolean hasPartial() {
+        return ((bitField0_ & 0x00000004) == 0x00000004);
+      }
+      /**
+       * <code>optional bool partial = 3;</code>
+       *
+       * <pre>
+       * Only the revisions missing from the request's fingerprint are included, none if not modified
+       * </pre>
+       */
+      public boolean getPartial() {
+        return partial_;
+      }
+      /**
+       * <code>optional bool partial = 3;</code>
+       *
+       * <pre>
+       * Only the revisions missing from the request's fingerprint are included, none if not modified
+       * </pre>
+       */
+      public Builder setPartial(boolean value) {
+        bitField0_ |= 0x00000004;
+        partial_ = value;
+        onChanged();
+        return this;
+      }
+      /**
+       * <code>optional bool partial = 3;</code>
+       *
+       * <pre>
+       * Only the revisions missing from the request's fingerprint are included, none if not modified
+       * </pre>
+       */
+      public Builder clearPartial() {
+        bitField0_ = (bitField0_ & ~0x00000004);
+        partial_ = false;
+        onChanged();
+        return this;
+      }
+
       // @@protoc_insertion_point(builder_scope:nigori.GetRevisionsResponse)
     }
-    
+
     static {
       defaultInstance = new GetRevisionsResponse(true);
       defaultInstance.initFields();
     }
-    
+
     // @@protoc_insertion_point(class_scope:nigori.GetRevisionsResponse)
   }
-  
-  public interface PutRequestOrBuilder
-      extends com.google.protobuf.MessageOrBuilder {
-    
-    // required .nigori.AuthenticateRequest auth = 1;
+
+  public interface PutRequestOrBuilder extends
+      // @@protoc_insertion_point(interface_extends:nigori.PutRequest)
+      com.google.protobuf.MessageOrBuilder {
+
+    /**
+     * <code>required .nigori.AuthenticateRequest auth = 1;</code>
+     */
     boolean hasAuth();
+    /**
+     * <code>required .nigori.AuthenticateRequest auth = 1;</code>
+     */
     com.google.nigori.common.NigoriMessages.AuthenticateRequest getAuth();
+    /**
+     * <code>required .nigori.AuthenticateRequest auth = 1;</code>
+     */
     com.google.nigori.common.NigoriMessages.AuthenticateRequestOrBuilder getAuthOrBuilder();
-    
-    // required bytes key = 2;
+
+    /**
+     * <code>required bytes key = 2;</code>
+     */
     boolean hasKey();
+    /**
+     * <code>required bytes key = 2;</code>
+     */
     com.google.protobuf.ByteString getKey();
-    
-    // required bytes revision = 3;
+
+    /**
+     * <code>required bytes revision = 3;</code>
+     */
     boolean hasRevision();
+    /**
+     * <code>required bytes revision = 3;</code>
+     */
     com.google.protobuf.ByteString getRevision();
-    
-    // required bytes value = 4;
+
+    /**
+     * <code>required bytes value = 4;</code>
+     */
     boolean hasValue();
+    /**
+     * <code>required bytes value = 4;</code>
+     */
     com.google.protobuf.ByteString getValue();
   }
+  /**
+   * Protobuf type {@code nigori.PutRequest}
+   */
   public static final class PutRequest extends
-      com.google.protobuf.GeneratedMessage
-      implements PutRequestOrBuilder {
+      com.google.protobuf.GeneratedMessage implements
+      // @@protoc_insertion_point(message_implements:nigori.PutRequest)
+      PutRequestOrBuilder {
     // Use PutRequest.newBuilder() to construct.
-    private PutRequest(Builder builder) {
+    private PutRequest(com.google.protobuf.GeneratedMessage.Builder<?> builder) {
       super(builder);
+      this.unknownFields = builder.getUnknownFields();
     }
-    private PutRequest(boolean noInit) {}
-    
+    private PutRequest(boolean noInit) { this.unknownFields = com.google.protobuf.UnknownFieldSet.getDefaultInstance(); }
+
     private static final PutRequest defaultInstance;
     public static PutRequest getDefaultInstance() {
       return defaultInstance;
     }
-    
+
     public PutRequest getDefaultInstanceForType() {
       return defaultInstance;
     }
-    
+
+    private final com.google.protobuf.UnknownFieldSet unknownFields;
+    @java.lang.Override
+    public final com.google.protobuf.UnknownFieldSet
+        getUnknownFields() {
+      return this.unknownFields;
+    }
+    private PutRequest(
+        com.google.protobuf.CodedInputStream input,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws com.google.protobuf.InvalidProtocolBufferException {
+      initFields();
+      int mutable_bitField0_ = 0;
+      com.google.protobuf.UnknownFieldSet.Builder unknownFields =
+          com.google.protobuf.UnknownFieldSet.newBuilder();
+      try {
+        boolean done = false;
+        while (!done) {
+          int tag = input.readTag();
+          switch (tag) {
+            case 0:
+              done = true;
+              break;
+            default: {
+              if (!parseUnknownField(input, unknownFields,
+                                     extensionRegistry, tag)) {
+                done = true;
+              }
+              break;
+            }
+            case 10: {
+              com.google.nigori.common.NigoriMessages.AuthenticateRequest.Builder subBuilder = null;
+              if (((bitField0_ & 0x00000001) == 0x00000001)) {
+                subBuilder = auth_.toBuilder();
+              }
+              auth_ = input.readMessage(com.google.nigori.common.NigoriMessages.AuthenticateRequest.PARSER, extensionRegistry);
+              if (subBuilder != null) {
+                subBuilder.mergeFrom(auth_);
+                auth_ = subBuilder.buildPartial();
+              }
+              bitField0_ |= 0x00000001;
+              break;
+            }
+            case 18: {
+              bitField0_ |= 0x00000002;
+              key_ = input.readBytes();
+              break;
+            }
+            case 26: {
+              bitField0_ |= 0x00000004;
+              revision_ = input.readBytes();
+              break;
+            }
+            case 34: {
+              bitField0_ |= 0x00000008;
+              value_ = input.readBytes();
+              break;
+            }
+          }
+        }
+      } catch (com.google.protobuf.InvalidProtocolBufferException e) {
+        throw e.setUnfinishedMessage(this);
+      } catch (java.io.IOException e) {
+        throw new com.google.protobuf.InvalidProtocolBufferException(
+            e.getMessage()).setUnfinishedMessage(this);
+      } finally {
+        this.unknownFields = unknownFields.build();
+        makeExtensionsImmutable();
+      }
+    }
     public static final com.google.protobuf.Descriptors.Descriptor
         getDescriptor() {
       return com.google.nigori.common.NigoriMessages.internal_static_nigori_PutRequest_descriptor;
     }
-    
+
     protected com.google.protobuf.GeneratedMessage.FieldAccessorTable
         internalGetFieldAccessorTable() {
-      return com.google.nigori.common.NigoriMessages.internal_static_nigori_PutRequest_fieldAccessorTable;
+      return com.google.nigori.common.NigoriMessages.internal_static_nigori_PutRequest_fieldAccessorTable
+          .ensureFieldAccessorsInitialized(
+              com.google.nigori.common.NigoriMessages.PutRequest.class, com.google.nigori.common.NigoriMessages.PutRequest.Builder.class);
+    }
+
+    public static com.google.protobuf.Parser<PutRequest> PARSER =
+        new com.google.protobuf.AbstractParser<PutRequest>() {
+      public PutRequest parsePartialFrom(
+          com.google.protobuf.CodedInputStream input,
+          com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+          throws com.google.protobuf.InvalidProtocolBufferException {
+        return new PutRequest(input, extensionRegistry);
+      }
+    };
+
+    @java.lang.Override
+    public com.google.protobuf.Parser<PutRequest> getParserForType() {
+      return PARSER;
     }
-    
+
     private int bitField0_;
-    // required .nigori.AuthenticateRequest auth = 1;
     public static final int AUTH_FIELD_NUMBER = 1;
     private com.google.nigori.common.NigoriMessages.AuthenticateRequest auth_;
+    /**
+     * <code>required .nigori.AuthenticateRequest auth = 1;</code>
+     */
     public boolean hasAuth() {
       return ((bitField0_ & 0x00000001) == 0x00000001);
     }
+    /**
+     * <code>required .nigori.AuthenticateRequest auth = 1;</code>
+     */
     public com.google.nigori.common.NigoriMessages.AuthenticateRequest getAuth() {
       return auth_;
     }
+    /**
+     * <code>required .nigori.AuthenticateRequest auth = 1;</code>
+     */
     public com.google.nigori.common.NigoriMessages.AuthenticateRequestOrBuilder getAuthOrBuilder() {
       return auth_;
     }
-    
-    // required bytes key = 2;
+
     public static final int KEY_FIELD_NUMBER = 2;
     private com.google.protobuf.ByteString key_;
+    /**
+     * <code>required bytes key = 2;</code>
+     */
     public boolean hasKey() {
       return ((bitField0_ & 0x00000002) == 0x00000002);
     }
+    /**
+     * <code>required bytes key = 2;</code>
+     */
     public com.google.protobuf.ByteString getKey() {
       return key_;
     }
-    
-    // required bytes revision = 3;
+
     public static final int REVISION_FIELD_NUMBER = 3;
     private com.google.protobuf.ByteString revision_;
+    /**
+     * <code>required bytes revision = 3;</code>
+     */
     public boolean hasRevision() {
       return ((bitField0_ & 0x00000004) == 0x00000004);
     }
+    /**
+     * <code>required bytes revision = 3;</code>
+     */
     public com.google.protobuf.ByteString getRevision() {
       return revision_;
     }
-    
-    // required bytes value = 4;
+
     public static final int VALUE_FIELD_NUMBER = 4;
     private com.google.protobuf.ByteString value_;
+    /**
+     * <code>required bytes value = 4;</code>
+     */
     public boolean hasValue() {
       return ((bitField0_ & 0x00000008) == 0x00000008);
     }
+    /**
+     * <code>required bytes value = 4;</code>
+     */
     public com.google.protobuf.ByteString getValue() {
       return value_;
     }
-    
+
     private void initFields() {
       auth_ = com.google.nigori.common.NigoriMessages.AuthenticateRequest.getDefaultInstance();
       key_ = com.google.protobuf.ByteString.EMPTY;
@@ -4922,8 +6848,9 @@ public final class NigoriMessages {
     private byte memoizedIsInitialized = -1;
     public final boolean isInitialized() {
       byte isInitialized = memoizedIsInitialized;
-      if (isInitialized != -1) return isInitialized == 1;
-      
+      if (isInitialized == 1) return true;
+      if (isInitialized == 0) return false;
+
       if (!hasAuth()) {
         memoizedIsInitialized = 0;
         return false;
@@ -4947,7 +6874,7 @@ public final class NigoriMessages {
       memoizedIsInitialized = 1;
       return true;
     }
-    
+
     public void writeTo(com.google.protobuf.CodedOutputStream output)
                         throws java.io.IOException {
       getSerializedSize();
@@ -4965,12 +6892,12 @@ public final class NigoriMessages {
       }
       getUnknownFields().writeTo(output);
     }
-    
+
     private int memoizedSerializedSize = -1;
     public int getSerializedSize() {
       int size = memoizedSerializedSize;
       if (size != -1) return size;
-    
+
       size = 0;
       if (((bitField0_ & 0x00000001) == 0x00000001)) {
         size += com.google.protobuf.CodedOutputStream
@@ -4992,111 +6919,106 @@ public final class NigoriMessages {
       memoizedSerializedSize = size;
       return size;
     }
-    
+
+    private static final long serialVersionUID = 0L;
     @java.lang.Override
-    protected Object writeReplace() throws java.io.ObjectStreamException {
+    protected java.lang.Object writeReplace()
+        throws java.io.ObjectStreamException {
       return super.writeReplace();
     }
-    
+
     public static com.google.nigori.common.NigoriMessages.PutRequest parseFrom(
         com.google.protobuf.ByteString data)
         throws com.google.protobuf.InvalidProtocolBufferException {
-      return newBuilder().mergeFrom(data).buildParsed();
+      return PARSER.parseFrom(data);
     }
     public static com.google.nigori.common.NigoriMessages.PutRequest parseFrom(
         com.google.protobuf.ByteString data,
         com.google.protobuf.ExtensionRegistryLite extensionRegistry)
         throws com.google.protobuf.InvalidProtocolBufferException {
-      return newBuilder().mergeFrom(data, extensionRegistry)
-               .buildParsed();
+      return PARSER.parseFrom(data, extensionRegistry);
     }
     public static com.google.nigori.common.NigoriMessages.PutRequest parseFrom(byte[] data)
         throws com.google.protobuf.InvalidProtocolBufferException {
-      return newBuilder().mergeFrom(data).buildParsed();
+      return PARSER.parseFrom(data);
     }
     public static com.google.nigori.common.NigoriMessages.PutRequest parseFrom(
         byte[] data,
         com.google.protobuf.ExtensionRegistryLite extensionRegistry)
         throws com.google.protobuf.InvalidProtocolBufferException {
-      return newBuilder().mergeFrom(data, extensionRegistry)
-               .buildParsed();
+      return PARSER.parseFrom(data, extensionRegistry);
     }
     public static com.google.nigori.common.NigoriMessages.PutRequest parseFrom(java.io.InputStream input)
         throws java.io.IOException {
-      return newBuilder().mergeFrom(input).buildParsed();
+      return PARSER.parseFrom(input);
     }
     public static com.google.nigori.common.NigoriMessages.PutRequest parseFrom(
         java.io.InputStream input,
         com.google.protobuf.ExtensionRegistryLite extensionRegistry)
         throws java.io.IOException {
-      return newBuilder().mergeFrom(input, extensionRegistry)
-               .buildParsed();
+      return PARSER.parseFrom(input, extensionRegistry);
     }
     public static com.google.nigori.common.NigoriMessages.PutRequest parseDelimitedFrom(java.io.InputStream input)
         throws java.io.IOException {
-      Builder builder = newBuilder();
-      if (builder.mergeDelimitedFrom(input)) {
-        return builder.buildParsed();
-      } else {
-        return null;
-      }
+      return PARSER.parseDelimitedFrom(input);
     }
     public static com.google.nigori.common.NigoriMessages.PutRequest parseDelimitedFrom(
         java.io.InputStream input,
         com.google.protobuf.ExtensionRegistryLite extensionRegistry)
         throws java.io.IOException {
-      Builder builder = newBuilder();
-      if (builder.mergeDelimitedFrom(input, extensionRegistry)) {
-        return builder.buildParsed();
-      } else {
-        return null;
-      }
+      return PARSER.parseDelimitedFrom(input, extensionRegistry);
     }
     public static com.google.nigori.common.NigoriMessages.PutRequest parseFrom(
         com.google.protobuf.CodedInputStream input)
         throws java.io.IOException {
-      return newBuilder().mergeFrom(input).buildParsed();
+      return PARSER.parseFrom(input);
     }
     public static com.google.nigori.common.NigoriMessages.PutRequest parseFrom(
         com.google.protobuf.CodedInputStream input,
         com.google.protobuf.ExtensionRegistryLite extensionRegistry)
         throws java.io.IOException {
-      return newBuilder().mergeFrom(input, extensionRegistry)
-               .buildParsed();
+      return PARSER.parseFrom(input, extensionRegistry);
     }
-    
+
     public static Builder newBuilder() { return Builder.create(); }
     public Builder newBuilderForType() { return newBuilder(); }
     public static Builder newBuilder(com.google.nigori.common.NigoriMessages.PutRequest prototype) {
       return newBuilder().mergeFrom(prototype);
     }
     public Builder toBuilder() { return newBuilder(this); }
-    
+
     @java.lang.Override
     protected Builder newBuilderForType(
         com.google.protobuf.GeneratedMessage.BuilderParent parent) {
       Builder builder = new Builder(parent);
       return builder;
     }
+    /**
+     * Protobuf type {@code nigori.PutRequest}
+     */
     public static final class Builder extends
-        com.google.protobuf.GeneratedMessage.Builder<Builder>
-       implements com.google.nigori.common.NigoriMessages.PutRequestOrBuilder {
+        com.google.protobuf.GeneratedMessage.Builder<Builder> implements
+        // @@protoc_insertion_point(builder_implements:nigori.PutRequest)
+        com.google.nigori.common.NigoriMessages.PutRequestOrBuilder {
       public static final com.google.protobuf.Descriptors.Descriptor
           getDescriptor() {
         return com.google.nigori.common.NigoriMessages.internal_static_nigori_PutRequest_descriptor;
       }
-      
+
       protected com.google.protobuf.GeneratedMessage.FieldAccessorTable
           internalGetFieldAccessorTable() {
-        return com.google.nigori.common.NigoriMessages.internal_static_nigori_PutRequest_fieldAccessorTable;
+        return com.google.nigori.common.NigoriMessages.internal_static_nigori_PutRequest_fieldAccessorTable
+            .ensureFieldAccessorsInitialized(
+                com.google.nigori.common.NigoriMessages.PutRequest.class, com.google.nigori.common.NigoriMessages.PutRequest.Builder.class);
       }
-      
+
       // Construct using com.google.nigori.common.NigoriMessages.PutRequest.newBuilder()
       private Builder() {
         maybeForceBuilderInitialization();
       }
-      
-      private Builder(BuilderParent parent) {
+
+      private Builder(
+          com.google.protobuf.GeneratedMessage.BuilderParent parent) {
         super(parent);
         maybeForceBuilderInitialization();
       }
@@ -5108,7 +7030,7 @@ public final class NigoriMessages {
       private static Builder create() {
         return new Builder();
       }
-      
+
       public Builder clear() {
         super.clear();
         if (authBuilder_ == null) {
@@ -5125,20 +7047,20 @@ public final class NigoriMessages {
         bitField0_ = (bitField0_ & ~0x00000008);
         return this;
       }
-      
+
       public Builder clone() {
         return create().mergeFrom(buildPartial());
       }
-      
+
       public com.google.protobuf.Descriptors.Descriptor
           getDescriptorForType() {
-        return com.google.nigori.common.NigoriMessages.PutRequest.getDescriptor();
+        return com.google.nigori.common.NigoriMessages.internal_static_nigori_PutRequest_descriptor;
       }
-      
+
       public com.google.nigori.common.NigoriMessages.PutRequest getDefaultInstanceForType() {
         return com.google.nigori.common.NigoriMessages.PutRequest.getDefaultInstance();
       }
-      
+
       public com.google.nigori.common.NigoriMessages.PutRequest build() {
         com.google.nigori.common.NigoriMessages.PutRequest result = buildPartial();
         if (!result.isInitialized()) {
@@ -5146,17 +7068,7 @@ public final class NigoriMessages {
         }
         return result;
       }
-      
-      private com.google.nigori.common.NigoriMessages.PutRequest buildParsed()
-          throws com.google.protobuf.InvalidProtocolBufferException {
-        com.google.nigori.common.NigoriMessages.PutRequest result = buildPartial();
-        if (!result.isInitialized()) {
-          throw newUninitializedMessageException(
-            result).asInvalidProtocolBufferException();
-        }
-        return result;
-      }
-      
+
       public com.google.nigori.common.NigoriMessages.PutRequest buildPartial() {
         com.google.nigori.common.NigoriMessages.PutRequest result = new com.google.nigori.common.NigoriMessages.PutRequest(this);
         int from_bitField0_ = bitField0_;
@@ -5185,7 +7097,7 @@ public final class NigoriMessages {
         onBuilt();
         return result;
       }
-      
+
       public Builder mergeFrom(com.google.protobuf.Message other) {
         if (other instanceof com.google.nigori.common.NigoriMessages.PutRequest) {
           return mergeFrom((com.google.nigori.common.NigoriMessages.PutRequest)other);
@@ -5194,7 +7106,7 @@ public final class NigoriMessages {
           return this;
         }
       }
-      
+
       public Builder mergeFrom(com.google.nigori.common.NigoriMessages.PutRequest other) {
         if (other == com.google.nigori.common.NigoriMessages.PutRequest.getDefaultInstance()) return this;
         if (other.hasAuth()) {
@@ -5212,7 +7124,7 @@ public final class NigoriMessages {
         this.mergeUnknownFields(other.getUnknownFields());
         return this;
       }
-      
+
       public final boolean isInitialized() {
         if (!hasAuth()) {
           
@@ -5236,67 +7148,38 @@ public final class NigoriMessages {
         }
         return true;
       }
-      
+
       public Builder mergeFrom(
           com.google.protobuf.CodedInputStream input,
           com.google.protobuf.ExtensionRegistryLite extensionRegistry)
           throws java.io.IOException {
-        com.google.protobuf.UnknownFieldSet.Builder unknownFields =
-          com.google.protobuf.UnknownFieldSet.newBuilder(
-            this.getUnknownFields());
-        while (true) {
-          int tag = input.readTag();
-          switch (tag) {
-            case 0:
-              this.setUnknownFields(unknownFields.build());
-              onChanged();
-              return this;
-            default: {
-              if (!parseUnknownField(input, unknownFields,
-                                     extensionRegistry, tag)) {
-                this.setUnknownFields(unknownFields.build());
-                onChanged();
-                return this;
-              }
-              break;
-            }
-            case 10: {
-              com.google.nigori.common.NigoriMessages.AuthenticateRequest.Builder subBuilder = com.google.nigori.common.NigoriMessages.AuthenticateRequest.newBuilder();
-              if (hasAuth()) {
-                subBuilder.mergeFrom(getAuth());
-              }
-              input.readMessage(subBuilder, extensionRegistry);
-              setAuth(subBuilder.buildPartial());
-              break;
-            }
-            case 18: {
-              bitField0_ |= 0x00000002;
-              key_ = input.readBytes();
-              break;
-            }
-            case 26: {
-              bitField0_ |= 0x00000004;
-              revision_ = input.readBytes();
-              break;
-            }
-            case 34: {
-              bitField0_ |= 0x00000008;
-              value_ = input.readBytes();
-              break;
-            }
+        com.google.nigori.common.NigoriMessages.PutRequest parsedMessage = null;
+        try {
+          parsedMessage = PARSER.parsePartialFrom(input, extensionRegistry);
+        } catch (com.google.protobuf.InvalidProtocolBufferException e) {
+          parsedMessage = (com.google.nigori.common.NigoriMessages.PutRequest) e.getUnfinishedMessage();
+          throw e;
+        } finally {
+          if (parsedMessage != null) {
+            mergeFrom(parsedMessage);
           }
         }
+        return this;
       }
-      
       private int bitField0_;
-      
-      // required .nigori.AuthenticateRequest auth = 1;
+
       private com.google.nigori.common.NigoriMessages.AuthenticateRequest auth_ = com.google.nigori.common.NigoriMessages.AuthenticateRequest.getDefaultInstance();
       private com.google.protobuf.SingleFieldBuilder<
           com.google.nigori.common.NigoriMessages.AuthenticateRequest, com.google.nigori.common.NigoriMessages.AuthenticateRequest.Builder, com.google.nigori.common.NigoriMessages.AuthenticateRequestOrBuilder> authBuilder_;
+      /**
+       * <code>required .nigori.AuthenticateRequest auth = 1;</code>
+       */
       public boolean hasAuth() {
         return ((bitField0_ & 0x00000001) == 0x00000001);
       }
+      /**
+       * <code>required .nigori.AuthenticateRequest auth = 1;</code>
+       */
       public com.google.nigori.common.NigoriMessages.AuthenticateRequest getAuth() {
         if (authBuilder_ == null) {
           return auth_;
@@ -5304,6 +7187,9 @@ public final class NigoriMessages {
           return authBuilder_.getMessage();
         }
       }
+      /**
+       * <code>required .nigori.AuthenticateRequest auth = 1;</code>
+       */
       public Builder setAuth(com.google.nigori.common.NigoriMessages.AuthenticateRequest value) {
         if (authBuilder_ == null) {
           if (value == null) {
@@ -5317,6 +7203,9 @@ public final class NigoriMessages {
         bitField0_ |= 0x00000001;
         return this;
       }
+      /**
+       * <code>required .nigori.AuthenticateRequest auth = 1;</code>
+       */
       public Builder setAuth(
           com.google.nigori.common.NigoriMessages.AuthenticateRequest.Builder builderForValue) {
         if (authBuilder_ == null) {
@@ -5328,6 +7217,9 @@ public final class NigoriMessages {
         bitField0_ |= 0x00000001;
         return this;
       }
+      /**
+       * <code>required .nigori.AuthenticateRequest auth = 1;</code>
+       */
       public Builder mergeAuth(com.google.nigori.common.NigoriMessages.AuthenticateRequest value) {
         if (authBuilder_ == null) {
           if (((bitField0_ & 0x00000001) == 0x00000001) &&
@@ -5344,6 +7236,9 @@ public final class NigoriMessages {
         bitField0_ |= 0x00000001;
         return this;
       }
+      /**
+       * <code>required .nigori.AuthenticateRequest auth = 1;</code>
+       */
       public Builder clearAuth() {
         if (authBuilder_ == null) {
           auth_ = com.google.nigori.common.NigoriMessages.AuthenticateRequest.getDefaultInstance();
@@ -5354,11 +7249,17 @@ public final class NigoriMessages {
         bitField0_ = (bitField0_ & ~0x00000001);
         return this;
       }
+      /**
+       * <code>required .nigori.AuthenticateRequest auth = 1;</code>
+       */
       public com.google.nigori.common.NigoriMessages.AuthenticateRequest.Builder getAuthBuilder() {
         bitField0_ |= 0x00000001;
         onChanged();
         return getAuthFieldBuilder().getBuilder();
       }
+      /**
+       * <code>required .nigori.AuthenticateRequest auth = 1;</code>
+       */
       public com.google.nigori.common.NigoriMessages.AuthenticateRequestOrBuilder getAuthOrBuilder() {
         if (authBuilder_ != null) {
           return authBuilder_.getMessageOrBuilder();
@@ -5366,28 +7267,39 @@ public final class NigoriMessages {
           return auth_;
         }
       }
+      /**
+       * <code>required .nigori.AuthenticateRequest auth = 1;</code>
+       */
       private com.google.protobuf.SingleFieldBuilder<
           com.google.nigori.common.NigoriMessages.AuthenticateRequest, com.google.nigori.common.NigoriMessages.AuthenticateRequest.Builder, com.google.nigori.common.NigoriMessages.AuthenticateRequestOrBuilder> 
           getAuthFieldBuilder() {
         if (authBuilder_ == null) {
           authBuilder_ = new com.google.protobuf.SingleFieldBuilder<
               com.google.nigori.common.NigoriMessages.AuthenticateRequest, com.google.nigori.common.NigoriMessages.AuthenticateRequest.Builder, com.google.nigori.common.NigoriMessages.AuthenticateRequestOrBuilder>(
-                  auth_,
+                  getAuth(),
                   getParentForChildren(),
                   isClean());
           auth_ = null;
         }
         return authBuilder_;
       }
-      
-      // required bytes key = 2;
+
       private com.google.protobuf.ByteString key_ = com.google.protobuf.ByteString.EMPTY;
+      /**
+       * <code>required bytes key = 2;</code>
+       */
       public boolean hasKey() {
         return ((bitField0_ & 0x00000002) == 0x00000002);
       }
+      /**
+       * <code>required bytes key = 2;</code>
+       */
       public com.google.protobuf.ByteString getKey() {
         return key_;
       }
+      /**
+       * <code>required bytes key = 2;</code>
+       */
       public Builder setKey(com.google.protobuf.ByteString value) {
         if (value == null) {
     throw new NullPointerException();
@@ -5397,21 +7309,32 @@ public final class NigoriMessages {
         onChanged();
         return this;
       }
+      /**
+       * <code>required bytes key = 2;</code>
+       */
       public Builder clearKey() {
         bitField0_ = (bitField0_ & ~0x00000002);
         key_ = getDefaultInstance().getKey();
         onChanged();
         return this;
       }
-      
-      // required bytes revision = 3;
+
       private com.google.protobuf.ByteString revision_ = com.google.protobuf.ByteString.EMPTY;
+      /**
+       * <code>required bytes revision = 3;</code>
+       */
       public boolean hasRevision() {
         return ((bitField0_ & 0x00000004) == 0x00000004);
       }
+      /**
+       * <code>required bytes revision = 3;</code>
+       */
       public com.google.protobuf.ByteString getRevision() {
         return revision_;
       }
+      /**
+       * <code>required bytes revision = 3;</code>
+       */
       public Builder setRevision(com.google.protobuf.ByteString value) {
         if (value == null) {
     throw new NullPointerException();
@@ -5421,21 +7344,32 @@ public final class NigoriMessages {
         onChanged();
         return this;
       }
+      /**
+       * <code>required bytes revision = 3;</code>
+       */
       public Builder clearRevision() {
         bitField0_ = (bitField0_ & ~0x00000004);
         revision_ = getDefaultInstance().getRevision();
         onChanged();
         return this;
       }
-      
-      // required bytes value = 4;
+
       private com.google.protobuf.ByteString value_ = com.google.protobuf.ByteString.EMPTY;
+      /**
+       * <code>required bytes value = 4;</code>
+       */
       public boolean hasValue() {
         return ((bitField0_ & 0x00000008) == 0x00000008);
       }
+      /**
+       * <code>required bytes value = 4;</code>
+       */
       public com.google.protobuf.ByteString getValue() {
         return value_;
       }
+      /**
+       * <code>required bytes value = 4;</code>
+       */
       public Builder setValue(com.google.protobuf.ByteString value) {
         if (value == null) {
     throw new NullPointerException();
@@ -5445,102 +7379,228 @@ public final class NigoriMessages {
         onChanged();
         return this;
       }
+      /**
+       * <code>required bytes value = 4;</code>
+       */
       public Builder clearValue() {
         bitField0_ = (bitField0_ & ~0x00000008);
         value_ = getDefaultInstance().getValue();
         onChanged();
         return this;
       }
-      
+
       // @@protoc_insertion_point(builder_scope:nigori.PutRequest)
     }
-    
+
     static {
       defaultInstance = new PutRequest(true);
       defaultInstance.initFields();
     }
-    
+
     // @@protoc_insertion_point(class_scope:nigori.PutRequest)
   }
-  
-  public interface DeleteRequestOrBuilder
-      extends com.google.protobuf.MessageOrBuilder {
-    
-    // required .nigori.AuthenticateRequest auth = 1;
+
+  public interface DeleteRequestOrBuilder extends
+      // @@protoc_insertion_point(interface_extends:nigori.DeleteRequest)
+      com.google.protobuf.MessageOrBuilder {
+
+    /**
+     * <code>required .nigori.AuthenticateRequest auth = 1;</code>
+     */
     boolean hasAuth();
+    /**
+     * <code>required .nigori.AuthenticateRequest auth = 1;</code>
+     */
     com.google.nigori.common.NigoriMessages.AuthenticateRequest getAuth();
+    /**
+     * <code>required .nigori.AuthenticateRequest auth = 1;</code>
+     */
     com.google.nigori.common.NigoriMessages.AuthenticateRequestOrBuilder getAuthOrBuilder();
-    
-    // required bytes key = 2;
+
+    /**
+     * <code>required bytes key = 2;</code>
+     */
     boolean hasKey();
+    /**
+     * <code>required bytes key = 2;</code>
+     */
     com.google.protobuf.ByteString getKey();
-    
-    // optional bytes revision = 3;
+
+    /**
+     * <code>optional bytes revision = 3;</code>
+     */
     boolean hasRevision();
+    /**
+     * <code>optional bytes revision = 3;</code>
+     */
     com.google.protobuf.ByteString getRevision();
   }
+  /**
+   * Protobuf type {@code nigori.DeleteRequest}
+   */
   public static final class DeleteRequest extends
-      com.google.protobuf.GeneratedMessage
-      implements DeleteRequestOrBuilder {
+      com.google.protobuf.GeneratedMessage implements
+      // @@protoc_insertion_point(message_implements:nigori.DeleteRequest)
+      DeleteRequestOrBuilder {
     // Use DeleteRequest.newBuilder() to construct.
-    private DeleteRequest(Builder builder) {
+    private DeleteRequest(com.google.protobuf.GeneratedMessage.Builder<?> builder) {
       super(builder);
+      this.unknownFields = builder.getUnknownFields();
     }
-    private DeleteRequest(boolean noInit) {}
-    
+    private DeleteRequest(boolean noInit) { this.unknownFields = com.google.protobuf.UnknownFieldSet.getDefaultInstance(); }
+
     private static final DeleteRequest defaultInstance;
     public static DeleteRequest getDefaultInstance() {
       return defaultInstance;
     }
-    
+
     public DeleteRequest getDefaultInstanceForType() {
       return defaultInstance;
     }
-    
+
+    private final com.google.protobuf.UnknownFieldSet unknownFields;
+    @java.lang.Override
+    public final com.google.protobuf.UnknownFieldSet
+        getUnknownFields() {
+      return this.unknownFields;
+    }
+    private DeleteRequest(
+        com.google.protobuf.CodedInputStream input,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws com.google.protobuf.InvalidProtocolBufferException {
+      initFields();
+      int mutable_bitField0_ = 0;
+      com.google.protobuf.UnknownFieldSet.Builder unknownFields =
+          com.google.protobuf.UnknownFieldSet.newBuilder();
+      try {
+        boolean done = false;
+        while (!done) {
+          int tag = input.readTag();
+          switch (tag) {
+            case 0:
+              done = true;
+              break;
+            default: {
+              if (!parseUnknownField(input, unknownFields,
+                                     extensionRegistry, tag)) {
+                done = true;
+              }
+              break;
+            }
+            case 10: {
+              com.google.nigori.common.NigoriMessages.AuthenticateRequest.Builder subBuilder = null;
+              if (((bitField0_ & 0x00000001) == 0x00000001)) {
+                subBuilder = auth_.toBuilder();
+              }
+              auth_ = input.readMessage(com.google.nigori.common.NigoriMessages.AuthenticateRequest.PARSER, extensionRegistry);
+              if (subBuilder != null) {
+                subBuilder.mergeFrom(auth_);
+                auth_ = subBuilder.buildPartial();
+              }
+              bitField0_ |= 0x00000001;
+              break;
+            }
+            case 18: {
+              bitField0_ |= 0x00000002;
+              key_ = input.readBytes();
+              break;
+            }
+            case 26: {
+              bitField0_ |= 0x00000004;
+              revision_ = input.readBytes();
+              break;
+            }
+          }
+        }
+      } catch (com.google.protobuf.InvalidProtocolBufferException e) {
+        throw e.setUnfinishedMessage(this);
+      } catch (java.io.IOException e) {
+        throw new com.google.protobuf.InvalidProtocolBufferException(
+            e.getMessage()).setUnfinishedMessage(this);
+      } finally {
+        this.unknownFields = unknownFields.build();
+        makeExtensionsImmutable();
+      }
+    }
     public static final com.google.protobuf.Descriptors.Descriptor
         getDescriptor() {
       return com.google.nigori.common.NigoriMessages.internal_static_nigori_DeleteRequest_descriptor;
     }
-    
+
     protected com.google.protobuf.GeneratedMessage.FieldAccessorTable
         internalGetFieldAccessorTable() {
-      return com.google.nigori.common.NigoriMessages.internal_static_nigori_DeleteRequest_fieldAccessorTable;
+      return com.google.nigori.common.NigoriMessages.internal_static_nigori_DeleteRequest_fieldAccessorTable
+          .ensureFieldAccessorsInitialized(
+              com.google.nigori.common.NigoriMessages.DeleteRequest.class, com.google.nigori.common.NigoriMessages.DeleteRequest.Builder.class);
+    }
+
+    public static com.google.protobuf.Parser<DeleteRequest> PARSER =
+        new com.google.protobuf.AbstractParser<DeleteRequest>() {
+      public DeleteRequest parsePartialFrom(
+          com.google.protobuf.CodedInputStream input,
+          com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+          throws com.google.protobuf.InvalidProtocolBufferException {
+        return new DeleteRequest(input, extensionRegistry);
+      }
+    };
+
+    @java.lang.Override
+    public com.google.protobuf.Parser<DeleteRequest> getParserForType() {
+      return PARSER;
     }
-    
+
     private int bitField0_;
-    // required .nigori.AuthenticateRequest auth = 1;
     public static final int AUTH_FIELD_NUMBER = 1;
     private com.google.nigori.common.NigoriMessages.AuthenticateRequest auth_;
+    /**
+     * <code>required .nigori.AuthenticateRequest auth = 1;</code>
+     */
     public boolean hasAuth() {
       return ((bitField0_ & 0x00000001) == 0x00000001);
     }
+    /**
+     * <code>required .nigori.AuthenticateRequest auth = 1;</code>
+     */
     public com.google.nigori.common.NigoriMessages.AuthenticateRequest getAuth() {
       return auth_;
     }
+    /**
+     * <code>required .nigori.AuthenticateRequest auth = 1;</code>
+     */
     public com.google.nigori.common.NigoriMessages.AuthenticateRequestOrBuilder getAuthOrBuilder() {
       return auth_;
     }
-    
-    // required bytes key = 2;
+
     public static final int KEY_FIELD_NUMBER = 2;
     private com.google.protobuf.ByteString key_;
+    /**
+     * <code>required bytes key = 2;</code>
+     */
     public boolean hasKey() {
       return ((bitField0_ & 0x00000002) == 0x00000002);
     }
+    /**
+     * <code>required bytes key = 2;</code>
+     */
     public com.google.protobuf.ByteString getKey() {
       return key_;
     }
-    
-    // optional bytes revision = 3;
+
     public static final int REVISION_FIELD_NUMBER = 3;
     private com.google.protobuf.ByteString revision_;
+    /**
+     * <code>optional bytes revision = 3;</code>
+     */
     public boolean hasRevision() {
       return ((bitField0_ & 0x00000004) == 0x00000004);
     }
+    /**
+     * <code>optional bytes revision = 3;</code>
+     */
     public com.google.protobuf.ByteString getRevision() {
       return revision_;
     }
-    
+
     private void initFields() {
       auth_ = com.google.nigori.common.NigoriMessages.AuthenticateRequest.getDefaultInstance();
       key_ = com.google.protobuf.ByteString.EMPTY;
@@ -5549,8 +7609,9 @@ public final class NigoriMessages {
     private byte memoizedIsInitialized = -1;
     public final boolean isInitialized() {
       byte isInitialized = memoizedIsInitialized;
-      if (isInitialized != -1) return isInitialized == 1;
-      
+      if (isInitialized == 1) return true;
+      if (isInitialized == 0) return false;
+
       if (!hasAuth()) {
         memoizedIsInitialized = 0;
         return false;
@@ -5566,7 +7627,7 @@ public final class NigoriMessages {
       memoizedIsInitialized = 1;
       return true;
     }
-    
+
     public void writeTo(com.google.protobuf.CodedOutputStream output)
                         throws java.io.IOException {
       getSerializedSize();
@@ -5581,12 +7642,12 @@ public final class NigoriMessages {
       }
       getUnknownFields().writeTo(output);
     }
-    
+
     private int memoizedSerializedSize = -1;
     public int getSerializedSize() {
       int size = memoizedSerializedSize;
       if (size != -1) return size;
-    
+
       size = 0;
       if (((bitField0_ & 0x00000001) == 0x00000001)) {
         size += com.google.protobuf.CodedOutputStream
@@ -5604,111 +7665,106 @@ public final class NigoriMessages {
       memoizedSerializedSize = size;
       return size;
     }
-    
+
+    private static final long serialVersionUID = 0L;
     @java.lang.Override
-    protected Object writeReplace() throws java.io.ObjectStreamException {
+    protected java.lang.Object writeReplace()
+        throws java.io.ObjectStreamException {
       return super.writeReplace();
     }
-    
+
     public static com.google.nigori.common.NigoriMessages.DeleteRequest parseFrom(
         com.google.protobuf.ByteString data)
         throws com.google.protobuf.InvalidProtocolBufferException {
-      return newBuilder().mergeFrom(data).buildParsed();
+      return PARSER.parseFrom(data);
     }
     public static com.google.nigori.common.NigoriMessages.DeleteRequest parseFrom(
         com.google.protobuf.ByteString data,
         com.google.protobuf.ExtensionRegistryLite extensionRegistry)
         throws com.google.protobuf.InvalidProtocolBufferException {
-      return newBuilder().mergeFrom(data, extensionRegistry)
-               .buildParsed();
+      return PARSER.parseFrom(data, extensionRegistry);
     }
     public static com.google.nigori.common.NigoriMessages.DeleteRequest parseFrom(byte[] data)
         throws com.google.protobuf.InvalidProtocolBufferException {
-      return newBuilder().mergeFrom(data).buildParsed();
+      return PARSER.parseFrom(data);
     }
     public static com.google.nigori.common.NigoriMessages.DeleteRequest parseFrom(
         byte[] data,
         com.google.protobuf.ExtensionRegistryLite extensionRegistry)
         throws com.google.protobuf.InvalidProtocolBufferException {
-      return newBuilder().mergeFrom(data, extensionRegistry)
-               .buildParsed();
+      return PARSER.parseFrom(data, extensionRegistry);
     }
     public static com.google.nigori.common.NigoriMessages.DeleteRequest parseFrom(java.io.InputStream input)
         throws java.io.IOException {
-      return newBuilder().mergeFrom(input).buildParsed();
+      return PARSER.parseFrom(input);
     }
     public static com.google.nigori.common.NigoriMessages.DeleteRequest parseFrom(
         java.io.InputStream input,
         com.google.protobuf.ExtensionRegistryLite extensionRegistry)
         throws java.io.IOException {
-      return newBuilder().mergeFrom(input, extensionRegistry)
-               .buildParsed();
+      return PARSER.parseFrom(input, extensionRegistry);
     }
     public static com.google.nigori.common.NigoriMessages.DeleteRequest parseDelimitedFrom(java.io.InputStream input)
         throws java.io.IOException {
-      Builder builder = newBuilder();
-      if (builder.mergeDelimitedFrom(input)) {
-        return builder.buildParsed();
-      } else {
-        return null;
-      }
+      return PARSER.parseDelimitedFrom(input);
     }
     public static com.google.nigori.common.NigoriMessages.DeleteRequest parseDelimitedFrom(
         java.io.InputStream input,
         com.google.protobuf.ExtensionRegistryLite extensionRegistry)
         throws java.io.IOException {
-      Builder builder = newBuilder();
-      if (builder.mergeDelimitedFrom(input, extensionRegistry)) {
-        return builder.buildParsed();
-      } else {
-        return null;
-      }
+      return PARSER.parseDelimitedFrom(input, extensionRegistry);
     }
     public static com.google.nigori.common.NigoriMessages.DeleteRequest parseFrom(
         com.google.protobuf.CodedInputStream input)
         throws java.io.IOException {
-      return newBuilder().mergeFrom(input).buildParsed();
+      return PARSER.parseFrom(input);
     }
     public static com.google.nigori.common.NigoriMessages.DeleteRequest parseFrom(
         com.google.protobuf.CodedInputStream input,
         com.google.protobuf.ExtensionRegistryLite extensionRegistry)
         throws java.io.IOException {
-      return newBuilder().mergeFrom(input, extensionRegistry)
-               .buildParsed();
+      return PARSER.parseFrom(input, extensionRegistry);
     }
-    
+
     public static Builder newBuilder() { return Builder.create(); }
     public Builder newBuilderForType() { return newBuilder(); }
     public static Builder newBuilder(com.google.nigori.common.NigoriMessages.DeleteRequest prototype) {
       return newBuilder().mergeFrom(prototype);
     }
     public Builder toBuilder() { return newBuilder(this); }
-    
+
     @java.lang.Override
     protected Builder newBuilderForType(
         com.google.protobuf.GeneratedMessage.BuilderParent parent) {
       Builder builder = new Builder(parent);
       return builder;
     }
+    /**
+     * Protobuf type {@code nigori.DeleteRequest}
+     */
     public static final class Builder extends
-        com.google.protobuf.GeneratedMessage.Builder<Builder>
-       implements com.google.nigori.common.NigoriMessages.DeleteRequestOrBuilder {
+        com.google.protobuf.GeneratedMessage.Builder<Builder> implements
+        // @@protoc_insertion_point(builder_implements:nigori.DeleteRequest)
+        com.google.nigori.common.NigoriMessages.DeleteRequestOrBuilder {
       public static final com.google.protobuf.Descriptors.Descriptor
           getDescriptor() {
         return com.google.nigori.common.NigoriMessages.internal_static_nigori_DeleteRequest_descriptor;
       }
-      
+
       protected com.google.protobuf.GeneratedMessage.FieldAccessorTable
           internalGetFieldAccessorTable() {
-        return com.google.nigori.common.NigoriMessages.internal_static_nigori_DeleteRequest_fieldAccessorTable;
+        return com.google.nigori.common.NigoriMessages.internal_static_nigori_DeleteRequest_fieldAccessorTable
+            .ensureFieldAccessorsInitialized(
+                com.google.nigori.common.NigoriMessages.DeleteRequest.class, com.google.nigori.common.NigoriMessages.DeleteRequest.Builder.class);
       }
-      
+
       // Construct using com.google.nigori.common.NigoriMessages.DeleteRequest.newBuilder()
       private Builder() {
         maybeForceBuilderInitialization();
       }
-      
-      private Builder(BuilderParent parent) {
+
+      private Builder(
+          com.google.protobuf.GeneratedMessage.BuilderParent parent) {
         super(parent);
         maybeForceBuilderInitialization();
       }
@@ -5720,7 +7776,7 @@ public final class NigoriMessages {
       private static Builder create() {
         return new Builder();
       }
-      
+
       public Builder clear() {
         super.clear();
         if (authBuilder_ == null) {
@@ -5735,20 +7791,20 @@ public final class NigoriMessages {
         bitField0_ = (bitField0_ & ~0x00000004);
         return this;
       }
-      
+
       public Builder clone() {
         return create().mergeFrom(buildPartial());
       }
-      
+
       public com.google.protobuf.Descriptors.Descriptor
           getDescriptorForType() {
-        return com.google.nigori.common.NigoriMessages.DeleteRequest.getDescriptor();
+        return com.google.nigori.common.NigoriMessages.internal_static_nigori_DeleteRequest_descriptor;
       }
-      
+
       public com.google.nigori.common.NigoriMessages.DeleteRequest getDefaultInstanceForType() {
         return com.google.nigori.common.NigoriMessages.DeleteRequest.getDefaultInstance();
       }
-      
+
       public com.google.nigori.common.NigoriMessages.DeleteRequest build() {
         com.google.nigori.common.NigoriMessages.DeleteRequest result = buildPartial();
         if (!result.isInitialized()) {
@@ -5756,17 +7812,7 @@ public final class NigoriMessages {
         }
         return result;
       }
-      
-      private com.google.nigori.common.NigoriMessages.DeleteRequest buildParsed()
-          throws com.google.protobuf.InvalidProtocolBufferException {
-        com.google.nigori.common.NigoriMessages.DeleteRequest result = buildPartial();
-        if (!result.isInitialized()) {
-          throw newUninitializedMessageException(
-            result).asInvalidProtocolBufferException();
-        }
-        return result;
-      }
-      
+
       public com.google.nigori.common.NigoriMessages.DeleteRequest buildPartial() {
         com.google.nigori.common.NigoriMessages.DeleteRequest result = new com.google.nigori.common.NigoriMessages.DeleteRequest(this);
         int from_bitField0_ = bitField0_;
@@ -5791,7 +7837,7 @@ public final class NigoriMessages {
         onBuilt();
         return result;
       }
-      
+
       public Builder mergeFrom(com.google.protobuf.Message other) {
         if (other instanceof com.google.nigori.common.NigoriMessages.DeleteRequest) {
           return mergeFrom((com.google.nigori.common.NigoriMessages.DeleteRequest)other);
@@ -5800,7 +7846,7 @@ public final class NigoriMessages {
           return this;
         }
       }
-      
+
       public Builder mergeFrom(com.google.nigori.common.NigoriMessages.DeleteRequest other) {
         if (other == com.google.nigori.common.NigoriMessages.DeleteRequest.getDefaultInstance()) return this;
         if (other.hasAuth()) {
@@ -5815,7 +7861,7 @@ public final class NigoriMessages {
         this.mergeUnknownFields(other.getUnknownFields());
         return this;
       }
-      
+
       public final boolean isInitialized() {
         if (!hasAuth()) {
           
@@ -5831,62 +7877,38 @@ public final class NigoriMessages {
         }
         return true;
       }
-      
+
       public Builder mergeFrom(
           com.google.protobuf.CodedInputStream input,
           com.google.protobuf.ExtensionRegistryLite extensionRegistry)
           throws java.io.IOException {
-        com.google.protobuf.UnknownFieldSet.Builder unknownFields =
-          com.google.protobuf.UnknownFieldSet.newBuilder(
-            this.getUnknownFields());
-        while (true) {
-          int tag = input.readTag();
-          switch (tag) {
-            case 0:
-              this.setUnknownFields(unknownFields.build());
-              onChanged();
-              return this;
-            default: {
-              if (!parseUnknownField(input, unknownFields,
-                                     extensionRegistry, tag)) {
-                this.setUnknownFields(unknownFields.build());
-                onChanged();
-                return this;
-              }
-              break;
-            }
-            case 10: {
-              com.google.nigori.common.NigoriMessages.AuthenticateRequest.Builder subBuilder = com.google.nigori.common.NigoriMessages.AuthenticateRequest.newBuilder();
-              if (hasAuth()) {
-                subBuilder.mergeFrom(getAuth());
-              }
-              input.readMessage(subBuilder, extensionRegistry);
-              setAuth(subBuilder.buildPartial());
-              break;
-            }
-            case 18: {
-              bitField0_ |= 0x00000002;
-              key_ = input.readBytes();
-              break;
-            }
-            case 26: {
-              bitField0_ |= 0x00000004;
-              revision_ = input.readBytes();
-              break;
-            }
+        com.google.nigori.common.NigoriMessages.DeleteRequest parsedMessage = null;
+        try {
+          parsedMessage = PARSER.parsePartialFrom(input, extensionRegistry);
+        } catch (com.google.protobuf.InvalidProtocolBufferException e) {
+          parsedMessage = (com.google.nigori.common.NigoriMessages.DeleteRequest) e.getUnfinishedMessage();
+          throw e;
+        } finally {
+          if (parsedMessage != null) {
+            mergeFrom(parsedMessage);
           }
         }
+        return this;
       }
-      
       private int bitField0_;
-      
-      // required .nigori.AuthenticateRequest auth = 1;
+
       private com.google.nigori.common.NigoriMessages.AuthenticateRequest auth_ = com.google.nigori.common.NigoriMessages.AuthenticateRequest.getDefaultInstance();
       private com.google.protobuf.SingleFieldBuilder<
           com.google.nigori.common.NigoriMessages.AuthenticateRequest, com.google.nigori.common.NigoriMessages.AuthenticateRequest.Builder, com.google.nigori.common.NigoriMessages.AuthenticateRequestOrBuilder> authBuilder_;
+      /**
+       * <code>required .nigori.AuthenticateRequest auth = 1;</code>
+       */
       public boolean hasAuth() {
         return ((bitField0_ & 0x00000001) == 0x00000001);
       }
+      /**
+       * <code>required .nigori.AuthenticateRequest auth = 1;</code>
+       */
       public com.google.nigori.common.NigoriMessages.AuthenticateRequest getAuth() {
         if (authBuilder_ == null) {
           return auth_;
@@ -5894,6 +7916,9 @@ public final class NigoriMessages {
           return authBuilder_.getMessage();
         }
       }
+      /**
+       * <code>required .nigori.AuthenticateRequest auth = 1;</code>
+       */
       public Builder setAuth(com.google.nigori.common.NigoriMessages.AuthenticateRequest value) {
         if (authBuilder_ == null) {
           if (value == null) {
@@ -5907,6 +7932,9 @@ public final class NigoriMessages {
         bitField0_ |= 0x00000001;
         return this;
       }
+      /**
+       * <code>required .nigori.AuthenticateRequest auth = 1;</code>
+       */
       public Builder setAuth(
           com.google.nigori.common.NigoriMessages.AuthenticateRequest.Builder builderForValue) {
         if (authBuilder_ == null) {
@@ -5918,6 +7946,9 @@ public final class NigoriMessages {
         bitField0_ |= 0x00000001;
         return this;
       }
+      /**
+       * <code>required .nigori.AuthenticateRequest auth = 1;</code>
+       */
       public Builder mergeAuth(com.google.nigori.common.NigoriMessages.AuthenticateRequest value) {
         if (authBuilder_ == null) {
           if (((bitField0_ & 0x00000001) == 0x00000001) &&
@@ -5934,6 +7965,9 @@ public final class NigoriMessages {
         bitField0_ |= 0x00000001;
         return this;
       }
+      /**
+       * <code>required .nigori.AuthenticateRequest auth = 1;</code>
+       */
       public Builder clearAuth() {
         if (authBuilder_ == null) {
           auth_ = com.google.nigori.common.NigoriMessages.AuthenticateRequest.getDefaultInstance();
@@ -5944,11 +7978,17 @@ public final class NigoriMessages {
         bitField0_ = (bitField0_ & ~0x00000001);
         return this;
       }
+      /**
+       * <code>required .nigori.AuthenticateRequest auth = 1;</code>
+       */
       public com.google.nigori.common.NigoriMessages.AuthenticateRequest.Builder getAuthBuilder() {
         bitField0_ |= 0x00000001;
         onChanged();
         return getAuthFieldBuilder().getBuilder();
       }
+      /**
+       * <code>required .nigori.AuthenticateRequest auth = 1;</code>
+       */
       public com.google.nigori.common.NigoriMessages.AuthenticateRequestOrBuilder getAuthOrBuilder() {
         if (authBuilder_ != null) {
           return authBuilder_.getMessageOrBuilder();
@@ -5956,28 +7996,39 @@ public final class NigoriMessages {
           return auth_;
         }
       }
+      /**
+       * <code>required .nigori.AuthenticateRequest auth = 1;</code>
+       */
       private com.google.protobuf.SingleFieldBuilder<
           com.google.nigori.common.NigoriMessages.AuthenticateRequest, com.google.nigori.common.NigoriMessages.AuthenticateRequest.Builder, com.google.nigori.common.NigoriMessages.AuthenticateRequestOrBuilder> 
           getAuthFieldBuilder() {
         if (authBuilder_ == null) {
           authBuilder_ = new com.google.protobuf.SingleFieldBuilder<
               com.google.nigori.common.NigoriMessages.AuthenticateRequest, com.google.nigori.common.NigoriMessages.AuthenticateRequest.Builder, com.google.nigori.common.NigoriMessages.AuthenticateRequestOrBuilder>(
-                  auth_,
+                  getAuth(),
                   getParentForChildren(),
                   isClean());
           auth_ = null;
         }
         return authBuilder_;
       }
-      
-      // required bytes key = 2;
+
       private com.google.protobuf.ByteString key_ = com.google.protobuf.ByteString.EMPTY;
+      /**
+       * <code>required bytes key = 2;</code>
+       */
       public boolean hasKey() {
         return ((bitField0_ & 0x00000002) == 0x00000002);
       }
+      /**
+       * <code>required bytes key = 2;</code>
+       */
       public com.google.protobuf.ByteString getKey() {
         return key_;
       }
+      /**
+       * <code>required bytes key = 2;</code>
+       */
       public Builder setKey(com.google.protobuf.ByteString value) {
         if (value == null) {
     throw new NullPointerException();
@@ -5987,21 +8038,32 @@ public final class NigoriMessages {
         onChanged();
         return this;
       }
+      /**
+       * <code>required bytes key = 2;</code>
+       */
       public Builder clearKey() {
         bitField0_ = (bitField0_ & ~0x00000002);
         key_ = getDefaultInstance().getKey();
         onChanged();
         return this;
       }
-      
-      // optional bytes revision = 3;
+
       private com.google.protobuf.ByteString revision_ = com.google.protobuf.ByteString.EMPTY;
+      /**
+       * <code>optional bytes revision = 3;</code>
+       */
       public boolean hasRevision() {
         return ((bitField0_ & 0x00000004) == 0x00000004);
       }
+      /**
+       * <code>optional bytes revision = 3;</code>
+       */
       public com.google.protobuf.ByteString getRevision() {
         return revision_;
       }
+      /**
+       * <code>optional bytes revision = 3;</code>
+       */
       public Builder setRevision(com.google.protobuf.ByteString value) {
         if (value == null) {
     throw new NullPointerException();
@@ -6011,227 +8073,11048 @@ public final class NigoriMessages {
         onChanged();
         return this;
       }
+      /**
+       * <code>optional bytes revision = 3;</code>
+       */
       public Builder clearRevision() {
         bitField0_ = (bitField0_ & ~0x00000004);
         revision_ = getDefaultInstance().getRevision();
         onChanged();
         return this;
       }
-      
+
       // @@protoc_insertion_point(builder_scope:nigori.DeleteRequest)
     }
-    
+
     static {
       defaultInstance = new DeleteRequest(true);
       defaultInstance.initFields();
     }
-    
+
     // @@protoc_insertion_point(class_scope:nigori.DeleteRequest)
   }
-  
-  private static com.google.protobuf.Descriptors.Descriptor
-    internal_static_nigori_AuthenticateRequest_descriptor;
-  private static
-    com.google.protobuf.GeneratedMessage.FieldAccessorTable
-      internal_static_nigori_AuthenticateRequest_fieldAccessorTable;
-  private static com.google.protobuf.Descriptors.Descriptor
-    internal_static_nigori_RegisterRequest_descriptor;
-  private static
-    com.google.protobuf.GeneratedMessage.FieldAccessorTable
-      internal_static_nigori_RegisterRequest_fieldAccessorTable;
-  private static com.google.protobuf.Descriptors.Descriptor
-    internal_static_nigori_UnregisterRequest_descriptor;
-  private static
-    com.google.protobuf.GeneratedMessage.FieldAccessorTable
-      internal_static_nigori_UnregisterRequest_fieldAccessorTable;
-  private static com.google.protobuf.Descriptors.Descriptor
-    internal_static_nigori_RevisionValue_descriptor;
-  private static
-    com.google.protobuf.GeneratedMessage.FieldAccessorTable
-      internal_static_nigori_RevisionValue_fieldAccessorTable;
-  private static com.google.protobuf.Descriptors.Descriptor
-    internal_static_nigori_GetRequest_descriptor;
-  private static
-    com.google.protobuf.GeneratedMessage.FieldAccessorTable
-      internal_static_nigori_GetRequest_fieldAccessorTable;
-  private static com.google.protobuf.Descriptors.Descriptor
-    internal_static_nigori_GetResponse_descriptor;
-  private static
-    com.google.protobuf.GeneratedMessage.FieldAccessorTable
-      internal_static_nigori_GetResponse_fieldAccessorTable;
-  private static com.google.protobuf.Descriptors.Descriptor
-    internal_static_nigori_GetIndicesRequest_descriptor;
-  private static
-    com.google.protobuf.GeneratedMessage.FieldAccessorTable
-      internal_static_nigori_GetIndicesRequest_fieldAccessorTable;
-  private static com.google.protobuf.Descriptors.Descriptor
-    internal_static_nigori_GetIndicesResponse_descriptor;
-  private static
-    com.google.protobuf.GeneratedMessage.FieldAccessorTable
-      internal_static_nigori_GetIndicesResponse_fieldAccessorTable;
-  private static com.google.protobuf.Descriptors.Descriptor
-    internal_static_nigori_GetRevisionsRequest_descriptor;
-  private static
-    com.google.protobuf.GeneratedMessage.FieldAccessorTable
-      internal_static_nigori_GetRevisionsRequest_fieldAccessorTable;
-  private static com.google.protobuf.Descriptors.Descriptor
-    internal_static_nigori_GetRevisionsResponse_descriptor;
-  private static
-    com.google.protobuf.GeneratedMessage.FieldAccessorTable
-      internal_static_nigori_GetRevisionsResponse_fieldAccessorTable;
-  private static com.google.protobuf.Descriptors.Descriptor
-    internal_static_nigori_PutRequest_descriptor;
-  private static
-    com.google.protobuf.GeneratedMessage.FieldAccessorTable
-      internal_static_nigori_PutRequest_fieldAccessorTable;
-  private static com.google.protobuf.Descriptors.Descriptor
-    internal_static_nigori_DeleteRequest_descriptor;
-  private static
-    com.google.protobuf.GeneratedMessage.FieldAccessorTable
-      internal_static_nigori_DeleteRequest_fieldAccessorTable;
-  
-  public static com.google.protobuf.Descriptors.FileDescriptor
-      getDescriptor() {
-    return descriptor;
+
+  public interface SessionRequestOrBuilder extends
+      // @@protoc_insertion_point(interface_extends:nigori.SessionRequest)
+      com.google.protobuf.MessageOrBuilder {
+
+    /**
+     * <code>required .nigori.AuthenticateRequest auth = 1;</code>
+     */
+    boolean hasAuth();
+    /**
+     * <code>required .nigori.AuthenticateRequest auth = 1;</code>
+     */
+    com.google.nigori.common.NigoriMessages.AuthenticateRequest getAuth();
+    /**
+     * <code>required .nigori.AuthenticateRequest auth = 1;</code>
+     */
+    com.google.nigori.common.NigoriMessages.AuthenticateRequestOrBuilder getAuthOrBuilder();
+
+    /**
+     * <code>required bytes dh_public = 2;</code>
+     */
+    boolean hasDhPublic();
+    /**
+     * <code>required bytes dh_public = 2;</code>
+     */
+    com.google.protobuf.ByteString getDhPublic();
   }
-  private static com.google.protobuf.Descriptors.FileDescriptor
-      descriptor;
-  static {
-    java.lang.String[] descriptorData = {
-      "\n$src/main/proto/nigori_messages.proto\022\006" +
-      "nigori\"Z\n\023AuthenticateRequest\022\022\n\npublic_" +
-      "key\030\001 \002(\014\022\013\n\003sig\030\002 \002(\014\022\r\n\005nonce\030\003 \002(\014\022\023\n" +
-      "\013server_name\030\004 \002(\t\"4\n\017RegisterRequest\022\022\n" +
-      "\npublic_key\030\001 \002(\014\022\r\n\005token\030\002 \002(\014\">\n\021Unre" +
-      "gisterRequest\022)\n\004auth\030\001 \002(\0132\033.nigori.Aut" +
-      "henticateRequest\"0\n\rRevisionValue\022\020\n\010rev" +
-      "ision\030\001 \002(\014\022\r\n\005value\030\002 \002(\014\"V\n\nGetRequest" +
-      "\022)\n\004auth\030\001 \002(\0132\033.nigori.AuthenticateRequ" +
-      "est\022\013\n\003key\030\002 \002(\014\022\020\n\010revision\030\003 \001(\014\"D\n\013Ge",
-      "tResponse\022(\n\trevisions\030\001 \003(\0132\025.nigori.Re" +
-      "visionValue\022\013\n\003key\030\002 \001(\014\">\n\021GetIndicesRe" +
-      "quest\022)\n\004auth\030\001 \002(\0132\033.nigori.Authenticat" +
-      "eRequest\"%\n\022GetIndicesResponse\022\017\n\007indice" +
-      "s\030\001 \003(\014\"M\n\023GetRevisionsRequest\022)\n\004auth\030\001" +
-      " \002(\0132\033.nigori.AuthenticateRequest\022\013\n\003key" +
-      "\030\002 \002(\014\"6\n\024GetRevisionsResponse\022\021\n\trevisi" +
-      "ons\030\001 \003(\014\022\013\n\003key\030\002 \001(\014\"e\n\nPutRequest\022)\n\004" +
-      "auth\030\001 \002(\0132\033.nigori.AuthenticateRequest\022" +
-      "\013\n\003key\030\002 \002(\014\022\020\n\010revision\030\003 \002(\014\022\r\n\005value\030",
-      "\004 \002(\014\"Y\n\rDeleteRequest\022)\n\004auth\030\001 \002(\0132\033.n" +
-      "igori.AuthenticateRequest\022\013\n\003key\030\002 \002(\014\022\020" +
-      "\n\010revision\030\003 \001(\014B*\n\030com.google.nigori.co" +
-      "mmonB\016NigoriMessages"
+  /**
+   * Protobuf type {@code nigori.SessionRequest}
+   *
+   * <pre>
+   * Establish a session so that later requests can be authenticated with an HMAC under a session key
+   * rather than with a DSA signature. The session key is agreed by Diffie-Hellman in the DSA group.
+   * </pre>
+   */
+  public static final class SessionRequest extends
+      com.google.protobuf.GeneratedMessage implements
+      // @@protoc_insertion_point(message_implements:nigori.SessionRequest)
+      SessionRequestOrBuilder {
+    // Use SessionRequest.newBuilder() to construct.
+    private SessionRequest(com.google.protobuf.GeneratedMessage.Builder<?> builder) {
+      super(builder);
+      this.unknownFields = builder.getUnknownFields();
+    }
+    private SessionRequest(boolean noInit) { this.unknownFields = com.google.protobuf.UnknownFieldSet.getDefaultInstance(); }
+
+    private static final SessionRequest defaultInstance;
+    public static SessionRequest getDefaultInstance() {
+      return defaultInstance;
+    }
+
+    public SessionRequest getDefaultInstanceForType() {
+      return defaultInstance;
+    }
+
+    private final com.google.protobuf.UnknownFieldSet unknownFields;
+    @java.lang.Override
+    public final com.google.protobuf.UnknownFieldSet
+        getUnknownFields() {
+      return this.unknownFields;
+    }
+    private SessionRequest(
+        com.google.protobuf.CodedInputStream input,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws com.google.protobuf.InvalidProtocolBufferException {
+      initFields();
+      int mutable_bitField0_ = 0;
+      com.google.protobuf.UnknownFieldSet.Builder unknownFields =
+          com.google.protobuf.UnknownFieldSet.newBuilder();
+      try {
+        boolean done = false;
+        while (!done) {
+          int tag = input.readTag();
+          switch (tag) {
+            case 0:
+              done = true;
+              break;
+            default: {
+              if (!parseUnknownField(input, unknownFields,
+                                     extensionRegistry, tag)) {
+                done = true;
+              }
+              break;
+            }
+            case 10: {
+              com.google.nigori.common.NigoriMessages.AuthenticateRequest.Builder subBuilder = null;
+              if (((bitField0_ & 0x00000001) == 0x00000001)) {
+                subBuilder = auth_.toBuilder();
+              }
+              auth_ = input.readMessage(com.google.nigori.common.NigoriMessages.AuthenticateRequest.PARSER, extensionRegistry);
+              if (subBuilder != null) {
+                subBuilder.mergeFrom(auth_);
+                auth_ = subBuilder.buildPartial();
+              }
+              bitField0_ |= 0x00000001;
+              break;
+            }
+            case 18: {
+              bitField0_ |= 0x00000002;
+              dhPublic_ = input.readBytes();
+              break;
+            }
+          }
+        }
+      } catch (com.google.protobuf.InvalidProtocolBufferException e) {
+        throw e.setUnfinishedMessage(this);
+      } catch (java.io.IOException e) {
+        throw new com.google.protobuf.InvalidProtocolBufferException(
+            e.getMessage()).setUnfinishedMessage(this);
+      } finally {
+        this.unknownFields = unknownFields.build();
+        makeExtensionsImmutable();
+      }
+    }
+    public static final com.google.protobuf.Descriptors.Descriptor
+        getDescriptor() {
+      return com.google.nigori.common.NigoriMessages.internal_static_nigori_SessionRequest_descriptor;
+    }
+
+    protected com.google.protobuf.GeneratedMessage.FieldAccessorTable
+        internalGetFieldAccessorTable() {
+      return com.google.nigori.common.NigoriMessages.internal_static_nigori_SessionRequest_fieldAccessorTable
+          .ensureFieldAccessorsInitialized(
+              com.google.nigori.common.NigoriMessages.SessionRequest.class, com.google.nigori.common.NigoriMessages.SessionRequest.Builder.class);
+    }
+
+    public static com.google.protobuf.Parser<SessionRequest> PARSER =
+        new com.google.protobuf.AbstractParser<SessionRequest>() {
+      public SessionRequest parsePartialFrom(
+          com.google.protobuf.CodedInputStream input,
+          com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+          throws com.google.protobuf.InvalidProtocolBufferException {
+        return new SessionRequest(input, extensionRegistry);
+      }
     };
-    com.google.protobuf.Descriptors.FileDescriptor.InternalDescriptorAssigner assigner =
-      new com.google.protobuf.Descriptors.FileDescriptor.InternalDescriptorAssigner() {
-        public com.google.protobuf.ExtensionRegistry assignDescriptors(
-            com.google.protobuf.Descriptors.FileDescriptor root) {
-          descriptor = root;
-          internal_static_nigori_AuthenticateRequest_descriptor =
-            getDescriptor().getMessageTypes().get(0);
-          internal_static_nigori_AuthenticateRequest_fieldAccessorTable = new
-            com.google.protobuf.GeneratedMessage.FieldAccessorTable(
-              internal_static_nigori_AuthenticateRequest_descriptor,
-              new java.lang.String[] { "PublicKey", "Sig", "Nonce", "ServerName", },
-              com.google.nigori.common.NigoriMessages.AuthenticateRequest.class,
-              com.google.nigori.common.NigoriMessages.AuthenticateRequest.Builder.class);
-          internal_static_nigori_RegisterRequest_descriptor =
-            getDescriptor().getMessageTypes().get(1);
-          internal_static_nigori_RegisterRequest_fieldAccessorTable = new
-            com.google.protobuf.GeneratedMessage.FieldAccessorTable(
-              internal_static_nigori_RegisterRequest_descriptor,
-              new java.lang.String[] { "PublicKey", "Token", },
-              com.google.nigori.common.NigoriMessages.RegisterRequest.class,
-              com.google.nigori.common.NigoriMessages.RegisterRequest.Builder.class);
-          internal_static_nigori_UnregisterRequest_descriptor =
-            getDescriptor().getMessageTypes().get(2);
-          internal_static_nigori_UnregisterRequest_fieldAccessorTable = new
-            com.google.protobuf.GeneratedMessage.FieldAccessorTable(
-              internal_static_nigori_UnregisterRequest_descriptor,
-              new java.lang.String[] { "Auth", },
-              com.google.nigori.common.NigoriMessages.UnregisterRequest.class,
-              com.google.nigori.common.NigoriMessages.UnregisterRequest.Builder.class);
-          internal_static_nigori_RevisionValue_descriptor =
-            getDescriptor().getMessageTypes().get(3);
-          internal_static_nigori_RevisionValue_fieldAccessorTable = new
-            com.google.protobuf.GeneratedMessage.FieldAccessorTable(
-              internal_static_nigori_RevisionValue_descriptor,
-              new java.lang.String[] { "Revision", "Value", },
-              com.google.nigori.common.NigoriMessages.RevisionValue.class,
-              com.google.nigori.common.NigoriMessages.RevisionValue.Builder.class);
-          internal_static_nigori_GetRequest_descriptor =
-            getDescriptor().getMessageTypes().get(4);
-          internal_static_nigori_GetRequest_fieldAccessorTable = new
-            com.google.protobuf.GeneratedMessage.FieldAccessorTable(
-              internal_static_nigori_GetRequest_descriptor,
-              new java.lang.String[] { "Auth", "Key", "Revision", },
-              com.google.nigori.common.NigoriMessages.GetRequest.class,
-              com.google.nigori.common.NigoriMessages.GetRequest.Builder.class);
-          internal_static_nigori_GetResponse_descriptor =
-            getDescriptor().getMessageTypes().get(5);
-          internal_static_nigori_GetResponse_fieldAccessorTable = new
-            com.google.protobuf.GeneratedMessage.FieldAccessorTable(
-              internal_static_nigori_GetResponse_descriptor,
-              new java.lang.String[] { "Revisions", "Key", },
-              com.google.nigori.common.NigoriMessages.GetResponse.class,
-              com.google.nigori.common.NigoriMessages.GetResponse.Builder.class);
-          internal_static_nigori_GetIndicesRequest_descriptor =
-            getDescriptor().getMessageTypes().get(6);
-          internal_static_nigori_GetIndicesRequest_fieldAccessorTable = new
-            com.google.protobuf.GeneratedMessage.FieldAccessorTable(
-              internal_static_nigori_GetIndicesRequest_descriptor,
-              new java.lang.String[] { "Auth", },
-              com.google.nigori.common.NigoriMessages.GetIndicesRequest.class,
-              com.google.nigori.common.NigoriMessages.GetIndicesRequest.Builder.class);
-          internal_static_nigori_GetIndicesResponse_descriptor =
-            getDescriptor().getMessageTypes().get(7);
-          internal_static_nigori_GetIndicesResponse_fieldAccessorTable = new
-            com.google.protobuf.GeneratedMessage.FieldAccessorTable(
-              internal_static_nigori_GetIndicesResponse_descriptor,
-              new java.lang.String[] { "Indices", },
-              com.google.nigori.common.NigoriMessages.GetIndicesResponse.class,
-              com.google.nigori.common.NigoriMessages.GetIndicesResponse.Builder.class);
-          internal_static_nigori_GetRevisionsRequest_descriptor =
-            getDescriptor().getMessageTypes().get(8);
-          internal_static_nigori_GetRevisionsRequest_fieldAccessorTable = new
-            com.google.protobuf.GeneratedMessage.FieldAccessorTable(
-              internal_static_nigori_GetRevisionsRequest_descriptor,
-              new java.lang.String[] { "Auth", "Key", },
-              com.google.nigori.common.NigoriMessages.GetRevisionsRequest.class,
-              com.google.nigori.common.NigoriMessages.GetRevisionsRequest.Builder.class);
-          internal_static_nigori_GetRevisionsResponse_descriptor =
-            getDescriptor().getMessageTypes().get(9);
-          internal_static_nigori_GetRevisionsResponse_fieldAccessorTable = new
-            com.google.protobuf.GeneratedMessage.FieldAccessorTable(
-              internal_static_nigori_GetRevisionsResponse_descriptor,
-              new java.lang.String[] { "Revisions", "Key", },
-              com.google.nigori.common.NigoriMessages.GetRevisionsResponse.class,
-              com.google.nigori.common.NigoriMessages.GetRevisionsResponse.Builder.class);
-          internal_static_nigori_PutRequest_descriptor =
-            getDescriptor().getMessageTypes().get(10);
-          internal_static_nigori_PutRequest_fieldAccessorTable = new
-            com.google.protobuf.GeneratedMessage.FieldAccessorTable(
-              internal_static_nigori_PutRequest_descriptor,
-              new java.lang.String[] { "Auth", "Key", "Revision", "Value", },
-              com.google.nigori.common.NigoriMessages.PutRequest.class,
-              com.google.nigori.common.NigoriMessages.PutRequest.Builder.class);
-          internal_static_nigori_DeleteRequest_descriptor =
-            getDescriptor().getMessageTypes().get(11);
-          internal_static_nigori_DeleteRequest_fieldAccessorTable = new
-            com.google.protobuf.GeneratedMessage.FieldAccessorTable(
-              internal_static_nigori_DeleteRequest_descriptor,
-              new java.lang.String[] { "Auth", "Key", "Revision", },
-              com.google.nigori.common.NigoriMessages.DeleteRequest.class,
-              com.google.nigori.common.NigoriMessages.DeleteRequest.Builder.class);
-          return null;
-        }
-      };
-    com.google.protobuf.Descriptors.FileDescriptor
-      .internalBuildGeneratedFileFrom(descriptorData,
-        new com.google.protobuf.Descriptors.FileDescriptor[] {
-        }, assigner);
-  }
-  
+
+    @java.lang.Override
+    public com.google.protobuf.Parser<SessionRequest> getParserForType() {
+      return PARSER;
+    }
+
+    private int bitField0_;
+    public static final int AUTH_FIELD_NUMBER = 1;
+    private com.google.nigori.common.NigoriMessages.AuthenticateRequest auth_;
+    /**
+     * <code>required .nigori.AuthenticateRequest auth = 1;</code>
+     */
+    public boolean hasAuth() {
+      return ((bitField0_ & 0x00000001) == 0x00000001);
+    }
+    /**
+     * <code>required .nigori.AuthenticateRequest auth = 1;</code>
+     */
+    public com.google.nigori.common.NigoriMessages.AuthenticateRequest getAuth() {
+      return auth_;
+    }
+    /**
+     * <code>required .nigori.AuthenticateRequest auth = 1;</code>
+     */
+    public com.google.nigori.common.NigoriMessages.AuthenticateRequestOrBuilder getAuthOrBuilder() {
+      return auth_;
+    }
+
+    public static final int DH_PUBLIC_FIELD_NUMBER = 2;
+    private com.google.protobuf.ByteString dhPublic_;
+    /**
+     * <code>required bytes dh_public = 2;</code>
+     */
+    public boolean hasDhPublic() {
+      return ((bitField0_ & 0x00000002) == 0x00000002);
+    }
+    /**
+     * <code>required bytes dh_public = 2;</code>
+     */
+    public com.google.protobuf.ByteString getDhPublic() {
+      return dhPublic_;
+    }
+
+    private void initFields() {
+      auth_ = com.google.nigori.common.NigoriMessages.AuthenticateRequest.getDefaultInstance();
+      dhPublic_ = com.google.protobuf.ByteString.EMPTY;
+    }
+    private byte memoizedIsInitialized = -1;
+    public final boolean isInitialized() {
+      byte isInitialized = memoizedIsInitialized;
+      if (isInitialized == 1) return true;
+      if (isInitialized == 0) return false;
+
+      if (!hasAuth()) {
+        memoizedIsInitialized = 0;
+        return false;
+      }
+      if (!hasDhPublic()) {
+        memoizedIsInitialized = 0;
+        return false;
+      }
+      if (!getAuth().isInitialized()) {
+        memoizedIsInitialized = 0;
+        return false;
+      }
+      memoizedIsInitialized = 1;
+      return true;
+    }
+
+    public void writeTo(com.google.protobuf.CodedOutputStream output)
+                        throws java.io.IOException {
+      getSerializedSize();
+      if (((bitField0_ & 0x00000001) == 0x00000001)) {
+        output.writeMessage(1, auth_);
+      }
+      if (((bitField0_ & 0x00000002) == 0x00000002)) {
+        output.writeBytes(2, dhPublic_);
+      }
+      getUnknownFields().writeTo(output);
+    }
+
+    private int memoizedSerializedSize = -1;
+    public int getSerializedSize() {
+      int size = memoizedSerializedSize;
+      if (size != -1) return size;
+
+      size = 0;
+      if (((bitField0_ & 0x00000001) == 0x00000001)) {
+        size += com.google.protobuf.CodedOutputStream
+          .computeMessageSize(1, auth_);
+      }
+      if (((bitField0_ & 0x00000002) == 0x00000002)) {
+        size += com.google.protobuf.CodedOutputStream
+          .computeBytesSize(2, dhPublic_);
+      }
+      size += getUnknownFields().getSerializedSize();
+      memoizedSerializedSize = size;
+      return size;
+    }
+
+    private static final long serialVersionUID = 0L;
+    @java.lang.Override
+    protected java.lang.Object writeReplace()
+        throws java.io.ObjectStreamException {
+      return super.writeReplace();
+    }
+
+    public static com.google.nigori.common.NigoriMessages.SessionRequest parseFrom(
+        com.google.protobuf.ByteString data)
+        throws com.google.protobuf.InvalidProtocolBufferException {
+      return PARSER.parseFrom(data);
+    }
+    public static com.google.nigori.common.NigoriMessages.SessionRequest parseFrom(
+        com.google.protobuf.ByteString data,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws com.google.protobuf.InvalidProtocolBufferException {
+      return PARSER.parseFrom(data, extensionRegistry);
+    }
+    public static com.google.nigori.common.NigoriMessages.SessionRequest parseFrom(byte[] data)
+        throws com.google.protobuf.InvalidProtocolBufferException {
+      return PARSER.parseFrom(data);
+    }
+    public static com.google.nigori.common.NigoriMessages.SessionRequest parseFrom(
+        byte[] data,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws com.google.protobuf.InvalidProtocolBufferException {
+      return PARSER.parseFrom(data, extensionRegistry);
+    }
+    public static com.google.nigori.common.NigoriMessages.SessionRequest parseFrom(java.io.InputStream input)
+        throws java.io.IOException {
+      return PARSER.parseFrom(input);
+    }
+    public static com.google.nigori.common.NigoriMessages.SessionRequest parseFrom(
+        java.io.InputStream input,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws java.io.IOException {
+      return PARSER.parseFrom(input, extensionRegistry);
+    }
+    public static com.google.nigori.common.NigoriMessages.SessionRequest parseDelimitedFrom(java.io.InputStream input)
+        throws java.io.IOException {
+      return PARSER.parseDelimitedFrom(input);
+    }
+    public static com.google.nigori.common.NigoriMessages.SessionRequest parseDelimitedFrom(
+        java.io.InputStream input,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws java.io.IOException {
+      return PARSER.parseDelimitedFrom(input, extensionRegistry);
+    }
+    public static com.google.nigori.common.NigoriMessages.SessionRequest parseFrom(
+        com.google.protobuf.CodedInputStream input)
+        throws java.io.IOException {
+      return PARSER.parseFrom(input);
+    }
+    public static com.google.nigori.common.NigoriMessages.SessionRequest parseFrom(
+        com.google.protobuf.CodedInputStream input,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws java.io.IOException {
+      return PARSER.parseFrom(input, extensionRegistry);
+    }
+
+    public static Builder newBuilder() { return Builder.create(); }
+    public Builder newBuilderForType() { return newBuilder(); }
+    public static Builder newBuilder(com.google.nigori.common.NigoriMessages.SessionRequest prototype) {
+      return newBuilder().mergeFrom(prototype);
+    }
+    public Builder toBuilder() { return newBuilder(this); }
+
+    @java.lang.Override
+    protected Builder newBuilderForType(
+        com.google.protobuf.GeneratedMessage.BuilderParent parent) {
+      Builder builder = new Builder(parent);
+      return builder;
+    }
+    /**
+     * Protobuf type {@code nigori.SessionRequest}
+     *
+     * <pre>
+     * Establish a session so that later requests can be authenticated with an HMAC under a session key
+     * rather than with a DSA signature. The session key is agreed by Diffie-Hellman in the DSA group.
+     * </pre>
+     */
+    public static final class Builder extends
+        com.google.protobuf.GeneratedMessage.Builder<Builder> implements
+        // @@protoc_insertion_point(builder_implements:nigori.SessionRequest)
+        com.google.nigori.common.NigoriMessages.SessionRequestOrBuilder {
+      public static final com.google.protobuf.Descriptors.Descriptor
+          getDescriptor() {
+        return com.google.nigori.common.NigoriMessages.internal_static_nigori_SessionRequest_descriptor;
+      }
+
+      protected com.google.protobuf.GeneratedMessage.FieldAccessorTable
+          internalGetFieldAccessorTable() {
+        return com.google.nigori.common.NigoriMessages.internal_static_nigori_SessionRequest_fieldAccessorTable
+            .ensureFieldAccessorsInitialized(
+                com.google.nigori.common.NigoriMessages.SessionRequest.class, com.google.nigori.common.NigoriMessages.SessionRequest.Builder.class);
+      }
+
+      // Construct using com.google.nigori.common.NigoriMessages.SessionRequest.newBuilder()
+      private Builder() {
+        maybeForceBuilderInitialization();
+      }
+
+      private Builder(
+          com.google.protobuf.GeneratedMessage.BuilderParent parent) {
+        super(parent);
+        maybeForceBuilderInitialization();
+      }
+      private void maybeForceBuilderInitialization() {
+        if (com.google.protobuf.GeneratedMessage.alwaysUseFieldBuilders) {
+          getAuthFieldBuilder();
+        }
+      }
+      private static Builder create() {
+        return new Builder();
+      }
+
+      public Builder clear() {
+        super.clear();
+        if (authBuilder_ == null) {
+          auth_ = com.google.nigori.common.NigoriMessages.AuthenticateRequest.getDefaultInstance();
+        } else {
+          authBuilder_.clear();
+        }
+        bitField0_ = (bitField0_ & ~0x00000001);
+        dhPublic_ = com.google.protobuf.ByteString.EMPTY;
+        bitField0_ = (bitField0_ & ~0x00000002);
+        return this;
+      }
+
+      public Builder clone() {
+        return create().mergeFrom(buildPartial());
+      }
+
+      public com.google.protobuf.Descriptors.Descriptor
+          getDescriptorForType() {
+        return com.google.nigori.common.NigoriMessages.internal_static_nigori_SessionRequest_descriptor;
+      }
+
+      public com.google.nigori.common.NigoriMessages.SessionRequest getDefaultInstanceForType() {
+        return com.google.nigori.common.NigoriMessages.SessionRequest.getDefaultInstance();
+      }
+
+      public com.google.nigori.common.NigoriMessages.SessionRequest build() {
+        com.google.nigori.common.NigoriMessages.SessionRequest result = buildPartial();
+        if (!result.isInitialized()) {
+          throw newUninitializedMessageException(result);
+        }
+        return result;
+      }
+
+      public com.google.nigori.common.NigoriMessages.SessionRequest buildPartial() {
+        com.google.nigori.common.NigoriMessages.SessionRequest result = new com.google.nigori.common.NigoriMessages.SessionRequest(this);
+        int from_bitField0_ = bitField0_;
+        int to_bitField0_ = 0;
+        if (((from_bitField0_ & 0x00000001) == 0x00000001)) {
+          to_bitField0_ |= 0x00000001;
+        }
+        if (authBuilder_ == null) {
+          result.auth_ = auth_;
+        } else {
+          result.auth_ = authBuilder_.build();
+        }
+        if (((from_bitField0_ & 0x00000002) == 0x00000002)) {
+          to_bitField0_ |= 0x00000002;
+        }
+        result.dhPublic_ = dhPublic_;
+        result.bitField0_ = to_bitField0_;
+        onBuilt();
+        return result;
+      }
+
+      public Builder mergeFrom(com.google.protobuf.Message other) {
+        if (other instanceof com.google.nigori.common.NigoriMessages.SessionRequest) {
+          return mergeFrom((com.google.nigori.common.NigoriMessages.SessionRequest)other);
+        } else {
+          super.mergeFrom(other);
+          return this;
+        }
+      }
+
+      public Builder mergeFrom(com.google.nigori.common.NigoriMessages.SessionRequest other) {
+        if (other == com.google.nigori.common.NigoriMessages.SessionRequest.getDefaultInstance()) return this;
+        if (other.hasAuth()) {
+          mergeAuth(other.getAuth());
+        }
+        if (other.hasDhPublic()) {
+          setDhPublic(other.getDhPublic());
+        }
+        this.mergeUnknownFields(other.getUnknownFields());
+        return this;
+      }
+
+      public final boolean isInitialized() {
+        if (!hasAuth()) {
+          
+          return false;
+        }
+        if (!hasDhPublic()) {
+          
+          return false;
+        }
+        if (!getAuth().isInitialized()) {
+          
+          return false;
+        }
+        return true;
+      }
+
+      public Builder mergeFrom(
+          com.google.protobuf.CodedInputStream input,
+          com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+          throws java.io.IOException {
+        com.google.nigori.common.NigoriMessages.SessionRequest parsedMessage = null;
+        try {
+          parsedMessage = PARSER.parsePartialFrom(input, extensionRegistry);
+        } catch (com.google.protobuf.InvalidProtocolBufferException e) {
+          parsedMessage = (com.google.nigori.common.NigoriMessages.SessionRequest) e.getUnfinishedMessage();
+          throw e;
+        } finally {
+          if (parsedMessage != null) {
+            mergeFrom(parsedMessage);
+          }
+        }
+        return this;
+      }
+      private int bitField0_;
+
+      private com.google.nigori.common.NigoriMessages.AuthenticateRequest auth_ = com.google.nigori.common.NigoriMessages.AuthenticateRequest.getDefaultInstance();
+      private com.google.protobuf.SingleFieldBuilder<
+          com.google.nigori.common.NigoriMessages.AuthenticateRequest, com.google.nigori.common.NigoriMessages.AuthenticateRequest.Builder, com.google.nigori.common.NigoriMessages.AuthenticateRequestOrBuilder> authBuilder_;
+      /**
+       * <code>required .nigori.AuthenticateRequest auth = 1;</code>
+       */
+      public boolean hasAuth() {
+        return ((bitField0_ & 0x00000001) == 0x00000001);
+      }
+      /**
+       * <code>required .nigori.AuthenticateRequest auth = 1;</code>
+       */
+      public com.google.nigori.common.NigoriMessages.AuthenticateRequest getAuth() {
+        if (authBuilder_ == null) {
+          return auth_;
+        } else {
+          return authBuilder_.getMessage();
+        }
+      }
+      /**
+       * <code>required .nigori.AuthenticateRequest auth = 1;</code>
+       */
+      public Builder setAuth(com.google.nigori.common.NigoriMessages.AuthenticateRequest value) {
+        if (authBuilder_ == null) {
+          if (value == null) {
+            throw new NullPointerException();
+          }
+          auth_ = value;
+          onChanged();
+        } else {
+          authBuilder_.setMessage(value);
+        }
+        bitField0_ |= 0x00000001;
+        return this;
+      }
+      /**
+       * <code>required .nigori.AuthenticateRequest auth = 1;</code>
+       */
+      public Builder setAuth(
+          com.google.nigori.common.NigoriMessages.AuthenticateRequest.Builder builderForValue) {
+        if (authBuilder_ == null) {
+          auth_ = builderForValue.build();
+          onChanged();
+        } else {
+          authBuilder_.setMessage(builderForValue.build());
+        }
+        bitField0_ |= 0x00000001;
+        return this;
+      }
+      /**
+       * <code>required .nigori.AuthenticateRequest auth = 1;</code>
+       */
+      public Builder mergeAuth(com.google.nigori.common.NigoriMessages.AuthenticateRequest value) {
+        if (authBuilder_ == null) {
+          if (((bitField0_ & 0x00000001) == 0x00000001) &&
+              auth_ != com.google.nigori.common.NigoriMessages.AuthenticateRequest.getDefaultInstance()) {
+            auth_ =
+              com.google.nigori.common.NigoriMessages.AuthenticateRequest.newBuilder(auth_).mergeFrom(value).buildPartial();
+          } else {
+            auth_ = value;
+          }
+          onChanged();
+        } else {
+          authBuilder_.mergeFrom(value);
+        }
+        bitField0_ |= 0x00000001;
+        return this;
+      }
+      /**
+       * <code>required .nigori.AuthenticateRequest auth = 1;</code>
+       */
+      public Builder clearAuth() {
+        if (authBuilder_ == null) {
+          auth_ = com.google.nigori.common.NigoriMessages.AuthenticateRequest.getDefaultInstance();
+          onChanged();
+        } else {
+          authBuilder_.clear();
+        }
+        bitField0_ = (bitField0_ & ~0x00000001);
+        return this;
+      }
+      /**
+       * <code>required .nigori.AuthenticateRequest auth = 1;</code>
+       */
+      public com.google.nigori.common.NigoriMessages.AuthenticateRequest.Builder getAuthBuilder() {
+        bitField0_ |= 0x00000001;
+        onChanged();
+        return getAuthFieldBuilder().getBuilder();
+      }
+      /**
+       * <code>required .nigori.AuthenticateRequest auth = 1;</code>
+       */
+      public com.google.nigori.common.NigoriMessages.AuthenticateRequestOrBuilder getAuthOrBuilder() {
+        if (authBuilder_ != null) {
+          return authBuilder_.getMessageOrBuilder();
+        } else {
+          return auth_;
+        }
+      }
+      /**
+       * <code>required .nigori.AuthenticateRequest auth = 1;</code>
+       */
+      private com.google.protobuf.SingleFieldBuilder<
+          com.google.nigori.common.NigoriMessages.AuthenticateRequest, com.google.nigori.common.NigoriMessages.AuthenticateRequest.Builder, com.google.nigori.common.NigoriMessages.AuthenticateRequestOrBuilder> 
+          getAuthFieldBuilder() {
+        if (authBuilder_ == null) {
+          authBuilder_ = new com.google.protobuf.SingleFieldBuilder<
+              com.google.nigori.common.NigoriMessages.AuthenticateRequest, com.google.nigori.common.NigoriMessages.AuthenticateRequest.Builder, com.google.nigori.common.NigoriMessages.AuthenticateRequestOrBuilder>(
+                  getAuth(),
+                  getParentForChildren(),
+                  isClean());
+          auth_ = null;
+        }
+        return authBuilder_;
+      }
+
+      private com.google.protobuf.ByteString dhPublic_ = com.google.protobuf.ByteString.EMPTY;
+      /**
+       * <code>required bytes dh_public = 2;</code>
+       */
+      public boolean hasDhPublic() {
+        return ((bitField0_ & 0x00000002) == 0x00000002);
+      }
+      /**
+       * <code>required bytes dh_public = 2;</code>
+       */
+      public com.google.protobuf.ByteString getDhPublic() {
+        return dhPublic_;
+      }
+      /**
+       * <code>required bytes dh_public = 2;</code>
+       */
+      public Builder setDhPublic(com.google.protobuf.ByteString value) {
+        if (value == null) {
+    throw new NullPointerException();
+  }
+  bitField0_ |= 0x00000002;
+        dhPublic_ = value;
+        onChanged();
+        return this;
+      }
+      /**
+       * <code>required bytes dh_public = 2;</code>
+       */
+      public Builder clearDhPublic() {
+        bitField0_ = (bitField0_ & ~0x00000002);
+        dhPublic_ = getDefaultInstance().getDhPublic();
+        onChanged();
+        return this;
+      }
+
+      // @@protoc_insertion_point(builder_scope:nigori.SessionRequest)
+    }
+
+    static {
+      defaultInstance = new SessionRequest(true);
+      defaultInstance.initFields();
+    }
+
+    // @@protoc_insertion_point(class_scope:nigori.SessionRequest)
+  }
+
+  public interface SessionResponseOrBuilder extends
+      // @@protoc_insertion_point(interface_extends:nigori.SessionResponse)
+      com.google.protobuf.MessageOrBuilder {
+
+    /**
+     * <code>required bytes ticket = 1;</code>
+     *
+     * <pre>
+     * Opaque to the client, sealed by the server and sent in AuthenticateRequest.ticket
+     * </pre>
+     */
+    boolean hasTicket();
+    /**
+     * <code>required bytes ticket = 1;</code>
+     *
+     * <pre>
+     * Opaque to the client, sealed by the server and sent in AuthenticateRequest.ticket
+     * </pre>
+     */
+    com.google.protobuf.ByteString getTicket();
+
+    /**
+     * <code>required bytes dh_public = 2;</code>
+     */
+    boolean hasDhPublic();
+    /**
+     * <code>required bytes dh_public = 2;</code>
+     */
+    com.google.protobuf.ByteString getDhPublic();
+
+    /**
+     * <code>required int32 lifetime = 3;</code>
+     *
+     * <pre>
+     * Number of seconds for which the ticket will be accepted
+     * </pre>
+     */
+    boolean hasLifetime();
+    /**
+     * <code>required int32 lifetime = 3;</code>
+     *
+     * <pre>
+     * Number of seconds for which the ticket will be accepted
+     * </pre>
+     */
+    int getLifetime();
+
+    /**
+     * <code>optional bool counters = 4;</code>
+     *
+     * <pre>
+     * Whether the server accepts AuthenticateRequest.counter for this session
+     * </pre>
+     */
+    boolean hasCounters();
+    /**
+     * <code>optional bool counters = 4;</code>
+     *
+     * <pre>
+     * Whether the server accepts AuthenticateRequest.counter for this session
+     * </pre>
+     */
+    boolean getCounters();
+  }
+  /**
+   * Protobuf type {@code nigori.SessionResponse}
+   */
+  public static final class SessionResponse extends
+      com.google.protobuf.GeneratedMessage implements
+      // @@protoc_insertion_point(message_implements:nigori.SessionResponse)
+      SessionResponseOrBuilder {
+    // Use SessionResponse.newBuilder() to construct.
+    private SessionResponse(com.google.protobuf.GeneratedMessage.Builder<?> builder) {
+      super(builder);
+      this.unknownFields = builder.getUnknownFields();
+    }
+    private SessionResponse(boolean noInit) { this.unknownFields = com.google.protobuf.UnknownFieldSet.getDefaultInstance(); }
+
+    private static final SessionResponse defaultInstance;
+    public static SessionResponse getDefaultInstance() {
+      return defaultInstance;
+    }
+
+    public SessionResponse getDefaultInstanceForType() {
+      return defaultInstance;
+    }
+
+    private final com.google.protobuf.UnknownFieldSet unknownFields;
+    @java.lang.Override
+    public final com.google.protobuf.UnknownFieldSet
+        getUnknownFields() {
+      return this.unknownFields;
+    }
+    private SessionResponse(
+        com.google.protobuf.CodedInputStream input,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws com.google.protobuf.InvalidProtocolBufferException {
+      initFields();
+      int mutable_bitField0_ = 0;
+      com.google.protobuf.UnknownFieldSet.Builder unknownFields =
+          com.google.protobuf.UnknownFieldSet.newBuilder();
+      try {
+        boolean done = false;
+        while (!done) {
+          int tag = input.readTag();
+          switch (tag) {
+            case 0:
+              done = true;
+              break;
+            default: {
+              if (!parseUnknownField(input, unknownFields,
+                                     extensionRegistry, tag)) {
+                done = true;
+              }
+              break;
+            }
+            case 10: {
+              bitField0_ |= 0x00000001;
+              ticket_ = input.readBytes();
+              break;
+            }
+            case 18: {
+              bitField0_ |= 0x00000002;
+              dhPublic_ = input.readBytes();
+              break;
+            }
+            case 24: {
+              bitField0_ |= 0x00000004;
+              lifetime_ = input.readInt32();
+              break;
+            }
+            case 32: {
+              bitField0_ |= 0x00000008;
+              counters_ = input.readBool();
+              break;
+            }
+          }
+        }
+      } catch (com.google.protobuf.InvalidProtocolBufferException e) {
+        throw e.setUnfinishedMessage(this);
+      } catch (java.io.IOException e) {
+        throw new com.google.protobuf.InvalidProtocolBufferException(
+            e.getMessage()).setUnfinishedMessage(this);
+      } finally {
+        this.unknownFields = unknownFields.build();
+        makeExtensionsImmutable();
+      }
+    }
+    public static final com.google.protobuf.Descriptors.Descriptor
+        getDescriptor() {
+      return com.google.nigori.common.NigoriMessages.internal_static_nigori_SessionResponse_descriptor;
+    }
+
+    protected com.google.protobuf.GeneratedMessage.FieldAccessorTable
+        internalGetFieldAccessorTable() {
+      return com.google.nigori.common.NigoriMessages.internal_static_nigori_SessionResponse_fieldAccessorTable
+          .ensureFieldAccessorsInitialized(
+              com.google.nigori.common.NigoriMessages.SessionResponse.class, com.google.nigori.common.NigoriMessages.SessionResponse.Builder.class);
+    }
+
+    public static com.google.protobuf.Parser<SessionResponse> PARSER =
+        new com.google.protobuf.AbstractParser<SessionResponse>() {
+      public SessionResponse parsePartialFrom(
+          com.google.protobuf.CodedInputStream input,
+          com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+          throws com.google.protobuf.InvalidProtocolBufferException {
+        return new SessionResponse(input, extensionRegistry);
+      }
+    };
+
+    @java.lang.Override
+    public com.google.protobuf.Parser<SessionResponse> getParserForType() {
+      return PARSER;
+    }
+
+    private int bitField0_;
+    public static final int TICKET_FIELD_NUMBER = 1;
+    private com.google.protobuf.ByteString ticket_;
+    /**
+     * <code>required bytes ticket = 1;</code>
+     *
+     * <pre>
+     * Opaque to the client, sealed by the server and sent in AuthenticateRequest.ticket
+     * </pre>
+     */
+    public boolean hasTicket() {
+      return ((bitField0_ & 0x00000001) == 0x00000001);
+    }
+    /**
+     * <code>required bytes ticket = 1;</code>
+     *
+     * <pre>
+     * Opaque to the client, sealed by the server and sent in AuthenticateRequest.ticket
+     * </pre>
+     */
+    public com.google.protobuf.ByteString getTicket() {
+      return ticket_;
+    }
+
+    public static final int DH_PUBLIC_FIELD_NUMBER = 2;
+    private com.google.protobuf.ByteString dhPublic_;
+    /**
+     * <code>required bytes dh_public = 2;</code>
+     */
+    public boolean hasDhPublic() {
+      return ((bitField0_ & 0x00000002) == 0x00000002);
+    }
+    /**
+     * <code>required bytes dh_public = 2;</code>
+     */
+    public com.google.protobuf.ByteString getDhPublic() {
+      return dhPublic_;
+    }
+
+    public static final int LIFETIME_FIELD_NUMBER = 3;
+    private int lifetime_;
+    /**
+     * <code>required int32 lifetime = 3;</code>
+     *
+     * <pre>
+     * Number of seconds for which the ticket will be accepted
+     * </pre>
+     */
+    public boolean hasLifetime() {
+      return ((bitField0_ & 0x00000004) == 0x00000004);
+    }
+    /**
+     * <code>required int32 lifetime = 3;</code>
+     *
+     * <pre>
+     * Number of seconds for which the ticket will be accepted
+     * </pre>
+     */
+    public int getLifetime() {
+      return lifetime_;
+    }
+
+    public static final int COUNTERS_FIELD_NUMBER = 4;
+    private boolean counters_;
+    /**
+     * <code>optional bool counters = 4;</code>
+     *
+     * <pre>
+     * Whether the server accepts AuthenticateRequest.counter for this session
+     * </pre>
+     */
+    public boolean hasCounters() {
+      return ((bitField0_ & 0x00000008) == 0x00000008);
+    }
+    /**
+     * <code>optional bool counters = 4;</code>
+     *
+     * <pre>
+     * Whether the server accepts AuthenticateRequest.counter for this session
+     * </pre>
+     */
+    public boolean getCounters() {
+      return counters_;
+    }
+
+    private void initFields() {
+      ticket_ = com.google.protobuf.ByteString.EMPTY;
+      dhPublic_ = com.google.protobuf.ByteString.EMPTY;
+      lifetime_ = 0;
+      counters_ = false;
+    }
+    private byte memoizedIsInitialized = -1;
+    public final boolean isInitialized() {
+      byte isInitialized = memoizedIsInitialized;
+      if (isInitialized == 1) return true;
+      if (isInitialized == 0) return false;
+
+      if (!hasTicket()) {
+        memoizedIsInitialized = 0;
+        return false;
+      }
+      if (!hasDhPublic()) {
+        memoizedIsInitialized = 0;
+        return false;
+      }
+      if (!hasLifetime()) {
+        memoizedIsInitialized = 0;
+        return false;
+      }
+      memoizedIsInitialized = 1;
+      return true;
+    }
+
+    public void writeTo(com.google.protobuf.CodedOutputStream output)
+                        throws java.io.IOException {
+      getSerializedSize();
+      if (((bitField0_ & 0x00000001) == 0x00000001)) {
+        output.writeBytes(1, ticket_);
+      }
+      if (((bitField0_ & 0x00000002) == 0x00000002)) {
+        output.writeBytes(2, dhPublic_);
+      }
+      if (((bitField0_ & 0x00000004) == 0x00000004)) {
+        output.writeInt32(3, lifetime_);
+      }
+      if (((bitField0_ & 0x00000008) == 0x00000008)) {
+        output.writeBool(4, counters_);
+      }
+      getUnknownFields().writeTo(output);
+    }
+
+    private int memoizedSerializedSize = -1;
+    public int getSerializedSize() {
+      int size = memoizedSerializedSize;
+      if (size != -1) return size;
+
+      size = 0;
+      if (((bitField0_ & 0x00000001) == 0x00000001)) {
+        size += com.google.protobuf.CodedOutputStream
+          .computeBytesSize(1, ticket_);
+      }
+      if (((bitField0_ & 0x00000002) == 0x00000002)) {
+        size += com.google.protobuf.CodedOutputStream
+          .computeBytesSize(2, dhPublic_);
+      }
+      if (((bitField0_ & 0x00000004) == 0x00000004)) {
+        size += com.google.protobuf.CodedOutputStream
+          .computeInt32Size(3, lifetime_);
+      }
+      if (((bitField0_ & 0x00000008) == 0x00000008)) {
+        size += com.google.protobuf.CodedOutputStream
+          .computeBoolSize(4, counters_);
+      }
+      size += getUnknownFields().getSerializedSize();
+      memoizedSerializedSize = size;
+      return size;
+    }
+
+    private static final long serialVersionUID = 0L;
+    @java.lang.Override
+    protected java.lang.Object writeReplace()
+        throws java.io.ObjectStreamException {
+      return super.writeReplace();
+    }
+
+    public static com.google.nigori.common.NigoriMessages.SessionResponse parseFrom(
+        com.google.protobuf.ByteString data)
+        throws com.google.protobuf.InvalidProtocolBufferException {
+      return PARSER.parseFrom(data);
+    }
+    public static com.google.nigori.common.NigoriMessages.SessionResponse parseFrom(
+        com.google.protobuf.ByteString data,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws com.google.protobuf.InvalidProtocolBufferException {
+      return PARSER.parseFrom(data, extensionRegistry);
+    }
+    public static com.google.nigori.common.NigoriMessages.SessionResponse parseFrom(byte[] data)
+        throws com.google.protobuf.InvalidProtocolBufferException {
+      return PARSER.parseFrom(data);
+    }
+    public static com.google.nigori.common.NigoriMessages.SessionResponse parseFrom(
+        byte[] data,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws com.google.protobuf.InvalidProtocolBufferException {
+      return PARSER.parseFrom(data, extensionRegistry);
+    }
+    public static com.google.nigori.common.NigoriMessages.SessionResponse parseFrom(java.io.InputStream input)
+        throws java.io.IOException {
+      return PARSER.parseFrom(input);
+    }
+    public static com.google.nigori.common.NigoriMessages.SessionResponse parseFrom(
+        java.io.InputStream input,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws java.io.IOException {
+      return PARSER.parseFrom(input, extensionRegistry);
+    }
+    public static com.google.nigori.common.NigoriMessages.SessionResponse parseDelimitedFrom(java.io.InputStream input)
+        throws java.io.IOException {
+      return PARSER.parseDelimitedFrom(input);
+    }
+    public static com.google.nigori.common.NigoriMessages.SessionResponse parseDelimitedFrom(
+        java.io.InputStream input,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws java.io.IOException {
+      return PARSER.parseDelimitedFrom(input, extensionRegistry);
+    }
+    public static com.google.nigori.common.NigoriMessages.SessionResponse parseFrom(
+        com.google.protobuf.CodedInputStream input)
+        throws java.io.IOException {
+      return PARSER.parseFrom(input);
+    }
+    public static com.google.nigori.common.NigoriMessages.SessionResponse parseFrom(
+        com.google.protobuf.CodedInputStream input,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws java.io.IOException {
+      return PARSER.parseFrom(input, extensionRegistry);
+    }
+
+    public static Builder newBuilder() { return Builder.create(); }
+    public Builder newBuilderForType() { return newBuilder(); }
+    public static Builder newBuilder(com.google.nigori.common.NigoriMessages.SessionResponse prototype) {
+      return newBuilder().mergeFrom(prototype);
+    }
+    public Builder toBuilder() { return newBuilder(this); }
+
+    @java.lang.Override
+    protected Builder newBuilderForType(
+        com.google.protobuf.GeneratedMessage.BuilderParent parent) {
+      Builder builder = new Builder(parent);
+      return builder;
+    }
+    /**
+     * Protobuf type {@code nigori.SessionResponse}
+     */
+    public static final class Builder extends
+        com.google.protobuf.GeneratedMessage.Builder<Builder> implements
+        // @@protoc_insertion_point(builder_implements:nigori.SessionResponse)
+        com.google.nigori.common.NigoriMessages.SessionResponseOrBuilder {
+      public static final com.google.protobuf.Descriptors.Descriptor
+          getDescriptor() {
+        return com.google.nigori.common.NigoriMessages.internal_static_nigori_SessionResponse_descriptor;
+      }
+
+      protected com.google.protobuf.GeneratedMessage.FieldAccessorTable
+          internalGetFieldAccessorTable() {
+        return com.google.nigori.common.NigoriMessages.internal_static_nigori_SessionResponse_fieldAccessorTable
+            .ensureFieldAccessorsInitialized(
+                com.google.nigori.common.NigoriMessages.SessionResponse.class, com.google.nigori.common.NigoriMessages.SessionResponse.Builder.class);
+      }
+
+      // Construct using com.google.nigori.common.NigoriMessages.SessionResponse.newBuilder()
+      private Builder() {
+        maybeForceBuilderInitialization();
+      }
+
+      private Builder(
+          com.google.protobuf.GeneratedMessage.BuilderParent parent) {
+        super(parent);
+        maybeForceBuilderInitialization();
+      }
+      private void maybeForceBuilderInitialization() {
+        if (com.google.protobuf.GeneratedMessage.alwaysUseFieldBuilders) {
+        }
+      }
+      private static Builder create() {
+        return new Builder();
+      }
+
+      public Builder clear() {
+        super.clear();
+        ticket_ = com.google.protobuf.ByteString.EMPTY;
+        bitField0_ = (bitField0_ & ~0x00000001);
+        dhPublic_ = com.google.protobuf.ByteString.EMPTY;
+        bitField0_ = (bitField0_ & ~0x00000002);
+        lifetime_ = 0;
+        bitField0_ = (bitField0_ & ~0x00000004);
+        counters_ = false;
+        bitField0_ = (bitField0_ & ~0x00000008);
+        return this;
+      }
+
+      public Builder clone() {
+        return create().mergeFrom(buildPartial());
+      }
+
+      public com.google.protobuf.Descriptors.Descriptor
+          getDescriptorForType() {
+        return com.google.nigori.common.NigoriMessages.internal_static_nigori_SessionResponse_descriptor;
+      }
+
+      public com.google.nigori.common.NigoriMessages.SessionResponse getDefaultInstanceForType() {
+        return com.google.nigori.common.NigoriMessages.SessionResponse.getDefaultInstance();
+      }
+
+      public com.google.nigori.common.NigoriMessages.SessionResponse build() {
+        com.google.nigori.common.NigoriMessages.SessionResponse result = buildPartial();
+        if (!result.isInitialized()) {
+          throw newUninitializedMessageException(result);
+        }
+        return result;
+      }
+
+      public com.google.nigori.common.NigoriMessages.SessionResponse buildPartial() {
+        com.google.nigori.common.NigoriMessages.SessionResponse result = new com.google.nigori.common.NigoriMessages.SessionResponse(this);
+        int from_bitField0_ = bitField0_;
+        int to_bitField0_ = 0;
+        if (((from_bitField0_ & 0x00000001) == 0x00000001)) {
+          to_bitField0_ |= 0x00000001;
+        }
+        result.ticket_ = ticket_;
+        if (((from_bitField0_ & 0x00000002) == 0x00000002)) {
+          to_bitField0_ |= 0x00000002;
+        }
+        result.dhPublic_ = dhPublic_;
+        if (((from_bitField0_ & 0x00000004) == 0x00000004)) {
+          to_bitField0_ |= 0x00000004;
+        }
+        result.lifetime_ = lifetime_;
+        if (((from_bitField0_ & 0x00000008) == 0x00000008)) {
+          to_bitField0_ |= 0x00000008;
+        }
+        result.counters_ = counters_;
+        result.bitField0_ = to_bitField0_;
+        onBuilt();
+        return result;
+      }
+
+      public Builder mergeFrom(com.google.protobuf.Message other) {
+        if (other instanceof com.google.nigori.common.NigoriMessages.SessionResponse) {
+          return mergeFrom((com.google.nigori.common.NigoriMessages.SessionResponse)other);
+        } else {
+          super.mergeFrom(other);
+          return this;
+        }
+      }
+
+      public Builder mergeFrom(com.google.nigori.common.NigoriMessages.SessionResponse other) {
+        if (other == com.google.nigori.common.NigoriMessages.SessionResponse.getDefaultInstance()) return this;
+        if (other.hasTicket()) {
+          setTicket(other.getTicket());
+        }
+        if (other.hasDhPublic()) {
+          setDhPublic(other.getDhPublic());
+        }
+        if (other.hasLifetime()) {
+          setLifetime(other.getLifetime());
+        }
+        if (other.hasCounters()) {
+          setCounters(other.getCounters());
+        }
+        this.mergeUnknownFields(other.getUnknownFields());
+        return this;
+      }
+
+      public final boolean isInitialized() {
+        if (!hasTicket()) {
+          
+          return false;
+        }
+        if (!hasDhPublic()) {
+          
+          return false;
+        }
+        if (!hasLifetime()) {
+          
+          return false;
+        }
+        return true;
+      }
+
+      public Builder mergeFrom(
+          com.google.protobuf.CodedInputStream input,
+          com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+          throws java.io.IOException {
+        com.google.nigori.common.NigoriMessages.SessionResponse parsedMessage = null;
+        try {
+          parsedMessage = PARSER.parsePartialFrom(input, extensionRegistry);
+        } catch (com.google.protobuf.InvalidProtocolBufferException e) {
+          parsedMessage = (com.google.nigori.common.NigoriMessages.SessionResponse) e.getUnfinishedMessage();
+          throw e;
+        } finally {
+          if (parsedMessage != null) {
+            mergeFrom(parsedMessage);
+          }
+        }
+        return this;
+      }
+      private int bitField0_;
+
+      private com.google.protobuf.ByteString ticket_ = com.google.protobuf.ByteString.EMPTY;
+      /**
+       * <code>required bytes ticket = 1;</code>
+       *
+       * <pre>
+       * Opaque to the client, sealed by the server and sent in AuthenticateRequest.ticket
+       * </pre>
+       */
+      public boolean hasTicket() {
+        return ((bitField0_ & 0x00000001) == 0x00000001);
+      }
+      /**
+       * <code>required bytes ticket = 1;</code>
+       *
+       * <pre>
+       * Opaque to the client, sealed by the server and sent in AuthenticateRequest.ticket
+       * </pre>
+       */
+      public com.google.protobuf.ByteString getTicket() {
+        return ticket_;
+      }
+      /**
+       * <code>required bytes ticket = 1;</code>
+       *
+       * <pre>
+       * Opaque to the client, sealed by the server and sent in AuthenticateRequest.ticket
+       * </pre>
+       */
+      public Builder setTicket(com.google.protobuf.ByteString value) {
+        if (value == null) {
+    throw new NullPointerException();
+  }
+  bitField0_ |= 0x00000001;
+        ticket_ = value;
+        onChanged();
+        return this;
+      }
+      /**
+       * <code>required bytes ticket = 1;</code>
+       *
+       * <pre>
+       * Opaque to the client, sealed by the server and sent in AuthenticateRequest.ticket
+       * </pre>
+       */
+      public Builder clearTicket() {
+        bitField0_ = (bitField0_ & ~0x00000001);
+        ticket_ = getDefaultInstance().getTicket();
+        onChanged();
+        return this;
+      }
+
+      private com.google.protobuf.ByteString dhPublic_ = com.google.protobuf.ByteString.EMPTY;
+      /**
+       * <code>required bytes dh_public = 2;</code>
+       */
+      public boolean hasDhPublic() {
+        return ((bitField0_ & 0x00000002) == 0x00000002);
+      }
+      /**
+       * <code>required bytes dh_public = 2;</code>
+       */
+      public com.google.protobuf.ByteString getDhPublic() {
+        return dhPublic_;
+      }
+      /**
+       * <code>required bytes dh_public = 2;</code>
+       */
+      public Builder setDhPublic(com.google.protobuf.ByteString value) {
+        if (value == null) {
+    throw new NullPointerException();
+  }
+  bitField0_ |= 0x00000002;
+        dhPublic_ = value;
+        onChanged();
+        return this;
+      }
+      /**
+       * <code>required bytes dh_public = 2;</code>
+       */
+      public Builder clearDhPublic() {
+        bitField0_ = (bitField0_ & ~0x00000002);
+        dhPublic_ = getDefaultInstance().getDhPublic();
+        onChanged();
+        return this;
+      }
+
+      private int lifetime_ ;
+      /**
+       * <code>required int32 lifetime = 3;</code>
+       *
+       * <pre>
+       * Number of seconds for which the ticket will be accepted
+       * </pre>
+       */
+      public boolean hasLifetime() {
+        return ((bitField0_ & 0x00000004) == 0x00000004);
+      }
+      /**
+       * <code>required int32 lifetime = 3;</code>
+       *
+       * <pre>
+       * Number of seconds for which the ticket will be accepted
+       * </pre>
+       */
+      public int getLifetime() {
+        return lifetime_;
+      }
+      /**
+       * <code>required int32 lifetime = 3;</code>
+       *
+       * <pre>
+       * Number of seconds for which the ticket will be accepted
+       * </pre>
+       */
+      public Builder setLifetime(int value) {
+        bitField0_ |= 0x00000004;
+        lifetime_ = value;
+        onChanged();
+        return this;
+      }
+      /**
+       * <code>required int32 lifetime = 3;</code>
+       *
+       * <pre>
+       * Number of seconds for which the ticket will be accepted
+       * </pre>
+       */
+      public Builder clearLifetime() {
+        bitField0_ = (bitField0_ & ~0x00000004);
+        lifetime_ = 0;
+        onChanged();
+        return this;
+      }
+
+      private boolean counters_ ;
+      /**
+       * <code>optional bool counters = 4;</code>
+       *
+       * <pre>
+       * Whether the server accepts AuthenticateRequest.counter for this session
+       * </pre>
+       */
+      public boolean hasCounters() {
+        return ((bitField0_ & 0x00000008) == 0x00000008);
+      }
+      /**
+       * <code>optional bool counters = 4;</code>
+       *
+       * <pre>
+       * Whether the server accepts AuthenticateRequest.counter for this session
+       * </pre>
+       */
+      public boolean getCounters() {
+        return counters_;
+      }
+      /**
+       * <code>optional bool counters = 4;</code>
+       *
+       * <pre>
+       * Whether the server accepts AuthenticateRequest.counter for this session
+       * </pre>
+       */
+      public Builder setCounters(boolean value) {
+        bitField0_ |= 0x00000008;
+        counters_ = value;
+        onChanged();
+        return this;
+      }
+      /**
+       * <code>optional bool counters = 4;</code>
+       *
+       * <pre>
+       * Whether the server accepts AuthenticateRequest.counter for this session
+       * </pre>
+       */
+      public Builder clearCounters() {
+        bitField0_ = (bitField0_ & ~0x00000008);
+        counters_ = false;
+        onChanged();
+        return this;
+      }
+
+      // @@protoc_insertion_point(builder_scope:nigori.SessionResponse)
+    }
+
+    static {
+      defaultInstance = new SessionResponse(true);
+      defaultInstance.initFields();
+    }
+
+    // @@protoc_insertion_point(class_scope:nigori.SessionResponse)
+  }
+
+  public interface KeyRevisionValueOrBuilder extends
+      // @@protoc_insertion_point(interface_extends:nigori.KeyRevisionValue)
+      com.google.protobuf.MessageOrBuilder {
+
+    /**
+     * <code>required bytes key = 1;</code>
+     */
+    boolean hasKey();
+    /**
+     * <code>required bytes key = 1;</code>
+     */
+    com.google.protobuf.ByteString getKey();
+
+    /**
+     * <code>required bytes revision = 2;</code>
+     */
+    boolean hasRevision();
+    /**
+     * <code>required bytes revision = 2;</code>
+     */
+    com.google.protobuf.ByteString getRevision();
+
+    /**
+     * <code>required bytes value = 3;</code>
+     */
+    boolean hasValue();
+    /**
+     * <code>required bytes value = 3;</code>
+     */
+    com.google.protobuf.ByteString getValue();
+  }
+  /**
+   * Protobuf type {@code nigori.KeyRevisionValue}
+   */
+  public static final class KeyRevisionValue extends
+      com.google.protobuf.GeneratedMessage implements
+      // @@protoc_insertion_point(message_implements:nigori.KeyRevisionValue)
+      KeyRevisionValueOrBuilder {
+    // Use KeyRevisionValue.newBuilder() to construct.
+    private KeyRevisionValue(com.google.protobuf.GeneratedMessage.Builder<?> builder) {
+      super(builder);
+      this.unknownFields = builder.getUnknownFields();
+    }
+    private KeyRevisionValue(boolean noInit) { this.unknownFields = com.google.protobuf.UnknownFieldSet.getDefaultInstance(); }
+
+    private static final KeyRevisionValue defaultInstance;
+    public static KeyRevisionValue getDefaultInstance() {
+      return defaultInstance;
+    }
+
+    public KeyRevisionValue getDefaultInstanceForType() {
+      return defaultInstance;
+    }
+
+    private final com.google.protobuf.UnknownFieldSet unknownFields;
+    @java.lang.Override
+    public final com.google.protobuf.UnknownFieldSet
+        getUnknownFields() {
+      return this.unknownFields;
+    }
+    private KeyRevisionValue(
+        com.google.protobuf.CodedInputStream input,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws com.google.protobuf.InvalidProtocolBufferException {
+      initFields();
+      int mutable_bitField0_ = 0;
+      com.google.protobuf.UnknownFieldSet.Builder unknownFields =
+          com.google.protobuf.UnknownFieldSet.newBuilder();
+      try {
+        boolean done = false;
+        while (!done) {
+          int tag = input.readTag();
+          switch (tag) {
+            case 0:
+              done = true;
+              break;
+            default: {
+              if (!parseUnknownField(input, unknownFields,
+                                     extensionRegistry, tag)) {
+                done = true;
+              }
+              break;
+            }
+            case 10: {
+              bitField0_ |= 0x00000001;
+              key_ = input.readBytes();
+              break;
+            }
+            case 18: {
+              bitField0_ |= 0x00000002;
+              revision_ = input.readBytes();
+              break;
+            }
+            case 26: {
+              bitField0_ |= 0x00000004;
+              value_ = input.readBytes();
+              break;
+            }
+          }
+        }
+      } catch (com.google.protobuf.InvalidProtocolBufferException e) {
+        throw e.setUnfinishedMessage(this);
+      } catch (java.io.IOException e) {
+        throw new com.google.protobuf.InvalidProtocolBufferException(
+            e.getMessage()).setUnfinishedMessage(this);
+      } finally {
+        this.unknownFields = unknownFields.build();
+        makeExtensionsImmutable();
+      }
+    }
+    public static final com.google.protobuf.Descriptors.Descriptor
+        getDescriptor() {
+      return com.google.nigori.common.NigoriMessages.internal_static_nigori_KeyRevisionValue_descriptor;
+    }
+
+    protected com.google.protobuf.GeneratedMessage.FieldAccessorTable
+        internalGetFieldAccessorTable() {
+      return com.google.nigori.common.NigoriMessages.internal_static_nigori_KeyRevisionValue_fieldAccessorTable
+          .ensureFieldAccessorsInitialized(
+              com.google.nigori.common.NigoriMessages.KeyRevisionValue.class, com.google.nigori.common.NigoriMessages.KeyRevisionValue.Builder.class);
+    }
+
+    public static com.google.protobuf.Parser<KeyRevisionValue> PARSER =
+        new com.google.protobuf.AbstractParser<KeyRevisionValue>() {
+      public KeyRevisionValue parsePartialFrom(
+          com.google.protobuf.CodedInputStream input,
+          com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+          throws com.google.protobuf.InvalidProtocolBufferException {
+        return new KeyRevisionValue(input, extensionRegistry);
+      }
+    };
+
+    @java.lang.Override
+    public com.google.protobuf.Parser<KeyRevisionValue> getParserForType() {
+      return PARSER;
+    }
+
+    private int bitField0_;
+    public static final int KEY_FIELD_NUMBER = 1;
+    private com.google.protobuf.ByteString key_;
+    /**
+     * <code>required bytes key = 1;</code>
+     */
+    public boolean hasKey() {
+      return ((bitField0_ & 0x00000001) == 0x00000001);
+    }
+    /**
+     * <code>required bytes key = 1;</code>
+     */
+    public com.google.protobuf.ByteString getKey() {
+      return key_;
+    }
+
+    public static final int REVISION_FIELD_NUMBER = 2;
+    private com.google.protobuf.ByteString revision_;
+    /**
+     * <code>required bytes revision = 2;</code>
+     */
+    public boolean hasRevision() {
+      return ((bitField0_ & 0x00000002) == 0x00000002);
+    }
+    /**
+     * <code>required bytes revision = 2;</code>
+     */
+    public com.google.protobuf.ByteString getRevision() {
+      return revision_;
+    }
+
+    public static final int VALUE_FIELD_NUMBER = 3;
+    private com.google.protobuf.ByteString value_;
+    /**
+     * <code>required bytes value = 3;</code>
+     */
+    public boolean hasValue() {
+      return ((bitField0_ & 0x00000004) == 0x00000004);
+    }
+    /**
+     * <code>required bytes value = 3;</code>
+     */
+    public com.google.protobuf.ByteString getValue() {
+      return value_;
+    }
+
+    private void initFields() {
+      key_ = com.google.protobuf.ByteString.EMPTY;
+      revision_ = com.google.protobuf.ByteString.EMPTY;
+      value_ = com.google.protobuf.ByteString.EMPTY;
+    }
+    private byte memoizedIsInitialized = -1;
+    public final boolean isInitialized() {
+      byte isInitialized = memoizedIsInitialized;
+      if (isInitialized == 1) return true;
+      if (isInitialized == 0) return false;
+
+      if (!hasKey()) {
+        memoizedIsInitialized = 0;
+        return false;
+      }
+      if (!hasRevision()) {
+        memoizedIsInitialized = 0;
+        return false;
+      }
+      if (!hasValue()) {
+        memoizedIsInitialized = 0;
+        return false;
+      }
+      memoizedIsInitialized = 1;
+      return true;
+    }
+
+    public void writeTo(com.google.protobuf.CodedOutputStream output)
+                        throws java.io.IOException {
+      getSerializedSize();
+      if (((bitField0_ & 0x00000001) == 0x00000001)) {
+        output.writeBytes(1, key_);
+      }
+      if (((bitField0_ & 0x00000002) == 0x00000002)) {
+        output.writeBytes(2, revision_);
+      }
+      if (((bitField0_ & 0x00000004) == 0x00000004)) {
+        output.writeBytes(3, value_);
+      }
+      getUnknownFields().writeTo(output);
+    }
+
+    private int memoizedSerializedSize = -1;
+    public int getSerializedSize() {
+      int size = memoizedSerializedSize;
+      if (size != -1) return size;
+
+      size = 0;
+      if (((bitField0_ & 0x00000001) == 0x00000001)) {
+        size += com.google.protobuf.CodedOutputStream
+          .computeBytesSize(1, key_);
+      }
+      if (((bitField0_ & 0x00000002) == 0x00000002)) {
+        size += com.google.protobuf.CodedOutputStream
+          .computeBytesSize(2, revision_);
+      }
+      if (((bitField0_ & 0x00000004) == 0x00000004)) {
+        size += com.google.protobuf.CodedOutputStream
+          .computeBytesSize(3, value_);
+      }
+      size += getUnknownFields().getSerializedSize();
+      memoizedSerializedSize = size;
+      return size;
+    }
+
+    private static final long serialVersionUID = 0L;
+    @java.lang.Override
+    protected java.lang.Object writeReplace()
+        throws java.io.ObjectStreamException {
+      return super.writeReplace();
+    }
+
+    public static com.google.nigori.common.NigoriMessages.KeyRevisionValue parseFrom(
+        com.google.protobuf.ByteString data)
+        throws com.google.protobuf.InvalidProtocolBufferException {
+      return PARSER.parseFrom(data);
+    }
+    public static com.google.nigori.common.NigoriMessages.KeyRevisionValue parseFrom(
+        com.google.protobuf.ByteString data,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws com.google.protobuf.InvalidProtocolBufferException {
+      return PARSER.parseFrom(data, extensionRegistry);
+    }
+    public static com.google.nigori.common.NigoriMessages.KeyRevisionValue parseFrom(byte[] data)
+        throws com.google.protobuf.InvalidProtocolBufferException {
+      return PARSER.parseFrom(data);
+    }
+    public static com.google.nigori.common.NigoriMessages.KeyRevisionValue parseFrom(
+        byte[] data,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws com.google.protobuf.InvalidProtocolBufferException {
+      return PARSER.parseFrom(data, extensionRegistry);
+    }
+    public static com.google.nigori.common.NigoriMessages.KeyRevisionValue parseFrom(java.io.InputStream input)
+        throws java.io.IOException {
+      return PARSER.parseFrom(input);
+    }
+    public static com.google.nigori.common.NigoriMessages.KeyRevisionValue parseFrom(
+        java.io.InputStream input,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws java.io.IOException {
+      return PARSER.parseFrom(input, extensionRegistry);
+    }
+    public static com.google.nigori.common.NigoriMessages.KeyRevisionValue parseDelimitedFrom(java.io.InputStream input)
+        throws java.io.IOException {
+      return PARSER.parseDelimitedFrom(input);
+    }
+    public static com.google.nigori.common.NigoriMessages.KeyRevisionValue parseDelimitedFrom(
+        java.io.InputStream input,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws java.io.IOException {
+      return PARSER.parseDelimitedFrom(input, extensionRegistry);
+    }
+    public static com.google.nigori.common.NigoriMessages.KeyRevisionValue parseFrom(
+        com.google.protobuf.CodedInputStream input)
+        throws java.io.IOException {
+      return PARSER.parseFrom(input);
+    }
+    public static com.google.nigori.common.NigoriMessages.KeyRevisionValue parseFrom(
+        com.google.protobuf.CodedInputStream input,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws java.io.IOException {
+      return PARSER.parseFrom(input, extensionRegistry);
+    }
+
+    public static Builder newBuilder() { return Builder.create(); }
+    public Builder newBuilderForType() { return newBuilder(); }
+    public static Builder newBuilder(com.google.nigori.common.NigoriMessages.KeyRevisionValue prototype) {
+      return newBuilder().mergeFrom(prototype);
+    }
+    public Builder toBuilder() { return newBuilder(this); }
+
+    @java.lang.Override
+    protected Builder newBuilderForType(
+        com.google.protobuf.GeneratedMessage.BuilderParent parent) {
+      Builder builder = new Builder(parent);
+      return builder;
+    }
+    /**
+     * Protobuf type {@code nigori.KeyRevisionValue}
+     */
+    public static final class Builder extends
+        com.google.protobuf.GeneratedMessage.Builder<Builder> implements
+        // @@protoc_insertion_point(builder_implements:nigori.KeyRevisionValue)
+        com.google.nigori.common.NigoriMessages.KeyRevisionValueOrBuilder {
+      public static final com.google.protobuf.Descriptors.Descriptor
+          getDescriptor() {
+        return com.google.nigori.common.NigoriMessages.internal_static_nigori_KeyRevisionValue_descriptor;
+      }
+
+      protected com.google.protobuf.GeneratedMessage.FieldAccessorTable
+          internalGetFieldAccessorTable() {
+        return com.google.nigori.common.NigoriMessages.internal_static_nigori_KeyRevisionValue_fieldAccessorTable
+            .ensureFieldAccessorsInitialized(
+                com.google.nigori.common.NigoriMessages.KeyRevisionValue.class, com.google.nigori.common.NigoriMessages.KeyRevisionValue.Builder.class);
+      }
+
+      // Construct using com.google.nigori.common.NigoriMessages.KeyRevisionValue.newBuilder()
+      private Builder() {
+        maybeForceBuilderInitialization();
+      }
+
+      private Builder(
+          com.google.protobuf.GeneratedMessage.BuilderParent parent) {
+        super(parent);
+        maybeForceBuilderInitialization();
+      }
+      private void maybeForceBuilderInitialization() {
+        if (com.google.protobuf.GeneratedMessage.alwaysUseFieldBuilders) {
+        }
+      }
+      private static Builder create() {
+        return new Builder();
+      }
+
+      public Builder clear() {
+        super.clear();
+        key_ = com.google.protobuf.ByteString.EMPTY;
+        bitField0_ = (bitField0_ & ~0x00000001);
+        revision_ = com.google.protobuf.ByteString.EMPTY;
+        bitField0_ = (bitField0_ & ~0x00000002);
+        value_ = com.google.protobuf.ByteString.EMPTY;
+        bitField0_ = (bitField0_ & ~0x00000004);
+        return this;
+      }
+
+      public Builder clone() {
+        return create().mergeFrom(buildPartial());
+      }
+
+      public com.google.protobuf.Descriptors.Descriptor
+          getDescriptorForType() {
+        return com.google.nigori.common.NigoriMessages.internal_static_nigori_KeyRevisionValue_descriptor;
+      }
+
+      public com.google.nigori.common.NigoriMessages.KeyRevisionValue getDefaultInstanceForType() {
+        return com.google.nigori.common.NigoriMessages.KeyRevisionValue.getDefaultInstance();
+      }
+
+      public com.google.nigori.common.NigoriMessages.KeyRevisionValue build() {
+        com.google.nigori.common.NigoriMessages.KeyRevisionValue result = buildPartial();
+        if (!result.isInitialized()) {
+          throw newUninitializedMessageException(result);
+        }
+        return result;
+      }
+
+      public com.google.nigori.common.NigoriMessages.KeyRevisionValue buildPartial() {
+        com.google.nigori.common.NigoriMessages.KeyRevisionValue result = new com.google.nigori.common.NigoriMessages.KeyRevisionValue(this);
+        int from_bitField0_ = bitField0_;
+        int to_bitField0_ = 0;
+        if (((from_bitField0_ & 0x00000001) == 0x00000001)) {
+          to_bitField0_ |= 0x00000001;
+        }
+        result.key_ = key_;
+        if (((from_bitField0_ & 0x00000002) == 0x00000002)) {
+          to_bitField0_ |= 0x00000002;
+        }
+        result.revision_ = revision_;
+        if (((from_bitField0_ & 0x00000004) == 0x00000004)) {
+          to_bitField0_ |= 0x00000004;
+        }
+        result.value_ = value_;
+        result.bitField0_ = to_bitField0_;
+        onBuilt();
+        return result;
+      }
+
+      public Builder mergeFrom(com.google.protobuf.Message other) {
+        if (other instanceof com.google.nigori.common.NigoriMessages.KeyRevisionValue) {
+          return mergeFrom((com.google.nigori.common.NigoriMessages.KeyRevisionValue)other);
+        } else {
+          super.mergeFrom(other);
+          return this;
+        }
+      }
+
+      public Builder mergeFrom(com.google.nigori.common.NigoriMessages.KeyRevisionValue other) {
+        if (other == com.google.nigori.common.NigoriMessages.KeyRevisionValue.getDefaultInstance()) return this;
+        if (other.hasKey()) {
+          setKey(other.getKey());
+        }
+        if (other.hasRevision()) {
+          setRevision(other.getRevision());
+        }
+        if (other.hasValue()) {
+          setValue(other.getValue());
+        }
+        this.mergeUnknownFields(other.getUnknownFields());
+        return this;
+      }
+
+      public final boolean isInitialized() {
+        if (!hasKey()) {
+          
+          return false;
+        }
+        if (!hasRevision()) {
+          
+          return false;
+        }
+        if (!hasValue()) {
+          
+          return false;
+        }
+        return true;
+      }
+
+      public Builder mergeFrom(
+          com.google.protobuf.CodedInputStream input,
+          com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+          throws java.io.IOException {
+        com.google.nigori.common.NigoriMessages.KeyRevisionValue parsedMessage = null;
+        try {
+          parsedMessage = PARSER.parsePartialFrom(input, extensionRegistry);
+        } catch (com.google.protobuf.InvalidProtocolBufferException e) {
+          parsedMessage = (com.google.nigori.common.NigoriMessages.KeyRevisionValue) e.getUnfinishedMessage();
+          throw e;
+        } finally {
+          if (parsedMessage != null) {
+            mergeFrom(parsedMessage);
+          }
+        }
+        return this;
+      }
+      private int bitField0_;
+
+      private com.google.protobuf.ByteString key_ = com.google.protobuf.ByteString.EMPTY;
+      /**
+       * <code>required bytes key = 1;</code>
+       */
+      public boolean hasKey() {
+        return ((bitField0_ & 0x00000001) == 0x00000001);
+      }
+      /**
+       * <code>required bytes key = 1;</code>
+       */
+      public com.google.protobuf.ByteString getKey() {
+        return key_;
+      }
+      /**
+       * <code>required bytes key = 1;</code>
+       */
+      public Builder setKey(com.google.protobuf.ByteString value) {
+        if (value == null) {
+    throw new NullPointerException();
+  }
+  bitField0_ |= 0x00000001;
+        key_ = value;
+        onChanged();
+        return this;
+      }
+      /**
+       * <code>required bytes key = 1;</code>
+       */
+      public Builder clearKey() {
+        bitField0_ = (bitField0_ & ~0x00000001);
+        key_ = getDefaultInstance().getKey();
+        onChanged();
+        return this;
+      }
+
+      private com.google.protobuf.ByteString revision_ = com.google.protobuf.ByteString.EMPTY;
+      /**
+       * <code>required bytes revision = 2;</code>
+       */
+      public boolean hasRevision() {
+        return ((bitField0_ & 0x00000002) == 0x00000002);
+      }
+      /**
+       * <code>required bytes revision = 2;</code>
+       */
+      public com.google.protobuf.ByteString getRevision() {
+        return revision_;
+      }
+      /**
+       * <code>required bytes revision = 2;</code>
+       */
+      public Builder setRevision(com.google.protobuf.ByteString value) {
+        if (value == null) {
+    throw new NullPointerException();
+  }
+  bitField0_ |= 0x00000002;
+        revision_ = value;
+        onChanged();
+        return this;
+      }
+      /**
+       * <code>required bytes revision = 2;</code>
+       */
+      public Builder clearRevision() {
+        bitField0_ = (bitField0_ & ~0x00000002);
+        revision_ = getDefaultInstance().getRevision();
+        onChanged();
+        return this;
+      }
+
+      private com.google.protobuf.ByteString value_ = com.google.protobuf.ByteString.EMPTY;
+      /**
+       * <code>required bytes value = 3;</code>
+       */
+      public boolean hasValue() {
+        return ((bitField0_ & 0x00000004) == 0x00000004);
+      }
+      /**
+       * <code>required bytes value = 3;</code>
+       */
+      public com.google.protobuf.ByteString getValue() {
+        return value_;
+      }
+      /**
+       * <code>required bytes value = 3;</code>
+       */
+      public Builder setValue(com.google.protobuf.ByteString value) {
+        if (value == null) {
+    throw new NullPointerException();
+  }
+  bitField0_ |= 0x00000004;
+        value_ = value;
+        onChanged();
+        return this;
+      }
+      /**
+       * <code>required bytes value = 3;</code>
+       */
+      public Builder clearValue() {
+        bitField0_ = (bitField0_ & ~0x00000004);
+        value_ = getDefaultInstance().getValue();
+        onChanged();
+        return this;
+      }
+
+      // @@protoc_insertion_point(builder_scope:nigori.KeyRevisionValue)
+    }
+
+    static {
+      defaultInstance = new KeyRevisionValue(true);
+      defaultInstance.initFields();
+    }
+
+    // @@protoc_insertion_point(class_scope:nigori.KeyRevisionValue)
+  }
+
+  public interface BatchGetRequestOrBuilder extends
+      // @@protoc_insertion_point(interface_extends:nigori.BatchGetRequest)
+      com.google.protobuf.MessageOrBuilder {
+
+    /**
+     * <code>required .nigori.AuthenticateRequest auth = 1;</code>
+     */
+    boolean hasAuth();
+    /**
+     * <code>required .nigori.AuthenticateRequest auth = 1;</code>
+     */
+    com.google.nigori.common.NigoriMessages.AuthenticateRequest getAuth();
+    /**
+     * <code>required .nigori.AuthenticateRequest auth = 1;</code>
+     */
+    com.google.nigori.common.NigoriMessages.AuthenticateRequestOrBuilder getAuthOrBuilder();
+
+    /**
+     * <code>repeated bytes keys = 2;</code>
+     */
+    java.util.List<com.google.protobuf.ByteString> getKeysList();
+    /**
+     * <code>repeated bytes keys = 2;</code>
+     */
+    int getKeysCount();
+    /**
+     * <code>repeated bytes keys = 2;</code>
+     */
+    com.google.protobuf.ByteString getKeys(int index);
+  }
+  /**
+   * Protobuf type {@code nigori.BatchGetRequest}
+   *
+   * <pre>
+   * A single signature covers all the keys in a batch, see MessageLibrary.batchPayload
+   * </pre>
+   */
+  public static final class BatchGetRequest extends
+      com.google.protobuf.GeneratedMessage implements
+      // @@protoc_insertion_point(message_implements:nigori.BatchGetRequest)
+      BatchGetRequestOrBuilder {
+    // Use BatchGetRequest.newBuilder() to construct.
+    private BatchGetRequest(com.google.protobuf.GeneratedMessage.Builder<?> builder) {
+      super(builder);
+      this.unknownFields = builder.getUnknownFields();
+    }
+    private BatchGetRequest(boolean noInit) { this.unknownFields = com.google.protobuf.UnknownFieldSet.getDefaultInstance(); }
+
+    private static final BatchGetRequest defaultInstance;
+    public static BatchGetRequest getDefaultInstance() {
+      return defaultInstance;
+    }
+
+    public BatchGetRequest getDefaultInstanceForType() {
+      return defaultInstance;
+    }
+
+    private final com.google.protobuf.UnknownFieldSet unknownFields;
+    @java.lang.Override
+    public final com.google.protobuf.UnknownFieldSet
+        getUnknownFields() {
+      return this.unknownFields;
+    }
+    private BatchGetRequest(
+        com.google.protobuf.CodedInputStream input,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws com.google.protobuf.InvalidProtocolBufferException {
+      initFields();
+      int mutable_bitField0_ = 0;
+      com.google.protobuf.UnknownFieldSet.Builder unknownFields =
+          com.google.protobuf.UnknownFieldSet.newBuilder();
+      try {
+        boolean done = false;
+        while (!done) {
+          int tag = input.readTag();
+          switch (tag) {
+            case 0:
+              done = true;
+              break;
+            default: {
+              if (!parseUnknownField(input, unknownFields,
+                                     extensionRegistry, tag)) {
+                done = true;
+              }
+              break;
+            }
+            case 10: {
+              com.google.nigori.common.NigoriMessages.AuthenticateRequest.Builder subBuilder = null;
+              if (((bitField0_ & 0x00000001) == 0x00000001)) {
+                subBuilder = auth_.toBuilder();
+              }
+              auth_ = input.readMessage(com.google.nigori.common.NigoriMessages.AuthenticateRequest.PARSER, extensionRegistry);
+              if (subBuilder != null) {
+                subBuilder.mergeFrom(auth_);
+                auth_ = subBuilder.buildPartial();
+              }
+              bitField0_ |= 0x00000001;
+              break;
+            }
+            case 18: {
+              if (!((mutable_bitField0_ & 0x00000002) == 0x00000002)) {
+                keys_ = new java.util.ArrayList<com.google.protobuf.ByteString>();
+                mutable_bitField0_ |= 0x00000002;
+              }
+              keys_.add(input.readBytes());
+              break;
+            }
+          }
+        }
+      } catch (com.google.protobuf.InvalidProtocolBufferException e) {
+        throw e.setUnfinishedMessage(this);
+      } catch (java.io.IOException e) {
+        throw new com.google.protobuf.InvalidProtocolBufferException(
+            e.getMessage()).setUnfinishedMessage(this);
+      } finally {
+        if (((mutable_bitField0_ & 0x00000002) == 0x00000002)) {
+          keys_ = java.util.Collections.unmodifiableList(keys_);
+        }
+        this.unknownFields = unknownFields.build();
+        makeExtensionsImmutable();
+      }
+    }
+    public static final com.google.protobuf.Descriptors.Descriptor
+        getDescriptor() {
+      return com.google.nigori.common.NigoriMessages.internal_static_nigori_BatchGetRequest_descriptor;
+    }
+
+    protected com.google.protobuf.GeneratedMessage.FieldAccessorTable
+        internalGetFieldAccessorTable() {
+      return com.google.nigori.common.NigoriMessages.internal_static_nigori_BatchGetRequest_fieldAccessorTable
+          .ensureFieldAccessorsInitialized(
+              com.google.nigori.common.NigoriMessages.BatchGetRequest.class, com.google.nigori.common.NigoriMessages.BatchGetRequest.Builder.class);
+    }
+
+    public static com.google.protobuf.Parser<BatchGetRequest> PARSER =
+        new com.google.protobuf.AbstractParser<BatchGetRequest>() {
+      public BatchGetRequest parsePartialFrom(
+          com.google.protobuf.CodedInputStream input,
+          com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+          throws com.google.protobuf.InvalidProtocolBufferException {
+        return new BatchGetRequest(input, extensionRegistry);
+      }
+    };
+
+    @java.lang.Override
+    public com.google.protobuf.Parser<BatchGetRequest> getParserForType() {
+      return PARSER;
+    }
+
+    private int bitField0_;
+    public static final int AUTH_FIELD_NUMBER = 1;
+    private com.google.nigori.common.NigoriMessages.AuthenticateRequest auth_;
+    /**
+     * <code>required .nigori.AuthenticateRequest auth = 1;</code>
+     */
+    public boolean hasAuth() {
+      return ((bitField0_ & 0x00000001) == 0x00000001);
+    }
+    /**
+     * <code>required .nigori.AuthenticateRequest auth = 1;</code>
+     */
+    public com.google.nigori.common.NigoriMessages.AuthenticateRequest getAuth() {
+      return auth_;
+    }
+    /**
+     * <code>required .nigori.AuthenticateRequest auth = 1;</code>
+     */
+    public com.google.nigori.common.NigoriMessages.AuthenticateRequestOrBuilder getAuthOrBuilder() {
+      return auth_;
+    }
+
+    public static final int KEYS_FIELD_NUMBER = 2;
+    private java.util.List<com.google.protobuf.ByteString> keys_;
+    /**
+     * <code>repeated bytes keys = 2;</code>
+     */
+    public java.util.List<com.google.protobuf.ByteString>
+        getKeysList() {
+      return keys_;
+    }
+    /**
+     * <code>repeated bytes keys = 2;</code>
+     */
+    public int getKeysCount() {
+      return keys_.size();
+    }
+    /**
+     * <code>repeated bytes keys = 2;</code>
+     */
+    public com.google.protobuf.ByteString getKeys(int index) {
+      return keys_.get(index);
+    }
+
+    private void initFields() {
+      auth_ = com.google.nigori.common.NigoriMessages.AuthenticateRequest.getDefaultInstance();
+      keys_ = java.util.Collections.emptyList();
+    }
+    private byte memoizedIsInitialized = -1;
+    public final boolean isInitialized() {
+      byte isInitialized = memoizedIsInitialized;
+      if (isInitialized == 1) return true;
+      if (isInitialized == 0) return false;
+
+      if (!hasAuth()) {
+        memoizedIsInitialized = 0;
+        return false;
+      }
+      if (!getAuth().isInitialized()) {
+        memoizedIsInitialized = 0;
+        return false;
+      }
+      memoizedIsInitialized = 1;
+      return true;
+    }
+
+    public void writeTo(com.google.protobuf.CodedOutputStream output)
+                        throws java.io.IOException {
+      getSerializedSize();
+      if (((bitField0_ & 0x00000001) == 0x00000001)) {
+        output.writeMessage(1, auth_);
+      }
+      for (int i = 0; i < keys_.size(); i++) {
+        output.writeBytes(2, keys_.get(i));
+      }
+      getUnknownFields().writeTo(output);
+    }
+
+    private int memoizedSerializedSize = -1;
+    public int getSerializedSize() {
+      int size = memoizedSerializedSize;
+      if (size != -1) return size;
+
+      size = 0;
+      if (((bitField0_ & 0x00000001) == 0x00000001)) {
+        size += com.google.protobuf.CodedOutputStream
+          .computeMessageSize(1, auth_);
+      }
+      {
+        int dataSize = 0;
+        for (int i = 0; i < keys_.size(); i++) {
+          dataSize += com.google.protobuf.CodedOutputStream
+            .computeBytesSizeNoTag(keys_.get(i));
+        }
+        size += dataSize;
+        size += 1 * getKeysList().size();
+      }
+      size += getUnknownFields().getSerializedSize();
+      memoizedSerializedSize = size;
+      return size;
+    }
+
+    private static final long serialVersionUID = 0L;
+    @java.lang.Override
+    protected java.lang.Object writeReplace()
+        throws java.io.ObjectStreamException {
+      return super.writeReplace();
+    }
+
+    public static com.google.nigori.common.NigoriMessages.BatchGetRequest parseFrom(
+        com.google.protobuf.ByteString data)
+        throws com.google.protobuf.InvalidProtocolBufferException {
+      return PARSER.parseFrom(data);
+    }
+    public static com.google.nigori.common.NigoriMessages.BatchGetRequest parseFrom(
+        com.google.protobuf.ByteString data,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws com.google.protobuf.InvalidProtocolBufferException {
+      return PARSER.parseFrom(data, extensionRegistry);
+    }
+    public static com.google.nigori.common.NigoriMessages.BatchGetRequest parseFrom(byte[] data)
+        throws com.google.protobuf.InvalidProtocolBufferException {
+      return PARSER.parseFrom(data);
+    }
+    public static com.google.nigori.common.NigoriMessages.BatchGetRequest parseFrom(
+        byte[] data,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws com.google.protobuf.InvalidProtocolBufferException {
+      return PARSER.parseFrom(data, extensionRegistry);
+    }
+    public static com.google.nigori.common.NigoriMessages.BatchGetRequest parseFrom(java.io.InputStream input)
+        throws java.io.IOException {
+      return PARSER.parseFrom(input);
+    }
+    public static com.google.nigori.common.NigoriMessages.BatchGetRequest parseFrom(
+        java.io.InputStream input,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws java.io.IOException {
+      return PARSER.parseFrom(input, extensionRegistry);
+    }
+    public static com.google.nigori.common.NigoriMessages.BatchGetRequest parseDelimitedFrom(java.io.InputStream input)
+        throws java.io.IOException {
+      return PARSER.parseDelimitedFrom(input);
+    }
+    public static com.google.nigori.common.NigoriMessages.BatchGetRequest parseDelimitedFrom(
+        java.io.InputStream input,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws java.io.IOException {
+      return PARSER.parseDelimitedFrom(input, extensionRegistry);
+    }
+    public static com.google.nigori.common.NigoriMessages.BatchGetRequest parseFrom(
+        com.google.protobuf.CodedInputStream input)
+        throws java.io.IOException {
+      return PARSER.parseFrom(input);
+    }
+    public static com.google.nigori.common.NigoriMessages.BatchGetRequest parseFrom(
+        com.google.protobuf.CodedInputStream input,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws java.io.IOException {
+      return PARSER.parseFrom(input, extensionRegistry);
+    }
+
+    public static Builder newBuilder() { return Builder.create(); }
+    public Builder newBuilderForType() { return newBuilder(); }
+    public static Builder newBuilder(com.google.nigori.common.NigoriMessages.BatchGetRequest prototype) {
+      return newBuilder().mergeFrom(prototype);
+    }
+    public Builder toBuilder() { return newBuilder(this); }
+
+    @java.lang.Override
+    protected Builder newBuilderForType(
+        com.google.protobuf.GeneratedMessage.BuilderParent parent) {
+      Builder builder = new Builder(parent);
+      return builder;
+    }
+    /**
+     * Protobuf type {@code nigori.BatchGetRequest}
+     *
+     * <pre>
+     * A single signature covers all the keys in a batch, see MessageLibrary.batchPayload
+     * </pre>
+     */
+    public static final class Builder extends
+        com.google.protobuf.GeneratedMessage.Builder<Builder> implements
+        // @@protoc_insertion_point(builder_implements:nigori.BatchGetRequest)
+        com.google.nigori.common.NigoriMessages.BatchGetRequestOrBuilder {
+      public static final com.google.protobuf.Descriptors.Descriptor
+          getDescriptor() {
+        return com.google.nigori.common.NigoriMessages.internal_static_nigori_BatchGetRequest_descriptor;
+      }
+
+      protected com.google.protobuf.GeneratedMessage.FieldAccessorTable
+          internalGetFieldAccessorTable() {
+        return com.google.nigori.common.NigoriMessages.internal_static_nigori_BatchGetRequest_fieldAccessorTable
+            .ensureFieldAccessorsInitialized(
+                com.google.nigori.common.NigoriMessages.BatchGetRequest.class, com.google.nigori.common.NigoriMessages.BatchGetRequest.Builder.class);
+      }
+
+      // Construct using com.google.nigori.common.NigoriMessages.BatchGetRequest.newBuilder()
+      private Builder() {
+        maybeForceBuilderInitialization();
+      }
+
+      private Builder(
+          com.google.protobuf.GeneratedMessage.BuilderParent parent) {
+        super(parent);
+        maybeForceBuilderInitialization();
+      }
+      private void maybeForceBuilderInitialization() {
+        if (com.google.protobuf.GeneratedMessage.alwaysUseFieldBuilders) {
+          getAuthFieldBuilder();
+        }
+      }
+      private static Builder create() {
+        return new Builder();
+      }
+
+      public Builder clear() {
+        super.clear();
+        if (authBuilder_ == null) {
+          auth_ = com.google.nigori.common.NigoriMessages.AuthenticateRequest.getDefaultInstance();
+        } else {
+          authBuilder_.clear();
+        }
+        bitField0_ = (bitField0_ & ~0x00000001);
+        keys_ = java.util.Collections.emptyList();
+        bitField0_ = (bitField0_ & ~0x00000002);
+        return this;
+      }
+
+      public Builder clone() {
+        return create().mergeFrom(buildPartial());
+      }
+
+      public com.google.protobuf.Descriptors.Descriptor
+          getDescriptorForType() {
+        return com.google.nigori.common.NigoriMessages.internal_static_nigori_BatchGetRequest_descriptor;
+      }
+
+      public com.google.nigori.common.NigoriMessages.BatchGetRequest getDefaultInstanceForType() {
+        return com.google.nigori.common.NigoriMessages.BatchGetRequest.getDefaultInstance();
+      }
+
+      public com.google.nigori.common.NigoriMessages.BatchGetRequest build() {
+        com.google.nigori.common.NigoriMessages.BatchGetRequest result = buildPartial();
+        if (!result.isInitialized()) {
+          throw newUninitializedMessageException(result);
+        }
+        return result;
+      }
+
+      public com.google.nigori.common.NigoriMessages.BatchGetRequest buildPartial() {
+        com.google.nigori.common.NigoriMessages.BatchGetRequest result = new com.google.nigori.common.NigoriMessages.BatchGetRequest(this);
+        int from_bitField0_ = bitField0_;
+        int to_bitField0_ = 0;
+        if (((from_bitField0_ & 0x00000001) == 0x00000001)) {
+          to_bitField0_ |= 0x00000001;
+        }
+        if (authBuilder_ == null) {
+          result.auth_ = auth_;
+        } else {
+          result.auth_ = authBuilder_.build();
+        }
+        if (((bitField0_ & 0x00000002) == 0x00000002)) {
+          keys_ = java.util.Collections.unmodifiableList(keys_);
+          bitField0_ = (bitField0_ & ~0x00000002);
+        }
+        result.keys_ = keys_;
+        result.bitField0_ = to_bitField0_;
+        onBuilt();
+        return result;
+      }
+
+      public Builder mergeFrom(com.google.protobuf.Message other) {
+        if (other instanceof com.google.nigori.common.NigoriMessages.BatchGetRequest) {
+          return mergeFrom((com.google.nigori.common.NigoriMessages.BatchGetRequest)other);
+        } else {
+          super.mergeFrom(other);
+          return this;
+        }
+      }
+
+      public Builder mergeFrom(com.google.nigori.common.NigoriMessages.BatchGetRequest other) {
+        if (other == com.google.nigori.common.NigoriMessages.BatchGetRequest.getDefaultInstance()) return this;
+        if (other.hasAuth()) {
+          mergeAuth(other.getAuth());
+        }
+        if (!other.keys_.isEmpty()) {
+          if (keys_.isEmpty()) {
+            keys_ = other.keys_;
+            bitField0_ = (bitField0_ & ~0x00000002);
+          } else {
+            ensureKeysIsMutable();
+            keys_.addAll(other.keys_);
+          }
+          onChanged();
+        }
+        this.mergeUnknownFields(other.getUnknownFields());
+        return this;
+      }
+
+      public final boolean isInitialized() {
+        if (!hasAuth()) {
+          
+          return false;
+        }
+        if (!getAuth().isInitialized()) {
+          
+          return false;
+        }
+        return true;
+      }
+
+      public Builder mergeFrom(
+          com.google.protobuf.CodedInputStream input,
+          com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+          throws java.io.IOException {
+        com.google.nigori.common.NigoriMessages.BatchGetRequest parsedMessage = null;
+        try {
+          parsedMessage = PARSER.parsePartialFrom(input, extensionRegistry);
+        } catch (com.google.protobuf.InvalidProtocolBufferException e) {
+          parsedMessage = (com.google.nigori.common.NigoriMessages.BatchGetRequest) e.getUnfinishedMessage();
+          throw e;
+        } finally {
+          if (parsedMessage != null) {
+            mergeFrom(parsedMessage);
+          }
+        }
+        return this;
+      }
+      private int bitField0_;
+
+      private com.google.nigori.common.NigoriMessages.AuthenticateRequest auth_ = com.google.nigori.common.NigoriMessages.AuthenticateRequest.getDefaultInstance();
+      private com.google.protobuf.SingleFieldBuilder<
+          com.google.nigori.common.NigoriMessages.AuthenticateRequest, com.google.nigori.common.NigoriMessages.AuthenticateRequest.Builder, com.google.nigori.common.NigoriMessages.AuthenticateRequestOrBuilder> authBuilder_;
+      /**
+       * <code>required .nigori.AuthenticateRequest auth = 1;</code>
+       */
+      public boolean hasAuth() {
+        return ((bitField0_ & 0x00000001) == 0x00000001);
+      }
+      /**
+       * <code>required .nigori.AuthenticateRequest auth = 1;</code>
+       */
+      public com.google.nigori.common.NigoriMessages.AuthenticateRequest getAuth() {
+        if (authBuilder_ == null) {
+          return auth_;
+        } else {
+          return authBuilder_.getMessage();
+        }
+      }
+      /**
+       * <code>required .nigori.AuthenticateRequest auth = 1;</code>
+       */
+      public Builder setAuth(com.google.nigori.common.NigoriMessages.AuthenticateRequest value) {
+        if (authBuilder_ == null) {
+          if (value == null) {
+            throw new NullPointerException();
+          }
+          auth_ = value;
+          onChanged();
+        } else {
+          authBuilder_.setMessage(value);
+        }
+        bitField0_ |= 0x00000001;
+        return this;
+      }
+      /**
+       * <code>required .nigori.AuthenticateRequest auth = 1;</code>
+       */
+      public Builder setAuth(
+          com.google.nigori.common.NigoriMessages.AuthenticateRequest.Builder builderForValue) {
+        if (authBuilder_ == null) {
+          auth_ = builderForValue.build();
+          onChanged();
+        } else {
+          authBuilder_.setMessage(builderForValue.build());
+        }
+        bitField0_ |= 0x00000001;
+        return this;
+      }
+      /**
+       * <code>required .nigori.AuthenticateRequest auth = 1;</code>
+       */
+      public Builder mergeAuth(com.google.nigori.common.NigoriMessages.AuthenticateRequest value) {
+        if (authBuilder_ == null) {
+          if (((bitField0_ & 0x00000001) == 0x00000001) &&
+              auth_ != com.google.nigori.common.NigoriMessages.AuthenticateRequest.getDefaultInstance()) {
+            auth_ =
+              com.google.nigori.common.NigoriMessages.AuthenticateRequest.newBuilder(auth_).mergeFrom(value).buildPartial();
+          } else {
+            auth_ = value;
+          }
+          onChanged();
+        } else {
+          authBuilder_.mergeFrom(value);
+        }
+        bitField0_ |= 0x00000001;
+        return this;
+      }
+      /**
+       * <code>required .nigori.AuthenticateRequest auth = 1;</code>
+       */
+      public Builder clearAuth() {
+        if (authBuilder_ == null) {
+          auth_ = com.google.nigori.common.NigoriMessages.AuthenticateRequest.getDefaultInstance();
+          onChanged();
+        } else {
+          authBuilder_.clear();
+        }
+        bitField0_ = (bitField0_ & ~0x00000001);
+        return this;
+      }
+      /**
+       * <code>required .nigori.AuthenticateRequest auth = 1;</code>
+       */
+      public com.google.nigori.common.NigoriMessages.AuthenticateRequest.Builder getAuthBuilder() {
+        bitField0_ |= 0x00000001;
+        onChanged();
+        return getAuthFieldBuilder().getBuilder();
+      }
+      /**
+       * <code>required .nigori.AuthenticateRequest auth = 1;</code>
+       */
+      public com.google.nigori.common.NigoriMessages.AuthenticateRequestOrBuilder getAuthOrBuilder() {
+        if (authBuilder_ != null) {
+          return authBuilder_.getMessageOrBuilder();
+        } else {
+          return auth_;
+        }
+      }
+      /**
+       * <code>required .nigori.AuthenticateRequest auth = 1;</code>
+       */
+      private com.google.protobuf.SingleFieldBuilder<
+          com.google.nigori.common.NigoriMessages.AuthenticateRequest, com.google.nigori.common.NigoriMessages.AuthenticateRequest.Builder, com.google.nigori.common.NigoriMessages.AuthenticateRequestOrBuilder> 
+          getAuthFieldBuilder() {
+        if (authBuilder_ == null) {
+          authBuilder_ = new com.google.protobuf.SingleFieldBuilder<
+              com.google.nigori.common.NigoriMessages.AuthenticateRequest, com.google.nigori.common.NigoriMessages.AuthenticateRequest.Builder, com.google.nigori.common.NigoriMessages.AuthenticateRequestOrBuilder>(
+                  getAuth(),
+                  getParentForChildren(),
+                  isClean());
+          auth_ = null;
+        }
+        return authBuilder_;
+      }
+
+      private java.util.List<com.google.protobuf.ByteString> keys_ = java.util.Collections.emptyList();
+      private void ensureKeysIsMutable() {
+        if (!((bitField0_ & 0x00000002) == 0x00000002)) {
+          keys_ = new java.util.ArrayList<com.google.protobuf.ByteString>(keys_);
+          bitField0_ |= 0x00000002;
+         }
+      }
+      /**
+       * <code>repeated bytes keys = 2;</code>
+       */
+      public java.util.List<com.google.protobuf.ByteString>
+          getKeysList() {
+        return java.util.Collections.unmodifiableList(keys_);
+      }
+      /**
+       * <code>repeated bytes keys = 2;</code>
+       */
+      public int getKeysCount() {
+        return keys_.size();
+      }
+      /**
+       * <code>repeated bytes keys = 2;</code>
+       */
+      public com.google.protobuf.ByteString getKeys(int index) {
+        return keys_.get(index);
+      }
+      /**
+       * <code>repeated bytes keys = 2;</code>
+       */
+      public Builder setKeys(
+          int index, com.google.protobuf.ByteString value) {
+        if (value == null) {
+    throw new NullPointerException();
+  }
+  ensureKeysIsMutable();
+        keys_.set(index, value);
+        onChanged();
+        return this;
+      }
+      /**
+       * <code>repeated bytes keys = 2;</code>
+       */
+      public Builder addKeys(com.google.protobuf.ByteString value) {
+        if (value == null) {
+    throw new NullPointerException();
+  }
+  ensureKeysIsMutable();
+        keys_.add(value);
+        onChanged();
+        return this;
+      }
+      /**
+       * <code>repeated bytes keys = 2;</code>
+       */
+      public Builder addAllKeys(
+          java.lang.Iterable<? extends com.google.protobuf.ByteString> values) {
+        ensureKeysIsMutable();
+        com.google.protobuf.AbstractMessageLite.Builder.addAll(
+            values, keys_);
+        onChanged();
+        return this;
+      }
+      /**
+       * <code>repeated bytes keys = 2;</code>
+       */
+      public Builder clearKeys() {
+        keys_ = java.util.Collections.emptyList();
+        bitField0_ = (bitField0_ & ~0x00000002);
+        onChanged();
+        return this;
+      }
+
+      // @@protoc_insertion_point(builder_scope:nigori.BatchGetRequest)
+    }
+
+    static {
+      defaultInstance = new BatchGetRequest(true);
+      defaultInstance.initFields();
+    }
+
+    // @@protoc_insertion_point(class_scope:nigori.BatchGetRequest)
+  }
+
+  public interface BatchGetResponseOrBuilder extends
+      // @@protoc_insertion_point(interface_extends:nigori.BatchGetResponse)
+      com.google.protobuf.MessageOrBuilder {
+
+    /**
+     * <code>repeated .nigori.GetResponse responses = 1;</code>
+     *
+     * <pre>
+     * One per requested key in the same order, with key set. No revisions if the key does not exist.
+     * </pre>
+     */
+    java.util.List<com.google.nigori.common.NigoriMessages.GetResponse> 
+        getResponsesList();
+    /**
+     * <code>repeated .nigori.GetResponse responses = 1;</code>
+     *
+     * <pre>
+     * One per requested key in the same order, with key set. No revisions if the key does not exist.
+     * </pre>
+     */
+    com.google.nigori.common.NigoriMessages.GetResponse getResponses(int index);
+    /**
+     * <code>repeated .nigori.GetResponse responses = 1;</code>
+     *
+     * <pre>
+     * One per requested key in the same order, with key set. No revisions if the key does not exist.
+     * </pre>
+     */
+    int getResponsesCount();
+    /**
+     * <code>repeated .nigori.GetResponse responses = 1;</code>
+     *
+     * <pre>
+     * One per requested key in the same order, with key set. No revisions if the key does not exist.
+     * </pre>
+     */
+    java.util.List<? extends com.google.nigori.common.NigoriMessages.GetResponseOrBuilder> 
+        getResponsesOrBuilderList();
+    /**
+     * <code>repeated .nigori.GetResponse responses = 1;</code>
+     *
+     * <pre>
+     * One per requested key in the same order, with key set. No revisions if the key does not exist.
+     * </pre>
+     */
+    com.google.nigori.common.NigoriMessages.GetResponseOrBuilder getResponsesOrBuilder(
+        int index);
+  }
+  /**
+   * Protobuf type {@code nigori.BatchGetResponse}
+   */
+  public static final class BatchGetResponse extends
+      com.google.protobuf.GeneratedMessage implements
+      // @@protoc_insertion_point(message_implements:nigori.BatchGetResponse)
+      BatchGetResponseOrBuilder {
+    // Use BatchGetResponse.newBuilder() to construct.
+    private BatchGetResponse(com.google.protobuf.GeneratedMessage.Builder<?> builder) {
+      super(builder);
+      this.unknownFields = builder.getUnknownFields();
+    }
+    private BatchGetResponse(boolean noInit) { this.unknownFields = com.google.protobuf.UnknownFieldSet.getDefaultInstance(); }
+
+    private static final BatchGetResponse defaultInstance;
+    public static BatchGetResponse getDefaultInstance() {
+      return defaultInstance;
+    }
+
+    public BatchGetResponse getDefaultInstanceForType() {
+      return defaultInstance;
+    }
+
+    private final com.google.protobuf.UnknownFieldSet unknownFields;
+    @java.lang.Override
+    public final com.google.protobuf.UnknownFieldSet
+        getUnknownFields() {
+      return this.unknownFields;
+    }
+    private BatchGetResponse(
+        com.google.protobuf.CodedInputStream input,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws com.google.protobuf.InvalidProtocolBufferException {
+      initFields();
+      int mutable_bitField0_ = 0;
+      com.google.protobuf.UnknownFieldSet.Builder unknownFields =
+          com.google.protobuf.UnknownFieldSet.newBuilder();
+      try {
+        boolean done = false;
+        while (!done) {
+          int tag = input.readTag();
+          switch (tag) {
+            case 0:
+              done = true;
+              break;
+            default: {
+              if (!parseUnknownField(input, unknownFields,
+                                     extensionRegistry, tag)) {
+                done = true;
+              }
+              break;
+            }
+            case 10: {
+              if (!((mutable_bitField0_ & 0x00000001) == 0x00000001)) {
+                responses_ = new java.util.ArrayList<com.google.nigori.common.NigoriMessages.GetResponse>();
+                mutable_bitField0_ |= 0x00000001;
+              }
+              responses_.add(input.readMessage(com.google.nigori.common.NigoriMessages.GetResponse.PARSER, extensionRegistry));
+              break;
+            }
+          }
+        }
+      } catch (com.google.protobuf.InvalidProtocolBufferException e) {
+        throw e.setUnfinishedMessage(this);
+      } catch (java.io.IOException e) {
+        throw new com.google.protobuf.InvalidProtocolBufferException(
+            e.getMessage()).setUnfinishedMessage(this);
+      } finally {
+        if (((mutable_bitField0_ & 0x00000001) == 0x00000001)) {
+          responses_ = java.util.Collections.unmodifiableList(responses_);
+        }
+        this.unknownFields = unknownFields.build();
+        makeExtensionsImmutable();
+      }
+    }
+    public static final com.google.protobuf.Descriptors.Descriptor
+        getDescriptor() {
+      return com.google.nigori.common.NigoriMessages.internal_static_nigori_BatchGetResponse_descriptor;
+    }
+
+    protected com.google.protobuf.GeneratedMessage.FieldAccessorTable
+        internalGetFieldAccessorTable() {
+      return com.google.nigori.common.NigoriMessages.internal_static_nigori_BatchGetResponse_fieldAccessorTable
+          .ensureFieldAccessorsInitialized(
+              com.google.nigori.common.NigoriMessages.BatchGetResponse.class, com.google.nigori.common.NigoriMessages.BatchGetResponse.Builder.class);
+    }
+
+    public static com.google.protobuf.Parser<BatchGetResponse> PARSER =
+        new com.google.protobuf.AbstractParser<BatchGetResponse>() {
+      public BatchGetResponse parsePartialFrom(
+          com.google.protobuf.CodedInputStream input,
+          com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+          throws com.google.protobuf.InvalidProtocolBufferException {
+        return new BatchGetResponse(input, extensionRegistry);
+      }
+    };
+
+    @java.lang.Override
+    public com.google.protobuf.Parser<BatchGetResponse> getParserForType() {
+      return PARSER;
+    }
+
+    public static final int RESPONSES_FIELD_NUMBER = 1;
+    private java.util.List<com.google.nigori.common.NigoriMessages.GetResponse> responses_;
+    /**
+     * <code>repeated .nigori.GetResponse responses = 1;</code>
+     *
+     * <pre>
+     * One per requested key in the same order, with key set. No revisions if the key does not exist.
+     * </pre>
+     */
+    public java.util.List<com.google.nigori.common.NigoriMessages.GetResponse> getResponsesList() {
+      return responses_;
+    }
+    /**
+     * <code>repeated .nigori.GetResponse responses = 1;</code>
+     *
+     * <pre>
+     * One per requested key in the same order, with key set. No revisions if the key does not exist.
+     * </pre>
+     */
+    public java.util.List<? extends com.google.nigori.common.NigoriMessages.GetResponseOrBuilder> 
+        getResponsesOrBuilderList() {
+      return responses_;
+    }
+    /**
+     * <code>repeated .nigori.GetResponse responses = 1;</code>
+     *
+     * <pre>
+     * One per requested key in the same order, with key set. No revisions if the key does not exist.
+     * </pre>
+     */
+    public int getResponsesCount() {
+      return responses_.size();
+    }
+    /**
+     * <code>repeated .nigori.GetResponse responses = 1;</code>
+     *
+     * <pre>
+     * One per requested key in the same order, with key set. No revisions if the key does not exist.
+     * </pre>
+     */
+    public com.google.nigori.common.NigoriMessages.GetResponse getResponses(int index) {
+      return responses_.get(index);
+    }
+    /**
+     * <code>repeated .nigori.GetResponse responses = 1;</code>
+     *
+     * <pre>
+     * One per requested key in the same order, with key set. No revisions if the key does not exist.
+     * </pre>
+     */
+    public com.google.nigori.common.NigoriMessages.GetResponseOrBuilder getResponsesOrBuilder(
+        int index) {
+      return responses_.get(index);
+    }
+
+    private void initFields() {
+      responses_ = java.util.Collections.emptyList();
+    }
+    private byte memoizedIsInitialized = -1;
+    public final boolean isInitialized() {
+      byte isInitialized = memoizedIsInitialized;
+      if (isInitialized == 1) return true;
+      if (isInitialized == 0) return false;
+
+      for (int i = 0; i < getResponsesCount(); i++) {
+        if (!getResponses(i).isInitialized()) {
+          memoizedIsInitialized = 0;
+          return false;
+        }
+      }
+      memoizedIsInitialized = 1;
+      return true;
+    }
+
+    public void writeTo(com.google.protobuf.CodedOutputStream output)
+                        throws java.io.IOException {
+      getSerializedSize();
+      for (int i = 0; i < responses_.size(); i++) {
+        output.writeMessage(1, responses_.get(i));
+      }
+      getUnknownFields().writeTo(output);
+    }
+
+    private int memoizedSerializedSize = -1;
+    public int getSerializedSize() {
+      int size = memoizedSerializedSize;
+      if (size != -1) return size;
+
+      size = 0;
+      for (int i = 0; i < responses_.size(); i++) {
+        size += com.google.protobuf.CodedOutputStream
+          .computeMessageSize(1, responses_.get(i));
+      }
+      size += getUnknownFields().getSerializedSize();
+      memoizedSerializedSize = size;
+      return size;
+    }
+
+    private static final long serialVersionUID = 0L;
+    @java.lang.Override
+    protected java.lang.Object writeReplace()
+        throws java.io.ObjectStreamException {
+      return super.writeReplace();
+    }
+
+    public static com.google.nigori.common.NigoriMessages.BatchGetResponse parseFrom(
+        com.google.protobuf.ByteString data)
+        throws com.google.protobuf.InvalidProtocolBufferException {
+      return PARSER.parseFrom(data);
+    }
+    public static com.google.nigori.common.NigoriMessages.BatchGetResponse parseFrom(
+        com.google.protobuf.ByteString data,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws com.google.protobuf.InvalidProtocolBufferException {
+      return PARSER.parseFrom(data, extensionRegistry);
+    }
+    public static com.google.nigori.common.NigoriMessages.BatchGetResponse parseFrom(byte[] data)
+        throws com.google.protobuf.InvalidProtocolBufferException {
+      return PARSER.parseFrom(data);
+    }
+    public static com.google.nigori.common.NigoriMessages.BatchGetResponse parseFrom(
+        byte[] data,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws com.google.protobuf.InvalidProtocolBufferException {
+      return PARSER.parseFrom(data, extensionRegistry);
+    }
+    public static com.google.nigori.common.NigoriMessages.BatchGetResponse parseFrom(java.io.InputStream input)
+        throws java.io.IOException {
+      return PARSER.parseFrom(input);
+    }
+    public static com.google.nigori.common.NigoriMessages.BatchGetResponse parseFrom(
+        java.io.InputStream input,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws java.io.IOException {
+      return PARSER.parseFrom(input, extensionRegistry);
+    }
+    public static com.google.nigori.common.NigoriMessages.BatchGetResponse parseDelimitedFrom(java.io.InputStream input)
+        throws java.io.IOException {
+      return PARSER.parseDelimitedFrom(input);
+    }
+    public static com.google.nigori.common.NigoriMessages.BatchGetResponse parseDelimitedFrom(
+        java.io.InputStream input,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws java.io.IOException {
+      return PARSER.parseDelimitedFrom(input, extensionRegistry);
+    }
+    public static com.google.nigori.common.NigoriMessages.BatchGetResponse parseFrom(
+        com.google.protobuf.CodedInputStream input)
+        throws java.io.IOException {
+      return PARSER.parseFrom(input);
+    }
+    public static com.google.nigori.common.NigoriMessages.BatchGetResponse parseFrom(
+        com.google.protobuf.CodedInputStream input,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws java.io.IOException {
+      return PARSER.parseFrom(input, extensionRegistry);
+    }
+
+    public static Builder newBuilder() { return Builder.create(); }
+    public Builder newBuilderForType() { return newBuilder(); }
+    public static Builder newBuilder(com.google.nigori.common.NigoriMessages.BatchGetResponse prototype) {
+      return newBuilder().mergeFrom(prototype);
+    }
+    public Builder toBuilder() { return newBuilder(this); }
+
+    @java.lang.Override
+    protected Builder newBuilderForType(
+        com.google.protobuf.GeneratedMessage.BuilderParent parent) {
+      Builder builder = new Builder(parent);
+      return builder;
+    }
+    /**
+     * Protobuf type {@code nigori.BatchGetResponse}
+     */
+    public static final class Builder extends
+        com.google.protobuf.GeneratedMessage.Builder<Builder> implements
+        // @@protoc_insertion_point(builder_implements:nigori.BatchGetResponse)
+        com.google.nigori.common.NigoriMessages.BatchGetResponseOrBuilder {
+      public static final com.google.protobuf.Descriptors.Descriptor
+          getDescriptor() {
+        return com.google.nigori.common.NigoriMessages.internal_static_nigori_BatchGetResponse_descriptor;
+      }
+
+      protected com.google.protobuf.GeneratedMessage.FieldAccessorTable
+          internalGetFieldAccessorTable() {
+        return com.google.nigori.common.NigoriMessages.internal_static_nigori_BatchGetResponse_fieldAccessorTable
+            .ensureFieldAccessorsInitialized(
+                com.google.nigori.common.NigoriMessages.BatchGetResponse.class, com.google.nigori.common.NigoriMessages.BatchGetResponse.Builder.class);
+      }
+
+      // Construct using com.google.nigori.common.NigoriMessages.BatchGetResponse.newBuilder()
+      private Builder() {
+        maybeForceBuilderInitialization();
+      }
+
+      private Builder(
+          com.google.protobuf.GeneratedMessage.BuilderParent parent) {
+        super(parent);
+        maybeForceBuilderInitialization();
+      }
+      private void maybeForceBuilderInitialization() {
+        if (com.google.protobuf.GeneratedMessage.alwaysUseFieldBuilders) {
+          getResponsesFieldBuilder();
+        }
+      }
+      private static Builder create() {
+        return new Builder();
+      }
+
+      public Builder clear() {
+        super.clear();
+        if (responsesBuilder_ == null) {
+          responses_ = java.util.Collections.emptyList();
+          bitField0_ = (bitField0_ & ~0x00000001);
+        } else {
+          responsesBuilder_.clear();
+        }
+        return this;
+      }
+
+      public Builder clone() {
+        return create().mergeFrom(buildPartial());
+      }
+
+      public com.google.protobuf.Descriptors.Descriptor
+          getDescriptorForType() {
+        return com.google.nigori.common.NigoriMessages.internal_static_nigori_BatchGetResponse_descriptor;
+      }
+
+      public com.google.nigori.common.NigoriMessages.BatchGetResponse getDefaultInstanceForType() {
+        return com.google.nigori.common.NigoriMessages.BatchGetResponse.getDefaultInstance();
+      }
+
+      public com.google.nigori.common.NigoriMessages.BatchGetResponse build() {
+        com.google.nigori.common.NigoriMessages.BatchGetResponse result = buildPartial();
+        if (!result.isInitialized()) {
+          throw newUninitializedMessageException(result);
+        }
+        return result;
+      }
+
+      public com.google.nigori.common.NigoriMessages.BatchGetResponse buildPartial() {
+        com.google.nigori.common.NigoriMessages.BatchGetResponse result = new com.google.nigori.common.NigoriMessages.BatchGetResponse(this);
+        int from_bitField0_ = bitField0_;
+        if (responsesBuilder_ == null) {
+          if (((bitField0_ & 0x00000001) == 0x00000001)) {
+            responses_ = java.util.Collections.unmodifiableList(responses_);
+            bitField0_ = (bitField0_ & ~0x00000001);
+          }
+          result.responses_ = responses_;
+        } else {
+          result.responses_ = responsesBuilder_.build();
+        }
+        onBuilt();
+        return result;
+      }
+
+      public Builder mergeFrom(com.google.protobuf.Message other) {
+        if (other instanceof com.google.nigori.common.NigoriMessages.BatchGetResponse) {
+          return mergeFrom((com.google.nigori.common.NigoriMessages.BatchGetResponse)other);
+        } else {
+          super.mergeFrom(other);
+          return this;
+        }
+      }
+
+      public Builder mergeFrom(com.google.nigori.common.NigoriMessages.BatchGetResponse other) {
+        if (other == com.google.nigori.common.NigoriMessages.BatchGetResponse.getDefaultInstance()) return this;
+        if (responsesBuilder_ == null) {
+          if (!other.responses_.isEmpty()) {
+            if (responses_.isEmpty()) {
+              responses_ = other.responses_;
+              bitField0_ = (bitField0_ & ~0x00000001);
+            } else {
+              ensureResponsesIsMutable();
+              responses_.addAll(other.responses_);
+            }
+            onChanged();
+          }
+        } else {
+          if (!other.responses_.isEmpty()) {
+            if (responsesBuilder_.isEmpty()) {
+              responsesBuilder_.dispose();
+              responsesBuilder_ = null;
+              responses_ = other.responses_;
+              bitField0_ = (bitField0_ & ~0x00000001);
+              responsesBuilder_ = 
+                com.google.protobuf.GeneratedMessage.alwaysUseFieldBuilders ?
+                   getResponsesFieldBuilder() : null;
+            } else {
+              responsesBuilder_.addAllMessages(other.responses_);
+            }
+          }
+        }
+        this.mergeUnknownFields(other.getUnknownFields());
+        return this;
+      }
+
+      public final boolean isInitialized() {
+        for (int i = 0; i < getResponsesCount(); i++) {
+          if (!getResponses(i).isInitialized()) {
+            
+            return false;
+          }
+        }
+        return true;
+      }
+
+      public Builder mergeFrom(
+          com.google.protobuf.CodedInputStream input,
+          com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+          throws java.io.IOException {
+        com.google.nigori.common.NigoriMessages.BatchGetResponse parsedMessage = null;
+        try {
+          parsedMessage = PARSER.parsePartialFrom(input, extensionRegistry);
+        } catch (com.google.protobuf.InvalidProtocolBufferException e) {
+          parsedMessage = (com.google.nigori.common.NigoriMessages.BatchGetResponse) e.getUnfinishedMessage();
+          throw e;
+        } finally {
+          if (parsedMessage != null) {
+            mergeFrom(parsedMessage);
+          }
+        }
+        return this;
+      }
+      private int bitField0_;
+
+      private java.util.List<com.google.nigori.common.NigoriMessages.GetResponse> responses_ =
+        java.util.Collections.emptyList();
+      private void ensureResponsesIsMutable() {
+        if (!((bitField0_ & 0x00000001) == 0x00000001)) {
+          responses_ = new java.util.ArrayList<com.google.nigori.common.NigoriMessages.GetResponse>(responses_);
+          bitField0_ |= 0x00000001;
+         }
+      }
+
+      private com.google.protobuf.RepeatedFieldBuilder<
+          com.google.nigori.common.NigoriMessages.GetResponse, com.google.nigori.common.NigoriMessages.GetResponse.Builder, com.google.nigori.common.NigoriMessages.GetResponseOrBuilder> responsesBuilder_;
+
+      /**
+       * <code>repeated .nigori.GetResponse responses = 1;</code>
+       *
+       * <pre>
+       * One per requested key in the same order, with key set. No revisions if the key does not exist.
+       * </pre>
+       */
+      public java.util.List<com.google.nigori.common.NigoriMessages.GetResponse> getResponsesList() {
+        if (responsesBuilder_ == null) {
+          return java.util.Collections.unmodifiableList(responses_);
+        } else {
+          return responsesBuilder_.getMessageList();
+        }
+      }
+      /**
+       * <code>repeated .nigori.GetResponse responses = 1;</code>
+       *
+       * <pre>
+       * One per requested key in the same order, with key set. No revisions if the key does not exist.
+       * </pre>
+       */
+      public int getResponsesCount() {
+        if (responsesBuilder_ == null) {
+          return responses_.size();
+        } else {
+          return responsesBuilder_.getCount();
+        }
+      }
+      /**
+       * <code>repeated .nigori.GetResponse responses = 1;</code>
+       *
+       * <pre>
+       * One per requested key in the same order, with key set. No revisions if the key does not exist.
+       * </pre>
+       */
+      public com.google.nigori.common.NigoriMessages.GetResponse getResponses(int index) {
+        if (responsesBuilder_ == null) {
+          return responses_.get(index);
+        } else {
+          return responsesBuilder_.getMessage(index);
+        }
+      }
+      /**
+       * <code>repeated .nigori.GetResponse responses = 1;</code>
+       *
+       * <pre>
+       * One per requested key in the same order, with key set. No revisions if the key does not exist.
+       * </pre>
+       */
+      public Builder setResponses(
+          int index, com.google.nigori.common.NigoriMessages.GetResponse value) {
+        if (responsesBuilder_ == null) {
+          if (value == null) {
+            throw new NullPointerException();
+          }
+          ensureResponsesIsMutable();
+          responses_.set(index, value);
+          onChanged();
+        } else {
+          responsesBuilder_.setMessage(index, value);
+        }
+        return this;
+      }
+      /**
+       * <code>repeated .nigori.GetResponse responses = 1;</code>
+       *
+       * <pre>
+       * One per requested key in the same order, with key set. No revisions if the key does not exist.
+       * </pre>
+       */
+      public Builder setResponses(
+          int index, com.google.nigori.common.NigoriMessages.GetResponse.Builder builderForValue) {
+        if (responsesBuilder_ == null) {
+          ensureResponsesIsMutable();
+          responses_.set(index, builderForValue.build());
+          onChanged();
+        } else {
+          responsesBuilder_.setMessage(index, builderForValue.build());
+        }
+        return this;
+      }
+      /**
+       * <code>repeated .nigori.GetResponse responses = 1;</code>
+       *
+       * <pre>
+       * One per requested key in the same order, with key set. No revisions if the key does not exist.
+       * </pre>
+       */
+      public Builder addResponses(com.google.nigori.common.NigoriMessages.GetResponse value) {
+        if (responsesBuilder_ == null) {
+          if (value == null) {
+            throw new NullPointerException();
+          }
+          ensureResponsesIsMutable();
+          responses_.add(value);
+          onChanged();
+        } else {
+          responsesBuilder_.addMessage(value);
+        }
+        return this;
+      }
+      /**
+       * <code>repeated .nigori.GetResponse responses = 1;</code>
+       *
+       * <pre>
+       * One per requested key in the same order, with key set. No revisions if the key does not exist.
+       * </pre>
+       */
+      public Builder addResponses(
+          int index, com.google.nigori.common.NigoriMessages.GetResponse value) {
+        if (responsesBuilder_ == null) {
+          if (value == null) {
+            throw new NullPointerException();
+          }
+          ensureResponsesIsMutable();
+          responses_.add(index, value);
+          onChanged();
+        } else {
+          responsesBuilder_.addMessage(index, value);
+        }
+        return this;
+      }
+      /**
+       * <code>repeated .nigori.GetResponse responses = 1;</code>
+       *
+       * <pre>
+       * One per requested key in the same order, with key set. No revisions if the key does not exist.
+       * </pre>
+       */
+      public Builder addResponses(
+          com.google.nigori.common.NigoriMessages.GetResponse.Builder builderForValue) {
+        if (responsesBuilder_ == null) {
+          ensureResponsesIsMutable();
+          responses_.add(builderForValue.build());
+          onChanged();
+        } else {
+          responsesBuilder_.addMessage(builderForValue.build());
+        }
+        return this;
+      }
+      /**
+       * <code>repeated .nigori.GetResponse responses = 1;</code>
+       *
+       * <pre>
+       * One per requested key in the same order, with key set. No revisions if the key does not exist.
+       * </pre>
+       */
+      public Builder addResponses(
+          int index, com.google.nigori.common.NigoriMessages.GetResponse.Builder builderForValue) {
+        if (responsesBuilder_ == null) {
+          ensureResponsesIsMutable();
+          responses_.add(index, builderForValue.build());
+          onChanged();
+        } else {
+          responsesBuilder_.addMessage(index, builderForValue.build());
+        }
+        return this;
+      }
+      /**
+       * <code>repeated .nigori.GetResponse responses = 1;</code>
+       *
+       * <pre>
+       * One per requested key in the same order, with key set. No revisions if the key does not exist.
+       * </pre>
+       */
+      public Builder addAllResponses(
+          java.lang.Iterable<? extends com.google.nigori.common.NigoriMessages.GetResponse> values) {
+        if (responsesBuilder_ == null) {
+          ensureResponsesIsMutable();
+          com.google.protobuf.AbstractMessageLite.Builder.addAll(
+              values, responses_);
+          onChanged();
+        } else {
+          responsesBuilder_.addAllMessages(values);
+        }
+        return this;
+      }
+      /**
+       * <code>repeated .nigori.GetResponse responses = 1;</code>
+       *
+       * <pre>
+       * One per requested key in the same order, with key set. No revisions if the key does not exist.
+       * </pre>
+       */
+      public Builder clearResponses() {
+        if (responsesBuilder_ == null) {
+          responses_ = java.util.Collections.emptyList();
+          bitField0_ = (bitField0_ & ~0x00000001);
+          onChanged();
+        } else {
+          responsesBuilder_.clear();
+        }
+        return this;
+      }
+      /**
+       * <code>repeated .nigori.GetResponse responses = 1;</code>
+       *
+       * <pre>
+       * One per requested key in the same order, with key set. No revisions if the key does not exist.
+       * </pre>
+       */
+      public Builder removeResponses(int index) {
+        if (responsesBuilder_ == null) {
+          ensureResponsesIsMutable();
+          responses_.remove(index);
+          onChanged();
+        } else {
+          responsesBuilder_.remove(index);
+        }
+        return this;
+      }
+      /**
+       * <code>repeated .nigori.GetResponse responses = 1;</code>
+       *
+       * <pre>
+       * One per requested key in the same order, with key set. No revisions if the key does not exist.
+       * </pre>
+       */
+      public com.google.nigori.common.NigoriMessages.GetResponse.Builder getResponsesBuilder(
+          int index) {
+        return getResponsesFieldBuilder().getBuilder(index);
+      }
+      /**
+       * <code>repeated .nigori.GetResponse responses = 1;</code>
+       *
+       * <pre>
+       * One per requested key in the same order, with key set. No revisions if the key does not exist.
+       * </pre>
+       */
+      public com.google.nigori.common.NigoriMessages.GetResponseOrBuilder getResponsesOrBuilder(
+          int index) {
+        if (responsesBuilder_ == null) {
+          return responses_.get(index);  } else {
+          return responsesBuilder_.getMessageOrBuilder(index);
+        }
+      }
+      /**
+       * <code>repeated .nigori.GetResponse responses = 1;</code>
+       *
+       * <pre>
+       * One per requested key in the same order, with key set. No revisions if the key does not exist.
+       * </pre>
+       */
+      public java.util.List<? extends com.google.nigori.common.NigoriMessages.GetResponseOrBuilder> 
+           getResponsesOrBuilderList() {
+        if (responsesBuilder_ != null) {
+          return responsesBuilder_.getMessageOrBuilderList();
+        } else {
+          return java.util.Collections.unmodifiableList(responses_);
+        }
+      }
+      /**
+       * <code>repeated .nigori.GetResponse responses = 1;</code>
+       *
+       * <pre>
+       * One per requested key in the same order, with key set. No revisions if the key does not exist.
+       * </pre>
+       */
+      public com.google.nigori.common.NigoriMessages.GetResponse.Builder addResponsesBuilder() {
+        return getResponsesFieldBuilder().addBuilder(
+            com.google.nigori.common.NigoriMessages.GetResponse.getDefaultInstance());
+      }
+      /**
+       * <code>repeated .nigori.GetResponse responses = 1;</code>
+       *
+       * <pre>
+       * One per requested key in the same order, with key set. No revisions if the key does not exist.
+       * </pre>
+       */
+      public com.google.nigori.common.NigoriMessages.GetResponse.Builder addResponsesBuilder(
+          int index) {
+        return getResponsesFieldBuilder().addBuilder(
+            index, com.google.nigori.common.NigoriMessages.GetResponse.getDefaultInstance());
+      }
+      /**
+       * <code>repeated .nigori.GetResponse responses = 1;</code>
+       *
+       * <pre>
+       * One per requested key in the same order, with key set. No revisions if the key does not exist.
+       * </pre>
+       */
+      public java.util.List<com.google.nigori.common.NigoriMessages.GetResponse.Builder> 
+           getResponsesBuilderList() {
+        return getResponsesFieldBuilder().getBuilderList();
+      }
+      private com.google.protobuf.RepeatedFieldBuilder<
+          com.google.nigori.common.NigoriMessages.GetResponse, com.google.nigori.common.NigoriMessages.GetResponse.Builder, com.google.nigori.common.NigoriMessages.GetResponseOrBuilder> 
+          getResponsesFieldBuilder() {
+        if (responsesBuilder_ == null) {
+          responsesBuilder_ = new com.google.protobuf.RepeatedFieldBuilder<
+              com.google.nigori.common.NigoriMessages.GetResponse, com.google.nigori.common.NigoriMessages.GetResponse.Builder, com.google.nigori.common.NigoriMessages.GetResponseOrBuilder>(
+                  responses_,
+                  ((bitField0_ & 0x00000001) == 0x00000001),
+                  getParentForChildren(),
+                  isClean());
+          responses_ = null;
+        }
+        return responsesBuilder_;
+      }
+
+      // @@protoc_insertion_point(builder_scope:nigori.BatchGetResponse)
+    }
+
+    static {
+      defaultInstance = new BatchGetResponse(true);
+      defaultInstance.initFields();
+    }
+
+    // @@protoc_insertion_point(class_scope:nigori.BatchGetResponse)
+  }
+
+  public interface BatchPutRequestOrBuilder extends
+      // @@protoc_insertion_point(interface_extends:nigori.BatchPutRequest)
+      com.google.protobuf.MessageOrBuilder {
+
+    /**
+     * <code>required .nigori.AuthenticateRequest auth = 1;</code>
+     */
+    boolean hasAuth();
+    /**
+     * <code>required .nigori.AuthenticateRequest auth = 1;</code>
+     */
+    com.google.nigori.common.NigoriMessages.AuthenticateRequest getAuth();
+    /**
+     * <code>required .nigori.AuthenticateRequest auth = 1;</code>
+     */
+    com.google.nigori.common.NigoriMessages.AuthenticateRequestOrBuilder getAuthOrBuilder();
+
+    /**
+     * <code>repeated .nigori.KeyRevisionValue records = 2;</code>
+     *
+     * <pre>
+     * Stored atomically, either all of them are stored or none are.
+     * </pre>
+     */
+    java.util.List<com.google.nigori.common.NigoriMessages.KeyRevisionValue> 
+        getRecordsList();
+    /**
+     * <code>repeated .nigori.KeyRevisionValue records = 2;</code>
+     *
+     * <pre>
+     * Stored atomically, either all of them are stored or none are.
+     * </pre>
+     */
+    com.google.nigori.common.NigoriMessages.KeyRevisionValue getRecords(int index);
+    /**
+     * <code>repeated .nigori.KeyRevisionValue records = 2;</code>
+     *
+     * <pre>
+     * Stored atomically, either all of them are stored or none are.
+     * </pre>
+     */
+    int getRecordsCount();
+    /**
+     * <code>repeated .nigori.KeyRevisionValue records = 2;</code>
+     *
+     * <pre>
+     * Stored atomically, either all of them are stored or none are.
+     * </pre>
+     */
+    java.util.List<? extends com.google.nigori.common.NigoriMessages.KeyRevisionValueOrBuilder> 
+        getRecordsOrBuilderList();
+    /**
+     * <code>repeated .nigori.KeyRevisionValue records = 2;</code>
+     *
+     * <pre>
+     * Stored atomically, either all of them are stored or none are.
+     * </pre>
+     */
+    com.google.nigori.common.NigoriMessages.KeyRevisionValueOrBuilder getRecordsOrBuilder(
+        int index);
+  }
+  /**
+   * Protobuf type {@code nigori.BatchPutRequest}
+   */
+  public static final class BatchPutRequest extends
+      com.google.protobuf.GeneratedMessage implements
+      // @@protoc_insertion_point(message_implements:nigori.BatchPutRequest)
+      BatchPutRequestOrBuilder {
+    // Use BatchPutRequest.newBuilder() to construct.
+    private BatchPutRequest(com.google.protobuf.GeneratedMessage.Builder<?> builder) {
+      super(builder);
+      this.unknownFields = builder.getUnknownFields();
+    }
+    private BatchPutRequest(boolean noInit) { this.unknownFields = com.google.protobuf.UnknownFieldSet.getDefaultInstance(); }
+
+    private static final BatchPutRequest defaultInstance;
+    public static BatchPutRequest getDefaultInstance() {
+      return defaultInstance;
+    }
+
+    public BatchPutRequest getDefaultInstanceForType() {
+      return defaultInstance;
+    }
+
+    private final com.google.protobuf.UnknownFieldSet unknownFields;
+    @java.lang.Override
+    public final com.google.protobuf.UnknownFieldSet
+        getUnknownFields() {
+      return this.unknownFields;
+    }
+    private BatchPutRequest(
+        com.google.protobuf.CodedInputStream input,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws com.google.protobuf.InvalidProtocolBufferException {
+      initFields();
+      int mutable_bitField0_ = 0;
+      com.google.protobuf.UnknownFieldSet.Builder unknownFields =
+          com.google.protobuf.UnknownFieldSet.newBuilder();
+      try {
+        boolean done = false;
+        while (!done) {
+          int tag = input.readTag();
+          switch (tag) {
+            case 0:
+              done = true;
+              break;
+            default: {
+              if (!parseUnknownField(input, unknownFields,
+                                     extensionRegistry, tag)) {
+                done = true;
+              }
+              break;
+            }
+            case 10: {
+              com.google.nigori.common.NigoriMessages.AuthenticateRequest.Builder subBuilder = null;
+              if (((bitField0_ & 0x00000001) == 0x00000001)) {
+                subBuilder = auth_.toBuilder();
+              }
+              auth_ = input.readMessage(com.google.nigori.common.NigoriMessages.AuthenticateRequest.PARSER, extensionRegistry);
+              if (subBuilder != null) {
+                subBuilder.mergeFrom(auth_);
+                auth_ = subBuilder.buildPartial();
+              }
+              bitField0_ |= 0x00000001;
+              break;
+            }
+            case 18: {
+              if (!((mutable_bitField0_ & 0x00000002) == 0x00000002)) {
+                records_ = new java.util.ArrayList<com.google.nigori.common.NigoriMessages.KeyRevisionValue>();
+                mutable_bitField0_ |= 0x00000002;
+              }
+              records_.add(input.readMessage(com.google.nigori.common.NigoriMessages.KeyRevisionValue.PARSER, extensionRegistry));
+              break;
+            }
+          }
+        }
+      } catch (com.google.protobuf.InvalidProtocolBufferException e) {
+        throw e.setUnfinishedMessage(this);
+      } catch (java.io.IOException e) {
+        throw new com.google.protobuf.InvalidProtocolBufferException(
+            e.getMessage()).setUnfinishedMessage(this);
+      } finally {
+        if (((mutable_bitField0_ & 0x00000002) == 0x00000002)) {
+          records_ = java.util.Collections.unmodifiableList(records_);
+        }
+        this.unknownFields = unknownFields.build();
+        makeExtensionsImmutable();
+      }
+    }
+    public static final com.google.protobuf.Descriptors.Descriptor
+        getDescriptor() {
+      return com.google.nigori.common.NigoriMessages.internal_static_nigori_BatchPutRequest_descriptor;
+    }
+
+    protected com.google.protobuf.GeneratedMessage.FieldAccessorTable
+        internalGetFieldAccessorTable() {
+      return com.google.nigori.common.NigoriMessages.internal_static_nigori_BatchPutRequest_fieldAccessorTable
+          .ensureFieldAccessorsInitialized(
+              com.google.nigori.common.NigoriMessages.BatchPutRequest.class, com.google.nigori.common.NigoriMessages.BatchPutRequest.Builder.class);
+    }
+
+    public static com.google.protobuf.Parser<BatchPutRequest> PARSER =
+        new com.google.protobuf.AbstractParser<BatchPutRequest>() {
+      public BatchPutRequest parsePartialFrom(
+          com.google.protobuf.CodedInputStream input,
+          com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+          throws com.google.protobuf.InvalidProtocolBufferException {
+        return new BatchPutRequest(input, extensionRegistry);
+      }
+    };
+
+    @java.lang.Override
+    public com.google.protobuf.Parser<BatchPutRequest> getParserForType() {
+      return PARSER;
+    }
+
+    private int bitField0_;
+    public static final int AUTH_FIELD_NUMBER = 1;
+    private com.google.nigori.common.NigoriMessages.AuthenticateRequest auth_;
+    /**
+     * <code>required .nigori.AuthenticateRequest auth = 1;</code>
+     */
+    public boolean hasAuth() {
+      return ((bitField0_ & 0x00000001) == 0x00000001);
+    }
+    /**
+     * <code>required .nigori.AuthenticateRequest auth = 1;</code>
+     */
+    public com.google.nigori.common.NigoriMessages.AuthenticateRequest getAuth() {
+      return auth_;
+    }
+    /**
+     * <code>required .nigori.AuthenticateRequest auth = 1;</code>
+     */
+    public com.google.nigori.common.NigoriMessages.AuthenticateRequestOrBuilder getAuthOrBuilder() {
+      return auth_;
+    }
+
+    public static final int RECORDS_FIELD_NUMBER = 2;
+    private java.util.List<com.google.nigori.common.NigoriMessages.KeyRevisionValue> records_;
+    /**
+     * <code>repeated .nigori.KeyRevisionValue records = 2;</code>
+     *
+     * <pre>
+     * Stored atomically, either all of them are stored or none are.
+     * </pre>
+     */
+    public java.util.List<com.google.nigori.common.NigoriMessages.KeyRevisionValue> getRecordsList() {
+      return records_;
+    }
+    /**
+     * <code>repeated .nigori.KeyRevisionValue records = 2;</code>
+     *
+     * <pre>
+     * Stored atomically, either all of them are stored or none are.
+     * </pre>
+     */
+    public java.util.List<? extends com.google.nigori.common.NigoriMessages.KeyRevisionValueOrBuilder> 
+        getRecordsOrBuilderList() {
+      return records_;
+    }
+    /**
+     * <code>repeated .nigori.KeyRevisionValue records = 2;</code>
+     *
+     * <pre>
+     * Stored atomically, either all of them are stored or none are.
+     * </pre>
+     */
+    public int getRecordsCount() {
+      return records_.size();
+    }
+    /**
+     * <code>repeated .nigori.KeyRevisionValue records = 2;</code>
+     *
+     * <pre>
+     * Stored atomically, either all of them are stored or none are.
+     * </pre>
+     */
+    public com.google.nigori.common.NigoriMessages.KeyRevisionValue getRecords(int index) {
+      return records_.get(index);
+    }
+    /**
+     * <code>repeated .nigori.KeyRevisionValue records = 2;</code>
+     *
+     * <pre>
+     * Stored atomically, either all of them are stored or none are.
+     * </pre>
+     */
+    public com.google.nigori.common.NigoriMessages.KeyRevisionValueOrBuilder getRecordsOrBuilder(
+        int index) {
+      return records_.get(index);
+    }
+
+    private void initFields() {
+      auth_ = com.google.nigori.common.NigoriMessages.AuthenticateRequest.getDefaultInstance();
+      records_ = java.util.Collections.emptyList();
+    }
+    private byte memoizedIsInitialized = -1;
+    public final boolean isInitialized() {
+      byte isInitialized = memoizedIsInitialized;
+      if (isInitialized == 1) return true;
+      if (isInitialized == 0) return false;
+
+      if (!hasAuth()) {
+        memoizedIsInitialized = 0;
+        return false;
+      }
+      if (!getAuth().isInitialized()) {
+        memoizedIsInitialized = 0;
+        return false;
+      }
+      for (int i = 0; i < getRecordsCount(); i++) {
+        if (!getRecords(i).isInitialized()) {
+          memoizedIsInitialized = 0;
+          return false;
+        }
+      }
+      memoizedIsInitialized = 1;
+      return true;
+    }
+
+    public void writeTo(com.google.protobuf.CodedOutputStream output)
+                        throws java.io.IOException {
+      getSerializedSize();
+      if (((bitField0_ & 0x00000001) == 0x00000001)) {
+        output.writeMessage(1, auth_);
+      }
+      for (int i = 0; i < records_.size(); i++) {
+        output.writeMessage(2, records_.get(i));
+      }
+      getUnknownFields().writeTo(output);
+    }
+
+    private int memoizedSerializedSize = -1;
+    public int getSerializedSize() {
+      int size = memoizedSerializedSize;
+      if (size != -1) return size;
+
+      size = 0;
+      if (((bitField0_ & 0x00000001) == 0x00000001)) {
+        size += com.google.protobuf.CodedOutputStream
+          .computeMessageSize(1, auth_);
+      }
+      for (int i = 0; i < records_.size(); i++) {
+        size += com.google.protobuf.CodedOutputStream
+          .computeMessageSize(2, records_.get(i));
+      }
+      size += getUnknownFields().getSerializedSize();
+      memoizedSerializedSize = size;
+      return size;
+    }
+
+    private static final long serialVersionUID = 0L;
+    @java.lang.Override
+    protected java.lang.Object writeReplace()
+        throws java.io.ObjectStreamException {
+      return super.writeReplace();
+    }
+
+    public static com.google.nigori.common.NigoriMessages.BatchPutRequest parseFrom(
+        com.google.protobuf.ByteString data)
+        throws com.google.protobuf.InvalidProtocolBufferException {
+      return PARSER.parseFrom(data);
+    }
+    public static com.google.nigori.common.NigoriMessages.BatchPutRequest parseFrom(
+        com.google.protobuf.ByteString data,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws com.google.protobuf.InvalidProtocolBufferException {
+      return PARSER.parseFrom(data, extensionRegistry);
+    }
+    public static com.google.nigori.common.NigoriMessages.BatchPutRequest parseFrom(byte[] data)
+        throws com.google.protobuf.InvalidProtocolBufferException {
+      return PARSER.parseFrom(data);
+    }
+    public static com.google.nigori.common.NigoriMessages.BatchPutRequest parseFrom(
+        byte[] data,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws com.google.protobuf.InvalidProtocolBufferException {
+      return PARSER.parseFrom(data, extensionRegistry);
+    }
+    public static com.google.nigori.common.NigoriMessages.BatchPutRequest parseFrom(java.io.InputStream input)
+        throws java.io.IOException {
+      return PARSER.parseFrom(input);
+    }
+    public static com.google.nigori.common.NigoriMessages.BatchPutRequest parseFrom(
+        java.io.InputStream input,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws java.io.IOException {
+      return PARSER.parseFrom(input, extensionRegistry);
+    }
+    public static com.google.nigori.common.NigoriMessages.BatchPutRequest parseDelimitedFrom(java.io.InputStream input)
+        throws java.io.IOException {
+      return PARSER.parseDelimitedFrom(input);
+    }
+    public static com.google.nigori.common.NigoriMessages.BatchPutRequest parseDelimitedFrom(
+        java.io.InputStream input,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws java.io.IOException {
+      return PARSER.parseDelimitedFrom(input, extensionRegistry);
+    }
+    public static com.google.nigori.common.NigoriMessages.BatchPutRequest parseFrom(
+        com.google.protobuf.CodedInputStream input)
+        throws java.io.IOException {
+      return PARSER.parseFrom(input);
+    }
+    public static com.google.nigori.common.NigoriMessages.BatchPutRequest parseFrom(
+        com.google.protobuf.CodedInputStream input,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws java.io.IOException {
+      return PARSER.parseFrom(input, extensionRegistry);
+    }
+
+    public static Builder newBuilder() { return Builder.create(); }
+    public Builder newBuilderForType() { return newBuilder(); }
+    public static Builder newBuilder(com.google.nigori.common.NigoriMessages.BatchPutRequest prototype) {
+      return newBuilder().mergeFrom(prototype);
+    }
+    public Builder toBuilder() { return newBuilder(this); }
+
+    @java.lang.Override
+    protected Builder newBuilderForType(
+        com.google.protobuf.GeneratedMessage.BuilderParent parent) {
+      Builder builder = new Builder(parent);
+      return builder;
+    }
+    /**
+     * Protobuf type {@code nigori.BatchPutRequest}
+     */
+    public static final class Builder extends
+        com.google.protobuf.GeneratedMessage.Builder<Builder> implements
+        // @@protoc_insertion_point(builder_implements:nigori.BatchPutRequest)
+        com.google.nigori.common.NigoriMessages.BatchPutRequestOrBuilder {
+      public static final com.google.protobuf.Descriptors.Descriptor
+          getDescriptor() {
+        return com.google.nigori.common.NigoriMessages.internal_static_nigori_BatchPutRequest_descriptor;
+      }
+
+      protected com.google.protobuf.GeneratedMessage.FieldAccessorTable
+          internalGetFieldAccessorTable() {
+        return com.google.nigori.common.NigoriMessages.internal_static_nigori_BatchPutRequest_fieldAccessorTable
+            .ensureFieldAccessorsInitialized(
+                com.google.nigori.common.NigoriMessages.BatchPutRequest.class, com.google.nigori.common.NigoriMessages.BatchPutRequest.Builder.class);
+      }
+
+      // Construct using com.google.nigori.common.NigoriMessages.BatchPutRequest.newBuilder()
+      private Builder() {
+        maybeForceBuilderInitialization();
+      }
+
+      private Builder(
+          com.google.protobuf.GeneratedMessage.BuilderParent parent) {
+        super(parent);
+        maybeForceBuilderInitialization();
+      }
+      private void maybeForceBuilderInitialization() {
+        if (com.google.protobuf.GeneratedMessage.alwaysUseFieldBuilders) {
+          getAuthFieldBuilder();
+          getRecordsFieldBuilder();
+        }
+      }
+      private static Builder create() {
+        return new Builder();
+      }
+
+      public Builder clear() {
+        super.clear();
+        if (authBuilder_ == null) {
+          auth_ = com.google.nigori.common.NigoriMessages.AuthenticateRequest.getDefaultInstance();
+        } else {
+          authBuilder_.clear();
+        }
+        bitField0_ = (bitField0_ & ~0x00000001);
+        if (recordsBuilder_ == null) {
+          records_ = java.util.Collections.emptyList();
+          bitField0_ = (bitField0_ & ~0x00000002);
+        } else {
+          recordsBuilder_.clear();
+        }
+        return this;
+      }
+
+      public Builder clone() {
+        return create().mergeFrom(buildPartial());
+      }
+
+      public com.google.protobuf.Descriptors.Descriptor
+          getDescriptorForType() {
+        return com.google.nigori.common.NigoriMessages.internal_static_nigori_BatchPutRequest_descriptor;
+      }
+
+      public com.google.nigori.common.NigoriMessages.BatchPutRequest getDefaultInstanceForType() {
+        return com.google.nigori.common.NigoriMessages.BatchPutRequest.getDefaultInstance();
+      }
+
+      public com.google.nigori.common.NigoriMessages.BatchPutRequest build() {
+        com.google.nigori.common.NigoriMessages.BatchPutRequest result = buildPartial();
+        if (!result.isInitialized()) {
+          throw newUninitializedMessageException(result);
+        }
+        return result;
+      }
+
+      public com.google.nigori.common.NigoriMessages.BatchPutRequest buildPartial() {
+        com.google.nigori.common.NigoriMessages.BatchPutRequest result = new com.google.nigori.common.NigoriMessages.BatchPutRequest(this);
+        int from_bitField0_ = bitField0_;
+        int to_bitField0_ = 0;
+        if (((from_bitField0_ & 0x00000001) == 0x00000001)) {
+          to_bitField0_ |= 0x00000001;
+        }
+        if (authBuilder_ == null) {
+          result.auth_ = auth_;
+        } else {
+          result.auth_ = authBuilder_.build();
+        }
+        if (recordsBuilder_ == null) {
+          if (((bitField0_ & 0x00000002) == 0x00000002)) {
+            records_ = java.util.Collections.unmodifiableList(records_);
+            bitField0_ = (bitField0_ & ~0x00000002);
+          }
+          result.records_ = records_;
+        } else {
+          result.records_ = recordsBuilder_.build();
+        }
+        result.bitField0_ = to_bitField0_;
+        onBuilt();
+        return result;
+      }
+
+      public Builder mergeFrom(com.google.protobuf.Message other) {
+        if (other instanceof com.google.nigori.common.NigoriMessages.BatchPutRequest) {
+          return mergeFrom((com.google.nigori.common.NigoriMessages.BatchPutRequest)other);
+        } else {
+          super.mergeFrom(other);
+          return this;
+        }
+      }
+
+      public Builder mergeFrom(com.google.nigori.common.NigoriMessages.BatchPutRequest other) {
+        if (other == com.google.nigori.common.NigoriMessages.BatchPutRequest.getDefaultInstance()) return this;
+        if (other.hasAuth()) {
+          mergeAuth(other.getAuth());
+        }
+        if (recordsBuilder_ == null) {
+          if (!other.records_.isEmpty()) {
+            if (records_.isEmpty()) {
+              records_ = other.records_;
+              bitField0_ = (bitField0_ & ~0x00000002);
+            } else {
+              ensureRecordsIsMutable();
+              records_.addAll(other.records_);
+            }
+            onChanged();
+          }
+        } else {
+          if (!other.records_.isEmpty()) {
+            if (recordsBuilder_.isEmpty()) {
+              recordsBuilder_.dispose();
+              recordsBuilder_ = null;
+              records_ = other.records_;
+              bitField0_ = (bitField0_ & ~0x00000002);
+              recordsBuilder_ = 
+                com.google.protobuf.GeneratedMessage.alwaysUseFieldBuilders ?
+                   getRecordsFieldBuilder() : null;
+            } else {
+              recordsBuilder_.addAllMessages(other.records_);
+            }
+          }
+        }
+        this.mergeUnknownFields(other.getUnknownFields());
+        return this;
+      }
+
+      public final boolean isInitialized() {
+        if (!hasAuth()) {
+          
+          return false;
+        }
+        if (!getAuth().isInitialized()) {
+          
+          return false;
+        }
+        for (int i = 0; i < getRecordsCount(); i++) {
+          if (!getRecords(i).isInitialized()) {
+            
+            return false;
+          }
+        }
+        return true;
+      }
+
+      public Builder mergeFrom(
+          com.google.protobuf.CodedInputStream input,
+          com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+          throws java.io.IOException {
+        com.google.nigori.common.NigoriMessages.BatchPutRequest parsedMessage = null;
+        try {
+          parsedMessage = PARSER.parsePartialFrom(input, extensionRegistry);
+        } catch (com.google.protobuf.InvalidProtocolBufferException e) {
+          parsedMessage = (com.google.nigori.common.NigoriMessages.BatchPutRequest) e.getUnfinishedMessage();
+          throw e;
+        } finally {
+          if (parsedMessage != null) {
+            mergeFrom(parsedMessage);
+          }
+        }
+        return this;
+      }
+      private int bitField0_;
+
+      private com.google.nigori.common.NigoriMessages.AuthenticateRequest auth_ = com.google.nigori.common.NigoriMessages.AuthenticateRequest.getDefaultInstance();
+      private com.google.protobuf.SingleFieldBuilder<
+          com.google.nigori.common.NigoriMessages.AuthenticateRequest, com.google.nigori.common.NigoriMessages.AuthenticateRequest.Builder, com.google.nigori.common.NigoriMessages.AuthenticateRequestOrBuilder> authBuilder_;
+      /**
+       * <code>required .nigori.AuthenticateRequest auth = 1;</code>
+       */
+      public boolean hasAuth() {
+        return ((bitField0_ & 0x00000001) == 0x00000001);
+      }
+      /**
+       * <code>required .nigori.AuthenticateRequest auth = 1;</code>
+       */
+      public com.google.nigori.common.NigoriMessages.AuthenticateRequest getAuth() {
+        if (authBuilder_ == null) {
+          return auth_;
+        } else {
+          return authBuilder_.getMessage();
+        }
+      }
+      /**
+       * <code>required .nigori.AuthenticateRequest auth = 1;</code>
+       */
+      public Builder setAuth(com.google.nigori.common.NigoriMessages.AuthenticateRequest value) {
+        if (authBuilder_ == null) {
+          if (value == null) {
+            throw new NullPointerException();
+          }
+          auth_ = value;
+          onChanged();
+        } else {
+          authBuilder_.setMessage(value);
+        }
+        bitField0_ |= 0x00000001;
+        return this;
+      }
+      /**
+       * <code>required .nigori.AuthenticateRequest auth = 1;</code>
+       */
+      public Builder setAuth(
+          com.google.nigori.common.NigoriMessages.AuthenticateRequest.Builder builderForValue) {
+        if (authBuilder_ == null) {
+          auth_ = builderForValue.build();
+          onChanged();
+        } else {
+          authBuilder_.setMessage(builderForValue.build());
+        }
+        bitField0_ |= 0x00000001;
+        return this;
+      }
+      /**
+       * <code>required .nigori.AuthenticateRequest auth = 1;</code>
+       */
+      public Builder mergeAuth(com.google.nigori.common.NigoriMessages.AuthenticateRequest value) {
+        if (authBuilder_ == null) {
+          if (((bitField0_ & 0x00000001) == 0x00000001) &&
+              auth_ != com.google.nigori.common.NigoriMessages.AuthenticateRequest.getDefaultInstance()) {
+            auth_ =
+              com.google.nigori.common.NigoriMessages.AuthenticateRequest.newBuilder(auth_).mergeFrom(value).buildPartial();
+          } else {
+            auth_ = value;
+          }
+          onChanged();
+        } else {
+          authBuilder_.mergeFrom(value);
+        }
+        bitField0_ |= 0x00000001;
+        return this;
+      }
+      /**
+       * <code>required .nigori.AuthenticateRequest auth = 1;</code>
+       */
+      public Builder clearAuth() {
+        if (authBuilder_ == null) {
+          auth_ = com.google.nigori.common.NigoriMessages.AuthenticateRequest.getDefaultInstance();
+          onChanged();
+        } else {
+          authBuilder_.clear();
+        }
+        bitField0_ = (bitField0_ & ~0x00000001);
+        return this;
+      }
+      /**
+       * <code>required .nigori.AuthenticateRequest auth = 1;</code>
+       */
+      public com.google.nigori.common.NigoriMessages.AuthenticateRequest.Builder getAuthBuilder() {
+        bitField0_ |= 0x00000001;
+        onChanged();
+        return getAuthFieldBuilder().getBuilder();
+      }
+      /**
+       * <code>required .nigori.AuthenticateRequest auth = 1;</code>
+       */
+      public com.google.nigori.common.NigoriMessages.AuthenticateRequestOrBuilder getAuthOrBuilder() {
+        if (authBuilder_ != null) {
+          return authBuilder_.getMessageOrBuilder();
+        } else {
+          return auth_;
+        }
+      }
+      /**
+       * <code>required .nigori.AuthenticateRequest auth = 1;</code>
+       */
+      private com.google.protobuf.SingleFieldBuilder<
+          com.google.nigori.common.NigoriMessages.AuthenticateRequest, com.google.nigori.common.NigoriMessages.AuthenticateRequest.Builder, com.google.nigori.common.NigoriMessages.AuthenticateRequestOrBuilder> 
+          getAuthFieldBuilder() {
+        if (authBuilder_ == null) {
+          authBuilder_ = new com.google.protobuf.SingleFieldBuilder<
+              com.google.nigori.common.NigoriMessages.AuthenticateRequest, com.google.nigori.common.NigoriMessages.AuthenticateRequest.Builder, com.google.nigori.common.NigoriMessages.AuthenticateRequestOrBuilder>(
+                  getAuth(),
+                  getParentForChildren(),
+                  isClean());
+          auth_ = null;
+        }
+        return authBuilder_;
+      }
+
+      private java.util.List<com.google.nigori.common.NigoriMessages.KeyRevisionValue> records_ =
+        java.util.Collections.emptyList();
+      private void ensureRecordsIsMutable() {
+        if (!((bitField0_ & 0x00000002) == 0x00000002)) {
+          records_ = new java.util.ArrayList<com.google.nigori.common.NigoriMessages.KeyRevisionValue>(records_);
+          bitField0_ |= 0x00000002;
+         }
+      }
+
+      private com.google.protobuf.RepeatedFieldBuilder<
+          com.google.nigori.common.NigoriMessages.KeyRevisionValue, com.google.nigori.common.NigoriMessages.KeyRevisionValue.Builder, com.google.nigori.common.NigoriMessages.KeyRevisionValueOrBuilder> recordsBuilder_;
+
+      /**
+       * <code>repeated .nigori.KeyRevisionValue records = 2;</code>
+       *
+       * <pre>
+       * Stored atomically, either all of them are stored or none are.
+       * </pre>
+       */
+      public java.util.List<com.google.nigori.common.NigoriMessages.KeyRevisionValue> getRecordsList() {
+        if (recordsBuilder_ == null) {
+          return java.util.Collections.unmodifiableList(records_);
+        } else {
+          return recordsBuilder_.getMessageList();
+        }
+      }
+      /**
+       * <code>repeated .nigori.KeyRevisionValue records = 2;</code>
+       *
+       * <pre>
+       * Stored atomically, either all of them are stored or none are.
+       * </pre>
+       */
+      public int getRecordsCount() {
+        if (recordsBuilder_ == null) {
+          return records_.size();
+        } else {
+          return recordsBuilder_.getCount();
+        }
+      }
+      /**
+       * <code>repeated .nigori.KeyRevisionValue records = 2;</code>
+       *
+       * <pre>
+       * Stored atomically, either all of them are stored or none are.
+       * </pre>
+       */
+      public com.google.nigori.common.NigoriMessages.KeyRevisionValue getRecords(int index) {
+        if (recordsBuilder_ == null) {
+          return records_.get(index);
+        } else {
+          return recordsBuilder_.getMessage(index);
+        }
+      }
+      /**
+       * <code>repeated .nigori.KeyRevisionValue records = 2;</code>
+       *
+       * <pre>
+       * Stored atomically, either all of them are stored or none are.
+       * </pre>
+       */
+      public Builder setRecords(
+          int index, com.google.nigori.common.NigoriMessages.KeyRevisionValue value) {
+        if (recordsBuilder_ == null) {
+          if (value == null) {
+            throw new NullPointerException();
+          }
+          ensureRecordsIsMutable();
+          records_.set(index, value);
+          onChanged();
+        } else {
+          recordsBuilder_.setMessage(index, value);
+        }
+        return this;
+      }
+      /**
+       * <code>repeated .nigori.KeyRevisionValue records = 2;</code>
+       *
+       * <pre>
+       * Stored atomically, either all of them are stored or none are.
+       * </pre>
+       */
+      public Builder setRecords(
+          int index, com.google.nigori.common.NigoriMessages.KeyRevisionValue.Builder builderForValue) {
+        if (recordsBuilder_ == null) {
+          ensureRecordsIsMutable();
+          records_.set(index, builderForValue.build());
+          onChanged();
+        } else {
+          recordsBuilder_.setMessage(index, builderForValue.build());
+        }
+        return this;
+      }
+      /**
+       * <code>repeated .nigori.KeyRevisionValue records = 2;</code>
+       *
+       * <pre>
+       * Stored atomically, either all of them are stored or none are.
+       * </pre>
+       */
+      public Builder addRecords(com.google.nigori.common.NigoriMessages.KeyRevisionValue value) {
+        if (recordsBuilder_ == null) {
+          if (value == null) {
+            throw new NullPointerException();
+          }
+          ensureRecordsIsMutable();
+          records_.add(value);
+          onChanged();
+        } else {
+          recordsBuilder_.addMessage(value);
+        }
+        return this;
+      }
+      /**
+       * <code>repeated .nigori.KeyRevisionValue records = 2;</code>
+       *
+       * <pre>
+       * Stored atomically, either all of them are stored or none are.
+       * </pre>
+       */
+      public Builder addRecords(
+          int index, com.google.nigori.common.NigoriMessages.KeyRevisionValue value) {
+        if (recordsBuilder_ == null) {
+          if (value == null) {
+            throw new NullPointerException();
+          }
+          ensureRecordsIsMutable();
+          records_.add(index, value);
+          onChanged();
+        } else {
+          recordsBuilder_.addMessage(index, value);
+        }
+        return this;
+      }
+      /**
+       * <code>repeated .nigori.KeyRevisionValue records = 2;</code>
+       *
+       * <pre>
+       * Stored atomically, either all of them are stored or none are.
+       * </pre>
+       */
+      public Builder addRecords(
+          com.google.nigori.common.NigoriMessages.KeyRevisionValue.Builder builderForValue) {
+        if (recordsBuilder_ == null) {
+          ensureRecordsIsMutable();
+          records_.add(builderForValue.build());
+          onChanged();
+        } else {
+          recordsBuilder_.addMessage(builderForValue.build());
+        }
+        return this;
+      }
+      /**
+       * <code>repeated .nigori.KeyRevisionValue records = 2;</code>
+       *
+       * <pre>
+       * Stored atomically, either all of them are stored or none are.
+       * </pre>
+       */
+      public Builder addRecords(
+          int index, com.google.nigori.common.NigoriMessages.KeyRevisionValue.Builder builderForValue) {
+        if (recordsBuilder_ == null) {
+          ensureRecordsIsMutable();
+          records_.add(index, builderForValue.build());
+          onChanged();
+        } else {
+          recordsBuilder_.addMessage(index, builderForValue.build());
+        }
+        return this;
+      }
+      /**
+       * <code>repeated .nigori.KeyRevisionValue records = 2;</code>
+       *
+       * <pre>
+       * Stored atomically, either all of them are stored or none are.
+       * </pre>
+       */
+      public Builder addAllRecords(
+          java.lang.Iterable<? extends com.google.nigori.common.NigoriMessages.KeyRevisionValue> values) {
+        if (recordsBuilder_ == null) {
+          ensureRecordsIsMutable();
+          com.google.protobuf.AbstractMessageLite.Builder.addAll(
+              values, records_);
+          onChanged();
+        } else {
+          recordsBuilder_.addAllMessages(values);
+        }
+        return this;
+      }
+      /**
+       * <code>repeated .nigori.KeyRevisionValue records = 2;</code>
+       *
+       * <pre>
+       * Stored atomically, either all of them are stored or none are.
+       * </pre>
+       */
+      public Builder clearRecords() {
+        if (recordsBuilder_ == null) {
+          records_ = java.util.Collections.emptyList();
+          bitField0_ = (bitField0_ & ~0x00000002);
+          onChanged();
+        } else {
+          recordsBuilder_.clear();
+        }
+        return this;
+      }
+      /**
+       * <code>repeated .nigori.KeyRevisionValue records = 2;</code>
+       *
+       * <pre>
+       * Stored atomically, either all of them are stored or none are.
+       * </pre>
+       */
+      public Builder removeRecords(int index) {
+        if (recordsBuilder_ == null) {
+          ensureRecordsIsMutable();
+          records_.remove(index);
+          onChanged();
+        } else {
+          recordsBuilder_.remove(index);
+        }
+        return this;
+      }
+      /**
+       * <code>repeated .nigori.KeyRevisionValue records = 2;</code>
+       *
+       * <pre>
+       * Stored atomically, either all of them are stored or none are.
+       * </pre>
+       */
+      public com.google.nigori.common.NigoriMessages.KeyRevisionValue.Builder getRecordsBuilder(
+          int index) {
+        return getRecordsFieldBuilder().getBuilder(index);
+      }
+      /**
+       * <code>repeated .nigori.KeyRevisionValue records = 2;</code>
+       *
+       * <pre>
+       * Stored atomically, either all of them are stored or none are.
+       * </pre>
+       */
+      public com.google.nigori.common.NigoriMessages.KeyRevisionValueOrBuilder getRecordsOrBuilder(
+          int index) {
+        if (recordsBuilder_ == null) {
+          return records_.get(index);  } else {
+          return recordsBuilder_.getMessageOrBuilder(index);
+        }
+      }
+      /**
+       * <code>repeated .nigori.KeyRevisionValue records = 2;</code>
+       *
+       * <pre>
+       * Stored atomically, either all of them are stored or none are.
+       * </pre>
+       */
+      public java.util.List<? extends com.google.nigori.common.NigoriMessages.KeyRevisionValueOrBuilder> 
+           getRecordsOrBuilderList() {
+        if (recordsBuilder_ != null) {
+          return recordsBuilder_.getMessageOrBuilderList();
+        } else {
+          return java.util.Collections.unmodifiableList(records_);
+        }
+      }
+      /**
+       * <code>repeated .nigori.KeyRevisionValue records = 2;</code>
+       *
+       * <pre>
+       * Stored atomically, either all of them are stored or none are.
+       * </pre>
+       */
+      public com.google.nigori.common.NigoriMessages.KeyRevisionValue.Builder addRecordsBuilder() {
+        return getRecordsFieldBuilder().addBuilder(
+            com.google.nigori.common.NigoriMessages.KeyRevisionValue.getDefaultInstance());
+      }
+      /**
+       * <code>repeated .nigori.KeyRevisionValue records = 2;</code>
+       *
+       * <pre>
+       * Stored atomically, either all of them are stored or none are.
+       * </pre>
+       */
+      public com.google.nigori.common.NigoriMessages.KeyRevisionValue.Builder addRecordsBuilder(
+          int index) {
+        return getRecordsFieldBuilder().addBuilder(
+            index, com.google.nigori.common.NigoriMessages.KeyRevisionValue.getDefaultInstance());
+      }
+      /**
+       * <code>repeated .nigori.KeyRevisionValue records = 2;</code>
+       *
+       * <pre>
+       * Stored atomically, either all of them are stored or none are.
+       * </pre>
+       */
+      public java.util.List<com.google.nigori.common.NigoriMessages.KeyRevisionValue.Builder> 
+           getRecordsBuilderList() {
+        return getRecordsFieldBuilder().getBuilderList();
+      }
+      private com.google.protobuf.RepeatedFieldBuilder<
+          com.google.nigori.common.NigoriMessages.KeyRevisionValue, com.google.nigori.common.NigoriMessages.KeyRevisionValue.Builder, com.google.nigori.common.NigoriMessages.KeyRevisionValueOrBuilder> 
+          getRecordsFieldBuilder() {
+        if (recordsBuilder_ == null) {
+          recordsBuilder_ = new com.google.protobuf.RepeatedFieldBuilder<
+              com.google.nigori.common.NigoriMessages.KeyRevisionValue, com.google.nigori.common.NigoriMessages.KeyRevisionValue.Builder, com.google.nigori.common.NigoriMessages.KeyRevisionValueOrBuilder>(
+                  records_,
+                  ((bitField0_ & 0x00000002) == 0x00000002),
+                  getParentForChildren(),
+                  isClean());
+          records_ = null;
+        }
+        return recordsBuilder_;
+      }
+
+      // @@protoc_insertion_point(builder_scope:nigori.BatchPutRequest)
+    }
+
+    static {
+      defaultInstance = new BatchPutRequest(true);
+      defaultInstance.initFields();
+    }
+
+    // @@protoc_insertion_point(class_scope:nigori.BatchPutRequest)
+  }
+
+  public interface BatchDeleteRequestOrBuilder extends
+      // @@protoc_insertion_point(interface_extends:nigori.BatchDeleteRequest)
+      com.google.protobuf.MessageOrBuilder {
+
+    /**
+     * <code>required .nigori.AuthenticateRequest auth = 1;</code>
+     */
+    boolean hasAuth();
+    /**
+     * <code>required .nigori.AuthenticateRequest auth = 1;</code>
+     */
+    com.google.nigori.common.NigoriMessages.AuthenticateRequest getAuth();
+    /**
+     * <code>required .nigori.AuthenticateRequest auth = 1;</code>
+     */
+    com.google.nigori.common.NigoriMessages.AuthenticateRequestOrBuilder getAuthOrBuilder();
+
+    /**
+     * <code>repeated bytes keys = 2;</code>
+     */
+    java.util.List<com.google.protobuf.ByteString> getKeysList();
+    /**
+     * <code>repeated bytes keys = 2;</code>
+     */
+    int getKeysCount();
+    /**
+     * <code>repeated bytes keys = 2;</code>
+     */
+    com.google.protobuf.ByteString getKeys(int index);
+  }
+  /**
+   * Protobuf type {@code nigori.BatchDeleteRequest}
+   */
+  public static final class BatchDeleteRequest extends
+      com.google.protobuf.GeneratedMessage implements
+      // @@protoc_insertion_point(message_implements:nigori.BatchDeleteRequest)
+      BatchDeleteRequestOrBuilder {
+    // Use BatchDeleteRequest.newBuilder() to construct.
+    private BatchDeleteRequest(com.google.protobuf.GeneratedMessage.Builder<?> builder) {
+      super(builder);
+      this.unknownFields = builder.getUnknownFields();
+    }
+    private BatchDeleteRequest(boolean noInit) { this.unknownFields = com.google.protobuf.UnknownFieldSet.getDefaultInstance(); }
+
+    private static final BatchDeleteRequest defaultInstance;
+    public static BatchDeleteRequest getDefaultInstance() {
+      return defaultInstance;
+    }
+
+    public BatchDeleteRequest getDefaultInstanceForType() {
+      return defaultInstance;
+    }
+
+    private final com.google.protobuf.UnknownFieldSet unknownFields;
+    @java.lang.Override
+    public final com.google.protobuf.UnknownFieldSet
+        getUnknownFields() {
+      return this.unknownFields;
+    }
+    private BatchDeleteRequest(
+        com.google.protobuf.CodedInputStream input,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws com.google.protobuf.InvalidProtocolBufferException {
+      initFields();
+      int mutable_bitField0_ = 0;
+      com.google.protobuf.UnknownFieldSet.Builder unknownFields =
+          com.google.protobuf.UnknownFieldSet.newBuilder();
+      try {
+        boolean done = false;
+        while (!done) {
+          int tag = input.readTag();
+          switch (tag) {
+            case 0:
+              done = true;
+              break;
+            default: {
+              if (!parseUnknownField(input, unknownFields,
+                                     extensionRegistry, tag)) {
+                done = true;
+              }
+              break;
+            }
+            case 10: {
+              com.google.nigori.common.NigoriMessages.AuthenticateRequest.Builder subBuilder = null;
+              if (((bitField0_ & 0x00000001) == 0x00000001)) {
+                subBuilder = auth_.toBuilder();
+              }
+              auth_ = input.readMessage(com.google.nigori.common.NigoriMessages.AuthenticateRequest.PARSER, extensionRegistry);
+              if (subBuilder != null) {
+                subBuilder.mergeFrom(auth_);
+                auth_ = subBuilder.buildPartial();
+              }
+              bitField0_ |= 0x00000001;
+              break;
+            }
+            case 18: {
+              if (!((mutable_bitField0_ & 0x00000002) == 0x00000002)) {
+                keys_ = new java.util.ArrayList<com.google.protobuf.ByteString>();
+                mutable_bitField0_ |= 0x00000002;
+              }
+              keys_.add(input.readBytes());
+              break;
+            }
+          }
+        }
+      } catch (com.google.protobuf.InvalidProtocolBufferException e) {
+        throw e.setUnfinishedMessage(this);
+      } catch (java.io.IOException e) {
+        throw new com.google.protobuf.InvalidProtocolBufferException(
+            e.getMessage()).setUnfinishedMessage(this);
+      } finally {
+        if (((mutable_bitField0_ & 0x00000002) == 0x00000002)) {
+          keys_ = java.util.Collections.unmodifiableList(keys_);
+        }
+        this.unknownFields = unknownFields.build();
+        makeExtensionsImmutable();
+      }
+    }
+    public static final com.google.protobuf.Descriptors.Descriptor
+        getDescriptor() {
+      return com.google.nigori.common.NigoriMessages.internal_static_nigori_BatchDeleteRequest_descriptor;
+    }
+
+    protected com.google.protobuf.GeneratedMessage.FieldAccessorTable
+        internalGetFieldAccessorTable() {
+      return com.google.nigori.common.NigoriMessages.internal_static_nigori_BatchDeleteRequest_fieldAccessorTable
+          .ensureFieldAccessorsInitialized(
+              com.google.nigori.common.NigoriMessages.BatchDeleteRequest.class, com.google.nigori.common.NigoriMessages.BatchDeleteRequest.Builder.class);
+    }
+
+    public static com.google.protobuf.Parser<BatchDeleteRequest> PARSER =
+        new com.google.protobuf.AbstractParser<BatchDeleteRequest>() {
+      public BatchDeleteRequest parsePartialFrom(
+          com.google.protobuf.CodedInputStream input,
+          com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+          throws com.google.protobuf.InvalidProtocolBufferException {
+        return new BatchDeleteRequest(input, extensionRegistry);
+      }
+    };
+
+    @java.lang.Override
+    public com.google.protobuf.Parser<BatchDeleteRequest> getParserForType() {
+      return PARSER;
+    }
+
+    private int bitField0_;
+    public static final int AUTH_FIELD_NUMBER = 1;
+    private com.google.nigori.common.NigoriMessages.AuthenticateRequest auth_;
+    /**
+     * <code>required .nigori.AuthenticateRequest auth = 1;</code>
+     */
+    public boolean hasAuth() {
+      return ((bitField0_ & 0x00000001) == 0x00000001);
+    }
+    /**
+     * <code>required .nigori.AuthenticateRequest auth = 1;</code>
+     */
+    public com.google.nigori.common.NigoriMessages.AuthenticateRequest getAuth() {
+      return auth_;
+    }
+    /**
+     * <code>required .nigori.AuthenticateRequest auth = 1;</code>
+     */
+    public com.google.nigori.common.NigoriMessages.AuthenticateRequestOrBuilder getAuthOrBuilder() {
+      return auth_;
+    }
+
+    public static final int KEYS_FIELD_NUMBER = 2;
+    private java.util.List<com.google.protobuf.ByteString> keys_;
+    /**
+     * <code>repeated bytes keys = 2;</code>
+     */
+    public java.util.List<com.google.protobuf.ByteString>
+        getKeysList() {
+      return keys_;
+    }
+    /**
+     * <code>repeated bytes keys = 2;</code>
+     */
+    public int getKeysCount() {
+      return keys_.size();
+    }
+    /**
+     * <code>repeated bytes keys = 2;</code>
+     */
+    public com.google.protobuf.ByteString getKeys(int index) {
+      return keys_.get(index);
+    }
+
+    private void initFields() {
+      auth_ = com.google.nigori.common.NigoriMessages.AuthenticateRequest.getDefaultInstance();
+      keys_ = java.util.Collections.emptyList();
+    }
+    private byte memoizedIsInitialized = -1;
+    public final boolean isInitialized() {
+      byte isInitialized = memoizedIsInitialized;
+      if (isInitialized == 1) return true;
+      if (isInitialized == 0) return false;
+
+      if (!hasAuth()) {
+        memoizedIsInitialized = 0;
+        return false;
+      }
+      if (!getAuth().isInitialized()) {
+        memoizedIsInitialized = 0;
+        return false;
+      }
+      memoizedIsInitialized = 1;
+      return true;
+    }
+
+    public void writeTo(com.google.protobuf.CodedOutputStream output)
+                        throws java.io.IOException {
+      getSerializedSize();
+      if (((bitField0_ & 0x00000001) == 0x00000001)) {
+        output.writeMessage(1, auth_);
+      }
+      for (int i = 0; i < keys_.size(); i++) {
+        output.writeBytes(2, keys_.get(i));
+      }
+      getUnknownFields().writeTo(output);
+    }
+
+    private int memoizedSerializedSize = -1;
+    public int getSerializedSize() {
+      int size = memoizedSerializedSize;
+      if (size != -1) return size;
+
+      size = 0;
+      if (((bitField0_ & 0x00000001) == 0x00000001)) {
+        size += com.google.protobuf.CodedOutputStream
+          .computeMessageSize(1, auth_);
+      }
+      {
+        int dataSize = 0;
+        for (int i = 0; i < keys_.size(); i++) {
+          dataSize += com.google.protobuf.CodedOutputStream
+            .computeBytesSizeNoTag(keys_.get(i));
+        }
+        size += dataSize;
+        size += 1 * getKeysList().size();
+      }
+      size += getUnknownFields().getSerializedSize();
+      memoizedSerializedSize = size;
+      return size;
+    }
+
+    private static final long serialVersionUID = 0L;
+    @java.lang.Override
+    protected java.lang.Object writeReplace()
+        throws java.io.ObjectStreamException {
+      return super.writeReplace();
+    }
+
+    public static com.google.nigori.common.NigoriMessages.BatchDeleteRequest parseFrom(
+        com.google.protobuf.ByteString data)
+        throws com.google.protobuf.InvalidProtocolBufferException {
+      return PARSER.parseFrom(data);
+    }
+    public static com.google.nigori.common.NigoriMessages.BatchDeleteRequest parseFrom(
+        com.google.protobuf.ByteString data,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws com.google.protobuf.InvalidProtocolBufferException {
+      return PARSER.parseFrom(data, extensionRegistry);
+    }
+    public static com.google.nigori.common.NigoriMessages.BatchDeleteRequest parseFrom(byte[] data)
+        throws com.google.protobuf.InvalidProtocolBufferException {
+      return PARSER.parseFrom(data);
+    }
+    public static com.google.nigori.common.NigoriMessages.BatchDeleteRequest parseFrom(
+        byte[] data,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws com.google.protobuf.InvalidProtocolBufferException {
+      return PARSER.parseFrom(data, extensionRegistry);
+    }
+    public static com.google.nigori.common.NigoriMessages.BatchDeleteRequest parseFrom(java.io.InputStream input)
+        throws java.io.IOException {
+      return PARSER.parseFrom(input);
+    }
+    public static com.google.nigori.common.NigoriMessages.BatchDeleteRequest parseFrom(
+        java.io.InputStream input,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws java.io.IOException {
+      return PARSER.parseFrom(input, extensionRegistry);
+    }
+    public static com.google.nigori.common.NigoriMessages.BatchDeleteRequest parseDelimitedFrom(java.io.InputStream input)
+        throws java.io.IOException {
+      return PARSER.parseDelimitedFrom(input);
+    }
+    public static com.google.nigori.common.NigoriMessages.BatchDeleteRequest parseDelimitedFrom(
+        java.io.InputStream input,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws java.io.IOException {
+      return PARSER.parseDelimitedFrom(input, extensionRegistry);
+    }
+    public static com.google.nigori.common.NigoriMessages.BatchDeleteRequest parseFrom(
+        com.google.protobuf.CodedInputStream input)
+        throws java.io.IOException {
+      return PARSER.parseFrom(input);
+    }
+    public static com.google.nigori.common.NigoriMessages.BatchDeleteRequest parseFrom(
+        com.google.protobuf.CodedInputStream input,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws java.io.IOException {
+      return PARSER.parseFrom(input, extensionRegistry);
+    }
+
+    public static Builder newBuilder() { return Builder.create(); }
+    public Builder newBuilderForType() { return newBuilder(); }
+    public static Builder newBuilder(com.google.nigori.common.NigoriMessages.BatchDeleteRequest prototype) {
+      return newBuilder().mergeFrom(prototype);
+    }
+    public Builder toBuilder() { return newBuilder(this); }
+
+    @java.lang.Override
+    protected Builder newBuilderForType(
+        com.google.protobuf.GeneratedMessage.BuilderParent parent) {
+      Builder builder = new Builder(parent);
+      return builder;
+    }
+    /**
+     * Protobuf type {@code nigori.BatchDeleteRequest}
+     */
+    public static final class Builder extends
+        com.google.protobuf.GeneratedMessage.Builder<Builder> implements
+        // @@protoc_insertion_point(builder_implements:nigori.BatchDeleteRequest)
+        com.google.nigori.common.NigoriMessages.BatchDeleteRequestOrBuilder {
+      public static final com.google.protobuf.Descriptors.Descriptor
+          getDescriptor() {
+        return com.google.nigori.common.NigoriMessages.internal_static_nigori_BatchDeleteRequest_descriptor;
+      }
+
+      protected com.google.protobuf.GeneratedMessage.FieldAccessorTable
+          internalGetFieldAccessorTable() {
+        return com.google.nigori.common.NigoriMessages.internal_static_nigori_BatchDeleteRequest_fieldAccessorTable
+            .ensureFieldAccessorsInitialized(
+                com.google.nigori.common.NigoriMessages.BatchDeleteRequest.class, com.google.nigori.common.NigoriMessages.BatchDeleteRequest.Builder.class);
+      }
+
+      // Construct using com.google.nigori.common.NigoriMessages.BatchDeleteRequest.newBuilder()
+      private Builder() {
+        maybeForceBuilderInitialization();
+      }
+
+      private Builder(
+          com.google.protobuf.GeneratedMessage.BuilderParent parent) {
+        super(parent);
+        maybeForceBuilderInitialization();
+      }
+      private void maybeForceBuilderInitialization() {
+        if (com.google.protobuf.GeneratedMessage.alwaysUseFieldBuilders) {
+          getAuthFieldBuilder();
+        }
+      }
+      private static Builder create() {
+        return new Builder();
+      }
+
+      public Builder clear() {
+        super.clear();
+        if (authBuilder_ == null) {
+          auth_ = com.google.nigori.common.NigoriMessages.AuthenticateRequest.getDefaultInstance();
+        } else {
+          authBuilder_.clear();
+        }
+        bitField0_ = (bitField0_ & ~0x00000001);
+        keys_ = java.util.Collections.emptyList();
+        bitField0_ = (bitField0_ & ~0x00000002);
+        return this;
+      }
+
+      public Builder clone() {
+        return create().mergeFrom(buildPartial());
+      }
+
+      public com.google.protobuf.Descriptors.Descriptor
+          getDescriptorForType() {
+        return com.google.nigori.common.NigoriMessages.internal_static_nigori_BatchDeleteRequest_descriptor;
+      }
+
+      public com.google.nigori.common.NigoriMessages.BatchDeleteRequest getDefaultInstanceForType() {
+        return com.google.nigori.common.NigoriMessages.BatchDeleteRequest.getDefaultInstance();
+      }
+
+      public com.google.nigori.common.NigoriMessages.BatchDeleteRequest build() {
+        com.google.nigori.common.NigoriMessages.BatchDeleteRequest result = buildPartial();
+        if (!result.isInitialized()) {
+          throw newUninitializedMessageException(result);
+        }
+        return result;
+      }
+
+      public com.google.nigori.common.NigoriMessages.BatchDeleteRequest buildPartial() {
+        com.google.nigori.common.NigoriMessages.BatchDeleteRequest result = new com.google.nigori.common.NigoriMessages.BatchDeleteRequest(this);
+        int from_bitField0_ = bitField0_;
+        int to_bitField0_ = 0;
+        if (((from_bitField0_ & 0x00000001) == 0x00000001)) {
+          to_bitField0_ |= 0x00000001;
+        }
+        if (authBuilder_ == null) {
+          result.auth_ = auth_;
+        } else {
+          result.auth_ = authBuilder_.build();
+        }
+        if (((bitField0_ & 0x00000002) == 0x00000002)) {
+          keys_ = java.util.Collections.unmodifiableList(keys_);
+          bitField0_ = (bitField0_ & ~0x00000002);
+        }
+        result.keys_ = keys_;
+        result.bitField0_ = to_bitField0_;
+        onBuilt();
+        return result;
+      }
+
+      public Builder mergeFrom(com.google.protobuf.Message other) {
+        if (other instanceof com.google.nigori.common.NigoriMessages.BatchDeleteRequest) {
+          return mergeFrom((com.google.nigori.common.NigoriMessages.BatchDeleteRequest)other);
+        } else {
+          super.mergeFrom(other);
+          return this;
+        }
+      }
+
+      public Builder mergeFrom(com.google.nigori.common.NigoriMessages.BatchDeleteRequest other) {
+        if (other == com.google.nigori.common.NigoriMessages.BatchDeleteRequest.getDefaultInstance()) return this;
+        if (other.hasAuth()) {
+          mergeAuth(other.getAuth());
+        }
+        if (!other.keys_.isEmpty()) {
+          if (keys_.isEmpty()) {
+            keys_ = other.keys_;
+            bitField0_ = (bitField0_ & ~0x00000002);
+          } else {
+            ensureKeysIsMutable();
+            keys_.addAll(other.keys_);
+          }
+          onChanged();
+        }
+        this.mergeUnknownFields(other.getUnknownFields());
+        return this;
+      }
+
+      public final boolean isInitialized() {
+        if (!hasAuth()) {
+          
+          return false;
+        }
+        if (!getAuth().isInitialized()) {
+          
+          return false;
+        }
+        return true;
+      }
+
+      public Builder mergeFrom(
+          com.google.protobuf.CodedInputStream input,
+          com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+          throws java.io.IOException {
+        com.google.nigori.common.NigoriMessages.BatchDeleteRequest parsedMessage = null;
+        try {
+          parsedMessage = PARSER.parsePartialFrom(input, extensionRegistry);
+        } catch (com.google.protobuf.InvalidProtocolBufferException e) {
+          parsedMessage = (com.google.nigori.common.NigoriMessages.BatchDeleteRequest) e.getUnfinishedMessage();
+          throw e;
+        } finally {
+          if (parsedMessage != null) {
+            mergeFrom(parsedMessage);
+          }
+        }
+        return this;
+      }
+      private int bitField0_;
+
+      private com.google.nigori.common.NigoriMessages.AuthenticateRequest auth_ = com.google.nigori.common.NigoriMessages.AuthenticateRequest.getDefaultInstance();
+      private com.google.protobuf.SingleFieldBuilder<
+          com.google.nigori.common.NigoriMessages.AuthenticateRequest, com.google.nigori.common.NigoriMessages.AuthenticateRequest.Builder, com.google.nigori.common.NigoriMessages.AuthenticateRequestOrBuilder> authBuilder_;
+      /**
+       * <code>required .nigori.AuthenticateRequest auth = 1;</code>
+       */
+      public boolean hasAuth() {
+        return ((bitField0_ & 0x00000001) == 0x00000001);
+      }
+      /**
+       * <code>required .nigori.AuthenticateRequest auth = 1;</code>
+       */
+      public com.google.nigori.common.NigoriMessages.AuthenticateRequest getAuth() {
+        if (authBuilder_ == null) {
+          return auth_;
+        } else {
+          return authBuilder_.getMessage();
+        }
+      }
+      /**
+       * <code>required .nigori.AuthenticateRequest auth = 1;</code>
+       */
+      public Builder setAuth(com.google.nigori.common.NigoriMessages.AuthenticateRequest value) {
+        if (authBuilder_ == null) {
+          if (value == null) {
+            throw new NullPointerException();
+          }
+          auth_ = value;
+          onChanged();
+        } else {
+          authBuilder_.setMessage(value);
+        }
+        bitField0_ |= 0x00000001;
+        return this;
+      }
+      /**
+       * <code>required .nigori.AuthenticateRequest auth = 1;</code>
+       */
+      public Builder setAuth(
+          com.google.nigori.common.NigoriMessages.AuthenticateRequest.Builder builderForValue) {
+        if (authBuilder_ == null) {
+          auth_ = builderForValue.build();
+          onChanged();
+        } else {
+          authBuilder_.setMessage(builderForValue.build());
+        }
+        bitField0_ |= 0x00000001;
+        return this;
+      }
+      /**
+       * <code>required .nigori.AuthenticateRequest auth = 1;</code>
+       */
+      public Builder mergeAuth(com.google.nigori.common.NigoriMessages.AuthenticateRequest value) {
+        if (authBuilder_ == null) {
+          if (((bitField0_ & 0x00000001) == 0x00000001) &&
+              auth_ != com.google.nigori.common.NigoriMessages.AuthenticateRequest.getDefaultInstance()) {
+            auth_ =
+              com.google.nigori.common.NigoriMessages.AuthenticateRequest.newBuilder(auth_).mergeFrom(value).buildPartial();
+          } else {
+            auth_ = value;
+          }
+          onChanged();
+        } else {
+          authBuilder_.mergeFrom(value);
+        }
+        bitField0_ |= 0x00000001;
+        return this;
+      }
+      /**
+       * <code>required .nigori.AuthenticateRequest auth = 1;</code>
+       */
+      public Builder clearAuth() {
+        if (authBuilder_ == null) {
+          auth_ = com.google.nigori.common.NigoriMessages.AuthenticateRequest.getDefaultInstance();
+          onChanged();
+        } else {
+          authBuilder_.clear();
+        }
+        bitField0_ = (bitField0_ & ~0x00000001);
+        return this;
+      }
+      /**
+       * <code>required .nigori.AuthenticateRequest auth = 1;</code>
+       */
+      public com.google.nigori.common.NigoriMessages.AuthenticateRequest.Builder getAuthBuilder() {
+        bitField0_ |= 0x00000001;
+        onChanged();
+        return getAuthFieldBuilder().getBuilder();
+      }
+      /**
+       * <code>required .nigori.AuthenticateRequest auth = 1;</code>
+       */
+      public com.google.nigori.common.NigoriMessages.AuthenticateRequestOrBuilder getAuthOrBuilder() {
+        if (authBuilder_ != null) {
+          return authBuilder_.getMessageOrBuilder();
+        } else {
+          return auth_;
+        }
+      }
+      /**
+       * <code>required .nigori.AuthenticateRequest auth = 1;</code>
+       */
+      private com.google.protobuf.SingleFieldBuilder<
+          com.google.nigori.common.NigoriMessages.AuthenticateRequest, com.google.nigori.common.NigoriMessages.AuthenticateRequest.Builder, com.google.nigori.common.NigoriMessages.AuthenticateRequestOrBuilder> 
+          getAuthFieldBuilder() {
+        if (authBuilder_ == null) {
+          authBuilder_ = new com.google.protobuf.SingleFieldBuilder<
+              com.google.nigori.common.NigoriMessages.AuthenticateRequest, com.google.nigori.common.NigoriMessages.AuthenticateRequest.Builder, com.google.nigori.common.NigoriMessages.AuthenticateRequestOrBuilder>(
+                  getAuth(),
+                  getParentForChildren(),
+                  isClean());
+          auth_ = null;
+        }
+        return authBuilder_;
+      }
+
+      private java.util.List<com.google.protobuf.ByteString> keys_ = java.util.Collections.emptyList();
+      private void ensureKeysIsMutable() {
+        if (!((bitField0_ & 0x00000002) == 0x00000002)) {
+          keys_ = new java.util.ArrayList<com.google.protobuf.ByteString>(keys_);
+          bitField0_ |= 0x00000002;
+         }
+      }
+      /**
+       * <code>repeated bytes keys = 2;</code>
+       */
+      public java.util.List<com.google.protobuf.ByteString>
+          getKeysList() {
+        return java.util.Collections.unmodifiableList(keys_);
+      }
+      /**
+       * <code>repeated bytes keys = 2;</code>
+       */
+      public int getKeysCount() {
+        return keys_.size();
+      }
+      /**
+       * <code>repeated bytes keys = 2;</code>
+       */
+      public com.google.protobuf.ByteString getKeys(int index) {
+        return keys_.get(index);
+      }
+      /**
+       * <code>repeated bytes keys = 2;</code>
+       */
+      public Builder setKeys(
+          int index, com.google.protobuf.ByteString value) {
+        if (value == null) {
+    throw new NullPointerException();
+  }
+  ensureKeysIsMutable();
+        keys_.set(index, value);
+        onChanged();
+        return this;
+      }
+      /**
+       * <code>repeated bytes keys = 2;</code>
+       */
+      public Builder addKeys(com.google.protobuf.ByteString value) {
+        if (value == null) {
+    throw new NullPointerException();
+  }
+  ensureKeysIsMutable();
+        keys_.add(value);
+        onChanged();
+        return this;
+      }
+      /**
+       * <code>repeated bytes keys = 2;</code>
+       */
+      public Builder addAllKeys(
+          java.lang.Iterable<? extends com.google.protobuf.ByteString> values) {
+        ensureKeysIsMutable();
+        com.google.protobuf.AbstractMessageLite.Builder.addAll(
+            values, keys_);
+        onChanged();
+        return this;
+      }
+      /**
+       * <code>repeated bytes keys = 2;</code>
+       */
+      public Builder clearKeys() {
+        keys_ = java.util.Collections.emptyList();
+        bitField0_ = (bitField0_ & ~0x00000002);
+        onChanged();
+        return this;
+      }
+
+      // @@protoc_insertion_point(builder_scope:nigori.BatchDeleteRequest)
+    }
+
+    static {
+      defaultInstance = new BatchDeleteRequest(true);
+      defaultInstance.initFields();
+    }
+
+    // @@protoc_insertion_point(class_scope:nigori.BatchDeleteRequest)
+  }
+
+  public interface ChangeOrBuilder extends
+      // @@protoc_insertion_point(interface_extends:nigori.Change)
+      com.google.protobuf.MessageOrBuilder {
+
+    /**
+     * <code>required uint64 sequence = 1;</code>
+     */
+    boolean hasSequence();
+    /**
+     * <code>required uint64 sequence = 1;</code>
+     */
+    long getSequence();
+
+    /**
+     * <code>required bytes key = 2;</code>
+     */
+    boolean hasKey();
+    /**
+     * <code>required bytes key = 2;</code>
+     */
+    com.google.protobuf.ByteString getKey();
+
+    /**
+     * <code>optional bytes revision = 3;</code>
+     *
+     * <pre>
+     * The revision which was added, absent if the key and all its revisions were deleted
+     * </pre>
+     */
+    boolean hasRevision();
+    /**
+     * <code>optional bytes revision = 3;</code>
+     *
+     * <pre>
+     * The revision which was added, absent if the key and all its revisions were deleted
+     * </pre>
+     */
+    com.google.protobuf.ByteString getRevision();
+  }
+  /**
+   * Protobuf type {@code nigori.Change}
+   *
+   * <pre>
+   * One change to a user's records, see GetChangesRequest
+   * </pre>
+   */
+  public static final class Change extends
+      com.google.protobuf.GeneratedMessage implements
+      // @@protoc_insertion_point(message_implements:nigori.Change)
+      ChangeOrBuilder {
+    // Use Change.newBuilder() to construct.
+    private Change(com.google.protobuf.GeneratedMessage.Builder<?> builder) {
+      super(builder);
+      this.unknownFields = builder.getUnknownFields();
+    }
+    private Change(boolean noInit) { this.unknownFields = com.google.protobuf.UnknownFieldSet.getDefaultInstance(); }
+
+    private static final Change defaultInstance;
+    public static Change getDefaultInstance() {
+      return defaultInstance;
+    }
+
+    public Change getDefaultInstanceForType() {
+      return defaultInstance;
+    }
+
+    private final com.google.protobuf.UnknownFieldSet unknownFields;
+    @java.lang.Override
+    public final com.google.protobuf.UnknownFieldSet
+        getUnknownFields() {
+      return this.unknownFields;
+    }
+    private Change(
+        com.google.protobuf.CodedInputStream input,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws com.google.protobuf.InvalidProtocolBufferException {
+      initFields();
+      int mutable_bitField0_ = 0;
+      com.google.protobuf.UnknownFieldSet.Builder unknownFields =
+          com.google.protobuf.UnknownFieldSet.newBuilder();
+      try {
+        boolean done = false;
+        while (!done) {
+          int tag = input.readTag();
+          switch (tag) {
+            case 0:
+              done = true;
+              break;
+            default: {
+              if (!parseUnknownField(input, unknownFields,
+                                     extensionRegistry, tag)) {
+                done = true;
+              }
+              break;
+            }
+            case 8: {
+              bitField0_ |= 0x00000001;
+              sequence_ = input.readUInt64();
+              break;
+            }
+            case 18: {
+              bitField0_ |= 0x00000002;
+              key_ = input.readBytes();
+              break;
+            }
+            case 26: {
+              bitField0_ |= 0x00000004;
+              revision_ = input.readBytes();
+              break;
+            }
+          }
+        }
+      } catch (com.google.protobuf.InvalidProtocolBufferException e) {
+        throw e.setUnfinishedMessage(this);
+      } catch (java.io.IOException e) {
+        throw new com.google.protobuf.InvalidProtocolBufferException(
+            e.getMessage()).setUnfinishedMessage(this);
+      } finally {
+        this.unknownFields = unknownFields.build();
+        makeExtensionsImmutable();
+      }
+    }
+    public static final com.google.protobuf.Descriptors.Descriptor
+        getDescriptor() {
+      return com.google.nigori.common.NigoriMessages.internal_static_nigori_Change_descriptor;
+    }
+
+    protected com.google.protobuf.GeneratedMessage.FieldAccessorTable
+        internalGetFieldAccessorTable() {
+      return com.google.nigori.common.NigoriMessages.internal_static_nigori_Change_fieldAccessorTable
+          .ensureFieldAccessorsInitialized(
+              com.google.nigori.common.NigoriMessages.Change.class, com.google.nigori.common.NigoriMessages.Change.Builder.class);
+    }
+
+    public static com.google.protobuf.Parser<Change> PARSER =
+        new com.google.protobuf.AbstractParser<Change>() {
+      public Change parsePartialFrom(
+          com.google.protobuf.CodedInputStream input,
+          com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+          throws com.google.protobuf.InvalidProtocolBufferException {
+        return new Change(input, extensionRegistry);
+      }
+    };
+
+    @java.lang.Override
+    public com.google.protobuf.Parser<Change> getParserForType() {
+      return PARSER;
+    }
+
+    private int bitField0_;
+    public static final int SEQUENCE_FIELD_NUMBER = 1;
+    private long sequence_;
+    /**
+     * <code>required uint64 sequence = 1;</code>
+     */
+    public boolean hasSequence() {
+      return ((bitField0_ & 0x00000001) == 0x00000001);
+    }
+    /**
+     * <code>required uint64 sequence = 1;</code>
+     */
+    public long getSequence() {
+      return sequence_;
+    }
+
+    public static final int KEY_FIELD_NUMBER = 2;
+    private com.google.protobuf.ByteString key_;
+    /**
+     * <code>required bytes key = 2;</code>
+     */
+    public boolean hasKey() {
+      return ((bitField0_ & 0x00000002) == 0x00000002);
+    }
+    /**
+     * <code>required bytes key = 2;</code>
+     */
+    public com.google.protobuf.ByteString getKey() {
+      return key_;
+    }
+
+    public static final int REVISION_FIELD_NUMBER = 3;
+    private com.google.protobuf.ByteString revision_;
+    /**
+     * <code>optional bytes revision = 3;</code>
+     *
+     * <pre>
+     * The revision which was added, absent if the key and all its revisions were deleted
+     * </pre>
+     */
+    public boolean hasRevision() {
+      return ((bitField0_ & 0x00000004) == 0x00000004);
+    }
+    /**
+     * <code>optional bytes revision = 3;</code>
+     *
+     * <pre>
+     * The revision which was added, absent if the key and all its revisions were deleted
+     * </pre>
+     */
+    public com.google.protobuf.ByteString getRevision() {
+      return revision_;
+    }
+
+    private void initFields() {
+      sequence_ = 0L;
+      key_ = com.google.protobuf.ByteString.EMPTY;
+      revision_ = com.google.protobuf.ByteString.EMPTY;
+    }
+    private byte memoizedIsInitialized = -1;
+    public final boolean isInitialized() {
+      byte isInitialized = memoizedIsInitialized;
+      if (isInitialized == 1) return true;
+      if (isInitialized == 0) return false;
+
+      if (!hasSequence()) {
+        memoizedIsInitialized = 0;
+        return false;
+      }
+      if (!hasKey()) {
+        memoizedIsInitialized = 0;
+        return false;
+      }
+      memoizedIsInitialized = 1;
+      return true;
+    }
+
+    public void writeTo(com.google.protobuf.CodedOutputStream output)
+                        throws java.io.IOException {
+      getSerializedSize();
+      if (((bitField0_ & 0x00000001) == 0x00000001)) {
+        output.writeUInt64(1, sequence_);
+      }
+      if (((bitField0_ & 0x00000002) == 0x00000002)) {
+        output.writeBytes(2, key_);
+      }
+      if (((bitField0_ & 0x00000004) == 0x00000004)) {
+        output.writeBytes(3, revision_);
+      }
+      getUnknownFields().writeTo(output);
+    }
+
+    private int memoizedSerializedSize = -1;
+    public int getSerializedSize() {
+      int size = memoizedSerializedSize;
+      if (size != -1) return size;
+
+      size = 0;
+      if (((bitField0_ & 0x00000001) == 0x00000001)) {
+        size += com.google.protobuf.CodedOutputStream
+          .computeUInt64Size(1, sequence_);
+      }
+      if (((bitField0_ & 0x00000002) == 0x00000002)) {
+        size += com.google.protobuf.CodedOutputStream
+          .computeBytesSize(2, key_);
+      }
+      if (((bitField0_ & 0x00000004) == 0x00000004)) {
+        size += com.google.protobuf.CodedOutputStream
+          .computeBytesSize(3, revision_);
+      }
+      size += getUnknownFields().getSerializedSize();
+      memoizedSerializedSize = size;
+      return size;
+    }
+
+    private static final long serialVersionUID = 0L;
+    @java.lang.Override
+    protected java.lang.Object writeReplace()
+        throws java.io.ObjectStreamException {
+      return super.writeReplace();
+    }
+
+    public static com.google.nigori.common.NigoriMessages.Change parseFrom(
+        com.google.protobuf.ByteString data)
+        throws com.google.protobuf.InvalidProtocolBufferException {
+      return PARSER.parseFrom(data);
+    }
+    public static com.google.nigori.common.NigoriMessages.Change parseFrom(
+        com.google.protobuf.ByteString data,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws com.google.protobuf.InvalidProtocolBufferException {
+      return PARSER.parseFrom(data, extensionRegistry);
+    }
+    public static com.google.nigori.common.NigoriMessages.Change parseFrom(byte[] data)
+        throws com.google.protobuf.InvalidProtocolBufferException {
+      return PARSER.parseFrom(data);
+    }
+    public static com.google.nigori.common.NigoriMessages.Change parseFrom(
+        byte[] data,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws com.google.protobuf.InvalidProtocolBufferException {
+      return PARSER.parseFrom(data, extensionRegistry);
+    }
+    public static com.google.nigori.common.NigoriMessages.Change parseFrom(java.io.InputStream input)
+        throws java.io.IOException {
+      return PARSER.parseFrom(input);
+    }
+    public static com.google.nigori.common.NigoriMessages.Change parseFrom(
+        java.io.InputStream input,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws java.io.IOException {
+      return PARSER.parseFrom(input, extensionRegistry);
+    }
+    public static com.google.nigori.common.NigoriMessages.Change parseDelimitedFrom(java.io.InputStream input)
+        throws java.io.IOException {
+      return PARSER.parseDelimitedFrom(input);
+    }
+    public static com.google.nigori.common.NigoriMessages.Change parseDelimitedFrom(
+        java.io.InputStream input,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws java.io.IOException {
+      return PARSER.parseDelimitedFrom(input, extensionRegistry);
+    }
+    public static com.google.nigori.common.NigoriMessages.Change parseFrom(
+        com.google.protobuf.CodedInputStream input)
+        throws java.io.IOException {
+      return PARSER.parseFrom(input);
+    }
+    public static com.google.nigori.common.NigoriMessages.Change parseFrom(
+        com.google.protobuf.CodedInputStream input,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws java.io.IOException {
+      return PARSER.parseFrom(input, extensionRegistry);
+    }
+
+    public static Builder newBuilder() { return Builder.create(); }
+    public Builder newBuilderForType() { return newBuilder(); }
+    public static Builder newBuilder(com.google.nigori.common.NigoriMessages.Change prototype) {
+      return newBuilder().mergeFrom(prototype);
+    }
+    public Builder toBuilder() { return newBuilder(this); }
+
+    @java.lang.Override
+    protected Builder newBuilderForType(
+        com.google.protobuf.GeneratedMessage.BuilderParent parent) {
+      Builder builder = new Builder(parent);
+      return builder;
+    }
+    /**
+     * Protobuf type {@code nigori.Change}
+     *
+     * <pre>
+     * One change to a user's records, see GetChangesRequest
+     * </pre>
+     */
+    public static final class Builder extends
+        com.google.protobuf.GeneratedMessage.Builder<Builder> implements
+        // @@protoc_insertion_point(builder_implements:nigori.Change)
+        com.google.nigori.common.NigoriMessages.ChangeOrBuilder {
+      public static final com.google.protobuf.Descriptors.Descriptor
+          getDescriptor() {
+        return com.google.nigori.common.NigoriMessages.internal_static_nigori_Change_descriptor;
+      }
+
+      protected com.google.protobuf.GeneratedMessage.FieldAccessorTable
+          internalGetFieldAccessorTable() {
+        return com.google.nigori.common.NigoriMessages.internal_static_nigori_Change_fieldAccessorTable
+            .ensureFieldAccessorsInitialized(
+                com.google.nigori.common.NigoriMessages.Change.class, com.google.nigori.common.NigoriMessages.Change.Builder.class);
+      }
+
+      // Construct using com.google.nigori.common.NigoriMessages.Change.newBuilder()
+      private Builder() {
+        maybeForceBuilderInitialization();
+      }
+
+      private Builder(
+          com.google.protobuf.GeneratedMessage.BuilderParent parent) {
+        super(parent);
+        maybeForceBuilderInitialization();
+      }
+      private void maybeForceBuilderInitialization() {
+        if (com.google.protobuf.GeneratedMessage.alwaysUseFieldBuilders) {
+        }
+      }
+      private static Builder create() {
+        return new Builder();
+      }
+
+      public Builder clear() {
+        super.clear();
+        sequence_ = 0L;
+        bitField0_ = (bitField0_ & ~0x00000001);
+        key_ = com.google.protobuf.ByteString.EMPTY;
+        bitField0_ = (bitField0_ & ~0x00000002);
+        revision_ = com.google.protobuf.ByteString.EMPTY;
+        bitField0_ = (bitField0_ & ~0x00000004);
+        return this;
+      }
+
+      public Builder clone() {
+        return create().mergeFrom(buildPartial());
+      }
+
+      public com.google.protobuf.Descriptors.Descriptor
+          getDescriptorForType() {
+        return com.google.nigori.common.NigoriMessages.internal_static_nigori_Change_descriptor;
+      }
+
+      public com.google.nigori.common.NigoriMessages.Change getDefaultInstanceForType() {
+        return com.google.nigori.common.NigoriMessages.Change.getDefaultInstance();
+      }
+
+      public com.google.nigori.common.NigoriMessages.Change build() {
+        com.google.nigori.common.NigoriMessages.Change result = buildPartial();
+        if (!result.isInitialized()) {
+          throw newUninitializedMessageException(result);
+        }
+        return result;
+      }
+
+      public com.google.nigori.common.NigoriMessages.Change buildPartial() {
+        com.google.nigori.common.NigoriMessages.Change result = new com.google.nigori.common.NigoriMessages.Change(this);
+        int from_bitField0_ = bitField0_;
+        int to_bitField0_ = 0;
+        if (((from_bitField0_ & 0x00000001) == 0x00000001)) {
+          to_bitField0_ |= 0x00000001;
+        }
+        result.sequence_ = sequence_;
+        if (((from_bitField0_ & 0x00000002) == 0x00000002)) {
+          to_bitField0_ |= 0x00000002;
+        }
+        result.key_ = key_;
+        if (((from_bitField0_ & 0x00000004) == 0x00000004)) {
+          to_bitField0_ |= 0x00000004;
+        }
+        result.revision_ = revision_;
+        result.bitField0_ = to_bitField0_;
+        onBuilt();
+        return result;
+      }
+
+      public Builder mergeFrom(com.google.protobuf.Message other) {
+        if (other instanceof com.google.nigori.common.NigoriMessages.Change) {
+          return mergeFrom((com.google.nigori.common.NigoriMessages.Change)other);
+        } else {
+          super.mergeFrom(other);
+          return this;
+        }
+      }
+
+      public Builder mergeFrom(com.google.nigori.common.NigoriMessages.Change other) {
+        if (other == com.google.nigori.common.NigoriMessages.Change.getDefaultInstance()) return this;
+        if (other.hasSequence()) {
+          setSequence(other.getSequence());
+        }
+        if (other.hasKey()) {
+          setKey(other.getKey());
+        }
+        if (other.hasRevision()) {
+          setRevision(other.getRevision());
+        }
+        this.mergeUnknownFields(other.getUnknownFields());
+        return this;
+      }
+
+      public final boolean isInitialized() {
+        if (!hasSequence()) {
+          
+          return false;
+        }
+        if (!hasKey()) {
+          
+          return false;
+        }
+        return true;
+      }
+
+      public Builder mergeFrom(
+          com.google.protobuf.CodedInputStream input,
+          com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+          throws java.io.IOException {
+        com.google.nigori.common.NigoriMessages.Change parsedMessage = null;
+        try {
+          parsedMessage = PARSER.parsePartialFrom(input, extensionRegistry);
+        } catch (com.google.protobuf.InvalidProtocolBufferException e) {
+          parsedMessage = (com.google.nigori.common.NigoriMessages.Change) e.getUnfinishedMessage();
+          throw e;
+        } finally {
+          if (parsedMessage != null) {
+            mergeFrom(parsedMessage);
+          }
+        }
+        return this;
+      }
+      private int bitField0_;
+
+      private long sequence_ ;
+      /**
+       * <code>required uint64 sequence = 1;</code>
+       */
+      public boolean hasSequence() {
+        return ((bitField0_ & 0x00000001) == 0x00000001);
+      }
+      /**
+       * <code>required uint64 sequence = 1;</code>
+       */
+      public long getSequence() {
+        return sequence_;
+      }
+      /**
+       * <code>required uint64 sequence = 1;</code>
+       */
+      public Builder setSequence(long value) {
+        bitField0_ |= 0x00000001;
+        sequence_ = value;
+        onChanged();
+        return this;
+      }
+      /**
+       * <code>required uint64 sequence = 1;</code>
+       */
+      public Builder clearSequence() {
+        bitField0_ = (bitField0_ & ~0x00000001);
+        sequence_ = 0L;
+        onChanged();
+        return this;
+      }
+
+      private com.google.protobuf.ByteString key_ = com.google.protobuf.ByteString.EMPTY;
+      /**
+       * <code>required bytes key = 2;</code>
+       */
+      public boolean hasKey() {
+        return ((bitField0_ & 0x00000002) == 0x00000002);
+      }
+      /**
+       * <code>required bytes key = 2;</code>
+       */
+      public com.google.protobuf.ByteString getKey() {
+        return key_;
+      }
+      /**
+       * <code>required bytes key = 2;</code>
+       */
+      public Builder setKey(com.google.protobuf.ByteString value) {
+        if (value == null) {
+    throw new NullPointerException();
+  }
+  bitField0_ |= 0x00000002;
+        key_ = value;
+        onChanged();
+        return this;
+      }
+      /**
+       * <code>required bytes key = 2;</code>
+       */
+      public Builder clearKey() {
+        bitField0_ = (bitField0_ & ~0x00000002);
+        key_ = getDefaultInstance().getKey();
+        onChanged();
+        return this;
+      }
+
+      private com.google.protobuf.ByteString revision_ = com.google.protobuf.ByteString.EMPTY;
+      /**
+       * <code>optional bytes revision = 3;</code>
+       *
+       * <pre>
+       * The revision which was added, absent if the key and all its revisions were deleted
+       * </pre>
+       */
+      public boolean hasRevision() {
+        return ((bitField0_ & 0x00000004) == 0x00000004);
+      }
+      /**
+       * <code>optional bytes revision = 3;</code>
+       *
+       * <pre>
+       * The revision which was added, absent if the key and all its revisions were deleted
+       * </pre>
+       */
+      public com.google.protobuf.ByteString getRevision() {
+        return revision_;
+      }
+      /**
+       * <code>optional bytes revision = 3;</code>
+       *
+       * <pre>
+       * The revision which was added, absent if the key and all its revisions were deleted
+       * </pre>
+       */
+      public Builder setRevision(com.google.protobuf.ByteString value) {
+        if (value == null) {
+    throw new NullPointerException();
+  }
+  bitField0_ |= 0x00000004;
+        revision_ = value;
+        onChanged();
+        return this;
+      }
+      /**
+       * <code>optional bytes revision = 3;</code>
+       *
+       * <pre>
+       * The revision which was added, absent if the key and all its revisions were deleted
+       * </pre>
+       */
+      public Builder clearRevision() {
+        bitField0_ = (bitField0_ & ~0x00000004);
+        revision_ = getDefaultInstance().getRevision();
+        onChanged();
+        return this;
+      }
+
+      // @@protoc_insertion_point(builder_scope:nigori.Change)
+    }
+
+    static {
+      defaultInstance = new Change(true);
+      defaultInstance.initFields();
+    }
+
+    // @@protoc_insertion_point(class_scope:nigori.Change)
+  }
+
+  public interface GetChangesRequestOrBuilder extends
+      // @@protoc_insertion_point(interface_extends:nigori.GetChangesRequest)
+      com.google.protobuf.MessageOrBuilder {
+
+    /**
+     * <code>required .nigori.AuthenticateRequest auth = 1;</code>
+     */
+    boolean hasAuth();
+    /**
+     * <code>required .nigori.AuthenticateRequest auth = 1;</code>
+     */
+    com.google.nigori.common.NigoriMessages.AuthenticateRequest getAuth();
+    /**
+     * <code>required .nigori.AuthenticateRequest auth = 1;</code>
+     */
+    com.google.nigori.common.NigoriMessages.AuthenticateRequestOrBuilder getAuthOrBuilder();
+
+    /**
+     * <code>required uint64 since_sequence = 2;</code>
+     *
+     * <pre>
+     * 0 for all changes
+     * </pre>
+     */
+    boolean hasSinceSequence();
+    /**
+     * <code>required uint64 since_sequence = 2;</code>
+     *
+     * <pre>
+     * 0 for all changes
+     * </pre>
+     */
+    long getSinceSequence();
+
+    /**
+     * <code>required uint32 limit = 3;</code>
+     *
+     * <pre>
+     * Maximum number of changes to return, the server may return fewer. 0 returns only the current
+     * sequence number.
+     * </pre>
+     */
+    boolean hasLimit();
+    /**
+     * <code>required uint32 limit = 3;</code>
+     *
+     * <pre>
+     * Maximum number of changes to return, the server may return fewer. 0 returns only the current
+     * sequence number.
+     * </pre>
+     */
+    int getLimit();
+  }
+  /**
+   * Protobuf type {@code nigori.GetChangesRequest}
+   *
+   * <pre>
+   * Get the changes made to the user's records after since_sequence, in the order they were made, so
+   * that a client only needs to sync what has changed since it last synced.
+   * </pre>
+   */
+  public static final class GetChangesRequest extends
+      com.google.protobuf.GeneratedMessage implements
+      // @@protoc_insertion_point(message_implements:nigori.GetChangesRequest)
+      GetChangesRequestOrBuilder {
+    // Use GetChangesRequest.newBuilder() to construct.
+    private GetChangesRequest(com.google.protobuf.GeneratedMessage.Builder<?> builder) {
+      super(builder);
+      this.unknownFields = builder.getUnknownFields();
+    }
+    private GetChangesRequest(boolean noInit) { this.unknownFields = com.google.protobuf.UnknownFieldSet.getDefaultInstance(); }
+
+    private static final GetChangesRequest defaultInstance;
+    public static GetChangesRequest getDefaultInstance() {
+      return defaultInstance;
+    }
+
+    public GetChangesRequest getDefaultInstanceForType() {
+      return defaultInstance;
+    }
+
+    private final com.google.protobuf.UnknownFieldSet unknownFields;
+    @java.lang.Override
+    public final com.google.protobuf.UnknownFieldSet
+        getUnknownFields() {
+      return this.unknownFields;
+    }
+    private GetChangesRequest(
+        com.google.protobuf.CodedInputStream input,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws com.google.protobuf.InvalidProtocolBufferException {
+      initFields();
+      int mutable_bitField0_ = 0;
+      com.google.protobuf.UnknownFieldSet.Builder unknownFields =
+          com.google.protobuf.UnknownFieldSet.newBuilder();
+      try {
+        boolean done = false;
+        while (!done) {
+          int tag = input.readTag();
+          switch (tag) {
+            case 0:
+              done = true;
+              break;
+            default: {
+              if (!parseUnknownField(input, unknownFields,
+                                     extensionRegistry, tag)) {
+                done = true;
+              }
+              break;
+            }
+            case 10: {
+              com.google.nigori.common.NigoriMessages.AuthenticateRequest.Builder subBuilder = null;
+              if (((bitField0_ & 0x00000001) == 0x00000001)) {
+                subBuilder = auth_.toBuilder();
+              }
+              auth_ = input.readMessage(com.google.nigori.common.NigoriMessages.AuthenticateRequest.PARSER, extensionRegistry);
+              if (subBuilder != null) {
+                subBuilder.mergeFrom(auth_);
+                auth_ = subBuilder.buildPartial();
+              }
+              bitField0_ |= 0x00000001;
+              break;
+            }
+            case 16: {
+              bitField0_ |= 0x00000002;
+              sinceSequence_ = input.readUInt64();
+              break;
+            }
+            case 24: {
+              bitField0_ |= 0x00000004;
+              limit_ = input.readUInt32();
+              break;
+            }
+          }
+        }
+      } catch (com.google.protobuf.InvalidProtocolBufferException e) {
+        throw e.setUnfinishedMessage(this);
+      } catch (java.io.IOException e) {
+        throw new com.google.protobuf.InvalidProtocolBufferException(
+            e.getMessage()).setUnfinishedMessage(this);
+      } finally {
+        this.unknownFields = unknownFields.build();
+        makeExtensionsImmutable();
+      }
+    }
+    public static final com.google.protobuf.Descriptors.Descriptor
+        getDescriptor() {
+      return com.google.nigori.common.NigoriMessages.internal_static_nigori_GetChangesRequest_descriptor;
+    }
+
+    protected com.google.protobuf.GeneratedMessage.FieldAccessorTable
+        internalGetFieldAccessorTable() {
+      return com.google.nigori.common.NigoriMessages.internal_static_nigori_GetChangesRequest_fieldAccessorTable
+          .ensureFieldAccessorsInitialized(
+              com.google.nigori.common.NigoriMessages.GetChangesRequest.class, com.google.nigori.common.NigoriMessages.GetChangesRequest.Builder.class);
+    }
+
+    public static com.google.protobuf.Parser<GetChangesRequest> PARSER =
+        new com.google.protobuf.AbstractParser<GetChangesRequest>() {
+      public GetChangesRequest parsePartialFrom(
+          com.google.protobuf.CodedInputStream input,
+          com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+          throws com.google.protobuf.InvalidProtocolBufferException {
+        return new GetChangesRequest(input, extensionRegistry);
+      }
+    };
+
+    @java.lang.Override
+    public com.google.protobuf.Parser<GetChangesRequest> getParserForType() {
+      return PARSER;
+    }
+
+    private int bitField0_;
+    public static final int AUTH_FIELD_NUMBER = 1;
+    private com.google.nigori.common.NigoriMessages.AuthenticateRequest auth_;
+    /**
+     * <code>required .nigori.AuthenticateRequest auth = 1;</code>
+     */
+    public boolean hasAuth() {
+      return ((bitField0_ & 0x00000001) == 0x00000001);
+    }
+    /**
+     * <code>required .nigori.AuthenticateRequest auth = 1;</code>
+     */
+    public com.google.nigori.common.NigoriMessages.AuthenticateRequest getAuth() {
+      return auth_;
+    }
+    /**
+     * <code>required .nigori.AuthenticateRequest auth = 1;</code>
+     */
+    public com.google.nigori.common.NigoriMessages.AuthenticateRequestOrBuilder getAuthOrBuilder() {
+      return auth_;
+    }
+
+    public static final int SINCE_SEQUENCE_FIELD_NUMBER = 2;
+    private long sinceSequence_;
+    /**
+     * <code>required uint64 since_sequence = 2;</code>
+     *
+     * <pre>
+     * 0 for all changes
+     * </pre>
+     */
+    public boolean hasSinceSequence() {
+      return ((bitField0_ & 0x00000002) == 0x00000002);
+    }
+    /**
+     * <code>required uint64 since_sequence = 2;</code>
+     *
+     * <pre>
+     * 0 for all changes
+     * </pre>
+     */
+    public long getSinceSequence() {
+      return sinceSequence_;
+    }
+
+    public static final int LIMIT_FIELD_NUMBER = 3;
+    private int limit_;
+    /**
+     * <code>required uint32 limit = 3;</code>
+     *
+     * <pre>
+     * Maximum number of changes to return, the server may return fewer. 0 returns only the current
+     * sequence number.
+     * </pre>
+     */
+    public boolean hasLimit() {
+      return ((bitField0_ & 0x00000004) == 0x00000004);
+    }
+    /**
+     * <code>required uint32 limit = 3;</code>
+     *
+     * <pre>
+     * Maximum number of changes to return, the server may return fewer. 0 returns only the current
+     * sequence number.
+     * </pre>
+     */
+    public int getLimit() {
+      return limit_;
+    }
+
+    private void initFields() {
+      auth_ = com.google.nigori.common.NigoriMessages.AuthenticateRequest.getDefaultInstance();
+      sinceSequence_ = 0L;
+      limit_ = 0;
+    }
+    private byte memoizedIsInitialized = -1;
+    public final boolean isInitialized() {
+      byte isInitialized = memoizedIsInitialized;
+      if (isInitialized == 1) return true;
+      if (isInitialized == 0) return false;
+
+      if (!hasAuth()) {
+        memoizedIsInitialized = 0;
+        return false;
+      }
+      if (!hasSinceSequence()) {
+        memoizedIsInitialized = 0;
+        return false;
+      }
+      if (!hasLimit()) {
+        memoizedIsInitialized = 0;
+        return false;
+      }
+      if (!getAuth().isInitialized()) {
+        memoizedIsInitialized = 0;
+        return false;
+      }
+      memoizedIsInitialized = 1;
+      return true;
+    }
+
+    public void writeTo(com.google.protobuf.CodedOutputStream output)
+                        throws java.io.IOException {
+      getSerializedSize();
+      if (((bitField0_ & 0x00000001) == 0x00000001)) {
+        output.writeMessage(1, auth_);
+      }
+      if (((bitField0_ & 0x00000002) == 0x00000002)) {
+        output.writeUInt64(2, sinceSequence_);
+      }
+      if (((bitField0_ & 0x00000004) == 0x00000004)) {
+        output.writeUInt32(3, limit_);
+      }
+      getUnknownFields().writeTo(output);
+    }
+
+    private int memoizedSerializedSize = -1;
+    public int getSerializedSize() {
+      int size = memoizedSerializedSize;
+      if (size != -1) return size;
+
+      size = 0;
+      if (((bitField0_ & 0x00000001) == 0x00000001)) {
+        size += com.google.protobuf.CodedOutputStream
+          .computeMessageSize(1, auth_);
+      }
+      if (((bitField0_ & 0x00000002) == 0x00000002)) {
+        size += com.google.protobuf.CodedOutputStream
+          .computeUInt64Size(2, sinceSequence_);
+      }
+      if (((bitField0_ & 0x00000004) == 0x00000004)) {
+        size += com.google.protobuf.CodedOutputStream
+          .computeUInt32Size(3, limit_);
+      }
+      size += getUnknownFields().getSerializedSize();
+      memoizedSerializedSize = size;
+      return size;
+    }
+
+    private static final long serialVersionUID = 0L;
+    @java.lang.Override
+    protected java.lang.Object writeReplace()
+        throws java.io.ObjectStreamException {
+      return super.writeReplace();
+    }
+
+    public static com.google.nigori.common.NigoriMessages.GetChangesRequest parseFrom(
+        com.google.protobuf.ByteString data)
+        throws com.google.protobuf.InvalidProtocolBufferException {
+      return PARSER.parseFrom(data);
+    }
+    public static com.google.nigori.common.NigoriMessages.GetChangesRequest parseFrom(
+        com.google.protobuf.ByteString data,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws com.google.protobuf.InvalidProtocolBufferException {
+      return PARSER.parseFrom(data, extensionRegistry);
+    }
+    public static com.google.nigori.common.NigoriMessages.GetChangesRequest parseFrom(byte[] data)
+        throws com.google.protobuf.InvalidProtocolBufferException {
+      return PARSER.parseFrom(data);
+    }
+    public static com.google.nigori.common.NigoriMessages.GetChangesRequest parseFrom(
+        byte[] data,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws com.google.protobuf.InvalidProtocolBufferException {
+      return PARSER.parseFrom(data, extensionRegistry);
+    }
+    public static com.google.nigori.common.NigoriMessages.GetChangesRequest parseFrom(java.io.InputStream input)
+        throws java.io.IOException {
+      return PARSER.parseFrom(input);
+    }
+    public static com.google.nigori.common.NigoriMessages.GetChangesRequest parseFrom(
+        java.io.InputStream input,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws java.io.IOException {
+      return PARSER.parseFrom(input, extensionRegistry);
+    }
+    public static com.google.nigori.common.NigoriMessages.GetChangesRequest parseDelimitedFrom(java.io.InputStream input)
+        throws java.io.IOException {
+      return PARSER.parseDelimitedFrom(input);
+    }
+    public static com.google.nigori.common.NigoriMessages.GetChangesRequest parseDelimitedFrom(
+        java.io.InputStream input,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws java.io.IOException {
+      return PARSER.parseDelimitedFrom(input, extensionRegistry);
+    }
+    public static com.google.nigori.common.NigoriMessages.GetChangesRequest parseFrom(
+        com.google.protobuf.CodedInputStream input)
+        throws java.io.IOException {
+      return PARSER.parseFrom(input);
+    }
+    public static com.google.nigori.common.NigoriMessages.GetChangesRequest parseFrom(
+        com.google.protobuf.CodedInputStream input,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws java.io.IOException {
+      return PARSER.parseFrom(input, extensionRegistry);
+    }
+
+    public static Builder newBuilder() { return Builder.create(); }
+    public Builder newBuilderForType() { return newBuilder(); }
+    public static Builder newBuilder(com.google.nigori.common.NigoriMessages.GetChangesRequest prototype) {
+      return newBuilder().mergeFrom(prototype);
+    }
+    public Builder toBuilder() { return newBuilder(this); }
+
+    @java.lang.Override
+    protected Builder newBuilderForType(
+        com.google.protobuf.GeneratedMessage.BuilderParent parent) {
+      Builder builder = new Builder(parent);
+      return builder;
+    }
+    /**
+     * Protobuf type {@code nigori.GetChangesRequest}
+     *
+     * <pre>
+     * Get the changes made to the user's records after since_sequence, in the order they were made, so
+     * that a client only needs to sync what has changed since it last synced.
+     * </pre>
+     */
+    public static final class Builder extends
+        com.google.protobuf.GeneratedMessage.Builder<Builder> implements
+        // @@protoc_insertion_point(builder_implements:nigori.GetChangesRequest)
+        com.google.nigori.common.NigoriMessages.GetChangesRequestOrBuilder {
+      public static final com.google.protobuf.Descriptors.Descriptor
+          getDescriptor() {
+        return com.google.nigori.common.NigoriMessages.internal_static_nigori_GetChangesRequest_descriptor;
+      }
+
+      protected com.google.protobuf.GeneratedMessage.FieldAccessorTable
+          internalGetFieldAccessorTable() {
+        return com.google.nigori.common.NigoriMessages.internal_static_nigori_GetChangesRequest_fieldAccessorTable
+            .ensureFieldAccessorsInitialized(
+                com.google.nigori.common.NigoriMessages.GetChangesRequest.class, com.google.nigori.common.NigoriMessages.GetChangesRequest.Builder.class);
+      }
+
+      // Construct using com.google.nigori.common.NigoriMessages.GetChangesRequest.newBuilder()
+      private Builder() {
+        maybeForceBuilderInitialization();
+      }
+
+      private Builder(
+          com.google.protobuf.GeneratedMessage.BuilderParent parent) {
+        super(parent);
+        maybeForceBuilderInitialization();
+      }
+      private void maybeForceBuilderInitialization() {
+        if (com.google.protobuf.GeneratedMessage.alwaysUseFieldBuilders) {
+          getAuthFieldBuilder();
+        }
+      }
+      private static Builder create() {
+        return new Builder();
+      }
+
+      public Builder clear() {
+        super.clear();
+        if (authBuilder_ == null) {
+          auth_ = com.google.nigori.common.NigoriMessages.AuthenticateRequest.getDefaultInstance();
+        } else {
+          authBuilder_.clear();
+        }
+        bitField0_ = (bitField0_ & ~0x00000001);
+        sinceSequence_ = 0L;
+        bitField0_ = (bitField0_ & ~0x00000002);
+        limit_ = 0;
+        bitField0_ = (bitField0_ & ~0x00000004);
+        return this;
+      }
+
+      public Builder clone() {
+        return create().mergeFrom(buildPartial());
+      }
+
+      public com.google.protobuf.Descriptors.Descriptor
+          getDescriptorForType() {
+        return com.google.nigori.common.NigoriMessages.internal_static_nigori_GetChangesRequest_descriptor;
+      }
+
+      public com.google.nigori.common.NigoriMessages.GetChangesRequest getDefaultInstanceForType() {
+        return com.google.nigori.common.NigoriMessages.GetChangesRequest.getDefaultInstance();
+      }
+
+      public com.google.nigori.common.NigoriMessages.GetChangesRequest build() {
+        com.google.nigori.common.NigoriMessages.GetChangesRequest result = buildPartial();
+        if (!result.isInitialized()) {
+          throw newUninitializedMessageException(result);
+        }
+        return result;
+      }
+
+      public com.google.nigori.common.NigoriMessages.GetChangesRequest buildPartial() {
+        com.google.nigori.common.NigoriMessages.GetChangesRequest result = new com.google.nigori.common.NigoriMessages.GetChangesRequest(this);
+        int from_bitField0_ = bitField0_;
+        int to_bitField0_ = 0;
+        if (((from_bitField0_ & 0x00000001) == 0x00000001)) {
+          to_bitField0_ |= 0x00000001;
+        }
+        if (authBuilder_ == null) {
+          result.auth_ = auth_;
+        } else {
+          result.auth_ = authBuilder_.build();
+        }
+        if (((from_bitField0_ & 0x00000002) == 0x00000002)) {
+          to_bitField0_ |= 0x00000002;
+        }
+        result.sinceSequence_ = sinceSequence_;
+        if (((from_bitField0_ & 0x00000004) == 0x00000004)) {
+          to_bitField0_ |= 0x00000004;
+        }
+        result.limit_ = limit_;
+        result.bitField0_ = to_bitField0_;
+        onBuilt();
+        return result;
+      }
+
+      public Builder mergeFrom(com.google.protobuf.Message other) {
+        if (other instanceof com.google.nigori.common.NigoriMessages.GetChangesRequest) {
+          return mergeFrom((com.google.nigori.common.NigoriMessages.GetChangesRequest)other);
+        } else {
+          super.mergeFrom(other);
+          return this;
+        }
+      }
+
+      public Builder mergeFrom(com.google.nigori.common.NigoriMessages.GetChangesRequest other) {
+        if (other == com.google.nigori.common.NigoriMessages.GetChangesRequest.getDefaultInstance()) return this;
+        if (other.hasAuth()) {
+          mergeAuth(other.getAuth());
+        }
+        if (other.hasSinceSequence()) {
+          setSinceSequence(other.getSinceSequence());
+        }
+        if (other.hasLimit()) {
+          setLimit(other.getLimit());
+        }
+        this.mergeUnknownFields(other.getUnknownFields());
+        return this;
+      }
+
+      public final boolean isInitialized() {
+        if (!hasAuth()) {
+          
+          return false;
+        }
+        if (!hasSinceSequence()) {
+          
+          return false;
+        }
+        if (!hasLimit()) {
+          
+          return false;
+        }
+        if (!getAuth().isInitialized()) {
+          
+          return false;
+        }
+        return true;
+      }
+
+      public Builder mergeFrom(
+          com.google.protobuf.CodedInputStream input,
+          com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+          throws java.io.IOException {
+        com.google.nigori.common.NigoriMessages.GetChangesRequest parsedMessage = null;
+        try {
+          parsedMessage = PARSER.parsePartialFrom(input, extensionRegistry);
+        } catch (com.google.protobuf.InvalidProtocolBufferException e) {
+          parsedMessage = (com.google.nigori.common.NigoriMessages.GetChangesRequest) e.getUnfinishedMessage();
+          throw e;
+        } finally {
+          if (parsedMessage != null) {
+            mergeFrom(parsedMessage);
+          }
+        }
+        return this;
+      }
+      private int bitField0_;
+
+      private com.google.nigori.common.NigoriMessages.AuthenticateRequest auth_ = com.google.nigori.common.NigoriMessages.AuthenticateRequest.getDefaultInstance();
+      private com.google.protobuf.SingleFieldBuilder<
+          com.google.nigori.common.NigoriMessages.AuthenticateRequest, com.google.nigori.common.NigoriMessages.AuthenticateRequest.Builder, com.google.nigori.common.NigoriMessages.AuthenticateRequestOrBuilder> authBuilder_;
+      /**
+       * <code>required .nigori.AuthenticateRequest auth = 1;</code>
+       */
+      public boolean hasAuth() {
+        return ((bitField0_ & 0x00000001) == 0x00000001);
+      }
+      /**
+       * <code>required .nigori.AuthenticateRequest auth = 1;</code>
+       */
+      public com.google.nigori.common.NigoriMessages.AuthenticateRequest getAuth() {
+        if (authBuilder_ == null) {
+          return auth_;
+        } else {
+          return authBuilder_.getMessage();
+        }
+      }
+      /**
+       * <code>required .nigori.AuthenticateRequest auth = 1;</code>
+       */
+      public Builder setAuth(com.google.nigori.common.NigoriMessages.AuthenticateRequest value) {
+        if (authBuilder_ == null) {
+          if (value == null) {
+            throw new NullPointerException();
+          }
+          auth_ = value;
+          onChanged();
+        } else {
+          authBuilder_.setMessage(value);
+        }
+        bitField0_ |= 0x00000001;
+        return this;
+      }
+      /**
+       * <code>required .nigori.AuthenticateRequest auth = 1;</code>
+       */
+      public Builder setAuth(
+          com.google.nigori.common.NigoriMessages.AuthenticateRequest.Builder builderForValue) {
+        if (authBuilder_ == null) {
+          auth_ = builderForValue.build();
+          onChanged();
+        } else {
+          authBuilder_.setMessage(builderForValue.build());
+        }
+        bitField0_ |= 0x00000001;
+        return this;
+      }
+      /**
+       * <code>required .nigori.AuthenticateRequest auth = 1;</code>
+       */
+      public Builder mergeAuth(com.google.nigori.common.NigoriMessages.AuthenticateRequest value) {
+        if (authBuilder_ == null) {
+          if (((bitField0_ & 0x00000001) == 0x00000001) &&
+              auth_ != com.google.nigori.common.NigoriMessages.AuthenticateRequest.getDefaultInstance()) {
+            auth_ =
+              com.google.nigori.common.NigoriMessages.AuthenticateRequest.newBuilder(auth_).mergeFrom(value).buildPartial();
+          } else {
+            auth_ = value;
+          }
+          onChanged();
+        } else {
+          authBuilder_.mergeFrom(value);
+        }
+        bitField0_ |= 0x00000001;
+        return this;
+      }
+      /**
+       * <code>required .nigori.AuthenticateRequest auth = 1;</code>
+       */
+      public Builder clearAuth() {
+        if (authBuilder_ == null) {
+          auth_ = com.google.nigori.common.NigoriMessages.AuthenticateRequest.getDefaultInstance();
+          onChanged();
+        } else {
+          authBuilder_.clear();
+        }
+        bitField0_ = (bitField0_ & ~0x00000001);
+        return this;
+      }
+      /**
+       * <code>required .nigori.AuthenticateRequest auth = 1;</code>
+       */
+      public com.google.nigori.common.NigoriMessages.AuthenticateRequest.Builder getAuthBuilder() {
+        bitField0_ |= 0x00000001;
+        onChanged();
+        return getAuthFieldBuilder().getBuilder();
+      }
+      /**
+       * <code>required .nigori.AuthenticateRequest auth = 1;</code>
+       */
+      public com.google.nigori.common.NigoriMessages.AuthenticateRequestOrBuilder getAuthOrBuilder() {
+        if (authBuilder_ != null) {
+          return authBuilder_.getMessageOrBuilder();
+        } else {
+          return auth_;
+        }
+      }
+      /**
+       * <code>required .nigori.AuthenticateRequest auth = 1;</code>
+       */
+      private com.google.protobuf.SingleFieldBuilder<
+          com.google.nigori.common.NigoriMessages.AuthenticateRequest, com.google.nigori.common.NigoriMessages.AuthenticateRequest.Builder, com.google.nigori.common.NigoriMessages.AuthenticateRequestOrBuilder> 
+          getAuthFieldBuilder() {
+        if (authBuilder_ == null) {
+          authBuilder_ = new com.google.protobuf.SingleFieldBuilder<
+              com.google.nigori.common.NigoriMessages.AuthenticateRequest, com.google.nigori.common.NigoriMessages.AuthenticateRequest.Builder, com.google.nigori.common.NigoriMessages.AuthenticateRequestOrBuilder>(
+                  getAuth(),
+                  getParentForChildren(),
+                  isClean());
+          auth_ = null;
+        }
+        return authBuilder_;
+      }
+
+      private long sinceSequence_ ;
+      /**
+       * <code>required uint64 since_sequence = 2;</code>
+       *
+       * <pre>
+       * 0 for all changes
+       * </pre>
+       */
+      public boolean hasSinceSequence() {
+        return ((bitField0_ & 0x00000002) == 0x00000002);
+      }
+      /**
+       * <code>required uint64 since_sequence = 2;</code>
+       *
+       * <pre>
+       * 0 for all changes
+       * </pre>
+       */
+      public long getSinceSequence() {
+        return sinceSequence_;
+      }
+      /**
+       * <code>required uint64 since_sequence = 2;</code>
+       *
+       * <pre>
+       * 0 for all changes
+       * </pre>
+       */
+      public Builder setSinceSequence(long value) {
+        bitField0_ |= 0x00000002;
+        sinceSequence_ = value;
+        onChanged();
+        return this;
+      }
+      /**
+       * <code>required uint64 since_sequence = 2;</code>
+       *
+       * <pre>
+       * 0 for all changes
+       * </pre>
+       */
+      public Builder clearSinceSequence() {
+        bitField0_ = (bitField0_ & ~0x00000002);
+        sinceSequence_ = 0L;
+        onChanged();
+        return this;
+      }
+
+      private int limit_ ;
+      /**
+       * <code>required uint32 limit = 3;</code>
+       *
+       * <pre>
+       * Maximum number of changes to return, the server may return fewer. 0 returns only the current
+       * sequence number.
+       * </pre>
+       */
+      public boolean hasLimit() {
+        return ((bitField0_ & 0x00000004) == 0x00000004);
+      }
+      /**
+       * <code>required uint32 limit = 3;</code>
+       *
+       * <pre>
+       * Maximum number of changes to return, the server may return fewer. 0 returns only the current
+       * sequence number.
+       * </pre>
+       */
+      public int getLimit() {
+        return limit_;
+      }
+      /**
+       * <code>required uint32 limit = 3;</code>
+       *
+       * <pre>
+       * Maximum number of changes to return, the server may return fewer. 0 returns only the current
+       * sequence number.
+       * </pre>
+       */
+      public Builder setLimit(int value) {
+        bitField0_ |= 0x00000004;
+        limit_ = value;
+        onChanged();
+        return this;
+      }
+      /**
+       * <code>required uint32 limit = 3;</code>
+       *
+       * <pre>
+       * Maximum number of changes to return, the server may return fewer. 0 returns only the current
+       * sequence number.
+       * </pre>
+       */
+      public Builder clearLimit() {
+        bitField0_ = (bitField0_ & ~0x00000004);
+        limit_ = 0;
+        onChanged();
+        return this;
+      }
+
+      // @@protoc_insertion_point(builder_scope:nigori.GetChangesRequest)
+    }
+
+    static {
+      defaultInstance = new GetChangesRequest(true);
+      defaultInstance.initFields();
+    }
+
+    // @@protoc_insertion_point(class_scope:nigori.GetChangesRequest)
+  }
+
+  public interface GetChangesResponseOrBuilder extends
+      // @@protoc_insertion_point(interface_extends:nigori.GetChangesResponse)
+      com.google.protobuf.MessageOrBuilder {
+
+    /**
+     * <code>repeated .nigori.Change changes = 1;</code>
+     */
+    java.util.List<com.google.nigori.common.NigoriMessages.Change> 
+        getChangesList();
+    /**
+     * <code>repeated .nigori.Change changes = 1;</code>
+     */
+    com.google.nigori.common.NigoriMessages.Change getChanges(int index);
+    /**
+     * <code>repeated .nigori.Change changes = 1;</code>
+     */
+    int getChangesCount();
+    /**
+     * <code>repeated .nigori.Change changes = 1;</code>
+     */
+    java.util.List<? extends com.google.nigori.common.NigoriMessages.ChangeOrBuilder> 
+        getChangesOrBuilderList();
+    /**
+     * <code>repeated .nigori.Change changes = 1;</code>
+     */
+    com.google.nigori.common.NigoriMessages.ChangeOrBuilder getChangesOrBuilder(
+        int index);
+
+    /**
+     * <code>required uint64 sequence = 2;</code>
+     *
+     * <pre>
+     * Send as since_sequence to get the following changes. Less than the requested since_sequence if
+     * the server no longer has the changes since then, in which case the client must sync everything.
+     * </pre>
+     */
+    boolean hasSequence();
+    /**
+     * <code>required uint64 sequence = 2;</code>
+     *
+     * <pre>
+     * Send as since_sequence to get the following changes. Less than the requested since_sequence if
+     * the server no longer has the changes since then, in which case the client must sync everything.
+     * </pre>
+     */
+    long getSequence();
+
+    /**
+     * <code>optional bool more = 3;</code>
+     *
+     * <pre>
+     * Whether there are further changes after sequence
+     * </pre>
+     */
+    boolean hasMore();
+    /**
+     * <code>optional bool more = 3;</code>
+     *
+     * <pre>
+     * Whether there are further changes after sequence
+     * </pre>
+     */
+    boolean getMore();
+  }
+  /**
+   * Protobuf type {@code nigori.GetChangesResponse}
+   */
+  public static final class GetChangesResponse extends
+      com.google.protobuf.GeneratedMessage implements
+      // @@protoc_insertion_point(message_implements:nigori.GetChangesResponse)
+      GetChangesResponseOrBuilder {
+    // Use GetChangesResponse.newBuilder() to construct.
+    private GetChangesResponse(com.google.protobuf.GeneratedMessage.Builder<?> builder) {
+      super(builder);
+      this.unknownFields = builder.getUnknownFields();
+    }
+    private GetChangesResponse(boolean noInit) { this.unknownFields = com.google.protobuf.UnknownFieldSet.getDefaultInstance(); }
+
+    private static final GetChangesResponse defaultInstance;
+    public static GetChangesResponse getDefaultInstance() {
+      return defaultInstance;
+    }
+
+    public GetChangesResponse getDefaultInstanceForType() {
+      return defaultInstance;
+    }
+
+    private final com.google.protobuf.UnknownFieldSet unknownFields;
+    @java.lang.Override
+    public final com.google.protobuf.UnknownFieldSet
+        getUnknownFields() {
+      return this.unknownFields;
+    }
+    private GetChangesResponse(
+        com.google.protobuf.CodedInputStream input,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws com.google.protobuf.InvalidProtocolBufferException {
+      initFields();
+      int mutable_bitField0_ = 0;
+      com.google.protobuf.UnknownFieldSet.Builder unknownFields =
+          com.google.protobuf.UnknownFieldSet.newBuilder();
+      try {
+        boolean done = false;
+        while (!done) {
+          int tag = input.readTag();
+          switch (tag) {
+            case 0:
+              done = true;
+              break;
+            default: {
+              if (!parseUnknownField(input, unknownFields,
+                                     extensionRegistry, tag)) {
+                done = true;
+              }
+              break;
+            }
+            case 10: {
+              if (!((mutable_bitField0_ & 0x00000001) == 0x00000001)) {
+                changes_ = new java.util.ArrayList<com.google.nigori.common.NigoriMessages.Change>();
+                mutable_bitField0_ |= 0x00000001;
+              }
+              changes_.add(input.readMessage(com.google.nigori.common.NigoriMessages.Change.PARSER, extensionRegistry));
+              break;
+            }
+            case 16: {
+              bitField0_ |= 0x00000001;
+              sequence_ = input.readUInt64();
+              break;
+            }
+            case 24: {
+              bitField0_ |= 0x00000002;
+              more_ = input.readBool();
+              break;
+            }
+          }
+        }
+      } catch (com.google.protobuf.InvalidProtocolBufferException e) {
+        throw e.setUnfinishedMessage(this);
+      } catch (java.io.IOException e) {
+        throw new com.google.protobuf.InvalidProtocolBufferException(
+            e.getMessage()).setUnfinishedMessage(this);
+      } finally {
+        if (((mutable_bitField0_ & 0x00000001) == 0x00000001)) {
+          changes_ = java.util.Collections.unmodifiableList(changes_);
+        }
+        this.unknownFields = unknownFields.build();
+        makeExtensionsImmutable();
+      }
+    }
+    public static final com.google.protobuf.Descriptors.Descriptor
+        getDescriptor() {
+      return com.google.nigori.common.NigoriMessages.internal_static_nigori_GetChangesResponse_descriptor;
+    }
+
+    protected com.google.protobuf.GeneratedMessage.FieldAccessorTable
+        internalGetFieldAccessorTable() {
+      return com.google.nigori.common.NigoriMessages.internal_static_nigori_GetChangesResponse_fieldAccessorTable
+          .ensureFieldAccessorsInitialized(
+              com.google.nigori.common.NigoriMessages.GetChangesResponse.class, com.google.nigori.common.NigoriMessages.GetChangesResponse.Builder.class);
+    }
+
+    public static com.google.protobuf.Parser<GetChangesResponse> PARSER =
+        new com.google.protobuf.AbstractParser<GetChangesResponse>() {
+      public GetChangesResponse parsePartialFrom(
+          com.google.protobuf.CodedInputStream input,
+          com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+          throws com.google.protobuf.InvalidProtocolBufferException {
+        return new GetChangesResponse(input, extensionRegistry);
+      }
+    };
+
+    @java.lang.Override
+    public com.google.protobuf.Parser<GetChangesResponse> getParserForType() {
+      return PARSER;
+    }
+
+    private int bitField0_;
+    public static final int CHANGES_FIELD_NUMBER = 1;
+    private java.util.List<com.google.nigori.common.NigoriMessages.Change> changes_;
+    /**
+     * <code>repeated .nigori.Change changes = 1;</code>
+     */
+    public java.util.List<com.google.nigori.common.NigoriMessages.Change> getChangesList() {
+      return changes_;
+    }
+    /**
+     * <code>repeated .nigori.Change changes = 1;</code>
+     */
+    public java.util.List<? extends com.google.nigori.common.NigoriMessages.ChangeOrBuilder> 
+        getChangesOrBuilderList() {
+      return changes_;
+    }
+    /**
+     * <code>repeated .nigori.Change changes = 1;</code>
+     */
+    public int getChangesCount() {
+      return changes_.size();
+    }
+    /**
+     * <code>repeated .nigori.Change changes = 1;</code>
+     */
+    public com.google.nigori.common.NigoriMessages.Change getChanges(int index) {
+      return changes_.get(index);
+    }
+    /**
+     * <code>repeated .nigori.Change changes = 1;</code>
+     */
+    public com.google.nigori.common.NigoriMessages.ChangeOrBuilder getChangesOrBuilder(
+        int index) {
+      return changes_.get(index);
+    }
+
+    public static final int SEQUENCE_FIELD_NUMBER = 2;
+    private long sequence_;
+    /**
+     * <code>required uint64 sequence = 2;</code>
+     *
+     * <pre>
+     * Send as since_sequence to get the following changes. Less than the requested since_sequence if
+     * the server no longer has the changes since then, in which case the client must sync everything.
+     * </pre>
+     */
+    public boolean hasSequence() {
+      return ((bitField0_ & 0x00000001) == 0x00000001);
+    }
+    /**
+     * <code>required uint64 sequence = 2;</code>
+     *
+     * <pre>
+     * Send as since_sequence to get the following changes. Less than the requested since_sequence if
+     * the server no longer has the changes since then, in which case the client must sync everything.
+     * </pre>
+     */
+    public long getSequence() {
+      return sequence_;
+    }
+
+    public static final int MORE_FIELD_NUMBER = 3;
+    private boolean more_;
+    /**
+     * <code>optional bool more = 3;</code>
+     *
+     * <pre>
+     * Whether there are further changes after sequence
+     * </pre>
+     */
+    public boolean hasMore() {
+      return ((bitField0_ & 0x00000002) == 0x00000002);
+    }
+    /**
+     * <code>optional bool more = 3;</code>
+     *
+     * <pre>
+     * Whether there are further changes after sequence
+     * </pre>
+     */
+    public boolean getMore() {
+      return more_;
+    }
+
+    private void initFields() {
+      changes_ = java.util.Collections.emptyList();
+      sequence_ = 0L;
+      more_ = false;
+    }
+    private byte memoizedIsInitialized = -1;
+    public final boolean isInitialized() {
+      byte isInitialized = memoizedIsInitialized;
+      if (isInitialized == 1) return true;
+      if (isInitialized == 0) return false;
+
+      if (!hasSequence()) {
+        memoizedIsInitialized = 0;
+        return false;
+      }
+      for (int i = 0; i < getChangesCount(); i++) {
+        if (!getChanges(i).isInitialized()) {
+          memoizedIsInitialized = 0;
+          return false;
+        }
+      }
+      memoizedIsInitialized = 1;
+      return true;
+    }
+
+    public void writeTo(com.google.protobuf.CodedOutputStream output)
+                        throws java.io.IOException {
+      getSerializedSize();
+      for (int i = 0; i < changes_.size(); i++) {
+        output.writeMessage(1, changes_.get(i));
+      }
+      if (((bitField0_ & 0x00000001) == 0x00000001)) {
+        output.writeUInt64(2, sequence_);
+      }
+      if (((bitField0_ & 0x00000002) == 0x00000002)) {
+        output.writeBool(3, more_);
+      }
+      getUnknownFields().writeTo(output);
+    }
+
+    private int memoizedSerializedSize = -1;
+    public int getSerializedSize() {
+      int size = memoizedSerializedSize;
+      if (size != -1) return size;
+
+      size = 0;
+      for (int i = 0; i < changes_.size(); i++) {
+        size += com.google.protobuf.CodedOutputStream
+          .computeMessageSize(1, changes_.get(i));
+      }
+      if (((bitField0_ & 0x00000001) == 0x00000001)) {
+        size += com.google.protobuf.CodedOutputStream
+          .computeUInt64Size(2, sequence_);
+      }
+      if (((bitField0_ & 0x00000002) == 0x00000002)) {
+        size += com.google.protobuf.CodedOutputStream
+          .computeBoolSize(3, more_);
+      }
+      size += getUnknownFields().getSerializedSize();
+      memoizedSerializedSize = size;
+      return size;
+    }
+
+    private static final long serialVersionUID = 0L;
+    @java.lang.Override
+    protected java.lang.Object writeReplace()
+        throws java.io.ObjectStreamException {
+      return super.writeReplace();
+    }
+
+    public static com.google.nigori.common.NigoriMessages.GetChangesResponse parseFrom(
+        com.google.protobuf.ByteString data)
+        throws com.google.protobuf.InvalidProtocolBufferException {
+      return PARSER.parseFrom(data);
+    }
+    public static com.google.nigori.common.NigoriMessages.GetChangesResponse parseFrom(
+        com.google.protobuf.ByteString data,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws com.google.protobuf.InvalidProtocolBufferException {
+      return PARSER.parseFrom(data, extensionRegistry);
+    }
+    public static com.google.nigori.common.NigoriMessages.GetChangesResponse parseFrom(byte[] data)
+        throws com.google.protobuf.InvalidProtocolBufferException {
+      return PARSER.parseFrom(data);
+    }
+    public static com.google.nigori.common.NigoriMessages.GetChangesResponse parseFrom(
+        byte[] data,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws com.google.protobuf.InvalidProtocolBufferException {
+      return PARSER.parseFrom(data, extensionRegistry);
+    }
+    public static com.google.nigori.common.NigoriMessages.GetChangesResponse parseFrom(java.io.InputStream input)
+        throws java.io.IOException {
+      return PARSER.parseFrom(input);
+    }
+    public static com.google.nigori.common.NigoriMessages.GetChangesResponse parseFrom(
+        java.io.InputStream input,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws java.io.IOException {
+      return PARSER.parseFrom(input, extensionRegistry);
+    }
+    public static com.google.nigori.common.NigoriMessages.GetChangesResponse parseDelimitedFrom(java.io.InputStream input)
+        throws java.io.IOException {
+      return PARSER.parseDelimitedFrom(input);
+    }
+    public static com.google.nigori.common.NigoriMessages.GetChangesResponse parseDelimitedFrom(
+        java.io.InputStream input,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws java.io.IOException {
+      return PARSER.parseDelimitedFrom(input, extensionRegistry);
+    }
+    public static com.google.nigori.common.NigoriMessages.GetChangesResponse parseFrom(
+        com.google.protobuf.CodedInputStream input)
+        throws java.io.IOException {
+      return PARSER.parseFrom(input);
+    }
+    public static com.google.nigori.common.NigoriMessages.GetChangesResponse parseFrom(
+        com.google.protobuf.CodedInputStream input,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws java.io.IOException {
+      return PARSER.parseFrom(input, extensionRegistry);
+    }
+
+    public static Builder newBuilder() { return Builder.create(); }
+    public Builder newBuilderForType() { return newBuilder(); }
+    public static Builder newBuilder(com.google.nigori.common.NigoriMessages.GetChangesResponse prototype) {
+      return newBuilder().mergeFrom(prototype);
+    }
+    public Builder toBuilder() { return newBuilder(this); }
+
+    @java.lang.Override
+    protected Builder newBuilderForType(
+        com.google.protobuf.GeneratedMessage.BuilderParent parent) {
+      Builder builder = new Builder(parent);
+      return builder;
+    }
+    /**
+     * Protobuf type {@code nigori.GetChangesResponse}
+     */
+    public static final class Builder extends
+        com.google.protobuf.GeneratedMessage.Builder<Builder> implements
+        // @@protoc_insertion_point(builder_implements:nigori.GetChangesResponse)
+        com.google.nigori.common.NigoriMessages.GetChangesResponseOrBuilder {
+      public static final com.google.protobuf.Descriptors.Descriptor
+          getDescriptor() {
+        return com.google.nigori.common.NigoriMessages.internal_static_nigori_GetChangesResponse_descriptor;
+      }
+
+      protected com.google.protobuf.GeneratedMessage.FieldAccessorTable
+          internalGetFieldAccessorTable() {
+        return com.google.nigori.common.NigoriMessages.internal_static_nigori_GetChangesResponse_fieldAccessorTable
+            .ensureFieldAccessorsInitialized(
+                com.google.nigori.common.NigoriMessages.GetChangesResponse.class, com.google.nigori.common.NigoriMessages.GetChangesResponse.Builder.class);
+      }
+
+      // Construct using com.google.nigori.common.NigoriMessages.GetChangesResponse.newBuilder()
+      private Builder() {
+        maybeForceBuilderInitialization();
+      }
+
+      private Builder(
+          com.google.protobuf.GeneratedMessage.BuilderParent parent) {
+        super(parent);
+        maybeForceBuilderInitialization();
+      }
+      private void maybeForceBuilderInitialization() {
+        if (com.google.protobuf.GeneratedMessage.alwaysUseFieldBuilders) {
+          getChangesFieldBuilder();
+        }
+      }
+      private static Builder create() {
+        return new Builder();
+      }
+
+      public Builder clear() {
+        super.clear();
+        if (changesBuilder_ == null) {
+          changes_ = java.util.Collections.emptyList();
+          bitField0_ = (bitField0_ & ~0x00000001);
+        } else {
+          changesBuilder_.clear();
+        }
+        sequence_ = 0L;
+        bitField0_ = (bitField0_ & ~0x00000002);
+        more_ = false;
+        bitField0_ = (bitField0_ & ~0x00000004);
+        return this;
+      }
+
+      public Builder clone() {
+        return create().mergeFrom(buildPartial());
+      }
+
+      public com.google.protobuf.Descriptors.Descriptor
+          getDescriptorForType() {
+        return com.google.nigori.common.NigoriMessages.internal_static_nigori_GetChangesResponse_descriptor;
+      }
+
+      public com.google.nigori.common.NigoriMessages.GetChangesResponse getDefaultInstanceForType() {
+        return com.google.nigori.common.NigoriMessages.GetChangesResponse.getDefaultInstance();
+      }
+
+      public com.google.nigori.common.NigoriMessages.GetChangesResponse build() {
+        com.google.nigori.common.NigoriMessages.GetChangesResponse result = buildPartial();
+        if (!result.isInitialized()) {
+          throw newUninitializedMessageException(result);
+        }
+        return result;
+      }
+
+      public com.google.nigori.common.NigoriMessages.GetChangesResponse buildPartial() {
+        com.google.nigori.common.NigoriMessages.GetChangesResponse result = new com.google.nigori.common.NigoriMessages.GetChangesResponse(this);
+        int from_bitField0_ = bitField0_;
+        int to_bitField0_ = 0;
+        if (changesBuilder_ == null) {
+          if (((bitField0_ & 0x00000001) == 0x00000001)) {
+            changes_ = java.util.Collections.unmodifiableList(changes_);
+            bitField0_ = (bitField0_ & ~0x00000001);
+          }
+          result.changes_ = changes_;
+        } else {
+          result.changes_ = changesBuilder_.build();
+        }
+        if (((from_bitField0_ & 0x00000002) == 0x00000002)) {
+          to_bitField0_ |= 0x00000001;
+        }
+        result.sequence_ = sequence_;
+        if (((from_bitField0_ & 0x00000004) == 0x00000004)) {
+          to_bitField0_ |= 0x00000002;
+        }
+        result.more_ = more_;
+        result.bitField0_ = to_bitField0_;
+        onBuilt();
+        return result;
+      }
+
+      public Builder mergeFrom(com.google.protobuf.Message other) {
+        if (other instanceof com.google.nigori.common.NigoriMessages.GetChangesResponse) {
+          return mergeFrom((com.google.nigori.common.NigoriMessages.GetChangesResponse)other);
+        } else {
+          super.mergeFrom(other);
+          return this;
+        }
+      }
+
+      public Builder mergeFrom(com.google.nigori.common.NigoriMessages.GetChangesResponse other) {
+        if (other == com.google.nigori.common.NigoriMessages.GetChangesResponse.getDefaultInstance()) return this;
+        if (changesBuilder_ == null) {
+          if (!other.changes_.isEmpty()) {
+            if (changes_.isEmpty()) {
+              changes_ = other.changes_;
+              bitField0_ = (bitField0_ & ~0x00000001);
+            } else {
+              ensureChangesIsMutable();
+              changes_.addAll(other.changes_);
+            }
+            onChanged();
+          }
+        } else {
+          if (!other.changes_.isEmpty()) {
+            if (changesBuilder_.isEmpty()) {
+              changesBuilder_.dispose();
+              changesBuilder_ = null;
+              changes_ = other.changes_;
+              bitField0_ = (bitField0_ & ~0x00000001);
+              changesBuilder_ = 
+                com.google.protobuf.GeneratedMessage.alwaysUseFieldBuilders ?
+                   getChangesFieldBuilder() : null;
+            } else {
+              changesBuilder_.addAllMessages(other.changes_);
+            }
+          }
+        }
+        if (other.hasSequence()) {
+          setSequence(other.getSequence());
+        }
+        if (other.hasMore()) {
+          setMore(other.getMore());
+        }
+        this.mergeUnknownFields(other.getUnknownFields());
+        return this;
+      }
+
+      public final boolean isInitialized() {
+        if (!hasSequence()) {
+          
+          return false;
+        }
+        for (int i = 0; i < getChangesCount(); i++) {
+          if (!getChanges(i).isInitialized()) {
+            
+            return false;
+          }
+        }
+        return true;
+      }
+
+      public Builder mergeFrom(
+          com.google.protobuf.CodedInputStream input,
+          com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+          throws java.io.IOException {
+        com.google.nigori.common.NigoriMessages.GetChangesResponse parsedMessage = null;
+        try {
+          parsedMessage = PARSER.parsePartialFrom(input, extensionRegistry);
+        } catch (com.google.protobuf.InvalidProtocolBufferException e) {
+          parsedMessage = (com.google.nigori.common.NigoriMessages.GetChangesResponse) e.getUnfinishedMessage();
+          throw e;
+        } finally {
+          if (parsedMessage != null) {
+            mergeFrom(parsedMessage);
+          }
+        }
+        return this;
+      }
+      private int bitField0_;
+
+      private java.util.List<com.google.nigori.common.NigoriMessages.Change> changes_ =
+        java.util.Collections.emptyList();
+      private void ensureChangesIsMutable() {
+        if (!((bitField0_ & 0x00000001) == 0x00000001)) {
+          changes_ = new java.util.ArrayList<com.google.nigori.common.NigoriMessages.Change>(changes_);
+          bitField0_ |= 0x00000001;
+         }
+      }
+
+      private com.google.protobuf.RepeatedFieldBuilder<
+          com.google.nigori.common.NigoriMessages.Change, com.google.nigori.common.NigoriMessages.Change.Builder, com.google.nigori.common.NigoriMessages.ChangeOrBuilder> changesBuilder_;
+
+      /**
+       * <code>repeated .nigori.Change changes = 1;</code>
+       */
+      public java.util.List<com.google.nigori.common.NigoriMessages.Change> getChangesList() {
+        if (changesBuilder_ == null) {
+          return java.util.Collections.unmodifiableList(changes_);
+        } else {
+          return changesBuilder_.getMessageList();
+        }
+      }
+      /**
+       * <code>repeated .nigori.Change changes = 1;</code>
+       */
+      public int getChangesCount() {
+        if (changesBuilder_ == null) {
+          return changes_.size();
+        } else {
+          return changesBuilder_.getCount();
+        }
+      }
+      /**
+       * <code>repeated .nigori.Change changes = 1;</code>
+       */
+      public com.google.nigori.common.NigoriMessages.Change getChanges(int index) {
+        if (changesBuilder_ == null) {
+          return changes_.get(index);
+        } else {
+          return changesBuilder_.getMessage(index);
+        }
+      }
+      /**
+       * <code>repeated .nigori.Change changes = 1;</code>
+       */
+      public Builder setChanges(
+          int index, com.google.nigori.common.NigoriMessages.Change value) {
+        if (changesBuilder_ == null) {
+          if (value == null) {
+            throw new NullPointerException();
+          }
+          ensureChangesIsMutable();
+          changes_.set(index, value);
+          onChanged();
+        } else {
+          changesBuilder_.setMessage(index, value);
+        }
+        return this;
+      }
+      /**
+       * <code>repeated .nigori.Change changes = 1;</code>
+       */
+      public Builder setChanges(
+          int index, com.google.nigori.common.NigoriMessages.Change.Builder builderForValue) {
+        if (changesBuilder_ == null) {
+          ensureChangesIsMutable();
+          changes_.set(index, builderForValue.build());
+          onChanged();
+        } else {
+          changesBuilder_.setMessage(index, builderForValue.build());
+        }
+        return this;
+      }
+      /**
+       * <code>repeated .nigori.Change changes = 1;</code>
+       */
+      public Builder addChanges(com.google.nigori.common.NigoriMessages.Change value) {
+        if (changesBuilder_ == null) {
+          if (value == null) {
+            throw new NullPointerException();
+          }
+          ensureChangesIsMutable();
+          changes_.add(value);
+          onChanged();
+        } else {
+          changesBuilder_.addMessage(value);
+        }
+        return this;
+      }
+      /**
+       * <code>repeated .nigori.Change changes = 1;</code>
+       */
+      public Builder addChanges(
+          int index, com.google.nigori.common.NigoriMessages.Change value) {
+        if (changesBuilder_ == null) {
+          if (value == null) {
+            throw new NullPointerException();
+          }
+          ensureChangesIsMutable();
+          changes_.add(index, value);
+          onChanged();
+        } else {
+          changesBuilder_.addMessage(index, value);
+        }
+        return this;
+      }
+      /**
+       * <code>repeated .nigori.Change changes = 1;</code>
+       */
+      public Builder addChanges(
+          com.google.nigori.common.NigoriMessages.Change.Builder builderForValue) {
+        if (changesBuilder_ == null) {
+          ensureChangesIsMutable();
+          changes_.add(builderForValue.build());
+          onChanged();
+        } else {
+          changesBuilder_.addMessage(builderForValue.build());
+        }
+        return this;
+      }
+      /**
+       * <code>repeated .nigori.Change changes = 1;</code>
+       */
+      public Builder addChanges(
+          int index, com.google.nigori.common.NigoriMessages.Change.Builder builderForValue) {
+        if (changesBuilder_ == null) {
+          ensureChangesIsMutable();
+          changes_.add(index, builderForValue.build());
+          onChanged();
+        } else {
+          changesBuilder_.addMessage(index, builderForValue.build());
+        }
+        return this;
+      }
+      /**
+       * <code>repeated .nigori.Change changes = 1;</code>
+       */
+      public Builder addAllChanges(
+          java.lang.Iterable<? extends com.google.nigori.common.NigoriMessages.Change> values) {
+        if (changesBuilder_ == null) {
+          ensureChangesIsMutable();
+          com.google.protobuf.AbstractMessageLite.Builder.addAll(
+              values, changes_);
+          onChanged();
+        } else {
+          changesBuilder_.addAllMessages(values);
+        }
+        return this;
+      }
+      /**
+       * <code>repeated .nigori.Change changes = 1;</code>
+       */
+      public Builder clearChanges() {
+        if (changesBuilder_ == null) {
+          changes_ = java.util.Collections.emptyList();
+          bitField0_ = (bitField0_ & ~0x00000001);
+          onChanged();
+        } else {
+          changesBuilder_.clear();
+        }
+        return this;
+      }
+      /**
+       * <code>repeated .nigori.Change changes = 1;</code>
+       */
+      public Builder removeChanges(int index) {
+        if (changesBuilder_ == null) {
+          ensureChangesIsMutable();
+          changes_.remove(index);
+          onChanged();
+        } else {
+          changesBuilder_.remove(index);
+        }
+        return this;
+      }
+      /**
+       * <code>repeated .nigori.Change changes = 1;</code>
+       */
+      public com.google.nigori.common.NigoriMessages.Change.Builder getChangesBuilder(
+          int index) {
+        return getChangesFieldBuilder().getBuilder(index);
+      }
+      /**
+       * <code>repeated .nigori.Change changes = 1;</code>
+       */
+      public com.google.nigori.common.NigoriMessages.ChangeOrBuilder getChangesOrBuilder(
+          int index) {
+        if (changesBuilder_ == null) {
+          return changes_.get(index);  } else {
+          return changesBuilder_.getMessageOrBuilder(index);
+        }
+      }
+      /**
+       * <code>repeated .nigori.Change changes = 1;</code>
+       */
+      public java.util.List<? extends com.google.nigori.common.NigoriMessages.ChangeOrBuilder> 
+           getChangesOrBuilderList() {
+        if (changesBuilder_ != null) {
+          return changesBuilder_.getMessageOrBuilderList();
+        } else {
+          return java.util.Collections.unmodifiableList(changes_);
+        }
+      }
+      /**
+       * <code>repeated .nigori.Change changes = 1;</code>
+       */
+      public com.google.nigori.common.NigoriMessages.Change.Builder addChangesBuilder() {
+        return getChangesFieldBuilder().addBuilder(
+            com.google.nigori.common.NigoriMessages.Change.getDefaultInstance());
+      }
+      /**
+       * <code>repeated .nigori.Change changes = 1;</code>
+       */
+      public com.google.nigori.common.NigoriMessages.Change.Builder addChangesBuilder(
+          int index) {
+        return getChangesFieldBuilder().addBuilder(
+            index, com.google.nigori.common.NigoriMessages.Change.getDefaultInstance());
+      }
+      /**
+       * <code>repeated .nigori.Change changes = 1;</code>
+       */
+      public java.util.List<com.google.nigori.common.NigoriMessages.Change.Builder> 
+           getChangesBuilderList() {
+        return getChangesFieldBuilder().getBuilderList();
+      }
+      private com.google.protobuf.RepeatedFieldBuilder<
+          com.google.nigori.common.NigoriMessages.Change, com.google.nigori.common.NigoriMessages.Change.Builder, com.google.nigori.common.NigoriMessages.ChangeOrBuilder> 
+          getChangesFieldBuilder() {
+        if (changesBuilder_ == null) {
+          changesBuilder_ = new com.google.protobuf.RepeatedFieldBuilder<
+              com.google.nigori.common.NigoriMessages.Change, com.google.nigori.common.NigoriMessages.Change.Builder, com.google.nigori.common.NigoriMessages.ChangeOrBuilder>(
+                  changes_,
+                  ((bitField0_ & 0x00000001) == 0x00000001),
+                  getParentForChildren(),
+                  isClean());
+          changes_ = null;
+        }
+        return changesBuilder_;
+      }
+
+      private long sequence_ ;
+      /**
+       * <code>required uint64 sequence = 2;</code>
+       *
+       * <pre>
+       * Send as since_sequence to get the following changes. Less than the requested since_sequence if
+       * the server no longer has the changes since then, in which case the client must sync everything.
+       * </pre>
+       */
+      public boolean hasSequence() {
+        return ((bitField0_ & 0x00000002) == 0x00000002);
+      }
+      /**
+       * <code>required uint64 sequence = 2;</code>
+       *
+       * <pre>
+       * Send as since_sequence to get the following changes. Less than the requested since_sequence if
+       * the server no longer has the changes since then, in which case the client must sync everything.
+       * </pre>
+       */
+      public long getSequence() {
+        return sequence_;
+      }
+      /**
+       * <code>required uint64 sequence = 2;</code>
+       *
+       * <pre>
+       * Send as since_sequence to get the following changes. Less than the requested since_sequence if
+       * the server no longer has the changes since then, in which case the client must sync everything.
+       * </pre>
+       */
+      public Builder setSequence(long value) {
+        bitField0_ |= 0x00000002;
+        sequence_ = value;
+        onChanged();
+        return this;
+      }
+      /**
+       * <code>required uint64 sequence = 2;</code>
+       *
+       * <pre>
+       * Send as since_sequence to get the following changes. Less than the requested since_sequence if
+       * the server no longer has the changes since then, in which case the client must sync everything.
+       * </pre>
+       */
+      public Builder clearSequence() {
+        bitField0_ = (bitField0_ & ~0x00000002);
+        sequence_ = 0L;
+        onChanged();
+        return this;
+      }
+
+      private boolean more_ ;
+      /**
+       * <code>optional bool more = 3;</code>
+       *
+       * <pre>
+       * Whether there are further changes after sequence
+       * </pre>
+       */
+      public boolean hasMore() {
+        return ((bitField0_ & 0x00000004) == 0x00000004);
+      }
+      /**
+       * <code>optional bool more = 3;</code>
+       *
+       * <pre>
+       * Whether there are further changes after sequence
+       * </pre>
+       */
+      public boolean getMore() {
+        return more_;
+      }
+      /**
+       * <code>optional bool more = 3;</code>
+       *
+       * <pre>
+       * Whether there are further changes after sequence
+       * </pre>
+       */
+      public Builder setMore(boolean value) {
+        bitField0_ |= 0x00000004;
+        more_ = value;
+        onChanged();
+        return this;
+      }
+      /**
+       * <code>optional bool more = 3;</code>
+       *
+       * <pre>
+       * Whether there are further changes after sequence
+       * </pre>
+       */
+      public Builder clearMore() {
+        bitField0_ = (bitField0_ & ~0x00000004);
+        more_ = false;
+        onChanged();
+        return this;
+      }
+
+      // @@protoc_insertion_point(builder_scope:nigori.GetChangesResponse)
+    }
+
+    static {
+      defaultInstance = new GetChangesResponse(true);
+      defaultInstance.initFields();
+    }
+
+    // @@protoc_insertion_point(class_scope:nigori.GetChangesResponse)
+  }
+
+  public interface DigestNodeOrBuilder extends
+      // @@protoc_insertion_point(interface_extends:nigori.DigestNode)
+      com.google.protobuf.MessageOrBuilder {
+
+    /**
+     * <code>required bytes path = 1;</code>
+     *
+     * <pre>
+     * One byte (0-15) per level from the root, empty for the root
+     * </pre>
+     */
+    boolean hasPath();
+    /**
+     * <code>required bytes path = 1;</code>
+     *
+     * <pre>
+     * One byte (0-15) per level from the root, empty for the root
+     * </pre>
+     */
+    com.google.protobuf.ByteString getPath();
+
+    /**
+     * <code>required bytes hash = 2;</code>
+     *
+     * <pre>
+     * XOR of the SHA-256 hashes of all the pairs in the subtree, zeros if it is empty
+     * </pre>
+     */
+    boolean hasHash();
+    /**
+     * <code>required bytes hash = 2;</code>
+     *
+     * <pre>
+     * XOR of the SHA-256 hashes of all the pairs in the subtree, zeros if it is empty
+     * </pre>
+     */
+    com.google.protobuf.ByteString getHash();
+
+    /**
+     * <code>required uint32 count = 3;</code>
+     *
+     * <pre>
+     * Number of pairs in the subtree
+     * </pre>
+     */
+    boolean hasCount();
+    /**
+     * <code>required uint32 count = 3;</code>
+     *
+     * <pre>
+     * Number of pairs in the subtree
+     * </pre>
+     */
+    int getCount();
+  }
+  /**
+   * Protobuf type {@code nigori.DigestNode}
+   *
+   * <pre>
+   * A subtree of the digest tree over a user's (key, revision) pairs. Each pair is placed in the tree
+   * by the SHA-256 hash of its key and revision, taking 4 bits of the hash per level, so each node has
+   * up to 16 children.
+   * </pre>
+   */
+  public static final class DigestNode extends
+      com.google.protobuf.GeneratedMessage implements
+      // @@protoc_insertion_point(message_implements:nigori.DigestNode)
+      DigestNodeOrBuilder {
+    // Use DigestNode.newBuilder() to construct.
+    private DigestNode(com.google.protobuf.GeneratedMessage.Builder<?> builder) {
+      super(builder);
+      this.unknownFields = builder.getUnknownFields();
+    }
+    private DigestNode(boolean noInit) { this.unknownFields = com.google.protobuf.UnknownFieldSet.getDefaultInstance(); }
+
+    private static final DigestNode defaultInstance;
+    public static DigestNode getDefaultInstance() {
+      return defaultInstance;
+    }
+
+    public DigestNode getDefaultInstanceForType() {
+      return defaultInstance;
+    }
+
+    private final com.google.protobuf.UnknownFieldSet unknownFields;
+    @java.lang.Override
+    public final com.google.protobuf.UnknownFieldSet
+        getUnknownFields() {
+      return this.unknownFields;
+    }
+    private DigestNode(
+        com.google.protobuf.CodedInputStream input,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws com.google.protobuf.InvalidProtocolBufferException {
+      initFields();
+      int mutable_bitField0_ = 0;
+      com.google.protobuf.UnknownFieldSet.Builder unknownFields =
+          com.google.protobuf.UnknownFieldSet.newBuilder();
+      try {
+        boolean done = false;
+        while (!done) {
+          int tag = input.readTag();
+          switch (tag) {
+            case 0:
+              done = true;
+              break;
+            default: {
+              if (!parseUnknownField(input, unknownFields,
+                                     extensionRegistry, tag)) {
+                done = true;
+              }
+              break;
+            }
+            case 10: {
+              bitField0_ |= 0x00000001;
+              path_ = input.readBytes();
+              break;
+            }
+            case 18: {
+              bitField0_ |= 0x00000002;
+              hash_ = input.readBytes();
+              break;
+            }
+            case 24: {
+              bitField0_ |= 0x00000004;
+              count_ = input.readUInt32();
+              break;
+            }
+          }
+        }
+      } catch (com.google.protobuf.InvalidProtocolBufferException e) {
+        throw e.setUnfinishedMessage(this);
+      } catch (java.io.IOException e) {
+        throw new com.google.protobuf.InvalidProtocolBufferException(
+            e.getMessage()).setUnfinishedMessage(this);
+      } finally {
+        this.unknownFields = unknownFields.build();
+        makeExtensionsImmutable();
+      }
+    }
+    public static final com.google.protobuf.Descriptors.Descriptor
+        getDescriptor() {
+      return com.google.nigori.common.NigoriMessages.internal_static_nigori_DigestNode_descriptor;
+    }
+
+    protected com.google.protobuf.GeneratedMessage.FieldAccessorTable
+        internalGetFieldAccessorTable() {
+      return com.google.nigori.common.NigoriMessages.internal_static_nigori_DigestNode_fieldAccessorTable
+          .ensureFieldAccessorsInitialized(
+              com.google.nigori.common.NigoriMessages.DigestNode.class, com.google.nigori.common.NigoriMessages.DigestNode.Builder.class);
+    }
+
+    public static com.google.protobuf.Parser<DigestNode> PARSER =
+        new com.google.protobuf.AbstractParser<DigestNode>() {
+      public DigestNode parsePartialFrom(
+          com.google.protobuf.CodedInputStream input,
+          com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+          throws com.google.protobuf.InvalidProtocolBufferException {
+        return new DigestNode(input, extensionRegistry);
+      }
+    };
+
+    @java.lang.Override
+    public com.google.protobuf.Parser<DigestNode> getParserForType() {
+      return PARSER;
+    }
+
+    private int bitField0_;
+    public static final int PATH_FIELD_NUMBER = 1;
+    private com.google.protobuf.ByteString path_;
+    /**
+     * <code>required bytes path = 1;</code>
+     *
+     * <pre>
+     * One byte (0-15) per level from the root, empty for the root
+     * </pre>
+     */
+    public boolean hasPath() {
+      return ((bitField0_ & 0x00000001) == 0x00000001);
+    }
+    /**
+     * <code>required bytes path = 1;</code>
+     *
+     * <pre>
+     * One byte (0-15) per level from the root, empty for the root
+     * </pre>
+     */
+    public com.google.protobuf.ByteString getPath() {
+      return path_;
+    }
+
+    public static final int HASH_FIELD_NUMBER = 2;
+    private com.google.protobuf.ByteString hash_;
+    /**
+     * <code>required bytes hash = 2;</code>
+     *
+     * <pre>
+     * XOR of the SHA-256 hashes of all the pairs in the subtree, zeros if it is empty
+     * </pre>
+     */
+    public boolean hasHash() {
+      return ((bitField0_ & 0x00000002) == 0x00000002);
+    }
+    /**
+     * <code>required bytes hash = 2;</code>
+     *
+     * <pre>
+     * XOR of the SHA-256 hashes of all the pairs in the subtree, zeros if it is empty
+     * </pre>
+     */
+    public com.google.protobuf.ByteString getHash() {
+      return hash_;
+    }
+
+    public static final int COUNT_FIELD_NUMBER = 3;
+    private int count_;
+    /**
+     * <code>required uint32 count = 3;</code>
+     *
+     * <pre>
+     * Number of pairs in the subtree
+     * </pre>
+     */
+    public boolean hasCount() {
+      return ((bitField0_ & 0x00000004) == 0x00000004);
+    }
+    /**
+     * <code>required uint32 count = 3;</code>
+     *
+     * <pre>
+     * Number of pairs in the subtree
+     * </pre>
+     */
+    public int getCount() {
+      return count_;
+    }
+
+    private void initFields() {
+      path_ = com.google.protobuf.ByteString.EMPTY;
+      hash_ = com.google.protobuf.ByteString.EMPTY;
+      count_ = 0;
+    }
+    private byte memoizedIsInitialized = -1;
+    public final boolean isInitialized() {
+      byte isInitialized = memoizedIsInitialized;
+      if (isInitialized == 1) return true;
+      if (isInitialized == 0) return false;
+
+      if (!hasPath()) {
+        memoizedIsInitialized = 0;
+        return false;
+      }
+      if (!hasHash()) {
+        memoizedIsInitialized = 0;
+        return false;
+      }
+      if (!hasCount()) {
+        memoizedIsInitialized = 0;
+        return false;
+      }
+      memoizedIsInitialized = 1;
+      return true;
+    }
+
+    public void writeTo(com.google.protobuf.CodedOutputStream output)
+                        throws java.io.IOException {
+      getSerializedSize();
+      if (((bitField0_ & 0x00000001) == 0x00000001)) {
+        output.writeBytes(1, path_);
+      }
+      if (((bitField0_ & 0x00000002) == 0x00000002)) {
+        output.writeBytes(2, hash_);
+      }
+      if (((bitField0_ & 0x00000004) == 0x00000004)) {
+        output.writeUInt32(3, count_);
+      }
+      getUnknownFields().writeTo(output);
+    }
+
+    private int memoizedSerializedSize = -1;
+    public int getSerializedSize() {
+      int size = memoizedSerializedSize;
+      if (size != -1) return size;
+
+      size = 0;
+      if (((bitField0_ & 0x00000001) == 0x00000001)) {
+        size += com.google.protobuf.CodedOutputStream
+          .computeBytesSize(1, path_);
+      }
+      if (((bitField0_ & 0x00000002) == 0x00000002)) {
+        size += com.google.protobuf.CodedOutputStream
+          .computeBytesSize(2, hash_);
+      }
+      if (((bitField0_ & 0x00000004) == 0x00000004)) {
+        size += com.google.protobuf.CodedOutputStream
+          .computeUInt32Size(3, count_);
+      }
+      size += getUnknownFields().getSerializedSize();
+      memoizedSerializedSize = size;
+      return size;
+    }
+
+    private static final long serialVersionUID = 0L;
+    @java.lang.Override
+    protected java.lang.Object writeReplace()
+        throws java.io.ObjectStreamException {
+      return super.writeReplace();
+    }
+
+    public static com.google.nigori.common.NigoriMessages.DigestNode parseFrom(
+        com.google.protobuf.ByteString data)
+        throws com.google.protobuf.InvalidProtocolBufferException {
+      return PARSER.parseFrom(data);
+    }
+    public static com.google.nigori.common.NigoriMessages.DigestNode parseFrom(
+        com.google.protobuf.ByteString data,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws com.google.protobuf.InvalidProtocolBufferException {
+      return PARSER.parseFrom(data, extensionRegistry);
+    }
+    public static com.google.nigori.common.NigoriMessages.DigestNode parseFrom(byte[] data)
+        throws com.google.protobuf.InvalidProtocolBufferException {
+      return PARSER.parseFrom(data);
+    }
+    public static com.google.nigori.common.NigoriMessages.DigestNode parseFrom(
+        byte[] data,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws com.google.protobuf.InvalidProtocolBufferException {
+      return PARSER.parseFrom(data, extensionRegistry);
+    }
+    public static com.google.nigori.common.NigoriMessages.DigestNode parseFrom(java.io.InputStream input)
+        throws java.io.IOException {
+      return PARSER.parseFrom(input);
+    }
+    public static com.google.nigori.common.NigoriMessages.DigestNode parseFrom(
+        java.io.InputStream input,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws java.io.IOException {
+      return PARSER.parseFrom(input, extensionRegistry);
+    }
+    public static com.google.nigori.common.NigoriMessages.DigestNode parseDelimitedFrom(java.io.InputStream input)
+        throws java.io.IOException {
+      return PARSER.parseDelimitedFrom(input);
+    }
+    public static com.google.nigori.common.NigoriMessages.DigestNode parseDelimitedFrom(
+        java.io.InputStream input,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws java.io.IOException {
+      return PARSER.parseDelimitedFrom(input, extensionRegistry);
+    }
+    public static com.google.nigori.common.NigoriMessages.DigestNode parseFrom(
+        com.google.protobuf.CodedInputStream input)
+        throws java.io.IOException {
+      return PARSER.parseFrom(input);
+    }
+    public static com.google.nigori.common.NigoriMessages.DigestNode parseFrom(
+        com.google.protobuf.CodedInputStream input,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws java.io.IOException {
+      return PARSER.parseFrom(input, extensionRegistry);
+    }
+
+    public static Builder newBuilder() { return Builder.create(); }
+    public Builder newBuilderForType() { return newBuilder(); }
+    public static Builder newBuilder(com.google.nigori.common.NigoriMessages.DigestNode prototype) {
+      return newBuilder().mergeFrom(prototype);
+    }
+    public Builder toBuilder() { return newBuilder(this); }
+
+    @java.lang.Override
+    protected Builder newBuilderForType(
+        com.google.protobuf.GeneratedMessage.BuilderParent parent) {
+      Builder builder = new Builder(parent);
+      return builder;
+    }
+    /**
+     * Protobuf type {@code nigori.DigestNode}
+     *
+     * <pre>
+     * A subtree of the digest tree over a user's (key, revision) pairs. Each pair is placed in the tree
+     * by the SHA-256 hash of its key and revision, taking 4 bits of the hash per level, so each node has
+     * up to 16 children.
+     * </pre>
+     */
+    public static final class Builder extends
+        com.google.protobuf.GeneratedMessage.Builder<Builder> implements
+        // @@protoc_insertion_point(builder_implements:nigori.DigestNode)
+        com.google.nigori.common.NigoriMessages.DigestNodeOrBuilder {
+      public static final com.google.protobuf.Descriptors.Descriptor
+          getDescriptor() {
+        return com.google.nigori.common.NigoriMessages.internal_static_nigori_DigestNode_descriptor;
+      }
+
+      protected com.google.protobuf.GeneratedMessage.FieldAccessorTable
+          internalGetFieldAccessorTable() {
+        return com.google.nigori.common.NigoriMessages.internal_static_nigori_DigestNode_fieldAccessorTable
+            .ensureFieldAccessorsInitialized(
+                com.google.nigori.common.NigoriMessages.DigestNode.class, com.google.nigori.common.NigoriMessages.DigestNode.Builder.class);
+      }
+
+      // Construct using com.google.nigori.common.NigoriMessages.DigestNode.newBuilder()
+      private Builder() {
+        maybeForceBuilderInitialization();
+      }
+
+      private Builder(
+          com.google.protobuf.GeneratedMessage.BuilderParent parent) {
+        super(parent);
+        maybeForceBuilderInitialization();
+      }
+      private void maybeForceBuilderInitialization() {
+        if (com.google.protobuf.GeneratedMessage.alwaysUseFieldBuilders) {
+        }
+      }
+      private static Builder create() {
+        return new Builder();
+      }
+
+      public Builder clear() {
+        super.clear();
+        path_ = com.google.protobuf.ByteString.EMPTY;
+        bitField0_ = (bitField0_ & ~0x00000001);
+        hash_ = com.google.protobuf.ByteString.EMPTY;
+        bitField0_ = (bitField0_ & ~0x00000002);
+        count_ = 0;
+        bitField0_ = (bitField0_ & ~0x00000004);
+        return this;
+      }
+
+      public Builder clone() {
+        return create().mergeFrom(buildPartial());
+      }
+
+      public com.google.protobuf.Descriptors.Descriptor
+          getDescriptorForType() {
+        return com.google.nigori.common.NigoriMessages.internal_static_nigori_DigestNode_descriptor;
+      }
+
+      public com.google.nigori.common.NigoriMessages.DigestNode getDefaultInstanceForType() {
+        return com.google.nigori.common.NigoriMessages.DigestNode.getDefaultInstance();
+      }
+
+      public com.google.nigori.common.NigoriMessages.DigestNode build() {
+        com.google.nigori.common.NigoriMessages.DigestNode result = buildPartial();
+        if (!result.isInitialized()) {
+          throw newUninitializedMessageException(result);
+        }
+        return result;
+      }
+
+      public com.google.nigori.common.NigoriMessages.DigestNode buildPartial() {
+        com.google.nigori.common.NigoriMessages.DigestNode result = new com.google.nigori.common.NigoriMessages.DigestNode(this);
+        int from_bitField0_ = bitField0_;
+        int to_bitField0_ = 0;
+        if (((from_bitField0_ & 0x00000001) == 0x00000001)) {
+          to_bitField0_ |= 0x00000001;
+        }
+        result.path_ = path_;
+        if (((from_bitField0_ & 0x00000002) == 0x00000002)) {
+          to_bitField0_ |= 0x00000002;
+        }
+        result.hash_ = hash_;
+        if (((from_bitField0_ & 0x00000004) == 0x00000004)) {
+          to_bitField0_ |= 0x00000004;
+        }
+        result.count_ = count_;
+        result.bitField0_ = to_bitField0_;
+        onBuilt();
+        return result;
+      }
+
+      public Builder mergeFrom(com.google.protobuf.Message other) {
+        if (other instanceof com.google.nigori.common.NigoriMessages.DigestNode) {
+          return mergeFrom((com.google.nigori.common.NigoriMessages.DigestNode)other);
+        } else {
+          super.mergeFrom(other);
+          return this;
+        }
+      }
+
+      public Builder mergeFrom(com.google.nigori.common.NigoriMessages.DigestNode other) {
+        if (other == com.google.nigori.common.NigoriMessages.DigestNode.getDefaultInstance()) return this;
+        if (other.hasPath()) {
+          setPath(other.getPath());
+        }
+        if (other.hasHash()) {
+          setHash(other.getHash());
+        }
+        if (other.hasCount()) {
+          setCount(other.getCount());
+        }
+        this.mergeUnknownFields(other.getUnknownFields());
+        return this;
+      }
+
+      public final boolean isInitialized() {
+        if (!hasPath()) {
+          
+          return false;
+        }
+        if (!hasHash()) {
+          
+          return false;
+        }
+        if (!hasCount()) {
+          
+          return false;
+        }
+        return true;
+      }
+
+      public Builder mergeFrom(
+          com.google.protobuf.CodedInputStream input,
+          com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+          throws java.io.IOException {
+        com.google.nigori.common.NigoriMessages.DigestNode parsedMessage = null;
+        try {
+          parsedMessage = PARSER.parsePartialFrom(input, extensionRegistry);
+        } catch (com.google.protobuf.InvalidProtocolBufferException e) {
+          parsedMessage = (com.google.nigori.common.NigoriMessages.DigestNode) e.getUnfinishedMessage();
+          throw e;
+        } finally {
+          if (parsedMessage != null) {
+            mergeFrom(parsedMessage);
+          }
+        }
+        return this;
+      }
+      private int bitField0_;
+
+      private com.google.protobuf.ByteString path_ = com.google.protobuf.ByteString.EMPTY;
+      /**
+       * <code>required bytes path = 1;</code>
+       *
+       * <pre>
+       * One byte (0-15) per level from the root, empty for the root
+       * </pre>
+       */
+      public boolean hasPath() {
+        return ((bitField0_ & 0x00000001) == 0x00000001);
+      }
+      /**
+       * <code>required bytes path = 1;</code>
+       *
+       * <pre>
+       * One byte (0-15) per level from the root, empty for the root
+       * </pre>
+       */
+      public com.google.protobuf.ByteString getPath() {
+        return path_;
+      }
+      /**
+       * <code>required bytes path = 1;</code>
+       *
+       * <pre>
+       * One byte (0-15) per level from the root, empty for the root
+       * </pre>
+       */
+      public Builder setPath(com.google.protobuf.ByteString value) {
+        if (value == null) {
+    throw new NullPointerException();
+  }
+  bitField0_ |= 0x00000001;
+        path_ = value;
+        onChanged();
+        return this;
+      }
+      /**
+       * <code>required bytes path = 1;</code>
+       *
+       * <pre>
+       * One byte (0-15) per level from the root, empty for the root
+       * </pre>
+       */
+      public Builder clearPath() {
+        bitField0_ = (bitField0_ & ~0x00000001);
+        path_ = getDefaultInstance().getPath();
+        onChanged();
+        return this;
+      }
+
+      private com.google.protobuf.ByteString hash_ = com.google.protobuf.ByteString.EMPTY;
+      /**
+       * <code>required bytes hash = 2;</code>
+       *
+       * <pre>
+       * XOR of the SHA-256 hashes of all the pairs in the subtree, zeros if it is empty
+       * </pre>
+       */
+      public boolean hasHash() {
+        return ((bitField0_ & 0x00000002) == 0x00000002);
+      }
+      /**
+       * <code>required bytes hash = 2;</code>
+       *
+       * <pre>
+       * XOR of the SHA-256 hashes of all the pairs in the subtree, zeros if it is empty
+       * </pre>
+       */
+      public com.google.protobuf.ByteString getHash() {
+        return hash_;
+      }
+      /**
+       * <code>required bytes hash = 2;</code>
+       *
+       * <pre>
+       * XOR of the SHA-256 hashes of all the pairs in the subtree, zeros if it is empty
+       * </pre>
+       */
+      public Builder setHash(com.google.protobuf.ByteString value) {
+        if (value == null) {
+    throw new NullPointerException();
+  }
+  bitField0_ |= 0x00000002;
+        hash_ = value;
+        onChanged();
+        return this;
+      }
+      /**
+       * <code>required bytes hash = 2;</code>
+       *
+       * <pre>
+       * XOR of the SHA-256 hashes of all the pairs in the subtree, zeros if it is empty
+       * </pre>
+       */
+      public Builder clearHash() {
+        bitField0_ = (bitField0_ & ~0x00000002);
+        hash_ = getDefaultInstance().getHash();
+        onChanged();
+        return this;
+      }
+
+      private int count_ ;
+      /**
+       * <code>required uint32 count = 3;</code>
+       *
+       * <pre>
+       * Number of pairs in the subtree
+       * </pre>
+       */
+      public boolean hasCount() {
+        return ((bitField0_ & 0x00000004) == 0x00000004);
+      }
+      /**
+       * <code>required uint32 count = 3;</code>
+       *
+       * <pre>
+       * Number of pairs in the subtree
+       * </pre>
+       */
+      public int getCount() {
+        return count_;
+      }
+      /**
+       * <code>required uint32 count = 3;</code>
+       *
+       * <pre>
+       * Number of pairs in the subtree
+       * </pre>
+       */
+      public Builder setCount(int value) {
+        bitField0_ |= 0x00000004;
+        count_ = value;
+        onChanged();
+        return this;
+      }
+      /**
+       * <code>required uint32 count = 3;</code>
+       *
+       * <pre>
+       * Number of pairs in the subtree
+       * </pre>
+       */
+      public Builder clearCount() {
+        bitField0_ = (bitField0_ & ~0x00000004);
+        count_ = 0;
+        onChanged();
+        return this;
+      }
+
+      // @@protoc_insertion_point(builder_scope:nigori.DigestNode)
+    }
+
+    static {
+      defaultInstance = new DigestNode(true);
+      defaultInstance.initFields();
+    }
+
+    // @@protoc_insertion_point(class_scope:nigori.DigestNode)
+  }
+
+  public interface KeyRevisionOrBuilder extends
+      // @@protoc_insertion_point(interface_extends:nigori.KeyRevision)
+      com.google.protobuf.MessageOrBuilder {
+
+    /**
+     * <code>required bytes key = 1;</code>
+     */
+    boolean hasKey();
+    /**
+     * <code>required bytes key = 1;</code>
+     */
+    com.google.protobuf.ByteString getKey();
+
+    /**
+     * <code>required bytes revision = 2;</code>
+     */
+    boolean hasRevision();
+    /**
+     * <code>required bytes revision = 2;</code>
+     */
+    com.google.protobuf.ByteString getRevision();
+  }
+  /**
+   * Protobuf type {@code nigori.KeyRevision}
+   */
+  public static final class KeyRevision extends
+      com.google.protobuf.GeneratedMessage implements
+      // @@protoc_insertion_point(message_implements:nigori.KeyRevision)
+      KeyRevisionOrBuilder {
+    // Use KeyRevision.newBuilder() to construct.
+    private KeyRevision(com.google.protobuf.GeneratedMessage.Builder<?> builder) {
+      super(builder);
+      this.unknownFields = builder.getUnknownFields();
+    }
+    private KeyRevision(boolean noInit) { this.unknownFields = com.google.protobuf.UnknownFieldSet.getDefaultInstance(); }
+
+    private static final KeyRevision defaultInstance;
+    public static KeyRevision getDefaultInstance() {
+      return defaultInstance;
+    }
+
+    public KeyRevision getDefaultInstanceForType() {
+      return defaultInstance;
+    }
+
+    private final com.google.protobuf.UnknownFieldSet unknownFields;
+    @java.lang.Override
+    public final com.google.protobuf.UnknownFieldSet
+        getUnknownFields() {
+      return this.unknownFields;
+    }
+    private KeyRevision(
+        com.google.protobuf.CodedInputStream input,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws com.google.protobuf.InvalidProtocolBufferException {
+      initFields();
+      int mutable_bitField0_ = 0;
+      com.google.protobuf.UnknownFieldSet.Builder unknownFields =
+          com.google.protobuf.UnknownFieldSet.newBuilder();
+      try {
+        boolean done = false;
+        while (!done) {
+          int tag = input.readTag();
+          switch (tag) {
+            case 0:
+              done = true;
+              break;
+            default: {
+              if (!parseUnknownField(input, unknownFields,
+                                     extensionRegistry, tag)) {
+                done = true;
+              }
+              break;
+            }
+            case 10: {
+              bitField0_ |= 0x00000001;
+              key_ = input.readBytes();
+              break;
+            }
+            case 18: {
+              bitField0_ |= 0x00000002;
+              revision_ = input.readBytes();
+              break;
+            }
+          }
+        }
+      } catch (com.google.protobuf.InvalidProtocolBufferException e) {
+        throw e.setUnfinishedMessage(this);
+      } catch (java.io.IOException e) {
+        throw new com.google.protobuf.InvalidProtocolBufferException(
+            e.getMessage()).setUnfinishedMessage(this);
+      } finally {
+        this.unknownFields = unknownFields.build();
+        makeExtensionsImmutable();
+      }
+    }
+    public static final com.google.protobuf.Descriptors.Descriptor
+        getDescriptor() {
+      return com.google.nigori.common.NigoriMessages.internal_static_nigori_KeyRevision_descriptor;
+    }
+
+    protected com.google.protobuf.GeneratedMessage.FieldAccessorTable
+        internalGetFieldAccessorTable() {
+      return com.google.nigori.common.NigoriMessages.internal_static_nigori_KeyRevision_fieldAccessorTable
+          .ensureFieldAccessorsInitialized(
+              com.google.nigori.common.NigoriMessages.KeyRevision.class, com.google.nigori.common.NigoriMessages.KeyRevision.Builder.class);
+    }
+
+    public static com.google.protobuf.Parser<KeyRevision> PARSER =
+        new com.google.protobuf.AbstractParser<KeyRevision>() {
+      public KeyRevision parsePartialFrom(
+          com.google.protobuf.CodedInputStream input,
+          com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+          throws com.google.protobuf.InvalidProtocolBufferException {
+        return new KeyRevision(input, extensionRegistry);
+      }
+    };
+
+    @java.lang.Override
+    public com.google.protobuf.Parser<KeyRevision> getParserForType() {
+      return PARSER;
+    }
+
+    private int bitField0_;
+    public static final int KEY_FIELD_NUMBER = 1;
+    private com.google.protobuf.ByteString key_;
+    /**
+     * <code>required bytes key = 1;</code>
+     */
+    public boolean hasKey() {
+      return ((bitField0_ & 0x00000001) == 0x00000001);
+    }
+    /**
+     * <code>required bytes key = 1;</code>
+     */
+    public com.google.protobuf.ByteString getKey() {
+      return key_;
+    }
+
+    public static final int REVISION_FIELD_NUMBER = 2;
+    private com.google.protobuf.ByteString revision_;
+    /**
+     * <code>required bytes revision = 2;</code>
+     */
+    public boolean hasRevision() {
+      return ((bitField0_ & 0x00000002) == 0x00000002);
+    }
+    /**
+     * <code>required bytes revision = 2;</code>
+     */
+    public com.google.protobuf.ByteString getRevision() {
+      return revision_;
+    }
+
+    private void initFields() {
+      key_ = com.google.protobuf.ByteString.EMPTY;
+      revision_ = com.google.protobuf.ByteString.EMPTY;
+    }
+    private byte memoizedIsInitialized = -1;
+    public final boolean isInitialized() {
+      byte isInitialized = memoizedIsInitialized;
+      if (isInitialized == 1) return true;
+      if (isInitialized == 0) return false;
+
+      if (!hasKey()) {
+        memoizedIsInitialized = 0;
+        return false;
+      }
+      if (!hasRevision()) {
+        memoizedIsInitialized = 0;
+        return false;
+      }
+      memoizedIsInitialized = 1;
+      return true;
+    }
+
+    public void writeTo(com.google.protobuf.CodedOutputStream output)
+                        throws java.io.IOException {
+      getSerializedSize();
+      if (((bitField0_ & 0x00000001) == 0x00000001)) {
+        output.writeBytes(1, key_);
+      }
+      if (((bitField0_ & 0x00000002) == 0x00000002)) {
+        output.writeBytes(2, revision_);
+      }
+      getUnknownFields().writeTo(output);
+    }
+
+    private int memoizedSerializedSize = -1;
+    public int getSerializedSize() {
+      int size = memoizedSerializedSize;
+      if (size != -1) return size;
+
+      size = 0;
+      if (((bitField0_ & 0x00000001) == 0x00000001)) {
+        size += com.google.protobuf.CodedOutputStream
+          .computeBytesSize(1, key_);
+      }
+      if (((bitField0_ & 0x00000002) == 0x00000002)) {
+        size += com.google.protobuf.CodedOutputStream
+          .computeBytesSize(2, revision_);
+      }
+      size += getUnknownFields().getSerializedSize();
+      memoizedSerializedSize = size;
+      return size;
+    }
+
+    private static final long serialVersionUID = 0L;
+    @java.lang.Override
+    protected java.lang.Object writeReplace()
+        throws java.io.ObjectStreamException {
+      return super.writeReplace();
+    }
+
+    public static com.google.nigori.common.NigoriMessages.KeyRevision parseFrom(
+        com.google.protobuf.ByteString data)
+        throws com.google.protobuf.InvalidProtocolBufferException {
+      return PARSER.parseFrom(data);
+    }
+    public static com.google.nigori.common.NigoriMessages.KeyRevision parseFrom(
+        com.google.protobuf.ByteString data,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws com.google.protobuf.InvalidProtocolBufferException {
+      return PARSER.parseFrom(data, extensionRegistry);
+    }
+    public static com.google.nigori.common.NigoriMessages.KeyRevision parseFrom(byte[] data)
+        throws com.google.protobuf.InvalidProtocolBufferException {
+      return PARSER.parseFrom(data);
+    }
+    public static com.google.nigori.common.NigoriMessages.KeyRevision parseFrom(
+        byte[] data,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws com.google.protobuf.InvalidProtocolBufferException {
+      return PARSER.parseFrom(data, extensionRegistry);
+    }
+    public static com.google.nigori.common.NigoriMessages.KeyRevision parseFrom(java.io.InputStream input)
+        throws java.io.IOException {
+      return PARSER.parseFrom(input);
+    }
+    public static com.google.nigori.common.NigoriMessages.KeyRevision parseFrom(
+        java.io.InputStream input,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws java.io.IOException {
+      return PARSER.parseFrom(input, extensionRegistry);
+    }
+    public static com.google.nigori.common.NigoriMessages.KeyRevision parseDelimitedFrom(java.io.InputStream input)
+        throws java.io.IOException {
+      return PARSER.parseDelimitedFrom(input);
+    }
+    public static com.google.nigori.common.NigoriMessages.KeyRevision parseDelimitedFrom(
+        java.io.InputStream input,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws java.io.IOException {
+      return PARSER.parseDelimitedFrom(input, extensionRegistry);
+    }
+    public static com.google.nigori.common.NigoriMessages.KeyRevision parseFrom(
+        com.google.protobuf.CodedInputStream input)
+        throws java.io.IOException {
+      return PARSER.parseFrom(input);
+    }
+    public static com.google.nigori.common.NigoriMessages.KeyRevision parseFrom(
+        com.google.protobuf.CodedInputStream input,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws java.io.IOException {
+      return PARSER.parseFrom(input, extensionRegistry);
+    }
+
+    public static Builder newBuilder() { return Builder.create(); }
+    public Builder newBuilderForType() { return newBuilder(); }
+    public static Builder newBuilder(com.google.nigori.common.NigoriMessages.KeyRevision prototype) {
+      return newBuilder().mergeFrom(prototype);
+    }
+    public Builder toBuilder() { return newBuilder(this); }
+
+    @java.lang.Override
+    protected Builder newBuilderForType(
+        com.google.protobuf.GeneratedMessage.BuilderParent parent) {
+      Builder builder = new Builder(parent);
+      return builder;
+    }
+    /**
+     * Protobuf type {@code nigori.KeyRevision}
+     */
+    public static final class Builder extends
+        com.google.protobuf.GeneratedMessage.Builder<Builder> implements
+        // @@protoc_insertion_point(builder_implements:nigori.KeyRevision)
+        com.google.nigori.common.NigoriMessages.KeyRevisionOrBuilder {
+      public static final com.google.protobuf.Descriptors.Descriptor
+          getDescriptor() {
+        return com.google.nigori.common.NigoriMessages.internal_static_nigori_KeyRevision_descriptor;
+      }
+
+      protected com.google.protobuf.GeneratedMessage.FieldAccessorTable
+          internalGetFieldAccessorTable() {
+        return com.google.nigori.common.NigoriMessages.internal_static_nigori_KeyRevision_fieldAccessorTable
+            .ensureFieldAccessorsInitialized(
+                com.google.nigori.common.NigoriMessages.KeyRevision.class, com.google.nigori.common.NigoriMessages.KeyRevision.Builder.class);
+      }
+
+      // Construct using com.google.nigori.common.NigoriMessages.KeyRevision.newBuilder()
+      private Builder() {
+        maybeForceBuilderInitialization();
+      }
+
+      private Builder(
+          com.google.protobuf.GeneratedMessage.BuilderParent parent) {
+        super(parent);
+        maybeForceBuilderInitialization();
+      }
+      private void maybeForceBuilderInitialization() {
+        if (com.google.protobuf.GeneratedMessage.alwaysUseFieldBuilders) {
+        }
+      }
+      private static Builder create() {
+        return new Builder();
+      }
+
+      public Builder clear() {
+        super.clear();
+        key_ = com.google.protobuf.ByteString.EMPTY;
+        bitField0_ = (bitField0_ & ~0x00000001);
+        revision_ = com.google.protobuf.ByteString.EMPTY;
+        bitField0_ = (bitField0_ & ~0x00000002);
+        return this;
+      }
+
+      public Builder clone() {
+        return create().mergeFrom(buildPartial());
+      }
+
+      public com.google.protobuf.Descriptors.Descriptor
+          getDescriptorForType() {
+        return com.google.nigori.common.NigoriMessages.internal_static_nigori_KeyRevision_descriptor;
+      }
+
+      public com.google.nigori.common.NigoriMessages.KeyRevision getDefaultInstanceForType() {
+        return com.google.nigori.common.NigoriMessages.KeyRevision.getDefaultInstance();
+      }
+
+      public com.google.nigori.common.NigoriMessages.KeyRevision build() {
+        com.google.nigori.common.NigoriMessages.KeyRevision result = buildPartial();
+        if (!result.isInitialized()) {
+          throw newUninitializedMessageException(result);
+        }
+        return result;
+      }
+
+      public com.google.nigori.common.NigoriMessages.KeyRevision buildPartial() {
+        com.google.nigori.common.NigoriMessages.KeyRevision result = new com.google.nigori.common.NigoriMessages.KeyRevision(this);
+        int from_bitField0_ = bitField0_;
+        int to_bitField0_ = 0;
+        if (((from_bitField0_ & 0x00000001) == 0x00000001)) {
+          to_bitField0_ |= 0x00000001;
+        }
+        result.key_ = key_;
+        if (((from_bitField0_ & 0x00000002) == 0x00000002)) {
+          to_bitField0_ |= 0x00000002;
+        }
+        result.revision_ = revision_;
+        result.bitField0_ = to_bitField0_;
+        onBuilt();
+        return result;
+      }
+
+      public Builder mergeFrom(com.google.protobuf.Message other) {
+        if (other instanceof com.google.nigori.common.NigoriMessages.KeyRevision) {
+          return mergeFrom((com.google.nigori.common.NigoriMessages.KeyRevision)other);
+        } else {
+          super.mergeFrom(other);
+          return this;
+        }
+      }
+
+      public Builder mergeFrom(com.google.nigori.common.NigoriMessages.KeyRevision other) {
+        if (other == com.google.nigori.common.NigoriMessages.KeyRevision.getDefaultInstance()) return this;
+        if (other.hasKey()) {
+          setKey(other.getKey());
+        }
+        if (other.hasRevision()) {
+          setRevision(other.getRevision());
+        }
+        this.mergeUnknownFields(other.getUnknownFields());
+        return this;
+      }
+
+      public final boolean isInitialized() {
+        if (!hasKey()) {
+          
+          return false;
+        }
+        if (!hasRevision()) {
+          
+          return false;
+        }
+        return true;
+      }
+
+      public Builder mergeFrom(
+          com.google.protobuf.CodedInputStream input,
+          com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+          throws java.io.IOException {
+        com.google.nigori.common.NigoriMessages.KeyRevision parsedMessage = null;
+        try {
+          parsedMessage = PARSER.parsePartialFrom(input, extensionRegistry);
+        } catch (com.google.protobuf.InvalidProtocolBufferException e) {
+          parsedMessage = (com.google.nigori.common.NigoriMessages.KeyRevision) e.getUnfinishedMessage();
+          throw e;
+        } finally {
+          if (parsedMessage != null) {
+            mergeFrom(parsedMessage);
+          }
+        }
+        return this;
+      }
+      private int bitField0_;
+
+      private com.google.protobuf.ByteString key_ = com.google.protobuf.ByteString.EMPTY;
+      /**
+       * <code>required bytes key = 1;</code>
+       */
+      public boolean hasKey() {
+        return ((bitField0_ & 0x00000001) == 0x00000001);
+      }
+      /**
+       * <code>required bytes key = 1;</code>
+       */
+      public com.google.protobuf.ByteString getKey() {
+        return key_;
+      }
+      /**
+       * <code>required bytes key = 1;</code>
+       */
+      public Builder setKey(com.google.protobuf.ByteString value) {
+        if (value == null) {
+    throw new NullPointerException();
+  }
+  bitField0_ |= 0x00000001;
+        key_ = value;
+        onChanged();
+        return this;
+      }
+      /**
+       * <code>required bytes key = 1;</code>
+       */
+      public Builder clearKey() {
+        bitField0_ = (bitField0_ & ~0x00000001);
+        key_ = getDefaultInstance().getKey();
+        onChanged();
+        return this;
+      }
+
+      private com.google.protobuf.ByteString revision_ = com.google.protobuf.ByteString.EMPTY;
+      /**
+       * <code>required bytes revision = 2;</code>
+       */
+      public boolean hasRevision() {
+        return ((bitField0_ & 0x00000002) == 0x00000002);
+      }
+      /**
+       * <code>required bytes revision = 2;</code>
+       */
+      public com.google.protobuf.ByteString getRevision() {
+        return revision_;
+      }
+      /**
+       * <code>required bytes revision = 2;</code>
+       */
+      public Builder setRevision(com.google.protobuf.ByteString value) {
+        if (value == null) {
+    throw new NullPointerException();
+  }
+  bitField0_ |= 0x00000002;
+        revision_ = value;
+        onChanged();
+        return this;
+      }
+      /**
+       * <code>required bytes revision = 2;</code>
+       */
+      public Builder clearRevision() {
+        bitField0_ = (bitField0_ & ~0x00000002);
+        revision_ = getDefaultInstance().getRevision();
+        onChanged();
+        return this;
+      }
+
+      // @@protoc_insertion_point(builder_scope:nigori.KeyRevision)
+    }
+
+    static {
+      defaultInstance = new KeyRevision(true);
+      defaultInstance.initFields();
+    }
+
+    // @@protoc_insertion_point(class_scope:nigori.KeyRevision)
+  }
+
+  public interface GetDigestRequestOrBuilder extends
+      // @@protoc_insertion_point(interface_extends:nigori.GetDigestRequest)
+      com.google.protobuf.MessageOrBuilder {
+
+    /**
+     * <code>required .nigori.AuthenticateRequest auth = 1;</code>
+     */
+    boolean hasAuth();
+    /**
+     * <code>required .nigori.AuthenticateRequest auth = 1;</code>
+     */
+    com.google.nigori.common.NigoriMessages.AuthenticateRequest getAuth();
+    /**
+     * <code>required .nigori.AuthenticateRequest auth = 1;</code>
+     */
+    com.google.nigori.common.NigoriMessages.AuthenticateRequestOrBuilder getAuthOrBuilder();
+
+    /**
+     * <code>required bytes path = 2;</code>
+     */
+    boolean hasPath();
+    /**
+     * <code>required bytes path = 2;</code>
+     */
+    com.google.protobuf.ByteString getPath();
+
+    /**
+     * <code>required uint32 depth = 3;</code>
+     *
+     * <pre>
+     * 0 for the node at path itself
+     * </pre>
+     */
+    boolean hasDepth();
+    /**
+     * <code>required uint32 depth = 3;</code>
+     *
+     * <pre>
+     * 0 for the node at path itself
+     * </pre>
+     */
+    int getDepth();
+
+    /**
+     * <code>optional uint32 record_limit = 4;</code>
+     *
+     * <pre>
+     * When depth is 0, the pairs in the subtree are also returned if there are at most this many
+     * </pre>
+     */
+    boolean hasRecordLimit();
+    /**
+     * <code>optional uint32 record_limit = 4;</code>
+     *
+     * <pre>
+     * When depth is 0, the pairs in the subtree are also returned if there are at most this many
+     * </pre>
+     */
+    int getRecordLimit();
+  }
+  /**
+   * Protobuf type {@code nigori.GetDigestRequest}
+   *
+   * <pre>
+   * Get the digests of the subtrees depth levels below path, so that two stores can be compared by
+   * only descending into the subtrees whose digests differ.
+   * </pre>
+   */
+  public static final class GetDigestRequest extends
+      com.google.protobuf.GeneratedMessage implements
+      // @@protoc_insertion_point(message_implements:nigori.GetDigestRequest)
+      GetDigestRequestOrBuilder {
+    // Use GetDigestRequest.newBuilder() to construct.
+    private GetDigestRequest(com.google.protobuf.GeneratedMessage.Builder<?> builder) {
+      super(builder);
+      this.unknownFields = builder.getUnknownFields();
+    }
+    private GetDigestRequest(boolean noInit) { this.unknownFields = com.google.protobuf.UnknownFieldSet.getDefaultInstance(); }
+
+    private static final GetDigestRequest defaultInstance;
+    public static GetDigestRequest getDefaultInstance() {
+      return defaultInstance;
+    }
+
+    public GetDigestRequest getDefaultInstanceForType() {
+      return defaultInstance;
+    }
+
+    private final com.google.protobuf.UnknownFieldSet unknownFields;
+    @java.lang.Override
+    public final com.google.protobuf.UnknownFieldSet
+        getUnknownFields() {
+      return this.unknownFields;
+    }
+    private GetDigestRequest(
+        com.google.protobuf.CodedInputStream input,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws com.google.protobuf.InvalidProtocolBufferException {
+      initFields();
+      int mutable_bitField0_ = 0;
+      com.google.protobuf.UnknownFieldSet.Builder unknownFields =
+          com.google.protobuf.UnknownFieldSet.newBuilder();
+      try {
+        boolean done = false;
+        while (!done) {
+          int tag = input.readTag();
+          switch (tag) {
+            case 0:
+              done = true;
+              break;
+            default: {
+              if (!parseUnknownField(input, unknownFields,
+                                     extensionRegistry, tag)) {
+                done = true;
+              }
+              break;
+            }
+            case 10: {
+              com.google.nigori.common.NigoriMessages.AuthenticateRequest.Builder subBuilder = null;
+              if (((bitField0_ & 0x00000001) == 0x00000001)) {
+                subBuilder = auth_.toBuilder();
+              }
+              auth_ = input.readMessage(com.google.nigori.common.NigoriMessages.AuthenticateRequest.PARSER, extensionRegistry);
+              if (subBuilder != null) {
+                subBuilder.mergeFrom(auth_);
+                auth_ = subBuilder.buildPartial();
+              }
+              bitField0_ |= 0x00000001;
+              break;
+            }
+            case 18: {
+              bitField0_ |= 0x00000002;
+              path_ = input.readBytes();
+              break;
+            }
+            case 24: {
+              bitField0_ |= 0x00000004;
+              depth_ = input.readUInt32();
+              break;
+            }
+            case 32: {
+              bitField0_ |= 0x00000008;
+              recordLimit_ = input.readUInt32();
+              break;
+            }
+          }
+        }
+      } catch (com.google.protobuf.InvalidProtocolBufferException e) {
+        throw e.setUnfinishedMessage(this);
+      } catch (java.io.IOException e) {
+        throw new com.google.protobuf.InvalidProtocolBufferException(
+            e.getMessage()).setUnfinishedMessage(this);
+      } finally {
+        this.unknownFields = unknownFields.build();
+        makeExtensionsImmutable();
+      }
+    }
+    public static final com.google.protobuf.Descriptors.Descriptor
+        getDescriptor() {
+      return com.google.nigori.common.NigoriMessages.internal_static_nigori_GetDigestRequest_descriptor;
+    }
+
+    protected com.google.protobuf.GeneratedMessage.FieldAccessorTable
+        internalGetFieldAccessorTable() {
+      return com.google.nigori.common.NigoriMessages.internal_static_nigori_GetDigestRequest_fieldAccessorTable
+          .ensureFieldAccessorsInitialized(
+              com.google.nigori.common.NigoriMessages.GetDigestRequest.class, com.google.nigori.common.NigoriMessages.GetDigestRequest.Builder.class);
+    }
+
+    public static com.google.protobuf.Parser<GetDigestRequest> PARSER =
+        new com.google.protobuf.AbstractParser<GetDigestRequest>() {
+      public GetDigestRequest parsePartialFrom(
+          com.google.protobuf.CodedInputStream input,
+          com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+          throws com.google.protobuf.InvalidProtocolBufferException {
+        return new GetDigestRequest(input, extensionRegistry);
+      }
+    };
+
+    @java.lang.Override
+    public com.google.protobuf.Parser<GetDigestRequest> getParserForType() {
+      return PARSER;
+    }
+
+    private int bitField0_;
+    public static final int AUTH_FIELD_NUMBER = 1;
+    private com.google.nigori.common.NigoriMessages.AuthenticateRequest auth_;
+    /**
+     * <code>required .nigori.AuthenticateRequest auth = 1;</code>
+     */
+    public boolean hasAuth() {
+      return ((bitField0_ & 0x00000001) == 0x00000001);
+    }
+    /**
+     * <code>required .nigori.AuthenticateRequest auth = 1;</code>
+     */
+    public com.google.nigori.common.NigoriMessages.AuthenticateRequest getAuth() {
+      return auth_;
+    }
+    /**
+     * <code>required .nigori.AuthenticateRequest auth = 1;</code>
+     */
+    public com.google.nigori.common.NigoriMessages.AuthenticateRequestOrBuilder getAuthOrBuilder() {
+      return auth_;
+    }
+
+    public static final int PATH_FIELD_NUMBER = 2;
+    private com.google.protobuf.ByteString path_;
+    /**
+     * <code>required bytes path = 2;</code>
+     */
+    public boolean hasPath() {
+      return ((bitField0_ & 0x00000002) == 0x00000002);
+    }
+    /**
+     * <code>required bytes path = 2;</code>
+     */
+    public com.google.protobuf.ByteString getPath() {
+      return path_;
+    }
+
+    public static final int DEPTH_FIELD_NUMBER = 3;
+    private int depth_;
+    /**
+     * <code>required uint32 depth = 3;</code>
+     *
+     * <pre>
+     * 0 for the node at path itself
+     * </pre>
+     */
+    public boolean hasDepth() {
+      return ((bitField0_ & 0x00000004) == 0x00000004);
+    }
+    /**
+     * <code>required uint32 depth = 3;</code>
+     *
+     * <pre>
+     * 0 for the node at path itself
+     * </pre>
+     */
+    public int getDepth() {
+      return depth_;
+    }
+
+    public static final int RECORD_LIMIT_FIELD_NUMBER = 4;
+    private int recordLimit_;
+    /**
+     * <code>optional uint32 record_limit = 4;</code>
+     *
+     * <pre>
+     * When depth is 0, the pairs in the subtree are also returned if there are at most this many
+     * </pre>
+     */
+    public boolean hasRecordLimit() {
+      return ((bitField0_ & 0x00000008) == 0x00000008);
+    }
+    /**
+     * <code>optional uint32 record_limit = 4;</code>
+     *
+     * <pre>
+     * When depth is 0, the pairs in the subtree are also returned if there are at most this many
+     * </pre>
+     */
+    public int getRecordLimit() {
+      return recordLimit_;
+    }
+
+    private void initFields() {
+      auth_ = com.google.nigori.common.NigoriMessages.AuthenticateRequest.getDefaultInstance();
+      path_ = com.google.protobuf.ByteString.EMPTY;
+      depth_ = 0;
+      recordLimit_ = 0;
+    }
+    private byte memoizedIsInitialized = -1;
+    public final boolean isInitialized() {
+      byte isInitialized = memoizedIsInitialized;
+      if (isInitialized == 1) return true;
+      if (isInitialized == 0) return false;
+
+      if (!hasAuth()) {
+        memoizedIsInitialized = 0;
+        return false;
+      }
+      if (!hasPath()) {
+        memoizedIsInitialized = 0;
+        return false;
+      }
+      if (!hasDepth()) {
+        memoizedIsInitialized = 0;
+        return false;
+      }
+      if (!getAuth().isInitialized()) {
+        memoizedIsInitialized = 0;
+        return false;
+      }
+      memoizedIsInitialized = 1;
+      return true;
+    }
+
+    public void writeTo(com.google.protobuf.CodedOutputStream output)
+                        throws java.io.IOException {
+      getSerializedSize();
+      if (((bitField0_ & 0x00000001) == 0x00000001)) {
+        output.writeMessage(1, auth_);
+      }
+      if (((bitField0_ & 0x00000002) == 0x00000002)) {
+        output.writeBytes(2, path_);
+      }
+      if (((bitField0_ & 0x00000004) == 0x00000004)) {
+        output.writeUInt32(3, depth_);
+      }
+      if (((bitField0_ & 0x00000008) == 0x00000008)) {
+        output.writeUInt32(4, recordLimit_);
+      }
+      getUnknownFields().writeTo(output);
+    }
+
+    private int memoizedSerializedSize = -1;
+    public int getSerializedSize() {
+      int size = memoizedSerializedSize;
+      if (size != -1) return size;
+
+      size = 0;
+      if (((bitField0_ & 0x00000001) == 0x00000001)) {
+        size += com.google.protobuf.CodedOutputStream
+          .computeMessageSize(1, auth_);
+      }
+      if (((bitField0_ & 0x00000002) == 0x00000002)) {
+        size += com.google.protobuf.CodedOutputStream
+          .computeBytesSize(2, path_);
+      }
+      if (((bitField0_ & 0x00000004) == 0x00000004)) {
+        size += com.google.protobuf.CodedOutputStream
+          .computeUInt32Size(3, depth_);
+      }
+      if (((bitField0_ & 0x00000008) == 0x00000008)) {
+        size += com.google.protobuf.CodedOutputStream
+          .computeUInt32Size(4, recordLimit_);
+      }
+      size += getUnknownFields().getSerializedSize();
+      memoizedSerializedSize = size;
+      return size;
+    }
+
+    private static final long serialVersionUID = 0L;
+    @java.lang.Override
+    protected java.lang.Object writeReplace()
+        throws java.io.ObjectStreamException {
+      return super.writeReplace();
+    }
+
+    public static com.google.nigori.common.NigoriMessages.GetDigestRequest parseFrom(
+        com.google.protobuf.ByteString data)
+        throws com.google.protobuf.InvalidProtocolBufferException {
+      return PARSER.parseFrom(data);
+    }
+    public static com.google.nigori.common.NigoriMessages.GetDigestRequest parseFrom(
+        com.google.protobuf.ByteString data,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws com.google.protobuf.InvalidProtocolBufferException {
+      return PARSER.parseFrom(data, extensionRegistry);
+    }
+    public static com.google.nigori.common.NigoriMessages.GetDigestRequest parseFrom(byte[] data)
+        throws com.google.protobuf.InvalidProtocolBufferException {
+      return PARSER.parseFrom(data);
+    }
+    public static com.google.nigori.common.NigoriMessages.GetDigestRequest parseFrom(
+        byte[] data,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws com.google.protobuf.InvalidProtocolBufferException {
+      return PARSER.parseFrom(data, extensionRegistry);
+    }
+    public static com.google.nigori.common.NigoriMessages.GetDigestRequest parseFrom(java.io.InputStream input)
+        throws java.io.IOException {
+      return PARSER.parseFrom(input);
+    }
+    public static com.google.nigori.common.NigoriMessages.GetDigestRequest parseFrom(
+        java.io.InputStream input,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws java.io.IOException {
+      return PARSER.parseFrom(input, extensionRegistry);
+    }
+    public static com.google.nigori.common.NigoriMessages.GetDigestRequest parseDelimitedFrom(java.io.InputStream input)
+        throws java.io.IOException {
+      return PARSER.parseDelimitedFrom(input);
+    }
+    public static com.google.nigori.common.NigoriMessages.GetDigestRequest parseDelimitedFrom(
+        java.io.InputStream input,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws java.io.IOException {
+      return PARSER.parseDelimitedFrom(input, extensionRegistry);
+    }
+    public static com.google.nigori.common.NigoriMessages.GetDigestRequest parseFrom(
+        com.google.protobuf.CodedInputStream input)
+        throws java.io.IOException {
+      return PARSER.parseFrom(input);
+    }
+    public static com.google.nigori.common.NigoriMessages.GetDigestRequest parseFrom(
+        com.google.protobuf.CodedInputStream input,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws java.io.IOException {
+      return PARSER.parseFrom(input, extensionRegistry);
+    }
+
+    public static Builder newBuilder() { return Builder.create(); }
+    public Builder newBuilderForType() { return newBuilder(); }
+    public static Builder newBuilder(com.google.nigori.common.NigoriMessages.GetDigestRequest prototype) {
+      return newBuilder().mergeFrom(prototype);
+    }
+    public Builder toBuilder() { return newBuilder(this); }
+
+    @java.lang.Override
+    protected Builder newBuilderForType(
+        com.google.protobuf.GeneratedMessage.BuilderParent parent) {
+      Builder builder = new Builder(parent);
+      return builder;
+    }
+    /**
+     * Protobuf type {@code nigori.GetDigestRequest}
+     *
+     * <pre>
+     * Get the digests of the subtrees depth levels below path, so that two stores can be compared by
+     * only descending into the subtrees whose digests differ.
+     * </pre>
+     */
+    public static final class Builder extends
+        com.google.protobuf.GeneratedMessage.Builder<Builder> implements
+        // @@protoc_insertion_point(builder_implements:nigori.GetDigestRequest)
+        com.google.nigori.common.NigoriMessages.GetDigestRequestOrBuilder {
+      public static final com.google.protobuf.Descriptors.Descriptor
+          getDescriptor() {
+        return com.google.nigori.common.NigoriMessages.internal_static_nigori_GetDigestRequest_descriptor;
+      }
+
+      protected com.google.protobuf.GeneratedMessage.FieldAccessorTable
+          internalGetFieldAccessorTable() {
+        return com.google.nigori.common.NigoriMessages.internal_static_nigori_GetDigestRequest_fieldAccessorTable
+            .ensureFieldAccessorsInitialized(
+                com.google.nigori.common.NigoriMessages.GetDigestRequest.class, com.google.nigori.common.NigoriMessages.GetDigestRequest.Builder.class);
+      }
+
+      // Construct using com.google.nigori.common.NigoriMessages.GetDigestRequest.newBuilder()
+      private Builder() {
+        maybeForceBuilderInitialization();
+      }
+
+      private Builder(
+          com.google.protobuf.GeneratedMessage.BuilderParent parent) {
+        super(parent);
+        maybeForceBuilderInitialization();
+      }
+      private void maybeForceBuilderInitialization() {
+        if (com.google.protobuf.GeneratedMessage.alwaysUseFieldBuilders) {
+          getAuthFieldBuilder();
+        }
+      }
+      private static Builder create() {
+        return new Builder();
+      }
+
+      public Builder clear() {
+        super.clear();
+        if (authBuilder_ == null) {
+          auth_ = com.google.nigori.common.NigoriMessages.AuthenticateRequest.getDefaultInstance();
+        } else {
+          authBuilder_.clear();
+        }
+        bitField0_ = (bitField0_ & ~0x00000001);
+        path_ = com.google.protobuf.ByteString.EMPTY;
+        bitField0_ = (bitField0_ & ~0x00000002);
+        depth_ = 0;
+        bitField0_ = (bitField0_ & ~0x00000004);
+        recordLimit_ = 0;
+        bitField0_ = (bitField0_ & ~0x00000008);
+        return this;
+      }
+
+      public Builder clone() {
+        return create().mergeFrom(buildPartial());
+      }
+
+      public com.google.protobuf.Descriptors.Descriptor
+          getDescriptorForType() {
+        return com.google.nigori.common.NigoriMessages.internal_static_nigori_GetDigestRequest_descriptor;
+      }
+
+      public com.google.nigori.common.NigoriMessages.GetDigestRequest getDefaultInstanceForType() {
+        return com.google.nigori.common.NigoriMessages.GetDigestRequest.getDefaultInstance();
+      }
+
+      public com.google.nigori.common.NigoriMessages.GetDigestRequest build() {
+        com.google.nigori.common.NigoriMessages.GetDigestRequest result = buildPartial();
+        if (!result.isInitialized()) {
+          throw newUninitializedMessageException(result);
+        }
+        return result;
+      }
+
+      public com.google.nigori.common.NigoriMessages.GetDigestRequest buildPartial() {
+        com.google.nigori.common.NigoriMessages.GetDigestRequest result = new com.google.nigori.common.NigoriMessages.GetDigestRequest(this);
+        int from_bitField0_ = bitField0_;
+        int to_bitField0_ = 0;
+        if (((from_bitField0_ & 0x00000001) == 0x00000001)) {
+          to_bitField0_ |= 0x00000001;
+        }
+        if (authBuilder_ == null) {
+          result.auth_ = auth_;
+        } else {
+          result.auth_ = authBuilder_.build();
+        }
+        if (((from_bitField0_ & 0x00000002) == 0x00000002)) {
+          to_bitField0_ |= 0x00000002;
+        }
+        result.path_ = path_;
+        if (((from_bitField0_ & 0x00000004) == 0x00000004)) {
+          to_bitField0_ |= 0x00000004;
+        }
+        result.depth_ = depth_;
+        if (((from_bitField0_ & 0x00000008) == 0x00000008)) {
+          to_bitField0_ |= 0x00000008;
+        }
+        result.recordLimit_ = recordLimit_;
+        result.bitField0_ = to_bitField0_;
+        onBuilt();
+        return result;
+      }
+
+      public Builder mergeFrom(com.google.protobuf.Message other) {
+        if (other instanceof com.google.nigori.common.NigoriMessages.GetDigestRequest) {
+          return mergeFrom((com.google.nigori.common.NigoriMessages.GetDigestRequest)other);
+        } else {
+          super.mergeFrom(other);
+          return this;
+        }
+      }
+
+      public Builder mergeFrom(com.google.nigori.common.NigoriMessages.GetDigestRequest other) {
+        if (other == com.google.nigori.common.NigoriMessages.GetDigestRequest.getDefaultInstance()) return this;
+        if (other.hasAuth()) {
+          mergeAuth(other.getAuth());
+        }
+        if (other.hasPath()) {
+          setPath(other.getPath());
+        }
+        if (other.hasDepth()) {
+          setDepth(other.getDepth());
+        }
+        if (other.hasRecordLimit()) {
+          setRecordLimit(other.getRecordLimit());
+        }
+        this.mergeUnknownFields(other.getUnknownFields());
+        return this;
+      }
+
+      public final boolean isInitialized() {
+        if (!hasAuth()) {
+          
+          return false;
+        }
+        if (!hasPath()) {
+          
+          return false;
+        }
+        if (!hasDepth()) {
+          
+          return false;
+        }
+        if (!getAuth().isInitialized()) {
+          
+          return false;
+        }
+        return true;
+      }
+
+      public Builder mergeFrom(
+          com.google.protobuf.CodedInputStream input,
+          com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+          throws java.io.IOException {
+        com.google.nigori.common.NigoriMessages.GetDigestRequest parsedMessage = null;
+        try {
+          parsedMessage = PARSER.parsePartialFrom(input, extensionRegistry);
+        } catch (com.google.protobuf.InvalidProtocolBufferException e) {
+          parsedMessage = (com.google.nigori.common.NigoriMessages.GetDigestRequest) e.getUnfinishedMessage();
+          throw e;
+        } finally {
+          if (parsedMessage != null) {
+            mergeFrom(parsedMessage);
+          }
+        }
+        return this;
+      }
+      private int bitField0_;
+
+      private com.google.nigori.common.NigoriMessages.AuthenticateRequest auth_ = com.google.nigori.common.NigoriMessages.AuthenticateRequest.getDefaultInstance();
+      private com.google.protobuf.SingleFieldBuilder<
+          com.google.nigori.common.NigoriMessages.AuthenticateRequest, com.google.nigori.common.NigoriMessages.AuthenticateRequest.Builder, com.google.nigori.common.NigoriMessages.AuthenticateRequestOrBuilder> authBuilder_;
+      /**
+       * <code>required .nigori.AuthenticateRequest auth = 1;</code>
+       */
+      public boolean hasAuth() {
+        return ((bitField0_ & 0x00000001) == 0x00000001);
+      }
+      /**
+       * <code>required .nigori.AuthenticateRequest auth = 1;</code>
+       */
+      public com.google.nigori.common.NigoriMessages.AuthenticateRequest getAuth() {
+        if (authBuilder_ == null) {
+          return auth_;
+        } else {
+          return authBuilder_.getMessage();
+        }
+      }
+      /**
+       * <code>required .nigori.AuthenticateRequest auth = 1;</code>
+       */
+      public Builder setAuth(com.google.nigori.common.NigoriMessages.AuthenticateRequest value) {
+        if (authBuilder_ == null) {
+          if (value == null) {
+            throw new NullPointerException();
+          }
+          auth_ = value;
+          onChanged();
+        } else {
+          authBuilder_.setMessage(value);
+        }
+        bitField0_ |= 0x00000001;
+        return this;
+      }
+      /**
+       * <code>required .nigori.AuthenticateRequest auth = 1;</code>
+       */
+      public Builder setAuth(
+          com.google.nigori.common.NigoriMessages.AuthenticateRequest.Builder builderForValue) {
+        if (authBuilder_ == null) {
+          auth_ = builderForValue.build();
+          onChanged();
+        } else {
+          authBuilder_.setMessage(builderForValue.build());
+        }
+        bitField0_ |= 0x00000001;
+        return this;
+      }
+      /**
+       * <code>required .nigori.AuthenticateRequest auth = 1;</code>
+       */
+      public Builder mergeAuth(com.google.nigori.common.NigoriMessages.AuthenticateRequest value) {
+        if (authBuilder_ == null) {
+          if (((bitField0_ & 0x00000001) == 0x00000001) &&
+              auth_ != com.google.nigori.common.NigoriMessages.AuthenticateRequest.getDefaultInstance()) {
+            auth_ =
+              com.google.nigori.common.NigoriMessages.AuthenticateRequest.newBuilder(auth_).mergeFrom(value).buildPartial();
+          } else {
+            auth_ = value;
+          }
+          onChanged();
+        } else {
+          authBuilder_.mergeFrom(value);
+        }
+        bitField0_ |= 0x00000001;
+        return this;
+      }
+      /**
+       * <code>required .nigori.AuthenticateRequest auth = 1;</code>
+       */
+      public Builder clearAuth() {
+        if (authBuilder_ == null) {
+          auth_ = com.google.nigori.common.NigoriMessages.AuthenticateRequest.getDefaultInstance();
+          onChanged();
+        } else {
+          authBuilder_.clear();
+        }
+        bitField0_ = (bitField0_ & ~0x00000001);
+        return this;
+      }
+      /**
+       * <code>required .nigori.AuthenticateRequest auth = 1;</code>
+       */
+      public com.google.nigori.common.NigoriMessages.AuthenticateRequest.Builder getAuthBuilder() {
+        bitField0_ |= 0x00000001;
+        onChanged();
+        return getAuthFieldBuilder().getBuilder();
+      }
+      /**
+       * <code>required .nigori.AuthenticateRequest auth = 1;</code>
+       */
+      public com.google.nigori.common.NigoriMessages.AuthenticateRequestOrBuilder getAuthOrBuilder() {
+        if (authBuilder_ != null) {
+          return authBuilder_.getMessageOrBuilder();
+        } else {
+          return auth_;
+        }
+      }
+      /**
+       * <code>required .nigori.AuthenticateRequest auth = 1;</code>
+       */
+      private com.google.protobuf.SingleFieldBuilder<
+          com.google.nigori.common.NigoriMessages.AuthenticateRequest, com.google.nigori.common.NigoriMessages.AuthenticateRequest.Builder, com.google.nigori.common.NigoriMessages.AuthenticateRequestOrBuilder> 
+          getAuthFieldBuilder() {
+        if (authBuilder_ == null) {
+          authBuilder_ = new com.google.protobuf.SingleFieldBuilder<
+              com.google.nigori.common.NigoriMessages.AuthenticateRequest, com.google.nigori.common.NigoriMessages.AuthenticateRequest.Builder, com.google.nigori.common.NigoriMessages.AuthenticateRequestOrBuilder>(
+                  getAuth(),
+                  getParentForChildren(),
+                  isClean());
+          auth_ = null;
+        }
+        return authBuilder_;
+      }
+
+      private com.google.protobuf.ByteString path_ = com.google.protobuf.ByteString.EMPTY;
+      /**
+       * <code>required bytes path = 2;</code>
+       */
+      public boolean hasPath() {
+        return ((bitField0_ & 0x00000002) == 0x00000002);
+      }
+      /**
+       * <code>required bytes path = 2;</code>
+       */
+      public com.google.protobuf.ByteString getPath() {
+        return path_;
+      }
+      /**
+       * <code>required bytes path = 2;</code>
+       */
+      public Builder setPath(com.google.protobuf.ByteString value) {
+        if (value == null) {
+    throw new NullPointerException();
+  }
+  bitField0_ |= 0x00000002;
+        path_ = value;
+        onChanged();
+        return this;
+      }
+      /**
+       * <code>required bytes path = 2;</code>
+       */
+      public Builder clearPath() {
+        bitField0_ = (bitField0_ & ~0x00000002);
+        path_ = getDefaultInstance().getPath();
+        onChanged();
+        return this;
+      }
+
+      private int depth_ ;
+      /**
+       * <code>required uint32 depth = 3;</code>
+       *
+       * <pre>
+       * 0 for the node at path itself
+       * </pre>
+       */
+      public boolean hasDepth() {
+        return ((bitField0_ & 0x00000004) == 0x00000004);
+      }
+      /**
+       * <code>required uint32 depth = 3;</code>
+       *
+       * <pre>
+       * 0 for the node at path itself
+       * </pre>
+       */
+      public int getDepth() {
+        return depth_;
+      }
+      /**
+       * <code>required uint32 depth = 3;</code>
+       *
+       * <pre>
+       * 0 for the node at path itself
+       * </pre>
+       */
+      public Builder setDepth(int value) {
+        bitField0_ |= 0x00000004;
+        depth_ = value;
+        onChanged();
+        return this;
+      }
+      /**
+       * <code>required uint32 depth = 3;</code>
+       *
+       * <pre>
+       * 0 for the node at path itself
+       * </pre>
+       */
+      public Builder clearDepth() {
+        bitField0_ = (bitField0_ & ~0x00000004);
+        depth_ = 0;
+        onChanged();
+        return this;
+      }
+
+      private int recordLimit_ ;
+      /**
+       * <code>optional uint32 record_limit = 4;</code>
+       *
+       * <pre>
+       * When depth is 0, the pairs in the subtree are also returned if there are at most this many
+       * </pre>
+       */
+      public boolean hasRecordLimit() {
+        return ((bitField0_ & 0x00000008) == 0x00000008);
+      }
+      /**
+       * <code>optional uint32 record_limit = 4;</code>
+       *
+       * <pre>
+       * When depth is 0, the pairs in the subtree are also returned if there are at most this many
+       * </pre>
+       */
+      public int getRecordLimit() {
+        return recordLimit_;
+      }
+      /**
+       * <code>optional uint32 record_limit = 4;</code>
+       *
+       * <pre>
+       * When depth is 0, the pairs in the subtree are also returned if there are at most this many
+       * </pre>
+       */
+      public Builder setRecordLimit(int value) {
+        bitField0_ |= 0x00000008;
+        recordLimit_ = value;
+        onChanged();
+        return this;
+      }
+      /**
+       * <code>optional uint32 record_limit = 4;</code>
+       *
+       * <pre>
+       * When depth is 0, the pairs in the subtree are also returned if there are at most this many
+       * </pre>
+       */
+      public Builder clearRecordLimit() {
+        bitField0_ = (bitField0_ & ~0x00000008);
+        recordLimit_ = 0;
+        onChanged();
+        return this;
+      }
+
+      // @@protoc_insertion_point(builder_scope:nigori.GetDigestRequest)
+    }
+
+    static {
+      defaultInstance = new GetDigestRequest(true);
+      defaultInstance.initFields();
+    }
+
+    // @@protoc_insertion_point(class_scope:nigori.GetDigestRequest)
+  }
+
+  public interface GetDigestResponseOrBuilder extends
+      // @@protoc_insertion_point(interface_extends:nigori.GetDigestResponse)
+      com.google.protobuf.MessageOrBuilder {
+
+    /**
+     * <code>repeated .nigori.DigestNode nodes = 1;</code>
+     *
+     * <pre>
+     * Non-empty nodes only, in path order
+     * </pre>
+     */
+    java.util.List<com.google.nigori.common.NigoriMessages.DigestNode> 
+        getNodesList();
+    /**
+     * <code>repeated .nigori.DigestNode nodes = 1;</code>
+     *
+     * <pre>
+     * Non-empty nodes only, in path order
+     * </pre>
+     */
+    com.google.nigori.common.NigoriMessages.DigestNode getNodes(int index);
+    /**
+     * <code>repeated .nigori.DigestNode nodes = 1;</code>
+     *
+     * <pre>
+     * Non-empty nodes only, in path order
+     * </pre>
+     */
+    int getNodesCount();
+    /**
+     * <code>repeated .nigori.DigestNode nodes = 1;</code>
+     *
+     * <pre>
+     * Non-empty nodes only, in path order
+     * </pre>
+     */
+    java.util.List<? extends com.google.nigori.common.NigoriMessages.DigestNodeOrBuilder> 
+        getNodesOrBuilderList();
+    /**
+     * <code>repeated .nigori.DigestNode nodes = 1;</code>
+     *
+     * <pre>
+     * Non-empty nodes only, in path order
+     * </pre>
+     */
+    com.google.nigori.common.NigoriMessages.DigestNodeOrBuilder getNodesOrBuilder(
+        int index);
+
+    /**
+     * <code>repeated .nigori.KeyRevision records = 2;</code>
+     */
+    java.util.List<com.google.nigori.common.NigoriMessages.KeyRevision> 
+        getRecordsList();
+    /**
+     * <code>repeated .nigori.KeyRevision records = 2;</code>
+     */
+    com.google.nigori.common.NigoriMessages.KeyRevision getRecords(int index);
+    /**
+     * <code>repeated .nigori.KeyRevision records = 2;</code>
+     */
+    int getRecordsCount();
+    /**
+     * <code>repeated .nigori.KeyRevision records = 2;</code>
+     */
+    java.util.List<? extends com.google.nigori.common.NigoriMessages.KeyRevisionOrBuilder> 
+        getRecordsOrBuilderList();
+    /**
+     * <code>repeated .nigori.KeyRevision records = 2;</code>
+     */
+    com.google.nigori.common.NigoriMessages.KeyRevisionOrBuilder getRecordsOrBuilder(
+        int index);
+  }
+  /**
+   * Protobuf type {@code nigori.GetDigestResponse}
+   */
+  public static final class GetDigestResponse extends
+      com.google.protobuf.GeneratedMessage implements
+      // @@protoc_insertion_point(message_implements:nigori.GetDigestResponse)
+      GetDigestResponseOrBuilder {
+    // Use GetDigestResponse.newBuilder() to construct.
+    private GetDigestResponse(com.google.protobuf.GeneratedMessage.Builder<?> builder) {
+      super(builder);
+      this.unknownFields = builder.getUnknownFields();
+    }
+    private GetDigestResponse(boolean noInit) { this.unknownFields = com.google.protobuf.UnknownFieldSet.getDefaultInstance(); }
+
+    private static final GetDigestResponse defaultInstance;
+    public static GetDigestResponse getDefaultInstance() {
+      return defaultInstance;
+    }
+
+    public GetDigestResponse getDefaultInstanceForType() {
+      return defaultInstance;
+    }
+
+    private final com.google.protobuf.UnknownFieldSet unknownFields;
+    @java.lang.Override
+    public final com.google.protobuf.UnknownFieldSet
+        getUnknownFields() {
+      return this.unknownFields;
+    }
+    private GetDigestResponse(
+        com.google.protobuf.CodedInputStream input,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws com.google.protobuf.InvalidProtocolBufferException {
+      initFields();
+      int mutable_bitField0_ = 0;
+      com.google.protobuf.UnknownFieldSet.Builder unknownFields =
+          com.google.protobuf.UnknownFieldSet.newBuilder();
+      try {
+        boolean done = false;
+        while (!done) {
+          int tag = input.readTag();
+          switch (tag) {
+            case 0:
+              done = true;
+              break;
+            default: {
+              if (!parseUnknownField(input, unknownFields,
+                                     extensionRegistry, tag)) {
+                done = true;
+              }
+              break;
+            }
+            case 10: {
+              if (!((mutable_bitField0_ & 0x00000001) == 0x00000001)) {
+                nodes_ = new java.util.ArrayList<com.google.nigori.common.NigoriMessages.DigestNode>();
+                mutable_bitField0_ |= 0x00000001;
+              }
+              nodes_.add(input.readMessage(com.google.nigori.common.NigoriMessages.DigestNode.PARSER, extensionRegistry));
+              break;
+            }
+            case 18: {
+              if (!((mutable_bitField0_ & 0x00000002) == 0x00000002)) {
+                records_ = new java.util.ArrayList<com.google.nigori.common.NigoriMessages.KeyRevision>();
+                mutable_bitField0_ |= 0x00000002;
+              }
+              records_.add(input.readMessage(com.google.nigori.common.NigoriMessages.KeyRevision.PARSER, extensionRegistry));
+              break;
+            }
+          }
+        }
+      } catch (com.google.protobuf.InvalidProtocolBufferException e) {
+        throw e.setUnfinishedMessage(this);
+      } catch (java.io.IOException e) {
+        throw new com.google.protobuf.InvalidProtocolBufferException(
+            e.getMessage()).setUnfinishedMessage(this);
+      } finally {
+        if (((mutable_bitField0_ & 0x00000001) == 0x00000001)) {
+          nodes_ = java.util.Collections.unmodifiableList(nodes_);
+        }
+        if (((mutable_bitField0_ & 0x00000002) == 0x00000002)) {
+          records_ = java.util.Collections.unmodifiableList(records_);
+        }
+        this.unknownFields = unknownFields.build();
+        makeExtensionsImmutable();
+      }
+    }
+    public static final com.google.protobuf.Descriptors.Descriptor
+        getDescriptor() {
+      return com.google.nigori.common.NigoriMessages.internal_static_nigori_GetDigestResponse_descriptor;
+    }
+
+    protected com.google.protobuf.GeneratedMessage.FieldAccessorTable
+        internalGetFieldAccessorTable() {
+      return com.google.nigori.common.NigoriMessages.internal_static_nigori_GetDigestResponse_fieldAccessorTable
+          .ensureFieldAccessorsInitialized(
+              com.google.nigori.common.NigoriMessages.GetDigestResponse.class, com.google.nigori.common.NigoriMessages.GetDigestResponse.Builder.class);
+    }
+
+    public static com.google.protobuf.Parser<GetDigestResponse> PARSER =
+        new com.google.protobuf.AbstractParser<GetDigestResponse>() {
+      public GetDigestResponse parsePartialFrom(
+          com.google.protobuf.CodedInputStream input,
+          com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+          throws com.google.protobuf.InvalidProtocolBufferException {
+        return new GetDigestResponse(input, extensionRegistry);
+      }
+    };
+
+    @java.lang.Override
+    public com.google.protobuf.Parser<GetDigestResponse> getParserForType() {
+      return PARSER;
+    }
+
+    public static final int NODES_FIELD_NUMBER = 1;
+    private java.util.List<com.google.nigori.common.NigoriMessages.DigestNode> nodes_;
+    /**
+     * <code>repeated .nigori.DigestNode nodes = 1;</code>
+     *
+     * <pre>
+     * Non-empty nodes only, in path order
+     * </pre>
+     */
+    public java.util.List<com.google.nigori.common.NigoriMessages.DigestNode> getNodesList() {
+      return nodes_;
+    }
+    /**
+     * <code>repeated .nigori.DigestNode nodes = 1;</code>
+     *
+     * <pre>
+     * Non-empty nodes only, in path order
+     * </pre>
+     */
+    public java.util.List<? extends com.google.nigori.common.NigoriMessages.DigestNodeOrBuilder> 
+        getNodesOrBuilderList() {
+      return nodes_;
+    }
+    /**
+     * <code>repeated .nigori.DigestNode nodes = 1;</code>
+     *
+     * <pre>
+     * Non-empty nodes only, in path order
+     * </pre>
+     */
+    public int getNodesCount() {
+      return nodes_.size();
+    }
+    /**
+     * <code>repeated .nigori.DigestNode nodes = 1;</code>
+     *
+     * <pre>
+     * Non-empty nodes only, in path order
+     * </pre>
+     */
+    public com.google.nigori.common.NigoriMessages.DigestNode getNodes(int index) {
+      return nodes_.get(index);
+    }
+    /**
+     * <code>repeated .nigori.DigestNode nodes = 1;</code>
+     *
+     * <pre>
+     * Non-empty nodes only, in path order
+     * </pre>
+     */
+    public com.google.nigori.common.NigoriMessages.DigestNodeOrBuilder getNodesOrBuilder(
+        int index) {
+      return nodes_.get(index);
+    }
+
+    public static final int RECORDS_FIELD_NUMBER = 2;
+    private java.util.List<com.google.nigori.common.NigoriMessages.KeyRevision> records_;
+    /**
+     * <code>repeated .nigori.KeyRevision records = 2;</code>
+     */
+    public java.util.List<com.google.nigori.common.NigoriMessages.KeyRevision> getRecordsList() {
+      return records_;
+    }
+    /**
+     * <code>repeated .nigori.KeyRevision records = 2;</code>
+     */
+    public java.util.List<? extends com.google.nigori.common.NigoriMessages.KeyRevisionOrBuilder> 
+        getRecordsOrBuilderList() {
+      return records_;
+    }
+    /**
+     * <code>repeated .nigori.KeyRevision records = 2;</code>
+     */
+    public int getRecordsCount() {
+      return records_.size();
+    }
+    /**
+     * <code>repeated .nigori.KeyRevision records = 2;</code>
+     */
+    public com.google.nigori.common.NigoriMessages.KeyRevision getRecords(int index) {
+      return records_.get(index);
+    }
+    /**
+     * <code>repeated .nigori.KeyRevision records = 2;</code>
+     */
+    public com.google.nigori.common.NigoriMessages.KeyRevisionOrBuilder getRecordsOrBuilder(
+        int index) {
+      return records_.get(index);
+    }
+
+    private void initFields() {
+      nodes_ = java.util.Collections.emptyList();
+      records_ = java.util.Collections.emptyList();
+    }
+    private byte memoizedIsInitialized = -1;
+    public final boolean isInitialized() {
+      byte isInitialized = memoizedIsInitialized;
+      if (isInitialized == 1) return true;
+      if (isInitialized == 0) return false;
+
+      for (int i = 0; i < getNodesCount(); i++) {
+        if (!getNodes(i).isInitialized()) {
+          memoizedIsInitialized = 0;
+          return false;
+        }
+      }
+      for (int i = 0; i < getRecordsCount(); i++) {
+        if (!getRecords(i).isInitialized()) {
+          memoizedIsInitialized = 0;
+          return false;
+        }
+      }
+      memoizedIsInitialized = 1;
+      return true;
+    }
+
+    public void writeTo(com.google.protobuf.CodedOutputStream output)
+                        throws java.io.IOException {
+      getSerializedSize();
+      for (int i = 0; i < nodes_.size(); i++) {
+        output.writeMessage(1, nodes_.get(i));
+      }
+      for (int i = 0; i < records_.size(); i++) {
+        output.writeMessage(2, records_.get(i));
+      }
+      getUnknownFields().writeTo(output);
+    }
+
+    private int memoizedSerializedSize = -1;
+    public int getSerializedSize() {
+      int size = memoizedSerializedSize;
+      if (size != -1) return size;
+
+      size = 0;
+      for (int i = 0; i < nodes_.size(); i++) {
+        size += com.google.protobuf.CodedOutputStream
+          .computeMessageSize(1, nodes_.get(i));
+      }
+      for (int i = 0; i < records_.size(); i++) {
+        size += com.google.protobuf.CodedOutputStream
+          .computeMessageSize(2, records_.get(i));
+      }
+      size += getUnknownFields().getSerializedSize();
+      memoizedSerializedSize = size;
+      return size;
+    }
+
+    private static final long serialVersionUID = 0L;
+    @java.lang.Override
+    protected java.lang.Object writeReplace()
+        throws java.io.ObjectStreamException {
+      return super.writeReplace();
+    }
+
+    public static com.google.nigori.common.NigoriMessages.GetDigestResponse parseFrom(
+        com.google.protobuf.ByteString data)
+        throws com.google.protobuf.InvalidProtocolBufferException {
+      return PARSER.parseFrom(data);
+    }
+    public static com.google.nigori.common.NigoriMessages.GetDigestResponse parseFrom(
+        com.google.protobuf.ByteString data,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws com.google.protobuf.InvalidProtocolBufferException {
+      return PARSER.parseFrom(data, extensionRegistry);
+    }
+    public static com.google.nigori.common.NigoriMessages.GetDigestResponse parseFrom(byte[] data)
+        throws com.google.protobuf.InvalidProtocolBufferException {
+      return PARSER.parseFrom(data);
+    }
+    public static com.google.nigori.common.NigoriMessages.GetDigestResponse parseFrom(
+        byte[] data,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws com.google.protobuf.InvalidProtocolBufferException {
+      return PARSER.parseFrom(data, extensionRegistry);
+    }
+    public static com.google.nigori.common.NigoriMessages.GetDigestResponse parseFrom(java.io.InputStream input)
+        throws java.io.IOException {
+      return PARSER.parseFrom(input);
+    }
+    public static com.google.nigori.common.NigoriMessages.GetDigestResponse parseFrom(
+        java.io.InputStream input,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws java.io.IOException {
+      return PARSER.parseFrom(input, extensionRegistry);
+    }
+    public static com.google.nigori.common.NigoriMessages.GetDigestResponse parseDelimitedFrom(java.io.InputStream input)
+        throws java.io.IOException {
+      return PARSER.parseDelimitedFrom(input);
+    }
+    public static com.google.nigori.common.NigoriMessages.GetDigestResponse parseDelimitedFrom(
+        java.io.InputStream input,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws java.io.IOException {
+      return PARSER.parseDelimitedFrom(input, extensionRegistry);
+    }
+    public static com.google.nigori.common.NigoriMessages.GetDigestResponse parseFrom(
+        com.google.protobuf.CodedInputStream input)
+        throws java.io.IOException {
+      return PARSER.parseFrom(input);
+    }
+    public static com.google.nigori.common.NigoriMessages.GetDigestResponse parseFrom(
+        com.google.protobuf.CodedInputStream input,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws java.io.IOException {
+      return PARSER.parseFrom(input, extensionRegistry);
+    }
+
+    public static Builder newBuilder() { return Builder.create(); }
+    public Builder newBuilderForType() { return newBuilder(); }
+    public static Builder newBuilder(com.google.nigori.common.NigoriMessages.GetDigestResponse prototype) {
+      return newBuilder().mergeFrom(prototype);
+    }
+    public Builder toBuilder() { return newBuilder(this); }
+
+    @java.lang.Override
+    protected Builder newBuilderForType(
+        com.google.protobuf.GeneratedMessage.BuilderParent parent) {
+      Builder builder = new Builder(parent);
+      return builder;
+    }
+    /**
+     * Protobuf type {@code nigori.GetDigestResponse}
+     */
+    public static final class Builder extends
+        com.google.protobuf.GeneratedMessage.Builder<Builder> implements
+        // @@protoc_insertion_point(builder_implements:nigori.GetDigestResponse)
+        com.google.nigori.common.NigoriMessages.GetDigestResponseOrBuilder {
+      public static final com.google.protobuf.Descriptors.Descriptor
+          getDescriptor() {
+        return com.google.nigori.common.NigoriMessages.internal_static_nigori_GetDigestResponse_descriptor;
+      }
+
+      protected com.google.protobuf.GeneratedMessage.FieldAccessorTable
+          internalGetFieldAccessorTable() {
+        return com.google.nigori.common.NigoriMessages.internal_static_nigori_GetDigestResponse_fieldAccessorTable
+            .ensureFieldAccessorsInitialized(
+                com.google.nigori.common.NigoriMessages.GetDigestResponse.class, com.google.nigori.common.NigoriMessages.GetDigestResponse.Builder.class);
+      }
+
+      // Construct using com.google.nigori.common.NigoriMessages.GetDigestResponse.newBuilder()
+      private Builder() {
+        maybeForceBuilderInitialization();
+      }
+
+      private Builder(
+          com.google.protobuf.GeneratedMessage.BuilderParent parent) {
+        super(parent);
+        maybeForceBuilderInitialization();
+      }
+      private void maybeForceBuilderInitialization() {
+        if (com.google.protobuf.GeneratedMessage.alwaysUseFieldBuilders) {
+          getNodesFieldBuilder();
+          getRecordsFieldBuilder();
+        }
+      }
+      private static Builder create() {
+        return new Builder();
+      }
+
+      public Builder clear() {
+        super.clear();
+        if (nodesBuilder_ == null) {
+          nodes_ = java.util.Collections.emptyList();
+          bitField0_ = (bitField0_ & ~0x00000001);
+        } else {
+          nodesBuilder_.clear();
+        }
+        if (recordsBuilder_ == null) {
+          records_ = java.util.Collections.emptyList();
+          bitField0_ = (bitField0_ & ~0x00000002);
+        } else {
+          recordsBuilder_.clear();
+        }
+        return this;
+      }
+
+      public Builder clone() {
+        return create().mergeFrom(buildPartial());
+      }
+
+      public com.google.protobuf.Descriptors.Descriptor
+          getDescriptorForType() {
+        return com.google.nigori.common.NigoriMessages.internal_static_nigori_GetDigestResponse_descriptor;
+      }
+
+      public com.google.nigori.common.NigoriMessages.GetDigestResponse getDefaultInstanceForType() {
+        return com.google.nigori.common.NigoriMessages.GetDigestResponse.getDefaultInstance();
+      }
+
+      public com.google.nigori.common.NigoriMessages.GetDigestResponse build() {
+        com.google.nigori.common.NigoriMessages.GetDigestResponse result = buildPartial();
+        if (!result.isInitialized()) {
+          throw newUninitializedMessageException(result);
+        }
+        return result;
+      }
+
+      public com.google.nigori.common.NigoriMessages.GetDigestResponse buildPartial() {
+        com.google.nigori.common.NigoriMessages.GetDigestResponse result = new com.google.nigori.common.NigoriMessages.GetDigestResponse(this);
+        int from_bitField0_ = bitField0_;
+        if (nodesBuilder_ == null) {
+          if (((bitField0_ & 0x00000001) == 0x00000001)) {
+            nodes_ = java.util.Collections.unmodifiableList(nodes_);
+            bitField0_ = (bitField0_ & ~0x00000001);
+          }
+          result.nodes_ = nodes_;
+        } else {
+          result.nodes_ = nodesBuilder_.build();
+        }
+        if (recordsBuilder_ == null) {
+          if (((bitField0_ & 0x00000002) == 0x00000002)) {
+            records_ = java.util.Collections.unmodifiableList(records_);
+            bitField0_ = (bitField0_ & ~0x00000002);
+          }
+          result.records_ = records_;
+        } else {
+          result.records_ = recordsBuilder_.build();
+        }
+        onBuilt();
+        return result;
+      }
+
+      public Builder mergeFrom(com.google.protobuf.Message other) {
+        if (other instanceof com.google.nigori.common.NigoriMessages.GetDigestResponse) {
+          return mergeFrom((com.google.nigori.common.NigoriMessages.GetDigestResponse)other);
+        } else {
+          super.mergeFrom(other);
+          return this;
+        }
+      }
+
+      public Builder mergeFrom(com.google.nigori.common.NigoriMessages.GetDigestResponse other) {
+        if (other == com.google.nigori.common.NigoriMessages.GetDigestResponse.getDefaultInstance()) return this;
+        if (nodesBuilder_ == null) {
+          if (!other.nodes_.isEmpty()) {
+            if (nodes_.isEmpty()) {
+              nodes_ = other.nodes_;
+              bitField0_ = (bitField0_ & ~0x00000001);
+            } else {
+              ensureNodesIsMutable();
+              nodes_.addAll(other.nodes_);
+            }
+            onChanged();
+          }
+        } else {
+          if (!other.nodes_.isEmpty()) {
+            if (nodesBuilder_.isEmpty()) {
+              nodesBuilder_.dispose();
+              nodesBuilder_ = null;
+              nodes_ = other.nodes_;
+              bitField0_ = (bitField0_ & ~0x00000001);
+              nodesBuilder_ = 
+                com.google.protobuf.GeneratedMessage.alwaysUseFieldBuilders ?
+                   getNodesFieldBuilder() : null;
+            } else {
+              nodesBuilder_.addAllMessages(other.nodes_);
+            }
+          }
+        }
+        if (recordsBuilder_ == null) {
+          if (!other.records_.isEmpty()) {
+            if (records_.isEmpty()) {
+              records_ = other.records_;
+              bitField0_ = (bitField0_ & ~0x00000002);
+            } else {
+              ensureRecordsIsMutable();
+              records_.addAll(other.records_);
+            }
+            onChanged();
+          }
+        } else {
+          if (!other.records_.isEmpty()) {
+            if (recordsBuilder_.isEmpty()) {
+              recordsBuilder_.dispose();
+              recordsBuilder_ = null;
+              records_ = other.records_;
+              bitField0_ = (bitField0_ & ~0x00000002);
+              recordsBuilder_ = 
+                com.google.protobuf.GeneratedMessage.alwaysUseFieldBuilders ?
+                   getRecordsFieldBuilder() : null;
+            } else {
+              recordsBuilder_.addAllMessages(other.records_);
+            }
+          }
+        }
+        this.mergeUnknownFields(other.getUnknownFields());
+        return this;
+      }
+
+      public final boolean isInitialized() {
+        for (int i = 0; i < getNodesCount(); i++) {
+          if (!getNodes(i).isInitialized()) {
+            
+            return false;
+          }
+        }
+        for (int i = 0; i < getRecordsCount(); i++) {
+          if (!getRecords(i).isInitialized()) {
+            
+            return false;
+          }
+        }
+        return true;
+      }
+
+      public Builder mergeFrom(
+          com.google.protobuf.CodedInputStream input,
+          com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+          throws java.io.IOException {
+        com.google.nigori.common.NigoriMessages.GetDigestResponse parsedMessage = null;
+        try {
+          parsedMessage = PARSER.parsePartialFrom(input, extensionRegistry);
+        } catch (com.google.protobuf.InvalidProtocolBufferException e) {
+          parsedMessage = (com.google.nigori.common.NigoriMessages.GetDigestResponse) e.getUnfinishedMessage();
+          throw e;
+        } finally {
+          if (parsedMessage != null) {
+            mergeFrom(parsedMessage);
+          }
+        }
+        return this;
+      }
+      private int bitField0_;
+
+      private java.util.List<com.google.nigori.common.NigoriMessages.DigestNode> nodes_ =
+        java.util.Collections.emptyList();
+      private void ensureNodesIsMutable() {
+        if (!((bitField0_ & 0x00000001) == 0x00000001)) {
+          nodes_ = new java.util.ArrayList<com.google.nigori.common.NigoriMessages.DigestNode>(nodes_);
+          bitField0_ |= 0x00000001;
+         }
+      }
+
+      private com.google.protobuf.RepeatedFieldBuilder<
+          com.google.nigori.common.NigoriMessages.DigestNode, com.google.nigori.common.NigoriMessages.DigestNode.Builder, com.google.nigori.common.NigoriMessages.DigestNodeOrBuilder> nodesBuilder_;
+
+      /**
+       * <code>repeated .nigori.DigestNode nodes = 1;</code>
+       *
+       * <pre>
+       * Non-empty nodes only, in path order
+       * </pre>
+       */
+      public java.util.List<com.google.nigori.common.NigoriMessages.DigestNode> getNodesList() {
+        if (nodesBuilder_ == null) {
+          return java.util.Collections.unmodifiableList(nodes_);
+        } else {
+          return nodesBuilder_.getMessageList();
+        }
+      }
+      /**
+       * <code>repeated .nigori.DigestNode nodes = 1;</code>
+       *
+       * <pre>
+       * Non-empty nodes only, in path order
+       * </pre>
+       */
+      public int getNodesCount() {
+        if (nodesBuilder_ == null) {
+          return nodes_.size();
+        } else {
+          return nodesBuilder_.getCount();
+        }
+      }
+      /**
+       * <code>repeated .nigori.DigestNode nodes = 1;</code>
+       *
+       * <pre>
+       * Non-empty nodes only, in path order
+       * </pre>
+       */
+      public com.google.nigori.common.NigoriMessages.DigestNode getNodes(int index) {
+        if (nodesBuilder_ == null) {
+          return nodes_.get(index);
+        } else {
+          return nodesBuilder_.getMessage(index);
+        }
+      }
+      /**
+       * <code>repeated .nigori.DigestNode nodes = 1;</code>
+       *
+       * <pre>
+       * Non-empty nodes only, in path order
+       * </pre>
+       */
+      public Builder setNodes(
+          int index, com.google.nigori.common.NigoriMessages.DigestNode value) {
+        if (nodesBuilder_ == null) {
+          if (value == null) {
+            throw new NullPointerException();
+          }
+          ensureNodesIsMutable();
+          nodes_.set(index, value);
+          onChanged();
+        } else {
+          nodesBuilder_.setMessage(index, value);
+        }
+        return this;
+      }
+      /**
+       * <code>repeated .nigori.DigestNode nodes = 1;</code>
+       *
+       * <pre>
+       * Non-empty nodes only, in path order
+       * </pre>
+       */
+      public Builder setNodes(
+          int index, com.google.nigori.common.NigoriMessages.DigestNode.Builder builderForValue) {
+        if (nodesBuilder_ == null) {
+          ensureNodesIsMutable();
+          nodes_.set(index, builderForValue.build());
+          onChanged();
+        } else {
+          nodesBuilder_.setMessage(index, builderForValue.build());
+        }
+        return this;
+      }
+      /**
+       * <code>repeated .nigori.DigestNode nodes = 1;</code>
+       *
+       * <pre>
+       * Non-empty nodes only, in path order
+       * </pre>
+       */
+      public Builder addNodes(com.google.nigori.common.NigoriMessages.DigestNode value) {
+        if (nodesBuilder_ == null) {
+          if (value == null) {
+            throw new NullPointerException();
+          }
+          ensureNodesIsMutable();
+          nodes_.add(value);
+          onChanged();
+        } else {
+          nodesBuilder_.addMessage(value);
+        }
+        return this;
+      }
+      /**
+       * <code>repeated .nigori.DigestNode nodes = 1;</code>
+       *
+       * <pre>
+       * Non-empty nodes only, in path order
+       * </pre>
+       */
+      public Builder addNodes(
+          int index, com.google.nigori.common.NigoriMessages.DigestNode value) {
+        if (nodesBuilder_ == null) {
+          if (value == null) {
+            throw new NullPointerException();
+          }
+          ensureNodesIsMutable();
+          nodes_.add(index, value);
+          onChanged();
+        } else {
+          nodesBuilder_.addMessage(index, value);
+        }
+        return this;
+      }
+      /**
+       * <code>repeated .nigori.DigestNode nodes = 1;</code>
+       *
+       * <pre>
+       * Non-empty nodes only, in path order
+       * </pre>
+       */
+      public Builder addNodes(
+          com.google.nigori.common.NigoriMessages.DigestNode.Builder builderForValue) {
+        if (nodesBuilder_ == null) {
+          ensureNodesIsMutable();
+          nodes_.add(builderForValue.build());
+          onChanged();
+        } else {
+          nodesBuilder_.addMessage(builderForValue.build());
+        }
+        return this;
+      }
+      /**
+       * <code>repeated .nigori.DigestNode nodes = 1;</code>
+       *
+       * <pre>
+       * Non-empty nodes only, in path order
+       * </pre>
+       */
+      public Builder addNodes(
+          int index, com.google.nigori.common.NigoriMessages.DigestNode.Builder builderForValue) {
+        if (nodesBuilder_ == null) {
+          ensureNodesIsMutable();
+          nodes_.add(index, builderForValue.build());
+          onChanged();
+        } else {
+          nodesBuilder_.addMessage(index, builderForValue.build());
+        }
+        return this;
+      }
+      /**
+       * <code>repeated .nigori.DigestNode nodes = 1;</code>
+       *
+       * <pre>
+       * Non-empty nodes only, in path order
+       * </pre>
+       */
+      public Builder addAllNodes(
+          java.lang.Iterable<? extends com.google.nigori.common.NigoriMessages.DigestNode> values) {
+        if (nodesBuilder_ == null) {
+          ensureNodesIsMutable();
+          com.google.protobuf.AbstractMessageLite.Builder.addAll(
+              values, nodes_);
+          onChanged();
+        } else {
+          nodesBuilder_.addAllMessages(values);
+        }
+        return this;
+      }
+      /**
+       * <code>repeated .nigori.DigestNode nodes = 1;</code>
+       *
+       * <pre>
+       * Non-empty nodes only, in path order
+       * </pre>
+       */
+      public Builder clearNodes() {
+        if (nodesBuilder_ == null) {
+          nodes_ = java.util.Collections.emptyList();
+          bitField0_ = (bitField0_ & ~0x00000001);
+          onChanged();
+        } else {
+          nodesBuilder_.clear();
+        }
+        return this;
+      }
+      /**
+       * <code>repeated .nigori.DigestNode nodes = 1;</code>
+       *
+       * <pre>
+       * Non-empty nodes only, in path order
+       * </pre>
+       */
+      public Builder removeNodes(int index) {
+        if (nodesBuilder_ == null) {
+          ensureNodesIsMutable();
+          nodes_.remove(index);
+          onChanged();
+        } else {
+          nodesBuilder_.remove(index);
+        }
+        return this;
+      }
+      /**
+       * <code>repeated .nigori.DigestNode nodes = 1;</code>
+       *
+       * <pre>
+       * Non-empty nodes only, in path order
+       * </pre>
+       */
+      public com.google.nigori.common.NigoriMessages.DigestNode.Builder getNodesBuilder(
+          int index) {
+        return getNodesFieldBuilder().getBuilder(index);
+      }
+      /**
+       * <code>repeated .nigori.DigestNode nodes = 1;</code>
+       *
+       * <pre>
+       * Non-empty nodes only, in path order
+       * </pre>
+       */
+      public com.google.nigori.common.NigoriMessages.DigestNodeOrBuilder getNodesOrBuilder(
+          int index) {
+        if (nodesBuilder_ == null) {
+          return nodes_.get(index);  } else {
+          return nodesBuilder_.getMessageOrBuilder(index);
+        }
+      }
+      /**
+       * <code>repeated .nigori.DigestNode nodes = 1;</code>
+       *
+       * <pre>
+       * Non-empty nodes only, in path order
+       * </pre>
+       */
+      public java.util.List<? extends com.google.nigori.common.NigoriMessages.DigestNodeOrBuilder> 
+           getNodesOrBuilderList() {
+        if (nodesBuilder_ != null) {
+          return nodesBuilder_.getMessageOrBuilderList();
+        } else {
+          return java.util.Collections.unmodifiableList(nodes_);
+        }
+      }
+      /**
+       * <code>repeated .nigori.DigestNode nodes = 1;</code>
+       *
+       * <pre>
+       * Non-empty nodes only, in path order
+       * </pre>
+       */
+      public com.google.nigori.common.NigoriMessages.DigestNode.Builder addNodesBuilder() {
+        return getNodesFieldBuilder().addBuilder(
+            com.google.nigori.common.NigoriMessages.DigestNode.getDefaultInstance());
+      }
+      /**
+       * <code>repeated .nigori.DigestNode nodes = 1;</code>
+       *
+       * <pre>
+       * Non-empty nodes only, in path order
+       * </pre>
+       */
+      public com.google.nigori.common.NigoriMessages.DigestNode.Builder addNodesBuilder(
+          int index) {
+        return getNodesFieldBuilder().addBuilder(
+            index, com.google.nigori.common.NigoriMessages.DigestNode.getDefaultInstance());
+      }
+      /**
+       * <code>repeated .nigori.DigestNode nodes = 1;</code>
+       *
+       * <pre>
+       * Non-empty nodes only, in path order
+       * </pre>
+       */
+      public java.util.List<com.google.nigori.common.NigoriMessages.DigestNode.Builder> 
+           getNodesBuilderList() {
+        return getNodesFieldBuilder().getBuilderList();
+      }
+      private com.google.protobuf.RepeatedFieldBuilder<
+          com.google.nigori.common.NigoriMessages.DigestNode, com.google.nigori.common.NigoriMessages.DigestNode.Builder, com.google.nigori.common.NigoriMessages.DigestNodeOrBuilder> 
+          getNodesFieldBuilder() {
+        if (nodesBuilder_ == null) {
+          nodesBuilder_ = new com.google.protobuf.RepeatedFieldBuilder<
+              com.google.nigori.common.NigoriMessages.DigestNode, com.google.nigori.common.NigoriMessages.DigestNode.Builder, com.google.nigori.common.NigoriMessages.DigestNodeOrBuilder>(
+                  nodes_,
+                  ((bitField0_ & 0x00000001) == 0x00000001),
+                  getParentForChildren(),
+                  isClean());
+          nodes_ = null;
+        }
+        return nodesBuilder_;
+      }
+
+      private java.util.List<com.google.nigori.common.NigoriMessages.KeyRevision> records_ =
+        java.util.Collections.emptyList();
+      private void ensureRecordsIsMutable() {
+        if (!((bitField0_ & 0x00000002) == 0x00000002)) {
+          records_ = new java.util.ArrayList<com.google.nigori.common.NigoriMessages.KeyRevision>(records_);
+          bitField0_ |= 0x00000002;
+         }
+      }
+
+      private com.google.protobuf.RepeatedFieldBuilder<
+          com.google.nigori.common.NigoriMessages.KeyRevision, com.google.nigori.common.NigoriMessages.KeyRevision.Builder, com.google.nigori.common.NigoriMessages.KeyRevisionOrBuilder> recordsBuilder_;
+
+      /**
+       * <code>repeated .nigori.KeyRevision records = 2;</code>
+       */
+      public java.util.List<com.google.nigori.common.NigoriMessages.KeyRevision> getRecordsList() {
+        if (recordsBuilder_ == null) {
+          return java.util.Collections.unmodifiableList(records_);
+        } else {
+          return recordsBuilder_.getMessageList();
+        }
+      }
+      /**
+       * <code>repeated .nigori.KeyRevision records = 2;</code>
+       */
+      public int getRecordsCount() {
+        if (recordsBuilder_ == null) {
+          return records_.size();
+        } else {
+          return recordsBuilder_.getCount();
+        }
+      }
+      /**
+       * <code>repeated .nigori.KeyRevision records = 2;</code>
+       */
+      public com.google.nigori.common.NigoriMessages.KeyRevision getRecords(int index) {
+        if (recordsBuilder_ == null) {
+          return records_.get(index);
+        } else {
+          return recordsBuilder_.getMessage(index);
+        }
+      }
+      /**
+       * <code>repeated .nigori.KeyRevision records = 2;</code>
+       */
+      public Builder setRecords(
+          int index, com.google.nigori.common.NigoriMessages.KeyRevision value) {
+        if (recordsBuilder_ == null) {
+          if (value == null) {
+            throw new NullPointerException();
+          }
+          ensureRecordsIsMutable();
+          records_.set(index, value);
+          onChanged();
+        } else {
+          recordsBuilder_.setMessage(index, value);
+        }
+        return this;
+      }
+      /**
+       * <code>repeated .nigori.KeyRevision records = 2;</code>
+       */
+      public Builder setRecords(
+          int index, com.google.nigori.common.NigoriMessages.KeyRevision.Builder builderForValue) {
+        if (recordsBuilder_ == null) {
+          ensureRecordsIsMutable();
+          records_.set(index, builderForValue.build());
+          onChanged();
+        } else {
+          recordsBuilder_.setMessage(index, builderForValue.build());
+        }
+        return this;
+      }
+      /**
+       * <code>repeated .nigori.KeyRevision records = 2;</code>
+       */
+      public Builder addRecords(com.google.nigori.common.NigoriMessages.KeyRevision value) {
+        if (recordsBuilder_ == null) {
+          if (value == null) {
+            throw new NullPointerException();
+          }
+          ensureRecordsIsMutable();
+          records_.add(value);
+          onChanged();
+        } else {
+          recordsBuilder_.addMessage(value);
+        }
+        return this;
+      }
+      /**
+       * <code>repeated .nigori.KeyRevision records = 2;</code>
+       */
+      public Builder addRecords(
+          int index, com.google.nigori.common.NigoriMessages.KeyRevision value) {
+        if (recordsBuilder_ == null) {
+          if (value == null) {
+            throw new NullPointerException();
+          }
+          ensureRecordsIsMutable();
+          records_.add(index, value);
+          onChanged();
+        } else {
+          recordsBuilder_.addMessage(index, value);
+        }
+        return this;
+      }
+      /**
+       * <code>repeated .nigori.KeyRevision records = 2;</code>
+       */
+      public Builder addRecords(
+          com.google.nigori.common.NigoriMessages.KeyRevision.Builder builderForValue) {
+        if (recordsBuilder_ == null) {
+          ensureRecordsIsMutable();
+          records_.add(builderForValue.build());
+          onChanged();
+        } else {
+          recordsBuilder_.addMessage(builderForValue.build());
+        }
+        return this;
+      }
+      /**
+       * <code>repeated .nigori.KeyRevision records = 2;</code>
+       */
+      public Builder addRecords(
+          int index, com.google.nigori.common.NigoriMessages.KeyRevision.Builder builderForValue) {
+        if (recordsBuilder_ == null) {
+          ensureRecordsIsMutable();
+          records_.add(index, builderForValue.build());
+          onChanged();
+        } else {
+          recordsBuilder_.addMessage(index, builderForValue.build());
+        }
+        return this;
+      }
+      /**
+       * <code>repeated .nigori.KeyRevision records = 2;</code>
+       */
+      public Builder addAllRecords(
+          java.lang.Iterable<? extends com.google.nigori.common.NigoriMessages.KeyRevision> values) {
+        if (recordsBuilder_ == null) {
+          ensureRecordsIsMutable();
+          com.google.protobuf.AbstractMessageLite.Builder.addAll(
+              values, records_);
+          onChanged();
+        } else {
+          recordsBuilder_.addAllMessages(values);
+        }
+        return this;
+      }
+      /**
+       * <code>repeated .nigori.KeyRevision records = 2;</code>
+       */
+      public Builder clearRecords() {
+        if (recordsBuilder_ == null) {
+          records_ = java.util.Collections.emptyList();
+          bitField0_ = (bitField0_ & ~0x00000002);
+          onChanged();
+        } else {
+          recordsBuilder_.clear();
+        }
+        return this;
+      }
+      /**
+       * <code>repeated .nigori.KeyRevision records = 2;</code>
+       */
+      public Builder removeRecords(int index) {
+        if (recordsBuilder_ == null) {
+          ensureRecordsIsMutable();
+          records_.remove(index);
+          onChanged();
+        } else {
+          recordsBuilder_.remove(index);
+        }
+        return this;
+      }
+      /**
+       * <code>repeated .nigori.KeyRevision records = 2;</code>
+       */
+      public com.google.nigori.common.NigoriMessages.KeyRevision.Builder getRecordsBuilder(
+          int index) {
+        return getRecordsFieldBuilder().getBuilder(index);
+      }
+      /**
+       * <code>repeated .nigori.KeyRevision records = 2;</code>
+       */
+      public com.google.nigori.common.NigoriMessages.KeyRevisionOrBuilder getRecordsOrBuilder(
+          int index) {
+        if (recordsBuilder_ == null) {
+          return records_.get(index);  } else {
+          return recordsBuilder_.getMessageOrBuilder(index);
+        }
+      }
+      /**
+       * <code>repeated .nigori.KeyRevision records = 2;</code>
+       */
+      public java.util.List<? extends com.google.nigori.common.NigoriMessages.KeyRevisionOrBuilder> 
+           getRecordsOrBuilderList() {
+        if (recordsBuilder_ != null) {
+          return recordsBuilder_.getMessageOrBuilderList();
+        } else {
+          return java.util.Collections.unmodifiableList(records_);
+        }
+      }
+      /**
+       * <code>repeated .nigori.KeyRevision records = 2;</code>
+       */
+      public com.google.nigori.common.NigoriMessages.KeyRevision.Builder addRecordsBuilder() {
+        return getRecordsFieldBuilder().addBuilder(
+            com.google.nigori.common.NigoriMessages.KeyRevision.getDefaultInstance());
+      }
+      /**
+       * <code>repeated .nigori.KeyRevision records = 2;</code>
+       */
+      public com.google.nigori.common.NigoriMessages.KeyRevision.Builder addRecordsBuilder(
+          int index) {
+        return getRecordsFieldBuilder().addBuilder(
+            index, com.google.nigori.common.NigoriMessages.KeyRevision.getDefaultInstance());
+      }
+      /**
+       * <code>repeated .nigori.KeyRevision records = 2;</code>
+       */
+      public java.util.List<com.google.nigori.common.NigoriMessages.KeyRevision.Builder> 
+           getRecordsBuilderList() {
+        return getRecordsFieldBuilder().getBuilderList();
+      }
+      private com.google.protobuf.RepeatedFieldBuilder<
+          com.google.nigori.common.NigoriMessages.KeyRevision, com.google.nigori.common.NigoriMessages.KeyRevision.Builder, com.google.nigori.common.NigoriMessages.KeyRevisionOrBuilder> 
+          getRecordsFieldBuilder() {
+        if (recordsBuilder_ == null) {
+          recordsBuilder_ = new com.google.protobuf.RepeatedFieldBuilder<
+              com.google.nigori.common.NigoriMessages.KeyRevision, com.google.nigori.common.NigoriMessages.KeyRevision.Builder, com.google.nigori.common.NigoriMessages.KeyRevisionOrBuilder>(
+                  records_,
+                  ((bitField0_ & 0x00000002) == 0x00000002),
+                  getParentForChildren(),
+                  isClean());
+          records_ = null;
+        }
+        return recordsBuilder_;
+      }
+
+      // @@protoc_insertion_point(builder_scope:nigori.GetDigestResponse)
+    }
+
+    static {
+      defaultInstance = new GetDigestResponse(true);
+      defaultInstance.initFields();
+    }
+
+    // @@protoc_insertion_point(class_scope:nigori.GetDigestResponse)
+  }
+
+  private static final com.google.protobuf.Descriptors.Descriptor
+    internal_static_nigori_AuthenticateRequest_descriptor;
+  private static
+    com.google.protobuf.GeneratedMessage.FieldAccessorTable
+      internal_static_nigori_AuthenticateRequest_fieldAccessorTable;
+  private static final com.google.protobuf.Descriptors.Descriptor
+    internal_static_nigori_RegisterRequest_descriptor;
+  private static
+    com.google.protobuf.GeneratedMessage.FieldAccessorTable
+      internal_static_nigori_RegisterRequest_fieldAccessorTable;
+  private static final com.google.protobuf.Descriptors.Descriptor
+    internal_static_nigori_UnregisterRequest_descriptor;
+  private static
+    com.google.protobuf.GeneratedMessage.FieldAccessorTable
+      internal_static_nigori_UnregisterRequest_fieldAccessorTable;
+  private static final com.google.protobuf.Descriptors.Descriptor
+    internal_static_nigori_RevisionValue_descriptor;
+  private static
+    com.google.protobuf.GeneratedMessage.FieldAccessorTable
+      internal_static_nigori_RevisionValue_fieldAccessorTable;
+  private static final com.google.protobuf.Descriptors.Descriptor
+    internal_static_nigori_GetRequest_descriptor;
+  private static
+    com.google.protobuf.GeneratedMessage.FieldAccessorTable
+      internal_static_nigori_GetRequest_fieldAccessorTable;
+  private static final com.google.protobuf.Descriptors.Descriptor
+    internal_static_nigori_GetResponse_descriptor;
+  private static
+    com.google.protobuf.GeneratedMessage.FieldAccessorTable
+      internal_static_nigori_GetResponse_fieldAccessorTable;
+  private static final com.google.protobuf.Descriptors.Descriptor
+    internal_static_nigori_GetIndicesRequest_descriptor;
+  private static
+    com.google.protobuf.GeneratedMessage.FieldAccessorTable
+      internal_static_nigori_GetIndicesRequest_fieldAccessorTable;
+  private static final com.google.protobuf.Descriptors.Descriptor
+    internal_static_nigori_GetIndicesResponse_descriptor;
+  private static
+    com.google.protobuf.GeneratedMessage.FieldAccessorTable
+      internal_static_nigori_GetIndicesResponse_fieldAccessorTable;
+  private static final com.google.protobuf.Descriptors.Descriptor
+    internal_static_nigori_GetRevisionsRequest_descriptor;
+  private static
+    com.google.protobuf.GeneratedMessage.FieldAccessorTable
+      internal_static_nigori_GetRevisionsRequest_fieldAccessorTable;
+  private static final com.google.protobuf.Descriptors.Descriptor
+    internal_static_nigori_GetRevisionsResponse_descriptor;
+  private static
+    com.google.protobuf.GeneratedMessage.FieldAccessorTable
+      internal_static_nigori_GetRevisionsResponse_fieldAccessorTable;
+  private static final com.google.protobuf.Descriptors.Descriptor
+    internal_static_nigori_PutRequest_descriptor;
+  private static
+    com.google.protobuf.GeneratedMessage.FieldAccessorTable
+      internal_static_nigori_PutRequest_fieldAccessorTable;
+  private static final com.google.protobuf.Descriptors.Descriptor
+    internal_static_nigori_DeleteRequest_descriptor;
+  private static
+    com.google.protobuf.GeneratedMessage.FieldAccessorTable
+      internal_static_nigori_DeleteRequest_fieldAccessorTable;
+  private static final com.google.protobuf.Descriptors.Descriptor
+    internal_static_nigori_SessionRequest_descriptor;
+  private static
+    com.google.protobuf.GeneratedMessage.FieldAccessorTable
+      internal_static_nigori_SessionRequest_fieldAccessorTable;
+  private static final com.google.protobuf.Descriptors.Descriptor
+    internal_static_nigori_SessionResponse_descriptor;
+  private static
+    com.google.protobuf.GeneratedMessage.FieldAccessorTable
+      internal_static_nigori_SessionResponse_fieldAccessorTable;
+  private static final com.google.protobuf.Descriptors.Descriptor
+    internal_static_nigori_KeyRevisionValue_descriptor;
+  private static
+    com.google.protobuf.GeneratedMessage.FieldAccessorTable
+      internal_static_nigori_KeyRevisionValue_fieldAccessorTable;
+  private static final com.google.protobuf.Descriptors.Descriptor
+    internal_static_nigori_BatchGetRequest_descriptor;
+  private static
+    com.google.protobuf.GeneratedMessage.FieldAccessorTable
+      internal_static_nigori_BatchGetRequest_fieldAccessorTable;
+  private static final com.google.protobuf.Descriptors.Descriptor
+    internal_static_nigori_BatchGetResponse_descriptor;
+  private static
+    com.google.protobuf.GeneratedMessage.FieldAccessorTable
+      internal_static_nigori_BatchGetResponse_fieldAccessorTable;
+  private static final com.google.protobuf.Descriptors.Descriptor
+    internal_static_nigori_BatchPutRequest_descriptor;
+  private static
+    com.google.protobuf.GeneratedMessage.FieldAccessorTable
+      internal_static_nigori_BatchPutRequest_fieldAccessorTable;
+  private static final com.google.protobuf.Descriptors.Descriptor
+    internal_static_nigori_BatchDeleteRequest_descriptor;
+  private static
+    com.google.protobuf.GeneratedMessage.FieldAccessorTable
+      internal_static_nigori_BatchDeleteRequest_fieldAccessorTable;
+  private static final com.google.protobuf.Descriptors.Descriptor
+    internal_static_nigori_Change_descriptor;
+  private static
+    com.google.protobuf.GeneratedMessage.FieldAccessorTable
+      internal_static_nigori_Change_fieldAccessorTable;
+  private static final com.google.protobuf.Descriptors.Descriptor
+    internal_static_nigori_GetChangesRequest_descriptor;
+  private static
+    com.google.protobuf.GeneratedMessage.FieldAccessorTable
+      internal_static_nigori_GetChangesRequest_fieldAccessorTable;
+  private static final com.google.protobuf.Descriptors.Descriptor
+    internal_static_nigori_GetChangesResponse_descriptor;
+  private static
+    com.google.protobuf.GeneratedMessage.FieldAccessorTable
+      internal_static_nigori_GetChangesResponse_fieldAccessorTable;
+  private static final com.google.protobuf.Descriptors.Descriptor
+    internal_static_nigori_DigestNode_descriptor;
+  private static
+    com.google.protobuf.GeneratedMessage.FieldAccessorTable
+      internal_static_nigori_DigestNode_fieldAccessorTable;
+  private static final com.google.protobuf.Descriptors.Descriptor
+    internal_static_nigori_KeyRevision_descriptor;
+  private static
+    com.google.protobuf.GeneratedMessage.FieldAccessorTable
+      internal_static_nigori_KeyRevision_fieldAccessorTable;
+  private static final com.google.protobuf.Descriptors.Descriptor
+    internal_static_nigori_GetDigestRequest_descriptor;
+  private static
+    com.google.protobuf.GeneratedMessage.FieldAccessorTable
+      internal_static_nigori_GetDigestRequest_fieldAccessorTable;
+  private static final com.google.protobuf.Descriptors.Descriptor
+    internal_static_nigori_GetDigestResponse_descriptor;
+  private static
+    com.google.protobuf.GeneratedMessage.FieldAccessorTable
+      internal_static_nigori_GetDigestResponse_fieldAccessorTable;
+
+  public static com.google.protobuf.Descriptors.FileDescriptor
+      getDescriptor() {
+    return descriptor;
+  }
+  private static com.google.protobuf.Descriptors.FileDescriptor
+      descriptor;
+  static {
+    java.lang.String[] descriptorData = {
+      "\n$src/main/proto/nigori_messages.proto\022\006" +
+      "nigori\"{\n\023AuthenticateRequest\022\022\n\npublic_" +
+      "key\030\001 \002(\014\022\013\n\003sig\030\002 \002(\014\022\r\n\005nonce\030\003 \002(\014\022\023\n" +
+      "\013server_name\030\004 \002(\t\022\016\n\006ticket\030\005 \001(\014\022\017\n\007co" +
+      "unter\030\006 \001(\004\"4\n\017RegisterRequest\022\022\n\npublic" +
+      "_key\030\001 \002(\014\022\r\n\005token\030\002 \002(\014\">\n\021UnregisterR" +
+      "equest\022)\n\004auth\030\001 \002(\0132\033.nigori.Authentica" +
+      "teRequest\"0\n\rRevisionValue\022\020\n\010revision\030\001" +
+      " \002(\014\022\r\n\005value\030\002 \002(\014\"k\n\nGetRequest\022)\n\004aut" +
+      "h\030\001 \002(\0132\033.nigori.AuthenticateRequest\022\013\n\003",
+      "key\030\002 \002(\014\022\020\n\010revision\030\003 \001(\014\022\023\n\013fingerpri" +
+      "nt\030\004 \001(\014\"U\n\013GetResponse\022(\n\trevisions\030\001 \003" +
+      "(\0132\025.nigori.RevisionValue\022\013\n\003key\030\002 \001(\014\022\017" +
+      "\n\007partial\030\003 \001(\010\">\n\021GetIndicesRequest\022)\n\004" +
+      "auth\030\001 \002(\0132\033.nigori.AuthenticateRequest\"" +
+      "%\n\022GetIndicesResponse\022\017\n\007indices\030\001 \003(\014\"b" +
+      "\n\023GetRevisionsRequest\022)\n\004auth\030\001 \002(\0132\033.ni" +
+      "gori.AuthenticateRequest\022\013\n\003key\030\002 \002(\014\022\023\n" +
+      "\013fingerprint\030\003 \001(\014\"G\n\024GetRevisionsRespon" +
+      "se\022\021\n\trevisions\030\001 \003(\014\022\013\n\003key\030\002 \001(\014\022\017\n\007pa",
+      "rtial\030\003 \001(\010\"e\n\nPutRequest\022)\n\004auth\030\001 \002(\0132" +
+      "\033.nigori.AuthenticateRequest\022\013\n\003key\030\002 \002(" +
+      "\014\022\020\n\010revision\030\003 \002(\014\022\r\n\005value\030\004 \002(\014\"Y\n\rDe" +
+      "leteRequest\022)\n\004auth\030\001 \002(\0132\033.nigori.Authe" +
+      "nticateRequest\022\013\n\003key\030\002 \002(\014\022\020\n\010revision\030" +
+      "\003 \001(\014\"N\n\016SessionRequest\022)\n\004auth\030\001 \002(\0132\033." +
+      "nigori.AuthenticateRequest\022\021\n\tdh_public\030" +
+      "\002 \002(\014\"X\n\017SessionResponse\022\016\n\006ticket\030\001 \002(\014" +
+      "\022\021\n\tdh_public\030\002 \002(\014\022\020\n\010lifetime\030\003 \002(\005\022\020\n" +
+      "\010counters\030\004 \001(\010\"@\n\020KeyRevisionValue\022\013\n\003k",
+      "ey\030\001 \002(\014\022\020\n\010revision\030\002 \002(\014\022\r\n\005value\030\003 \002(" +
+      "\014\"J\n\017BatchGetRequest\022)\n\004auth\030\001 \002(\0132\033.nig" +
+      "ori.AuthenticateRequest\022\014\n\004keys\030\002 \003(\014\":\n" +
+      "\020BatchGetResponse\022&\n\tresponses\030\001 \003(\0132\023.n" +
+      "igori.GetResponse\"g\n\017BatchPutRequest\022)\n\004" +
+      "auth\030\001 \002(\0132\033.nigori.AuthenticateRequest\022" +
+      ")\n\007records\030\002 \003(\0132\030.nigori.KeyRevisionVal" +
+      "ue\"M\n\022BatchDeleteRequest\022)\n\004auth\030\001 \002(\0132\033" +
+      ".nigori.AuthenticateRequest\022\014\n\004keys\030\002 \003(" +
+      "\014\"9\n\006Change\022\020\n\010sequence\030\001 \002(\004\022\013\n\003key\030\002 \002",
+      "(\014\022\020\n\010revision\030\003 \001(\014\"e\n\021GetChangesReques" +
+      "t\022)\n\004auth\030\001 \002(\0132\033.nigori.AuthenticateReq" +
+      "uest\022\026\n\016since_sequence\030\002 \002(\004\022\r\n\005limit\030\003 " +
+      "\002(\r\"U\n\022GetChangesResponse\022\037\n\007changes\030\001 \003" +
+      "(\0132\016.nigori.Change\022\020\n\010sequence\030\002 \002(\004\022\014\n\004" +
+      "more\030\003 \001(\010\"7\n\nDigestNode\022\014\n\004path\030\001 \002(\014\022\014" +
+      "\n\004hash\030\002 \002(\014\022\r\n\005count\030\003 \002(\r\",\n\013KeyRevisi" +
+      "on\022\013\n\003key\030\001 \002(\014\022\020\n\010revision\030\002 \002(\014\"p\n\020Get" +
+      "DigestRequest\022)\n\004auth\030\001 \002(\0132\033.nigori.Aut" +
+      "henticateRequest\022\014\n\004path\030\002 \002(\014\022\r\n\005depth\030",
+      "\003 \002(\r\022\024\n\014record_limit\030\004 \001(\r\"\\\n\021GetDigest" +
+      "Response\022!\n\005nodes\030\001 \003(\0132\022.nigori.DigestN" +
+      "ode\022$\n\007records\030\002 \003(\0132\023.nigori.KeyRevisio" +
+      "nB*\n\030com.google.nigori.commonB\016NigoriMes" +
+      "sages"
+    };
+    com.google.protobuf.Descriptors.FileDescriptor.InternalDescriptorAssigner assigner =
+        new com.google.protobuf.Descriptors.FileDescriptor.    InternalDescriptorAssigner() {
+          public com.google.protobuf.ExtensionRegistry assignDescriptors(
+              com.google.protobuf.Descriptors.FileDescriptor root) {
+            descriptor = root;
+            return null;
+          }
+        };
+    com.google.protobuf.Descriptors.FileDescriptor
+      .internalBuildGeneratedFileFrom(descriptorData,
+        new com.google.protobuf.Descriptors.FileDescriptor[] {
+        }, assigner);
+    internal_static_nigori_AuthenticateRequest_descriptor =
+      getDescriptor().getMessageTypes().get(0);
+    internal_static_nigori_AuthenticateRequest_fieldAccessorTable = new
+      com.google.protobuf.GeneratedMessage.FieldAccessorTable(
+        internal_static_nigori_AuthenticateRequest_descriptor,
+        new java.lang.String[] { "PublicKey", "Sig", "Nonce", "ServerName", "Ticket", "Counter", });
+    internal_static_nigori_RegisterRequest_descriptor =
+      getDescriptor().getMessageTypes().get(1);
+    internal_static_nigori_RegisterRequest_fieldAccessorTable = new
+      com.google.protobuf.GeneratedMessage.FieldAccessorTable(
+        internal_static_nigori_RegisterRequest_descriptor,
+        new java.lang.String[] { "PublicKey", "Token", });
+    internal_static_nigori_UnregisterRequest_descriptor =
+      getDescriptor().getMessageTypes().get(2);
+    internal_static_nigori_UnregisterRequest_fieldAccessorTable = new
+      com.google.protobuf.GeneratedMessage.FieldAccessorTable(
+        internal_static_nigori_UnregisterRequest_descriptor,
+        new java.lang.String[] { "Auth", });
+    internal_static_nigori_RevisionValue_descriptor =
+      getDescriptor().getMessageTypes().get(3);
+    internal_static_nigori_RevisionValue_fieldAccessorTable = new
+      com.google.protobuf.GeneratedMessage.FieldAccessorTable(
+        internal_static_nigori_RevisionValue_descriptor,
+        new java.lang.String[] { "Revision", "Value", });
+    internal_static_nigori_GetRequest_descriptor =
+      getDescriptor().getMessageTypes().get(4);
+    internal_static_nigori_GetRequest_fieldAccessorTable = new
+      com.google.protobuf.GeneratedMessage.FieldAccessorTable(
+        internal_static_nigori_GetRequest_descriptor,
+        new java.lang.String[] { "Auth", "Key", "Revision", "Fingerprint", });
+    internal_static_nigori_GetResponse_descriptor =
+      getDescriptor().getMessageTypes().get(5);
+    internal_static_nigori_GetResponse_fieldAccessorTable = new
+      com.google.protobuf.GeneratedMessage.FieldAccessorTable(
+        internal_static_nigori_GetResponse_descriptor,
+        new java.lang.String[] { "Revisions", "Key", "Partial", });
+    internal_static_nigori_GetIndicesRequest_descriptor =
+      getDescriptor().getMessageTypes().get(6);
+    internal_static_nigori_GetIndicesRequest_fieldAccessorTable = new
+      com.google.protobuf.GeneratedMessage.FieldAccessorTable(
+        internal_static_nigori_GetIndicesRequest_descriptor,
+        new java.lang.String[] { "Auth", });
+    internal_static_nigori_GetIndicesResponse_descriptor =
+      getDescriptor().getMessageTypes().get(7);
+    internal_static_nigori_GetIndicesResponse_fieldAccessorTable = new
+      com.google.protobuf.GeneratedMessage.FieldAccessorTable(
+        internal_static_nigori_GetIndicesResponse_descriptor,
+        new java.lang.String[] { "Indices", });
+    internal_static_nigori_GetRevisionsRequest_descriptor =
+      getDescriptor().getMessageTypes().get(8);
+    internal_static_nigori_GetRevisionsRequest_fieldAccessorTable = new
+      com.google.protobuf.GeneratedMessage.FieldAccessorTable(
+        internal_static_nigori_GetRevisionsRequest_descriptor,
+        new java.lang.String[] { "Auth", "Key", "Fingerprint", });
+    internal_static_nigori_GetRevisionsResponse_descriptor =
+      getDescriptor().getMessageTypes().get(9);
+    internal_static_nigori_GetRevisionsResponse_fieldAccessorTable = new
+      com.google.protobuf.GeneratedMessage.FieldAccessorTable(
+        internal_static_nigori_GetRevisionsResponse_descriptor,
+        new java.lang.String[] { "Revisions", "Key", "Partial", });
+    internal_static_nigori_PutRequest_descriptor =
+      getDescriptor().getMessageTypes().get(10);
+    internal_static_nigori_PutRequest_fieldAccessorTable = new
+      com.google.protobuf.GeneratedMessage.FieldAccessorTable(
+        internal_static_nigori_PutRequest_descriptor,
+        new java.lang.String[] { "Auth", "Key", "Revision", "Value", });
+    internal_static_nigori_DeleteRequest_descriptor =
+      getDescriptor().getMessageTypes().get(11);
+    internal_static_nigori_DeleteRequest_fieldAccessorTable = new
+      com.google.protobuf.GeneratedMessage.FieldAccessorTable(
+        internal_static_nigori_DeleteRequest_descriptor,
+        new java.lang.String[] { "Auth", "Key", "Revision", });
+    internal_static_nigori_SessionRequest_descriptor =
+      getDescriptor().getMessageTypes().get(12);
+    internal_static_nigori_SessionRequest_fieldAccessorTable = new
+      com.google.protobuf.GeneratedMessage.FieldAccessorTable(
+        internal_static_nigori_SessionRequest_descriptor,
+        new java.lang.String[] { "Auth", "DhPublic", });
+    internal_static_nigori_SessionResponse_descriptor =
+      getDescriptor().getMessageTypes().get(13);
+    internal_static_nigori_SessionResponse_fieldAccessorTable = new
+      com.google.protobuf.GeneratedMessage.FieldAccessorTable(
+        internal_static_nigori_SessionResponse_descriptor,
+        new java.lang.String[] { "Ticket", "DhPublic", "Lifetime", "Counters", });
+    internal_static_nigori_KeyRevisionValue_descriptor =
+      getDescriptor().getMessageTypes().get(14);
+    internal_static_nigori_KeyRevisionValue_fieldAccessorTable = new
+      com.google.protobuf.GeneratedMessage.FieldAccessorTable(
+        internal_static_nigori_KeyRevisionValue_descriptor,
+        new java.lang.String[] { "Key", "Revision", "Value", });
+    internal_static_nigori_BatchGetRequest_descriptor =
+      getDescriptor().getMessageTypes().get(15);
+    internal_static_nigori_BatchGetRequest_fieldAccessorTable = new
+      com.google.protobuf.GeneratedMessage.FieldAccessorTable(
+        internal_static_nigori_BatchGetRequest_descriptor,
+        new java.lang.String[] { "Auth", "Keys", });
+    internal_static_nigori_BatchGetResponse_descriptor =
+      getDescriptor().getMessageTypes().get(16);
+    internal_static_nigori_BatchGetResponse_fieldAccessorTable = new
+      com.google.protobuf.GeneratedMessage.FieldAccessorTable(
+        internal_static_nigori_BatchGetResponse_descriptor,
+        new java.lang.String[] { "Responses", });
+    internal_static_nigori_BatchPutRequest_descriptor =
+      getDescriptor().getMessageTypes().get(17);
+    internal_static_nigori_BatchPutRequest_fieldAccessorTable = new
+      com.google.protobuf.GeneratedMessage.FieldAccessorTable(
+        internal_static_nigori_BatchPutRequest_descriptor,
+        new java.lang.String[] { "Auth", "Records", });
+    internal_static_nigori_BatchDeleteRequest_descriptor =
+      getDescriptor().getMessageTypes().get(18);
+    internal_static_nigori_BatchDeleteRequest_fieldAccessorTable = new
+      com.google.protobuf.GeneratedMessage.FieldAccessorTable(
+        internal_static_nigori_BatchDeleteRequest_descriptor,
+        new java.lang.String[] { "Auth", "Keys", });
+    internal_static_nigori_Change_descriptor =
+      getDescriptor().getMessageTypes().get(19);
+    internal_static_nigori_Change_fieldAccessorTable = new
+      com.google.protobuf.GeneratedMessage.FieldAccessorTable(
+        internal_static_nigori_Change_descriptor,
+        new java.lang.String[] { "Sequence", "Key", "Revision", });
+    internal_static_nigori_GetChangesRequest_descriptor =
+      getDescriptor().getMessageTypes().get(20);
+    internal_static_nigori_GetChangesRequest_fieldAccessorTable = new
+      com.google.protobuf.GeneratedMessage.FieldAccessorTable(
+        internal_static_nigori_GetChangesRequest_descriptor,
+        new java.lang.String[] { "Auth", "SinceSequence", "Limit", });
+    internal_static_nigori_GetChangesResponse_descriptor =
+      getDescriptor().getMessageTypes().get(21);
+    internal_static_nigori_GetChangesResponse_fieldAccessorTable = new
+      com.google.protobuf.GeneratedMessage.FieldAccessorTable(
+        internal_static_nigori_GetChangesResponse_descriptor,
+        new java.lang.String[] { "Changes", "Sequence", "More", });
+    internal_static_nigori_DigestNode_descriptor =
+      getDescriptor().getMessageTypes().get(22);
+    internal_static_nigori_DigestNode_fieldAccessorTable = new
+      com.google.protobuf.GeneratedMessage.FieldAccessorTable(
+        internal_static_nigori_DigestNode_descriptor,
+        new java.lang.String[] { "Path", "Hash", "Count", });
+    internal_static_nigori_KeyRevision_descriptor =
+      getDescriptor().getMessageTypes().get(23);
+    internal_static_nigori_KeyRevision_fieldAccessorTable = new
+      com.google.protobuf.GeneratedMessage.FieldAccessorTable(
+        internal_static_nigori_KeyRevision_descriptor,
+        new java.lang.String[] { "Key", "Revision", });
+    internal_static_nigori_GetDigestRequest_descriptor =
+      getDescriptor().getMessageTypes().get(24);
+    internal_static_nigori_GetDigestRequest_fieldAccessorTable = new
+      com.google.protobuf.GeneratedMessage.FieldAccessorTable(
+        internal_static_nigori_GetDigestRequest_descriptor,
+        new java.lang.String[] { "Auth", "Path", "Depth", "RecordLimit", });
+    internal_static_nigori_GetDigestResponse_descriptor =
+      getDescriptor().getMessageTypes().get(25);
+    internal_static_nigori_GetDigestResponse_fieldAccessorTable = new
+      com.google.protobuf.GeneratedMessage.FieldAccessorTable(
+        internal_static_nigori_GetDigestResponse_descriptor,
+        new java.lang.String[] { "Nodes", "Records", });
+  }
+
   // @@protoc_insertion_point(outer_class_scope)
 }
@@ -16,7 +16,15 @@ package com.google.nigori.common;
 import java.io.IOException;
 
 import com.google.nigori.common.NigoriMessages.AuthenticateRequest;
+import com.google.nigori.common.NigoriMessages.BatchDeleteRequest;
+import com.google.nigori.common.NigoriMessages.BatchGetRequest;
+import com.google.nigori.common.NigoriMessages.BatchGetResponse;
+import com.google.nigori.common.NigoriMessages.BatchPutRequest;
 import com.google.nigori.common.NigoriMessages.DeleteRequest;
+import com.google.nigori.common.NigoriMessages.GetChangesRequest;
+import com.google.nigori.common.NigoriMessages.GetChangesResponse;
+import com.google.nigori.common.NigoriMessages.GetDigestRequest;
+import com.google.nigori.common.NigoriMessages.GetDigestResponse;
 import com.google.nigori.common.NigoriMessages.GetIndicesRequest;
 import com.google.nigori.common.NigoriMessages.GetIndicesResponse;
 import com.google.nigori.common.NigoriMessages.GetRequest;
@@ -25,6 +33,8 @@ import com.google.nigori.common.NigoriMessages.GetRevisionsRequest;
 import com.google.nigori.common.NigoriMessages.GetRevisionsResponse;
 import com.google.nigori.common.NigoriMessages.PutRequest;
 import com.google.nigori.common.NigoriMessages.RegisterRequest;
+import com.google.nigori.common.NigoriMessages.SessionRequest;
+import com.google.nigori.common.NigoriMessages.SessionResponse;
 import com.google.nigori.common.NigoriMessages.UnregisterRequest;
 
 /**
@@ -57,4 +67,72 @@ public interface NigoriProtocol {
   boolean put(PutRequest request) throws IOException, UnauthorisedException;
 
   boolean delete(DeleteRequest request) throws IOException, UnauthorisedException, NotFoundException;
+
+  /**
+   * Establish a session so that subsequent requests can be authenticated with the session key
+   * rather than a DSA signature.
+   * 
+   * @param request must be authenticated with a DSA signature
+   * @return the ticket to include in subsequent requests and the server's Diffie-Hellman public
+   *         value
+   * @throws IOException
+   * @throws UnauthorisedException
+   */
+  SessionResponse session(SessionRequest request) throws IOException, UnauthorisedException;
+
+  /**
+   * Get the records for several keys with a single authentication.
+   * 
+   * @param request
+   * @return a GetResponse for each requested key in the same order, with no revisions for keys
+   *         which do not exist
+   * @throws IOException
+   * @throws UnauthorisedException
+   */
+  BatchGetResponse batchGet(BatchGetRequest request) throws IOException, UnauthorisedException;
+
+  /**
+   * Put several records with a single authentication, either all of them are stored or none are.
+   * 
+   * @param request
+   * @return whether all the records were stored
+   * @throws IOException
+   * @throws UnauthorisedException
+   */
+  boolean batchPut(BatchPutRequest request) throws IOException, UnauthorisedException;
+
+  /**
+   * Delete several keys with a single authentication.
+   * 
+   * @param request
+   * @return whether every key existed and was deleted
+   * @throws IOException
+   * @throws UnauthorisedException
+   */
+  boolean batchDelete(BatchDeleteRequest request) throws IOException, UnauthorisedException;
+
+  /**
+   * Get the changes made to the user's records after a point in their sequence of changes, so that
+   * a client can sync only what has changed since it last synced.
+   * 
+   * @param request
+   * @return the changes in the order they were made and the sequence number to ask for changes
+   *         after next time
+   * @throws IOException
+   * @throws UnauthorisedException
+   */
+  GetChangesResponse getChanges(GetChangesRequest request) throws IOException,
+      UnauthorisedException;
+
+  /**
+   * Get the digests of part of the hash tree over the user's (key, revision) pairs, so that two
+   * stores can find where they differ by only descending into subtrees with different digests.
+   * 
+   * @param request
+   * @return the non-empty nodes {@code depth} levels below {@code path} and, if requested, the pairs
+   *         under {@code path}
+   * @throws IOException
+   * @throws UnauthorisedException
+   */
+  GetDigestResponse getDigest(GetDigestRequest request) throws IOException, UnauthorisedException;
 }
@@ -31,11 +31,14 @@ public class Nonce implements Serializable {
   private final static int SINCE_EPOCH_OFFSET = 4;
   private final static int RANDOM_OFFSET = 0;
   private final static SecureRandom randomGenerator = new SecureRandom();
-  private static final int TWO_DAYS = 60 * 60 * 24 * 2;
+  /**
+   * Time in seconds into the past for which a nonce is recent.
+   */
+  public static final int TWO_DAYS = 60 * 60 * 24 * 2;
   /**
    * Time into the future which the sinceEpoch is allowed to be - to allow for clock skew.
    */
-  private static final int SKEW_ALLOWANCE = 60 * 60;
+  public static final int SKEW_ALLOWANCE = 60 * 60;
 
   private final int sinceEpoch;
   private final int random;
@@ -90,4 +93,21 @@ public class Nonce implements Serializable {
   public int getRandon() {
   	return random;
   }
+
+  @Override
+  public int hashCode() {
+    return 31 * random + sinceEpoch;
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    if (this == obj) {
+      return true;
+    }
+    if (!(obj instanceof Nonce)) {
+      return false;
+    }
+    Nonce other = (Nonce) obj;
+    return random == other.random && sinceEpoch == other.sinceEpoch;
+  }
 }
\ No newline at end of file
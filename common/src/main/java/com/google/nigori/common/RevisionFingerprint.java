@@ -0,0 +1,98 @@
+/*
+ * Copyright (C) 2012 Daniel R. Thomas (drt24)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.nigori.common;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Describes the set of revisions of an index which a client already has, so that a get can be
+ * answered with only the revisions missing from it, or with nothing if there are none.
+ *
+ * The fingerprint is the sorted concatenation of a {@link #TAG_LENGTH} byte tag for each revision,
+ * the start of the SHA-256 hash of the revision as stored on the server.
+ *
+ * @author drt24
+ *
+ */
+public final class RevisionFingerprint {
+
+  public static final int TAG_LENGTH = Util.LONG;
+  private static final String ALGORITHM = "SHA-256";
+
+  private final Set<Long> tags;
+
+  /**
+   * @param fingerprint as created by {@link #of(Collection)}
+   * @throws IllegalArgumentException if {@code fingerprint} is not a whole number of tags
+   */
+  public RevisionFingerprint(byte[] fingerprint) {
+    if (!isValid(fingerprint)) {
+      throw new IllegalArgumentException("Fingerprint length must be a multiple of " + TAG_LENGTH
+          + " but was " + fingerprint.length);
+    }
+    tags = new HashSet<Long>();
+    for (int offset = 0; offset < fingerprint.length; offset += TAG_LENGTH) {
+      tags.add(Util.bin2long(fingerprint, offset));
+    }
+  }
+
+  public static boolean isValid(byte[] fingerprint) {
+    return fingerprint.length % TAG_LENGTH == 0;
+  }
+
+  /**
+   * @return the fingerprint of {@code revisions}
+   */
+  public static byte[] of(Collection<byte[]> revisions) {
+    long[] tags = new long[revisions.size()];
+    int i = 0;
+    for (byte[] revision : revisions) {
+      tags[i++] = tag(revision);
+    }
+    Arrays.sort(tags);
+    byte[] fingerprint = new byte[tags.length * TAG_LENGTH];
+    for (i = 0; i < tags.length; ++i) {
+      Util.long2bin(fingerprint, i * TAG_LENGTH, tags[i]);
+    }
+    return fingerprint;
+  }
+
+  private static long tag(byte[] revision) {
+    try {
+      return Util.bin2long(MessageDigest.getInstance(ALGORITHM).digest(revision), 0);
+    } catch (NoSuchAlgorithmException e) {
+      // Every Java platform is required to support SHA-256
+      throw new IllegalStateException(e);
+    }
+  }
+
+  /**
+   * @return whether {@code revision} is (with overwhelming probability) one of the revisions
+   */
+  public boolean contains(byte[] revision) {
+    return tags.contains(tag(revision));
+  }
+
+  /**
+   * @return the number of distinct revisions
+   */
+  public int size() {
+    return tags.size();
+  }
+}
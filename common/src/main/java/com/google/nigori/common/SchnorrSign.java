@@ -36,7 +36,7 @@ public class SchnorrSign extends SchnorrVerify {
    * @param privateKey an arbitrary-length big-Endian <i>positive</i> integer.
    */
   public SchnorrSign(byte[] privateKey) {
-    super(G.modPow(new BigInteger(Util.positiveIntToTwosCompliment(privateKey)), P));
+    super(generatorPow(new BigInteger(Util.positiveIntToTwosCompliment(privateKey))));
     this.privateKey = new BigInteger(Util.positiveIntToTwosCompliment(privateKey));
   }
 
@@ -57,7 +57,7 @@ public class SchnorrSign extends SchnorrVerify {
     MessageDigest  m = MessageDigest.getInstance(DIGEST_ALGORITHM);
 
     BigInteger k = randomValue;
-    BigInteger r = G.modPow(k, P);
+    BigInteger r = generatorPow(k);
 
     byte[] rAsBytes = Util.twosComplimentToPositiveInt(r.toByteArray());
     byte[] messageAndR = new byte[message.length + rAsBytes.length];
@@ -33,6 +33,20 @@ public class SchnorrVerify {
 
   static final String DIGEST_ALGORITHM = NigoriConstants.A_KMAC;
 
+  /**
+   * Holder so that the table is only built when Schnorr signatures are first used.
+   */
+  private static final class Generator {
+    static final FixedBaseExponentiation POWERS = new FixedBaseExponentiation(G, P, Q);
+  }
+
+  /**
+   * @return G^exponent mod P
+   */
+  static BigInteger generatorPow(BigInteger exponent) {
+    return Generator.POWERS.pow(exponent);
+  }
+
   private final BigInteger publicKey;
 
   public SchnorrVerify(byte[] publicKey) {
@@ -62,7 +76,7 @@ public class SchnorrVerify {
     //r = (pow(self.g, s, self.p) * pow(self.publicKey, e, self.p)) % self.p
     BigInteger e = new BigInteger(Util.positiveIntToTwosCompliment(sig.getE()));
     BigInteger s = new BigInteger(Util.positiveIntToTwosCompliment(sig.getS()));
-    BigInteger r = (G.modPow(s, P).multiply(publicKey.modPow(e, P))).mod(P);
+    BigInteger r = (generatorPow(s).multiply(publicKey.modPow(e, P))).mod(P);
 
     byte[] message = sig.getMessage();
     byte[] rAsBytes = Util.twosComplimentToPositiveInt(r.toByteArray());
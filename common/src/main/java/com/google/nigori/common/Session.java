@@ -0,0 +1,144 @@
+/*
+ * Copyright (C) 2012 Daniel R. Thomas (drt24)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.nigori.common;
+
+import java.security.MessageDigest;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+/**
+ * A session established with a server using a {@link NigoriMessages.SessionRequest}, requests made
+ * using the session are authenticated with an HMAC under the session key rather than a DSA
+ * signature.
+ *
+ * @author drt24
+ *
+ */
+public class Session {
+
+  /**
+   * Stop using a session this long before the server would stop accepting it to allow for requests
+   * in flight and slow clocks.
+   */
+  private static final long EXPIRY_MARGIN = 60 * 1000;
+
+  private final byte[] publicHash;
+  private final byte[] ticket;
+  private final byte[] key;
+  private final long expires;
+  /**
+   * Last counter used or null if the session uses nonces
+   */
+  private final AtomicLong counter;
+
+  /**
+   * @param publicHash the public hash of the user who established the session
+   * @param ticket the ticket issued by the server
+   * @param key the agreed session key
+   * @param expires time in milliseconds since the epoch at which the server stops accepting the
+   *          ticket
+   */
+  public Session(byte[] publicHash, byte[] ticket, byte[] key, long expires) {
+    this(publicHash, ticket, key, expires, false);
+  }
+
+  /**
+   * @param counters whether to protect requests against replay with a counter rather than a nonce,
+   *          only if the server said it accepts them
+   */
+  public Session(byte[] publicHash, byte[] ticket, byte[] key, long expires, boolean counters) {
+    this.publicHash = publicHash.clone();
+    this.ticket = ticket.clone();
+    this.key = key.clone();
+    this.expires = expires;
+    this.counter = counters ? new AtomicLong() : null;
+  }
+
+  public byte[] getPublicHash() {
+    return publicHash.clone();
+  }
+
+  public byte[] getTicket() {
+    return ticket.clone();
+  }
+
+  public boolean usesCounters() {
+    return counter != null;
+  }
+
+  /**
+   * @return the counter to use for the next request, starting at 1
+   * @throws IllegalStateException if the session does not use counters
+   */
+  public long nextCounter() {
+    if (counter == null) {
+      throw new IllegalStateException("Session does not use counters");
+    }
+    return counter.incrementAndGet();
+  }
+
+  public boolean isExpired() {
+    return System.currentTimeMillis() > expires - EXPIRY_MARGIN;
+  }
+
+  public byte[] mac(byte[] message) throws NigoriCryptographyException {
+    return mac(key, message);
+  }
+
+  public byte[] mac(SignatureInput message) throws NigoriCryptographyException {
+    return mac(key, message);
+  }
+
+  /**
+   * @return {@link NigoriConstants#A_HMAC} of {@code message} under {@code key}
+   */
+  public static byte[] mac(byte[] key, byte[] message) throws NigoriCryptographyException {
+    try {
+      Mac mac = Mac.getInstance(NigoriConstants.A_HMAC);
+      mac.init(new SecretKeySpec(key, NigoriConstants.A_HMAC));
+      return mac.doFinal(message);
+    } catch (Exception e) {
+      throw new NigoriCryptographyException(e);
+    }
+  }
+
+  /**
+   * As {@link #mac(byte[], byte[])} without building {@code message} as a single array.
+   */
+  public static byte[] mac(byte[] key, SignatureInput message) throws NigoriCryptographyException {
+    try {
+      Mac mac = Mac.getInstance(NigoriConstants.A_HMAC);
+      mac.init(new SecretKeySpec(key, NigoriConstants.A_HMAC));
+      message.update(mac);
+      return mac.doFinal();
+    } catch (Exception e) {
+      throw new NigoriCryptographyException(e);
+    }
+  }
+
+  /**
+   * @return whether {@code mac} is the correct MAC of {@code message} under {@code key}
+   */
+  public static boolean verify(byte[] key, byte[] message, byte[] mac)
+      throws NigoriCryptographyException {
+    return MessageDigest.isEqual(mac(key, message), mac);
+  }
+
+  public static boolean verify(byte[] key, SignatureInput message, byte[] mac)
+      throws NigoriCryptographyException {
+    return MessageDigest.isEqual(mac(key, message), mac);
+  }
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright (C) 2012 Daniel R. Thomas (drt24)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.nigori.common;
+
+import java.math.BigInteger;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+
+/**
+ * One side of a Diffie-Hellman key agreement in the DSA group ({@link NigoriConstants#DSA_P},
+ * {@link NigoriConstants#DSA_Q}, {@link NigoriConstants#DSA_G}) used to agree session keys.
+ *
+ * The client's public value is covered by the DSA signature on its
+ * {@link NigoriMessages.SessionRequest} so a man in the middle can not substitute their own.
+ *
+ * @author drt24
+ *
+ */
+public class SessionKeyExchange {
+
+  private static final SecureRandom random = new SecureRandom();
+
+  private final BigInteger secret;
+  private final BigInteger publicValue;
+
+  public SessionKeyExchange() {
+    BigInteger q = NigoriConstants.DSA_Q;
+    BigInteger x;
+    do {
+      x = new BigInteger(q.bitLength(), random);
+    } while (x.signum() == 0 || x.compareTo(q) >= 0);
+    secret = x;
+    publicValue = DSAVerify.generatorPow(secret);
+  }
+
+  /**
+   * @return the public value to send to the other party
+   */
+  public byte[] getPublicValue() {
+    return Util.bigIntToByte(publicValue);
+  }
+
+  /**
+   * @param otherPublicValue the public value of the other party
+   * @return a {@link NigoriConstants#B_SHA256} byte session key
+   * @throws NigoriCryptographyException if {@code otherPublicValue} is not a member of the DSA
+   *           subgroup
+   */
+  public byte[] agree(byte[] otherPublicValue) throws NigoriCryptographyException {
+    BigInteger other = Util.byteToBigInt(otherPublicValue);
+    if (!isValidPublicValue(other)) {
+      throw new NigoriCryptographyException("Invalid Diffie-Hellman public value");
+    }
+    byte[] shared = Util.bigIntToByte(other.modPow(secret, NigoriConstants.DSA_P));
+    try {
+      return MessageDigest.getInstance(NigoriConstants.A_KMAC).digest(shared);
+    } catch (NoSuchAlgorithmException e) {
+      throw new NigoriCryptographyException(e);
+    }
+  }
+
+  /**
+   * Check that {@code value} is in (1, p) and in the subgroup of order q, so that it can not be used
+   * to force the shared secret into a small subgroup.
+   */
+  static boolean isValidPublicValue(BigInteger value) {
+    BigInteger p = NigoriConstants.DSA_P;
+    if (value.compareTo(BigInteger.ONE) <= 0 || value.compareTo(p) >= 0) {
+      return false;
+    }
+    return value.modPow(NigoriConstants.DSA_Q, p).equals(BigInteger.ONE);
+  }
+}
@@ -0,0 +1,194 @@
+/*
+ * Copyright (C) 2012 Daniel R. Thomas (drt24)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.nigori.common;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.crypto.Mac;
+
+import com.google.protobuf.ByteOutput;
+import com.google.protobuf.ByteString;
+import com.google.protobuf.UnsafeByteOperations;
+
+/**
+ * The data covered by the signature or MAC of a request. This is the same length prefixed encoding
+ * as {@code Util.joinBytes(serverName, nt, nr, command, Util.joinBytes(payload))}, but it is fed
+ * part by part into a {@link MessageDigest} or {@link Mac} so that the payload, which may be
+ * large, is never copied into an intermediate array.
+ *
+ * @author drt24
+ *
+ */
+public final class SignatureInput {
+
+  /**
+   * The parts in order with their length prefixes, hashed one after the other
+   */
+  private final List<ByteString> segments;
+
+  private SignatureInput(List<ByteString> segments) {
+    this.segments = segments;
+  }
+
+  /**
+   * @return input which is exactly {@code message}, without any length prefix
+   */
+  public static SignatureInput raw(byte[] message) {
+    List<ByteString> segments = new ArrayList<ByteString>(1);
+    segments.add(UnsafeByteOperations.unsafeWrap(message));
+    return new SignatureInput(segments);
+  }
+
+  /**
+   * @return the input for a request authenticated with {@code nonce}
+   */
+  public static SignatureInput forNonce(String serverName, Nonce nonce, String command,
+      ByteString[] payload) {
+    return joined(payload, MessageLibrary.toBytes(serverName), nonce.nt(), nonce.nr(),
+        MessageLibrary.toBytes(command));
+  }
+
+  /**
+   * @return the input for a request authenticated with a session counter
+   */
+  public static SignatureInput forCounter(String serverName, long counter, String command,
+      ByteString[] payload) {
+    return joined(payload, MessageLibrary.toBytes(serverName), Util.long2bin(counter),
+        MessageLibrary.toBytes(command));
+  }
+
+  /**
+   * Wrap {@code payload} for use as the payload of a {@link SignatureInput} without copying it, so
+   * it must not be modified while in use.
+   */
+  public static ByteString[] wrap(byte[]... payload) {
+    ByteString[] answer = new ByteString[payload.length];
+    for (int i = 0; i < payload.length; ++i) {
+      answer[i] = UnsafeByteOperations.unsafeWrap(payload[i]);
+    }
+    return answer;
+  }
+
+  private static SignatureInput joined(ByteString[] payload, byte[]... header) {
+    List<ByteString> segments = new ArrayList<ByteString>(2 * (header.length + payload.length) + 1);
+    for (byte[] part : header) {
+      segments.add(UnsafeByteOperations.unsafeWrap(Util.int2bin(part.length)));
+      segments.add(UnsafeByteOperations.unsafeWrap(part));
+    }
+    int payloadLength = 0;
+    for (ByteString part : payload) {
+      payloadLength += Util.INT + part.size();
+    }
+    segments.add(UnsafeByteOperations.unsafeWrap(Util.int2bin(payloadLength)));
+    for (ByteString part : payload) {
+      segments.add(UnsafeByteOperations.unsafeWrap(Util.int2bin(part.size())));
+      segments.add(part);
+    }
+    return new SignatureInput(segments);
+  }
+
+  /**
+   * Feed the input into {@code digest}
+   */
+  public void update(final MessageDigest digest) {
+    writeTo(new Sink() {
+      @Override
+      public void write(byte[] value, int offset, int length) {
+        digest.update(value, offset, length);
+      }
+
+      @Override
+      public void write(ByteBuffer value) {
+        digest.update(value);
+      }
+    });
+  }
+
+  /**
+   * Feed the input into {@code mac}
+   */
+  public void update(final Mac mac) {
+    writeTo(new Sink() {
+      @Override
+      public void write(byte[] value, int offset, int length) {
+        mac.update(value, offset, length);
+      }
+
+      @Override
+      public void write(ByteBuffer value) {
+        mac.update(value);
+      }
+    });
+  }
+
+  private void writeTo(Sink sink) {
+    try {
+      for (ByteString segment : segments) {
+        // Passes the segment's own array to the sink rather than a copy
+        UnsafeByteOperations.unsafeWriteTo(segment, sink);
+      }
+    } catch (IOException e) {
+      // Sinks do not throw
+      throw new IllegalStateException(e);
+    }
+  }
+
+  /**
+   * @return the input as a single array, which copies all of it
+   */
+  public byte[] toByteArray() {
+    int length = 0;
+    for (ByteString segment : segments) {
+      length += segment.size();
+    }
+    byte[] answer = new byte[length];
+    int offset = 0;
+    for (ByteString segment : segments) {
+      segment.copyTo(answer, offset);
+      offset += segment.size();
+    }
+    return answer;
+  }
+
+  /**
+   * Only ever reads the arrays it is given, so {@code writeLazy} need not copy.
+   */
+  private abstract static class Sink extends ByteOutput {
+
+    @Override
+    public void write(byte value) {
+      write(new byte[] {value}, 0, 1);
+    }
+
+    @Override
+    public abstract void write(byte[] value, int offset, int length);
+
+    @Override
+    public void writeLazy(byte[] value, int offset, int length) {
+      write(value, offset, length);
+    }
+
+    @Override
+    public abstract void write(ByteBuffer value);
+
+    @Override
+    public void writeLazy(ByteBuffer value) {
+      write(value);
+    }
+  }
+}
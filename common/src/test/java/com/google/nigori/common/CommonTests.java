@@ -23,6 +23,8 @@ import org.junit.runners.Suite;
  * 
  */
 @RunWith(Suite.class)
-@Suite.SuiteClasses({NonceTest.class, DSATest.class, UtilTest.class})
+@Suite.SuiteClasses({NonceTest.class, DSATest.class, UtilTest.class,
+    FixedBaseExponentiationTest.class, MessageLibraryTest.class, RevisionFingerprintTest.class,
+    SignatureInputTest.class})
 public class CommonTests {
 }
@@ -0,0 +1,92 @@
+/*
+ * Copyright (C) 2012 Daniel R. Thomas (drt24).
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.nigori.common;
+
+import java.math.BigInteger;
+import java.security.NoSuchAlgorithmException;
+import java.util.Random;
+
+/**
+ * Compares {@link FixedBaseExponentiation} with {@link BigInteger#modPow(BigInteger, BigInteger)}
+ * for the DSA generator and times signing and verification. Not run as part of the test suite,
+ * run the main method and pass the number of iterations (default 200).
+ * 
+ * @author drt24
+ * 
+ */
+public class FixedBaseExponentiationBenchmark {
+
+  private static final int WARMUP = 50;
+
+  public static void main(String[] args) throws NoSuchAlgorithmException {
+    int iterations = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+    final BigInteger p = NigoriConstants.DSA_P;
+    final BigInteger q = NigoriConstants.DSA_Q;
+    final BigInteger g = NigoriConstants.DSA_G;
+    Random random = new Random();
+    BigInteger[] exponents = new BigInteger[iterations];
+    for (int i = 0; i < iterations; ++i) {
+      exponents[i] = new BigInteger(q.bitLength(), random).mod(q);
+    }
+
+    for (int window = 2; window <= 8; ++window) {
+      long start = System.nanoTime();
+      final FixedBaseExponentiation powers = new FixedBaseExponentiation(g, p, q, window);
+      long setup = System.nanoTime() - start;
+      time("window " + window + " (setup " + setup / 1000000 + " ms)", exponents, new Op() {
+        public void run(BigInteger exponent) {
+          powers.pow(exponent);
+        }
+      });
+    }
+    time("modPow", exponents, new Op() {
+      public void run(BigInteger exponent) {
+        g.modPow(exponent, p);
+      }
+    });
+
+    byte[] privateKey = new byte[NigoriConstants.B_DSA];
+    random.nextBytes(privateKey);
+    final DSASign signer = new DSASign(privateKey);
+    final byte[] message = MessageLibrary.toBytes("message");
+    final DSASignature sig = signer.sign(message);
+    time("DSASign.sign", exponents, new Op() {
+      public void run(BigInteger exponent) throws NoSuchAlgorithmException {
+        signer.sign(message);
+      }
+    });
+    time("DSAVerify.verify", exponents, new Op() {
+      public void run(BigInteger exponent) throws NoSuchAlgorithmException {
+        signer.verify(sig);
+      }
+    });
+  }
+
+  private interface Op {
+    void run(BigInteger exponent) throws NoSuchAlgorithmException;
+  }
+
+  private static void time(String name, BigInteger[] exponents, Op op)
+      throws NoSuchAlgorithmException {
+    for (int i = 0; i < WARMUP; ++i) {
+      op.run(exponents[i % exponents.length]);
+    }
+    long start = System.nanoTime();
+    for (BigInteger exponent : exponents) {
+      op.run(exponent);
+    }
+    long elapsed = System.nanoTime() - start;
+    System.out.println(name + ": " + elapsed / exponents.length / 1000 + " us/op");
+  }
+}
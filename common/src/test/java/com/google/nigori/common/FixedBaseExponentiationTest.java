@@ -0,0 +1,95 @@
+/*
+ * Copyright (C) 2012 Daniel R. Thomas (drt24).
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.nigori.common;
+
+import static org.junit.Assert.assertEquals;
+
+import java.math.BigInteger;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * @author drt24
+ * 
+ */
+public class FixedBaseExponentiationTest {
+
+  private static final BigInteger P = NigoriConstants.DSA_P;
+  private static final BigInteger Q = NigoriConstants.DSA_Q;
+  private static final BigInteger G = NigoriConstants.DSA_G;
+
+  private static void assertMatchesModPow(FixedBaseExponentiation powers, BigInteger exponent) {
+    BigInteger reduced = exponent.mod(powers.getOrder());
+    assertEquals("exponent: " + exponent, powers.getBase().modPow(reduced, powers.getModulus()),
+        powers.pow(exponent));
+  }
+
+  @Test
+  public void edgeCases() {
+    FixedBaseExponentiation powers = new FixedBaseExponentiation(G, P, Q);
+    assertEquals(BigInteger.ONE, powers.pow(BigInteger.ZERO));
+    assertEquals(G, powers.pow(BigInteger.ONE));
+    assertEquals(BigInteger.ONE, powers.pow(Q));
+    assertMatchesModPow(powers, Q.subtract(BigInteger.ONE));
+    assertMatchesModPow(powers, Q.add(BigInteger.ONE));
+    assertMatchesModPow(powers, BigInteger.valueOf(-1));
+    assertMatchesModPow(powers, BigInteger.ONE.shiftLeft(Q.bitLength() - 1));
+    assertMatchesModPow(powers, BigInteger.ONE.shiftLeft(Q.bitLength()).subtract(BigInteger.ONE));
+  }
+
+  @Test
+  public void randomExponents() {
+    Random random = new Random();
+    for (int window = 1; window <= 8; ++window) {
+      FixedBaseExponentiation powers = new FixedBaseExponentiation(G, P, Q, window);
+      for (int i = 0; i < 8; ++i) {
+        assertMatchesModPow(powers, new BigInteger(Q.bitLength(), random));
+        // Also exponents much larger than the order, as private keys are
+        assertMatchesModPow(powers, new BigInteger(P.bitLength(), random));
+      }
+    }
+  }
+
+  @Test
+  public void allExponentsSmallGroup() {
+    // 2 has order 11 modulo 23
+    BigInteger p = BigInteger.valueOf(23);
+    BigInteger q = BigInteger.valueOf(11);
+    BigInteger g = BigInteger.valueOf(2);
+    assertEquals(BigInteger.ONE, g.modPow(q, p));
+    for (int window = 1; window <= 5; ++window) {
+      FixedBaseExponentiation powers = new FixedBaseExponentiation(g, p, q, window);
+      for (int e = -30; e < 30; ++e) {
+        assertMatchesModPow(powers, BigInteger.valueOf(e));
+      }
+    }
+  }
+
+  @Test
+  public void schnorrGenerator() {
+    assertEquals(BigInteger.ONE, SchnorrVerify.G.modPow(SchnorrVerify.Q, SchnorrVerify.P));
+    Random random = new Random();
+    for (int i = 0; i < 8; ++i) {
+      BigInteger exponent = new BigInteger(SchnorrVerify.Q.bitLength(), random);
+      assertEquals(SchnorrVerify.G.modPow(exponent, SchnorrVerify.P),
+          SchnorrVerify.generatorPow(exponent));
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void invalidWindow() {
+    new FixedBaseExponentiation(G, P, Q, 0);
+  }
+}
@@ -0,0 +1,188 @@
+/*
+ * Copyright (C) 2012 Daniel R. Thomas (drt24)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.nigori.common;
+
+import static com.google.nigori.common.MessageLibrary.toBytes;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.io.ByteArrayOutputStream;
+import java.io.StringReader;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import com.google.nigori.common.MessageLibrary.JsonConversionException;
+import com.google.nigori.common.NigoriMessages.AuthenticateRequest;
+import com.google.nigori.common.NigoriMessages.BatchGetResponse;
+import com.google.nigori.common.NigoriMessages.BatchPutRequest;
+import com.google.nigori.common.NigoriMessages.GetChangesRequest;
+import com.google.nigori.common.NigoriMessages.GetChangesResponse;
+import com.google.nigori.common.NigoriMessages.GetDigestRequest;
+import com.google.nigori.common.NigoriMessages.GetDigestResponse;
+import com.google.nigori.common.NigoriMessages.GetRequest;
+import com.google.nigori.common.NigoriMessages.GetResponse;
+import com.google.nigori.common.NigoriMessages.GetRevisionsRequest;
+import com.google.nigori.common.NigoriMessages.GetRevisionsResponse;
+import com.google.nigori.common.NigoriMessages.PutRequest;
+import com.google.nigori.common.NigoriMessages.SessionResponse;
+import com.google.protobuf.ByteString;
+
+/**
+ * @author drt24
+ *
+ */
+public class MessageLibraryTest {
+
+  private static final byte[] index = toBytes("index");
+  private static final byte[] revision = toBytes("revision");
+  private static final byte[] value = toBytes("value");
+
+  private static DSASign signer() throws NoSuchAlgorithmException {
+    return new DSASign(new byte[] {1, 2, 3});
+  }
+
+  @Test
+  public void putRoundTrip() throws Exception {
+    PutRequest put = MessageLibrary.putRequestAsProtobuf("server", signer(), index, revision, value);
+    String json = MessageLibrary.toJson(put);
+    assertFalse("JSON should not be pretty printed", json.contains("\n"));
+    assertEquals(put, MessageLibrary.putRequestFromJson(json));
+  }
+
+  @Test
+  public void batchRoundTrip() throws Exception {
+    BatchPutRequest put =
+        MessageLibrary.batchPutRequestAsProtobuf("server", signer(), Arrays.asList(
+            MessageLibrary.keyRevisionValueAsProtobuf(index, revision, value),
+            MessageLibrary.keyRevisionValueAsProtobuf(value, revision, index)));
+    assertEquals(put, MessageLibrary.batchPutRequestFromJson(MessageLibrary.toJson(put)));
+    BatchGetResponse get =
+        MessageLibrary.batchGetResponseAsProtobuf(Arrays.asList(ByteString.copyFrom(index),
+            ByteString.copyFrom(value)), Arrays.asList(Arrays.asList(new RevValue(revision,
+            value)), null));
+    assertEquals(get, MessageLibrary.batchGetResponseFromJson(MessageLibrary.toJson(get)));
+  }
+
+  @Test
+  public void changesRoundTrip() throws Exception {
+    GetChangesRequest request =
+        MessageLibrary.getChangesRequestAsProtobuf("server", signer(), 1L << 40, 100);
+    assertEquals(request, MessageLibrary.getChangesRequestFromJson(MessageLibrary.toJson(request)));
+    GetChangesResponse response =
+        MessageLibrary.getChangesResponseAsProtobuf(Arrays.asList(MessageLibrary.changeAsProtobuf(
+            3, index, revision), MessageLibrary.changeAsProtobuf(7, value, null)), 7, true);
+    assertEquals(response, MessageLibrary.getChangesResponseFromJson(MessageLibrary
+        .toJson(response)));
+  }
+
+  @Test
+  public void fingerprintRoundTrip() throws Exception {
+    byte[] fingerprint = RevisionFingerprint.of(Arrays.asList(revision, value));
+    GetRequest get =
+        MessageLibrary.getRequestAsProtobuf("server", signer(), index, null, fingerprint);
+    assertEquals(get, MessageLibrary.getRequestFromJson(MessageLibrary.toJson(get)));
+    GetRevisionsRequest revisions =
+        MessageLibrary.getRevisionsRequestAsProtobuf("server", signer(), index, fingerprint);
+    assertEquals(revisions, MessageLibrary.getRevisionsRequestFromJson(MessageLibrary
+        .toJson(revisions)));
+    GetResponse response =
+        MessageLibrary.getResponseAsProtobuf(Arrays.asList(new RevValue(revision, value)), true);
+    assertEquals(response, MessageLibrary.getResponseFromJson(MessageLibrary.toJson(response)));
+    GetRevisionsResponse notModified =
+        MessageLibrary.getRevisionsResponseAsProtobuf(new ArrayList<byte[]>(), true);
+    assertEquals(notModified, MessageLibrary.getRevisionsResponseFromJson(MessageLibrary
+        .toJson(notModified)));
+  }
+
+  @Test
+  public void digestRoundTrip() throws Exception {
+    GetDigestRequest request =
+        MessageLibrary.getDigestRequestAsProtobuf("server", signer(), new byte[] {1, 15}, 2, 64);
+    assertEquals(request, MessageLibrary.getDigestRequestFromJson(MessageLibrary.toJson(request)));
+    GetDigestResponse response =
+        MessageLibrary.getDigestResponseAsProtobuf(Arrays.asList(MessageLibrary
+            .digestNodeAsProtobuf(new byte[] {1, 15, 3}, revision, 2), MessageLibrary
+            .digestNodeAsProtobuf(new byte[] {1, 15, 4}, value, 1)), Arrays.asList(MessageLibrary
+            .keyRevisionAsProtobuf(index, revision)));
+    assertEquals(response, MessageLibrary.getDigestResponseFromJson(MessageLibrary
+        .toJson(response)));
+  }
+
+  @Test
+  public void streamingMatchesString() throws Exception {
+    GetResponse get =
+        MessageLibrary.getResponseAsProtobuf(Arrays.asList(new RevValue(revision, value),
+            new RevValue(value, revision)));
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    MessageLibrary.toJson(get, out);
+    assertEquals(MessageLibrary.toJson(get), MessageLibrary.bytesToString(out.toByteArray()));
+    assertEquals(get, MessageLibrary.fromJson(new StringReader(MessageLibrary.toJson(get)),
+        GetResponse.class));
+  }
+
+  @Test
+  public void fieldNames() throws Exception {
+    SessionResponse response =
+        MessageLibrary.sessionResponseAsProtobuf(new byte[] {0, 1}, new byte[] {2}, 60, true);
+    assertEquals("{\"ticket\":\"AAE=\",\"dh_public\":\"Ag==\",\"lifetime\":60,\"counters\":true}",
+        MessageLibrary.toJson(response));
+  }
+
+  @Test
+  public void readsPrettyPrintedAndUnknownFields() throws Exception {
+    SessionResponse response =
+        MessageLibrary.sessionResponseFromJson("{\n  \"lifetime\": 60,\n  \"unknown\": [1, {}],\n"
+            + "  \"ticket\": \"AAE\\u003d\",\n  \"counters\": null,\n  \"dh_public\": \"Ag==\"\n}");
+    assertEquals(MessageLibrary.sessionResponseAsProtobuf(new byte[] {0, 1}, new byte[] {2}, 60,
+        false).toBuilder().clearCounters().build(), response);
+  }
+
+  @Test
+  public void counterRoundTrip() throws Exception {
+    AuthenticateRequest auth =
+        MessageLibrary.authenticateRequestAsProtobuf("server", signer()).toBuilder()
+            .setCounter(Long.MAX_VALUE).build();
+    assertEquals(auth, MessageLibrary.authenticateRequestFromJson(MessageLibrary.toJson(auth)));
+  }
+
+  @Test(expected = JsonConversionException.class)
+  public void missingRequiredField() throws Exception {
+    MessageLibrary.sessionResponseFromJson("{\"ticket\":\"AAE=\"}");
+  }
+
+  @Test(expected = JsonConversionException.class)
+  public void invalidBase64() throws Exception {
+    MessageLibrary.sessionResponseFromJson(
+        "{\"ticket\":\"!!\",\"dh_public\":\"Ag==\",\"lifetime\":60}");
+  }
+
+  @Test(expected = JsonConversionException.class)
+  public void wrongType() throws Exception {
+    MessageLibrary.sessionResponseFromJson(
+        "{\"ticket\":\"AAE=\",\"dh_public\":\"Ag==\",\"lifetime\":\"soon\"}");
+  }
+
+  @Test(expected = JsonConversionException.class)
+  public void truncated() throws Exception {
+    MessageLibrary.sessionResponseFromJson("{\"ticket\":\"AAE=\",\"dh_public\":");
+  }
+
+  @Test(expected = JsonConversionException.class)
+  public void empty() throws Exception {
+    MessageLibrary.sessionResponseFromJson("");
+  }
+}
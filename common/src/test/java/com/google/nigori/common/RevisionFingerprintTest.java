@@ -0,0 +1,67 @@
+/*
+ * Copyright (C) 2012 Daniel R. Thomas (drt24)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.nigori.common;
+
+import static com.google.nigori.common.MessageLibrary.toBytes;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+
+/**
+ * @author drt24
+ *
+ */
+public class RevisionFingerprintTest {
+
+  @Test
+  public void contains() {
+    List<byte[]> revisions = Arrays.asList(toBytes("a"), toBytes("b"), toBytes("c"));
+    byte[] fingerprint = RevisionFingerprint.of(revisions);
+    assertEquals(revisions.size() * RevisionFingerprint.TAG_LENGTH, fingerprint.length);
+    RevisionFingerprint known = new RevisionFingerprint(fingerprint);
+    assertEquals(3, known.size());
+    for (byte[] revision : revisions) {
+      assertTrue(known.contains(revision));
+    }
+    assertFalse(known.contains(toBytes("d")));
+  }
+
+  @Test
+  public void orderIndependent() {
+    List<byte[]> revisions = new ArrayList<byte[]>(Arrays.asList(toBytes("a"), toBytes("b")));
+    byte[] fingerprint = RevisionFingerprint.of(revisions);
+    Collections.reverse(revisions);
+    assertArrayEquals(fingerprint, RevisionFingerprint.of(revisions));
+  }
+
+  @Test
+  public void empty() {
+    RevisionFingerprint known = new RevisionFingerprint(RevisionFingerprint.of(new ArrayList<byte[]>()));
+    assertEquals(0, known.size());
+    assertFalse(known.contains(toBytes("a")));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void invalid() {
+    new RevisionFingerprint(new byte[RevisionFingerprint.TAG_LENGTH + 1]);
+  }
+}
@@ -0,0 +1,169 @@
+/*
+ * Copyright (C) 2012 Daniel R. Thomas (drt24)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.nigori.common;
+
+import static com.google.nigori.common.MessageLibrary.toBytes;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.google.nigori.common.NigoriMessages.AuthenticateRequest;
+import com.google.nigori.common.NigoriMessages.KeyRevisionValue;
+import com.google.protobuf.ByteString;
+
+/**
+ * Check that {@link SignatureInput} covers exactly the bytes which were signed when the message was
+ * built with {@link Util#joinBytes(byte[]...)}.
+ *
+ * @author drt24
+ *
+ */
+public class SignatureInputTest {
+
+  private static final String SERVER = "nigori.example.com";
+  private static final Random random = new Random();
+
+  private static byte[] randomBytes(int length) {
+    byte[] bytes = new byte[length];
+    random.nextBytes(bytes);
+    return bytes;
+  }
+
+  private static byte[][][] payloads() {
+    return new byte[][][] { {}, {new byte[0]}, {toBytes("index")},
+        {toBytes("index"), toBytes("revision"), randomBytes(256 * 1024)}};
+  }
+
+  private static byte[] joinedNonce(Nonce nonce, String command, byte[]... payload) {
+    return Util.joinBytes(toBytes(SERVER), nonce.nt(), nonce.nr(), toBytes(command), Util
+        .joinBytes(payload));
+  }
+
+  private static byte[] joinedCounter(long counter, String command, byte[]... payload) {
+    return Util.joinBytes(toBytes(SERVER), Util.long2bin(counter), toBytes(command), Util
+        .joinBytes(payload));
+  }
+
+  private static byte[] digest(SignatureInput input) throws NoSuchAlgorithmException {
+    MessageDigest digest = MessageDigest.getInstance(DSAVerify.DIGEST_ALGORITHM);
+    input.update(digest);
+    return digest.digest();
+  }
+
+  private static byte[] digest(byte[] message) throws NoSuchAlgorithmException {
+    return MessageDigest.getInstance(DSAVerify.DIGEST_ALGORITHM).digest(message);
+  }
+
+  @Test
+  public void sameBytes() throws NoSuchAlgorithmException {
+    Nonce nonce = new Nonce();
+    for (byte[][] payload : payloads()) {
+      byte[] joined = joinedNonce(nonce, MessageLibrary.REQUEST_PUT, payload);
+      SignatureInput input =
+          SignatureInput.forNonce(SERVER, nonce, MessageLibrary.REQUEST_PUT, SignatureInput
+              .wrap(payload));
+      assertArrayEquals(joined, input.toByteArray());
+      assertArrayEquals(digest(joined), digest(input));
+
+      joined = joinedCounter(42, MessageLibrary.REQUEST_GET, payload);
+      input = MessageLibrary.counterMessage(SERVER, 42, MessageLibrary.REQUEST_GET, payload);
+      assertArrayEquals(joined, input.toByteArray());
+      assertArrayEquals(digest(joined), digest(input));
+    }
+  }
+
+  @Test
+  public void ropePayload() throws NoSuchAlgorithmException {
+    // A value made of several pieces is hashed piece by piece
+    byte[] a = randomBytes(10000);
+    byte[] b = randomBytes(20000);
+    ByteString value = ByteString.copyFrom(a).concat(ByteString.copyFrom(b));
+    Nonce nonce = new Nonce();
+    SignatureInput input =
+        SignatureInput.forNonce(SERVER, nonce, MessageLibrary.REQUEST_PUT, new ByteString[] {
+            ByteString.copyFromUtf8("index"), value});
+    assertArrayEquals(digest(joinedNonce(nonce, MessageLibrary.REQUEST_PUT, toBytes("index"),
+        value.toByteArray())), digest(input));
+  }
+
+  @Test
+  public void sameMacs() throws NigoriCryptographyException {
+    byte[] key = randomBytes(32);
+    Nonce nonce = new Nonce();
+    for (byte[][] payload : payloads()) {
+      assertArrayEquals(Session.mac(key, joinedNonce(nonce, MessageLibrary.REQUEST_PUT, payload)),
+          Session.mac(key, SignatureInput.forNonce(SERVER, nonce, MessageLibrary.REQUEST_PUT,
+              SignatureInput.wrap(payload))));
+      assertArrayEquals(Session.mac(key, joinedCounter(7, MessageLibrary.REQUEST_PUT, payload)),
+          Session.mac(key, MessageLibrary.counterMessage(SERVER, 7, MessageLibrary.REQUEST_PUT,
+              payload)));
+    }
+  }
+
+  @Test
+  public void signaturesInterchangeable() throws NoSuchAlgorithmException {
+    // DSA signatures are randomised so check that each verifies as a signature of the other form
+    DSASign signer = new DSASign(randomBytes(NigoriConstants.B_DSA));
+    Nonce nonce = new Nonce();
+    for (byte[][] payload : payloads()) {
+      byte[] joined = joinedNonce(nonce, MessageLibrary.REQUEST_PUT, payload);
+      SignatureInput input =
+          SignatureInput.forNonce(SERVER, nonce, MessageLibrary.REQUEST_PUT, SignatureInput
+              .wrap(payload));
+
+      DSASignature streamed = signer.sign(input);
+      assertTrue(signer.verify(new DSASignature(streamed.getR(), streamed.getS(), joined)));
+      DSASignature old = signer.sign(joined);
+      assertTrue(signer.verify(new DSASignature(old.getR(), old.getS(), input)));
+    }
+  }
+
+  @Test
+  public void batchPutStreamed() throws NigoriCryptographyException, NoSuchAlgorithmException {
+    List<KeyRevisionValue> records = new ArrayList<KeyRevisionValue>();
+    List<byte[]> joined = new ArrayList<byte[]>();
+    for (int i = 0; i < 3; ++i) {
+      byte[] key = toBytes("index" + i);
+      byte[] revision = toBytes("revision" + i);
+      byte[] value = randomBytes(64 * 1024);
+      records.add(MessageLibrary.keyRevisionValueAsProtobuf(key, revision, value));
+      joined.add(key);
+      joined.add(revision);
+      joined.add(value);
+    }
+    byte[][] payload = joined.toArray(new byte[joined.size()][]);
+
+    byte[] key = randomBytes(32);
+    Session session = new Session(toBytes("hash"), toBytes("ticket"), key, Long.MAX_VALUE);
+    AuthenticateRequest auth =
+        MessageLibrary.batchPutRequestAsProtobuf(SERVER, session, records).getAuth();
+    Nonce nonce = new Nonce(auth.getNonce().toByteArray());
+    assertArrayEquals(Session.mac(key, joinedNonce(nonce, MessageLibrary.REQUEST_BATCH_PUT,
+        payload)), auth.getSig().toByteArray());
+
+    DSASign signer = new DSASign(randomBytes(NigoriConstants.B_DSA));
+    auth = MessageLibrary.batchPutRequestAsProtobuf(SERVER, signer, records).getAuth();
+    nonce = new Nonce(auth.getNonce().toByteArray());
+    List<byte[]> sig = Util.splitBytes(auth.getSig().toByteArray());
+    assertTrue(signer.verify(new DSASignature(sig.get(0), sig.get(1), joinedNonce(nonce,
+        MessageLibrary.REQUEST_BATCH_PUT, payload))));
+  }
+}
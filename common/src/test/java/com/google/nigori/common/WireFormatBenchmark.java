@@ -0,0 +1,124 @@
+/*
+ * Copyright (C) 2012 Daniel R. Thomas (drt24).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.nigori.common;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import com.google.nigori.common.NigoriMessages.GetResponse;
+import com.google.nigori.common.NigoriMessages.PutRequest;
+
+/**
+ * Compares the JSON and binary protobuf wire formats for put requests and get responses of various
+ * value sizes, reporting bytes on the wire and encode/decode time. Not run as part of the test
+ * suite, run the main method and pass the number of iterations (default 2000).
+ *
+ * @author drt24
+ *
+ */
+public class WireFormatBenchmark {
+
+  private static final int WARMUP = 500;
+  private static final int[] VALUE_SIZES = {16, 256, 4096, 65536};
+
+  public static void main(String[] args) throws Exception {
+    int iterations = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+    Random random = new Random();
+    byte[] privateKey = new byte[NigoriConstants.B_DSA];
+    random.nextBytes(privateKey);
+    DSASign signer = new DSASign(privateKey);
+    byte[] index = new byte[32];
+    byte[] revision = new byte[32];
+    random.nextBytes(index);
+    random.nextBytes(revision);
+
+    for (int size : VALUE_SIZES) {
+      byte[] value = new byte[size];
+      random.nextBytes(value);
+
+      final PutRequest put =
+          MessageLibrary.putRequestAsProtobuf("server", signer, index, revision, value);
+      final GetResponse get =
+          MessageLibrary.getResponseAsProtobuf(Arrays.asList(new RevValue(revision, value)));
+
+      final String putJson = MessageLibrary.toJson(put);
+      final byte[] putBinary = put.toByteArray();
+      System.out.println("PutRequest " + size + " byte value: json "
+          + MessageLibrary.toBytes(putJson).length + " bytes, protobuf " + putBinary.length
+          + " bytes");
+      time("  json encode", iterations, new Op() {
+        public void run() {
+          MessageLibrary.toBytes(MessageLibrary.toJson(put));
+        }
+      });
+      time("  json decode", iterations, new Op() {
+        public void run() throws Exception {
+          MessageLibrary.putRequestFromJson(putJson);
+        }
+      });
+      time("  protobuf encode", iterations, new Op() {
+        public void run() {
+          put.toByteArray();
+        }
+      });
+      time("  protobuf decode", iterations, new Op() {
+        public void run() throws Exception {
+          PutRequest.parseFrom(putBinary);
+        }
+      });
+
+      final String getJson = MessageLibrary.toJson(get);
+      final byte[] getBinary = get.toByteArray();
+      System.out.println("GetResponse " + size + " byte value: json "
+          + MessageLibrary.toBytes(getJson).length + " bytes, protobuf " + getBinary.length
+          + " bytes");
+      time("  json encode", iterations, new Op() {
+        public void run() {
+          MessageLibrary.toBytes(MessageLibrary.toJson(get));
+        }
+      });
+      time("  json decode", iterations, new Op() {
+        public void run() throws Exception {
+          MessageLibrary.getResponseFromJson(getJson);
+        }
+      });
+      time("  protobuf encode", iterations, new Op() {
+        public void run() {
+          get.toByteArray();
+        }
+      });
+      time("  protobuf decode", iterations, new Op() {
+        public void run() throws Exception {
+          GetResponse.parseFrom(getBinary);
+        }
+      });
+    }
+  }
+
+  private interface Op {
+    void run() throws Exception;
+  }
+
+  private static void time(String name, int iterations, Op op) throws Exception {
+    for (int i = 0; i < WARMUP; ++i) {
+      op.run();
+    }
+    long start = System.nanoTime();
+    for (int i = 0; i < iterations; ++i) {
+      op.run();
+    }
+    long elapsed = System.nanoTime() - start;
+    System.out.println(name + ": " + elapsed / iterations / 1000 + " us/op");
+  }
+}
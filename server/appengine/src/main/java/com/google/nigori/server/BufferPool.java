@@ -0,0 +1,68 @@
+/*
+ * Copyright (C) 2012 Daniel R. Thomas (drt24)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.nigori.server;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A pool of equally sized byte buffers shared between requests so that streaming a request or
+ * response does not allocate new buffers each time. At most {@code maxPooled} buffers are kept,
+ * further buffers are allocated when needed and left for the garbage collector when returned.
+ *
+ * @author drt24
+ *
+ */
+class BufferPool {
+
+  private final int bufferSize;
+  private final int maxPooled;
+  private final ConcurrentLinkedQueue<byte[]> pool = new ConcurrentLinkedQueue<byte[]>();
+  private final AtomicInteger pooled = new AtomicInteger();
+
+  BufferPool(int bufferSize, int maxPooled) {
+    this.bufferSize = bufferSize;
+    this.maxPooled = maxPooled;
+  }
+
+  int getBufferSize() {
+    return bufferSize;
+  }
+
+  /**
+   * @return a buffer of {@link #getBufferSize()} bytes with arbitrary contents
+   */
+  byte[] take() {
+    byte[] buffer = pool.poll();
+    if (buffer == null) {
+      return new byte[bufferSize];
+    }
+    pooled.decrementAndGet();
+    return buffer;
+  }
+
+  /**
+   * Return a buffer from {@link #take()}, it must not be used afterwards.
+   */
+  void give(byte[] buffer) {
+    if (buffer.length != bufferSize) {
+      throw new IllegalArgumentException("Buffer is not from this pool");
+    }
+    if (pooled.incrementAndGet() > maxPooled) {
+      pooled.decrementAndGet();
+      return;
+    }
+    pool.offer(buffer);
+  }
+}
@@ -15,11 +15,9 @@ package com.google.nigori.server;
 
 import static com.google.nigori.common.MessageLibrary.toBytes;
 
-import java.io.BufferedReader;
-import java.io.BufferedWriter;
 import java.io.IOException;
-import java.io.InputStreamReader;
-import java.io.OutputStreamWriter;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
 import java.util.HashMap;
 import java.util.logging.Logger;
 
@@ -32,18 +30,31 @@ import org.apache.commons.codec.binary.Base64;
 import com.google.nigori.common.MessageLibrary;
 import com.google.nigori.common.MessageLibrary.JsonConversionException;
 import com.google.nigori.common.NigoriMessages.AuthenticateRequest;
+import com.google.nigori.common.NigoriMessages.BatchDeleteRequest;
+import com.google.nigori.common.NigoriMessages.BatchGetRequest;
+import com.google.nigori.common.NigoriMessages.BatchPutRequest;
 import com.google.nigori.common.NigoriMessages.DeleteRequest;
+import com.google.nigori.common.NigoriMessages.GetChangesRequest;
+import com.google.nigori.common.NigoriMessages.GetDigestRequest;
 import com.google.nigori.common.NigoriMessages.GetIndicesRequest;
 import com.google.nigori.common.NigoriMessages.GetRequest;
 import com.google.nigori.common.NigoriMessages.GetResponse;
 import com.google.nigori.common.NigoriMessages.GetRevisionsRequest;
+import com.google.nigori.common.NigoriMessages.GetRevisionsResponse;
 import com.google.nigori.common.NigoriMessages.PutRequest;
 import com.google.nigori.common.NigoriMessages.RegisterRequest;
+import com.google.nigori.common.NigoriMessages.SessionRequest;
 import com.google.nigori.common.NigoriMessages.UnregisterRequest;
 import com.google.nigori.common.NigoriProtocol;
 import com.google.nigori.common.NotFoundException;
 import com.google.nigori.common.UnauthorisedException;
+import com.google.nigori.server.PooledReader.LimitExceededException;
 import com.google.nigori.server.appengine.AppEngineDatabase;
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.GeneratedMessage;
+import com.google.protobuf.InvalidProtocolBufferException;
+import com.google.protobuf.MessageLite;
+import com.google.protobuf.Parser;
 
 public class NigoriServlet extends HttpServlet {
 
@@ -51,6 +62,10 @@ public class NigoriServlet extends HttpServlet {
   private static final boolean DEBUG_JSON = false;
   private static final Logger log = Logger.getLogger(NigoriServlet.class.getName());
   private static final int maxJsonQueryLength = 1024 * 1024 * 1;
+  /**
+   * Buffers for streaming JSON requests and responses, shared between concurrent requests
+   */
+  private static final BufferPool buffers = new BufferPool(8 * 1024, 64);
   private final NigoriProtocol protocol;
 
   public NigoriServlet() {
@@ -59,7 +74,8 @@ public class NigoriServlet extends HttpServlet {
 
   public NigoriServlet(Database database) {
     super();
-    this.protocol = new DatabaseNigoriProtocol(database);
+    this.protocol =
+        new DatabaseNigoriProtocol(database, new VerifiedUserCache(), SessionTickets.configured());
   }
 
   private class ServletException extends Exception {
@@ -83,36 +99,47 @@ public class NigoriServlet extends HttpServlet {
     }
   }
 
-  private String getJsonAsString(HttpServletRequest req, int maxLength) throws ServletException {
-
-    if (maxLength != 0 && req.getContentLength() > maxLength) {
-      return null;
+  /**
+   * Parses a {@code clz} straight from the request body through a pooled buffer, so the body is
+   * never held in memory as a string.
+   */
+  private <T extends GeneratedMessage> T readJson(HttpServletRequest req, Class<T> clz)
+      throws ServletException, JsonConversionException {
+    if (req.getContentLength() > maxJsonQueryLength) {
+      throw new ServletException(HttpServletResponse.SC_REQUEST_ENTITY_TOO_LARGE,
+          "Json request exceeds server maximum length of " + maxJsonQueryLength);
     }
 
     String charsetName = req.getCharacterEncoding();
     if (charsetName == null) {
       charsetName = MessageLibrary.CHARSET;
     }
+    Charset charset;
+    try {
+      charset = Charset.forName(charsetName);
+    } catch (IllegalArgumentException e) {
+      throw new ServletException(HttpServletResponse.SC_BAD_REQUEST, "Unsupported charset "
+          + charsetName);
+    }
 
+    PooledReader in = null;
     try {
-      BufferedReader in =
-          new BufferedReader(new InputStreamReader(req.getInputStream(), charsetName));
-      StringBuilder json = new StringBuilder();
-      char[] buffer = new char[64 * 1024];
-      int charsRemaining = maxJsonQueryLength;
-      int charsRead;
-      while ((charsRead = in.read(buffer)) != -1) {
-        charsRemaining -= charsRead;
-        if (charsRemaining < 0) {
-          throw new ServletException(HttpServletResponse.SC_REQUEST_ENTITY_TOO_LARGE,
-              "Json request exceeds server maximum length of " + maxLength);
-        }
-        json.append(buffer, 0, charsRead);
+      in = new PooledReader(req.getInputStream(), charset, buffers, maxJsonQueryLength);
+      T request = MessageLibrary.fromJson(in, clz);
+      if (DEBUG_JSON) {
+        System.out.println(MessageLibrary.toJson(request));
       }
-      return json.toString();
+      return request;
+    } catch (LimitExceededException e) {
+      throw new ServletException(HttpServletResponse.SC_REQUEST_ENTITY_TOO_LARGE,
+          "Json request exceeds server maximum length of " + maxJsonQueryLength);
     } catch (IOException ioe) {
       throw new ServletException(HttpServletResponse.SC_INTERNAL_SERVER_ERROR,
           "Internal error receiving data from client.");
+    } finally {
+      if (in != null) {
+        in.release();
+      }
     }
   }
 
@@ -138,7 +165,7 @@ public class NigoriServlet extends HttpServlet {
     public boolean equals(Object obj) {
       if (obj instanceof RequestHandlerType) {
         RequestHandlerType r = (RequestHandlerType) obj;
-        return this.hashCode() == r.hashCode();
+        return mimetype.equals(r.mimetype) && requestType.equals(r.requestType);
       }
       return false;
     }
@@ -156,8 +183,12 @@ public class NigoriServlet extends HttpServlet {
    * @throws ServletException
    */
   private void emptyBody(HttpServletResponse resp) throws ServletException {
+    emptyBody(resp, MessageLibrary.MIMETYPE_JSON);
+  }
+
+  private void emptyBody(HttpServletResponse resp, String mimetype) throws ServletException {
     try {
-      resp.setContentType(MessageLibrary.MIMETYPE_JSON);
+      resp.setContentType(mimetype);
       resp.setStatus(HttpServletResponse.SC_OK);
       resp.flushBuffer();
     } catch (IOException ioe) {
@@ -177,17 +208,10 @@ public class NigoriServlet extends HttpServlet {
     public void handle(HttpServletRequest req, HttpServletResponse resp) throws ServletException,
         IOException, JsonConversionException, NotFoundException, UnauthorisedException {
 
-      String json = getJsonAsString(req, maxJsonQueryLength);
-      GetRequest request = MessageLibrary.getRequestFromJson(json);
+      GetRequest request = readJson(req, GetRequest.class);
       GetResponse response = protocol.get(request);
 
-      String jsonresponse = MessageLibrary.toJson(response);
-      resp.setContentType(MessageLibrary.MIMETYPE_JSON);
-      resp.setCharacterEncoding(MessageLibrary.CHARSET);
-      resp.setStatus(HttpServletResponse.SC_OK);
-      BufferedWriter w = new BufferedWriter(new OutputStreamWriter(resp.getOutputStream()));
-      w.write(jsonresponse);
-      w.flush();
+      jsonResponse(resp, response);
     }
   }
 
@@ -197,17 +221,9 @@ public class NigoriServlet extends HttpServlet {
     public void handle(HttpServletRequest req, HttpServletResponse resp) throws ServletException,
         IOException, NotFoundException, UnauthorisedException, JsonConversionException {
 
-      String json = getJsonAsString(req, maxJsonQueryLength);
-
-      GetIndicesRequest request = MessageLibrary.getIndicesRequestFromJson(json);
+      GetIndicesRequest request = readJson(req, GetIndicesRequest.class);
 
-      String response = MessageLibrary.toJson(protocol.getIndices(request));
-      resp.setContentType(MessageLibrary.MIMETYPE_JSON);
-      resp.setCharacterEncoding(MessageLibrary.CHARSET);
-      resp.setStatus(HttpServletResponse.SC_OK);
-      BufferedWriter w = new BufferedWriter(new OutputStreamWriter(resp.getOutputStream()));
-      w.write(response);
-      w.flush();
+      jsonResponse(resp, protocol.getIndices(request));
     }
   }
 
@@ -217,17 +233,9 @@ public class NigoriServlet extends HttpServlet {
     public void handle(HttpServletRequest req, HttpServletResponse resp) throws ServletException,
         IOException, NotFoundException, UnauthorisedException, JsonConversionException {
 
-      String json = getJsonAsString(req, maxJsonQueryLength);
-
-      GetRevisionsRequest request = MessageLibrary.getRevisionsRequestFromJson(json);
+      GetRevisionsRequest request = readJson(req, GetRevisionsRequest.class);
 
-      String response = MessageLibrary.toJson(protocol.getRevisions(request));
-      resp.setContentType(MessageLibrary.MIMETYPE_JSON);
-      resp.setCharacterEncoding(MessageLibrary.CHARSET);
-      resp.setStatus(HttpServletResponse.SC_OK);
-      BufferedWriter w = new BufferedWriter(new OutputStreamWriter(resp.getOutputStream()));
-      w.write(response);
-      w.flush();
+      jsonResponse(resp, protocol.getRevisions(request));
     }
   }
 
@@ -236,11 +244,7 @@ public class NigoriServlet extends HttpServlet {
     @Override
     public void handle(HttpServletRequest req, HttpServletResponse resp) throws ServletException,
         JsonConversionException, IOException, UnauthorisedException {
-      String json = getJsonAsString(req, maxJsonQueryLength);
-      if (DEBUG_JSON) {
-        System.out.println(json);
-      }
-      PutRequest request = MessageLibrary.putRequestFromJson(json);
+      PutRequest request = readJson(req, PutRequest.class);
 
       if (!protocol.put(request)) {
         throw new ServletException(HttpServletResponse.SC_INTERNAL_SERVER_ERROR,
@@ -257,12 +261,7 @@ public class NigoriServlet extends HttpServlet {
     @Override
     public void handle(HttpServletRequest req, HttpServletResponse resp) throws ServletException,
         JsonConversionException, IOException, UnauthorisedException, NotFoundException {
-      String json = getJsonAsString(req, maxJsonQueryLength);
-
-      if (DEBUG_JSON) {
-        System.out.println(json);
-      }
-      DeleteRequest request = MessageLibrary.deleteRequestFromJson(json);
+      DeleteRequest request = readJson(req, DeleteRequest.class);
 
       if (!protocol.delete(request)) {
         throw new ServletException(HttpServletResponse.SC_INTERNAL_SERVER_ERROR,
@@ -274,13 +273,77 @@ public class NigoriServlet extends HttpServlet {
     }
   }
 
+  private class JsonBatchGetRequestHandler implements RequestHandler {
+
+    @Override
+    public void handle(HttpServletRequest req, HttpServletResponse resp) throws ServletException,
+        IOException, JsonConversionException, UnauthorisedException {
+      BatchGetRequest request = readJson(req, BatchGetRequest.class);
+
+      jsonResponse(resp, protocol.batchGet(request));
+    }
+  }
+
+  private class JsonBatchPutRequestHandler implements RequestHandler {
+
+    @Override
+    public void handle(HttpServletRequest req, HttpServletResponse resp) throws ServletException,
+        JsonConversionException, IOException, UnauthorisedException {
+      BatchPutRequest request = readJson(req, BatchPutRequest.class);
+
+      if (!protocol.batchPut(request)) {
+        throw new ServletException(HttpServletResponse.SC_INTERNAL_SERVER_ERROR,
+            "Internal storage error for batch of " + request.getRecordsCount() + " records");
+      }
+
+      emptyBody(resp);
+    }
+  }
+
+  private class JsonBatchDeleteRequestHandler implements RequestHandler {
+
+    @Override
+    public void handle(HttpServletRequest req, HttpServletResponse resp) throws ServletException,
+        JsonConversionException, IOException, UnauthorisedException {
+      BatchDeleteRequest request = readJson(req, BatchDeleteRequest.class);
+
+      if (!protocol.batchDelete(request)) {
+        throw new ServletException(HttpServletResponse.SC_NOT_FOUND,
+            "Not all of the " + request.getKeysCount() + " keys existed");
+      }
+
+      emptyBody(resp);
+    }
+  }
+
+  private class JsonGetChangesRequestHandler implements RequestHandler {
+
+    @Override
+    public void handle(HttpServletRequest req, HttpServletResponse resp) throws ServletException,
+        IOException, JsonConversionException, UnauthorisedException {
+      GetChangesRequest request = readJson(req, GetChangesRequest.class);
+
+      jsonResponse(resp, protocol.getChanges(request));
+    }
+  }
+
+  private class JsonGetDigestRequestHandler implements RequestHandler {
+
+    @Override
+    public void handle(HttpServletRequest req, HttpServletResponse resp) throws ServletException,
+        IOException, JsonConversionException, UnauthorisedException {
+      GetDigestRequest request = readJson(req, GetDigestRequest.class);
+
+      jsonResponse(resp, protocol.getDigest(request));
+    }
+  }
+
   private class JsonAuthenticateRequestHandler implements RequestHandler {
 
     @Override
     public void handle(HttpServletRequest req, HttpServletResponse resp) throws ServletException,
         JsonConversionException, IOException, UnauthorisedException {
-      String json = getJsonAsString(req, maxJsonQueryLength);
-      AuthenticateRequest auth = MessageLibrary.authenticateRequestFromJson(json);
+      AuthenticateRequest auth = readJson(req, AuthenticateRequest.class);
       boolean success = protocol.authenticate(auth);
       if (!success) {
         throw new UnauthorisedException("Authorisation failed");
@@ -296,8 +359,7 @@ public class NigoriServlet extends HttpServlet {
     public void handle(HttpServletRequest req, HttpServletResponse resp) throws ServletException,
         JsonConversionException, IOException {
 
-      String json = getJsonAsString(req, maxJsonQueryLength);
-      RegisterRequest request = MessageLibrary.registerRequestFromJson(json);
+      RegisterRequest request = readJson(req, RegisterRequest.class);
 
       boolean success = protocol.register(request);
       if (!success) {
@@ -314,8 +376,7 @@ public class NigoriServlet extends HttpServlet {
     @Override
     public void handle(HttpServletRequest req, HttpServletResponse resp) throws ServletException,
         IOException, UnauthorisedException, JsonConversionException {
-      String json = getJsonAsString(req, maxJsonQueryLength);
-      UnregisterRequest request = MessageLibrary.unregisterRequestFromJson(json);
+      UnregisterRequest request = readJson(req, UnregisterRequest.class);
 
       boolean success = protocol.unregister(request);
       if (!success) {
@@ -326,6 +387,299 @@ public class NigoriServlet extends HttpServlet {
     }
   }
 
+  private class JsonSessionRequestHandler implements RequestHandler {
+
+    @Override
+    public void handle(HttpServletRequest req, HttpServletResponse resp) throws ServletException,
+        IOException, UnauthorisedException, JsonConversionException {
+      SessionRequest request = readJson(req, SessionRequest.class);
+
+      jsonResponse(resp, protocol.session(request));
+    }
+  }
+
+  private static void jsonResponse(HttpServletResponse resp, GeneratedMessage response)
+      throws IOException {
+    resp.setStatus(HttpServletResponse.SC_OK);
+    writeJson(resp, response);
+  }
+
+  /**
+   * Streams {@code response} straight to the client through a pooled buffer without building the
+   * JSON as a string first.
+   */
+  private static void writeJson(HttpServletResponse resp, GeneratedMessage response)
+      throws IOException {
+    resp.setContentType(MessageLibrary.MIMETYPE_JSON);
+    resp.setCharacterEncoding(MessageLibrary.CHARSET);
+    PooledUtf8Writer out = new PooledUtf8Writer(resp.getOutputStream(), buffers);
+    try {
+      MessageLibrary.toJson(response, out);
+    } finally {
+      out.release();
+    }
+  }
+
+  /**
+   * @return whether the Accept header allows {@code mimetype}
+   */
+  private static boolean accepts(String accept, String mimetype) {
+    for (String range : accept.split(",")) {
+      String type = range.split(";")[0].trim();
+      if (type.equals(mimetype) || type.equals("*/*") || type.equals("application/*")) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Handles requests sent as binary protobufs. Responses are binary protobufs unless the client's
+   * Accept header only allows JSON.
+   */
+  private abstract class ProtobufRequestHandler<T extends MessageLite> implements RequestHandler {
+
+    private final Parser<T> parser;
+
+    ProtobufRequestHandler(Parser<T> parser) {
+      this.parser = parser;
+    }
+
+    @Override
+    public void handle(HttpServletRequest req, HttpServletResponse resp) throws ServletException,
+        IOException, UnauthorisedException, NotFoundException {
+      if (req.getContentLength() > maxJsonQueryLength) {
+        throw new ServletException(HttpServletResponse.SC_REQUEST_ENTITY_TOO_LARGE,
+            "Protobuf request exceeds server maximum length of " + maxJsonQueryLength);
+      }
+      CodedInputStream in = CodedInputStream.newInstance(req.getInputStream());
+      in.setSizeLimit(maxJsonQueryLength);
+      GeneratedMessage response = handle(parser.parseFrom(in));
+      if (response == null) {
+        emptyBody(resp, MessageLibrary.MIMETYPE_PROTOBUF);
+        return;
+      }
+      resp.setStatus(HttpServletResponse.SC_OK);
+      String accept = req.getHeader("Accept");
+      if (accept == null || accepts(accept, MessageLibrary.MIMETYPE_PROTOBUF)
+          || !accepts(accept, MessageLibrary.MIMETYPE_JSON)) {
+        resp.setContentType(MessageLibrary.MIMETYPE_PROTOBUF);
+        resp.setContentLength(response.getSerializedSize());
+        OutputStream out = resp.getOutputStream();
+        response.writeTo(out);
+        out.flush();
+      } else {
+        writeJson(resp, response);
+      }
+    }
+
+    /**
+     * @return the response to send or null to send an empty body
+     */
+    protected abstract GeneratedMessage handle(T request) throws ServletException, IOException,
+        UnauthorisedException, NotFoundException;
+  }
+
+  private class ProtobufGetRequestHandler extends ProtobufRequestHandler<GetRequest> {
+    ProtobufGetRequestHandler() {
+      super(GetRequest.PARSER);
+    }
+
+    @Override
+    protected GetResponse handle(GetRequest request) throws IOException, NotFoundException,
+        UnauthorisedException {
+      return protocol.get(request);
+    }
+  }
+
+  private class ProtobufGetIndicesRequestHandler extends ProtobufRequestHandler<GetIndicesRequest> {
+    ProtobufGetIndicesRequestHandler() {
+      super(GetIndicesRequest.PARSER);
+    }
+
+    @Override
+    protected GeneratedMessage handle(GetIndicesRequest request) throws IOException, NotFoundException,
+        UnauthorisedException {
+      return protocol.getIndices(request);
+    }
+  }
+
+  private class ProtobufGetRevisionsRequestHandler extends
+      ProtobufRequestHandler<GetRevisionsRequest> {
+    ProtobufGetRevisionsRequestHandler() {
+      super(GetRevisionsRequest.PARSER);
+    }
+
+    @Override
+    protected GetRevisionsResponse handle(GetRevisionsRequest request) throws IOException,
+        NotFoundException, UnauthorisedException {
+      return protocol.getRevisions(request);
+    }
+  }
+
+  private class ProtobufPutRequestHandler extends ProtobufRequestHandler<PutRequest> {
+    ProtobufPutRequestHandler() {
+      super(PutRequest.PARSER);
+    }
+
+    @Override
+    protected GeneratedMessage handle(PutRequest request) throws ServletException, IOException,
+        UnauthorisedException {
+      if (!protocol.put(request)) {
+        throw new ServletException(HttpServletResponse.SC_INTERNAL_SERVER_ERROR,
+            "Internal storage error for key "
+                + Base64.encodeBase64String(request.getKey().toByteArray()));
+      }
+      return null;
+    }
+  }
+
+  private class ProtobufDeleteRequestHandler extends ProtobufRequestHandler<DeleteRequest> {
+    ProtobufDeleteRequestHandler() {
+      super(DeleteRequest.PARSER);
+    }
+
+    @Override
+    protected GeneratedMessage handle(DeleteRequest request) throws ServletException, IOException,
+        UnauthorisedException, NotFoundException {
+      if (!protocol.delete(request)) {
+        throw new ServletException(HttpServletResponse.SC_INTERNAL_SERVER_ERROR,
+            "Internal storage error for key "
+                + Base64.encodeBase64String(request.getKey().toByteArray()));
+      }
+      return null;
+    }
+  }
+
+  private class ProtobufBatchGetRequestHandler extends ProtobufRequestHandler<BatchGetRequest> {
+    ProtobufBatchGetRequestHandler() {
+      super(BatchGetRequest.PARSER);
+    }
+
+    @Override
+    protected GeneratedMessage handle(BatchGetRequest request) throws IOException,
+        UnauthorisedException {
+      return protocol.batchGet(request);
+    }
+  }
+
+  private class ProtobufBatchPutRequestHandler extends ProtobufRequestHandler<BatchPutRequest> {
+    ProtobufBatchPutRequestHandler() {
+      super(BatchPutRequest.PARSER);
+    }
+
+    @Override
+    protected GeneratedMessage handle(BatchPutRequest request) throws ServletException,
+        IOException, UnauthorisedException {
+      if (!protocol.batchPut(request)) {
+        throw new ServletException(HttpServletResponse.SC_INTERNAL_SERVER_ERROR,
+            "Internal storage error for batch of " + request.getRecordsCount() + " records");
+      }
+      return null;
+    }
+  }
+
+  private class ProtobufBatchDeleteRequestHandler extends
+      ProtobufRequestHandler<BatchDeleteRequest> {
+    ProtobufBatchDeleteRequestHandler() {
+      super(BatchDeleteRequest.PARSER);
+    }
+
+    @Override
+    protected GeneratedMessage handle(BatchDeleteRequest request) throws ServletException,
+        IOException, UnauthorisedException {
+      if (!protocol.batchDelete(request)) {
+        throw new ServletException(HttpServletResponse.SC_NOT_FOUND,
+            "Not all of the " + request.getKeysCount() + " keys existed");
+      }
+      return null;
+    }
+  }
+
+  private class ProtobufGetChangesRequestHandler extends ProtobufRequestHandler<GetChangesRequest> {
+    ProtobufGetChangesRequestHandler() {
+      super(GetChangesRequest.PARSER);
+    }
+
+    @Override
+    protected GeneratedMessage handle(GetChangesRequest request) throws IOException,
+        UnauthorisedException {
+      return protocol.getChanges(request);
+    }
+  }
+
+  private class ProtobufGetDigestRequestHandler extends ProtobufRequestHandler<GetDigestRequest> {
+    ProtobufGetDigestRequestHandler() {
+      super(GetDigestRequest.PARSER);
+    }
+
+    @Override
+    protected GeneratedMessage handle(GetDigestRequest request) throws IOException,
+        UnauthorisedException {
+      return protocol.getDigest(request);
+    }
+  }
+
+  private class ProtobufAuthenticateRequestHandler extends
+      ProtobufRequestHandler<AuthenticateRequest> {
+    ProtobufAuthenticateRequestHandler() {
+      super(AuthenticateRequest.PARSER);
+    }
+
+    @Override
+    protected GeneratedMessage handle(AuthenticateRequest request) throws IOException,
+        UnauthorisedException {
+      if (!protocol.authenticate(request)) {
+        throw new UnauthorisedException("Authorisation failed");
+      }
+      return null;
+    }
+  }
+
+  private class ProtobufRegisterRequestHandler extends ProtobufRequestHandler<RegisterRequest> {
+    ProtobufRegisterRequestHandler() {
+      super(RegisterRequest.PARSER);
+    }
+
+    @Override
+    protected GeneratedMessage handle(RegisterRequest request) throws ServletException, IOException {
+      if (!protocol.register(request)) {
+        throw new ServletException(HttpServletResponse.SC_CONFLICT, "Adding user "
+            + Base64.encodeBase64String(request.getPublicKey().toByteArray())
+            + " failed, may already exist");
+      }
+      return null;
+    }
+  }
+
+  private class ProtobufUnregisterRequestHandler extends ProtobufRequestHandler<UnregisterRequest> {
+    ProtobufUnregisterRequestHandler() {
+      super(UnregisterRequest.PARSER);
+    }
+
+    @Override
+    protected GeneratedMessage handle(UnregisterRequest request) throws ServletException, IOException,
+        UnauthorisedException {
+      if (!protocol.unregister(request)) {
+        throw new ServletException(HttpServletResponse.SC_INTERNAL_SERVER_ERROR, "Removing user "
+            + Base64.encodeBase64String(request.getAuth().getPublicKey().toByteArray()) + " failed");
+      }
+      return null;
+    }
+  }
+
+  private class ProtobufSessionRequestHandler extends ProtobufRequestHandler<SessionRequest> {
+    ProtobufSessionRequestHandler() {
+      super(SessionRequest.PARSER);
+    }
+
+    @Override
+    protected GeneratedMessage handle(SessionRequest request) throws IOException,
+        UnauthorisedException {
+      return protocol.session(request);
+    }
+  }
+
   // TODO(beresford): double-check that Servlet instances are created rarely
   private String supportedTypes = null;
   private HashMap<RequestHandlerType, RequestHandler> handlers = initHandlers();
@@ -344,6 +698,18 @@ public class NigoriServlet extends HttpServlet {
         new JsonPutRequestHandler());
     h.put(new RequestHandlerType(MessageLibrary.MIMETYPE_JSON, MessageLibrary.REQUEST_DELETE),
         new JsonDeleteRequestHandler());
+    h.put(new RequestHandlerType(MessageLibrary.MIMETYPE_JSON, MessageLibrary.REQUEST_BATCH_GET),
+        new JsonBatchGetRequestHandler());
+    h.put(new RequestHandlerType(MessageLibrary.MIMETYPE_JSON, MessageLibrary.REQUEST_BATCH_PUT),
+        new JsonBatchPutRequestHandler());
+    h.put(
+        new RequestHandlerType(MessageLibrary.MIMETYPE_JSON, MessageLibrary.REQUEST_BATCH_DELETE),
+        new JsonBatchDeleteRequestHandler());
+    h.put(
+        new RequestHandlerType(MessageLibrary.MIMETYPE_JSON, MessageLibrary.REQUEST_GET_CHANGES),
+        new JsonGetChangesRequestHandler());
+    h.put(new RequestHandlerType(MessageLibrary.MIMETYPE_JSON, MessageLibrary.REQUEST_GET_DIGEST),
+        new JsonGetDigestRequestHandler());
     h.put(
         new RequestHandlerType(MessageLibrary.MIMETYPE_JSON, MessageLibrary.REQUEST_AUTHENTICATE),
         new JsonAuthenticateRequestHandler());
@@ -351,6 +717,38 @@ public class NigoriServlet extends HttpServlet {
         new JsonRegisterRequestHandler());
     h.put(new RequestHandlerType(MessageLibrary.MIMETYPE_JSON, MessageLibrary.REQUEST_UNREGISTER),
         new JsonUnregisterRequestHandler());
+    h.put(new RequestHandlerType(MessageLibrary.MIMETYPE_JSON, MessageLibrary.REQUEST_SESSION),
+        new JsonSessionRequestHandler());
+
+    final String protobuf = MessageLibrary.MIMETYPE_PROTOBUF;
+    h.put(new RequestHandlerType(protobuf, MessageLibrary.REQUEST_GET),
+        new ProtobufGetRequestHandler());
+    h.put(new RequestHandlerType(protobuf, MessageLibrary.REQUEST_GET_INDICES),
+        new ProtobufGetIndicesRequestHandler());
+    h.put(new RequestHandlerType(protobuf, MessageLibrary.REQUEST_GET_REVISIONS),
+        new ProtobufGetRevisionsRequestHandler());
+    h.put(new RequestHandlerType(protobuf, MessageLibrary.REQUEST_PUT),
+        new ProtobufPutRequestHandler());
+    h.put(new RequestHandlerType(protobuf, MessageLibrary.REQUEST_DELETE),
+        new ProtobufDeleteRequestHandler());
+    h.put(new RequestHandlerType(protobuf, MessageLibrary.REQUEST_BATCH_GET),
+        new ProtobufBatchGetRequestHandler());
+    h.put(new RequestHandlerType(protobuf, MessageLibrary.REQUEST_BATCH_PUT),
+        new ProtobufBatchPutRequestHandler());
+    h.put(new RequestHandlerType(protobuf, MessageLibrary.REQUEST_BATCH_DELETE),
+        new ProtobufBatchDeleteRequestHandler());
+    h.put(new RequestHandlerType(protobuf, MessageLibrary.REQUEST_GET_CHANGES),
+        new ProtobufGetChangesRequestHandler());
+    h.put(new RequestHandlerType(protobuf, MessageLibrary.REQUEST_GET_DIGEST),
+        new ProtobufGetDigestRequestHandler());
+    h.put(new RequestHandlerType(protobuf, MessageLibrary.REQUEST_AUTHENTICATE),
+        new ProtobufAuthenticateRequestHandler());
+    h.put(new RequestHandlerType(protobuf, MessageLibrary.REQUEST_REGISTER),
+        new ProtobufRegisterRequestHandler());
+    h.put(new RequestHandlerType(protobuf, MessageLibrary.REQUEST_UNREGISTER),
+        new ProtobufUnregisterRequestHandler());
+    h.put(new RequestHandlerType(protobuf, MessageLibrary.REQUEST_SESSION),
+        new ProtobufSessionRequestHandler());
     StringBuilder supportedPairs =
         new StringBuilder("The following mimetypes and request pairs are supported: ");
     for (RequestHandlerType type : h.keySet()) {
@@ -403,6 +801,10 @@ public class NigoriServlet extends HttpServlet {
       }
       String requestType = requestURI.substring(startIndex);
       String requestMimetype = req.getContentType();
+      if (requestMimetype != null && requestMimetype.indexOf(';') != -1) {
+        // Ignore parameters such as charset
+        requestMimetype = requestMimetype.substring(0, requestMimetype.indexOf(';')).trim();
+      }
       RequestHandlerType handlerType = new RequestHandlerType(requestMimetype, requestType);
 
       RequestHandler handler = handlers.get(handlerType);
@@ -423,6 +825,9 @@ public class NigoriServlet extends HttpServlet {
                 + e.getLocalizedMessage());
         log.warning(s.toString());
         s.writeHttpResponse(resp);
+      } catch (InvalidProtocolBufferException ipbe) {
+        throw new ServletException(HttpServletResponse.SC_BAD_REQUEST, "Protobuf format error: "
+            + ipbe.getMessage());
       } catch (IOException ioe) {
         throw new ServletException(HttpServletResponse.SC_INTERNAL_SERVER_ERROR,
             "Internal error sending data to client");
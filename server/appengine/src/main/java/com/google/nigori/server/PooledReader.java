@@ -0,0 +1,131 @@
+/*
+ * Copyright (C) 2012 Daniel R. Thomas (drt24)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.nigori.server;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+
+/**
+ * Decodes characters from a stream through a buffer from a {@link BufferPool}, failing with a
+ * {@link LimitExceededException} once more than a given number of bytes have been read so that
+ * oversized requests are rejected without being held in memory.
+ *
+ * {@link #release()} must be called once reading has finished, closing does not close the
+ * underlying stream.
+ *
+ * @author drt24
+ *
+ */
+class PooledReader extends Reader {
+
+  /**
+   * Thrown when the stream is longer than the limit
+   */
+  static class LimitExceededException extends IOException {
+    private static final long serialVersionUID = 1L;
+
+    LimitExceededException(long limit) {
+      super("Input exceeds maximum length of " + limit);
+    }
+  }
+
+  private final InputStream in;
+  private final CharsetDecoder decoder;
+  private final BufferPool pool;
+  private final long limit;
+  private long total = 0;
+  private byte[] buffer;
+  private final ByteBuffer bytes;
+  private boolean endOfInput = false;
+  private boolean flushed = false;
+
+  /**
+   * @param limit maximum number of bytes to read from {@code in}
+   */
+  PooledReader(InputStream in, Charset charset, BufferPool pool, long limit) {
+    this.in = in;
+    // Replace malformed input as InputStreamReader does
+    this.decoder =
+        charset.newDecoder().onMalformedInput(CodingErrorAction.REPLACE).onUnmappableCharacter(
+            CodingErrorAction.REPLACE);
+    this.pool = pool;
+    this.limit = limit;
+    this.buffer = pool.take();
+    this.bytes = ByteBuffer.wrap(buffer);
+    bytes.limit(0);
+  }
+
+  @Override
+  public int read(char[] cbuf, int off, int len) throws IOException {
+    if (buffer == null) {
+      throw new IOException("Reader has been released");
+    }
+    if (len == 0) {
+      return 0;
+    }
+    CharBuffer out = CharBuffer.wrap(cbuf, off, len);
+    while (true) {
+      decoder.decode(bytes, out, endOfInput);
+      if (endOfInput && !flushed) {
+        if (decoder.flush(out).isOverflow()) {
+          return out.position() - off;
+        }
+        flushed = true;
+      }
+      if (out.position() > off) {
+        return out.position() - off;
+      }
+      if (endOfInput) {
+        return -1;
+      }
+      fill();
+    }
+  }
+
+  private void fill() throws IOException {
+    bytes.compact();
+    int read = in.read(buffer, bytes.position(), bytes.remaining());
+    if (read == -1) {
+      endOfInput = true;
+    } else {
+      total += read;
+      if (total > limit) {
+        throw new LimitExceededException(limit);
+      }
+      bytes.position(bytes.position() + read);
+    }
+    bytes.flip();
+  }
+
+  /**
+   * Release the buffer, leaving the underlying stream open.
+   */
+  @Override
+  public void close() {
+    release();
+  }
+
+  void release() {
+    if (buffer != null) {
+      pool.give(buffer);
+      buffer = null;
+    }
+  }
+}
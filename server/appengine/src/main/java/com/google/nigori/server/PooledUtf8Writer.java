@@ -0,0 +1,167 @@
+/*
+ * Copyright (C) 2012 Daniel R. Thomas (drt24)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.nigori.server;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+
+/**
+ * Encodes characters as UTF-8 into a buffer from a {@link BufferPool}, writing it to the underlying
+ * stream each time it fills. Unlike an {@link java.io.OutputStreamWriter} it allocates nothing per
+ * instance beyond itself, and strings are encoded without being copied.
+ *
+ * {@link #release()} must be called once writing has finished, closing does not close the
+ * underlying stream.
+ *
+ * @author drt24
+ *
+ */
+class PooledUtf8Writer extends Writer {
+
+  private static final int REPLACEMENT = '?';
+
+  private final OutputStream out;
+  private final BufferPool pool;
+  private byte[] buffer;
+  private int position = 0;
+  /**
+   * A high surrogate waiting for the low surrogate in the next write, or 0
+   */
+  private char highSurrogate = 0;
+
+  PooledUtf8Writer(OutputStream out, BufferPool pool) {
+    this.out = out;
+    this.pool = pool;
+    this.buffer = pool.take();
+  }
+
+  @Override
+  public void write(int c) throws IOException {
+    encode((char) c);
+  }
+
+  @Override
+  public void write(char[] cbuf, int off, int len) throws IOException {
+    for (int i = off; i < off + len; ++i) {
+      encode(cbuf[i]);
+    }
+  }
+
+  @Override
+  public void write(String str, int off, int len) throws IOException {
+    for (int i = off; i < off + len; ++i) {
+      encode(str.charAt(i));
+    }
+  }
+
+  private void encode(char c) throws IOException {
+    ensureOpen();
+    if (highSurrogate != 0) {
+      char high = highSurrogate;
+      highSurrogate = 0;
+      if (Character.isLowSurrogate(c)) {
+        int codePoint = Character.toCodePoint(high, c);
+        ensureSpace(4);
+        buffer[position++] = (byte) (0xf0 | (codePoint >> 18));
+        buffer[position++] = (byte) (0x80 | ((codePoint >> 12) & 0x3f));
+        buffer[position++] = (byte) (0x80 | ((codePoint >> 6) & 0x3f));
+        buffer[position++] = (byte) (0x80 | (codePoint & 0x3f));
+        return;
+      }
+      // unpaired high surrogate
+      ensureSpace(1);
+      buffer[position++] = REPLACEMENT;
+    }
+    if (c < 0x80) {
+      ensureSpace(1);
+      buffer[position++] = (byte) c;
+    } else if (c < 0x800) {
+      ensureSpace(2);
+      buffer[position++] = (byte) (0xc0 | (c >> 6));
+      buffer[position++] = (byte) (0x80 | (c & 0x3f));
+    } else if (Character.isHighSurrogate(c)) {
+      highSurrogate = c;
+    } else if (Character.isLowSurrogate(c)) {
+      // unpaired low surrogate
+      ensureSpace(1);
+      buffer[position++] = REPLACEMENT;
+    } else {
+      ensureSpace(3);
+      buffer[position++] = (byte) (0xe0 | (c >> 12));
+      buffer[position++] = (byte) (0x80 | ((c >> 6) & 0x3f));
+      buffer[position++] = (byte) (0x80 | (c & 0x3f));
+    }
+  }
+
+  private void ensureSpace(int bytes) throws IOException {
+    if (buffer.length - position < bytes) {
+      flushBuffer();
+    }
+  }
+
+  private void flushBuffer() throws IOException {
+    if (position > 0) {
+      out.write(buffer, 0, position);
+      position = 0;
+    }
+  }
+
+  private void ensureOpen() throws IOException {
+    if (buffer == null) {
+      throw new IOException("Writer has been released");
+    }
+  }
+
+  /**
+   * Write out everything written so far, apart from a trailing high surrogate which is waiting for
+   * its pair.
+   */
+  @Override
+  public void flush() throws IOException {
+    ensureOpen();
+    flushBuffer();
+    out.flush();
+  }
+
+  /**
+   * Flush, leaving the underlying stream open, and release the buffer.
+   */
+  @Override
+  public void close() throws IOException {
+    if (buffer == null) {
+      return;
+    }
+    try {
+      if (highSurrogate != 0) {
+        highSurrogate = 0;
+        ensureSpace(1);
+        buffer[position++] = REPLACEMENT;
+      }
+      flush();
+    } finally {
+      release();
+    }
+  }
+
+  /**
+   * Return the buffer to the pool discarding anything not yet flushed
+   */
+  void release() {
+    if (buffer != null) {
+      pool.give(buffer);
+      buffer = null;
+    }
+  }
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright (C) 2012 Daniel R. Thomas (drt24)
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.nigori.server.appengine;
+
+import javax.jdo.annotations.PersistenceCapable;
+import javax.jdo.annotations.Persistent;
+import javax.jdo.annotations.PrimaryKey;
+
+import com.google.appengine.api.datastore.Blob;
+import com.google.appengine.api.datastore.Key;
+import com.google.appengine.api.datastore.KeyFactory;
+import com.google.nigori.server.RecordChange;
+
+/**
+ * A change to one of a user's records, a child of the user with the change sequence number as its
+ * id so that changes sort in sequence order.
+ * 
+ * @author drt24
+ * 
+ */
+@PersistenceCapable
+public class AEChange {
+  @PrimaryKey
+  @Persistent
+  private Key key;
+  @Persistent
+  private Blob index;
+  /**
+   * null if the index was deleted
+   */
+  @Persistent
+  private Blob revision;
+
+  public AEChange(Key userKey, long sequence, byte[] index, byte[] revision) {
+    this.key = keyFor(userKey, sequence);
+    this.index = new Blob(index);
+    this.revision = revision == null ? null : new Blob(revision);
+  }
+
+  public static Key keyFor(Key userKey, long sequence) {
+    return KeyFactory.createKey(userKey, AEChange.class.getSimpleName(), sequence);
+  }
+
+  public Key getKey() {
+    return key;
+  }
+
+  public RecordChange toRecordChange() {
+    return new RecordChange(key.getId(), index.getBytes(), revision == null ? null : revision
+        .getBytes());
+  }
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright (C) 2012 Daniel R. Thomas (drt24)
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.nigori.server.appengine;
+
+import javax.jdo.annotations.PersistenceCapable;
+import javax.jdo.annotations.Persistent;
+import javax.jdo.annotations.PrimaryKey;
+
+import com.google.appengine.api.datastore.Key;
+import com.google.appengine.api.datastore.KeyFactory;
+
+/**
+ * The latest change sequence number for a user, a child of the user so that it can be updated in a
+ * transaction with the {@link AEChange} it numbers.
+ * 
+ * @author drt24
+ * 
+ */
+@PersistenceCapable
+public class AEChangeHead {
+  @PrimaryKey
+  @Persistent
+  private Key key;
+  @Persistent
+  private long sequence;
+
+  public AEChangeHead(Key userKey) {
+    this.key = keyFor(userKey);
+    this.sequence = 0;
+  }
+
+  public static Key keyFor(Key userKey) {
+    return KeyFactory.createKey(userKey, AEChangeHead.class.getSimpleName(),
+        AEChangeHead.class.getSimpleName());
+  }
+
+  public Key getKey() {
+    return key;
+  }
+
+  public long getSequence() {
+    return sequence;
+  }
+
+  public long next() {
+    return ++sequence;
+  }
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright (C) 2012 Daniel R. Thomas (drt24)
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.nigori.server.appengine;
+
+import javax.jdo.annotations.IdGeneratorStrategy;
+import javax.jdo.annotations.PersistenceCapable;
+import javax.jdo.annotations.Persistent;
+import javax.jdo.annotations.PrimaryKey;
+
+import org.apache.commons.codec.binary.Hex;
+
+import com.google.appengine.api.datastore.Key;
+import com.google.appengine.api.datastore.KeyFactory;
+import com.google.nigori.server.ReplayWindow;
+
+/**
+ * Replay state for a session using counters, a child of the user so that it can be updated in a
+ * transaction.
+ * 
+ * @author drt24
+ * 
+ */
+@PersistenceCapable
+public class AECounter {
+  @PrimaryKey
+  @Persistent(valueStrategy = IdGeneratorStrategy.IDENTITY)
+  private Key key;
+  @Persistent
+  private long highest;
+  @Persistent
+  private long bitmap;
+  @Persistent
+  private long expires;
+
+  public AECounter(byte[] publicHash, byte[] session, ReplayWindow window, long expires) {
+    this.key = keyFor(publicHash, session);
+    this.expires = expires;
+    setWindow(window);
+  }
+
+  public static Key keyFor(byte[] publicHash, byte[] session) {
+    return KeyFactory.createKey(AEUser.keyForUser(publicHash), AECounter.class.getSimpleName(),
+        new String(Hex.encodeHex(session)));
+  }
+
+  public Key getKey() {
+    return key;
+  }
+
+  public ReplayWindow getWindow() {
+    return new ReplayWindow(highest, bitmap);
+  }
+
+  public void setWindow(ReplayWindow window) {
+    this.highest = window.getHighest();
+    this.bitmap = window.getBitmap();
+  }
+
+  protected long getExpires() {
+    return expires;
+  }
+}
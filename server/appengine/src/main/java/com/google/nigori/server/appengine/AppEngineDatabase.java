@@ -17,15 +17,18 @@ import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Date;
 import java.util.List;
 import java.util.logging.Logger;
 
+import javax.jdo.JDOException;
 import javax.jdo.JDOHelper;
 import javax.jdo.JDOObjectNotFoundException;
 import javax.jdo.PersistenceManager;
 import javax.jdo.PersistenceManagerFactory;
+import javax.jdo.Transaction;
 
 import com.google.appengine.api.datastore.Blob;
 import com.google.appengine.api.datastore.DatastoreService;
@@ -37,10 +40,17 @@ import com.google.appengine.api.datastore.Query;
 import com.google.appengine.api.datastore.ShortBlob;
 import com.google.nigori.common.Nonce;
 import com.google.nigori.common.RevValue;
+import com.google.nigori.server.ByteKeyRevValue;
+import com.google.nigori.server.ByteRevValue;
 import com.google.nigori.server.Database;
+import com.google.nigori.server.DigestTree;
+import com.google.nigori.server.KeyRevValue;
+import com.google.nigori.server.RecordChange;
+import com.google.nigori.server.ReplayWindow;
 import com.google.nigori.server.User;
 import com.google.nigori.server.UserFactory;
 import com.google.nigori.server.UserNotFoundException;
+import com.google.protobuf.ByteString;
 
 public final class AppEngineDatabase implements Database {
 
@@ -123,6 +133,14 @@ public final class AppEngineDatabase implements Database {
     for (byte[] index : indices) {
       success &= deleteRecord(existing, index);
     }
+    DatastoreService datastore = DatastoreServiceFactory.getDatastoreService();
+    Query getChanges = new Query(AEChange.class.getSimpleName());
+    getChanges.setAncestor(existing.getKey());
+    getChanges.setKeysOnly();
+    for (Entity entity : datastore.prepare(getChanges).asIterable()) {
+      datastore.delete(entity.getKey());
+    }
+    datastore.delete(AEChangeHead.keyFor(existing.getKey()));
     return success;
   }
 
@@ -151,6 +169,18 @@ public final class AppEngineDatabase implements Database {
     }
   }
 
+  @Override
+  public AEUser resolveUser(byte[] publicHash) {
+    PersistenceManager pm = pmfInstance.getPersistenceManager();
+    try {
+      return getUser(publicHash, pm);
+    } catch (JDOObjectNotFoundException e) {
+      return null;
+    } finally {
+      pm.close();
+    }
+  }
+
   private static AEUser castUser(User user) {
     if (!(user instanceof AEUser)) {
       user = new AEUser(user.getPublicKey(), user.getPublicHash(), user.getRegistrationDate());
@@ -197,6 +227,15 @@ public final class AppEngineDatabase implements Database {
     }
   }
 
+  @Override
+  public List<Collection<RevValue>> getRecords(User user, List<byte[]> indices) throws IOException {
+    List<Collection<RevValue>> records = new ArrayList<Collection<RevValue>>(indices.size());
+    for (byte[] index : indices) {
+      records.add(getRecord(user, index));
+    }
+    return records;
+  }
+
   @Override
   public RevValue getRevision(User user, byte[] index, byte[] revision) throws IOException {
     PersistenceManager pm = pmfInstance.getPersistenceManager();
@@ -213,6 +252,18 @@ public final class AppEngineDatabase implements Database {
     }
   }
 
+  @Override
+  public Collection<ByteRevValue> getRecordValues(User user, ByteString index) throws IOException {
+    // The blobs are read afresh for each request so can be wrapped
+    return ByteRevValue.wrap(getRecord(user, index.toByteArray()));
+  }
+
+  @Override
+  public ByteRevValue getRevisionValue(User user, ByteString index, ByteString revision)
+      throws IOException {
+    return ByteRevValue.wrap(getRevision(user, index.toByteArray(), revision.toByteArray()));
+  }
+
   @Override
   public Collection<byte[]> getIndices(User user) {
     PersistenceManager pm = pmfInstance.getPersistenceManager();
@@ -277,23 +328,28 @@ public final class AppEngineDatabase implements Database {
   }
 
   @Override
-  public boolean putRecord(User user, byte[] index, byte[] bRevision, byte[] data) {
+  public boolean putRecord(User user, ByteString index, ByteString revision, ByteString data) {
+    // Blobs are built from arrays so the value has to be copied out once
+    return putRecord(user, index.toByteArray(), revision.toByteArray(), data.toByteArray());
+  }
+
+  @Override
+  public boolean putRecord(User user, byte[] index, byte[] revision, byte[] data) {
     PersistenceManager pm = pmfInstance.getPersistenceManager();
-    Revision revision = new BytesRevision(bRevision);
+    Transaction tx = pm.currentTransaction();
     try {
-      Key lookupKey = getLookupKey(user, index);
-      Lookup lookup;
-      try {
-        lookup = pm.getObjectById(Lookup.class, lookupKey);
-      } catch (JDOObjectNotFoundException e) {
-        lookup = new Lookup(lookupKey, index);
-        pm.makePersistent(lookup);
-      }
-      // TODO(drt24): Do revisions properly, need to only add if not already existing.
-      AppEngineRecord record = new AppEngineRecord(lookup.getKey(), revision, data);
-      pm.makePersistent(record);
+      tx.begin();
+      AEChangeHead head = getChangeHead(pm, castUser(user).getKey());
+      storeRecord(pm, head, user, index, revision, data);
+      tx.commit();
       return true;
+    } catch (JDOException e) {
+      log.warning("putRecord: " + e.getMessage());
+      return false;
     } finally {
+      if (tx.isActive()) {
+        tx.rollback();
+      }
       pm.close();
     }
   }
@@ -301,34 +357,224 @@ public final class AppEngineDatabase implements Database {
   @Override
   public boolean deleteRecord(User user, byte[] index) {
     PersistenceManager pm = pmfInstance.getPersistenceManager();
+    Transaction tx = pm.currentTransaction();
     try {
-      Key lookupKey = getLookupKey(user, index);
-      Lookup lookup = pm.getObjectById(Lookup.class, lookupKey);
-      // TODO(drt24) multiple revisions
-      // TODO(drt24) cleanup
-      try {
-        Query getRevisionValues = new Query(AppEngineRecord.class.getSimpleName());
-        getRevisionValues.setAncestor(lookupKey);
-        DatastoreService datastore = DatastoreServiceFactory.getDatastoreService();
-
-        List<Entity> results =
-            datastore.prepare(getRevisionValues).asList(FetchOptions.Builder.withDefaults());
-        for (Entity entity : results) {
-          pm.deletePersistent(pm.getObjectById(AppEngineRecord.class, entity.getKey()));
-        }
+      tx.begin();
+      AEChangeHead head = getChangeHead(pm, castUser(user).getKey());
+      if (!removeRecord(pm, head, user, index)) {
+        return false;
+      }
+      tx.commit();
+      return true;
+    } catch (JDOException e) {
+      log.warning("deleteRecord: " + e.getMessage());
+      return false;
+    } finally {
+      if (tx.isActive()) {
+        tx.rollback();
+      }
+      pm.close();
+    }
+  }
 
-      } finally {// even if there is no value the index still needs to be deleted - but we haven't
-                 // actually done a delete
-        pm.deletePersistent(lookup);
+  @Override
+  public boolean putRecords(User user, List<KeyRevValue> records) {
+    PersistenceManager pm = pmfInstance.getPersistenceManager();
+    Transaction tx = pm.currentTransaction();
+    try {
+      tx.begin();
+      // Check for conflicting revisions first so that a failing batch stores nothing
+      for (KeyRevValue record : records) {
+        Key revisionKey =
+            AppEngineRecord.makeKey(getLookupKey(user, record.getKey()), new BytesRevision(record
+                .getRevision()));
+        try {
+          AppEngineRecord existing = pm.getObjectById(AppEngineRecord.class, revisionKey);
+          if (!Arrays.equals(existing.getValue(), record.getValue())) {
+            return false;
+          }
+        } catch (JDOObjectNotFoundException e) {
+          // a new revision
+        }
       }
+      AEChangeHead head = getChangeHead(pm, castUser(user).getKey());
+      for (KeyRevValue record : records) {
+        storeRecord(pm, head, user, record.getKey(), record.getRevision(), record.getValue());
+      }
+      tx.commit();
       return true;
+    } catch (JDOException e) {
+      log.warning("putRecords: " + e.getMessage());
+      return false;
+    } finally {
+      if (tx.isActive()) {
+        tx.rollback();
+      }
+      pm.close();
+    }
+  }
+
+  @Override
+  public boolean putRecordValues(User user, List<ByteKeyRevValue> records) {
+    // Blobs are built from arrays so each record has to be copied out once
+    List<KeyRevValue> copies = new ArrayList<KeyRevValue>(records.size());
+    for (ByteKeyRevValue record : records) {
+      copies.add(record.toKeyRevValue());
+    }
+    return putRecords(user, copies);
+  }
+
+  @Override
+  public boolean deleteRecords(User user, List<byte[]> indices) {
+    PersistenceManager pm = pmfInstance.getPersistenceManager();
+    Transaction tx = pm.currentTransaction();
+    try {
+      tx.begin();
+      AEChangeHead head = getChangeHead(pm, castUser(user).getKey());
+      boolean result = true;
+      for (byte[] index : indices) {
+        result &= removeRecord(pm, head, user, index);
+      }
+      tx.commit();
+      return result;
+    } catch (JDOException e) {
+      log.warning("deleteRecords: " + e.getMessage());
+      return false;
+    } finally {
+      if (tx.isActive()) {
+        tx.rollback();
+      }
+      pm.close();
+    }
+  }
+
+  /**
+   * The records, their lookups and the changes numbering them are all in the user's entity group,
+   * so are written in a single transaction with the head.
+   * 
+   * @return the user's latest change sequence number, which is created if they have none
+   */
+  private static AEChangeHead getChangeHead(PersistenceManager pm, Key userKey) {
+    try {
+      return pm.getObjectById(AEChangeHead.class, AEChangeHead.keyFor(userKey));
+    } catch (JDOObjectNotFoundException e) {
+      AEChangeHead head = new AEChangeHead(userKey);
+      pm.makePersistent(head);
+      return head;
+    }
+  }
+
+  /**
+   * Store the revision and the change numbered by {@code head} as part of the current transaction
+   */
+  private static void storeRecord(PersistenceManager pm, AEChangeHead head, User user,
+      byte[] index, byte[] revision, byte[] data) {
+    Key lookupKey = getLookupKey(user, index);
+    try {
+      pm.getObjectById(Lookup.class, lookupKey);
+    } catch (JDOObjectNotFoundException e) {
+      pm.makePersistent(new Lookup(lookupKey, index));
+    }
+    // TODO(drt24): Do revisions properly, need to only add if not already existing.
+    pm.makePersistent(new AppEngineRecord(lookupKey, new BytesRevision(revision), data));
+    pm.makePersistent(new AEChange(castUser(user).getKey(), head.next(), index, revision));
+  }
+
+  /**
+   * Delete the index and all its revisions and add the change numbered by {@code head} as part of
+   * the current transaction
+   * 
+   * @return false if there is no such index
+   */
+  private static boolean removeRecord(PersistenceManager pm, AEChangeHead head, User user,
+      byte[] index) {
+    Key lookupKey = getLookupKey(user, index);
+    Lookup lookup;
+    try {
+      lookup = pm.getObjectById(Lookup.class, lookupKey);
     } catch (JDOObjectNotFoundException e) {
       return false;
+    }
+    Query getRevisionValues = new Query(AppEngineRecord.class.getSimpleName());
+    getRevisionValues.setAncestor(lookupKey);
+    getRevisionValues.setKeysOnly();
+    DatastoreService datastore = DatastoreServiceFactory.getDatastoreService();
+    for (Entity entity : datastore.prepare(getRevisionValues).asIterable()) {
+      pm.deletePersistent(pm.getObjectById(AppEngineRecord.class, entity.getKey()));
+    }
+    pm.deletePersistent(lookup);
+    pm.makePersistent(new AEChange(castUser(user).getKey(), head.next(), index, null));
+    return true;
+  }
+
+  @Override
+  public List<RecordChange> getChanges(User user, long since, int limit) throws IOException {
+    List<RecordChange> answer = new ArrayList<RecordChange>();
+    if (limit <= 0) {
+      return answer;
+    }
+    Key userKey = castUser(user).getKey();
+    PersistenceManager pm = pmfInstance.getPersistenceManager();
+    try {
+      Query getChanges = new Query(AEChange.class.getSimpleName());
+      getChanges.setAncestor(userKey);
+      getChanges.addFilter(Entity.KEY_RESERVED_PROPERTY, Query.FilterOperator.GREATER_THAN,
+          AEChange.keyFor(userKey, since));
+      getChanges.addSort(Entity.KEY_RESERVED_PROPERTY);
+      DatastoreService datastore = DatastoreServiceFactory.getDatastoreService();
+      for (Entity entity : datastore.prepare(getChanges).asList(
+          FetchOptions.Builder.withLimit(limit))) {
+        answer.add(pm.getObjectById(AEChange.class, entity.getKey()).toRecordChange());
+      }
+      return answer;
     } finally {
       pm.close();
     }
   }
 
+  @Override
+  public long getChangeSequence(User user) throws IOException {
+    PersistenceManager pm = pmfInstance.getPersistenceManager();
+    try {
+      return pm.getObjectById(AEChangeHead.class, AEChangeHead.keyFor(castUser(user).getKey()))
+          .getSequence();
+    } catch (JDOObjectNotFoundException e) {
+      return 0;
+    } finally {
+      pm.close();
+    }
+  }
+
+  /**
+   * The tree is not stored, instead it is built from the user's revisions for each request
+   */
+  private DigestTree buildDigestTree(User user) throws IOException {
+    DigestTree tree = new DigestTree();
+    Collection<byte[]> indices = getIndices(user);
+    if (indices == null) {
+      return tree;
+    }
+    for (byte[] index : indices) {
+      Collection<byte[]> revisions = getRevisions(user, index);
+      if (revisions != null) {
+        for (byte[] revision : revisions) {
+          tree.add(index, revision);
+        }
+      }
+    }
+    return tree;
+  }
+
+  @Override
+  public List<DigestTree.Node> getDigests(User user, byte[] path, int depth) throws IOException {
+    return buildDigestTree(user).getNodes(path, depth);
+  }
+
+  @Override
+  public List<DigestTree.Leaf> getDigestLeaves(User user, byte[] path) throws IOException {
+    return buildDigestTree(user).getLeaves(path);
+  }
+
   @Override
   public UserFactory getUserFactory() {
     return AEUser.Factory.getInstance();
@@ -355,6 +601,42 @@ public final class AppEngineDatabase implements Database {
     }
   }
 
+  @Override
+  public boolean checkAndAddCounter(byte[] publicHash, byte[] session, long counter, long expires) {
+    PersistenceManager pm = pmfInstance.getPersistenceManager();
+    Transaction tx = pm.currentTransaction();
+    try {
+      tx.begin();
+      AECounter stored;
+      try {
+        stored = pm.getObjectById(AECounter.class, AECounter.keyFor(publicHash, session));
+      } catch (JDOObjectNotFoundException e) {
+        stored = null;
+      }
+      ReplayWindow window =
+          (stored == null ? ReplayWindow.EMPTY : stored.getWindow()).accept(counter);
+      if (window == null) {
+        return false;
+      }
+      if (stored == null) {
+        pm.makePersistent(new AECounter(publicHash, session, window, expires));
+      } else {
+        stored.setWindow(window);
+      }
+      tx.commit();
+      return true;
+    } catch (JDOException e) {
+      // Most likely a concurrent request in the same session, the client will retry
+      log.warning("checkAndAddCounter: " + e.getMessage());
+      return false;
+    } finally {
+      if (tx.isActive()) {
+        tx.rollback();
+      }
+      pm.close();
+    }
+  }
+
   @Override
   public void clearOldNonces() {
     PersistenceManager pm = pmfInstance.getPersistenceManager();
@@ -371,6 +653,15 @@ public final class AppEngineDatabase implements Database {
         }
       }
 
+      long now = System.currentTimeMillis();
+      Query getAllCounters = new Query(AECounter.class.getSimpleName());
+      results = datastore.prepare(getAllCounters).asList(FetchOptions.Builder.withDefaults());
+      for (Entity entity : results) {
+        if ((Long) entity.getProperty("expires") < now) {
+          pm.deletePersistent(pm.getObjectById(AECounter.class, entity.getKey()));
+        }
+      }
+
     } finally {
       pm.close();
     }
@@ -0,0 +1,130 @@
+/*
+ * Copyright (C) 2012 Daniel R. Thomas (drt24)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.nigori.server;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.Charset;
+
+import org.junit.Test;
+
+import com.google.nigori.server.PooledReader.LimitExceededException;
+
+/**
+ * @author drt24
+ *
+ */
+public class PooledStreamsTest {
+
+  private static final Charset UTF8 = Charset.forName("UTF-8");
+  // Small buffers so that multi-byte characters straddle buffer boundaries
+  private static final int BUFFER_SIZE = 7;
+
+  private static String sample() {
+    StringBuilder sample = new StringBuilder();
+    for (int i = 0; i < 50; ++i) {
+      sample.append("aé€😀{\"x\":").append(i).append('}');
+    }
+    return sample.toString();
+  }
+
+  private static String read(byte[] bytes, BufferPool pool, long limit) throws IOException {
+    PooledReader in = new PooledReader(new ByteArrayInputStream(bytes), UTF8, pool, limit);
+    try {
+      StringBuilder read = new StringBuilder();
+      char[] chars = new char[3];
+      int count;
+      while ((count = in.read(chars)) != -1) {
+        read.append(chars, 0, count);
+      }
+      return read.toString();
+    } finally {
+      in.release();
+    }
+  }
+
+  @Test
+  public void writesUtf8() throws IOException {
+    String sample = sample();
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    PooledUtf8Writer out = new PooledUtf8Writer(bytes, new BufferPool(BUFFER_SIZE, 1));
+    out.write(sample);
+    out.flush();
+    out.release();
+    assertArrayEquals(sample.getBytes(UTF8), bytes.toByteArray());
+  }
+
+  @Test
+  public void surrogateSplitAcrossWrites() throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    PooledUtf8Writer out = new PooledUtf8Writer(bytes, new BufferPool(BUFFER_SIZE, 1));
+    out.write('\ud83d');
+    out.write("\ude00");
+    out.close();
+    assertArrayEquals("😀".getBytes(UTF8), bytes.toByteArray());
+  }
+
+  @Test
+  public void unpairedSurrogates() throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    PooledUtf8Writer out = new PooledUtf8Writer(bytes, new BufferPool(BUFFER_SIZE, 1));
+    out.write("\ude00a\ud83db\ud83d");
+    out.close();
+    assertEquals("?a?b?", new String(bytes.toByteArray(), UTF8));
+  }
+
+  @Test
+  public void readsUtf8() throws IOException {
+    String sample = sample();
+    byte[] bytes = sample.getBytes(UTF8);
+    assertEquals(sample, read(bytes, new BufferPool(BUFFER_SIZE, 1), bytes.length));
+  }
+
+  @Test
+  public void readsEmpty() throws IOException {
+    assertEquals("", read(new byte[0], new BufferPool(BUFFER_SIZE, 1), 0));
+  }
+
+  @Test
+  public void limitExceeded() throws IOException {
+    byte[] bytes = sample().getBytes(UTF8);
+    try {
+      read(bytes, new BufferPool(BUFFER_SIZE, 1), bytes.length - 1);
+      fail("Read past the limit");
+    } catch (LimitExceededException e) {
+    }
+  }
+
+  @Test
+  public void buffersReused() {
+    BufferPool pool = new BufferPool(BUFFER_SIZE, 1);
+    byte[] buffer = pool.take();
+    pool.give(buffer);
+    assertSame(buffer, pool.take());
+    pool.give(buffer);
+    pool.give(new byte[BUFFER_SIZE]);
+    assertSame(buffer, pool.take());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void foreignBuffer() {
+    new BufferPool(BUFFER_SIZE, 1).give(new byte[BUFFER_SIZE + 1]);
+  }
+}
@@ -13,14 +13,20 @@
  */
 package com.google.nigori.server;
 
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 
+import com.google.protobuf.ByteString;
+
 /**
  * An abstract database which ensures that {@link #clearOldNonces()} is called with an hour between
- * each call.
+ * each call, and which implements the {@link ByteString} methods in terms of the byte array ones.
  * 
  * @author drt24
  * 
@@ -40,6 +46,55 @@ public abstract class AbstractDatabase implements Database {
     }, 0, 1, TimeUnit.HOURS);
   }
 
+  /**
+   * Run {@code task} on the same thread as {@link #clearOldNonces()} every {@code delay} until the
+   * database is finalized.
+   */
+  protected ScheduledFuture<?> scheduleWithFixedDelay(Runnable task, long delay, TimeUnit unit) {
+    return scheduler.scheduleWithFixedDelay(task, delay, delay, unit);
+  }
+
+  /**
+   * Stop running {@link #clearOldNonces()} and any other scheduled tasks, waiting for a task which
+   * is already running to finish so that what it uses can be closed afterwards.
+   */
+  protected void shutdownScheduler() {
+    cleaner.cancel(false);
+    // Periodic tasks do not run again after shutdown
+    scheduler.shutdown();
+    try {
+      scheduler.awaitTermination(1, TimeUnit.MINUTES);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  @Override
+  public Collection<ByteRevValue> getRecordValues(User user, ByteString key) throws IOException {
+    // the arrays returned by getRecord belong to us so can be wrapped
+    return ByteRevValue.wrap(getRecord(user, key.toByteArray()));
+  }
+
+  @Override
+  public ByteRevValue getRevisionValue(User user, ByteString key, ByteString revision)
+      throws IOException {
+    return ByteRevValue.wrap(getRevision(user, key.toByteArray(), revision.toByteArray()));
+  }
+
+  @Override
+  public boolean putRecord(User user, ByteString key, ByteString revision, ByteString data) {
+    return putRecord(user, key.toByteArray(), revision.toByteArray(), data.toByteArray());
+  }
+
+  @Override
+  public boolean putRecordValues(User user, List<ByteKeyRevValue> records) {
+    List<KeyRevValue> copies = new ArrayList<KeyRevValue>(records.size());
+    for (ByteKeyRevValue record : records) {
+      copies.add(record.toKeyRevValue());
+    }
+    return putRecords(user, copies);
+  }
+
   @Override
   public void finalize() throws Throwable {
     cleaner.cancel(false);
@@ -25,8 +25,10 @@ import static org.junit.internal.matchers.IsCollectionContaining.hasItem;
 
 import java.io.IOException;
 import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Date;
+import java.util.List;
 import java.util.Random;
 
 import org.junit.Before;
@@ -37,6 +39,7 @@ import com.google.nigori.common.NigoriConstants;
 import com.google.nigori.common.Nonce;
 import com.google.nigori.common.RevValue;
 import com.google.nigori.common.Util;
+import com.google.protobuf.ByteString;
 
 /**
  * @author drt24
@@ -83,6 +86,22 @@ public abstract class AbstractDatabaseTest {
     assertFalse(database.haveUser(publicHash));
   }
 
+  @Test
+  public void resolveUser() throws UserNotFoundException {
+    assertNull(database.resolveUser(publicHash));
+    assertTrue(database.addUser(publicKey, publicHash));
+    try {
+      User user = database.resolveUser(publicHash);
+      assertNotNull(user);
+      assertArrayEquals(publicKey, user.getPublicKey());
+      assertArrayEquals(publicHash, user.getPublicHash());
+      assertEquals(database.getUser(publicHash).getRegistrationDate(), user.getRegistrationDate());
+    } finally {
+      assertTrue("User not deleted", database.deleteUser(database.getUser(publicHash)));
+    }
+    assertNull(database.resolveUser(publicHash));
+  }
+
   @Test
   public void deleteNotPresent() {
     assertFalse(database.deleteUser(database.getUserFactory().getUser(
@@ -100,6 +119,24 @@ public abstract class AbstractDatabaseTest {
     assertFalse(database.haveUser(publicHash));
   }
 
+  @Test
+  public void returnedArraysAreCopies() throws UserNotFoundException, IOException {
+    assertTrue(database.addUser(publicKey, publicHash));
+    try {
+      User user = database.getUser(publicHash);
+      assertTrue(database.putRecord(user, toBytes("index"), toBytes("rev"), toBytes("value")));
+      database.getIndices(user).iterator().next()[0] = 0;
+      database.getRevisions(user, toBytes("index")).iterator().next()[0] = 0;
+      database.getChanges(user, 0, 10).get(0).getKey()[0] = 0;
+      assertArrayEquals(toBytes("index"), database.getIndices(user).iterator().next());
+      assertArrayEquals(toBytes("rev"), database.getRevisions(user, toBytes("index")).iterator()
+          .next());
+      assertArrayEquals(toBytes("index"), database.getChanges(user, 0, 10).get(0).getKey());
+    } finally {
+      assertTrue(database.deleteUser(database.getUser(publicHash)));
+    }
+  }
+
   @Test
   public void newNoncePasses() {
     Nonce nonce = new Nonce();
@@ -113,6 +150,28 @@ public abstract class AbstractDatabaseTest {
     assertFalse(database.checkAndAddNonce(nonce, publicHash));
   }
 
+  @Test
+  public void counters() throws UserNotFoundException {
+    assertTrue(database.addUser(publicKey, publicHash));
+    try {
+      byte[] session = "session".getBytes();
+      long expires = System.currentTimeMillis() + 60 * 1000;
+      assertTrue(database.checkAndAddCounter(publicHash, session, 1, expires));
+      assertFalse(database.checkAndAddCounter(publicHash, session, 1, expires));
+      assertTrue(database.checkAndAddCounter(publicHash, session, 3, expires));
+      assertTrue("Out of order counter", database.checkAndAddCounter(publicHash, session, 2, expires));
+      assertFalse(database.checkAndAddCounter(publicHash, session, 2, expires));
+      assertTrue(database.checkAndAddCounter(publicHash, session, 100, expires));
+      assertFalse("Below the window", database.checkAndAddCounter(publicHash, session, 4, expires));
+      assertTrue(database.checkAndAddCounter(publicHash, session, 100 - ReplayWindow.SIZE + 1,
+          expires));
+      assertTrue("Sessions are independent",
+          database.checkAndAddCounter(publicHash, "other".getBytes(), 1, expires));
+    } finally {
+      assertTrue("User not deleted", database.deleteUser(database.getUser(publicHash)));
+    }
+  }
+
   @Test
   public void setGetDelete() throws UserNotFoundException, IOException {
     database.addUser(publicKey, publicHash);
@@ -136,6 +195,40 @@ public abstract class AbstractDatabaseTest {
     }
   }
 
+  @Test
+  public void byteStringRecords() throws UserNotFoundException, IOException {
+    database.addUser(publicKey, publicHash);
+    User user = database.getUser(publicHash);
+    try {
+      ByteString index = ByteString.copyFromUtf8("index");
+      ByteString revision = ByteString.copyFromUtf8("revision");
+      byte[] value = new byte[64 * 1024];
+      new Random().nextBytes(value);
+      assertTrue(database.putRecord(user, index, revision, ByteString.copyFrom(value)));
+      Collection<ByteRevValue> revs = database.getRecordValues(user, index);
+      assertEquals(1, revs.size());
+      for (ByteRevValue rv : revs) {
+        assertEquals(revision, rv.getRevision());
+        assertArrayEquals(value, rv.getValue().toByteArray());
+      }
+      assertArrayEquals(value, database.getRevisionValue(user, index, revision).getValue()
+          .toByteArray());
+      assertNull(database.getRevisionValue(user, index, ByteString.copyFromUtf8("other")));
+
+      // Both views are of the same record, and modifying what is returned does not change it
+      RevValue stored = database.getRecord(user, index.toByteArray()).iterator().next();
+      assertArrayEquals(value, stored.getValue());
+      stored.getValue()[0] ^= 1;
+      assertArrayEquals(value, database.getRevision(user, index.toByteArray(),
+          revision.toByteArray()).getValue());
+
+      assertTrue(database.deleteRecord(user, index.toByteArray()));
+      assertNull(database.getRecordValues(user, index));
+    } finally {
+      assertTrue("User not deleted", database.deleteUser(user));
+    }
+  }
+
   @Test
   public void getRevisions() throws UserNotFoundException, IOException {
     User user = null;
@@ -221,4 +314,200 @@ public abstract class AbstractDatabaseTest {
       assertTrue("User not deleted", database.deleteUser(user));
     }
   }
+
+  @Test
+  public void batchSetGetDelete() throws UserNotFoundException, IOException {
+    User user = null;
+    try {
+      assertTrue(database.addUser(publicKey, publicHash));
+      user = database.getUser(publicHash);
+      final byte[] indexa = toBytes("indexa");
+      final byte[] indexb = toBytes("indexb");
+      final byte[] notIndex = toBytes("notIndex");
+      final byte[] revisiona = toBytes("revisiona");
+      final byte[] revisionb = toBytes("revisionb");
+      final byte[] a = toBytes("a");
+      final byte[] b = toBytes("b");
+      assertTrue(database.putRecords(user, Arrays.asList(new KeyRevValue(indexa, revisiona, a),
+          new KeyRevValue(indexa, revisionb, b), new KeyRevValue(indexb, revisionb, b))));
+
+      List<Collection<RevValue>> records =
+          database.getRecords(user, Arrays.asList(indexa, notIndex, indexb));
+      assertEquals(3, records.size());
+      assertEquals(2, records.get(0).size());
+      assertNull(records.get(1));
+      assertEquals(1, records.get(2).size());
+      RevValue rv = records.get(2).iterator().next();
+      assertArrayEquals(revisionb, rv.getRevision().getBytes());
+      assertArrayEquals(b, rv.getValue());
+
+      assertFalse("Not all keys existed",
+          database.deleteRecords(user, Arrays.asList(indexa, notIndex)));
+      assertNull(database.getRecord(user, indexa));
+      assertTrue(database.deleteRecords(user, Arrays.asList(indexb)));
+      assertNull(database.getRecord(user, indexb));
+    } finally {
+      assertTrue("User not deleted", database.deleteUser(user));
+    }
+  }
+
+  @Test
+  public void batchPutIsAtomic() throws UserNotFoundException, IOException {
+    User user = null;
+    try {
+      assertTrue(database.addUser(publicKey, publicHash));
+      user = database.getUser(publicHash);
+      final byte[] indexa = toBytes("indexa");
+      final byte[] indexb = toBytes("indexb");
+      final byte[] revision = toBytes("revision");
+      assertTrue(database.putRecord(user, indexa, revision, toBytes("a")));
+      assertFalse("Conflicting batch stored", database.putRecords(user, Arrays.asList(
+          new KeyRevValue(indexb, revision, toBytes("b")),
+          new KeyRevValue(indexa, revision, toBytes("other")))));
+      assertNull("Part of a failed batch stored", database.getRecord(user, indexb));
+      assertArrayEquals(toBytes("a"), database.getRevision(user, indexa, revision).getValue());
+      assertTrue(database.deleteRecord(user, indexa));
+    } finally {
+      assertTrue("User not deleted", database.deleteUser(user));
+    }
+  }
+
+  @Test
+  public void batchPutValues() throws UserNotFoundException, IOException {
+    User user = null;
+    try {
+      assertTrue(database.addUser(publicKey, publicHash));
+      user = database.getUser(publicHash);
+      final ByteString index = ByteString.copyFromUtf8("index");
+      final ByteString revisiona = ByteString.copyFromUtf8("revisiona");
+      final ByteString revisionb = ByteString.copyFromUtf8("revisionb");
+      final ByteString a = ByteString.copyFromUtf8("a");
+      assertTrue(database.putRecordValues(user, Arrays.asList(new ByteKeyRevValue(index,
+          revisiona, a), new ByteKeyRevValue(index, revisionb, ByteString.copyFromUtf8("b")))));
+      assertEquals(2, database.getRecord(user, index.toByteArray()).size());
+      assertEquals(a, database.getRevisionValue(user, index, revisiona).getValue());
+      assertFalse("Conflicting batch stored", database.putRecordValues(user, Arrays
+          .asList(new ByteKeyRevValue(index, revisiona, ByteString.copyFromUtf8("other")))));
+      assertEquals(a, database.getRevisionValue(user, index, revisiona).getValue());
+      assertTrue(database.deleteRecord(user, index.toByteArray()));
+    } finally {
+      assertTrue("User not deleted", database.deleteUser(user));
+    }
+  }
+
+  @Test
+  public void changes() throws UserNotFoundException, IOException {
+    User user = null;
+    try {
+      assertTrue(database.addUser(publicKey, publicHash));
+      user = database.getUser(publicHash);
+      final byte[] indexa = toBytes("indexa");
+      final byte[] indexb = toBytes("indexb");
+      final byte[] revision = toBytes("revision");
+      assertEquals(0, database.getChangeSequence(user));
+      assertTrue(database.getChanges(user, 0, 10).isEmpty());
+
+      assertTrue(database.putRecord(user, indexa, revision, toBytes("a")));
+      assertTrue(database.putRecord(user, indexb, revision, toBytes("b")));
+      List<RecordChange> changes = database.getChanges(user, 0, 10);
+      assertEquals(2, changes.size());
+      RecordChange first = changes.get(0);
+      RecordChange second = changes.get(1);
+      assertArrayEquals(indexa, first.getKey());
+      assertArrayEquals(revision, first.getRevision());
+      assertFalse(first.isDelete());
+      assertArrayEquals(indexb, second.getKey());
+      assertTrue(first.getSequence() < second.getSequence());
+      assertEquals(second.getSequence(), database.getChangeSequence(user));
+
+      changes = database.getChanges(user, 0, 1);
+      assertEquals(1, changes.size());
+      assertArrayEquals(indexa, changes.get(0).getKey());
+      changes = database.getChanges(user, first.getSequence(), 10);
+      assertEquals(1, changes.size());
+      assertArrayEquals(indexb, changes.get(0).getKey());
+
+      assertTrue(database.deleteRecord(user, indexa));
+      changes = database.getChanges(user, second.getSequence(), 10);
+      assertEquals(1, changes.size());
+      RecordChange delete = changes.get(0);
+      assertArrayEquals(indexa, delete.getKey());
+      assertTrue(delete.isDelete());
+      assertEquals(delete.getSequence(), database.getChangeSequence(user));
+      assertTrue(database.getChanges(user, delete.getSequence(), 10).isEmpty());
+      assertTrue(database.deleteRecord(user, indexb));
+    } finally {
+      assertTrue("User not deleted", database.deleteUser(user));
+    }
+  }
+
+  @Test
+  public void digests() throws UserNotFoundException, IOException {
+    User user = null;
+    try {
+      assertTrue(database.addUser(publicKey, publicHash));
+      user = database.getUser(publicHash);
+      final byte[] indexa = toBytes("indexa");
+      final byte[] indexb = toBytes("indexb");
+      final byte[] revisiona = toBytes("revisiona");
+      final byte[] revisionb = toBytes("revisionb");
+      final byte[] root = new byte[0];
+      assertTrue(database.getDigests(user, root, 0).isEmpty());
+      assertTrue(database.getDigestLeaves(user, root).isEmpty());
+
+      assertTrue(database.putRecord(user, indexa, revisiona, toBytes("a")));
+      assertTrue(database.putRecord(user, indexa, revisionb, toBytes("b")));
+      assertTrue(database.putRecord(user, indexb, revisiona, toBytes("c")));
+      byte[] expected = new byte[DigestTree.HASH_LENGTH];
+      DigestTree.xor(expected, DigestTree.leafHash(indexa, revisiona));
+      DigestTree.xor(expected, DigestTree.leafHash(indexa, revisionb));
+      DigestTree.xor(expected, DigestTree.leafHash(indexb, revisiona));
+      List<DigestTree.Node> nodes = database.getDigests(user, root, 0);
+      assertEquals(1, nodes.size());
+      assertArrayEquals(root, nodes.get(0).getPath());
+      assertArrayEquals(expected, nodes.get(0).getHash());
+      assertEquals(3, nodes.get(0).getCount());
+      assertEquals(3, database.getDigestLeaves(user, root).size());
+
+      nodes = database.getDigests(user, root, 2);
+      int count = 0;
+      byte[] children = new byte[DigestTree.HASH_LENGTH];
+      for (int i = 0; i < nodes.size(); ++i) {
+        DigestTree.Node node = nodes.get(i);
+        assertEquals(2, node.getPath().length);
+        if (i > 0) {
+          byte[] previous = nodes.get(i - 1).getPath();
+          assertTrue("Not in path order", previous[0] < node.getPath()[0]
+              || (previous[0] == node.getPath()[0] && previous[1] < node.getPath()[1]));
+        }
+        assertEquals(node.getCount(), database.getDigestLeaves(user, node.getPath()).size());
+        count += node.getCount();
+        DigestTree.xor(children, node.getHash());
+      }
+      assertEquals(3, count);
+      assertArrayEquals(expected, children);
+
+      byte[] leafHash = DigestTree.leafHash(indexb, revisiona);
+      byte[] leafPath = DigestTree.path(leafHash, DigestTree.MAX_DEPTH);
+      nodes = database.getDigests(user, leafPath, 0);
+      assertEquals(1, nodes.size());
+      assertArrayEquals(leafHash, nodes.get(0).getHash());
+      List<DigestTree.Leaf> leaves = database.getDigestLeaves(user, leafPath);
+      assertEquals(1, leaves.size());
+      assertArrayEquals(indexb, leaves.get(0).getKey());
+      assertArrayEquals(revisiona, leaves.get(0).getRevision());
+
+      assertTrue(database.deleteRecord(user, indexa));
+      nodes = database.getDigests(user, root, 0);
+      assertEquals(1, nodes.size());
+      assertArrayEquals(leafHash, nodes.get(0).getHash());
+      assertEquals(1, nodes.get(0).getCount());
+      assertTrue(database.deleteRecord(user, indexb));
+      assertTrue(database.getDigests(user, root, 0).isEmpty());
+      assertTrue(database.getDigests(user, leafPath, 0).isEmpty());
+      assertTrue(database.getDigestLeaves(user, root).isEmpty());
+    } finally {
+      assertTrue("User not deleted", database.deleteUser(user));
+    }
+  }
 }
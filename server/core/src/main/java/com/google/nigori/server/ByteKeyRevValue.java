@@ -0,0 +1,55 @@
+/*
+ * Copyright (C) 2012 Daniel R. Thomas (drt24)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.nigori.server;
+
+import com.google.protobuf.ByteString;
+
+/**
+ * A key, revision and value to be stored by {@link Database#putRecordValues(User, java.util.List)},
+ * held as the {@link ByteString}s they arrived in so that they need not be copied first.
+ *
+ * @author drt24
+ *
+ */
+public class ByteKeyRevValue {
+
+  private final ByteString key;
+  private final ByteString revision;
+  private final ByteString value;
+
+  public ByteKeyRevValue(ByteString key, ByteString revision, ByteString value) {
+    this.key = key;
+    this.revision = revision;
+    this.value = value;
+  }
+
+  public ByteString getKey() {
+    return key;
+  }
+
+  public ByteString getRevision() {
+    return revision;
+  }
+
+  public ByteString getValue() {
+    return value;
+  }
+
+  /**
+   * @return the record as arrays, which copies each of them once
+   */
+  public KeyRevValue toKeyRevValue() {
+    return new KeyRevValue(key.toByteArray(), revision.toByteArray(), value.toByteArray());
+  }
+}
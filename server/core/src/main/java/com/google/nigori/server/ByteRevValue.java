@@ -0,0 +1,74 @@
+/*
+ * Copyright (C) 2012 Daniel R. Thomas (drt24)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.nigori.server;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import com.google.nigori.common.RevValue;
+import com.google.protobuf.ByteString;
+import com.google.protobuf.UnsafeByteOperations;
+
+/**
+ * A revision and value read by {@link Database#getRecordValues(User, ByteString)}, held as
+ * {@link ByteString}s so that they can be put into a response without being copied.
+ *
+ * @author drt24
+ *
+ */
+public class ByteRevValue {
+
+  private final ByteString revision;
+  private final ByteString value;
+
+  public ByteRevValue(ByteString revision, ByteString value) {
+    this.revision = revision;
+    this.value = value;
+  }
+
+  public ByteString getRevision() {
+    return revision;
+  }
+
+  public ByteString getValue() {
+    return value;
+  }
+
+  /**
+   * Wrap the arrays of {@code revValue} without copying them, so they must not be modified
+   * afterwards.
+   */
+  public static ByteRevValue wrap(RevValue revValue) {
+    if (revValue == null) {
+      return null;
+    }
+    return new ByteRevValue(UnsafeByteOperations.unsafeWrap(revValue.getRevision().getBytes()),
+        UnsafeByteOperations.unsafeWrap(revValue.getValue()));
+  }
+
+  /**
+   * @see #wrap(RevValue)
+   */
+  public static List<ByteRevValue> wrap(Collection<RevValue> revValues) {
+    if (revValues == null) {
+      return null;
+    }
+    List<ByteRevValue> answer = new ArrayList<ByteRevValue>(revValues.size());
+    for (RevValue revValue : revValues) {
+      answer.add(wrap(revValue));
+    }
+    return answer;
+  }
+}
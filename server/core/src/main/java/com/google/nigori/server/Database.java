@@ -17,9 +17,11 @@ package com.google.nigori.server;
 
 import java.io.IOException;
 import java.util.Collection;
+import java.util.List;
 
 import com.google.nigori.common.Nonce;
 import com.google.nigori.common.RevValue;
+import com.google.protobuf.ByteString;
 
 /**
  * API required by Nigori to save user data.
@@ -45,6 +47,22 @@ public interface Database {
 	// quickly
 	public boolean checkAndAddNonce(Nonce nonce, byte[] publicHash);
 
+	/**
+	 * Check that the counter has not been used before in the session and is not too far behind the
+	 * highest counter used in the session, see {@link ReplayWindow}. If it is acceptable it is
+	 * recorded so future calls with that counter will return false.
+	 * 
+	 * Only a {@link ReplayWindow} is stored for each session, the state for a session may be removed by
+	 * {@link #clearOldNonces()} once it has expired.
+	 * 
+	 * @param publicHash of the user the session belongs to
+	 * @param session identifier of the session
+	 * @param counter
+	 * @param expires time in milliseconds since the epoch after which the session is no longer valid
+	 * @return whether the counter is acceptable
+	 */
+	public boolean checkAndAddCounter(byte[] publicHash, byte[] session, long counter, long expires);
+
 	public byte[] getPublicKey(byte[] publicHash) throws UserNotFoundException;
 	/**
 	 * WARNING: great care must be taken when using this, the user must be authenticated correctly before any user object can be used on their behalf
@@ -53,16 +71,44 @@ public interface Database {
 	 * @throws UserNotFoundException
 	 */
 	public User getUser(byte[] publicHash) throws UserNotFoundException;
+
+	/**
+	 * Look up the public key, registration date and existence of a user in a single read so that
+	 * authenticating a request does not need separate calls to {@link #getPublicKey(byte[])},
+	 * {@link #haveUser(byte[])} and {@link #getUser(byte[])}.
+	 * 
+	 * WARNING: as with {@link #getUser(byte[])} the returned user must not be acted on until a
+	 * signature has been verified with its public key.
+	 * 
+	 * @param publicHash
+	 * @return the user or null if there is no such user
+	 */
+	public User resolveUser(byte[] publicHash);
 	
 	/**
 	 * 
 	 * @param user
 	 * @param key
-	 * @return the records for the key or null if there are no records for that key
+	 * @return the records for the key or null if there are no records for that key, the returned
+	 *         arrays belong to the caller
 	 * @throws IOException 
 	 */
 	public Collection<RevValue> getRecord(User user, byte[] key) throws IOException;
+
+	/**
+	 * As {@link #getRecord(User, byte[])} but returning the stored bytes without copying them where
+	 * the backend allows, so that they can go straight into a response.
+	 * 
+	 * @param user
+	 * @param key
+	 * @return the records for the key or null if there are no records for that key
+	 * @throws IOException
+	 */
+	public Collection<ByteRevValue> getRecordValues(User user, ByteString key) throws IOException;
+
 	/**
+	 * As {@link #getRevision(User, byte[], byte[])} but without copying the value where the backend
+	 * allows.
 	 * 
 	 * @param user
 	 * @param key
@@ -70,6 +116,17 @@ public interface Database {
 	 * @return the value for the lookup and revision if it exists or null otherwise
 	 * @throws IOException
 	 */
+	public ByteRevValue getRevisionValue(User user, ByteString key, ByteString revision)
+	    throws IOException;
+	/**
+	 * 
+	 * @param user
+	 * @param key
+	 * @param revision
+	 * @return the value for the lookup and revision if it exists or null otherwise, the returned
+	 *         arrays belong to the caller
+	 * @throws IOException
+	 */
 	public RevValue getRevision(User user, byte[] key, byte[] revision) throws IOException;
 	public Collection<byte[]> getRevisions(User user, byte[] key) throws IOException;
 	/**
@@ -81,8 +138,105 @@ public interface Database {
 	 * @return whether this succeeded
 	 */
 	public boolean putRecord(User user, byte[] key, byte[] revision, byte[] data);
+
+	/**
+	 * As {@link #putRecord(User, byte[], byte[], byte[])} but taking the fields as they arrived in
+	 * the request, so that backends which can store a {@link ByteString} need not copy it first.
+	 * 
+	 * @param user
+	 * @param key
+	 * @param revision
+	 * @param data
+	 * @return whether this succeeded
+	 */
+	public boolean putRecord(User user, ByteString key, ByteString revision, ByteString data);
 	public boolean deleteRecord(User user, byte[] key);
 
+	/**
+	 * Get the records for several keys in one operation.
+	 * 
+	 * @param user
+	 * @param keys
+	 * @return the records for each key in the same order as {@code keys}, with null for any key
+	 *         which has no records
+	 * @throws IOException
+	 */
+	public List<Collection<RevValue>> getRecords(User user, List<byte[]> keys) throws IOException;
+
+	/**
+	 * Put several records atomically, either all of them are stored or none of them are.
+	 * 
+	 * @param user
+	 * @param records
+	 * @return whether all the records were stored
+	 */
+	public boolean putRecords(User user, List<KeyRevValue> records);
+
+	/**
+	 * As {@link #putRecords(User, List)} but taking the records as they arrived in the request, so
+	 * that backends which can store a {@link ByteString} need not copy it first.
+	 * 
+	 * @param user
+	 * @param records
+	 * @return whether all the records were stored
+	 */
+	public boolean putRecordValues(User user, List<ByteKeyRevValue> records);
+
+	/**
+	 * Delete several keys (and all their revisions) atomically.
+	 * 
+	 * @param user
+	 * @param keys
+	 * @return whether every key existed and was deleted, keys which did exist are deleted even if
+	 *         some did not
+	 */
+	public boolean deleteRecords(User user, List<byte[]> keys);
+
+	/**
+	 * Get the changes made to the user's records after {@code since}. Each revision stored by
+	 * {@link #putRecord(User, byte[], byte[], byte[])} or {@link #putRecords(User, List)} and each
+	 * key deleted is given the next number in a sequence for the user, in the same transaction as the
+	 * change itself.
+	 * 
+	 * Changes may be discarded once a later change makes them irrelevant, for example the revisions
+	 * of a key which has since been deleted, so sequence numbers need not be consecutive.
+	 * 
+	 * @param user
+	 * @param since sequence number of the last change already seen, 0 for all changes
+	 * @param limit maximum number of changes to return
+	 * @return the changes after {@code since} in sequence order
+	 * @throws IOException
+	 */
+	public List<RecordChange> getChanges(User user, long since, int limit) throws IOException;
+
+	/**
+	 * @param user
+	 * @return the sequence number of the user's most recent change, 0 if there have been none
+	 * @throws IOException
+	 */
+	public long getChangeSequence(User user) throws IOException;
+
+	/**
+	 * Get part of the user's {@link DigestTree}, which is kept up to date as records are put and
+	 * deleted.
+	 * 
+	 * @param user
+	 * @param path of the subtree, see {@link DigestTree#path(byte[], int)}
+	 * @param depth number of levels below {@code path}, 0 for the node at {@code path}
+	 * @return the non-empty nodes {@code depth} levels below {@code path} in path order
+	 * @throws IOException
+	 */
+	public List<DigestTree.Node> getDigests(User user, byte[] path, int depth) throws IOException;
+
+	/**
+	 * @param user
+	 * @param path of the subtree
+	 * @return the (key, revision) pairs in the subtree of the user's {@link DigestTree} at
+	 *         {@code path}
+	 * @throws IOException
+	 */
+	public List<DigestTree.Leaf> getDigestLeaves(User user, byte[] path) throws IOException;
+
 	/**
 	 * Clear out old nonces which are now too old to be considered.
 	 */
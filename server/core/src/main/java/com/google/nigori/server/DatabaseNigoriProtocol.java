@@ -13,11 +13,10 @@
  */
 package com.google.nigori.server;
 
-import static com.google.nigori.common.MessageLibrary.toBytes;
-
 import java.io.IOException;
 import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
 import java.util.logging.Level;
@@ -28,23 +27,44 @@ import org.apache.commons.codec.binary.Base64;
 import com.google.nigori.common.DSASignature;
 import com.google.nigori.common.DSAVerify;
 import com.google.nigori.common.MessageLibrary;
+import com.google.nigori.common.NigoriCryptographyException;
 import com.google.nigori.common.NigoriMessages.AuthenticateRequest;
+import com.google.nigori.common.NigoriMessages.BatchDeleteRequest;
+import com.google.nigori.common.NigoriMessages.BatchGetRequest;
+import com.google.nigori.common.NigoriMessages.BatchGetResponse;
+import com.google.nigori.common.NigoriMessages.BatchPutRequest;
+import com.google.nigori.common.NigoriMessages.Change;
 import com.google.nigori.common.NigoriMessages.DeleteRequest;
+import com.google.nigori.common.NigoriMessages.DigestNode;
+import com.google.nigori.common.NigoriMessages.GetChangesRequest;
+import com.google.nigori.common.NigoriMessages.GetChangesResponse;
+import com.google.nigori.common.NigoriMessages.GetDigestRequest;
+import com.google.nigori.common.NigoriMessages.GetDigestResponse;
 import com.google.nigori.common.NigoriMessages.GetIndicesRequest;
 import com.google.nigori.common.NigoriMessages.GetIndicesResponse;
 import com.google.nigori.common.NigoriMessages.GetRequest;
 import com.google.nigori.common.NigoriMessages.GetResponse;
 import com.google.nigori.common.NigoriMessages.GetRevisionsRequest;
 import com.google.nigori.common.NigoriMessages.GetRevisionsResponse;
+import com.google.nigori.common.NigoriMessages.KeyRevision;
+import com.google.nigori.common.NigoriMessages.KeyRevisionValue;
 import com.google.nigori.common.NigoriMessages.PutRequest;
+import com.google.nigori.common.NigoriMessages.RevisionValue;
 import com.google.nigori.common.NigoriMessages.RegisterRequest;
+import com.google.nigori.common.NigoriMessages.SessionRequest;
+import com.google.nigori.common.NigoriMessages.SessionResponse;
 import com.google.nigori.common.NigoriMessages.UnregisterRequest;
 import com.google.nigori.common.NigoriProtocol;
 import com.google.nigori.common.Nonce;
 import com.google.nigori.common.NotFoundException;
 import com.google.nigori.common.RevValue;
+import com.google.nigori.common.RevisionFingerprint;
+import com.google.nigori.common.Session;
+import com.google.nigori.common.SessionKeyExchange;
+import com.google.nigori.common.SignatureInput;
 import com.google.nigori.common.UnauthorisedException;
 import com.google.nigori.common.Util;
+import com.google.protobuf.ByteString;
 
 /**
  * Take messages from the {@link NigoriProtocol} and translate them to the {@link Database} if they
@@ -62,10 +82,45 @@ public class DatabaseNigoriProtocol implements NigoriProtocol {
   private static void severe(String message, Exception exception){
     log.log(Level.SEVERE, message, exception);
   }
+  /**
+   * Maximum number of changes returned by one {@link #getChanges(GetChangesRequest)}
+   */
+  public static final int MAX_CHANGES = 1000;
+  /**
+   * Maximum number of levels of the digest tree returned by one
+   * {@link #getDigest(GetDigestRequest)}, so at most 256 nodes
+   */
+  public static final int MAX_DIGEST_DEPTH = 2;
+  /**
+   * Maximum number of pairs returned by one {@link #getDigest(GetDigestRequest)}, except at the
+   * bottom of the tree where the pairs can not be split any further
+   */
+  public static final int MAX_DIGEST_RECORDS = 1000;
+
   private final Database database;
+  private final VerifiedUserCache userCache;
+  private final SessionTickets tickets;
 
   public DatabaseNigoriProtocol(Database database) {
+    this(database, new VerifiedUserCache());
+  }
+
+  public DatabaseNigoriProtocol(Database database, VerifiedUserCache userCache) {
+    this(database, userCache, new SessionTickets());
+  }
+
+  public DatabaseNigoriProtocol(Database database, VerifiedUserCache userCache,
+      SessionTickets tickets) {
     this.database = database;
+    this.userCache = userCache;
+    this.tickets = tickets;
+  }
+
+  /**
+   * @return the cache of verified users, for monitoring its hit rate
+   */
+  public VerifiedUserCache getUserCache() {
+    return userCache;
   }
 
   /**
@@ -78,47 +133,127 @@ public class DatabaseNigoriProtocol implements NigoriProtocol {
    */
   private User authenticateUser(AuthenticateRequest auth, String command, byte[]... payload)
       throws UnauthorisedException, CryptoException {
+    return authenticateUser(auth, command, SignatureInput.wrap(payload));
+  }
+
+  /**
+   * As {@link #authenticateUser(AuthenticateRequest, String, byte[]...)} for a payload taken
+   * straight from the request, which is hashed without being copied.
+   */
+  private User authenticateUser(AuthenticateRequest auth, String command, ByteString[] payload)
+      throws UnauthorisedException, CryptoException {
 
-    byte[] publicHash = auth.getPublicKey().toByteArray();
+    ByteString publicHashBytes = auth.getPublicKey();
+    byte[] publicHash = publicHashBytes.toByteArray();
+    String serverName = auth.getServerName();
+    if (auth.hasCounter()) {
+      if (!auth.hasTicket()) {
+        throw new UnauthorisedException("Counters can only be used with a session ticket");
+      }
+      return authenticateSessionUser(auth,
+          SignatureInput.forCounter(serverName, auth.getCounter(), command, payload), null,
+          publicHash);
+    }
+    Nonce nonce = new Nonce(auth.getNonce().toByteArray());
+    SignatureInput message = SignatureInput.forNonce(serverName, nonce, command, payload);
+    if (auth.hasTicket()) {
+      return authenticateSessionUser(auth, message, nonce, publicHash);
+    }
     List<byte[]> byteSig = Util.splitBytes(auth.getSig().toByteArray());
     byte[] dsaR = byteSig.get(0);
     byte[] dsaS = byteSig.get(1);
-    Nonce nonce = new Nonce(auth.getNonce().toByteArray());
-    String serverName = auth.getServerName();
+    DSASignature sig = new DSASignature(dsaR, dsaS, message);
+
+    VerifiedUserCache.Entry cached = userCache.get(publicHashBytes);
+    if (cached != null) {
+      return authenticateCachedUser(cached, sig, nonce, publicHash);
+    }
+    long stamp = userCache.stamp(publicHashBytes);
+    User user = database.resolveUser(publicHash);
+    if (user == null) {
+      log.warning("authenticateUser: no such user");
+      throw new UnauthorisedException("No such user");
+    }
     try {
-      byte[] publicKey = database.getPublicKey(publicHash);
-
-      DSASignature sig =
-          new DSASignature(dsaR, dsaS, Util.joinBytes(toBytes(serverName), nonce.nt(), nonce.nr(), toBytes(command), Util.joinBytes(payload)));
-      try {
-        DSAVerify v = new DSAVerify(publicKey);
-
-        if (v.verify(sig)) {
-          boolean validNonce = database.checkAndAddNonce(nonce, publicHash);
-
-          boolean userExists = database.haveUser(publicHash);
-          if (validNonce && userExists) {
-            try {
-              return database.getUser(publicHash);
-            } catch (UserNotFoundException e) {
-              // TODO(drt24): potential security vulnerability - user existence oracle.
-              // Should not happen often - is only possible due to concurrency
-              throw new UnauthorisedException("No such user");
-            }
-          } else {
-            throw new UnauthorisedException("Invalid nonce or no such user");
-          }
+      DSAVerify v = new DSAVerify(user.getPublicKey());
+
+      if (v.verify(sig)) {
+        if (database.checkAndAddNonce(nonce, publicHash)) {
+          userCache.put(publicHashBytes, user, v, stamp);
+          return user;
         } else {
-          throw new UnauthorisedException("The signature is invalid");
+          throw new UnauthorisedException("Invalid nonce");
         }
-      } catch (NoSuchAlgorithmException nsae) {
-        severe("authenticateUser",nsae);
-        throw new CryptoException("Internal error attempting to verify signature");
+      } else {
+        throw new UnauthorisedException("The signature is invalid");
       }
-    } catch (UserNotFoundException e1) {
-      warning("authenticateUser",e1);
-      throw new UnauthorisedException("No such user");
+    } catch (NoSuchAlgorithmException nsae) {
+      severe("authenticateUser",nsae);
+      throw new CryptoException("Internal error attempting to verify signature");
+    }
+  }
+
+  /**
+   * Authenticate a user whose public key has already been verified and so does not need to be
+   * fetched from the database again.
+   */
+  private User authenticateCachedUser(VerifiedUserCache.Entry cached, DSASignature sig,
+      Nonce nonce, byte[] publicHash) throws UnauthorisedException, CryptoException {
+    try {
+      if (!cached.getVerifier().verify(sig)) {
+        throw new UnauthorisedException("The signature is invalid");
+      }
+    } catch (NoSuchAlgorithmException nsae) {
+      severe("authenticateUser", nsae);
+      throw new CryptoException("Internal error attempting to verify signature");
+    }
+    if (!database.checkAndAddNonce(nonce, publicHash)) {
+      throw new UnauthorisedException("Invalid nonce");
+    }
+    return cached.getUser();
+  }
+
+  /**
+   * Authenticate a request made using a session ticket issued by {@link #session(SessionRequest)},
+   * the signature is an HMAC under the session key sealed in the ticket.
+   * 
+   * @param nonce the nonce or null if the request uses a counter
+   */
+  private User authenticateSessionUser(AuthenticateRequest auth, SignatureInput message,
+      Nonce nonce, byte[] publicHash) throws UnauthorisedException, CryptoException {
+    SessionTickets.Ticket ticket = tickets.open(auth.getTicket().toByteArray());
+    if (ticket == null || !Arrays.equals(publicHash, ticket.getPublicHash())) {
+      throw new UnauthorisedException("Invalid or expired session ticket");
+    }
+    try {
+      if (!Session.verify(ticket.getSessionKey(), message, auth.getSig().toByteArray())) {
+        throw new UnauthorisedException("The signature is invalid");
+      }
+    } catch (NigoriCryptographyException e) {
+      severe("authenticateSessionUser", e);
+      throw new CryptoException("Internal error attempting to verify session signature");
     }
+    // Still look the user up so that tickets stop working as soon as the user is unregistered
+    User user;
+    VerifiedUserCache.Entry cached = userCache.get(auth.getPublicKey());
+    if (cached != null) {
+      user = cached.getUser();
+    } else {
+      user = database.resolveUser(publicHash);
+      if (user == null) {
+        log.warning("authenticateSessionUser: no such user");
+        throw new UnauthorisedException("No such user");
+      }
+    }
+    if (nonce == null) {
+      if (!database.checkAndAddCounter(publicHash, ticket.getId(), auth.getCounter(),
+          ticket.getExpires())) {
+        throw new UnauthorisedException("Invalid counter");
+      }
+    } else if (!database.checkAndAddNonce(nonce, publicHash)) {
+      throw new UnauthorisedException("Invalid nonce");
+    }
+    return user;
   }
 
   @Override
@@ -148,7 +283,10 @@ public class DatabaseNigoriProtocol implements NigoriProtocol {
     AuthenticateRequest auth = request.getAuth();
     User user = authenticateUser(auth,MessageLibrary.REQUEST_UNREGISTER);
 
-    return database.deleteUser(user);
+    boolean deleted = database.deleteUser(user);
+    // After the delete so that an authentication which read the user before it can not cache them
+    userCache.invalidate(auth.getPublicKey());
+    return deleted;
   }
 
   @Override
@@ -156,32 +294,53 @@ public class DatabaseNigoriProtocol implements NigoriProtocol {
       UnauthorisedException {
     byte[] index = request.getKey().toByteArray();
     AuthenticateRequest auth = request.getAuth();
-    User user;
-    byte[] revision = null;
-    if (request.hasRevision()) {
-      revision = request.getRevision().toByteArray();
-      user = authenticateUser(auth, MessageLibrary.REQUEST_GET, index, revision);
-    } else {
-      user = authenticateUser(auth, MessageLibrary.REQUEST_GET, index);
-    }
+    byte[] revision = request.hasRevision() ? request.getRevision().toByteArray() : null;
+    byte[] fingerprint = request.hasFingerprint() ? request.getFingerprint().toByteArray() : null;
+    User user =
+        authenticateUser(auth, MessageLibrary.REQUEST_GET, MessageLibrary.getPayload(index,
+            revision, fingerprint));
 
-    Collection<RevValue> value;
+    // Values are read as ByteStrings so they go into the response without being copied
+    Collection<ByteRevValue> value;
 
     if (request.hasRevision()) {
       
-      value = new ArrayList<RevValue>(1);
-      RevValue revVal = database.getRevision(user, index, revision);
+      value = new ArrayList<ByteRevValue>(1);
+      ByteRevValue revVal =
+          database.getRevisionValue(user, request.getKey(), request.getRevision());
       if (revVal == null) {
         throw new NotFoundException("Cannot find requested index with revision");
       }
       value.add(revVal);
     } else {
-      value = database.getRecord(user, index);
+      value = database.getRecordValues(user, request.getKey());
     }
     if (value == null) {
       throw new NotFoundException("No value for that index");
     }
-    return MessageLibrary.getResponseAsProtobuf(value);
+    if (fingerprint != null && RevisionFingerprint.isValid(fingerprint)) {
+      RevisionFingerprint known = new RevisionFingerprint(fingerprint);
+      List<RevisionValue> missing = new ArrayList<RevisionValue>();
+      int matched = 0;
+      for (ByteRevValue revValue : value) {
+        if (known.contains(revValue.getRevision().toByteArray())) {
+          ++matched;
+        } else {
+          missing.add(MessageLibrary.revisionValueAsProtobuf(revValue.getRevision(), revValue
+              .getValue()));
+        }
+      }
+      // If the client has a revision we don't then it needs to replace what it has
+      if (matched == known.size()) {
+        return MessageLibrary.getResponseAsProtobuf(missing, true);
+      }
+    }
+    List<RevisionValue> revisions = new ArrayList<RevisionValue>(value.size());
+    for (ByteRevValue revValue : value) {
+      revisions.add(MessageLibrary.revisionValueAsProtobuf(revValue.getRevision(), revValue
+          .getValue()));
+    }
+    return MessageLibrary.getResponseAsProtobuf(revisions, false);
   }
 
   @Override
@@ -203,13 +362,35 @@ public class DatabaseNigoriProtocol implements NigoriProtocol {
       NotFoundException, UnauthorisedException {
     byte[] index = request.getKey().toByteArray();
     AuthenticateRequest auth = request.getAuth();
-    User user = authenticateUser(auth,MessageLibrary.REQUEST_GET_REVISIONS,index);
+    User user;
+    byte[] fingerprint = null;
+    if (request.hasFingerprint()) {
+      fingerprint = request.getFingerprint().toByteArray();
+      user = authenticateUser(auth, MessageLibrary.REQUEST_GET_REVISIONS, index, fingerprint);
+    } else {
+      user = authenticateUser(auth, MessageLibrary.REQUEST_GET_REVISIONS, index);
+    }
 
     Collection<byte[]> value = database.getRevisions(user, index);
 
     if (value == null) {
       throw new NotFoundException("Cannot find requested key");
     }
+    if (fingerprint != null && RevisionFingerprint.isValid(fingerprint)) {
+      RevisionFingerprint known = new RevisionFingerprint(fingerprint);
+      List<byte[]> missing = new ArrayList<byte[]>();
+      int matched = 0;
+      for (byte[] revision : value) {
+        if (known.contains(revision)) {
+          ++matched;
+        } else {
+          missing.add(revision);
+        }
+      }
+      if (matched == known.size()) {
+        return MessageLibrary.getRevisionsResponseAsProtobuf(missing, true);
+      }
+    }
     return MessageLibrary.getRevisionsResponseAsProtobuf(value);
   }
 
@@ -217,12 +398,12 @@ public class DatabaseNigoriProtocol implements NigoriProtocol {
   public boolean put(PutRequest request) throws IOException, UnauthorisedException {
     AuthenticateRequest auth = request.getAuth();
 
-    byte[] index = request.getKey().toByteArray();
-    byte[] revision = request.getRevision().toByteArray();
-    byte[] value = request.getValue().toByteArray();
-    User user = authenticateUser(auth, MessageLibrary.REQUEST_PUT, index, revision, value);
+    // Verify and store the request's own ByteStrings so that the value need not be copied to do so
+    User user =
+        authenticateUser(auth, MessageLibrary.REQUEST_PUT, new ByteString[] {request.getKey(),
+            request.getRevision(), request.getValue()});
 
-    return database.putRecord(user, index, revision, value);
+    return database.putRecord(user, request.getKey(), request.getRevision(), request.getValue());
   }
 
   @Override
@@ -242,6 +423,136 @@ public class DatabaseNigoriProtocol implements NigoriProtocol {
     return database.deleteRecord(user, index);
   }
 
+  @Override
+  public SessionResponse session(SessionRequest request) throws IOException,
+      UnauthorisedException {
+    AuthenticateRequest auth = request.getAuth();
+    if (auth.hasTicket()) {
+      throw new UnauthorisedException("Sessions must be established using a signature");
+    }
+    byte[] clientPublic = request.getDhPublic().toByteArray();
+    authenticateUser(auth, MessageLibrary.REQUEST_SESSION, clientPublic);
+
+    SessionKeyExchange exchange = new SessionKeyExchange();
+    byte[] sessionKey;
+    try {
+      sessionKey = exchange.agree(clientPublic);
+    } catch (NigoriCryptographyException e) {
+      throw new UnauthorisedException(e.getMessage());
+    }
+    byte[] ticket = tickets.seal(auth.getPublicKey().toByteArray(), sessionKey);
+    return MessageLibrary.sessionResponseAsProtobuf(ticket, exchange.getPublicValue(),
+        tickets.getLifetime(), true);
+  }
+
+  @Override
+  public BatchGetResponse batchGet(BatchGetRequest request) throws IOException,
+      UnauthorisedException {
+    List<ByteString> keys = request.getKeysList();
+    byte[][] payload = MessageLibrary.batchPayload(keys);
+    User user = authenticateUser(request.getAuth(), MessageLibrary.REQUEST_BATCH_GET, payload);
+
+    List<Collection<RevValue>> records = database.getRecords(user, Arrays.asList(payload));
+    return MessageLibrary.batchGetResponseAsProtobuf(keys, records);
+  }
+
+  @Override
+  public boolean batchPut(BatchPutRequest request) throws IOException, UnauthorisedException {
+    List<KeyRevisionValue> protoRecords = request.getRecordsList();
+    User user =
+        authenticateUser(request.getAuth(), MessageLibrary.REQUEST_BATCH_PUT, MessageLibrary
+            .batchPutPayload(protoRecords));
+
+    List<ByteKeyRevValue> records = new ArrayList<ByteKeyRevValue>(protoRecords.size());
+    for (KeyRevisionValue record : protoRecords) {
+      records.add(new ByteKeyRevValue(record.getKey(), record.getRevision(), record.getValue()));
+    }
+    return database.putRecordValues(user, records);
+  }
+
+  @Override
+  public boolean batchDelete(BatchDeleteRequest request) throws IOException,
+      UnauthorisedException {
+    byte[][] payload = MessageLibrary.batchPayload(request.getKeysList());
+    User user = authenticateUser(request.getAuth(), MessageLibrary.REQUEST_BATCH_DELETE, payload);
+
+    return database.deleteRecords(user, Arrays.asList(payload));
+  }
+
+  @Override
+  public GetChangesResponse getChanges(GetChangesRequest request) throws IOException,
+      UnauthorisedException {
+    long since = request.getSinceSequence();
+    int limit = request.getLimit();
+    User user =
+        authenticateUser(request.getAuth(), MessageLibrary.REQUEST_GET_CHANGES,
+            MessageLibrary.getChangesPayload(since, limit));
+
+    if (limit < 0 || limit > MAX_CHANGES) {
+      limit = MAX_CHANGES;
+    }
+    // Read before the changes, a change committed after them must not be skipped by the cursor
+    long head = database.getChangeSequence(user);
+    // one extra to find out whether there are more
+    List<RecordChange> changes =
+        limit == 0 ? new ArrayList<RecordChange>() : database.getChanges(user, since, limit + 1);
+    boolean more = changes.size() > limit;
+    if (more) {
+      changes = changes.subList(0, limit);
+    }
+    List<Change> protoChanges = new ArrayList<Change>(changes.size());
+    for (RecordChange change : changes) {
+      protoChanges.add(MessageLibrary.changeAsProtobuf(change.getSequence(), change.getKey(),
+          change.getRevision()));
+    }
+    long sequence;
+    if (changes.isEmpty()) {
+      sequence = head;
+    } else {
+      sequence = changes.get(changes.size() - 1).getSequence();
+    }
+    return MessageLibrary.getChangesResponseAsProtobuf(protoChanges, sequence, more);
+  }
+
+  @Override
+  public GetDigestResponse getDigest(GetDigestRequest request) throws IOException,
+      UnauthorisedException {
+    byte[] path = request.getPath().toByteArray();
+    int depth = request.getDepth();
+    int recordLimit = request.getRecordLimit();
+    User user =
+        authenticateUser(request.getAuth(), MessageLibrary.REQUEST_GET_DIGEST,
+            MessageLibrary.getDigestPayload(path, depth, recordLimit));
+
+    List<DigestNode> nodes = new ArrayList<DigestNode>();
+    List<KeyRevision> records = new ArrayList<KeyRevision>();
+    if (!DigestTree.isValidPath(path)) {
+      // no such subtree
+      return MessageLibrary.getDigestResponseAsProtobuf(nodes, records);
+    }
+    // uint32 so a very large depth arrives as a negative int
+    if (depth < 0 || depth > MAX_DIGEST_DEPTH) {
+      depth = MAX_DIGEST_DEPTH;
+    }
+    depth = Math.min(depth, DigestTree.MAX_DEPTH - path.length);
+    if (recordLimit < 0 || recordLimit > MAX_DIGEST_RECORDS) {
+      recordLimit = MAX_DIGEST_RECORDS;
+    }
+    for (DigestTree.Node node : database.getDigests(user, path, depth)) {
+      nodes.add(MessageLibrary.digestNodeAsProtobuf(node.getPath(), node.getHash(), node
+          .getCount()));
+    }
+    if (depth == 0 && !nodes.isEmpty()) {
+      int count = nodes.get(0).getCount();
+      if (path.length == DigestTree.MAX_DEPTH || count <= recordLimit) {
+        for (DigestTree.Leaf leaf : database.getDigestLeaves(user, path)) {
+          records.add(MessageLibrary.keyRevisionAsProtobuf(leaf.getKey(), leaf.getRevision()));
+        }
+      }
+    }
+    return MessageLibrary.getDigestResponseAsProtobuf(nodes, records);
+  }
+
   public static class CryptoException extends IOException {
     private static final long serialVersionUID = 1L;
 
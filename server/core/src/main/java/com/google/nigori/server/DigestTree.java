@@ -0,0 +1,309 @@
+/*
+ * Copyright (C) 2012 Daniel R. Thomas (drt24)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.nigori.server;
+
+import java.io.Serializable;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+import com.google.nigori.common.NigoriConstants;
+import com.google.nigori.common.Util;
+
+/**
+ * A hash tree over a user's (key, revision) pairs, used by {@link Database#getDigests} so that two
+ * stores can find where they differ by comparing digests and only descending into subtrees which
+ * differ.
+ * 
+ * Each pair is placed by the SHA-256 hash of (key length, key, revision), using 4 bits of the hash
+ * per level so that each node has up to {@link #FANOUT} children, down to {@link #MAX_DEPTH} where
+ * the pairs are listed. The digest of a subtree is the XOR of the hashes of the pairs in it, so that
+ * adding or removing a pair only updates the nodes on its path. The static methods define the shape
+ * of the tree for databases which store it themselves, instances hold the tree in memory.
+ * 
+ * @author drt24
+ * 
+ */
+public class DigestTree implements Serializable {
+  private static final long serialVersionUID = 1L;
+
+  public static final int HASH_LENGTH = NigoriConstants.B_SHA256;
+  public static final int FANOUT = 16;
+  /**
+   * Levels below the root, a path is at most this long
+   */
+  public static final int MAX_DEPTH = 6;
+  private static final String ALGORITHM = "SHA-256";
+
+  private final TreeNode root = new TreeNode(0);
+
+  /**
+   * @return the hash of the pair which is its contribution to the digest and gives its position
+   */
+  public static byte[] leafHash(byte[] key, byte[] revision) {
+    try {
+      MessageDigest digest = MessageDigest.getInstance(ALGORITHM);
+      digest.update(Util.int2bin(key.length));
+      digest.update(key);
+      digest.update(revision);
+      return digest.digest();
+    } catch (NoSuchAlgorithmException e) {
+      // Every Java platform is required to support SHA-256
+      throw new IllegalStateException(e);
+    }
+  }
+
+  /**
+   * @return the child (0 to {@link #FANOUT} - 1) at {@code level} below the root which contains the
+   *         pair with {@code leafHash}
+   */
+  public static int childAt(byte[] leafHash, int level) {
+    int b = leafHash[level / 2] & 0xff;
+    return level % 2 == 0 ? b >>> 4 : b & 0x0f;
+  }
+
+  /**
+   * @return the path of the node at {@code depth} which contains the pair with {@code leafHash}
+   */
+  public static byte[] path(byte[] leafHash, int depth) {
+    byte[] path = new byte[depth];
+    for (int level = 0; level < depth; ++level) {
+      path[level] = (byte) childAt(leafHash, level);
+    }
+    return path;
+  }
+
+  /**
+   * @return whether the pair with {@code leafHash} is in the subtree at {@code path}
+   */
+  public static boolean isUnder(byte[] leafHash, byte[] path) {
+    for (int level = 0; level < path.length; ++level) {
+      if (childAt(leafHash, level) != path[level]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * @return whether {@code path} identifies a node in the tree
+   */
+  public static boolean isValidPath(byte[] path) {
+    if (path.length > MAX_DEPTH) {
+      return false;
+    }
+    for (byte child : path) {
+      if (child < 0 || child >= FANOUT) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Add or remove {@code hash} from the digest at the start of {@code into}
+   */
+  public static void xor(byte[] into, byte[] hash) {
+    for (int i = 0; i < hash.length; ++i) {
+      into[i] ^= hash[i];
+    }
+  }
+
+  /**
+   * The digest of a subtree
+   */
+  public static class Node {
+    private final byte[] path;
+    private final byte[] hash;
+    private final int count;
+
+    public Node(byte[] path, byte[] hash, int count) {
+      this.path = path;
+      this.hash = hash;
+      this.count = count;
+    }
+
+    public byte[] getPath() {
+      return path;
+    }
+
+    /**
+     * @return the XOR of the hashes of the pairs in the subtree
+     */
+    public byte[] getHash() {
+      return hash;
+    }
+
+    /**
+     * @return the number of pairs in the subtree
+     */
+    public int getCount() {
+      return count;
+    }
+  }
+
+  /**
+   * A (key, revision) pair in the tree
+   */
+  public static class Leaf implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private final byte[] key;
+    private final byte[] revision;
+
+    public Leaf(byte[] key, byte[] revision) {
+      this.key = key;
+      this.revision = revision;
+    }
+
+    public byte[] getKey() {
+      return key;
+    }
+
+    public byte[] getRevision() {
+      return revision;
+    }
+  }
+
+  /**
+   * Add a pair which is not already in the tree
+   */
+  public void add(byte[] key, byte[] revision) {
+    byte[] leafHash = leafHash(key, revision);
+    TreeNode node = root;
+    for (int level = 0;; ++level) {
+      xor(node.hash, leafHash);
+      ++node.count;
+      if (level == MAX_DEPTH) {
+        node.leaves.add(new Leaf(key, revision));
+        return;
+      }
+      int child = childAt(leafHash, level);
+      if (node.children[child] == null) {
+        node.children[child] = new TreeNode(level + 1);
+      }
+      node = node.children[child];
+    }
+  }
+
+  /**
+   * Remove a pair which is in the tree
+   */
+  public void remove(byte[] key, byte[] revision) {
+    byte[] leafHash = leafHash(key, revision);
+    TreeNode node = root;
+    for (int level = 0;; ++level) {
+      xor(node.hash, leafHash);
+      --node.count;
+      if (level == MAX_DEPTH) {
+        for (Iterator<Leaf> it = node.leaves.iterator(); it.hasNext();) {
+          Leaf leaf = it.next();
+          if (Arrays.equals(key, leaf.key) && Arrays.equals(revision, leaf.revision)) {
+            it.remove();
+            return;
+          }
+        }
+        return;
+      }
+      int child = childAt(leafHash, level);
+      TreeNode next = node.children[child];
+      if (next.count == 1) {
+        // last pair in the subtree
+        node.children[child] = null;
+        return;
+      }
+      node = next;
+    }
+  }
+
+  /**
+   * @return the non-empty nodes {@code depth} levels below {@code path} in path order
+   */
+  public List<Node> getNodes(byte[] path, int depth) {
+    List<Node> answer = new ArrayList<Node>();
+    TreeNode node = find(path);
+    if (node != null) {
+      collect(node, path, depth, answer);
+    }
+    return answer;
+  }
+
+  /**
+   * @return the pairs in the subtree at {@code path}
+   */
+  public List<Leaf> getLeaves(byte[] path) {
+    List<Leaf> answer = new ArrayList<Leaf>();
+    TreeNode node = find(path);
+    if (node != null) {
+      collectLeaves(node, answer);
+    }
+    return answer;
+  }
+
+  private TreeNode find(byte[] path) {
+    TreeNode node = root;
+    for (int level = 0; node != null && level < path.length; ++level) {
+      node = node.children[path[level]];
+    }
+    return node != null && node.count > 0 ? node : null;
+  }
+
+  private static void collect(TreeNode node, byte[] path, int depth, List<Node> answer) {
+    if (depth == 0) {
+      answer.add(new Node(path, node.hash.clone(), node.count));
+      return;
+    }
+    for (int child = 0; child < FANOUT; ++child) {
+      if (node.children[child] != null) {
+        byte[] childPath = Arrays.copyOf(path, path.length + 1);
+        childPath[path.length] = (byte) child;
+        collect(node.children[child], childPath, depth - 1, answer);
+      }
+    }
+  }
+
+  private static void collectLeaves(TreeNode node, List<Leaf> answer) {
+    if (node.leaves != null) {
+      answer.addAll(node.leaves);
+      return;
+    }
+    for (TreeNode child : node.children) {
+      if (child != null) {
+        collectLeaves(child, answer);
+      }
+    }
+  }
+
+  private static class TreeNode implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private final byte[] hash = new byte[HASH_LENGTH];
+    private int count = 0;
+    private final TreeNode[] children;
+    private final List<Leaf> leaves;
+
+    TreeNode(int level) {
+      if (level == MAX_DEPTH) {
+        children = null;
+        leaves = new ArrayList<Leaf>(1);
+      } else {
+        children = new TreeNode[FANOUT];
+        leaves = null;
+      }
+    }
+  }
+}
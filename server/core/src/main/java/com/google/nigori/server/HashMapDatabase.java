@@ -22,14 +22,16 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.Date;
 import java.util.HashMap;
-import java.util.HashSet;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
 
 import com.google.nigori.common.Nonce;
 import com.google.nigori.common.RevValue;
+import com.google.nigori.common.Util;
+import com.google.protobuf.ByteString;
 
 /**
  * An in-memory database used for system testing.
@@ -44,9 +46,25 @@ public class HashMapDatabase extends AbstractDatabase implements Serializable {
 
   private static final long serialVersionUID = 1L;
   // TODO(drt24) provide a WeakHashMap version so this can be used as a cache
-	private HashMap<User,Map<Bytes, Map<Bytes,Bytes>>> stores = new HashMap<User,Map<Bytes, Map<Bytes,Bytes>>>();
+	// Values are kept as the ByteStrings they arrived in so they are stored and returned without copying
+	private HashMap<User,Map<Bytes, Map<Bytes,ByteString>>> stores = new HashMap<User,Map<Bytes, Map<Bytes,ByteString>>>();
 	private HashMap<Bytes,User> users = new HashMap<Bytes,User>();
-	private HashMap<Bytes,Set<Nonce>> nonces = new HashMap<Bytes,Set<Nonce>>();
+	private HashMap<User, ChangeLog> changes = new HashMap<User, ChangeLog>();
+	private HashMap<User, DigestTree> digests = new HashMap<User, DigestTree>();
+	private final NonceStore nonceStore;
+	private final ConcurrentHashMap<Bytes, SessionCounter> counters =
+	    new ConcurrentHashMap<Bytes, SessionCounter>();
+
+  public HashMapDatabase() {
+    this(new TimeWheelNonceStore());
+  }
+
+  /**
+   * @param nonceStore to use for replay protection
+   */
+  public HashMapDatabase(NonceStore nonceStore) {
+    this.nonceStore = nonceStore;
+  }
 
 	@Override
 	public boolean addUser(byte[] publicKey, byte[] publicHash) {
@@ -56,7 +74,9 @@ public class HashMapDatabase extends AbstractDatabase implements Serializable {
 	  }
 	  User user = new JUser(publicKey, publicHash, new Date());
 		users.put(Bytes.copyFrom(publicHash),user);
-		stores.put(user, new HashMap<Bytes, Map<Bytes,Bytes>>());
+		stores.put(user, new HashMap<Bytes, Map<Bytes,ByteString>>());
+		changes.put(user, new ChangeLog());
+		digests.put(user, new DigestTree());
 		return true;
 	}
 	
@@ -69,6 +89,8 @@ public class HashMapDatabase extends AbstractDatabase implements Serializable {
 	public boolean deleteUser(User existingUser) {
 		//TODO(beresford): check authority to carry out action
 	  User user = users.remove(Bytes.copyFrom(existingUser.getPublicHash()));
+	  changes.remove(user);
+	  digests.remove(user);
 	  return user != null && stores.remove(user) != null;
 	}
 
@@ -94,6 +116,11 @@ public class HashMapDatabase extends AbstractDatabase implements Serializable {
     return user;
   }
 
+  @Override
+  public User resolveUser(byte[] publicHash) {
+    return users.get(Bytes.copyFrom(publicHash));
+  }
+
   @Override
 	public Collection<RevValue> getRecord(User user, byte[] key) {
 
@@ -102,11 +129,11 @@ public class HashMapDatabase extends AbstractDatabase implements Serializable {
       return null;
     }
 
-    Map<Bytes, Bytes> revisions = stores.get(user).get(Bytes.copyFrom(key));
+    Map<Bytes, ByteString> revisions = stores.get(user).get(Bytes.copyFrom(key));
     if (revisions != null) {
       List<RevValue> answer = new ArrayList<RevValue>(revisions.size());
-      for (Map.Entry<Bytes, Bytes> rv : revisions.entrySet()) {
-        answer.add(new RevValue(rv.getKey().toByteArray(), rv.getValue().toByteArray()));
+      for (Map.Entry<Bytes, ByteString> rv : revisions.entrySet()) {
+        answer.add(new RevValue(rv.getKey().toByteArray().clone(), rv.getValue().toByteArray()));
       }
 
       return answer;
@@ -115,15 +142,37 @@ public class HashMapDatabase extends AbstractDatabase implements Serializable {
     }
 	}
 
+  @Override
+  public Collection<ByteRevValue> getRecordValues(User user, ByteString key) {
+    Map<Bytes, ByteString> revisions = stores.get(user).get(Bytes.copyFrom(key));
+    if (revisions == null) {
+      return null;
+    }
+    List<ByteRevValue> answer = new ArrayList<ByteRevValue>(revisions.size());
+    for (Map.Entry<Bytes, ByteString> rv : revisions.entrySet()) {
+      answer.add(new ByteRevValue(ByteString.copyFrom(rv.getKey().toByteArray()), rv.getValue()));
+    }
+    return answer;
+  }
+
+  @Override
+  public List<Collection<RevValue>> getRecords(User user, List<byte[]> keys) {
+    List<Collection<RevValue>> answer = new ArrayList<Collection<RevValue>>(keys.size());
+    for (byte[] key : keys) {
+      answer.add(getRecord(user, key));
+    }
+    return answer;
+  }
+
   @Override
   public RevValue getRevision(User user, byte[] key, byte[] revision) throws IOException {
     if (key == null) {
       return null;
     }
 
-    Map<Bytes, Bytes> revisions = stores.get(user).get(Bytes.copyFrom(key));
+    Map<Bytes, ByteString> revisions = stores.get(user).get(Bytes.copyFrom(key));
     if (revisions != null) {
-      Bytes value = revisions.get(Bytes.copyFrom(revision));
+      ByteString value = revisions.get(Bytes.copyFrom(revision));
       if (value != null) {
         return new RevValue(revision, value.toByteArray());
       }
@@ -131,12 +180,24 @@ public class HashMapDatabase extends AbstractDatabase implements Serializable {
     return null;
   }
 
+  @Override
+  public ByteRevValue getRevisionValue(User user, ByteString key, ByteString revision) {
+    Map<Bytes, ByteString> revisions = stores.get(user).get(Bytes.copyFrom(key));
+    if (revisions != null) {
+      ByteString value = revisions.get(Bytes.copyFrom(revision));
+      if (value != null) {
+        return new ByteRevValue(revision, value);
+      }
+    }
+    return null;
+  }
+
   @Override
   public Collection<byte[]> getIndices(User user) {
     Set<Bytes> indices = stores.get(user).keySet();
     List<byte[]> answer = new ArrayList<byte[]>(indices.size());
     for (Bytes index : indices){
-      answer.add(index.toByteArray());
+      answer.add(index.toByteArray().clone());
     }
     return answer;
   }
@@ -148,11 +209,11 @@ public class HashMapDatabase extends AbstractDatabase implements Serializable {
       return null;
     }
 
-    Map<Bytes, Bytes> revisions = stores.get(user).get(Bytes.copyFrom(key));
+    Map<Bytes, ByteString> revisions = stores.get(user).get(Bytes.copyFrom(key));
     if (revisions != null) {
       List<byte[]> answer = new ArrayList<byte[]>(revisions.size());
       for (Bytes rev : revisions.keySet()) {
-        answer.add(rev.toByteArray());
+        answer.add(rev.toByteArray().clone());
       }
 
       return answer;
@@ -163,21 +224,32 @@ public class HashMapDatabase extends AbstractDatabase implements Serializable {
 
   @Override
   public boolean putRecord(User user, byte[] key, byte[] revision, byte[] value) {
+    if (key == null || revision == null || value == null) {
+      return false;
+    }
+    return putRecord(user, ByteString.copyFrom(key), ByteString.copyFrom(revision), ByteString
+        .copyFrom(value));
+  }
+
+  @Override
+  public boolean putRecord(User user, ByteString key, ByteString revision, ByteString value) {
     // TODO(beresford): check authority to carry out action
     if (key == null || revision == null || value == null) {
       return false;
     }
-    Map<Bytes, Bytes> revisions = stores.get(user).get(Bytes.copyFrom(key));
+    Bytes bKey = Bytes.copyFrom(key);
+    Map<Bytes, ByteString> revisions = stores.get(user).get(bKey);
     if (revisions == null) {
-      revisions = new HashMap<Bytes, Bytes>();
-      stores.get(user).put(Bytes.copyFrom(key), revisions);
+      revisions = new HashMap<Bytes, ByteString>();
+      stores.get(user).put(bKey, revisions);
     }
     Bytes bRevision = Bytes.copyFrom(revision);
-    Bytes bValue = Bytes.copyFrom(value);
-    Bytes existing = revisions.get(bRevision);
+    ByteString existing = revisions.get(bRevision);
     if (existing == null) {
-      revisions.put(bRevision, bValue);
-    } else if (!existing.equals(bValue)) {
+      revisions.put(bRevision, value);
+      changes.get(user).add(bKey, bRevision);
+      digests.get(user).add(bKey.toByteArray().clone(), bRevision.toByteArray());
+    } else if (!existing.equals(value)) {
       return false;
     }
     return true;
@@ -186,9 +258,103 @@ public class HashMapDatabase extends AbstractDatabase implements Serializable {
 	@Override
 	public boolean deleteRecord(User user, byte[] key) {
 		//TODO(beresford): check authority to carry out action
-	  return stores.get(user).remove(Bytes.copyFrom(key)) != null;
+	  Bytes bKey = Bytes.copyFrom(key);
+	  Map<Bytes, ByteString> revisions = stores.get(user).remove(bKey);
+	  if (revisions == null) {
+	    return false;
+	  }
+	  changes.get(user).add(bKey, null);
+	  DigestTree digest = digests.get(user);
+	  for (Bytes revision : revisions.keySet()) {
+	    digest.remove(bKey.toByteArray(), revision.toByteArray());
+	  }
+	  return true;
 	}
 
+  @Override
+  public List<RecordChange> getChanges(User user, long since, int limit) {
+    ChangeLog log = changes.get(user);
+    List<RecordChange> answer = new ArrayList<RecordChange>();
+    if (log == null) {
+      return answer;
+    }
+    for (Map.Entry<Long, Change> entry : log.changes.tailMap(since + 1).entrySet()) {
+      if (answer.size() >= limit) {
+        break;
+      }
+      Change change = entry.getValue();
+      answer.add(new RecordChange(entry.getKey(), change.key.toByteArray().clone(),
+          change.revision == null ? null : change.revision.toByteArray().clone()));
+    }
+    return answer;
+  }
+
+  @Override
+  public long getChangeSequence(User user) {
+    ChangeLog log = changes.get(user);
+    return log == null ? 0 : log.sequence;
+  }
+
+  @Override
+  public List<DigestTree.Node> getDigests(User user, byte[] path, int depth) {
+    DigestTree digest = digests.get(user);
+    return digest == null ? new ArrayList<DigestTree.Node>() : digest.getNodes(path, depth);
+  }
+
+  @Override
+  public List<DigestTree.Leaf> getDigestLeaves(User user, byte[] path) {
+    DigestTree digest = digests.get(user);
+    return digest == null ? new ArrayList<DigestTree.Leaf>() : digest.getLeaves(path);
+  }
+
+  @Override
+  public boolean putRecords(User user, List<KeyRevValue> records) {
+    List<ByteKeyRevValue> values = new ArrayList<ByteKeyRevValue>(records.size());
+    for (KeyRevValue record : records) {
+      if (record.getKey() == null || record.getRevision() == null || record.getValue() == null) {
+        return false;
+      }
+      values.add(new ByteKeyRevValue(ByteString.copyFrom(record.getKey()), ByteString
+          .copyFrom(record.getRevision()), ByteString.copyFrom(record.getValue())));
+    }
+    return putRecordValues(user, values);
+  }
+
+  @Override
+  public boolean putRecordValues(User user, List<ByteKeyRevValue> records) {
+    // Check every record before storing any so that a conflict leaves the store untouched
+    Map<Bytes, Map<Bytes, ByteString>> store = stores.get(user);
+    Map<Bytes, ByteString> batch = new HashMap<Bytes, ByteString>();
+    for (ByteKeyRevValue record : records) {
+      if (record.getKey() == null || record.getRevision() == null || record.getValue() == null) {
+        return false;
+      }
+      Map<Bytes, ByteString> revisions = store.get(Bytes.copyFrom(record.getKey()));
+      ByteString existing =
+          revisions == null ? null : revisions.get(Bytes.copyFrom(record.getRevision()));
+      ByteString earlier =
+          batch.put(Bytes.copyFrom(record.getKey().concat(record.getRevision())), record
+              .getValue());
+      if ((existing != null && !existing.equals(record.getValue()))
+          || (earlier != null && !earlier.equals(record.getValue()))) {
+        return false;
+      }
+    }
+    for (ByteKeyRevValue record : records) {
+      putRecord(user, record.getKey(), record.getRevision(), record.getValue());
+    }
+    return true;
+  }
+
+  @Override
+  public boolean deleteRecords(User user, List<byte[]> keys) {
+    boolean result = true;
+    for (byte[] key : keys) {
+      result &= deleteRecord(user, key);
+    }
+    return result;
+  }
+
   @Override
   public UserFactory getUserFactory() {
     return JUser.Factory.getInstance();
@@ -196,34 +362,88 @@ public class HashMapDatabase extends AbstractDatabase implements Serializable {
 
   @Override
   public boolean checkAndAddNonce(Nonce nonce, byte[] publicKey) {
-    if (!nonce.isRecent()){
-      return false;
-    }
-    Bytes pk = Bytes.copyFrom(publicKey);
-    Set<Nonce> nonceSet = nonces.get(pk);
-    if (nonceSet == null){
-      nonceSet = new HashSet<Nonce>();
-      nonces.put(pk,nonceSet);
-    }
-    if (nonceSet.contains(nonce))
-      return false;
-    else {
-      nonceSet.add(nonce);
-      return true;
+    return nonceStore.checkAndAdd(nonce, publicKey);
+  }
+
+  @Override
+  public boolean checkAndAddCounter(byte[] publicHash, byte[] session, long counter, long expires) {
+    Bytes key = Bytes.copyFrom(Util.joinBytes(publicHash, session));
+    while (true) {
+      SessionCounter current = counters.get(key);
+      ReplayWindow window =
+          (current == null ? ReplayWindow.EMPTY : current.window).accept(counter);
+      if (window == null) {
+        return false;
+      }
+      SessionCounter next = new SessionCounter(window, expires);
+      if (current == null ? counters.putIfAbsent(key, next) == null : counters.replace(key,
+          current, next)) {
+        return true;
+      }
     }
   }
 
   @Override
   public void clearOldNonces() {
-    for (Set<Nonce> nonceSet : nonces.values()){
-      Iterator<Nonce> nonceIterator = nonceSet.iterator();
-      Nonce nonce;
-      while (nonceIterator.hasNext()){
-        nonce = nonceIterator.next();
-        if (!nonce.isRecent()){
-          nonceIterator.remove();
+    nonceStore.clearOld();
+    long now = System.currentTimeMillis();
+    for (Map.Entry<Bytes, SessionCounter> entry : counters.entrySet()) {
+      if (entry.getValue().expires < now) {
+        counters.remove(entry.getKey(), entry.getValue());
+      }
+    }
+  }
+
+  /**
+   * The changes to one user's records, when a key is deleted its earlier changes are dropped.
+   */
+  private static class ChangeLog implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private long sequence = 0;
+    private final TreeMap<Long, Change> changes = new TreeMap<Long, Change>();
+    private final Map<Bytes, List<Long>> byKey = new HashMap<Bytes, List<Long>>();
+
+    /**
+     * @param revision null for a delete
+     */
+    void add(Bytes key, Bytes revision) {
+      List<Long> sequences = byKey.get(key);
+      if (sequences == null) {
+        sequences = new ArrayList<Long>();
+        byKey.put(key, sequences);
+      } else if (revision == null) {
+        for (Long earlier : sequences) {
+          changes.remove(earlier);
         }
+        sequences.clear();
       }
+      changes.put(++sequence, new Change(key, revision));
+      sequences.add(sequence);
+    }
+  }
+
+  private static class Change implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private final Bytes key;
+    private final Bytes revision;
+
+    Change(Bytes key, Bytes revision) {
+      this.key = key;
+      this.revision = revision;
+    }
+  }
+
+  private static class SessionCounter implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private final ReplayWindow window;
+    private final long expires;
+
+    SessionCounter(ReplayWindow window, long expires) {
+      this.window = window;
+      this.expires = expires;
     }
   }
 
@@ -244,8 +464,12 @@ public class HashMapDatabase extends AbstractDatabase implements Serializable {
       return new Bytes(Arrays.copyOf(publicKey, publicKey.length));
     }
 
+    public static Bytes copyFrom(ByteString bytes) {
+      return new Bytes(bytes.toByteArray());
+    }
+
     /**
-     * @return
+     * @return the underlying array, which must not be modified
      */
     public byte[] toByteArray() {
       return bytes;
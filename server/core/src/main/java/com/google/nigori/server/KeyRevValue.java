@@ -0,0 +1,45 @@
+/*
+ * Copyright (C) 2012 Daniel R. Thomas (drt24)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.nigori.server;
+
+/**
+ * A key, revision and value to be stored by {@link Database#putRecords(User, java.util.List)}.
+ *
+ * @author drt24
+ *
+ */
+public class KeyRevValue {
+
+  private final byte[] key;
+  private final byte[] revision;
+  private final byte[] value;
+
+  public KeyRevValue(byte[] key, byte[] revision, byte[] value) {
+    this.key = key;
+    this.revision = revision;
+    this.value = value;
+  }
+
+  public byte[] getKey() {
+    return key;
+  }
+
+  public byte[] getRevision() {
+    return revision;
+  }
+
+  public byte[] getValue() {
+    return value;
+  }
+}
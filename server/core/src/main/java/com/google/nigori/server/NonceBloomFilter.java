@@ -0,0 +1,249 @@
+/*
+ * Copyright (C) 2012 Daniel R. Thomas (drt24)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.nigori.server;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import com.google.nigori.common.Nonce;
+
+/**
+ * Rotating Bloom filter which sits in front of a persistent nonce check so that the common case of a
+ * new nonce does not need to read the database.
+ *
+ * There is one filter per window of {@link Nonce#getSinceEpoch()}, the filters are kept in a wheel
+ * like {@link TimeWheelNonceStore} and a window's filter is thrown away when its slot is reused.
+ *
+ * A Bloom filter only knows about the nonces it has been shown, so a "not seen" answer means not
+ * seen by this filter. Callers must still insert in a way which fails if the nonce is already
+ * persisted, for example nonces recorded before a restart.
+ *
+ * @author drt24
+ *
+ */
+public class NonceBloomFilter {
+
+  public static final int DEFAULT_EXPECTED_PER_WINDOW = 10000;
+  public static final double DEFAULT_FALSE_POSITIVE_RATE = 0.01;
+  public static final int DEFAULT_WINDOW_SECONDS = 60 * 60;
+  public static final int DEFAULT_MAX_BYTES = 1024 * 1024;
+
+  private final int windowSeconds;
+  private final int bitsPerWindow;
+  private final int hashes;
+  private final AtomicReferenceArray<Window> wheel;
+
+  private final AtomicLong hits = new AtomicLong();
+  private final AtomicLong misses = new AtomicLong();
+  private final AtomicLong falsePositives = new AtomicLong();
+
+  public NonceBloomFilter() {
+    this(DEFAULT_EXPECTED_PER_WINDOW, DEFAULT_FALSE_POSITIVE_RATE, DEFAULT_WINDOW_SECONDS,
+        DEFAULT_MAX_BYTES);
+  }
+
+  /**
+   * @param expectedPerWindow number of nonces expected in each window
+   * @param falsePositiveRate desired false positive rate when a window holds
+   *          {@code expectedPerWindow} nonces
+   * @param windowSeconds length of time covered by each filter
+   * @param maxBytes upper bound on the memory used by all the filters together, if this is too small
+   *          for the desired false positive rate then the rate will be higher
+   */
+  public NonceBloomFilter(int expectedPerWindow, double falsePositiveRate, int windowSeconds,
+      int maxBytes) {
+    if (expectedPerWindow < 1) {
+      throw new IllegalArgumentException("expectedPerWindow must be positive but was: "
+          + expectedPerWindow);
+    }
+    if (!(falsePositiveRate > 0 && falsePositiveRate < 1)) {
+      throw new IllegalArgumentException("falsePositiveRate must be in (0,1) but was: "
+          + falsePositiveRate);
+    }
+    if (windowSeconds < 1) {
+      throw new IllegalArgumentException("windowSeconds must be positive but was: " + windowSeconds);
+    }
+    this.windowSeconds = windowSeconds;
+    int windows = (Nonce.TWO_DAYS + Nonce.SKEW_ALLOWANCE) / windowSeconds + 2;
+    wheel = new AtomicReferenceArray<Window>(windows);
+
+    double ln2 = Math.log(2);
+    long wantedBits =
+        (long) Math.ceil(-expectedPerWindow * Math.log(falsePositiveRate) / (ln2 * ln2));
+    long budgetBits = (maxBytes * 8L) / windows;
+    long bits;
+    if (wantedBits <= budgetBits) {
+      // Round up to a whole number of longs
+      bits = (wantedBits + 63) & ~63L;
+    } else {
+      bits = budgetBits & ~63L;
+    }
+    bits = Math.max(64, bits);
+    if (bits > Integer.MAX_VALUE - 63) {
+      bits = (Integer.MAX_VALUE - 63) & ~63L;
+    }
+    bitsPerWindow = (int) bits;
+    hashes = Math.max(1, (int) Math.round(((double) bitsPerWindow / expectedPerWindow) * ln2));
+  }
+
+  /**
+   * Record the nonce and report whether it might have been seen before.
+   *
+   * @param nonce
+   * @param publicHash of the user who used the nonce
+   * @return false if the nonce has definitely not been shown to this filter before, true if it might
+   *         have been
+   */
+  public boolean mightContainAndAdd(Nonce nonce, byte[] publicHash) {
+    int sinceEpoch = nonce.getSinceEpoch();
+    Window window = sinceEpoch < 0 ? null : windowFor(sinceEpoch / windowSeconds);
+    if (window == null) {
+      // Older than anything we are tracking, let the persistent check decide
+      hits.incrementAndGet();
+      return true;
+    }
+    long hash = hash(nonce, publicHash);
+    int h1 = (int) hash;
+    // Odd so that it does not share factors of two with the number of bits
+    int h2 = (int) (hash >>> 32) | 1;
+    boolean allSet = true;
+    for (int i = 0; i < hashes; ++i) {
+      int combined = h1 + i * h2;
+      if (combined < 0) {
+        combined = ~combined;
+      }
+      if (window.set(combined % bitsPerWindow)) {
+        allSet = false;
+      }
+    }
+    if (allSet) {
+      hits.incrementAndGet();
+    } else {
+      misses.incrementAndGet();
+    }
+    return allSet;
+  }
+
+  /**
+   * Called by the persistent check when {@link #mightContainAndAdd(Nonce, byte[])} returned true but
+   * the nonce had not been seen.
+   */
+  public void recordFalsePositive() {
+    falsePositives.incrementAndGet();
+  }
+
+  /**
+   * @return number of times a nonce might have been seen before
+   */
+  public long getHits() {
+    return hits.get();
+  }
+
+  /**
+   * @return number of times a nonce had definitely not been seen before
+   */
+  public long getMisses() {
+    return misses.get();
+  }
+
+  /**
+   * @return number of hits which turned out not to have been seen before
+   */
+  public long getFalsePositives() {
+    return falsePositives.get();
+  }
+
+  /**
+   * @return number of bits in the filter for each window
+   */
+  public int getBitsPerWindow() {
+    return bitsPerWindow;
+  }
+
+  /**
+   * @return number of hash functions used
+   */
+  public int getHashes() {
+    return hashes;
+  }
+
+  private Window windowFor(long slice) {
+    int slot = (int) (slice % wheel.length());
+    while (true) {
+      Window current = wheel.get(slot);
+      if (current != null) {
+        if (current.slice == slice) {
+          return current;
+        }
+        if (current.slice > slice) {
+          return null;
+        }
+      }
+      Window fresh = new Window(slice, bitsPerWindow);
+      if (wheel.compareAndSet(slot, current, fresh)) {
+        return fresh;
+      }
+    }
+  }
+
+  /**
+   * 64 bit FNV-1a over the public hash and nonce, finished with the MurmurHash3 mixer so that both
+   * halves are usable for double hashing.
+   */
+  private static long hash(Nonce nonce, byte[] publicHash) {
+    long h = 0xcbf29ce484222325L;
+    for (byte b : publicHash) {
+      h ^= b & 0xff;
+      h *= 0x100000001b3L;
+    }
+    h ^= nonce.getRandon();
+    h *= 0x100000001b3L;
+    h ^= nonce.getSinceEpoch();
+    h *= 0x100000001b3L;
+    h ^= h >>> 33;
+    h *= 0xff51afd7ed558ccdL;
+    h ^= h >>> 33;
+    h *= 0xc4ceb9fe1a85ec53L;
+    h ^= h >>> 33;
+    return h;
+  }
+
+  private static class Window {
+    private final long slice;
+    private final AtomicLongArray bits;
+
+    Window(long slice, int bits) {
+      this.slice = slice;
+      this.bits = new AtomicLongArray(bits / 64);
+    }
+
+    /**
+     * @return true if the bit was not already set
+     */
+    boolean set(int bit) {
+      int index = bit >>> 6;
+      long mask = 1L << (bit & 63);
+      while (true) {
+        long current = bits.get(index);
+        if ((current & mask) != 0) {
+          return false;
+        }
+        if (bits.compareAndSet(index, current, current | mask)) {
+          return true;
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,43 @@
+/*
+ * Copyright (C) 2012 Daniel R. Thomas (drt24)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.nigori.server;
+
+import com.google.nigori.common.Nonce;
+
+/**
+ * Replay protection which a {@link Database} can delegate
+ * {@link Database#checkAndAddNonce(Nonce, byte[])} and {@link Database#clearOldNonces()} to.
+ *
+ * Implementations must be safe to call concurrently.
+ *
+ * @author drt24
+ *
+ */
+public interface NonceStore {
+
+  /**
+   * Check that the nonce is recent and has not been seen before for the user, if so record it.
+   *
+   * @param nonce
+   * @param publicHash of the user who used the nonce
+   * @return true if the nonce is valid and has now been recorded, false if it is not recent or is a
+   *         replay
+   */
+  boolean checkAndAdd(Nonce nonce, byte[] publicHash);
+
+  /**
+   * Forget nonces which are no longer recent and so will be rejected anyway.
+   */
+  void clearOld();
+}
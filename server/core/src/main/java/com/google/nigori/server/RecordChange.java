@@ -0,0 +1,56 @@
+/*
+ * Copyright (C) 2012 Daniel R. Thomas (drt24)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.nigori.server;
+
+/**
+ * A change to a user's records returned by {@link Database#getChanges(User, long, int)}: either a
+ * revision was added to a key or the key and all its revisions were deleted.
+ *
+ * @author drt24
+ *
+ */
+public class RecordChange {
+
+  private final long sequence;
+  private final byte[] key;
+  private final byte[] revision;
+
+  /**
+   * @param revision the revision added or null if the key was deleted
+   */
+  public RecordChange(long sequence, byte[] key, byte[] revision) {
+    this.sequence = sequence;
+    this.key = key;
+    this.revision = revision;
+  }
+
+  public long getSequence() {
+    return sequence;
+  }
+
+  public byte[] getKey() {
+    return key;
+  }
+
+  /**
+   * @return the revision added or null if the key was deleted
+   */
+  public byte[] getRevision() {
+    return revision;
+  }
+
+  public boolean isDelete() {
+    return revision == null;
+  }
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright (C) 2012 Daniel R. Thomas (drt24)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.nigori.server;
+
+import java.io.Serializable;
+
+import com.google.nigori.common.Util;
+
+/**
+ * Anti-replay state for a session using counters rather than nonces, as used by IPsec and DTLS.
+ *
+ * Holds the highest counter seen and a bitmap of which of the {@link #SIZE} counters below it have
+ * been seen. Counters above the highest are accepted and slide the window up, counters in the window
+ * are accepted once and counters below the window are rejected. Instances are immutable so backends
+ * can compare-and-set them.
+ *
+ * @author drt24
+ *
+ */
+public final class ReplayWindow implements Serializable {
+
+  private static final long serialVersionUID = 1L;
+
+  /**
+   * Number of counters at and below the highest which are tracked.
+   */
+  public static final int SIZE = 64;
+  /**
+   * Length of {@link #toBytes()}
+   */
+  public static final int BYTES = 2 * Util.LONG;
+
+  /**
+   * State before any counter has been seen.
+   */
+  public static final ReplayWindow EMPTY = new ReplayWindow(0, 0);
+
+  private final long highest;
+  /**
+   * Bit i is set if highest - i has been seen.
+   */
+  private final long bitmap;
+
+  public ReplayWindow(long highest, long bitmap) {
+    this.highest = highest;
+    this.bitmap = bitmap;
+  }
+
+  public long getHighest() {
+    return highest;
+  }
+
+  public long getBitmap() {
+    return bitmap;
+  }
+
+  /**
+   * @param counter must be positive
+   * @return the window after accepting {@code counter} or null if it is a replay or too old
+   */
+  public ReplayWindow accept(long counter) {
+    if (counter <= 0) {
+      return null;
+    }
+    if (counter > highest) {
+      long shift = counter - highest;
+      long shifted = shift >= SIZE ? 0 : bitmap << shift;
+      return new ReplayWindow(counter, shifted | 1);
+    }
+    long offset = highest - counter;
+    if (offset >= SIZE) {
+      return null;
+    }
+    long mask = 1L << offset;
+    if ((bitmap & mask) != 0) {
+      return null;
+    }
+    return new ReplayWindow(highest, bitmap | mask);
+  }
+
+  public byte[] toBytes() {
+    byte[] bytes = new byte[BYTES];
+    Util.long2bin(bytes, 0, highest);
+    Util.long2bin(bytes, Util.LONG, bitmap);
+    return bytes;
+  }
+
+  public static ReplayWindow fromBytes(byte[] bytes) {
+    return new ReplayWindow(Util.bin2long(bytes, 0), Util.bin2long(bytes, Util.LONG));
+  }
+
+  @Override
+  public int hashCode() {
+    return (int) (highest ^ (highest >>> 32) ^ bitmap ^ (bitmap >>> 32));
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    if (this == obj) {
+      return true;
+    }
+    if (!(obj instanceof ReplayWindow)) {
+      return false;
+    }
+    ReplayWindow other = (ReplayWindow) obj;
+    return highest == other.highest && bitmap == other.bitmap;
+  }
+}
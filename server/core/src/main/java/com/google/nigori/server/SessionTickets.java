@@ -0,0 +1,249 @@
+/*
+ * Copyright (C) 2012 Daniel R. Thomas (drt24)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.nigori.server;
+
+import static com.google.nigori.common.MessageLibrary.toBytes;
+
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.crypto.Cipher;
+import javax.crypto.spec.IvParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+
+import com.google.nigori.common.NigoriConstants;
+import com.google.nigori.common.NigoriCryptographyException;
+import com.google.nigori.common.Session;
+import com.google.nigori.common.Util;
+import com.google.nigori.server.DatabaseNigoriProtocol.CryptoException;
+
+/**
+ * Seals and opens session tickets so that the server does not need to store any per session state.
+ *
+ * A ticket is the user's public hash, the session key and the expiry time encrypted under a key
+ * known only to the server followed by an HMAC over the IV and ciphertext. The keys are derived
+ * from a secret shared by every server instance, so that a ticket issued by one is accepted by the
+ * others and survives restarts. Without a secret they are generated when this object is created
+ * and only this instance accepts its tickets, clients then retry with DSA and establish a new
+ * session.
+ *
+ * @author drt24
+ *
+ */
+public class SessionTickets {
+
+  private static final Logger log = Logger.getLogger(SessionTickets.class.getSimpleName());
+
+  /**
+   * Default number of seconds for which tickets are valid
+   */
+  public static final int DEFAULT_LIFETIME = 60 * 60;
+  /**
+   * System property holding the secret shared by every server instance, see {@link #configured()}
+   */
+  public static final String SECRET_PROPERTY = "nigori.sessionTicketSecret";
+  /**
+   * Minimum length in bytes of a secret
+   */
+  public static final int MIN_SECRET_LENGTH = NigoriConstants.B_KENC;
+
+  private static final byte[] ENCRYPTION_LABEL = toBytes("session ticket encryption");
+  private static final byte[] MAC_LABEL = toBytes("session ticket mac");
+
+  private final SecureRandom random = new SecureRandom();
+  private final byte[] encryptionKey;
+  private final byte[] macKey;
+  private final int lifetime;
+
+  /**
+   * @return tickets keyed by the secret in the {@link #SECRET_PROPERTY} system property, or only
+   *         accepted by this instance if it is not set
+   */
+  public static SessionTickets configured() {
+    String secret = System.getProperty(SECRET_PROPERTY);
+    if (secret == null) {
+      log.warning(SECRET_PROPERTY + " is not set, session tickets are only accepted by the server"
+          + " instance which issued them");
+      return new SessionTickets();
+    }
+    return new SessionTickets(toBytes(secret), DEFAULT_LIFETIME);
+  }
+
+  public SessionTickets() {
+    this(DEFAULT_LIFETIME);
+  }
+
+  /**
+   * Tickets which only this instance accepts
+   * 
+   * @param lifetime number of seconds for which tickets will be accepted after they are issued
+   */
+  public SessionTickets(int lifetime) {
+    this.lifetime = checkLifetime(lifetime);
+    encryptionKey = new byte[NigoriConstants.B_KENC];
+    macKey = new byte[NigoriConstants.B_SHA256];
+    random.nextBytes(encryptionKey);
+    random.nextBytes(macKey);
+  }
+
+  /**
+   * Tickets which every instance constructed with the same {@code secret} accepts
+   * 
+   * @param secret at least {@link #MIN_SECRET_LENGTH} bytes shared by the server instances
+   * @param lifetime number of seconds for which tickets will be accepted after they are issued
+   */
+  public SessionTickets(byte[] secret, int lifetime) {
+    if (secret.length < MIN_SECRET_LENGTH) {
+      throw new IllegalArgumentException("secret must be at least " + MIN_SECRET_LENGTH
+          + " bytes but was: " + secret.length);
+    }
+    this.lifetime = checkLifetime(lifetime);
+    encryptionKey = new byte[NigoriConstants.B_KENC];
+    System.arraycopy(deriveKey(secret, ENCRYPTION_LABEL), 0, encryptionKey, 0,
+        encryptionKey.length);
+    macKey = deriveKey(secret, MAC_LABEL);
+  }
+
+  private static int checkLifetime(int lifetime) {
+    if (lifetime < 0) {
+      throw new IllegalArgumentException("lifetime must not be negative but was: " + lifetime);
+    }
+    return lifetime;
+  }
+
+  private static byte[] deriveKey(byte[] secret, byte[] label) {
+    try {
+      return Session.mac(secret, label);
+    } catch (NigoriCryptographyException e) {
+      // Every Java platform is required to support HmacSHA256
+      throw new IllegalStateException(e);
+    }
+  }
+
+  /**
+   * @return number of seconds for which tickets are valid
+   */
+  public int getLifetime() {
+    return lifetime;
+  }
+
+  /**
+   * @param publicHash of the authenticated user
+   * @param sessionKey
+   * @return a ticket valid for {@link #getLifetime()} seconds
+   * @throws CryptoException
+   */
+  public byte[] seal(byte[] publicHash, byte[] sessionKey) throws CryptoException {
+    long expires = System.currentTimeMillis() + lifetime * 1000L;
+    byte[] plaintext = Util.joinBytes(publicHash, sessionKey, Util.long2bin(expires));
+    byte[] iv = new byte[NigoriConstants.B_SYMENC];
+    random.nextBytes(iv);
+    try {
+      Cipher cipher = Cipher.getInstance(NigoriConstants.A_SYMENC_CIPHER);
+      cipher.init(Cipher.ENCRYPT_MODE, new SecretKeySpec(encryptionKey, NigoriConstants.A_SYMENC),
+          new IvParameterSpec(iv));
+      byte[] ciphertext = cipher.doFinal(plaintext);
+
+      byte[] ticket = new byte[iv.length + ciphertext.length + NigoriConstants.B_MAC];
+      System.arraycopy(iv, 0, ticket, 0, iv.length);
+      System.arraycopy(ciphertext, 0, ticket, iv.length, ciphertext.length);
+      byte[] mac = Session.mac(macKey, Util.joinBytes(iv, ciphertext));
+      System.arraycopy(mac, 0, ticket, iv.length + ciphertext.length, mac.length);
+      return ticket;
+    } catch (GeneralSecurityException e) {
+      log.log(Level.SEVERE, "seal", e);
+      throw new CryptoException("Internal error sealing session ticket");
+    } catch (NigoriCryptographyException e) {
+      log.log(Level.SEVERE, "seal", e);
+      throw new CryptoException("Internal error sealing session ticket");
+    }
+  }
+
+  /**
+   * @param ticket as produced by {@link #seal(byte[], byte[])}
+   * @return the contents of the ticket or null if the ticket was not issued by this server or has
+   *         expired
+   */
+  public Ticket open(byte[] ticket) {
+    int ciphertextLength = ticket.length - NigoriConstants.B_SYMENC - NigoriConstants.B_MAC;
+    if (ciphertextLength <= 0) {
+      return null;
+    }
+    byte[] iv = new byte[NigoriConstants.B_SYMENC];
+    byte[] ciphertext = new byte[ciphertextLength];
+    byte[] mac = new byte[NigoriConstants.B_MAC];
+    System.arraycopy(ticket, 0, iv, 0, iv.length);
+    System.arraycopy(ticket, iv.length, ciphertext, 0, ciphertext.length);
+    System.arraycopy(ticket, iv.length + ciphertext.length, mac, 0, mac.length);
+    try {
+      if (!Session.verify(macKey, Util.joinBytes(iv, ciphertext), mac)) {
+        return null;
+      }
+      Cipher cipher = Cipher.getInstance(NigoriConstants.A_SYMENC_CIPHER);
+      cipher.init(Cipher.DECRYPT_MODE, new SecretKeySpec(encryptionKey, NigoriConstants.A_SYMENC),
+          new IvParameterSpec(iv));
+      List<byte[]> contents = Util.splitBytes(cipher.doFinal(ciphertext));
+      long expires = Util.bin2long(contents.get(2));
+      if (expires < System.currentTimeMillis()) {
+        return null;
+      }
+      return new Ticket(iv, contents.get(0), contents.get(1), expires);
+    } catch (GeneralSecurityException e) {
+      log.log(Level.WARNING, "open", e);
+      return null;
+    } catch (NigoriCryptographyException e) {
+      log.log(Level.WARNING, "open", e);
+      return null;
+    }
+  }
+
+  public static class Ticket {
+    private final byte[] id;
+    private final byte[] publicHash;
+    private final byte[] sessionKey;
+    private final long expires;
+
+    private Ticket(byte[] id, byte[] publicHash, byte[] sessionKey, long expires) {
+      this.id = id;
+      this.publicHash = publicHash;
+      this.sessionKey = sessionKey;
+      this.expires = expires;
+    }
+
+    /**
+     * @return an identifier for the session which is unique to the ticket
+     */
+    public byte[] getId() {
+      return id;
+    }
+
+    public byte[] getPublicHash() {
+      return publicHash;
+    }
+
+    public byte[] getSessionKey() {
+      return sessionKey;
+    }
+
+    /**
+     * @return time in milliseconds since the epoch after which the ticket is not valid
+     */
+    public long getExpires() {
+      return expires;
+    }
+  }
+}
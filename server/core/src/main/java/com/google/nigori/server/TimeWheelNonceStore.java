@@ -0,0 +1,177 @@
+/*
+ * Copyright (C) 2012 Daniel R. Thomas (drt24)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.nigori.server;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import com.google.nigori.common.Nonce;
+
+/**
+ * In memory {@link NonceStore} which buckets nonces by {@link Nonce#getSinceEpoch()} into a time
+ * wheel covering the period for which nonces are recent.
+ *
+ * Each bucket holds the nonces for one slice of time in a {@link ConcurrentHashMap} so check and add
+ * is a single lock striped putIfAbsent. Buckets are swapped in and out of the wheel with
+ * compare-and-set. There are enough slots in the wheel that two slices which can both contain recent
+ * nonces never share a slot, so {@link #clearOld()} drops a whole expired bucket at a time without
+ * looking at the nonces in it.
+ *
+ * @author drt24
+ *
+ */
+public class TimeWheelNonceStore implements NonceStore, Serializable {
+
+  private static final long serialVersionUID = 1L;
+
+  public static final int DEFAULT_BUCKET_SECONDS = 60 * 60;
+
+  private final int bucketSeconds;
+  private final AtomicReferenceArray<Bucket> wheel;
+
+  public TimeWheelNonceStore() {
+    this(DEFAULT_BUCKET_SECONDS);
+  }
+
+  /**
+   * @param bucketSeconds the length of the slice of time covered by each bucket
+   */
+  public TimeWheelNonceStore(int bucketSeconds) {
+    if (bucketSeconds < 1) {
+      throw new IllegalArgumentException("bucketSeconds must be positive but was: " + bucketSeconds);
+    }
+    this.bucketSeconds = bucketSeconds;
+    wheel =
+        new AtomicReferenceArray<Bucket>((Nonce.TWO_DAYS + Nonce.SKEW_ALLOWANCE) / bucketSeconds + 2);
+  }
+
+  @Override
+  public boolean checkAndAdd(Nonce nonce, byte[] publicHash) {
+    if (!nonce.isRecent()) {
+      return false;
+    }
+    Bucket bucket = bucketFor(slice(nonce.getSinceEpoch()));
+    if (bucket == null) {
+      // The slot has already moved on to a later slice so this nonce is too old
+      return false;
+    }
+    return bucket.nonces.putIfAbsent(new Key(publicHash, nonce), Boolean.TRUE) == null;
+  }
+
+  private long slice(int sinceEpoch) {
+    return sinceEpoch / bucketSeconds;
+  }
+
+  /**
+   * @return the bucket for the slice, creating it if necessary, or null if the slot has been reused
+   *         for a later slice
+   */
+  private Bucket bucketFor(long slice) {
+    int slot = (int) (slice % wheel.length());
+    while (true) {
+      Bucket current = wheel.get(slot);
+      if (current != null) {
+        if (current.slice == slice) {
+          return current;
+        }
+        if (current.slice > slice) {
+          return null;
+        }
+      }
+      // Empty or holding an expired slice
+      Bucket fresh = new Bucket(slice);
+      if (wheel.compareAndSet(slot, current, fresh)) {
+        return fresh;
+      }
+    }
+  }
+
+  @Override
+  public void clearOld() {
+    // Buckets for slices before this one only hold nonces which are no longer recent
+    long oldest = slice(now() - Nonce.TWO_DAYS);
+    for (int i = 0; i < wheel.length(); ++i) {
+      Bucket bucket = wheel.get(i);
+      if (bucket != null && bucket.slice < oldest) {
+        wheel.compareAndSet(i, bucket, null);
+      }
+    }
+  }
+
+  /**
+   * @return current time in seconds since the epoch
+   */
+  protected int now() {
+    return (int) (System.currentTimeMillis() / 1000);
+  }
+
+  /**
+   * @return the number of nonces currently held
+   */
+  public int size() {
+    int size = 0;
+    for (int i = 0; i < wheel.length(); ++i) {
+      Bucket bucket = wheel.get(i);
+      if (bucket != null) {
+        size += bucket.nonces.size();
+      }
+    }
+    return size;
+  }
+
+  private static class Bucket implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private final long slice;
+    private final ConcurrentHashMap<Key, Boolean> nonces = new ConcurrentHashMap<Key, Boolean>();
+
+    Bucket(long slice) {
+      this.slice = slice;
+    }
+  }
+
+  private static class Key implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private final byte[] publicHash;
+    private final Nonce nonce;
+    private final int hashCode;
+
+    Key(byte[] publicHash, Nonce nonce) {
+      this.publicHash = publicHash.clone();
+      this.nonce = nonce;
+      this.hashCode = 31 * Arrays.hashCode(publicHash) + nonce.hashCode();
+    }
+
+    @Override
+    public int hashCode() {
+      return hashCode;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (this == obj) {
+        return true;
+      }
+      if (!(obj instanceof Key)) {
+        return false;
+      }
+      Key other = (Key) obj;
+      return hashCode == other.hashCode && nonce.equals(other.nonce)
+          && Arrays.equals(publicHash, other.publicHash);
+    }
+  }
+}
@@ -0,0 +1,231 @@
+/*
+ * Copyright (C) 2012 Daniel R. Thomas (drt24)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.nigori.server;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.google.nigori.common.DSAVerify;
+import com.google.protobuf.ByteString;
+
+/**
+ * Bounded cache of users who have successfully authenticated, keyed by public hash, holding the
+ * {@link User} and a ready built {@link DSAVerify} for their public key so that authenticating a
+ * recently seen user does not need to read their key from the {@link Database}.
+ *
+ * Entries expire after a fixed time to live and the least recently used entries are evicted when
+ * the cache is full. The cache is split into independently locked segments so that requests for
+ * different users do not contend with each other.
+ *
+ * {@link #invalidate(ByteString)} only affects this cache, so when several servers share a
+ * database a user deleted through one of them can still authenticate on the others until their
+ * entries expire. The time to live is kept short for that reason, and databases check that the
+ * user still exists when writing rather than trusting a cached {@link User}.
+ *
+ * @author drt24
+ *
+ */
+public class VerifiedUserCache {
+
+  public static final int DEFAULT_MAX_SIZE = 10000;
+  public static final long DEFAULT_TTL = TimeUnit.MINUTES.toMillis(1);
+  private static final int MAX_SEGMENTS = 16;
+
+  private final Segment[] segments;
+  private final long ttl;
+  private final AtomicLong hits = new AtomicLong();
+  private final AtomicLong misses = new AtomicLong();
+
+  public VerifiedUserCache() {
+    this(DEFAULT_MAX_SIZE, DEFAULT_TTL);
+  }
+
+  /**
+   * @param maxSize the maximum number of users to hold at once
+   * @param ttl time in milliseconds after which an entry must be fetched from the database again
+   */
+  public VerifiedUserCache(int maxSize, long ttl) {
+    if (maxSize < 1) {
+      throw new IllegalArgumentException("maxSize must be positive but was: " + maxSize);
+    }
+    if (ttl < 0) {
+      throw new IllegalArgumentException("ttl must not be negative but was: " + ttl);
+    }
+    this.ttl = ttl;
+    int segmentCount = Math.min(MAX_SEGMENTS, maxSize);
+    segments = new Segment[segmentCount];
+    for (int i = 0; i < segmentCount; ++i) {
+      // Distribute the capacity so that the segments sum to exactly maxSize
+      segments[i] = new Segment(maxSize / segmentCount + (i < maxSize % segmentCount ? 1 : 0));
+    }
+  }
+
+  private Segment segmentFor(ByteString publicHash) {
+    int hash = publicHash.hashCode();
+    hash ^= (hash >>> 16);
+    return segments[(hash & Integer.MAX_VALUE) % segments.length];
+  }
+
+  /**
+   * @param publicHash
+   * @return the cached entry for the user or null if there is no live entry
+   */
+  public Entry get(ByteString publicHash) {
+    Segment segment = segmentFor(publicHash);
+    Entry entry;
+    synchronized (segment) {
+      entry = segment.get(publicHash);
+      if (entry != null && entry.expires < System.currentTimeMillis()) {
+        segment.remove(publicHash);
+        entry = null;
+      }
+    }
+    if (entry == null) {
+      misses.incrementAndGet();
+    } else {
+      hits.incrementAndGet();
+    }
+    return entry;
+  }
+
+  /**
+   * @param publicHash
+   * @return the stamp to give to {@link #put(ByteString, User, DSAVerify, long)}, which must be
+   *         taken before the user is read from the database
+   */
+  public long stamp(ByteString publicHash) {
+    Segment segment = segmentFor(publicHash);
+    synchronized (segment) {
+      return segment.invalidations;
+    }
+  }
+
+  /**
+   * Cache the user and verifier, this must only be called once a signature from the user has been
+   * verified using the public key stored for them in the database. Nothing is cached if there has
+   * been an {@link #invalidate(ByteString)} since {@code stamp} was taken, as the user read from
+   * the database may since have been deleted.
+   *
+   * @param publicHash
+   * @param user
+   * @param verifier
+   * @param stamp from {@link #stamp(ByteString)}
+   * @return whether the user was cached
+   */
+  public boolean put(ByteString publicHash, User user, DSAVerify verifier, long stamp) {
+    Entry entry = new Entry(user, verifier, System.currentTimeMillis() + ttl);
+    Segment segment = segmentFor(publicHash);
+    synchronized (segment) {
+      // Invalidations are counted per segment rather than per user so an unrelated invalidation
+      // occasionally costs a cache miss
+      if (segment.invalidations != stamp) {
+        return false;
+      }
+      segment.put(publicHash, entry);
+      return true;
+    }
+  }
+
+  /**
+   * Remove the user from the cache, must be called once a user has been deleted from the database.
+   *
+   * @param publicHash
+   */
+  public void invalidate(ByteString publicHash) {
+    Segment segment = segmentFor(publicHash);
+    synchronized (segment) {
+      segment.remove(publicHash);
+      ++segment.invalidations;
+    }
+  }
+
+  public void clear() {
+    for (Segment segment : segments) {
+      synchronized (segment) {
+        segment.clear();
+      }
+    }
+  }
+
+  /**
+   * @return the number of entries currently held, some of which may have expired
+   */
+  public int size() {
+    int size = 0;
+    for (Segment segment : segments) {
+      synchronized (segment) {
+        size += segment.size();
+      }
+    }
+    return size;
+  }
+
+  public long getHits() {
+    return hits.get();
+  }
+
+  public long getMisses() {
+    return misses.get();
+  }
+
+  @Override
+  public String toString() {
+    return "VerifiedUserCache(size: " + size() + ", hits: " + getHits() + ", misses: "
+        + getMisses() + ")";
+  }
+
+  public static class Entry {
+    private final User user;
+    private final DSAVerify verifier;
+    private final long expires;
+
+    private Entry(User user, DSAVerify verifier, long expires) {
+      this.user = user;
+      this.verifier = verifier;
+      this.expires = expires;
+    }
+
+    public User getUser() {
+      return user;
+    }
+
+    public DSAVerify getVerifier() {
+      return verifier;
+    }
+  }
+
+  /**
+   * Access ordered map which drops its least recently used entry when it grows beyond capacity.
+   */
+  private static class Segment extends LinkedHashMap<ByteString, Entry> {
+    private static final long serialVersionUID = 1L;
+    private final int capacity;
+    /**
+     * Number of calls to {@link VerifiedUserCache#invalidate(ByteString)} for this segment
+     */
+    private long invalidations = 0;
+
+    Segment(int capacity) {
+      super(16, 0.75f, true);
+      this.capacity = capacity;
+    }
+
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<ByteString, Entry> eldest) {
+      return size() > capacity;
+    }
+  }
+}
@@ -0,0 +1,412 @@
+/*
+ * Copyright (C) 2012 Daniel R. Thomas (drt24)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.nigori.server;
+
+import static com.google.nigori.common.MessageLibrary.toBytes;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.nigori.common.DSASign;
+import com.google.nigori.common.MessageLibrary;
+import com.google.nigori.common.NigoriConstants;
+import com.google.nigori.common.NigoriCryptographyException;
+import com.google.nigori.common.NigoriMessages.AuthenticateRequest;
+import com.google.nigori.common.NigoriMessages.BatchGetResponse;
+import com.google.nigori.common.NigoriMessages.BatchPutRequest;
+import com.google.nigori.common.NigoriMessages.DigestNode;
+import com.google.nigori.common.NigoriMessages.GetChangesResponse;
+import com.google.nigori.common.NigoriMessages.GetDigestResponse;
+import com.google.nigori.common.NigoriMessages.GetResponse;
+import com.google.nigori.common.NigoriMessages.GetRevisionsResponse;
+import com.google.nigori.common.NigoriMessages.PutRequest;
+import com.google.nigori.common.NigoriMessages.SessionResponse;
+import com.google.nigori.common.NotFoundException;
+import com.google.nigori.common.RevisionFingerprint;
+import com.google.nigori.common.Session;
+import com.google.nigori.common.SessionKeyExchange;
+import com.google.nigori.common.UnauthorisedException;
+import com.google.protobuf.ByteString;
+
+/**
+ * @author drt24
+ *
+ */
+public class DatabaseNigoriProtocolTest {
+
+  private static final String serverName = "server";
+  private static final byte[] index = toBytes("index");
+  private static final byte[] revision = toBytes("revision");
+  private static final byte[] value = toBytes("value");
+
+  private DatabaseNigoriProtocol protocol;
+  private DSASign signer;
+
+  @Before
+  public void register() throws NoSuchAlgorithmException, IOException {
+    protocol = new DatabaseNigoriProtocol(new HashMapDatabase());
+    byte[] privateKey = new byte[NigoriConstants.B_DSA];
+    new Random().nextBytes(privateKey);
+    signer = new DSASign(privateKey);
+    assertTrue(protocol.register(MessageLibrary.registerRequestAsProtobuf(signer, new byte[0])));
+  }
+
+  private Session startSession() throws NigoriCryptographyException, IOException,
+      UnauthorisedException {
+    return startSession(false);
+  }
+
+  private Session startSession(boolean counters) throws NigoriCryptographyException, IOException,
+      UnauthorisedException {
+    SessionKeyExchange exchange = new SessionKeyExchange();
+    SessionResponse response =
+        protocol.session(MessageLibrary.sessionRequestAsProtobuf(serverName, signer, exchange
+            .getPublicValue()));
+    return new Session(signer.getPublicHash(), response.getTicket().toByteArray(), exchange
+        .agree(response.getDhPublic().toByteArray()), System.currentTimeMillis()
+        + response.getLifetime() * 1000L, counters && response.getCounters());
+  }
+
+  @Test
+  public void sessionPutGet() throws NigoriCryptographyException, IOException,
+      UnauthorisedException, NotFoundException {
+    Session session = startSession();
+    assertTrue(protocol.put(MessageLibrary.putRequestAsProtobuf(serverName, session, index,
+        revision, value)));
+    GetResponse response =
+        protocol.get(MessageLibrary.getRequestAsProtobuf(serverName, session, index, null));
+    assertEquals(1, response.getRevisionsCount());
+    assertArrayEquals(value, response.getRevisions(0).getValue().toByteArray());
+    // Signed requests still work
+    response = protocol.get(MessageLibrary.getRequestAsProtobuf(serverName, signer, index, null));
+    assertEquals(1, response.getRevisionsCount());
+  }
+
+  @Test(expected = UnauthorisedException.class)
+  public void sessionTamperedPayload() throws NigoriCryptographyException, IOException,
+      UnauthorisedException {
+    Session session = startSession();
+    PutRequest request =
+        MessageLibrary.putRequestAsProtobuf(serverName, session, index, revision, value);
+    protocol.put(request.toBuilder().setValue(ByteString.copyFrom(toBytes("other"))).build());
+  }
+
+  @Test(expected = UnauthorisedException.class)
+  public void sessionOtherUsersTicket() throws NigoriCryptographyException, IOException,
+      UnauthorisedException, NoSuchAlgorithmException {
+    Session session = startSession();
+    DSASign other = new DSASign(new byte[] {1, 2, 3});
+    assertTrue(protocol.register(MessageLibrary.registerRequestAsProtobuf(other, new byte[0])));
+    Session stolen =
+        new Session(other.getPublicHash(), session.getTicket(), new byte[NigoriConstants.B_SHA256],
+            Long.MAX_VALUE);
+    protocol.put(MessageLibrary.putRequestAsProtobuf(serverName, stolen, index, revision, value));
+  }
+
+  @Test(expected = UnauthorisedException.class)
+  public void sessionAfterUnregister() throws NigoriCryptographyException, IOException,
+      UnauthorisedException {
+    Session session = startSession();
+    assertTrue(protocol.unregister(MessageLibrary.unregisterRequestAsProtobuf(serverName, signer)));
+    protocol.put(MessageLibrary.putRequestAsProtobuf(serverName, session, index, revision, value));
+  }
+
+  @Test
+  public void sessionSharedSecret() throws NigoriCryptographyException, IOException,
+      UnauthorisedException, NotFoundException {
+    Database database = new HashMapDatabase();
+    byte[] secret = new byte[SessionTickets.MIN_SECRET_LENGTH];
+    protocol =
+        new DatabaseNigoriProtocol(database, new VerifiedUserCache(), new SessionTickets(secret,
+            SessionTickets.DEFAULT_LIFETIME));
+    assertTrue(protocol.register(MessageLibrary.registerRequestAsProtobuf(signer, new byte[0])));
+    Session session = startSession();
+    DatabaseNigoriProtocol other =
+        new DatabaseNigoriProtocol(database, new VerifiedUserCache(), new SessionTickets(secret,
+            SessionTickets.DEFAULT_LIFETIME));
+    assertTrue(other.put(MessageLibrary.putRequestAsProtobuf(serverName, session, index,
+        revision, value)));
+    GetResponse response =
+        protocol.get(MessageLibrary.getRequestAsProtobuf(serverName, session, index, null));
+    assertEquals(1, response.getRevisionsCount());
+  }
+
+  @Test
+  public void changeDuringEmptyPage() throws NigoriCryptographyException, IOException,
+      UnauthorisedException {
+    final byte[] other = toBytes("other");
+    Database database = new HashMapDatabase() {
+      private static final long serialVersionUID = 1L;
+      private boolean interleaved = false;
+
+      @Override
+      public List<RecordChange> getChanges(User user, long since, int limit) {
+        List<RecordChange> changes = super.getChanges(user, since, limit);
+        if (!interleaved) {
+          // a put committing just after the page was read
+          interleaved = true;
+          assertTrue(putRecord(user, other, revision, value));
+        }
+        return changes;
+      }
+    };
+    protocol = new DatabaseNigoriProtocol(database);
+    assertTrue(protocol.register(MessageLibrary.registerRequestAsProtobuf(signer, new byte[0])));
+    GetChangesResponse response =
+        protocol.getChanges(MessageLibrary.getChangesRequestAsProtobuf(serverName, signer, 0, 10));
+    assertEquals(0, response.getChangesCount());
+    response =
+        protocol.getChanges(MessageLibrary.getChangesRequestAsProtobuf(serverName, signer,
+            response.getSequence(), 10));
+    assertEquals(1, response.getChangesCount());
+    assertArrayEquals(other, response.getChanges(0).getKey().toByteArray());
+  }
+
+  @Test
+  public void sessionReplay() throws NigoriCryptographyException, IOException,
+      UnauthorisedException {
+    Session session = startSession();
+    PutRequest request =
+        MessageLibrary.putRequestAsProtobuf(serverName, session, index, revision, value);
+    assertTrue(protocol.put(request));
+    try {
+      protocol.put(request);
+      fail("Replayed request accepted");
+    } catch (UnauthorisedException e) {
+      // expected
+    }
+  }
+
+  @Test
+  public void sessionCounters() throws NigoriCryptographyException, IOException,
+      UnauthorisedException, NotFoundException {
+    Session session = startSession(true);
+    assertTrue(session.usesCounters());
+    PutRequest request =
+        MessageLibrary.putRequestAsProtobuf(serverName, session, index, revision, value);
+    assertTrue(request.getAuth().hasCounter());
+    assertTrue(protocol.put(request));
+    try {
+      protocol.put(request);
+      fail("Replayed request accepted");
+    } catch (UnauthorisedException e) {
+      // expected
+    }
+    GetResponse response =
+        protocol.get(MessageLibrary.getRequestAsProtobuf(serverName, session, index, null));
+    assertEquals(1, response.getRevisionsCount());
+  }
+
+  @Test(expected = UnauthorisedException.class)
+  public void sessionCounterTampered() throws NigoriCryptographyException, IOException,
+      UnauthorisedException {
+    Session session = startSession(true);
+    PutRequest request =
+        MessageLibrary.putRequestAsProtobuf(serverName, session, index, revision, value);
+    AuthenticateRequest auth = request.getAuth();
+    protocol.put(request.toBuilder().setAuth(auth.toBuilder().setCounter(auth.getCounter() + 1))
+        .build());
+  }
+
+  @Test(expected = UnauthorisedException.class)
+  public void counterWithoutTicket() throws NigoriCryptographyException, IOException,
+      UnauthorisedException {
+    PutRequest request =
+        MessageLibrary.putRequestAsProtobuf(serverName, signer, index, revision, value);
+    protocol.put(request.toBuilder().setAuth(request.getAuth().toBuilder().setCounter(1)).build());
+  }
+
+  @Test
+  public void batchPutGetDelete() throws NigoriCryptographyException, IOException,
+      UnauthorisedException {
+    byte[] other = toBytes("other");
+    assertTrue(protocol.batchPut(MessageLibrary.batchPutRequestAsProtobuf(serverName, signer,
+        Arrays.asList(MessageLibrary.keyRevisionValueAsProtobuf(index, revision, value),
+            MessageLibrary.keyRevisionValueAsProtobuf(other, revision, value)))));
+    BatchGetResponse response =
+        protocol.batchGet(MessageLibrary.batchGetRequestAsProtobuf(serverName, signer, Arrays
+            .asList(index, toBytes("missing"), other)));
+    assertEquals(3, response.getResponsesCount());
+    assertArrayEquals(index, response.getResponses(0).getKey().toByteArray());
+    assertArrayEquals(value, response.getResponses(0).getRevisions(0).getValue().toByteArray());
+    assertEquals(0, response.getResponses(1).getRevisionsCount());
+    assertEquals(1, response.getResponses(2).getRevisionsCount());
+
+    assertTrue(protocol.batchDelete(MessageLibrary.batchDeleteRequestAsProtobuf(serverName,
+        signer, Arrays.asList(index, other))));
+    assertFalse(protocol.batchDelete(MessageLibrary.batchDeleteRequestAsProtobuf(serverName,
+        signer, Arrays.asList(index))));
+  }
+
+  @Test
+  public void sessionBatch() throws NigoriCryptographyException, IOException,
+      UnauthorisedException {
+    Session session = startSession(true);
+    assertTrue(protocol.batchPut(MessageLibrary.batchPutRequestAsProtobuf(serverName, session,
+        Arrays.asList(MessageLibrary.keyRevisionValueAsProtobuf(index, revision, value)))));
+    BatchGetResponse response =
+        protocol.batchGet(MessageLibrary.batchGetRequestAsProtobuf(serverName, session, Arrays
+            .asList(index)));
+    assertEquals(1, response.getResponses(0).getRevisionsCount());
+  }
+
+  @Test(expected = UnauthorisedException.class)
+  public void batchTamperedPayload() throws NigoriCryptographyException, IOException,
+      UnauthorisedException {
+    BatchPutRequest request =
+        MessageLibrary.batchPutRequestAsProtobuf(serverName, signer, Arrays.asList(
+            MessageLibrary.keyRevisionValueAsProtobuf(index, revision, value)));
+    protocol.batchPut(request.toBuilder().addRecords(
+        MessageLibrary.keyRevisionValueAsProtobuf(toBytes("other"), revision, value)).build());
+  }
+
+  @Test
+  public void changes() throws NigoriCryptographyException, IOException, UnauthorisedException {
+    GetChangesResponse response =
+        protocol.getChanges(MessageLibrary.getChangesRequestAsProtobuf(serverName, signer, 0, 0));
+    assertEquals(0, response.getChangesCount());
+    long start = response.getSequence();
+
+    byte[] other = toBytes("other");
+    assertTrue(protocol.put(MessageLibrary.putRequestAsProtobuf(serverName, signer, index,
+        revision, value)));
+    assertTrue(protocol.put(MessageLibrary.putRequestAsProtobuf(serverName, signer, other,
+        revision, value)));
+    response =
+        protocol.getChanges(MessageLibrary.getChangesRequestAsProtobuf(serverName, signer, start,
+            1));
+    assertEquals(1, response.getChangesCount());
+    assertArrayEquals(index, response.getChanges(0).getKey().toByteArray());
+    assertArrayEquals(revision, response.getChanges(0).getRevision().toByteArray());
+    assertTrue(response.getMore());
+
+    Session session = startSession();
+    response =
+        protocol.getChanges(MessageLibrary.getChangesRequestAsProtobuf(serverName, session,
+            response.getSequence(), 10));
+    assertEquals(1, response.getChangesCount());
+    assertArrayEquals(other, response.getChanges(0).getKey().toByteArray());
+    assertFalse(response.getMore());
+    assertFalse(protocol.getChanges(
+        MessageLibrary.getChangesRequestAsProtobuf(serverName, signer, response.getSequence(), 10))
+        .getMore());
+  }
+
+  @Test
+  public void digest() throws NigoriCryptographyException, IOException, UnauthorisedException {
+    GetDigestResponse response =
+        protocol.getDigest(MessageLibrary.getDigestRequestAsProtobuf(serverName, signer,
+            new byte[0], 0, 10));
+    assertEquals(0, response.getNodesCount());
+    assertEquals(0, response.getRecordsCount());
+
+    byte[] other = toBytes("other");
+    assertTrue(protocol.put(MessageLibrary.putRequestAsProtobuf(serverName, signer, index,
+        revision, value)));
+    assertTrue(protocol.put(MessageLibrary.putRequestAsProtobuf(serverName, signer, other,
+        revision, value)));
+    response =
+        protocol.getDigest(MessageLibrary.getDigestRequestAsProtobuf(serverName, signer,
+            new byte[0], 0, 10));
+    assertEquals(1, response.getNodesCount());
+    assertEquals(2, response.getNodes(0).getCount());
+    assertEquals(2, response.getRecordsCount());
+    // Too many records to include
+    response =
+        protocol.getDigest(MessageLibrary.getDigestRequestAsProtobuf(serverName, signer,
+            new byte[0], 0, 1));
+    assertEquals(1, response.getNodesCount());
+    assertEquals(0, response.getRecordsCount());
+
+    Session session = startSession();
+    response =
+        protocol.getDigest(MessageLibrary.getDigestRequestAsProtobuf(serverName, session,
+            new byte[0], 1, 10));
+    int count = 0;
+    for (DigestNode node : response.getNodesList()) {
+      assertEquals(1, node.getPath().size());
+      count += node.getCount();
+    }
+    assertEquals(2, count);
+    assertEquals(0, response.getRecordsCount());
+
+    // Not a path in the tree
+    response =
+        protocol.getDigest(MessageLibrary.getDigestRequestAsProtobuf(serverName, signer,
+            new byte[] {16}, 0, 10));
+    assertEquals(0, response.getNodesCount());
+  }
+
+  @Test
+  public void conditionalGet() throws NigoriCryptographyException, IOException,
+      UnauthorisedException, NotFoundException {
+    byte[] other = toBytes("other revision");
+    assertTrue(protocol.put(MessageLibrary.putRequestAsProtobuf(serverName, signer, index,
+        revision, value)));
+    assertTrue(protocol.put(MessageLibrary.putRequestAsProtobuf(serverName, signer, index, other,
+        value)));
+
+    byte[] both = RevisionFingerprint.of(Arrays.asList(revision, other));
+    GetRevisionsResponse revisions =
+        protocol.getRevisions(MessageLibrary.getRevisionsRequestAsProtobuf(serverName, signer,
+            index, both));
+    assertTrue("Not modified", revisions.getPartial());
+    assertEquals(0, revisions.getRevisionsCount());
+    revisions =
+        protocol.getRevisions(MessageLibrary.getRevisionsRequestAsProtobuf(serverName, signer,
+            index, RevisionFingerprint.of(Arrays.asList(revision))));
+    assertTrue(revisions.getPartial());
+    assertEquals(1, revisions.getRevisionsCount());
+    assertArrayEquals(other, revisions.getRevisions(0).toByteArray());
+    // The client has a revision the server does not so needs them all
+    revisions =
+        protocol.getRevisions(MessageLibrary.getRevisionsRequestAsProtobuf(serverName, signer,
+            index, RevisionFingerprint.of(Arrays.asList(revision, toBytes("unknown")))));
+    assertFalse(revisions.getPartial());
+    assertEquals(2, revisions.getRevisionsCount());
+
+    Session session = startSession();
+    GetResponse response =
+        protocol.get(MessageLibrary.getRequestAsProtobuf(serverName, session, index, null, both));
+    assertTrue(response.getPartial());
+    assertEquals(0, response.getRevisionsCount());
+    response =
+        protocol.get(MessageLibrary.getRequestAsProtobuf(serverName, signer, index, null,
+            RevisionFingerprint.of(Arrays.asList(other))));
+    assertTrue(response.getPartial());
+    assertEquals(1, response.getRevisionsCount());
+    assertArrayEquals(revision, response.getRevisions(0).getRevision().toByteArray());
+    response =
+        protocol.get(MessageLibrary.getRequestAsProtobuf(serverName, signer, index, other,
+            RevisionFingerprint.of(Arrays.asList(other))));
+    assertTrue(response.getPartial());
+    assertEquals(0, response.getRevisionsCount());
+    response =
+        protocol.get(MessageLibrary.getRequestAsProtobuf(serverName, signer, index, other,
+            RevisionFingerprint.of(Arrays.asList(revision))));
+    assertFalse(response.getPartial());
+    assertEquals(1, response.getRevisionsCount());
+  }
+}
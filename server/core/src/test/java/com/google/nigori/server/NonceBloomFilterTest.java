@@ -0,0 +1,99 @@
+/*
+ * Copyright (C) 2012 Daniel R. Thomas (drt24)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.nigori.server;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import com.google.nigori.common.Nonce;
+
+/**
+ * @author drt24
+ *
+ */
+public class NonceBloomFilterTest {
+
+  private static final byte[] userA = {1, 2, 3};
+  private static final byte[] userB = {4, 5, 6};
+
+  @Test
+  public void noFalseNegatives() {
+    NonceBloomFilter filter = new NonceBloomFilter();
+    Nonce[] nonces = new Nonce[1000];
+    for (int i = 0; i < nonces.length; ++i) {
+      nonces[i] = new Nonce();
+      filter.mightContainAndAdd(nonces[i], userA);
+    }
+    for (Nonce nonce : nonces) {
+      assertTrue(filter.mightContainAndAdd(nonce, userA));
+    }
+  }
+
+  @Test
+  public void counters() {
+    NonceBloomFilter filter = new NonceBloomFilter();
+    Nonce nonce = new Nonce();
+    assertFalse(filter.mightContainAndAdd(nonce, userA));
+    assertFalse(filter.mightContainAndAdd(nonce, userB));
+    assertTrue(filter.mightContainAndAdd(nonce, userA));
+    assertEquals(2, filter.getMisses());
+    assertEquals(1, filter.getHits());
+    filter.recordFalsePositive();
+    assertEquals(1, filter.getFalsePositives());
+  }
+
+  @Test
+  public void falsePositiveRate() {
+    int expected = 10000;
+    NonceBloomFilter filter =
+        new NonceBloomFilter(expected, 0.01, NonceBloomFilter.DEFAULT_WINDOW_SECONDS,
+            Integer.MAX_VALUE);
+    for (int i = 0; i < expected; ++i) {
+      filter.mightContainAndAdd(new Nonce(), userA);
+    }
+    long before = filter.getHits();
+    // Probing also adds so keep the probe small relative to the filter
+    int probes = expected / 10;
+    for (int i = 0; i < probes; ++i) {
+      filter.mightContainAndAdd(new Nonce(), userB);
+    }
+    // New nonces so every hit is a false positive, allow plenty of slack over the 1% target
+    assertTrue("Too many false positives: " + (filter.getHits() - before),
+        filter.getHits() - before < probes * 0.03);
+  }
+
+  @Test
+  public void memoryBudget() {
+    NonceBloomFilter unbounded =
+        new NonceBloomFilter(100000, 0.001, NonceBloomFilter.DEFAULT_WINDOW_SECONDS,
+            Integer.MAX_VALUE);
+    NonceBloomFilter bounded =
+        new NonceBloomFilter(100000, 0.001, NonceBloomFilter.DEFAULT_WINDOW_SECONDS, 1024 * 1024);
+    assertTrue(bounded.getBitsPerWindow() < unbounded.getBitsPerWindow());
+    int windows =
+        (Nonce.TWO_DAYS + Nonce.SKEW_ALLOWANCE) / NonceBloomFilter.DEFAULT_WINDOW_SECONDS + 2;
+    assertTrue((long) bounded.getBitsPerWindow() * windows <= 1024 * 1024 * 8);
+  }
+
+  @Test
+  public void outOfRangeFallsThrough() {
+    NonceBloomFilter filter = new NonceBloomFilter();
+    assertTrue(filter.mightContainAndAdd(new Nonce(-5) {
+      private static final long serialVersionUID = 1L;
+    }, userA));
+  }
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright (C) 2012 Daniel R. Thomas (drt24)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.nigori.server;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import org.junit.Test;
+
+/**
+ * @author drt24
+ *
+ */
+public class ReplayWindowTest {
+
+  @Test
+  public void inOrder() {
+    ReplayWindow window = ReplayWindow.EMPTY;
+    for (long i = 1; i < 1000; ++i) {
+      window = window.accept(i);
+      assertNotNull(window);
+      assertNull(window.accept(i));
+    }
+  }
+
+  @Test
+  public void nonPositiveRejected() {
+    assertNull(ReplayWindow.EMPTY.accept(0));
+    assertNull(ReplayWindow.EMPTY.accept(-1));
+  }
+
+  @Test
+  public void reordered() {
+    ReplayWindow window = ReplayWindow.EMPTY.accept(ReplayWindow.SIZE);
+    for (long i = ReplayWindow.SIZE - 1; i > 0; --i) {
+      window = window.accept(i);
+      assertNotNull("Counter: " + i, window);
+    }
+    assertEquals(-1L, window.getBitmap());
+    for (long i = 1; i <= ReplayWindow.SIZE; ++i) {
+      assertNull("Counter: " + i, window.accept(i));
+    }
+  }
+
+  @Test
+  public void slide() {
+    ReplayWindow window = ReplayWindow.EMPTY.accept(10).accept(5);
+    window = window.accept(10 + ReplayWindow.SIZE - 1);
+    assertNull(window.accept(10));
+    assertNull("Slid out of the window", window.accept(9));
+    window = ReplayWindow.EMPTY.accept(10).accept(1000);
+    assertEquals(1L, window.getBitmap());
+  }
+
+  @Test
+  public void bytes() {
+    ReplayWindow window = ReplayWindow.EMPTY.accept(70).accept(12).accept(65);
+    assertEquals(window, ReplayWindow.fromBytes(window.toBytes()));
+  }
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright (C) 2012 Daniel R. Thomas (drt24)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.nigori.server;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import org.junit.Test;
+
+import com.google.nigori.server.DatabaseNigoriProtocol.CryptoException;
+
+/**
+ * @author drt24
+ *
+ */
+public class SessionTicketsTest {
+
+  private static final byte[] publicHash = {1, 2, 3, 4};
+  private static final byte[] sessionKey = {5, 6, 7, 8, 9};
+  private static final byte[] secret = new byte[SessionTickets.MIN_SECRET_LENGTH];
+
+  @Test
+  public void sealOpen() throws CryptoException {
+    SessionTickets tickets = new SessionTickets();
+    SessionTickets.Ticket ticket = tickets.open(tickets.seal(publicHash, sessionKey));
+    assertNotNull(ticket);
+    assertArrayEquals(publicHash, ticket.getPublicHash());
+    assertArrayEquals(sessionKey, ticket.getSessionKey());
+  }
+
+  @Test
+  public void tampered() throws CryptoException {
+    SessionTickets tickets = new SessionTickets();
+    byte[] sealed = tickets.seal(publicHash, sessionKey);
+    for (int i = 0; i < sealed.length; ++i) {
+      byte[] modified = sealed.clone();
+      modified[i] ^= 1;
+      assertNull("Modified byte: " + i, tickets.open(modified));
+    }
+    assertNull(tickets.open(new byte[0]));
+  }
+
+  @Test
+  public void otherServer() throws CryptoException {
+    assertNull(new SessionTickets().open(new SessionTickets().seal(publicHash, sessionKey)));
+  }
+
+  @Test
+  public void sharedSecret() throws CryptoException {
+    SessionTickets tickets = new SessionTickets(secret, SessionTickets.DEFAULT_LIFETIME);
+    SessionTickets.Ticket ticket =
+        new SessionTickets(secret, SessionTickets.DEFAULT_LIFETIME).open(tickets.seal(publicHash,
+            sessionKey));
+    assertNotNull(ticket);
+    assertArrayEquals(publicHash, ticket.getPublicHash());
+    assertArrayEquals(sessionKey, ticket.getSessionKey());
+
+    byte[] otherSecret = secret.clone();
+    otherSecret[0] = 1;
+    assertNull(new SessionTickets(otherSecret, SessionTickets.DEFAULT_LIFETIME).open(tickets.seal(
+        publicHash, sessionKey)));
+    assertNull(new SessionTickets().open(tickets.seal(publicHash, sessionKey)));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void shortSecret() {
+    new SessionTickets(new byte[SessionTickets.MIN_SECRET_LENGTH - 1],
+        SessionTickets.DEFAULT_LIFETIME);
+  }
+
+  @Test
+  public void expires() throws CryptoException, InterruptedException {
+    SessionTickets tickets = new SessionTickets(0);
+    byte[] sealed = tickets.seal(publicHash, sessionKey);
+    Thread.sleep(10);
+    assertNull(tickets.open(sealed));
+  }
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright (C) 2012 Daniel R. Thomas (drt24)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.nigori.server;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import com.google.nigori.common.Nonce;
+
+/**
+ * @author drt24
+ *
+ */
+public class TimeWheelNonceStoreTest {
+
+  private static final byte[] userA = {1, 2, 3};
+  private static final byte[] userB = {4, 5, 6};
+
+  @Test
+  public void replayRejected() {
+    TimeWheelNonceStore store = new TimeWheelNonceStore();
+    Nonce nonce = new Nonce();
+    assertTrue(store.checkAndAdd(nonce, userA));
+    assertFalse(store.checkAndAdd(nonce, userA));
+    assertFalse(store.checkAndAdd(new Nonce(nonce.toToken()), userA));
+    assertTrue(store.checkAndAdd(new Nonce(), userA));
+    assertEquals(2, store.size());
+  }
+
+  @Test
+  public void perUser() {
+    TimeWheelNonceStore store = new TimeWheelNonceStore();
+    Nonce nonce = new Nonce();
+    assertTrue(store.checkAndAdd(nonce, userA));
+    assertTrue(store.checkAndAdd(nonce, userB));
+    assertFalse(store.checkAndAdd(nonce, userB.clone()));
+  }
+
+  @Test
+  public void oldRejected() {
+    TimeWheelNonceStore store = new TimeWheelNonceStore();
+    assertFalse(store.checkAndAdd(new AgedNonce(Nonce.TWO_DAYS + 1), userA));
+    assertFalse(store.checkAndAdd(new AgedNonce(-Nonce.SKEW_ALLOWANCE - 1), userA));
+    assertTrue(store.checkAndAdd(new AgedNonce(Nonce.TWO_DAYS - 60), userA));
+  }
+
+  @Test
+  public void clearOld() {
+    final int[] offset = {0};
+    TimeWheelNonceStore store = new TimeWheelNonceStore() {
+      private static final long serialVersionUID = 1L;
+
+      @Override
+      protected int now() {
+        return super.now() + offset[0];
+      }
+    };
+    assertTrue(store.checkAndAdd(new Nonce(), userA));
+    assertTrue(store.checkAndAdd(new AgedNonce(Nonce.TWO_DAYS / 2), userA));
+    store.clearOld();
+    assertEquals(2, store.size());
+
+    offset[0] = Nonce.TWO_DAYS / 2 + 2 * TimeWheelNonceStore.DEFAULT_BUCKET_SECONDS;
+    store.clearOld();
+    assertEquals(1, store.size());
+
+    offset[0] = Nonce.TWO_DAYS + 2 * TimeWheelNonceStore.DEFAULT_BUCKET_SECONDS;
+    store.clearOld();
+    assertEquals(0, store.size());
+  }
+
+  @Test
+  public void concurrentReplay() throws InterruptedException {
+    final TimeWheelNonceStore store = new TimeWheelNonceStore(1);
+    final Nonce[] nonces = new Nonce[1000];
+    for (int i = 0; i < nonces.length; ++i) {
+      nonces[i] = new Nonce();
+    }
+    final AtomicInteger accepted = new AtomicInteger();
+    final CountDownLatch start = new CountDownLatch(1);
+    Thread[] threads = new Thread[8];
+    for (int t = 0; t < threads.length; ++t) {
+      threads[t] = new Thread() {
+        @Override
+        public void run() {
+          try {
+            start.await();
+          } catch (InterruptedException e) {
+            return;
+          }
+          for (Nonce nonce : nonces) {
+            if (store.checkAndAdd(nonce, userA)) {
+              accepted.incrementAndGet();
+            }
+          }
+        }
+      };
+      threads[t].start();
+    }
+    start.countDown();
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    assertEquals(nonces.length, accepted.get());
+    assertEquals(nonces.length, store.size());
+  }
+
+  private static class AgedNonce extends Nonce {
+    private static final long serialVersionUID = 1L;
+
+    AgedNonce(int age) {
+      super((int) (System.currentTimeMillis() / 1000) - age);
+    }
+  }
+}
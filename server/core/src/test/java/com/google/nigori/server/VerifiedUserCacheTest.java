@@ -0,0 +1,104 @@
+/*
+ * Copyright (C) 2012 Daniel R. Thomas (drt24)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.nigori.server;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.security.NoSuchAlgorithmException;
+import java.util.Date;
+
+import org.junit.Test;
+
+import com.google.nigori.common.DSASign;
+import com.google.nigori.common.NigoriConstants;
+import com.google.protobuf.ByteString;
+
+/**
+ * @author drt24
+ *
+ */
+public class VerifiedUserCacheTest {
+
+  private static ByteString hash(int i) {
+    return ByteString.copyFrom(new byte[] {(byte) (i >> 8), (byte) i});
+  }
+
+  private static User user(ByteString hash) {
+    return new JUser(new byte[NigoriConstants.B_DSA], hash.toByteArray(), new Date());
+  }
+
+  @Test
+  public void hitAfterPut() throws NoSuchAlgorithmException {
+    VerifiedUserCache cache = new VerifiedUserCache();
+    DSASign verifier = new DSASign(new byte[] {1, 2, 3});
+    User user = user(hash(1));
+    assertNull(cache.get(hash(1)));
+    cache.put(hash(1), user, verifier, cache.stamp(hash(1)));
+    VerifiedUserCache.Entry entry = cache.get(hash(1));
+    assertNotNull(entry);
+    assertSame(user, entry.getUser());
+    assertSame(verifier, entry.getVerifier());
+    assertEquals(1, cache.getHits());
+    assertEquals(1, cache.getMisses());
+  }
+
+  @Test
+  public void invalidate() {
+    VerifiedUserCache cache = new VerifiedUserCache();
+    cache.put(hash(1), user(hash(1)), null, cache.stamp(hash(1)));
+    cache.invalidate(hash(1));
+    assertNull(cache.get(hash(1)));
+    assertEquals(0, cache.size());
+  }
+
+  /**
+   * An authentication which read the user before they were deleted must not cache them afterwards
+   */
+  @Test
+  public void putAfterInvalidateDiscarded() {
+    VerifiedUserCache cache = new VerifiedUserCache();
+    long stamp = cache.stamp(hash(1));
+    cache.invalidate(hash(1));
+    assertFalse(cache.put(hash(1), user(hash(1)), null, stamp));
+    assertNull(cache.get(hash(1)));
+    assertTrue(cache.put(hash(1), user(hash(1)), null, cache.stamp(hash(1))));
+    assertNotNull(cache.get(hash(1)));
+  }
+
+  @Test
+  public void expires() throws InterruptedException {
+    VerifiedUserCache cache = new VerifiedUserCache(10, 1);
+    cache.put(hash(1), user(hash(1)), null, cache.stamp(hash(1)));
+    Thread.sleep(10);
+    assertNull(cache.get(hash(1)));
+    assertEquals(0, cache.size());
+  }
+
+  @Test
+  public void bounded() {
+    final int maxSize = 20;
+    VerifiedUserCache cache = new VerifiedUserCache(maxSize, VerifiedUserCache.DEFAULT_TTL);
+    for (int i = 0; i < 10 * maxSize; ++i) {
+      cache.put(hash(i), user(hash(i)), null, cache.stamp(hash(i)));
+      assertTrue(cache.size() <= maxSize);
+    }
+    // Most recently added entry is always retained
+    assertNotNull(cache.get(hash(10 * maxSize - 1)));
+  }
+}
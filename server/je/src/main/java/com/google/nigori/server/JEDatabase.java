@@ -18,10 +18,13 @@ package com.google.nigori.server;
 import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Date;
-import java.util.Map;
-import java.util.WeakHashMap;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -29,7 +32,10 @@ import com.google.nigori.common.MessageLibrary;
 import com.google.nigori.common.Nonce;
 import com.google.nigori.common.RevValue;
 import com.google.nigori.common.Util;
+import com.sleepycat.je.CacheMode;
+import com.sleepycat.je.CheckpointConfig;
 import com.sleepycat.je.Cursor;
+import com.sleepycat.je.CursorConfig;
 import com.sleepycat.je.DatabaseConfig;
 import com.sleepycat.je.DatabaseEntry;
 import com.sleepycat.je.DatabaseException;
@@ -38,6 +44,7 @@ import com.sleepycat.je.EnvironmentConfig;
 import com.sleepycat.je.LockMode;
 import com.sleepycat.je.OperationStatus;
 import com.sleepycat.je.Transaction;
+import com.sleepycat.je.TransactionConfig;
 
 /**
  * @author drt24
@@ -45,8 +52,55 @@ import com.sleepycat.je.Transaction;
  */
 public class JEDatabase extends AbstractDatabase {
 
-  private final com.sleepycat.je.Database db;
+  /**
+   * Id, registration time and public key keyed by publicHash, read on every authenticated request so
+   * kept in the cache. The next id to give out is stored under {@link #NEXT_USER_ID}.
+   *
+   * Every other per user key starts with the user's id as a varint rather than their publicHash,
+   * which is two bytes or fewer for the first sixteen thousand users rather than twenty four.
+   */
+  private final com.sleepycat.je.Database users;
+  /**
+   * Index membership: an empty entry keyed by (id, index) for each of a user's indices so that they
+   * are listed by a range scan.
+   */
+  private final com.sleepycat.je.Database indices;
+  /**
+   * The value of each revision keyed by (id, length, index, revision) so that the revisions of a
+   * record are contiguous and read by a single cursor scan, which lists them without reading any
+   * values when the scan is key only. Values can be large so are evicted from the cache once read,
+   * leaving the cache for keys.
+   */
+  private final com.sleepycat.je.Database values;
+  /**
+   * Nonces keyed by (sinceEpoch, publicHash, random) so that they are in time order and expired ones
+   * can be found with a cursor scan from the start.
+   */
+  private final com.sleepycat.je.Database nonces;
+  /**
+   * {@link ReplayWindow} and expiry time for sessions using counters, keyed by publicHash and session
+   */
+  private final com.sleepycat.je.Database counters;
+  /**
+   * Change feed for each user: the latest sequence number keyed by (id), followed by the changes
+   * keyed by (id, sequence) so that they are in sequence order.
+   */
+  private final com.sleepycat.je.Database changes;
+  /**
+   * {@link DigestTree} for each user: nodes keyed by (id, NODE, level, path) with the digest and
+   * count, and pairs keyed by (id, LEAF, leaf hash) with the key and revision.
+   */
+  private final com.sleepycat.je.Database digests;
   private final Environment env;
+  /**
+   * Absolute path of the environment's directory, its key in {@link #databases}
+   */
+  private final String directory;
+  private boolean closed = false;
+  private final TransactionConfig nonceTransactions;
+  private final TransactionConfig recordTransactions;
+  private final TransactionConfig userTransactions;
+  private final NonceBloomFilter nonceFilter = new NonceBloomFilter();
 
   private static final Logger log = Logger.getLogger(JEDatabase.class.getSimpleName());
   static {
@@ -55,38 +109,99 @@ public class JEDatabase extends AbstractDatabase {
   private static void severe(String message, Exception exception){
     log.log(Level.SEVERE, message, exception);
   }
+  /**
+   * Name of the single sorted duplicates database which everything used to be stored in
+   */
+  private static final String LEGACY_DATABASE = "nigori";
+  /**
+   * The key of the next user id in {@link #users}, which no publicHash can be.
+   */
+  private static final DatabaseEntry NEXT_USER_ID = new DatabaseEntry(new byte[0]);
+  private static final int USER_KEY_OFFSET = Util.INT + Util.LONG;
   private static final DatabaseEntry USERS = new DatabaseEntry(MessageLibrary.toBytes("users"));
+  private static final byte[] STORES = MessageLibrary.toBytes("stores/");
   private static final byte[] SEPARATOR = MessageLibrary.toBytes("/");
   private static final byte[] DATE = MessageLibrary.toBytes("date");
   private static final byte[] KEY = MessageLibrary.toBytes("key");
-  private static Map<String, JEDatabase> databaseMap = new WeakHashMap<String, JEDatabase>();
+  private static final byte[] LEGACY_NONCES = MessageLibrary.toBytes("users/nonces/");
+  /**
+   * Maximum number of nonces deleted or migrated in one transaction so that clearing does not hold
+   * locks for long.
+   */
+  private static final int NONCE_BATCH = 1000;
+  private static final byte DIGEST_NODE = 0;
+  private static final byte DIGEST_LEAF = 1;
+  private static final CheckpointConfig FORCE_CHECKPOINT = new CheckpointConfig();
+  static {
+    FORCE_CHECKPOINT.setForce(true);
+  }
+  /**
+   * The open databases keyed by the absolute path of their directory, each stays open until
+   * {@link #close()} as opening an environment runs recovery.
+   */
+  private static final ConcurrentMap<String, JEDatabase> databases =
+      new ConcurrentHashMap<String, JEDatabase>();
+  private static Thread shutdownHook = null;
 
   /**
-   * Get an instance of a JEDatabase for a particular directory, if we already have a valid
+   * Get an instance of a JEDatabase for a particular directory, if we already have an open
    * JEDatabase for that directory return that instead of creating a new one
    * 
    * @param dataDirectory
    * @return a JEDatabase for that directory
    */
   public static JEDatabase getInstance(File dataDirectory) {
+    return getInstance(dataDirectory, new JEDatabaseConfig());
+  }
+
+  /**
+   * As {@link #getInstance(File)}, {@code config} is only used if a new JEDatabase is created.
+   * 
+   * @param dataDirectory
+   * @param config
+   * @return a JEDatabase for that directory
+   */
+  public static JEDatabase getInstance(File dataDirectory, JEDatabaseConfig config) {
     String key = dataDirectory.getAbsolutePath();
-    JEDatabase instance = databaseMap.get(key);
-    if (instance != null) {
-      try {
-        instance.env.sync();
-        return instance;
-      } catch (DatabaseException e) {
-        // No longer valid
-        instance.env.close();
-        databaseMap.remove(key);
+    JEDatabase instance = databases.get(key);
+    // isValid only reads a flag, it does not touch the log
+    if (instance != null && instance.env.isValid()) {
+      return instance;
+    }
+    synchronized (JEDatabase.class) {
+      instance = databases.get(key);
+      if (instance != null) {
+        if (instance.env.isValid()) {
+          return instance;
+        }
+        // A failure has invalidated the environment, it must be reopened to run recovery
+        instance.close();
+      }
+      instance = new JEDatabase(dataDirectory, config);
+      databases.put(key, instance);
+      if (shutdownHook == null) {
+        shutdownHook = new Thread("JEDatabase shutdown") {
+          @Override
+          public void run() {
+            closeAll();
+          }
+        };
+        Runtime.getRuntime().addShutdownHook(shutdownHook);
       }
+      return instance;
+    }
+  }
+
+  /**
+   * Close every open JEDatabase, which happens on shutdown anyway
+   */
+  public static void closeAll() {
+    for (JEDatabase database : databases.values()) {
+      database.close();
     }
-    instance = new JEDatabase(dataDirectory);
-    databaseMap.put(key, instance);
-    return instance;
   }
 
-  private JEDatabase(File dataDirectory) {
+  private JEDatabase(File dataDirectory, JEDatabaseConfig config) {
     if (!dataDirectory.exists()) {
       throw new IllegalArgumentException("Data directory must exist: " + dataDirectory);
     }
@@ -97,13 +212,318 @@ public class JEDatabase extends AbstractDatabase {
     final EnvironmentConfig envConfig = new EnvironmentConfig();
     envConfig.setTransactional(true);
     envConfig.setAllowCreate(true);
+    if (config.getCacheSize() > 0) {
+      envConfig.setCacheSize(config.getCacheSize());
+    }
+    final long checkpointInterval = config.getCheckpointInterval(TimeUnit.MILLISECONDS);
+    if (checkpointInterval > 0) {
+      envConfig.setConfigParam(EnvironmentConfig.ENV_RUN_CHECKPOINTER, "false");
+    }
+    final long cleanerInterval = config.getCleanerInterval(TimeUnit.MILLISECONDS);
+    if (cleanerInterval > 0) {
+      envConfig.setConfigParam(EnvironmentConfig.ENV_RUN_CLEANER, "false");
+    }
 
+    directory = dataDirectory.getAbsolutePath();
     env = new Environment(dataDirectory, envConfig);
-    final DatabaseConfig dbConfig = new DatabaseConfig();
-    dbConfig.setTransactional(true);
-    dbConfig.setAllowCreate(true);
-    dbConfig.setSortedDuplicates(true);
-    db = env.openDatabase(null, "nigori", dbConfig);
+    nonceTransactions = config.getNonceSync().toTransactionConfig();
+    recordTransactions = config.getRecordSync().toTransactionConfig();
+    userTransactions = config.getUserSync().toTransactionConfig();
+    users = env.openDatabase(null, "users", makeConfig(CacheMode.KEEP_HOT, false));
+    // Only ever written, putNoOverwrite finds a used nonce without reading its entry back
+    nonces = env.openDatabase(null, "nonces", makeConfig(CacheMode.EVICT_LN, false));
+    // Membership entries are empty so the leaf nodes hold nothing worth caching, key only reads are
+    // answered from the bottom internal nodes which stay in the cache
+    indices = env.openDatabase(null, "indices", makeConfig(CacheMode.EVICT_LN, true));
+    values = env.openDatabase(null, "values", makeConfig(CacheMode.EVICT_LN, true));
+
+    final DatabaseConfig transactionalConfig = new DatabaseConfig();
+    transactionalConfig.setTransactional(true);
+    transactionalConfig.setAllowCreate(true);
+    counters = env.openDatabase(null, "counters", transactionalConfig);
+    changes = env.openDatabase(null, "changes", transactionalConfig);
+    digests = env.openDatabase(null, "digests", transactionalConfig);
+    if (env.getDatabaseNames().contains(LEGACY_DATABASE)) {
+      migrateLegacyLayout();
+    }
+
+    if (config.needsFlush()) {
+      // Bounds how much is lost when the machine crashes to the commits of one interval
+      scheduleWithFixedDelay(new Runnable() {
+        @Override
+        public void run() {
+          try {
+            env.flushLog(true);
+          } catch (DatabaseException e) {
+            severe("Exception while flushing log", e);
+          }
+        }
+      }, config.getFlushInterval(TimeUnit.MILLISECONDS), TimeUnit.MILLISECONDS);
+    }
+    if (checkpointInterval > 0) {
+      scheduleWithFixedDelay(new Runnable() {
+        @Override
+        public void run() {
+          try {
+            env.checkpoint(FORCE_CHECKPOINT);
+          } catch (DatabaseException e) {
+            severe("Exception while checkpointing", e);
+          }
+        }
+      }, checkpointInterval, TimeUnit.MILLISECONDS);
+    }
+    if (cleanerInterval > 0) {
+      scheduleWithFixedDelay(new Runnable() {
+        @Override
+        public void run() {
+          try {
+            cleanLog();
+          } catch (DatabaseException e) {
+            severe("Exception while cleaning log", e);
+          }
+        }
+      }, cleanerInterval, TimeUnit.MILLISECONDS);
+    }
+  }
+
+  /**
+   * Clean log files until none are worth cleaning, then checkpoint so that the cleaned files can
+   * be deleted.
+   * 
+   * @return the number of log files cleaned
+   */
+  int cleanLog() {
+    int cleaned = 0;
+    for (int files = env.cleanLog(); files > 0; files = env.cleanLog()) {
+      cleaned += files;
+    }
+    if (cleaned > 0) {
+      env.checkpoint(FORCE_CHECKPOINT);
+    }
+    return cleaned;
+  }
+
+  /**
+   * Stop the background tasks, close the databases and close the environment, which checkpoints
+   * it so that the next open recovers quickly. The next {@link #getInstance(File)} for the
+   * directory opens it again. Closing a closed database does nothing.
+   */
+  public void close() {
+    synchronized (JEDatabase.class) {
+      if (closed) {
+        return;
+      }
+      closed = true;
+      databases.remove(directory, this);
+      shutdownScheduler();
+      try {
+        for (com.sleepycat.je.Database database : new com.sleepycat.je.Database[] {users,
+            indices, values, nonces, counters, changes, digests}) {
+          database.close();
+        }
+      } catch (DatabaseException e) {
+        severe("Exception while closing databases", e);
+      }
+      try {
+        env.close();
+      } catch (DatabaseException e) {
+        severe("Exception while closing environment", e);
+      }
+    }
+  }
+
+  /**
+   * None of the databases use duplicates, every entry has a key of its own so that lookups are
+   * plain gets and listings are range scans.
+   * 
+   * @param keyPrefixing whether keys in the database share long prefixes, such as the publicHash,
+   *          which are worth storing only once per B-tree node
+   */
+  static DatabaseConfig makeConfig(CacheMode cacheMode, boolean keyPrefixing) {
+    final DatabaseConfig config = new DatabaseConfig();
+    config.setTransactional(true);
+    config.setAllowCreate(true);
+    config.setSortedDuplicates(false);
+    config.setKeyPrefixing(keyPrefixing);
+    config.setCacheMode(cacheMode);
+    return config;
+  }
+
+  /**
+   * Everything used to be stored as entries and duplicates in a single database told apart by ASCII
+   * prefixes. Move each user's data into the purpose specific databases, one user per transaction
+   * so that an interrupted migration carries on where it stopped when the database is next opened,
+   * then remove the old database along with anything it still holds which belonged to no user.
+   */
+  private void migrateLegacyLayout() {
+    final DatabaseConfig legacyConfig = new DatabaseConfig();
+    legacyConfig.setTransactional(true);
+    legacyConfig.setSortedDuplicates(true);
+    com.sleepycat.je.Database legacy = env.openDatabase(null, LEGACY_DATABASE, legacyConfig);
+    int migrated = 0;
+    try {
+      migrateNonces(legacy);
+      DatabaseEntry publicHash = new DatabaseEntry();
+      while (legacy.get(null, USERS, publicHash, null) == OperationStatus.SUCCESS) {
+        Transaction txn = env.beginTransaction(null, null);
+        try {
+          migrateUser(legacy, txn, publicHash.getData());
+          txn.commit();
+        } catch (RuntimeException e) {
+          txn.abort();
+          throw e;
+        }
+        ++migrated;
+      }
+    } finally {
+      legacy.close();
+    }
+    env.removeDatabase(null, LEGACY_DATABASE);
+    log.info("Migrated " + migrated + " users from the " + LEGACY_DATABASE + " database");
+  }
+
+  private void migrateUser(com.sleepycat.je.Database legacy, Transaction txn, byte[] publicHash) {
+    DatabaseEntry regDateKey =
+        new DatabaseEntry(makeBytes(USERS.getData(), SEPARATOR, publicHash, SEPARATOR, DATE));
+    DatabaseEntry publicKeyKey =
+        new DatabaseEntry(makeBytes(USERS.getData(), SEPARATOR, publicHash, SEPARATOR, KEY));
+    DatabaseEntry regTime = new DatabaseEntry();
+    DatabaseEntry publicKey = new DatabaseEntry();
+    Cursor cursor = legacy.openCursor(txn, null);
+    try {
+      if (legacy.get(txn, regDateKey, regTime, null) == OperationStatus.SUCCESS
+          && legacy.get(txn, publicKeyKey, publicKey, null) == OperationStatus.SUCCESS) {
+        int id = allocateUserId(txn);
+        users.put(txn, new DatabaseEntry(publicHash), makeUserValue(id, Util.bin2long(regTime
+            .getData()), publicKey.getData()));
+        byte[] prefix = makeUserPrefix(id);
+        // Changes were already in their own database but keyed by publicHash. So were digests, but
+        // only for records stored since they were introduced, so the tree is rebuilt from every
+        // migrated revision instead.
+        byte[] hashPrefix = makeBytes(Util.int2bin(publicHash.length), publicHash);
+        movePrefix(changes, txn, hashPrefix, prefix);
+        deletePrefix(digests, txn, hashPrefix);
+        byte[] stores = makeBytes(STORES, publicHash);
+        DatabaseEntry storesKey = new DatabaseEntry(stores);
+        DatabaseEntry index = new DatabaseEntry();
+        for (OperationStatus status = cursor.getSearchKey(storesKey, index, null); status == OperationStatus.SUCCESS; status =
+            cursor.getNextDup(storesKey, index, null)) {
+          indices.put(txn, makeIndexKey(prefix, index.getData()), new DatabaseEntry(new byte[0]));
+          migrateRevisions(legacy, txn, prefix, stores, index.getData());
+          cursor.delete();
+        }
+      }
+      legacy.delete(txn, regDateKey);
+      legacy.delete(txn, publicKeyKey);
+      // Deleting the key would delete every user, so delete just this duplicate
+      if (cursor.getSearchBoth(USERS, new DatabaseEntry(publicHash), null) == OperationStatus.SUCCESS) {
+        cursor.delete();
+      }
+    } finally {
+      cursor.close();
+    }
+  }
+
+  /**
+   * Rekey all the entries in {@code database} with keys starting with {@code from} to start with
+   * {@code to} instead
+   */
+  private static void movePrefix(com.sleepycat.je.Database database, Transaction txn, byte[] from,
+      byte[] to) {
+    Cursor cursor = database.openCursor(txn, null);
+    try {
+      DatabaseEntry key = new DatabaseEntry(from);
+      DatabaseEntry value = new DatabaseEntry();
+      for (OperationStatus status = cursor.getSearchKeyRange(key, value, null); status == OperationStatus.SUCCESS
+          && startsWith(key.getData(), from); status = cursor.getNext(key, value, null)) {
+        byte[] moved =
+            new KeyBuilder(to.length + key.getSize() - from.length).put(to).put(
+                Arrays.copyOfRange(key.getData(), from.length, key.getSize())).toBytes();
+        database.put(txn, new DatabaseEntry(moved), value);
+        cursor.delete();
+      }
+    } finally {
+      cursor.close();
+    }
+  }
+
+  private void migrateRevisions(com.sleepycat.je.Database legacy, Transaction txn, byte[] prefix,
+      byte[] stores, byte[] index) {
+    byte[] lookup = makeBytes(stores, SEPARATOR, index);
+    byte[] recordPrefix = makeRecordPrefix(prefix, index);
+    Cursor cursor = legacy.openCursor(txn, null);
+    try {
+      DatabaseEntry lookupKey = new DatabaseEntry(lookup);
+      DatabaseEntry revision = new DatabaseEntry();
+      DatabaseEntry value = new DatabaseEntry();
+      for (OperationStatus status = cursor.getSearchKey(lookupKey, revision, null); status == OperationStatus.SUCCESS; status =
+          cursor.getNextDup(lookupKey, revision, null)) {
+        DatabaseEntry valueKey = new DatabaseEntry(makeBytes(lookup, SEPARATOR, revision.getData()));
+        if (legacy.get(txn, valueKey, value, null) == OperationStatus.SUCCESS) {
+          DatabaseEntry revisionKey = makeRevisionKey(recordPrefix, revision.getData());
+          if (values.putNoOverwrite(txn, revisionKey, value) == OperationStatus.SUCCESS
+              && !updateDigest(txn, prefix, index, revision.getData(), true)) {
+            throw new IllegalStateException("Could not add migrated revision to digest tree");
+          }
+          legacy.delete(txn, valueKey);
+        }
+        cursor.delete();
+      }
+    } finally {
+      cursor.close();
+    }
+  }
+
+  /**
+   * Nonces used to be stored as duplicates of users/nonces/&lt;publicHash&gt; in the legacy database
+   * which could not be cleared, move any which are still recent into the nonces database and delete
+   * the rest.
+   */
+  private void migrateNonces(com.sleepycat.je.Database legacy) {
+    DatabaseEntry key = new DatabaseEntry(LEGACY_NONCES);
+    DatabaseEntry token = new DatabaseEntry();
+    boolean more = true;
+    int migrated = 0;
+    while (more) {
+      Transaction txn = env.beginTransaction(null, null);
+      Cursor cursor = legacy.openCursor(txn, null);
+      try {
+        OperationStatus status = cursor.getSearchKeyRange(key, token, null);
+        int batch = 0;
+        while (status == OperationStatus.SUCCESS && startsWith(key.getData(), LEGACY_NONCES)
+            && batch < NONCE_BATCH) {
+          byte[] publicHash = new byte[key.getSize() - LEGACY_NONCES.length];
+          System.arraycopy(key.getData(), LEGACY_NONCES.length, publicHash, 0, publicHash.length);
+          Nonce nonce = new Nonce(token.getData());
+          if (nonce.isRecent()) {
+            nonces.put(txn, makeNonceKey(nonce, publicHash), new DatabaseEntry(new byte[0]));
+            ++migrated;
+          }
+          cursor.delete();
+          ++batch;
+          status = cursor.getNext(key, token, null);
+        }
+        more = batch == NONCE_BATCH;
+      } finally {
+        cursor.close();
+      }
+      txn.commit();
+    }
+    if (migrated > 0) {
+      log.info("Migrated " + migrated + " nonces");
+    }
+  }
+
+  private static boolean startsWith(byte[] bytes, byte[] prefix) {
+    if (bytes.length < prefix.length) {
+      return false;
+    }
+    for (int i = 0; i < prefix.length; ++i) {
+      if (bytes[i] != prefix[i]) {
+        return false;
+      }
+    }
+    return true;
   }
 
   @Override
@@ -111,60 +531,72 @@ public class JEDatabase extends AbstractDatabase {
     return JUser.Factory.getInstance();
   }
 
-  private byte[] makeBytes(byte[]... bytes){
+  private static byte[] makeBytes(byte[]... bytes){
     int length = 0;
     for (byte[] b : bytes){
       length += b.length;
     }
     byte[] answer = new byte[length];
-    int index = 0;
-    for (byte[] ba : bytes){
-      for (byte b : ba){
-        answer[index] = b;
-        ++index;
-      }
+    int offset = 0;
+    for (byte[] b : bytes){
+      System.arraycopy(b, 0, answer, offset, b.length);
+      offset += b.length;
     }
     return answer;
   }
-  private DatabaseEntry makeRegDateKey(byte[] publicHash){
-    return new DatabaseEntry(makeBytes(USERS.getData(), SEPARATOR, publicHash, SEPARATOR, DATE));
+
+  /**
+   * Users are stored as (id, regTime, publicKey)
+   */
+  private static DatabaseEntry makeUserValue(int id, long regTime, byte[] publicKey) {
+    byte[] value = new byte[USER_KEY_OFFSET + publicKey.length];
+    Util.int2bin(value, 0, id);
+    Util.long2bin(value, Util.INT, regTime);
+    System.arraycopy(publicKey, 0, value, USER_KEY_OFFSET, publicKey.length);
+    return new DatabaseEntry(value);
   }
-  private DatabaseEntry makePublicKeyKey(byte[] publicHash){
-    return new DatabaseEntry(makeBytes(USERS.getData(), SEPARATOR, publicHash, SEPARATOR, KEY));
+
+  /**
+   * Take the next user id in {@code txn}, which holds a lock on it until it commits so that
+   * concurrent registrations queue rather than taking the same id.
+   * 
+   * @return the id, or -1 if it could not be taken in which case {@code txn} must be aborted
+   */
+  private int allocateUserId(Transaction txn) {
+    DatabaseEntry value = new DatabaseEntry();
+    int id = 0;
+    if (users.get(txn, NEXT_USER_ID, value, LockMode.RMW) == OperationStatus.SUCCESS) {
+      id = Util.bin2int(value.getData(), 0);
+    }
+    OperationStatus status = users.put(txn, NEXT_USER_ID, new DatabaseEntry(Util.int2bin(id + 1)));
+    if (status != OperationStatus.SUCCESS) {
+      log.severe("Could not allocate user id: " + status.toString());
+      return -1;
+    }
+    return id;
   }
+
   @Override
   public boolean addUser(byte[] publicKey, byte[] publicHash) {
-    
     Transaction txn = null;
     try {
-      txn = env.beginTransaction(null, null);
-      if (haveUser(txn, publicHash)) {
+      txn = env.beginTransaction(null, userTransactions);
+      DatabaseEntry user = new DatabaseEntry();
+      user.setPartial(0, 0, true);
+      if (users.get(txn, new DatabaseEntry(publicHash), user, null) == OperationStatus.SUCCESS) {
         txn.commit();
         return false;// User already exists
       }
-
-      DatabaseEntry ph = new DatabaseEntry(publicHash);
-      OperationStatus res = db.put(txn, USERS, ph);
-      if (res != OperationStatus.SUCCESS) {
-        log.severe("Could not add ph: " + res.toString());
-        txn.abort();
-        return false;
-      }
-
-      DatabaseEntry regDateKey = makeRegDateKey(publicHash);
-      DatabaseEntry regTime = new DatabaseEntry(Util.long2bin(System.currentTimeMillis()));
-      res = db.put(txn, regDateKey, regTime);
-      if (res != OperationStatus.SUCCESS) {
-        log.severe("Could not add regTime: " + res.toString());
+      int id = allocateUserId(txn);
+      if (id < 0) {
         txn.abort();
         return false;
       }
-
-      DatabaseEntry regPublicKeyKey = makePublicKeyKey(publicHash);
-      DatabaseEntry regPublicKey = new DatabaseEntry(publicKey);
-      res = db.put(txn, regPublicKeyKey, regPublicKey);
+      OperationStatus res =
+          users.putNoOverwrite(txn, new DatabaseEntry(publicHash), makeUserValue(id, System
+              .currentTimeMillis(), publicKey));
       if (res != OperationStatus.SUCCESS) {
-        log.severe("Could not add publicKey: " + res.toString());
+        log.severe("Could not add user: " + res.toString());
         txn.abort();
         return false;
       }
@@ -183,80 +615,62 @@ public class JEDatabase extends AbstractDatabase {
     }
   }
 
-  private boolean haveUser(Transaction txn, byte[] existingUser) {
+  @Override
+  public boolean haveUser(byte[] existingUser) {
     try {
-      OperationStatus status =
-          db.get(txn, makeRegDateKey(existingUser), new DatabaseEntry(), LockMode.READ_COMMITTED);
-      if (status == OperationStatus.SUCCESS) {
-        return true;
-      } else {
-        return false;
-      }
+      DatabaseEntry user = new DatabaseEntry();
+      user.setPartial(0, 0, true);
+      return users.get(null, new DatabaseEntry(existingUser), user, LockMode.READ_COMMITTED)
+          == OperationStatus.SUCCESS;
     } catch (DatabaseException e) {
       severe("Exception while checking for user", e);
       return false;
     }
   }
 
-  @Override
-  public boolean haveUser(byte[] existingUser) {
-    return haveUser(null, existingUser);
-  }
-
   @Override
   public boolean deleteUser(User existingUser) {
+    Transaction txn = null;
     try {
-      final Transaction txn = env.beginTransaction(null, null);
-      byte[] publicHash = existingUser.getPublicHash();
-      db.delete(txn, makeRegDateKey(publicHash));
-      db.delete(txn, makePublicKeyKey(publicHash));
-      Cursor cursor = db.openCursor(txn, null);
-      try {
-        OperationStatus status =
-            cursor.getSearchBoth(USERS, new DatabaseEntry(publicHash), null);
-        if (status == OperationStatus.SUCCESS) {
-          cursor.delete();
-          deleteUserData(existingUser, txn);
-          return true;
-        } else {
-          return false;
+      txn = env.beginTransaction(null, userTransactions);
+      DatabaseEntry publicHash = new DatabaseEntry(existingUser.getPublicHash());
+      DatabaseEntry user = new DatabaseEntry();
+      boolean deleted = false;
+      if (users.get(txn, publicHash, user, LockMode.RMW) == OperationStatus.SUCCESS) {
+        deleted = users.delete(txn, publicHash) == OperationStatus.SUCCESS;
+        if (deleted) {
+          deleteUserData(makeUserPrefix(Util.bin2int(user.getData(), 0)), txn);
         }
-      } finally {
-        cursor.close();
-        txn.commit();
       }
+      txn.commit();
+      return deleted;
     } catch (DatabaseException e) {
       severe("Exception while deleting user", e);
+      try {
+        if (txn != null)
+          txn.abort();
+      } catch (DatabaseException e1) {
+        // we already had a failure, ignore this one.
+      }
       return false;
     }
   }
 
-  private void deleteUserData(User user, Transaction txn) {
-    Cursor cursor = db.openCursor(txn, null);
-    try {
-      DatabaseEntry lookup = new DatabaseEntry();
-      DatabaseEntry storesKey = makeStoresKey(user);
-      for (OperationStatus lookupStatus = cursor.getSearchKey(storesKey, lookup, null); OperationStatus.SUCCESS == lookupStatus;
-          lookupStatus = cursor.getNextDup(storesKey, lookup, null)) {
-        deleteRevisions(user, lookup.getData(), txn);
-        cursor.delete();
-      }
-    } finally {
-      cursor.close();
-    }
+  private void deleteUserData(byte[] prefix, Transaction txn) {
+    deletePrefix(indices, txn, prefix);
+    deletePrefix(values, txn, prefix);
+    deletePrefix(changes, txn, prefix);
+    deletePrefix(digests, txn, prefix);
   }
 
   @Override
   public byte[] getPublicKey(byte[] publicHash) throws UserNotFoundException {
     try {
-      DatabaseEntry regTime = new DatabaseEntry();
-      OperationStatus status = db.get(null, makeRegDateKey(publicHash), regTime, LockMode.READ_COMMITTED);
-      if (status == OperationStatus.SUCCESS){
-        DatabaseEntry publicKey = new DatabaseEntry();
-        status = db.get(null, makePublicKeyKey(publicHash), publicKey, LockMode.READ_COMMITTED);
-        if (status == OperationStatus.SUCCESS) {
-          return publicKey.getData();
-        }
+      DatabaseEntry user = new DatabaseEntry();
+      OperationStatus status =
+          users.get(null, new DatabaseEntry(publicHash), user, LockMode.READ_COMMITTED);
+      if (status == OperationStatus.SUCCESS) {
+        return Arrays.copyOfRange(user.getData(), USER_KEY_OFFSET, user.getSize());
       }
       throw new UserNotFoundException();
     } catch (DatabaseException e) {
@@ -268,14 +682,9 @@ public class JEDatabase extends AbstractDatabase {
   @Override
   public User getUser(byte[] publicHash) throws UserNotFoundException {
     try {
-      DatabaseEntry regTime = new DatabaseEntry();
-      OperationStatus status = db.get(null, makeRegDateKey(publicHash), regTime, LockMode.READ_COMMITTED);
-      if (status == OperationStatus.SUCCESS){
-        DatabaseEntry publicKey = new DatabaseEntry();
-        status = db.get(null, makePublicKeyKey(publicHash), publicKey, LockMode.READ_COMMITTED);
-        if (status == OperationStatus.SUCCESS) {
-          return new JUser(publicKey.getData(), publicHash, new Date(Util.bin2long(regTime.getData())));
-        }
+      User user = readUser(publicHash);
+      if (user != null) {
+        return user;
       }
       throw new UserNotFoundException();
     } catch (DatabaseException e) {
@@ -284,30 +693,70 @@ public class JEDatabase extends AbstractDatabase {
     }
   }
 
-  private DatabaseEntry makeNoncesKey(byte[] publicKey) {
-    return new DatabaseEntry(makeBytes("users/nonces/".getBytes(), publicKey));
+  @Override
+  public User resolveUser(byte[] publicHash) {
+    try {
+      return readUser(publicHash);
+    } catch (DatabaseException e) {
+      severe("Exception while resolving user", e);
+      return null;
+    }
+  }
+
+  /**
+   * @param publicHash
+   * @return the user or null if they do not exist
+   */
+  private User readUser(byte[] publicHash) throws DatabaseException {
+    DatabaseEntry user = new DatabaseEntry();
+    OperationStatus status =
+        users.get(null, new DatabaseEntry(publicHash), user, LockMode.READ_COMMITTED);
+    if (status != OperationStatus.SUCCESS) {
+      return null;
+    }
+    byte[] value = user.getData();
+    return new JEUser(Arrays.copyOfRange(value, USER_KEY_OFFSET, value.length), publicHash,
+        new Date(Util.bin2long(value, Util.INT)), Util.bin2int(value, 0));
+  }
+
+  /**
+   * sinceEpoch first so that keys are in time order, recent nonces have positive sinceEpoch so the
+   * big endian encoding sorts correctly.
+   */
+  private DatabaseEntry makeNonceKey(Nonce nonce, byte[] publicHash) {
+    byte[] key = new byte[Util.INT + publicHash.length + Util.INT];
+    Util.int2bin(key, 0, nonce.getSinceEpoch());
+    System.arraycopy(publicHash, 0, key, Util.INT, publicHash.length);
+    Util.int2bin(key, Util.INT + publicHash.length, nonce.getRandon());
+    return new DatabaseEntry(key);
+  }
+
+  /**
+   * @return the filter which counts the nonces checked, possible replays and false positives
+   */
+  public NonceBloomFilter getNonceFilter() {
+    return nonceFilter;
   }
 
   @Override
-  public boolean checkAndAddNonce(Nonce nonce, byte[] publicKey) {
+  public boolean checkAndAddNonce(Nonce nonce, byte[] publicHash) {
+    if (!nonce.isRecent()) {
+      return false;
+    }
+    DatabaseEntry nonceKey = makeNonceKey(nonce, publicHash);
+    DatabaseEntry empty = new DatabaseEntry(new byte[0]);
     Transaction txn = null;
     try {
-      txn = env.beginTransaction(null, null);
-      DatabaseEntry noncesKey = makeNoncesKey(publicKey);
-      DatabaseEntry nonceValue = new DatabaseEntry(nonce.toToken());
-      OperationStatus status = db.getSearchBoth(txn, noncesKey, nonceValue, null);
-      if (status == OperationStatus.SUCCESS) {
-        txn.commit();
-        return false;// Nonce already used
-      }
-      status = db.put(txn, noncesKey, nonceValue);
-      if (status == OperationStatus.SUCCESS) {
-        txn.commit();
-        return true;
-      } else {
-        txn.abort();
-        return false;
+      boolean seen = nonceFilter.mightContainAndAdd(nonce, publicHash);
+      // putNoOverwrite refuses a used nonce whatever the filter says, including nonces stored
+      // before a restart and concurrent uses, so a possible hit needs no lookup of its own
+      txn = env.beginTransaction(null, nonceTransactions);
+      boolean added = nonces.putNoOverwrite(txn, nonceKey, empty) == OperationStatus.SUCCESS;
+      txn.commit();
+      if (added && seen) {
+        nonceFilter.recordFalsePositive();
       }
+      return added;
     } catch (DatabaseException e) {
       severe("Exception while checking nonce for user", e);
       try {
@@ -320,47 +769,73 @@ public class JEDatabase extends AbstractDatabase {
     }
   }
 
-  private byte[] makeLookupBytes(User user, byte[] lookup){
-    return makeBytes("stores/".getBytes(), user.getPublicHash(), SEPARATOR, lookup);
+  /**
+   * @return the prefix of all of {@code user}'s keys, or null if they are not registered
+   */
+  private byte[] makeUserPrefix(Transaction txn, User user) {
+    if (user instanceof JEUser) {
+      return makeUserPrefix(((JEUser) user).getId());
+    }
+    DatabaseEntry id = new DatabaseEntry();
+    id.setPartial(0, Util.INT, true);
+    OperationStatus status =
+        users.get(txn, new DatabaseEntry(user.getPublicHash()), id, LockMode.READ_COMMITTED);
+    if (status != OperationStatus.SUCCESS) {
+      return null;
+    }
+    return makeUserPrefix(Util.bin2int(id.getData(), 0));
   }
 
-  private DatabaseEntry makeValueKey(byte[] lookup, byte[] revision){
-    return new DatabaseEntry(makeBytes(lookup, SEPARATOR, revision));
+  /**
+   * As {@link #makeUserPrefix(Transaction, User)} for a write, always reading the user so that a
+   * cached {@link JEUser} for a user who has since been deleted, or deleted and registered again
+   * under a new id, can not write under an id which no longer belongs to them. The read lock is
+   * held until {@code txn} ends so that {@link #deleteUser(User)} waits for the write to finish.
+   * 
+   * @return the prefix or null if the user is not registered
+   */
+  private byte[] lockUserPrefix(Transaction txn, User user) {
+    DatabaseEntry id = new DatabaseEntry();
+    id.setPartial(0, Util.INT, true);
+    OperationStatus status = users.get(txn, new DatabaseEntry(user.getPublicHash()), id, null);
+    if (status != OperationStatus.SUCCESS) {
+      return null;
+    }
+    int storedId = Util.bin2int(id.getData(), 0);
+    if (user instanceof JEUser && ((JEUser) user).getId() != storedId) {
+      return null;
+    }
+    return makeUserPrefix(storedId);
   }
 
-  @Override
-  public Collection<RevValue> getRecord(User user, byte[] key) throws IOException {
-    Transaction txn = null;
-    try {
-      txn = env.beginTransaction(null, null);
-      OperationStatus lookupExists = db.getSearchBoth(txn, makeStoresKey(user), new DatabaseEntry(key), null);
-      if (OperationStatus.SUCCESS != lookupExists){
-        txn.commit();
-        return null;
-      }
-      Collection<RevValue> collection = new ArrayList<RevValue>();
-      Cursor cursor = db.openCursor(txn, null);
-      try {
-        byte[] lookup = makeLookupBytes(user, key);
-        DatabaseEntry lookupKey = new DatabaseEntry(lookup);
-
-        DatabaseEntry revision = new DatabaseEntry();
-        DatabaseEntry value = new DatabaseEntry();
-        DatabaseEntry revisionKey;
-        OperationStatus status = cursor.getSearchKey(lookupKey, revision, null);
-        for (; OperationStatus.SUCCESS == status; status =
-            cursor.getNextDup(lookupKey, revision, null)) {
-          revisionKey = makeValueKey(lookup, revision.getData());
-          OperationStatus valStatus = db.get(txn, revisionKey, value, null);
-          if (OperationStatus.SUCCESS == valStatus) {
-            collection.add(new RevValue(revision.getData(), value.getData()));
-          } else {
-            // TODO(drt24) revision exists but value does not.
-          }
-        }
-      } finally {
-        cursor.close();
-      }
+  static byte[] makeUserPrefix(int id) {
+    return new KeyBuilder(KeyBuilder.varintSize(id)).putVarint(id).toBytes();
+  }
+
+  static DatabaseEntry makeIndexKey(byte[] prefix, byte[] index) {
+    return new KeyBuilder(prefix.length + index.length).put(prefix).put(index).toEntry();
+  }
+
+  /**
+   * @return the prefix of the keys of all the revisions of {@code index}, which is length prefixed
+   *         so that it is not also the prefix of any longer index
+   */
+  static byte[] makeRecordPrefix(byte[] prefix, byte[] index) {
+    return new KeyBuilder(prefix.length + KeyBuilder.varintSize(index.length) + index.length).put(
+        prefix).putWithLength(index).toBytes();
+  }
+
+  static DatabaseEntry makeRevisionKey(byte[] recordPrefix, byte[] revision) {
+    return new KeyBuilder(recordPrefix.length + revision.length).put(recordPrefix).put(revision)
+        .toEntry();
+  }
+
+  @Override
+  public Collection<RevValue> getRecord(User user, byte[] key) throws IOException {
+    Transaction txn = null;
+    try {
+      txn = env.beginTransaction(null, null);
+      Collection<RevValue> collection = getRecord(txn, user, key);
       txn.commit();
       return collection;
 
@@ -376,11 +851,79 @@ public class JEDatabase extends AbstractDatabase {
     }
   }
 
+  private Collection<RevValue> getRecord(Transaction txn, User user, byte[] key) {
+    byte[] prefix = makeUserPrefix(txn, user);
+    if (prefix == null) {
+      return null;
+    }
+    List<RevValue> record = scanRecord(txn, makeRecordPrefix(prefix, key), false);
+    if (record.isEmpty()) {
+      return null;
+    }
+    return record;
+  }
+
+  /**
+   * Read the revisions of a record with one cursor positioned at the start of its keys in
+   * {@link #values} and stepped on until it leaves them, rather than looking up each revision.
+   * 
+   * @param keyOnly if true only the revisions are read, without fetching their values
+   * @return the revisions, with null values if {@code keyOnly}
+   */
+  private List<RevValue> scanRecord(Transaction txn, byte[] recordPrefix, boolean keyOnly) {
+    List<RevValue> record = new ArrayList<RevValue>();
+    Cursor cursor = values.openCursor(txn, null);
+    try {
+      DatabaseEntry revisionKey = new DatabaseEntry(recordPrefix);
+      DatabaseEntry value = new DatabaseEntry();
+      if (keyOnly) {
+        value.setPartial(0, 0, true);
+      }
+      for (OperationStatus status = cursor.getSearchKeyRange(revisionKey, value, null); OperationStatus.SUCCESS == status
+          && startsWith(revisionKey.getData(), recordPrefix); status =
+          cursor.getNext(revisionKey, value, null)) {
+        record.add(new RevValue(Arrays.copyOfRange(revisionKey.getData(), recordPrefix.length,
+            revisionKey.getSize()), keyOnly ? null : value.getData()));
+      }
+    } finally {
+      cursor.close();
+    }
+    return record;
+  }
+
+  @Override
+  public List<Collection<RevValue>> getRecords(User user, List<byte[]> keys) throws IOException {
+    Transaction txn = null;
+    try {
+      txn = env.beginTransaction(null, null);
+      List<Collection<RevValue>> records = new ArrayList<Collection<RevValue>>(keys.size());
+      for (byte[] key : keys) {
+        records.add(getRecord(txn, user, key));
+      }
+      txn.commit();
+      return records;
+    } catch (DatabaseException e) {
+      severe("Exception while getting records", e);
+      try {
+        if (txn != null)
+          txn.abort();
+      } catch (DatabaseException e1) {
+        // we already had a failure, ignore this one.
+      }
+      throw new IOException(e);
+    }
+  }
+
   @Override
   public RevValue getRevision(User user, byte[] key, byte[] revision) throws IOException {
     try {
+      byte[] prefix = makeUserPrefix(null, user);
+      if (prefix == null) {
+        return null;
+      }
       DatabaseEntry value = new DatabaseEntry();
-      OperationStatus status = db.get(null, makeValueKey(makeLookupBytes(user, key), revision), value, null);
+      OperationStatus status =
+          values.get(null, makeRevisionKey(makeRecordPrefix(prefix, key), revision), value, null);
       if (OperationStatus.SUCCESS == status) {
         return new RevValue(revision, value.getData());
       }
@@ -397,13 +940,20 @@ public class JEDatabase extends AbstractDatabase {
     try {
       txn = env.beginTransaction(null, null);
       Collection<byte[]> indices = new ArrayList<byte[]>();
-      cursor = db.openCursor(txn, null);
+      byte[] prefix = makeUserPrefix(txn, user);
+      if (prefix == null) {
+        txn.commit();
+        return indices;
+      }
+      cursor = this.indices.openCursor(txn, null);
       try {
-        DatabaseEntry storeKey = makeStoresKey(user);
-        DatabaseEntry index = new DatabaseEntry();
-        for (OperationStatus indexStatus = cursor.getSearchKey(storeKey, index, null); OperationStatus.SUCCESS == indexStatus;
-            indexStatus = cursor.getNextDup(storeKey, index, null)) {
-          indices.add(index.getData());
+        DatabaseEntry indexKey = new DatabaseEntry(prefix);
+        DatabaseEntry empty = new DatabaseEntry();
+        empty.setPartial(0, 0, true);
+        for (OperationStatus indexStatus = cursor.getSearchKeyRange(indexKey, empty, null); OperationStatus.SUCCESS == indexStatus
+            && startsWith(indexKey.getData(), prefix); indexStatus =
+            cursor.getNext(indexKey, empty, null)) {
+          indices.add(Arrays.copyOfRange(indexKey.getData(), prefix.length, indexKey.getSize()));
         }
       } finally {
         cursor.close();
@@ -432,20 +982,17 @@ public class JEDatabase extends AbstractDatabase {
     Transaction txn = null;
     try {
       txn = env.beginTransaction(null, null);
-      DatabaseEntry lookup = new DatabaseEntry(makeLookupBytes(user, key));
-      DatabaseEntry revision = new DatabaseEntry();
-
-      Collection<byte[]> revisions = new ArrayList<byte[]>();
-      Cursor cursor = db.openCursor(txn, null);
-      try {
-        for (OperationStatus revisionStatus = cursor.getSearchKey(lookup, revision, null); OperationStatus.SUCCESS == revisionStatus;
-            revisionStatus = cursor.getNextDup(lookup, revision, null)) {
-          revisions.add(revision.getData());
-        }
-      } finally {
-        cursor.close();
+      byte[] prefix = makeUserPrefix(txn, user);
+      if (prefix == null) {
+        txn.commit();
+        return null;
       }
+      List<RevValue> record = scanRecord(txn, makeRecordPrefix(prefix, key), true);
       txn.commit();
+      Collection<byte[]> revisions = new ArrayList<byte[]>(record.size());
+      for (RevValue revision : record) {
+        revisions.add(revision.getRevision().getBytes());
+      }
       if (revisions.size() == 0){
         return null;
       }
@@ -462,51 +1009,44 @@ public class JEDatabase extends AbstractDatabase {
     }
   }
 
-  private DatabaseEntry makeStoresKey(User user) {
-    return new DatabaseEntry(makeBytes("stores/".getBytes(), user.getPublicHash()));
-  }
-
   @Override
   public boolean putRecord(User user, byte[] key, byte[] revision, byte[] data) {
     Transaction txn = null;
     try {
-      txn = env.beginTransaction(null, null);
-      DatabaseEntry storesKey = makeStoresKey(user);
-      DatabaseEntry lookup = new DatabaseEntry(key);
-      OperationStatus lookupExists = db.getSearchBoth(txn, storesKey, lookup, null);
-      if (OperationStatus.NOTFOUND == lookupExists){
-        // insert lookup
-        lookupExists = db.put(txn, storesKey, lookup);
-      }
-      if (OperationStatus.SUCCESS != lookupExists){
-        txn.abort();
-        return false;
-      }
-      byte[] lookupKey = makeLookupBytes(user,key);
-      DatabaseEntry lookupEntry = new DatabaseEntry(lookupKey);
-      DatabaseEntry revisionEntry = new DatabaseEntry(revision);
-      OperationStatus revisionExists = db.getSearchBoth(txn, lookupEntry, revisionEntry, null);
-      if (OperationStatus.SUCCESS == revisionExists){// already exists, abort
+      txn = env.beginTransaction(null, recordTransactions);
+      if (!putRecord(txn, user, key, revision, data)) {
         txn.abort();
         return false;
       }
-      // Does not exist, make it exist.
-      revisionExists = db.put(txn, lookupEntry, revisionEntry);
-      if (OperationStatus.SUCCESS != revisionExists){
-        txn.abort();
-        log.warning("Could not put revision: " + revisionExists.toString());
-        return false;
+      txn.commit();
+      return true;
+    } catch (DatabaseException e){
+      severe("Exception while putting record", e);
+      try {
+        if (txn != null)
+          txn.abort();
+      } catch (DatabaseException e1) {
+        // we already had a failure, ignore this one.
       }
-      OperationStatus putValue = db.put(txn, new DatabaseEntry(makeBytes(lookupKey,SEPARATOR,revision)), new DatabaseEntry(data));
-      if (OperationStatus.SUCCESS != putValue){
-        txn.abort();
-        log.warning("Could not put value: " + putValue.toString());
-        return false;
+      return false;
+    }
+  }
+
+  @Override
+  public boolean putRecords(User user, List<KeyRevValue> records) {
+    Transaction txn = null;
+    try {
+      txn = env.beginTransaction(null, recordTransactions);
+      for (KeyRevValue record : records) {
+        if (!putRecord(txn, user, record.getKey(), record.getRevision(), record.getValue())) {
+          txn.abort();
+          return false;
+        }
       }
       txn.commit();
       return true;
     } catch (DatabaseException e){
-      severe("Exception while putting record", e);
+      severe("Exception while putting records", e);
       try {
         if (txn != null)
           txn.abort();
@@ -517,55 +1057,414 @@ public class JEDatabase extends AbstractDatabase {
     }
   }
 
-  private boolean deleteRevisions(User user, byte[] key, Transaction txn) {
-    boolean didWork = false;
+  /**
+   * @return false if the record could not be stored, in which case {@code txn} must be aborted
+   */
+  private boolean putRecord(Transaction txn, User user, byte[] key, byte[] revision, byte[] data) {
+    byte[] prefix = lockUserPrefix(txn, user);
+    if (prefix == null) {
+      return false;
+    }
+    DatabaseEntry empty = new DatabaseEntry(new byte[0]);
+    OperationStatus indexStatus = indices.putNoOverwrite(txn, makeIndexKey(prefix, key), empty);
+    if (OperationStatus.SUCCESS != indexStatus && OperationStatus.KEYEXIST != indexStatus){
+      return false;
+    }
+    DatabaseEntry revisionKey = makeRevisionKey(makeRecordPrefix(prefix, key), revision);
+    OperationStatus putValue = values.putNoOverwrite(txn, revisionKey, new DatabaseEntry(data));
+    if (OperationStatus.KEYEXIST == putValue){// already exists, abort
+      return false;
+    }
+    if (OperationStatus.SUCCESS != putValue){
+      log.warning("Could not put value: " + putValue.toString());
+      return false;
+    }
+    return addChange(txn, prefix, key, revision) && updateDigest(txn, prefix, key, revision, true);
+  }
+
+  /**
+   * What deleting a record did
+   */
+  private enum Deletion {
+    DELETED, NOT_FOUND,
+    /**
+     * The digest tree could not be updated so {@code txn} must be aborted
+     */
+    FAILED
+  }
 
-    Cursor cursor = db.openCursor(txn, null);
+  private Deletion deleteRevisions(byte[] prefix, byte[] key, Transaction txn) {
+    Deletion result = Deletion.NOT_FOUND;
+
+    Cursor cursor = values.openCursor(txn, null);
     try {
-      DatabaseEntry revision = new DatabaseEntry();
-      byte[] lookup = makeLookupBytes(user, key);
-      DatabaseEntry lookupKey = new DatabaseEntry(lookup);
-      DatabaseEntry revisionKey;
-      for (OperationStatus revisionStatus = cursor.getSearchKey(lookupKey, revision, null); OperationStatus.SUCCESS == revisionStatus;
-          revisionStatus = cursor.getNextDup(lookupKey, revision, null)) {
-        revisionKey = new DatabaseEntry(makeBytes(lookup, SEPARATOR, revision.getData()));
-        OperationStatus valueDelete = db.delete(txn, revisionKey);
-        OperationStatus revisionDelete = cursor.delete();
-        if (OperationStatus.SUCCESS == valueDelete || OperationStatus.SUCCESS == revisionDelete) {
-          didWork = true;
+      byte[] recordPrefix = makeRecordPrefix(prefix, key);
+      DatabaseEntry revisionKey = new DatabaseEntry(recordPrefix);
+      DatabaseEntry empty = new DatabaseEntry();
+      empty.setPartial(0, 0, true);
+      for (OperationStatus revisionStatus = cursor.getSearchKeyRange(revisionKey, empty, null); OperationStatus.SUCCESS == revisionStatus
+          && startsWith(revisionKey.getData(), recordPrefix); revisionStatus =
+          cursor.getNext(revisionKey, empty, null)) {
+        if (OperationStatus.SUCCESS == cursor.delete()) {
+          if (!updateDigest(txn, prefix, key, Arrays.copyOfRange(revisionKey.getData(),
+              recordPrefix.length, revisionKey.getSize()), false)) {
+            return Deletion.FAILED;
+          }
+          result = Deletion.DELETED;
         }
       }
     } finally {
       cursor.close();
     }
-    return didWork;
-
+    return result;
   }
 
   @Override
   public boolean deleteRecord(User user, byte[] key) {
     Transaction txn = null;
     try {
-      txn = env.beginTransaction(null, null);
-      boolean result = false;
-      Cursor cursor = db.openCursor(txn, null);
+      txn = env.beginTransaction(null, recordTransactions);
+      Deletion result = deleteRecord(txn, user, key);
+      if (result == Deletion.FAILED) {
+        txn.abort();
+        return false;
+      }
+      txn.commit();
+      return result == Deletion.DELETED;
+    } catch (DatabaseException e) {
+      severe("Exception while deleting record", e);
       try {
-      OperationStatus lookupStatus =
-          cursor.getSearchBoth(makeStoresKey(user), new DatabaseEntry(key), null);
-      if (OperationStatus.SUCCESS == lookupStatus) {
-        OperationStatus lookupDelete = cursor.delete();
-        if (OperationStatus.SUCCESS == lookupDelete) {
-          result = true;
+        if (txn != null)
+          txn.abort();
+      } catch (DatabaseException e1) {
+        // we already had a failure, ignore this one.
+      }
+      return false;
+    }
+  }
+
+  @Override
+  public boolean deleteRecords(User user, List<byte[]> keys) {
+    Transaction txn = null;
+    try {
+      txn = env.beginTransaction(null, recordTransactions);
+      boolean result = true;
+      for (byte[] key : keys) {
+        Deletion deletion = deleteRecord(txn, user, key);
+        if (deletion == Deletion.FAILED) {
+          txn.abort();
+          return false;
         }
+        result &= deletion == Deletion.DELETED;
       }
-      } finally {
+      txn.commit();
+      return result;
+    } catch (DatabaseException e) {
+      severe("Exception while deleting records", e);
+      try {
+        if (txn != null)
+          txn.abort();
+      } catch (DatabaseException e1) {
+        // we already had a failure, ignore this one.
+      }
+      return false;
+    }
+  }
+
+  private Deletion deleteRecord(Transaction txn, User user, byte[] key) {
+    byte[] prefix = lockUserPrefix(txn, user);
+    if (prefix == null) {
+      return Deletion.NOT_FOUND;
+    }
+    boolean deleted = OperationStatus.SUCCESS == indices.delete(txn, makeIndexKey(prefix, key));
+    Deletion result = deleteRevisions(prefix, key, txn);
+    if (result == Deletion.FAILED) {
+      return result;
+    }
+    if (deleted || result == Deletion.DELETED) {
+      if (!addChange(txn, prefix, key, null)) {
+        return Deletion.FAILED;
+      }
+      return Deletion.DELETED;
+    }
+    return Deletion.NOT_FOUND;
+  }
+
+  private static DatabaseEntry makeChangeKey(byte[] prefix, long sequence) {
+    byte[] key = Arrays.copyOf(prefix, prefix.length + Util.LONG);
+    Util.long2bin(key, prefix.length, sequence);
+    return new DatabaseEntry(key);
+  }
+
+  private long readChangeSequence(Transaction txn, byte[] prefix, LockMode lockMode) {
+    DatabaseEntry value = new DatabaseEntry();
+    if (changes.get(txn, new DatabaseEntry(prefix), value, lockMode) == OperationStatus.SUCCESS) {
+      return Util.bin2long(value.getData());
+    }
+    return 0;
+  }
+
+  /**
+   * Record a change in {@code txn} so that it only becomes visible if the change itself is
+   * committed. Changes are stored as (deleted, key length, key, revision).
+   * 
+   * @param revision null for a delete
+   * @return whether the change was recorded, if not {@code txn} must be aborted
+   */
+  private boolean addChange(Transaction txn, byte[] prefix, byte[] key, byte[] revision) {
+    // RMW so that concurrent changes for the same user queue rather than deadlock
+    long sequence = readChangeSequence(txn, prefix, LockMode.RMW) + 1;
+    OperationStatus status =
+        changes.put(txn, new DatabaseEntry(prefix), new DatabaseEntry(Util.long2bin(sequence)));
+    if (status != OperationStatus.SUCCESS) {
+      log.warning("Could not update change sequence: " + status.toString());
+      return false;
+    }
+    byte[] deleted = {(byte) (revision == null ? 1 : 0)};
+    byte[] change =
+        makeBytes(deleted, Util.int2bin(key.length), key, revision == null ? new byte[0] : revision);
+    status = changes.put(txn, makeChangeKey(prefix, sequence), new DatabaseEntry(change));
+    if (status != OperationStatus.SUCCESS) {
+      log.warning("Could not record change: " + status.toString());
+      return false;
+    }
+    return true;
+  }
+
+  private static RecordChange readChange(long sequence, byte[] change) {
+    boolean deleted = change[0] != 0;
+    int keyLength = Util.bin2int(change, 1);
+    int keyStart = 1 + Util.INT;
+    byte[] key = Arrays.copyOfRange(change, keyStart, keyStart + keyLength);
+    byte[] revision = deleted ? null : Arrays.copyOfRange(change, keyStart + keyLength, change.length);
+    return new RecordChange(sequence, key, revision);
+  }
+
+  /**
+   * Delete all the entries in {@code database} with keys starting with {@code prefix}
+   */
+  private static void deletePrefix(com.sleepycat.je.Database database, Transaction txn,
+      byte[] prefix) {
+    Cursor cursor = database.openCursor(txn, null);
+    try {
+      DatabaseEntry key = new DatabaseEntry(prefix);
+      DatabaseEntry value = new DatabaseEntry();
+      value.setPartial(0, 0, true);
+      for (OperationStatus status = cursor.getSearchKeyRange(key, value, null); status == OperationStatus.SUCCESS
+          && startsWith(key.getData(), prefix); status = cursor.getNext(key, value, null)) {
+        cursor.delete();
+      }
+    } finally {
+      cursor.close();
+    }
+  }
+
+  @Override
+  public List<RecordChange> getChanges(User user, long since, int limit) throws IOException {
+    List<RecordChange> answer = new ArrayList<RecordChange>();
+    Cursor cursor = null;
+    try {
+      byte[] prefix = makeUserPrefix(null, user);
+      if (prefix == null) {
+        return answer;
+      }
+      cursor = changes.openCursor(null, CursorConfig.READ_COMMITTED);
+      DatabaseEntry key = makeChangeKey(prefix, since + 1);
+      DatabaseEntry value = new DatabaseEntry();
+      for (OperationStatus status = cursor.getSearchKeyRange(key, value, null); status == OperationStatus.SUCCESS
+          && answer.size() < limit && key.getSize() == prefix.length + Util.LONG
+          && startsWith(key.getData(), prefix); status = cursor.getNext(key, value, null)) {
+        answer.add(readChange(Util.bin2long(key.getData(), prefix.length), value.getData()));
+      }
+      return answer;
+    } catch (DatabaseException e) {
+      severe("Exception while getting changes", e);
+      throw new IOException(e);
+    } finally {
+      if (cursor != null) {
         cursor.close();
       }
-      result |= deleteRevisions(user, key, txn);
+    }
+  }
+
+  @Override
+  public long getChangeSequence(User user) throws IOException {
+    try {
+      byte[] prefix = makeUserPrefix(null, user);
+      if (prefix == null) {
+        return 0;
+      }
+      return readChangeSequence(null, prefix, LockMode.READ_COMMITTED);
+    } catch (DatabaseException e) {
+      severe("Exception while getting change sequence", e);
+      throw new IOException(e);
+    }
+  }
+
+  private DatabaseEntry makeDigestNodeKey(byte[] prefix, byte[] path) {
+    return new DatabaseEntry(makeBytes(prefix, new byte[] {DIGEST_NODE, (byte) path.length},
+        path));
+  }
+
+  private DatabaseEntry makeDigestLeafKey(byte[] prefix, byte[] leafHash) {
+    return new DatabaseEntry(makeBytes(prefix, new byte[] {DIGEST_LEAF}, leafHash));
+  }
+
+  /**
+   * Add or remove the pair from the user's {@link DigestTree} in {@code txn}, updating every node on
+   * its path. Nodes are stored as (digest, count) and removed when they become empty.
+   * 
+   * @return whether the tree was updated, if not {@code txn} must be aborted
+   */
+  private boolean updateDigest(Transaction txn, byte[] prefix, byte[] key, byte[] revision,
+      boolean add) {
+    byte[] leafHash = DigestTree.leafHash(key, revision);
+    DatabaseEntry value = new DatabaseEntry();
+    DatabaseEntry leafKey = makeDigestLeafKey(prefix, leafHash);
+    if (!add) {
+      // Only remove a pair which is in the tree, otherwise the nodes above it would be corrupted
+      value.setPartial(0, 0, true);
+      if (digests.get(txn, leafKey, value, LockMode.RMW) != OperationStatus.SUCCESS) {
+        log.warning("Digest leaf not found for removed revision");
+        return false;
+      }
+      value = new DatabaseEntry();
+    }
+    // Root first so that concurrent updates for the same user queue on it rather than deadlock
+    for (int level = 0; level <= DigestTree.MAX_DEPTH; ++level) {
+      DatabaseEntry nodeKey = makeDigestNodeKey(prefix, DigestTree.path(leafHash, level));
+      byte[] node;
+      if (digests.get(txn, nodeKey, value, LockMode.RMW) == OperationStatus.SUCCESS) {
+        node = value.getData();
+      } else {
+        node = new byte[DigestTree.HASH_LENGTH + Util.INT];
+      }
+      DigestTree.xor(node, leafHash);
+      int count = Util.bin2int(node, DigestTree.HASH_LENGTH) + (add ? 1 : -1);
+      OperationStatus status;
+      if (count > 0) {
+        Util.int2bin(node, DigestTree.HASH_LENGTH, count);
+        status = digests.put(txn, nodeKey, new DatabaseEntry(node));
+      } else {
+        status = digests.delete(txn, nodeKey);
+      }
+      if (status != OperationStatus.SUCCESS) {
+        log.warning("Could not update digest: " + status.toString());
+        return false;
+      }
+    }
+    OperationStatus status;
+    if (add) {
+      status =
+          digests.put(txn, leafKey, new DatabaseEntry(makeBytes(Util.int2bin(key.length), key,
+              revision)));
+    } else {
+      status = digests.delete(txn, leafKey);
+    }
+    if (status != OperationStatus.SUCCESS) {
+      log.warning("Could not update digest leaf: " + status.toString());
+      return false;
+    }
+    return true;
+  }
+
+  @Override
+  public List<DigestTree.Node> getDigests(User user, byte[] path, int depth) throws IOException {
+    List<DigestTree.Node> answer = new ArrayList<DigestTree.Node>();
+    Cursor cursor = null;
+    try {
+      byte[] prefix = makeUserPrefix(null, user);
+      if (prefix == null) {
+        return answer;
+      }
+      int level = path.length + depth;
+      byte[] levelPrefix = makeBytes(prefix, new byte[] {DIGEST_NODE, (byte) level}, path);
+      cursor = digests.openCursor(null, CursorConfig.READ_COMMITTED);
+      DatabaseEntry key = new DatabaseEntry(levelPrefix);
+      DatabaseEntry value = new DatabaseEntry();
+      for (OperationStatus status = cursor.getSearchKeyRange(key, value, null); status == OperationStatus.SUCCESS
+          && startsWith(key.getData(), levelPrefix); status = cursor.getNext(key, value, null)) {
+        byte[] node = value.getData();
+        answer.add(new DigestTree.Node(Arrays.copyOfRange(key.getData(), prefix.length + 2,
+            key.getSize()), Arrays.copyOf(node, DigestTree.HASH_LENGTH), Util.bin2int(node,
+            DigestTree.HASH_LENGTH)));
+      }
+      return answer;
+    } catch (DatabaseException e) {
+      severe("Exception while getting digests", e);
+      throw new IOException(e);
+    } finally {
+      if (cursor != null) {
+        cursor.close();
+      }
+    }
+  }
+
+  @Override
+  public List<DigestTree.Leaf> getDigestLeaves(User user, byte[] path) throws IOException {
+    // The leaf hashes under path start with its 4 bit children packed into bytes
+    byte[] start = new byte[(path.length + 1) / 2];
+    for (int level = 0; level < path.length; ++level) {
+      start[level / 2] |= level % 2 == 0 ? path[level] << 4 : path[level];
+    }
+    List<DigestTree.Leaf> answer = new ArrayList<DigestTree.Leaf>();
+    Cursor cursor = null;
+    try {
+      byte[] prefix = makeUserPrefix(null, user);
+      if (prefix == null) {
+        return answer;
+      }
+      byte[] leafPrefix = makeBytes(prefix, new byte[] {DIGEST_LEAF});
+      cursor = digests.openCursor(null, CursorConfig.READ_COMMITTED);
+      DatabaseEntry key = new DatabaseEntry(makeBytes(leafPrefix, start));
+      DatabaseEntry value = new DatabaseEntry();
+      for (OperationStatus status = cursor.getSearchKeyRange(key, value, null); status == OperationStatus.SUCCESS
+          && startsWith(key.getData(), leafPrefix); status = cursor.getNext(key, value, null)) {
+        byte[] leafHash = Arrays.copyOfRange(key.getData(), leafPrefix.length, key.getSize());
+        if (!DigestTree.isUnder(leafHash, path)) {
+          break;
+        }
+        byte[] leaf = value.getData();
+        int keyLength = Util.bin2int(leaf, 0);
+        answer.add(new DigestTree.Leaf(Arrays.copyOfRange(leaf, Util.INT, Util.INT + keyLength),
+            Arrays.copyOfRange(leaf, Util.INT + keyLength, leaf.length)));
+      }
+      return answer;
+    } catch (DatabaseException e) {
+      severe("Exception while getting digest leaves", e);
+      throw new IOException(e);
+    } finally {
+      if (cursor != null) {
+        cursor.close();
+      }
+    }
+  }
+
+  @Override
+  public boolean checkAndAddCounter(byte[] publicHash, byte[] session, long counter, long expires) {
+    Transaction txn = null;
+    try {
+      txn = env.beginTransaction(null, nonceTransactions);
+      DatabaseEntry key = new DatabaseEntry(Util.joinBytes(publicHash, session));
+      DatabaseEntry value = new DatabaseEntry();
+      ReplayWindow window = ReplayWindow.EMPTY;
+      if (counters.get(txn, key, value, LockMode.RMW) == OperationStatus.SUCCESS) {
+        window = ReplayWindow.fromBytes(value.getData());
+      }
+      window = window.accept(counter);
+      if (window == null) {
+        txn.commit();
+        return false;
+      }
+      value = new DatabaseEntry(makeBytes(window.toBytes(), Util.long2bin(expires)));
+      if (counters.put(txn, key, value) != OperationStatus.SUCCESS) {
+        txn.abort();
+        return false;
+      }
       txn.commit();
-      return result;
+      return true;
     } catch (DatabaseException e) {
-      severe("Exception while deleting record", e);
+      severe("Exception while checking counter for user", e);
       try {
         if (txn != null)
           txn.abort();
@@ -578,8 +1477,124 @@ public class JEDatabase extends AbstractDatabase {
 
   @Override
   public void clearOldNonces() {
-    // TODO(drt24) implement clearOldNonces
-    
+    // Nonces from this second or earlier are not recent
+    clearNoncesBefore((int) (System.currentTimeMillis() / 1000) - Nonce.TWO_DAYS + 1);
+    clearExpiredCounters(System.currentTimeMillis());
+  }
+
+  /**
+   * There is only one entry per session so unlike nonces a full scan is cheap, but it is read
+   * committed so that it does not block {@link #checkAndAddCounter}. Only the expired sessions are
+   * locked, in transactions of at most {@link #NONCE_BATCH} deletes, and each is checked again
+   * under its lock in case it was used after it was read.
+   */
+  private void clearExpiredCounters(long now) {
+    List<byte[]> expired = new ArrayList<byte[]>();
+    Cursor cursor = null;
+    try {
+      cursor = counters.openCursor(null, CursorConfig.READ_COMMITTED);
+      DatabaseEntry key = new DatabaseEntry();
+      DatabaseEntry value = new DatabaseEntry();
+      while (cursor.getNext(key, value, null) == OperationStatus.SUCCESS) {
+        if (isExpired(value, now)) {
+          expired.add(key.getData());
+        }
+      }
+    } catch (DatabaseException e) {
+      severe("Exception while finding expired counters", e);
+      return;
+    } finally {
+      if (cursor != null) {
+        cursor.close();
+      }
+    }
+    for (int start = 0; start < expired.size(); start += NONCE_BATCH) {
+      Transaction txn = null;
+      try {
+        txn = env.beginTransaction(null, nonceTransactions);
+        int end = Math.min(expired.size(), start + NONCE_BATCH);
+        for (byte[] session : expired.subList(start, end)) {
+          DatabaseEntry key = new DatabaseEntry(session);
+          DatabaseEntry value = new DatabaseEntry();
+          if (counters.get(txn, key, value, LockMode.RMW) == OperationStatus.SUCCESS
+              && isExpired(value, now)) {
+            counters.delete(txn, key);
+          }
+        }
+        txn.commit();
+      } catch (DatabaseException e) {
+        severe("Exception while clearing expired counters", e);
+        try {
+          if (txn != null)
+            txn.abort();
+        } catch (DatabaseException e1) {
+          // we already had a failure, ignore this one.
+        }
+        return;
+      }
+    }
+  }
+
+  private static boolean isExpired(DatabaseEntry counter, long now) {
+    return Util.bin2long(counter.getData(), ReplayWindow.BYTES) < now;
+  }
+
+  /**
+   * Delete all nonces with a sinceEpoch before {@code sinceEpoch}, in transactions of at most
+   * {@link #NONCE_BATCH} deletes.
+   * 
+   * @param sinceEpoch
+   * @return the number of nonces deleted
+   */
+  int clearNoncesBefore(int sinceEpoch) {
+    int deleted = 0;
+    boolean more = true;
+    while (more) {
+      Transaction txn = null;
+      try {
+        txn = env.beginTransaction(null, nonceTransactions);
+        Cursor cursor = nonces.openCursor(txn, null);
+        int batch = 0;
+        try {
+          DatabaseEntry key = new DatabaseEntry();
+          DatabaseEntry value = new DatabaseEntry();
+          value.setPartial(0, 0, true);
+          OperationStatus status = cursor.getFirst(key, value, null);
+          while (status == OperationStatus.SUCCESS && Util.bin2int(key.getData(), 0) < sinceEpoch
+              && batch < NONCE_BATCH) {
+            cursor.delete();
+            ++batch;
+            status = cursor.getNext(key, value, null);
+          }
+        } finally {
+          cursor.close();
+        }
+        txn.commit();
+        deleted += batch;
+        more = batch == NONCE_BATCH;
+      } catch (DatabaseException e) {
+        severe("Exception while clearing old nonces", e);
+        try {
+          if (txn != null)
+            txn.abort();
+        } catch (DatabaseException e1) {
+          // we already had a failure, ignore this one.
+        }
+        break;
+      }
+    }
+    return deleted;
+  }
+
+  Environment getEnvironment() {
+    return env;
+  }
+
+  /**
+   * @return the number of nonces currently stored
+   */
+  long nonceCount() {
+    return nonces.count();
   }
 
 }
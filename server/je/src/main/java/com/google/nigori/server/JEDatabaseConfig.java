@@ -0,0 +1,207 @@
+/*
+ * Copyright (C) 2012 Daniel R. Thomas (drt24)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.nigori.server;
+
+import java.util.concurrent.TimeUnit;
+
+import com.sleepycat.je.Durability;
+import com.sleepycat.je.TransactionConfig;
+
+/**
+ * How a {@link JEDatabase} trades durability for commit latency, chosen separately for nonces,
+ * records and users, along with the size of its cache and when it checkpoints and cleans its log.
+ * The default is {@link SyncPolicy#SYNC} for everything and JE's own cache size and background
+ * threads.
+ *
+ * Losing recently used nonces or counters in a crash only reopens a short replay window, while a
+ * lost record or registration is lost data, so nonces are the natural candidate for a weaker
+ * policy.
+ *
+ * @author drt24
+ *
+ */
+public class JEDatabaseConfig {
+
+  /**
+   * What has happened to a transaction's log entries by the time its commit returns
+   */
+  public enum SyncPolicy {
+    /**
+     * Written and fsynced. JE shares one fsync between all of the committers waiting for it, so
+     * concurrent commits are group committed rather than paying for an fsync each.
+     */
+    SYNC(Durability.COMMIT_SYNC),
+    /**
+     * Written to the operating system, so survives the process crashing but not the machine.
+     */
+    WRITE_NO_SYNC(Durability.COMMIT_WRITE_NO_SYNC),
+    /**
+     * Left in JE's log buffer until it fills or the next periodic flush, so a crash loses at most
+     * the commits of the last {@link JEDatabaseConfig#getFlushInterval(TimeUnit)}.
+     */
+    NO_SYNC(Durability.COMMIT_NO_SYNC);
+
+    private final Durability durability;
+
+    private SyncPolicy(Durability durability) {
+      this.durability = durability;
+    }
+
+    TransactionConfig toTransactionConfig() {
+      TransactionConfig config = new TransactionConfig();
+      config.setDurability(durability);
+      return config;
+    }
+  }
+
+  private SyncPolicy nonceSync = SyncPolicy.SYNC;
+  private SyncPolicy recordSync = SyncPolicy.SYNC;
+  private SyncPolicy userSync = SyncPolicy.SYNC;
+  private long flushIntervalMillis = 1000;
+  private long cacheSize = 0;
+  private long checkpointIntervalMillis = 0;
+  private long cleanerIntervalMillis = 0;
+
+  /**
+   * @return the policy for nonces and session counters
+   */
+  public SyncPolicy getNonceSync() {
+    return nonceSync;
+  }
+
+  public JEDatabaseConfig setNonceSync(SyncPolicy nonceSync) {
+    this.nonceSync = checkNotNull(nonceSync);
+    return this;
+  }
+
+  /**
+   * @return the policy for putting and deleting records
+   */
+  public SyncPolicy getRecordSync() {
+    return recordSync;
+  }
+
+  public JEDatabaseConfig setRecordSync(SyncPolicy recordSync) {
+    this.recordSync = checkNotNull(recordSync);
+    return this;
+  }
+
+  /**
+   * @return the policy for adding and deleting users
+   */
+  public SyncPolicy getUserSync() {
+    return userSync;
+  }
+
+  public JEDatabaseConfig setUserSync(SyncPolicy userSync) {
+    this.userSync = checkNotNull(userSync);
+    return this;
+  }
+
+  /**
+   * Use {@code sync} for nonces, records and users
+   */
+  public JEDatabaseConfig setSync(SyncPolicy sync) {
+    return setNonceSync(sync).setRecordSync(sync).setUserSync(sync);
+  }
+
+  /**
+   * @return how often the log is written and fsynced when any policy is not {@link SyncPolicy#SYNC}
+   */
+  public long getFlushInterval(TimeUnit unit) {
+    return unit.convert(flushIntervalMillis, TimeUnit.MILLISECONDS);
+  }
+
+  public JEDatabaseConfig setFlushInterval(long interval, TimeUnit unit) {
+    long millis = unit.toMillis(interval);
+    if (millis <= 0) {
+      throw new IllegalArgumentException("Flush interval must be at least a millisecond: "
+          + interval + " " + unit);
+    }
+    this.flushIntervalMillis = millis;
+    return this;
+  }
+
+  /**
+   * @return the size of the JE cache in bytes, or 0 for JE's default share of the heap
+   */
+  public long getCacheSize() {
+    return cacheSize;
+  }
+
+  public JEDatabaseConfig setCacheSize(long cacheSize) {
+    if (cacheSize < 0) {
+      throw new IllegalArgumentException("Cache size must not be negative: " + cacheSize);
+    }
+    this.cacheSize = cacheSize;
+    return this;
+  }
+
+  /**
+   * @return how often the database forces a checkpoint, or 0 if JE's checkpointer thread decides
+   */
+  public long getCheckpointInterval(TimeUnit unit) {
+    return unit.convert(checkpointIntervalMillis, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Checkpoint every {@code interval} instead of whenever JE's checkpointer thread chooses to, 0
+   * leaves it to the checkpointer. A longer interval means fewer checkpoint writes at the cost of
+   * a longer recovery after a crash.
+   */
+  public JEDatabaseConfig setCheckpointInterval(long interval, TimeUnit unit) {
+    this.checkpointIntervalMillis = checkInterval("Checkpoint", interval, unit);
+    return this;
+  }
+
+  /**
+   * @return how often the database cleans its log, or 0 if JE's cleaner threads decide
+   */
+  public long getCleanerInterval(TimeUnit unit) {
+    return unit.convert(cleanerIntervalMillis, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Clean the log in a batch every {@code interval} instead of continually in JE's cleaner threads,
+   * 0 leaves it to the cleaner threads. Batching keeps the cleaner's reads and writes out of the
+   * way of requests in between, at the cost of the log growing until the next batch.
+   */
+  public JEDatabaseConfig setCleanerInterval(long interval, TimeUnit unit) {
+    this.cleanerIntervalMillis = checkInterval("Cleaner", interval, unit);
+    return this;
+  }
+
+  /**
+   * @return whether commits may return before their log entries are fsynced
+   */
+  boolean needsFlush() {
+    return nonceSync != SyncPolicy.SYNC || recordSync != SyncPolicy.SYNC
+        || userSync != SyncPolicy.SYNC;
+  }
+
+  private static long checkInterval(String name, long interval, TimeUnit unit) {
+    if (interval < 0) {
+      throw new IllegalArgumentException(name + " interval must not be negative: " + interval + " "
+          + unit);
+    }
+    return unit.toMillis(interval);
+  }
+
+  private static SyncPolicy checkNotNull(SyncPolicy sync) {
+    if (sync == null) {
+      throw new NullPointerException("Sync policy must not be null");
+    }
+    return sync;
+  }
+}
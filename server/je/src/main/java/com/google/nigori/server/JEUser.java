@@ -0,0 +1,42 @@
+/*
+ * Copyright (C) 2012 Daniel R. Thomas (drt24)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.nigori.server;
+
+import java.util.Date;
+
+/**
+ * A user read by {@link JEDatabase} which carries the user's id so that their keys can be built
+ * without looking it up again.
+ *
+ * @author drt24
+ *
+ */
+class JEUser extends JUser {
+
+  private static final long serialVersionUID = 1L;
+
+  private final int id;
+
+  JEUser(byte[] publicKey, byte[] publicHash, Date registrationDate, int id) {
+    super(publicKey, publicHash, registrationDate);
+    this.id = id;
+  }
+
+  /**
+   * @return the surrogate used in place of the publicHash in this user's keys
+   */
+  int getId() {
+    return id;
+  }
+}
@@ -0,0 +1,135 @@
+/*
+ * Copyright (C) 2012 Daniel R. Thomas (drt24)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.nigori.server;
+
+import java.util.Arrays;
+
+import com.sleepycat.je.DatabaseEntry;
+
+/**
+ * Builds the binary keys used by {@link JEDatabase}. Variable length parts are preceded by their
+ * length as a varint and user ids are written as varints, both of which are prefix free so that
+ * keys sharing a prefix always belong to the same user, index and so on.
+ *
+ * A builder can be {@link #truncate(int) truncated} back to a prefix and reused to build the
+ * next key with the same prefix.
+ *
+ * @author drt24
+ *
+ */
+final class KeyBuilder {
+
+  /**
+   * Most bytes a varint encoding of an int can take
+   */
+  static final int MAX_VARINT = 5;
+
+  private byte[] key;
+  private int length = 0;
+
+  KeyBuilder(int capacity) {
+    key = new byte[capacity];
+  }
+
+  /**
+   * @return the number of bytes needed to encode {@code value} as a varint
+   */
+  static int varintSize(int value) {
+    int size = 1;
+    while ((value & ~0x7F) != 0) {
+      value >>>= 7;
+      ++size;
+    }
+    return size;
+  }
+
+  private void ensure(int extra) {
+    if (length + extra > key.length) {
+      key = Arrays.copyOf(key, Math.max(length + extra, 2 * key.length));
+    }
+  }
+
+  KeyBuilder putByte(byte value) {
+    ensure(1);
+    key[length++] = value;
+    return this;
+  }
+
+  /**
+   * Seven bits at a time, least significant first, with the top bit set on all but the last byte
+   */
+  KeyBuilder putVarint(int value) {
+    ensure(MAX_VARINT);
+    while ((value & ~0x7F) != 0) {
+      key[length++] = (byte) ((value & 0x7F) | 0x80);
+      value >>>= 7;
+    }
+    key[length++] = (byte) value;
+    return this;
+  }
+
+  /**
+   * Big endian so that keys sort in numerical order of {@code value} when it is positive
+   */
+  KeyBuilder putLong(long value) {
+    ensure(8);
+    for (int i = 7; i >= 0; --i) {
+      key[length++] = (byte) (value >>> (8 * i));
+    }
+    return this;
+  }
+
+  KeyBuilder put(byte[] bytes) {
+    ensure(bytes.length);
+    System.arraycopy(bytes, 0, key, length, bytes.length);
+    length += bytes.length;
+    return this;
+  }
+
+  /**
+   * Put {@code bytes} preceded by its length so that it can be followed by other parts
+   */
+  KeyBuilder putWithLength(byte[] bytes) {
+    return putVarint(bytes.length).put(bytes);
+  }
+
+  int length() {
+    return length;
+  }
+
+  /**
+   * Discard everything after the first {@code length} bytes
+   */
+  KeyBuilder truncate(int length) {
+    if (length > this.length) {
+      throw new IllegalArgumentException("Cannot truncate " + this.length + " bytes to " + length);
+    }
+    this.length = length;
+    return this;
+  }
+
+  /**
+   * @return a copy of the key
+   */
+  byte[] toBytes() {
+    return Arrays.copyOf(key, length);
+  }
+
+  /**
+   * @return an entry holding a copy of the key, so the builder can go on being used
+   */
+  DatabaseEntry toEntry() {
+    return new DatabaseEntry(toBytes());
+  }
+}
@@ -13,16 +13,37 @@
  */
 package com.google.nigori.server;
 
+import static com.google.nigori.common.MessageLibrary.toBytes;
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 import org.junit.AfterClass;
 import org.junit.Test;
 
+import com.google.nigori.common.Nonce;
+import com.google.nigori.common.RevValue;
 import com.google.nigori.common.Util;
+import com.google.nigori.server.JEDatabaseConfig.SyncPolicy;
+import com.sleepycat.je.Cursor;
+import com.sleepycat.je.DatabaseConfig;
+import com.sleepycat.je.DatabaseEntry;
+import com.sleepycat.je.Environment;
+import com.sleepycat.je.EnvironmentConfig;
+import com.sleepycat.je.OperationStatus;
+import com.sleepycat.je.Transaction;
 
 /**
  * @author drt24
@@ -48,8 +69,334 @@ public class JEDatabaseTest extends AbstractDatabaseTest {
     assertTrue(database.deleteUser(user));
   }
 
+  @Test
+  public void staleUserCanNotWrite() throws UserNotFoundException, IOException {
+    byte[] index = toBytes("index");
+    assertTrue(database.addUser(publicKey, publicHash));
+    User stale = database.getUser(publicHash);
+    assertTrue(database.deleteUser(stale));
+    assertFalse(database.putRecord(stale, index, toBytes("rev"), toBytes("value")));
+    assertTrue(database.addUser(publicKey, publicHash));
+    try {
+      User user = database.getUser(publicHash);
+      assertFalse(database.putRecord(stale, index, toBytes("rev"), toBytes("value")));
+      assertNull(database.getRevisions(user, index));
+      assertTrue(database.putRecord(user, index, toBytes("rev"), toBytes("value")));
+      assertFalse(database.deleteRecord(stale, index));
+      assertNotNull(database.getRevisions(user, index));
+    } finally {
+      assertTrue(database.deleteUser(database.getUser(publicHash)));
+    }
+  }
+
+  @Test
+  public void closeAndReopen() throws UserNotFoundException {
+    assertTrue(database.addUser(publicKey, publicHash));
+    ((JEDatabase) database).close();
+    ((JEDatabase) database).close();
+    Database reopened = getDatabase();
+    assertNotSame(database, reopened);
+    assertSame(reopened, getDatabase());
+    assertTrue(reopened.haveUser(publicHash));
+    assertTrue(reopened.deleteUser(reopened.getUser(publicHash)));
+  }
+
+  @Test
+  public void scheduledMaintenance() throws InterruptedException, UserNotFoundException {
+    File dataDir = new File("je-maintenance-test-dir/");
+    dataDir.mkdir();
+    dataDir.deleteOnExit();
+    JEDatabase scheduled =
+        JEDatabase.getInstance(dataDir, new JEDatabaseConfig().setCacheSize(1024 * 1024)
+            .setCheckpointInterval(10, TimeUnit.MILLISECONDS).setCleanerInterval(10,
+                TimeUnit.MILLISECONDS));
+    try {
+      Environment env = scheduled.getEnvironment();
+      assertEquals(1024 * 1024, env.getConfig().getCacheSize());
+      assertEquals("false", env.getConfig().getConfigParam(EnvironmentConfig.ENV_RUN_CHECKPOINTER));
+      assertEquals("false", env.getConfig().getConfigParam(EnvironmentConfig.ENV_RUN_CLEANER));
+      assertTrue(scheduled.addUser(publicKey, publicHash));
+      long checkpoints = env.getStats(null).getNCheckpoints();
+      for (int i = 0; i < 100 && env.getStats(null).getNCheckpoints() <= checkpoints; ++i) {
+        Thread.sleep(50);
+      }
+      assertTrue("No scheduled checkpoint", env.getStats(null).getNCheckpoints() > checkpoints);
+      assertTrue(scheduled.deleteUser(scheduled.getUser(publicHash)));
+    } finally {
+      scheduled.close();
+      Util.deleteDir(dataDir);
+      dataDir.delete();
+    }
+  }
+
+  @Test
+  public void nonceFilter() {
+    NonceBloomFilter filter = ((JEDatabase) database).getNonceFilter();
+    long misses = filter.getMisses();
+    long hits = filter.getHits();
+    Nonce nonce = new Nonce();
+    assertTrue(database.checkAndAddNonce(nonce, publicHash));
+    assertEquals(misses + 1, filter.getMisses());
+    assertFalse(database.checkAndAddNonce(new Nonce(nonce.toToken()), publicHash));
+    assertEquals(hits + 1, filter.getHits());
+  }
+
+  /**
+   * Simulate a day of authentications, clearing nonces older than six hours every hour, storage
+   * should never grow beyond what is in the window.
+   */
+  @Test
+  public void nonceStorageBounded() {
+    JEDatabase je = (JEDatabase) database;
+    int now = (int) (System.currentTimeMillis() / 1000);
+    int hour = 60 * 60;
+    int window = 6 * hour;
+    int perHour = 200;
+    je.clearNoncesBefore(now + Nonce.SKEW_ALLOWANCE);
+    for (int h = 0; h < 24; ++h) {
+      final int time = now - 24 * hour + h * hour;
+      for (int i = 0; i < perHour; ++i) {
+        assertTrue(je.checkAndAddNonce(new Nonce(time) {
+          private static final long serialVersionUID = 1L;
+        }, publicHash));
+      }
+      je.clearNoncesBefore(time - window);
+      assertTrue("Too many nonces: " + je.nonceCount(),
+          je.nonceCount() <= (window / hour + 1) * perHour);
+    }
+    assertEquals((window / hour + 1) * perHour, je.clearNoncesBefore(now + Nonce.SKEW_ALLOWANCE));
+    assertEquals(0, je.nonceCount());
+  }
+
+  @Test
+  public void expiredCountersCleared() {
+    long now = System.currentTimeMillis();
+    byte[] expired = toBytes("expired");
+    byte[] live = toBytes("live");
+    assertTrue(database.checkAndAddCounter(publicHash, expired, 1, now - 1000));
+    assertTrue(database.checkAndAddCounter(publicHash, live, 1, now + 60 * 1000));
+    database.clearOldNonces();
+    assertTrue("Expired session kept", database.checkAndAddCounter(publicHash, expired, 1,
+        now - 1000));
+    assertFalse("Live session cleared", database.checkAndAddCounter(publicHash, live, 1,
+        now + 60 * 1000));
+    database.clearOldNonces();
+  }
+
+  /**
+   * The revisions of a record are read by a scan over its keys, which must stop before the records
+   * of indices which it is a prefix of.
+   */
+  @Test
+  public void scanStopsAtRecord() throws UserNotFoundException, IOException {
+    assertTrue(database.addUser(publicKey, publicHash));
+    try {
+      User user = database.getUser(publicHash);
+      byte[] shorter = toBytes("index");
+      byte[] longer = toBytes("index\0");
+      for (int i = 0; i < 3; ++i) {
+        assertTrue(database.putRecord(user, shorter, toBytes("rev" + i), toBytes("short" + i)));
+        assertTrue(database.putRecord(user, longer, toBytes("rev" + i), toBytes("long" + i)));
+      }
+      Collection<RevValue> record = database.getRecord(user, shorter);
+      assertEquals(3, record.size());
+      for (RevValue revValue : record) {
+        assertTrue(new String(revValue.getValue(), "UTF-8").startsWith("short"));
+      }
+      assertEquals(3, database.getRevisions(user, longer).size());
+      assertTrue(database.deleteRecord(user, shorter));
+      assertNull(database.getRevisions(user, shorter));
+      assertEquals(3, database.getRecord(user, longer).size());
+    } finally {
+      assertTrue(database.deleteUser(database.getUser(publicHash)));
+    }
+  }
+
+  /**
+   * Records stored before the digest tree existed have no leaf in it, deleting one must fail rather
+   * than commit a corrupted tree.
+   */
+  @Test
+  public void deleteRecordWithoutDigest() throws UserNotFoundException, IOException {
+    assertTrue(database.addUser(publicKey, publicHash));
+    try {
+      User user = database.getUser(publicHash);
+      assertTrue(database.putRecord(user, toBytes("index"), toBytes("rev"), toBytes("value")));
+      DatabaseConfig config = new DatabaseConfig();
+      config.setTransactional(true);
+      Environment env = ((JEDatabase) database).getEnvironment();
+      com.sleepycat.je.Database digests = env.openDatabase(null, "digests", config);
+      try {
+        byte[] prefix = JEDatabase.makeUserPrefix(((JEUser) user).getId());
+        Transaction txn = env.beginTransaction(null, null);
+        Cursor cursor = digests.openCursor(txn, null);
+        try {
+          DatabaseEntry key = new DatabaseEntry(prefix);
+          DatabaseEntry value = new DatabaseEntry();
+          for (OperationStatus status = cursor.getSearchKeyRange(key, value, null); status == OperationStatus.SUCCESS
+              && Arrays.equals(prefix, Arrays.copyOf(key.getData(), prefix.length)); status =
+              cursor.getNext(key, value, null)) {
+            cursor.delete();
+          }
+        } finally {
+          cursor.close();
+        }
+        txn.commit();
+      } finally {
+        digests.close();
+      }
+      assertTrue(database.putRecord(user, toBytes("other"), toBytes("rev"), toBytes("value")));
+      long sequence = database.getChangeSequence(user);
+
+      assertFalse(database.deleteRecord(user, toBytes("index")));
+      assertEquals(1, database.getRecord(user, toBytes("index")).size());
+      assertEquals(sequence, database.getChangeSequence(user));
+      DigestTree expected = new DigestTree();
+      expected.add(toBytes("other"), toBytes("rev"));
+      DigestTree.Node root = database.getDigests(user, new byte[0], 0).get(0);
+      DigestTree.Node expectedRoot = expected.getNodes(new byte[0], 0).get(0);
+      assertArrayEquals(expectedRoot.getHash(), root.getHash());
+      assertEquals(1, root.getCount());
+
+      assertTrue(database.deleteRecord(user, toBytes("other")));
+      assertTrue(database.getDigests(user, new byte[0], 0).isEmpty());
+    } finally {
+      assertTrue(database.deleteUser(database.getUser(publicHash)));
+    }
+  }
+
+  @Test
+  public void weakerSyncPolicies() throws UserNotFoundException, IOException {
+    File dataDir = new File("je-sync-test-dir/");
+    dataDir.mkdir();
+    dataDir.deleteOnExit();
+    try {
+      JEDatabase weak =
+          JEDatabase.getInstance(dataDir, new JEDatabaseConfig().setNonceSync(SyncPolicy.NO_SYNC)
+              .setRecordSync(SyncPolicy.WRITE_NO_SYNC).setFlushInterval(10, TimeUnit.MILLISECONDS));
+      assertTrue(weak.addUser(publicKey, publicHash));
+      User user = weak.getUser(publicHash);
+      Nonce nonce = new Nonce();
+      assertTrue(weak.checkAndAddNonce(nonce, publicHash));
+      assertFalse(weak.checkAndAddNonce(new Nonce(nonce.toToken()), publicHash));
+      assertTrue(weak.putRecord(user, toBytes("index"), toBytes("rev"), toBytes("value")));
+      assertArrayEquals(toBytes("value"), weak.getRevision(user, toBytes("index"), toBytes("rev"))
+          .getValue());
+      assertTrue(weak.deleteRecord(user, toBytes("index")));
+      assertTrue(weak.deleteUser(user));
+      weak.close();
+    } finally {
+      Util.deleteDir(dataDir);
+      dataDir.delete();
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void flushIntervalPositive() {
+    new JEDatabaseConfig().setFlushInterval(0, TimeUnit.SECONDS);
+  }
+
+  private static void putLegacy(com.sleepycat.je.Database legacy, byte[] key, byte[] value) {
+    legacy.put(null, new DatabaseEntry(key), new DatabaseEntry(value));
+  }
+
+  private static byte[] concat(byte[]... parts) {
+    int length = 0;
+    for (byte[] part : parts) {
+      length += part.length;
+    }
+    byte[] answer = new byte[length];
+    int offset = 0;
+    for (byte[] part : parts) {
+      System.arraycopy(part, 0, answer, offset, part.length);
+      offset += part.length;
+    }
+    return answer;
+  }
+
+  /**
+   * Write a user and record in the old single database layout and check that opening the database
+   * moves them into the new layout.
+   */
+  @Test
+  public void migrateLegacyLayout() throws IOException, UserNotFoundException {
+    File dataDir = new File("je-legacy-test-dir/");
+    dataDir.mkdir();
+    dataDir.deleteOnExit();
+    long regTime = 1234567890L;
+    byte[] index = toBytes("index/with/separators");
+    byte[] revision = toBytes("rev");
+    byte[] value = toBytes("value");
+
+    EnvironmentConfig envConfig = new EnvironmentConfig();
+    envConfig.setTransactional(true);
+    envConfig.setAllowCreate(true);
+    Environment env = new Environment(dataDir, envConfig);
+    DatabaseConfig legacyConfig = new DatabaseConfig();
+    legacyConfig.setAllowCreate(true);
+    legacyConfig.setTransactional(true);
+    legacyConfig.setSortedDuplicates(true);
+    com.sleepycat.je.Database legacy = env.openDatabase(null, "nigori", legacyConfig);
+    byte[] user = concat(toBytes("users/"), publicHash);
+    byte[] lookup = concat(toBytes("stores/"), publicHash, toBytes("/"), index);
+    putLegacy(legacy, toBytes("users"), publicHash);
+    putLegacy(legacy, concat(user, toBytes("/date")), Util.long2bin(regTime));
+    putLegacy(legacy, concat(user, toBytes("/key")), publicKey);
+    putLegacy(legacy, concat(toBytes("stores/"), publicHash), index);
+    putLegacy(legacy, lookup, revision);
+    putLegacy(legacy, concat(lookup, toBytes("/"), revision), value);
+    // Changes were already in their own database but keyed by publicHash
+    DatabaseConfig changesConfig = new DatabaseConfig();
+    changesConfig.setAllowCreate(true);
+    changesConfig.setTransactional(true);
+    com.sleepycat.je.Database changes = env.openDatabase(null, "changes", changesConfig);
+    byte[] hashPrefix = concat(Util.int2bin(publicHash.length), publicHash);
+    putLegacy(changes, hashPrefix, Util.long2bin(1));
+    putLegacy(changes, concat(hashPrefix, Util.long2bin(1)), concat(new byte[] {0}, Util
+        .int2bin(index.length), index, revision));
+    changes.close();
+    legacy.close();
+    env.close();
+
+    try {
+      Database migrated = JEDatabase.getInstance(dataDir);
+      User migratedUser = migrated.getUser(publicHash);
+      assertArrayEquals(publicKey, migratedUser.getPublicKey());
+      assertEquals(regTime, migratedUser.getRegistrationDate().getTime());
+      Collection<byte[]> indices = migrated.getIndices(migratedUser);
+      assertEquals(1, indices.size());
+      assertArrayEquals(index, indices.iterator().next());
+      Collection<RevValue> record = migrated.getRecord(migratedUser, index);
+      assertEquals(1, record.size());
+      RevValue revValue = record.iterator().next();
+      assertArrayEquals(revision, revValue.getRevision().getBytes());
+      assertArrayEquals(value, revValue.getValue());
+      assertEquals(1, migrated.getChangeSequence(migratedUser));
+      List<RecordChange> recordChanges = migrated.getChanges(migratedUser, 0, 10);
+      assertEquals(1, recordChanges.size());
+      assertArrayEquals(index, recordChanges.get(0).getKey());
+      List<DigestTree.Leaf> leaves = migrated.getDigestLeaves(migratedUser, new byte[0]);
+      assertEquals("Digest tree built for migrated records", 1, leaves.size());
+      assertArrayEquals(index, leaves.get(0).getKey());
+      assertArrayEquals(revision, leaves.get(0).getRevision());
+      assertEquals(1, migrated.getDigests(migratedUser, new byte[0], 0).get(0).getCount());
+      ((JEDatabase) migrated).close();
+
+      env = new Environment(dataDir, envConfig);
+      try {
+        assertFalse("Legacy database removed", env.getDatabaseNames().contains("nigori"));
+      } finally {
+        env.close();
+      }
+    } finally {
+      Util.deleteDir(dataDir);
+      dataDir.delete();
+    }
+  }
+
   @AfterClass
   public static void deleteDatabase() {
+    JEDatabase.closeAll();
     File dataDir = new File("je-test-dir/");
     if (dataDir.exists()) {
       Util.deleteDir(dataDir);
@@ -0,0 +1,134 @@
+/*
+ * Copyright (C) 2012 Daniel R. Thomas (drt24)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.nigori.server;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+
+import com.google.nigori.common.Nonce;
+import com.google.nigori.common.NigoriConstants;
+import com.google.nigori.common.Util;
+import com.google.nigori.server.JEDatabaseConfig.SyncPolicy;
+
+/**
+ * Load test of {@link JEDatabase} under each {@link SyncPolicy}: several threads each check a nonce
+ * and put a record as an authenticated put does, reporting throughput and latency percentiles of
+ * those operations. Under {@link SyncPolicy#SYNC} the gain from more threads is the group commit of
+ * their fsyncs. Not run as part of the test suite, run the main method and pass the number of
+ * threads and puts per thread (default 8 and 500).
+ *
+ * @author drt24
+ *
+ */
+public class JEDurabilityBenchmark {
+
+  private static final int VALUE_SIZE = 256;
+
+  public static void main(String[] args) throws Exception {
+    int threadCount = args.length > 0 ? Integer.parseInt(args[0]) : 8;
+    int putCount = args.length > 1 ? Integer.parseInt(args[1]) : 500;
+    for (SyncPolicy sync : SyncPolicy.values()) {
+      File dir = makeDir("je-durability-" + sync.name().toLowerCase() + "/");
+      JEDatabase database =
+          JEDatabase.getInstance(dir, new JEDatabaseConfig().setSync(sync));
+      run(sync.name(), database, threadCount, putCount);
+      database.close();
+      Util.deleteDir(dir);
+      dir.delete();
+    }
+  }
+
+  private static void run(String name, final Database database, int threadCount,
+      final int putCount) throws Exception {
+    Random random = new Random(0);
+    final long[][] latencies = new long[threadCount][];
+    final CountDownLatch start = new CountDownLatch(1);
+    Thread[] threads = new Thread[threadCount];
+    for (int t = 0; t < threadCount; ++t) {
+      final byte[] publicKey = randomBytes(random, NigoriConstants.B_DSA);
+      final byte[] publicHash = Util.hashKey(publicKey);
+      database.addUser(publicKey, publicHash);
+      final User user = database.getUser(publicHash);
+      final byte[] value = randomBytes(random, VALUE_SIZE);
+      final int thread = t;
+      threads[t] = new Thread() {
+        @Override
+        public void run() {
+          long[] times = new long[2 * putCount];
+          byte[] index = new byte[Util.INT];
+          try {
+            start.await();
+          } catch (InterruptedException e) {
+            return;
+          }
+          for (int i = 0; i < putCount; ++i) {
+            long begin = System.nanoTime();
+            if (!database.checkAndAddNonce(new Nonce(), publicHash)) {
+              throw new IllegalStateException("Nonce refused");
+            }
+            long middle = System.nanoTime();
+            Util.int2bin(index, 0, i);
+            if (!database.putRecord(user, index, index, value)) {
+              throw new IllegalStateException("Put failed");
+            }
+            times[2 * i] = middle - begin;
+            times[2 * i + 1] = System.nanoTime() - middle;
+          }
+          latencies[thread] = times;
+        }
+      };
+      threads[t].start();
+    }
+    long begin = System.nanoTime();
+    start.countDown();
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    long elapsed = System.nanoTime() - begin;
+
+    long[] all = new long[2 * threadCount * putCount];
+    for (int t = 0; t < threadCount; ++t) {
+      System.arraycopy(latencies[t], 0, all, t * 2 * putCount, 2 * putCount);
+    }
+    Arrays.sort(all);
+    System.out.println(String.format(
+        "%s: %d threads, %.0f commits/s, p50 %.2f ms, p99 %.2f ms, max %.2f ms", name,
+        threadCount, all.length * 1e9 / elapsed, percentile(all, 50), percentile(all, 99),
+        all[all.length - 1] / 1e6));
+  }
+
+  /**
+   * @return the {@code p}th percentile of {@code sorted} nanoseconds in milliseconds
+   */
+  private static double percentile(long[] sorted, int p) {
+    return sorted[Math.min(sorted.length - 1, sorted.length * p / 100)] / 1e6;
+  }
+
+  private static File makeDir(String name) {
+    File dir = new File(name);
+    if (dir.exists()) {
+      Util.deleteDir(dir);
+    }
+    dir.mkdir();
+    return dir;
+  }
+
+  private static byte[] randomBytes(Random random, int length) {
+    byte[] bytes = new byte[length];
+    random.nextBytes(bytes);
+    return bytes;
+  }
+}
@@ -0,0 +1,164 @@
+/*
+ * Copyright (C) 2012 Daniel R. Thomas (drt24)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.nigori.server;
+
+import static com.google.nigori.common.MessageLibrary.toBytes;
+
+import java.io.File;
+import java.util.Random;
+
+import com.google.nigori.common.NigoriConstants;
+import com.google.nigori.common.Util;
+import com.sleepycat.je.CacheMode;
+import com.sleepycat.je.DatabaseConfig;
+import com.sleepycat.je.DatabaseEntry;
+import com.sleepycat.je.Environment;
+import com.sleepycat.je.EnvironmentConfig;
+import com.sleepycat.je.EnvironmentStats;
+import com.sleepycat.je.StatsConfig;
+import com.sleepycat.je.Transaction;
+
+/**
+ * Compares how records were stored in the old single database layout, with ASCII prefixes and the
+ * publicHash in every key, against the current {@link JEDatabase} layout, reporting key bytes per
+ * record and the JE cache footprint once the same records have been stored in each. Not run as part of the test suite, run
+ * the main method and pass the number of users and records per user (default 100 and 100).
+ *
+ * @author drt24
+ *
+ */
+public class JEKeyBenchmark {
+
+  private static final int INDEX_SIZE = 32;
+  private static final int REVISION_SIZE = 32;
+  private static final int VALUE_SIZE = 64;
+  private static final byte[] SEPARATOR = toBytes("/");
+
+  public static void main(String[] args) throws Exception {
+    int userCount = args.length > 0 ? Integer.parseInt(args[0]) : 100;
+    int recordCount = args.length > 1 ? Integer.parseInt(args[1]) : 100;
+    Random random = new Random(0);
+    byte[][] publicHashes = new byte[userCount][];
+    for (int u = 0; u < userCount; ++u) {
+      publicHashes[u] = Util.hashKey(randomBytes(random, NigoriConstants.B_DSA));
+    }
+    byte[] index = new byte[INDEX_SIZE];
+    byte[] revision = randomBytes(random, REVISION_SIZE);
+    byte[] value = randomBytes(random, VALUE_SIZE);
+
+    EnvironmentConfig envConfig = new EnvironmentConfig();
+    envConfig.setTransactional(true);
+    envConfig.setAllowCreate(true);
+
+    // Before: as JEDatabase used to store records, the index and revision are duplicates so JE
+    // stores them as part of the key
+    File before = makeDir("je-benchmark-before/");
+    Environment env = new Environment(before, envConfig);
+    DatabaseConfig legacyConfig = new DatabaseConfig();
+    legacyConfig.setAllowCreate(true);
+    legacyConfig.setTransactional(true);
+    legacyConfig.setSortedDuplicates(true);
+    com.sleepycat.je.Database legacy = env.openDatabase(null, "nigori", legacyConfig);
+    long beforeKeyBytes = 0;
+    for (int u = 0; u < userCount; ++u) {
+      // One transaction per user as syncing every record makes loading too slow
+      Transaction txn = env.beginTransaction(null, null);
+      byte[] stores = concat(toBytes("stores/"), publicHashes[u]);
+      for (int r = 0; r < recordCount; ++r) {
+        Util.int2bin(index, 0, r);
+        byte[] lookup = concat(stores, SEPARATOR, index);
+        byte[] valueKey = concat(lookup, SEPARATOR, revision);
+        legacy.put(txn, new DatabaseEntry(stores), new DatabaseEntry(index));
+        legacy.put(txn, new DatabaseEntry(lookup), new DatabaseEntry(revision));
+        legacy.put(txn, new DatabaseEntry(valueKey), new DatabaseEntry(value));
+        beforeKeyBytes +=
+            stores.length + index.length + lookup.length + revision.length + valueKey.length;
+      }
+      txn.commit();
+    }
+    report("before", userCount * recordCount, beforeKeyBytes, env);
+    legacy.close();
+    env.close();
+    Util.deleteDir(before);
+    before.delete();
+
+    // After: written with the same keys and configuration as JEDatabase uses, without the change
+    // feed and digests which both layouts have
+    File after = makeDir("je-benchmark-after/");
+    env = new Environment(after, envConfig);
+    com.sleepycat.je.Database indices =
+        env.openDatabase(null, "indices", JEDatabase.makeConfig(CacheMode.EVICT_LN, true));
+    com.sleepycat.je.Database values =
+        env.openDatabase(null, "values", JEDatabase.makeConfig(CacheMode.EVICT_LN, true));
+    DatabaseEntry empty = new DatabaseEntry(new byte[0]);
+    long afterKeyBytes = 0;
+    for (int u = 0; u < userCount; ++u) {
+      Transaction txn = env.beginTransaction(null, null);
+      byte[] prefix = JEDatabase.makeUserPrefix(u);
+      for (int r = 0; r < recordCount; ++r) {
+        Util.int2bin(index, 0, r);
+        DatabaseEntry indexKey = JEDatabase.makeIndexKey(prefix, index);
+        DatabaseEntry revisionKey =
+            JEDatabase.makeRevisionKey(JEDatabase.makeRecordPrefix(prefix, index), revision);
+        indices.put(txn, indexKey, empty);
+        values.put(txn, revisionKey, new DatabaseEntry(value));
+        afterKeyBytes += indexKey.getSize() + revisionKey.getSize();
+      }
+      txn.commit();
+    }
+    report("after", userCount * recordCount, afterKeyBytes, env);
+    indices.close();
+    values.close();
+    env.close();
+    Util.deleteDir(after);
+    after.delete();
+  }
+
+  private static void report(String name, long records, long keyBytes, Environment env) {
+    env.sync();
+    EnvironmentStats stats = env.getStats(StatsConfig.DEFAULT);
+    System.out.println(name + ": " + keyBytes / records + " key bytes/record, cache "
+        + stats.getCacheTotalBytes() / 1024 + " KiB total, " + stats.getDataBytes() / 1024
+        + " KiB data (" + stats.getDataBytes() / records + " bytes/record)");
+  }
+
+  private static File makeDir(String name) {
+    File dir = new File(name);
+    if (dir.exists()) {
+      Util.deleteDir(dir);
+    }
+    dir.mkdir();
+    return dir;
+  }
+
+  private static byte[] randomBytes(Random random, int length) {
+    byte[] bytes = new byte[length];
+    random.nextBytes(bytes);
+    return bytes;
+  }
+
+  private static byte[] concat(byte[]... parts) {
+    int length = 0;
+    for (byte[] part : parts) {
+      length += part.length;
+    }
+    byte[] answer = new byte[length];
+    int offset = 0;
+    for (byte[] part : parts) {
+      System.arraycopy(part, 0, answer, offset, part.length);
+      offset += part.length;
+    }
+    return answer;
+  }
+}
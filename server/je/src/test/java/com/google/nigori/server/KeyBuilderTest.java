@@ -0,0 +1,72 @@
+/*
+ * Copyright (C) 2012 Daniel R. Thomas (drt24)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.nigori.server;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+
+/**
+ * @author drt24
+ *
+ */
+public class KeyBuilderTest {
+
+  private static final int[] VALUES = {0, 1, 127, 128, 300, 16383, 16384, Integer.MAX_VALUE, -1};
+
+  private static byte[] varint(int value) {
+    return new KeyBuilder(1).putVarint(value).toBytes();
+  }
+
+  @Test
+  public void varintSizes() {
+    assertArrayEquals(new byte[] {0}, varint(0));
+    assertArrayEquals(new byte[] {(byte) 0xAC, 0x02}, varint(300));
+    for (int value : VALUES) {
+      assertEquals(KeyBuilder.varintSize(value), varint(value).length);
+    }
+    assertEquals(KeyBuilder.MAX_VARINT, varint(-1).length);
+  }
+
+  @Test
+  public void prefixFree() {
+    for (int a : VALUES) {
+      for (int b : VALUES) {
+        if (a != b) {
+          byte[] first = varint(a);
+          byte[] second = varint(b);
+          int shorter = Math.min(first.length, second.length);
+          assertFalse(a + " is a prefix of " + b, Arrays.equals(Arrays.copyOf(first, shorter), Arrays
+              .copyOf(second, shorter)));
+        }
+      }
+    }
+  }
+
+  @Test
+  public void reuse() {
+    byte[] index = {1, 2, 3};
+    KeyBuilder builder = new KeyBuilder(2).putVarint(5).putWithLength(index);
+    int prefix = builder.length();
+    assertArrayEquals(new byte[] {5, 3, 1, 2, 3, 9}, builder.put(new byte[] {9}).toBytes());
+    assertArrayEquals(new byte[] {5, 3, 1, 2, 3, 7, 7}, builder.truncate(prefix).put(
+        new byte[] {7, 7}).toBytes());
+    assertArrayEquals(new byte[] {0, 0, 0, 0, 0, 0, 1, 0}, new KeyBuilder(0).putLong(256)
+        .toBytes());
+  }
+}
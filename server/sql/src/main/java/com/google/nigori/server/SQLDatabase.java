@@ -39,11 +39,18 @@ import com.google.nigori.common.RevValue;
 public class SQLDatabase extends AbstractDatabase {
 
   private Connection con;
+  /**
+   * Only used by synchronized methods, which each run a single transaction on it, so that a
+   * transaction neither picks up statements from other threads nor has its auto-commit mode changed
+   * under it
+   */
+  private Connection transactions;
   private Logger log = Logger.getLogger("SQLDatabase");
 
   public SQLDatabase() throws ClassNotFoundException, SQLException {
     Class.forName("org.postgresql.Driver");// loads the driver needed
     con = DriverManager.getConnection("jdbc:postgresql:nigori", "nigori", "");
+    transactions = DriverManager.getConnection("jdbc:postgresql:nigori", "nigori", "");
     // makes the connection
     // TODO(drt24) read information for this from config
   }
@@ -51,6 +58,7 @@ public class SQLDatabase extends AbstractDatabase {
   @Override
   public void finalize() throws SQLException {
     con.close();
+    transactions.close();
   }
 
   @Override
@@ -128,6 +136,9 @@ public class SQLDatabase extends AbstractDatabase {
 
   @Override
   public boolean checkAndAddNonce(Nonce nonce, byte[] publicHash) {
+    if (!nonce.isRecent()) {
+      return false;
+    }
     PreparedStatement queryStatement = null, insertStatement = null;
     try {
       queryStatement = con.prepareStatement("SELECT sid FROM stores WHERE ph = ?");
@@ -200,25 +211,78 @@ public class SQLDatabase extends AbstractDatabase {
   }
 
   @Override
-  public Collection<RevValue> getRecord(User user, byte[] key) throws IOException {
+  public User resolveUser(byte[] publicHash) {
     try {
-      PreparedStatement queryStatement = con.prepareStatement("SELECT rev, val FROM rev_values, lookups, stores WHERE rev_values.lid = lookups.lid AND lookups.lookup = ? AND lookups.sid = stores.sid AND stores.ph =?");
+      PreparedStatement queryStatement = con.prepareStatement("SELECT pk, reg FROM stores WHERE ph = ?");
       try {
-        queryStatement.setBytes(1, key);
-        queryStatement.setBytes(2, user.getPublicHash());
+        queryStatement.setBytes(1, publicHash);
         ResultSet set = queryStatement.executeQuery();
-
-        List<RevValue> revValues = new ArrayList<RevValue>();
-        while (set.next()){
-          byte[] rev = set.getBytes("rev");
-          byte[] value = set.getBytes("val");
-          revValues.add(new RevValue(rev,value));
+        if (!set.next()) {
+          return null;
         }
-        return revValues;
+        byte[] pk = set.getBytes("pk");
+        Timestamp reg = set.getTimestamp("reg");
+        return new JUser(pk, publicHash, new Date(reg.getTime()));
       } finally {
         queryStatement.close();
       }
+    } catch (SQLException e) {
+      log.severe(e.toString());
+      return null;
+    }
+  }
 
+  @Override
+  public Collection<RevValue> getRecord(User user, byte[] key) throws IOException {
+    try {
+      return selectRecord(con, user, key);
+    } catch (SQLException e){
+      throw new IOException(e);
+    }
+  }
+
+  private Collection<RevValue> selectRecord(Connection connection, User user, byte[] key)
+      throws SQLException {
+    PreparedStatement queryStatement = connection.prepareStatement("SELECT rev, val FROM rev_values, lookups, stores WHERE rev_values.lid = lookups.lid AND lookups.lookup = ? AND lookups.sid = stores.sid AND stores.ph =?");
+    try {
+      queryStatement.setBytes(1, key);
+      queryStatement.setBytes(2, user.getPublicHash());
+      ResultSet set = queryStatement.executeQuery();
+
+      List<RevValue> revValues = new ArrayList<RevValue>();
+      while (set.next()){
+        byte[] rev = set.getBytes("rev");
+        byte[] value = set.getBytes("val");
+        revValues.add(new RevValue(rev,value));
+      }
+      return revValues;
+    } finally {
+      queryStatement.close();
+    }
+  }
+
+  @Override
+  public synchronized List<Collection<RevValue>> getRecords(User user, List<byte[]> keys)
+      throws IOException {
+    try {
+      // Read every key from one snapshot so that the batch is consistent with batch writes
+      transactions.setAutoCommit(false);
+      transactions.setTransactionIsolation(Connection.TRANSACTION_REPEATABLE_READ);
+      try {
+        List<Collection<RevValue>> records = new ArrayList<Collection<RevValue>>(keys.size());
+        for (byte[] key : keys) {
+          Collection<RevValue> record = selectRecord(transactions, user, key);
+          records.add(record.isEmpty() ? null : record);
+        }
+        transactions.commit();
+        return records;
+      } catch (SQLException e) {
+        transactions.rollback();
+        throw e;
+      } finally {
+        transactions.setTransactionIsolation(Connection.TRANSACTION_READ_COMMITTED);
+        transactions.setAutoCommit(true);
+      }
     } catch (SQLException e){
       throw new IOException(e);
     }
@@ -261,9 +325,34 @@ public class SQLDatabase extends AbstractDatabase {
   }
 
   @Override
-  public boolean putRecord(User user, byte[] key, byte[] revision, byte[] data) {
-    try {// TODO(drt24) this needs to use transactions.
-      PreparedStatement getLid = con.prepareStatement("SELECT lid FROM lookups, stores WHERE lookups.sid = stores.sid AND lookups.lookup = ? AND stores.ph = ?");
+  public synchronized boolean putRecord(User user, byte[] key, byte[] revision, byte[] data) {
+    try {
+      transactions.setAutoCommit(false);
+      try {
+        if (!insertRecord(user, key, revision, data)) {
+          transactions.rollback();
+          return false;
+        }
+        transactions.commit();
+        return true;
+      } catch (SQLException e) {
+        transactions.rollback();
+        throw e;
+      } finally {
+        transactions.setAutoCommit(true);
+      }
+    } catch (SQLException e){
+      log.severe(e.toString());
+      return false;
+    }
+  }
+
+  /**
+   * Must be called within a transaction so that the change is recorded atomically with the record
+   */
+  private boolean insertRecord(User user, byte[] key, byte[] revision, byte[] data) {
+    try {
+      PreparedStatement getLid = transactions.prepareStatement("SELECT lid FROM lookups, stores WHERE lookups.sid = stores.sid AND lookups.lookup = ? AND stores.ph = ?");
       int lid;
       try {
         getLid.setBytes(1, key);
@@ -272,7 +361,7 @@ public class SQLDatabase extends AbstractDatabase {
         
         if (!set.first()){// if there is no lid for this lookup then store the lookup and get the lid
           set.close();
-          PreparedStatement createLookup = con.prepareStatement("INSERT INTO lookups (sid,lookup) SELECT sid, ? FROM stores WHERE stores.ph = ? RETURNING lid");
+          PreparedStatement createLookup = transactions.prepareStatement("INSERT INTO lookups (sid,lookup) SELECT sid, ? FROM stores WHERE stores.ph = ? RETURNING lid");
           try {
             createLookup.setBytes(1, key);
             createLookup.setBytes(2,  user.getPublicHash());
@@ -296,7 +385,7 @@ public class SQLDatabase extends AbstractDatabase {
       }
 
       // TODO(drt24) only need to do this if the revision does not exist
-      PreparedStatement insertRevision = con.prepareStatement("INSERT INTO revisions (lid, rev) VALUES (?, ?) RETURNING rid");
+      PreparedStatement insertRevision = transactions.prepareStatement("INSERT INTO revisions (lid, rev) VALUES (?, ?) RETURNING rid");
       int rid;
       try {
         insertRevision.setInt(1, lid);
@@ -312,11 +401,43 @@ public class SQLDatabase extends AbstractDatabase {
         insertRevision.close();
       }
       
-      PreparedStatement insertValue = con.prepareStatement("INSERT INTO rid_values VALUES (?, ?)");
-      insertValue.setInt(1, rid);
-      insertValue.setBytes(2, data);
-      return insertValue.executeUpdate() == 1;
+      PreparedStatement insertValue = transactions.prepareStatement("INSERT INTO rid_values VALUES (?, ?)");
+      try {
+        insertValue.setInt(1, rid);
+        insertValue.setBytes(2, data);
+        if (insertValue.executeUpdate() != 1) {
+          return false;
+        }
+      } finally {
+        insertValue.close();
+      }
+      return insertChange(user, key, revision);
+
+    } catch (SQLException e){
+      log.severe(e.toString());
+      return false;
+    }
+  }
 
+  @Override
+  public synchronized boolean putRecords(User user, List<KeyRevValue> records) {
+    try {
+      transactions.setAutoCommit(false);
+      try {
+        for (KeyRevValue record : records) {
+          if (!insertRecord(user, record.getKey(), record.getRevision(), record.getValue())) {
+            transactions.rollback();
+            return false;
+          }
+        }
+        transactions.commit();
+        return true;
+      } catch (SQLException e) {
+        transactions.rollback();
+        throw e;
+      } finally {
+        transactions.setAutoCommit(true);
+      }
     } catch (SQLException e){
       log.severe(e.toString());
       return false;
@@ -324,15 +445,165 @@ public class SQLDatabase extends AbstractDatabase {
   }
 
   @Override
-  public boolean deleteRecord(User user, byte[] key) {
+  public synchronized boolean deleteRecord(User user, byte[] key) {
+    try {
+      transactions.setAutoCommit(false);
+      try {
+        boolean result = removeRecord(user, key);
+        transactions.commit();
+        return result;
+      } catch (SQLException e) {
+        transactions.rollback();
+        throw e;
+      } finally {
+        transactions.setAutoCommit(true);
+      }
+    } catch (SQLException e){
+      log.severe(e.toString());
+      return false;
+    }
+  }
+
+  /**
+   * Must be called within a transaction so that the change is recorded atomically with the delete
+   */
+  private boolean removeRecord(User user, byte[] key) throws SQLException {
+    PreparedStatement deleteKey = transactions.prepareStatement("DELETE FROM lookups USING stores WHERE lookups.sid = stores.sid AND stores.ph = ? AND lookup = ?");
+    try {
+      deleteKey.setBytes(1, user.getPublicHash());
+      deleteKey.setBytes(2, key);
+      if (deleteKey.executeUpdate() == 0) {
+        return false;
+      }
+    } finally {
+      deleteKey.close();
+    }
+    return insertChange(user, key, null);
+  }
+
+  /**
+   * Takes the next sequence number from the user's row in stores, which stays locked until the
+   * transaction ends so that the user's changes commit in sequence order. A sequence taken from a
+   * shared sequence could commit after a reader had already moved past it.
+   * 
+   * @param revision the revision added or null if the key was deleted
+   */
+  private boolean insertChange(User user, byte[] key, byte[] revision) throws SQLException {
+    PreparedStatement nextSequence = transactions.prepareStatement("UPDATE stores SET seq = seq + 1 WHERE ph = ? RETURNING sid, seq");
+    int sid;
+    long seq;
+    try {
+      nextSequence.setBytes(1, user.getPublicHash());
+      nextSequence.execute();
+      ResultSet set = nextSequence.getResultSet();
+      if (!set.next()) {
+        return false;
+      }
+      sid = set.getInt("sid");
+      seq = set.getLong("seq");
+    } finally {
+      nextSequence.close();
+    }
+    PreparedStatement insertChange = transactions.prepareStatement("INSERT INTO changes (sid, seq, lookup, rev) VALUES (?, ?, ?, ?)");
+    try {
+      insertChange.setInt(1, sid);
+      insertChange.setLong(2, seq);
+      insertChange.setBytes(3, key);
+      insertChange.setBytes(4, revision);
+      return insertChange.executeUpdate() == 1;
+    } finally {
+      insertChange.close();
+    }
+  }
+
+  @Override
+  public List<RecordChange> getChanges(User user, long since, int limit) throws IOException {
+    try {
+      PreparedStatement queryStatement = con.prepareStatement("SELECT seq, lookup, rev FROM changes, stores WHERE changes.sid = stores.sid AND stores.ph = ? AND seq > ? ORDER BY seq LIMIT ?");
+      try {
+        queryStatement.setBytes(1, user.getPublicHash());
+        queryStatement.setLong(2, since);
+        queryStatement.setInt(3, limit);
+        ResultSet set = queryStatement.executeQuery();
+
+        List<RecordChange> changes = new ArrayList<RecordChange>();
+        while (set.next()) {
+          changes.add(new RecordChange(set.getLong("seq"), set.getBytes("lookup"), set.getBytes("rev")));
+        }
+        return changes;
+      } finally {
+        queryStatement.close();
+      }
+    } catch (SQLException e){
+      throw new IOException(e);
+    }
+  }
+
+  @Override
+  public long getChangeSequence(User user) throws IOException {
+    try {
+      PreparedStatement queryStatement = con.prepareStatement("SELECT seq FROM stores WHERE ph = ?");
+      try {
+        queryStatement.setBytes(1, user.getPublicHash());
+        ResultSet set = queryStatement.executeQuery();
+        return set.next() ? set.getLong("seq") : 0;
+      } finally {
+        queryStatement.close();
+      }
+    } catch (SQLException e){
+      throw new IOException(e);
+    }
+  }
+
+  /**
+   * The tree is not stored, instead it is built from the user's revisions for each request
+   */
+  private DigestTree buildDigestTree(User user) throws IOException {
+    try {
+      PreparedStatement queryStatement = con.prepareStatement("SELECT lookup, rev FROM revisions, lookups, stores WHERE revisions.lid = lookups.lid AND lookups.sid = stores.sid AND stores.ph = ?");
+      try {
+        queryStatement.setBytes(1, user.getPublicHash());
+        ResultSet set = queryStatement.executeQuery();
+
+        DigestTree tree = new DigestTree();
+        while (set.next()) {
+          tree.add(set.getBytes("lookup"), set.getBytes("rev"));
+        }
+        return tree;
+      } finally {
+        queryStatement.close();
+      }
+    } catch (SQLException e){
+      throw new IOException(e);
+    }
+  }
+
+  @Override
+  public List<DigestTree.Node> getDigests(User user, byte[] path, int depth) throws IOException {
+    return buildDigestTree(user).getNodes(path, depth);
+  }
+
+  @Override
+  public List<DigestTree.Leaf> getDigestLeaves(User user, byte[] path) throws IOException {
+    return buildDigestTree(user).getLeaves(path);
+  }
+
+  @Override
+  public synchronized boolean deleteRecords(User user, List<byte[]> keys) {
     try {
-      PreparedStatement deleteKey = con.prepareStatement("DELETE FROM lookups USING stores WHERE lookups.sid = stores.sid AND stores.ph = ? AND lookup = ?");
+      transactions.setAutoCommit(false);
       try {
-        deleteKey.setBytes(1, user.getPublicHash());
-        deleteKey.setBytes(2, key);
-        return deleteKey.executeUpdate() > 0;
+        boolean result = true;
+        for (byte[] key : keys) {
+          result &= removeRecord(user, key);
+        }
+        transactions.commit();
+        return result;
+      } catch (SQLException e) {
+        transactions.rollback();
+        throw e;
       } finally {
-        deleteKey.close();
+        transactions.setAutoCommit(true);
       }
     } catch (SQLException e){
       log.severe(e.toString());
@@ -340,9 +611,101 @@ public class SQLDatabase extends AbstractDatabase {
     }
   }
 
+  @Override
+  public boolean checkAndAddCounter(byte[] publicHash, byte[] session, long counter, long expires) {
+    try {
+      // Compare and set on the window so that concurrent requests do not need a lock
+      while (true) {
+        PreparedStatement queryStatement =
+            con.prepareStatement("SELECT highest, bitmap FROM counters, stores WHERE counters.sid = stores.sid AND stores.ph = ? AND session = ?");
+        ReplayWindow current = null;
+        try {
+          queryStatement.setBytes(1, publicHash);
+          queryStatement.setBytes(2, session);
+          ResultSet set = queryStatement.executeQuery();
+          if (set.next()) {
+            current = new ReplayWindow(set.getLong("highest"), set.getLong("bitmap"));
+          }
+        } finally {
+          queryStatement.close();
+        }
+        ReplayWindow next = (current == null ? ReplayWindow.EMPTY : current).accept(counter);
+        if (next == null) {
+          return false;
+        }
+        PreparedStatement updateStatement;
+        if (current == null) {
+          updateStatement =
+              con.prepareStatement("INSERT INTO counters (sid, session, highest, bitmap, expires) SELECT sid, ?, ?, ?, ? FROM stores WHERE ph = ? AND NOT EXISTS (SELECT 1 FROM counters WHERE counters.sid = stores.sid AND session = ?)");
+          updateStatement.setBytes(1, session);
+          updateStatement.setLong(2, next.getHighest());
+          updateStatement.setLong(3, next.getBitmap());
+          updateStatement.setTimestamp(4, new Timestamp(expires));
+          updateStatement.setBytes(5, publicHash);
+          updateStatement.setBytes(6, session);
+        } else {
+          updateStatement =
+              con.prepareStatement("UPDATE counters SET highest = ?, bitmap = ? FROM stores WHERE counters.sid = stores.sid AND stores.ph = ? AND session = ? AND highest = ? AND bitmap = ?");
+          updateStatement.setLong(1, next.getHighest());
+          updateStatement.setLong(2, next.getBitmap());
+          updateStatement.setBytes(3, publicHash);
+          updateStatement.setBytes(4, session);
+          updateStatement.setLong(5, current.getHighest());
+          updateStatement.setLong(6, current.getBitmap());
+        }
+        try {
+          if (updateStatement.executeUpdate() > 0) {
+            return true;
+          }
+        } finally {
+          updateStatement.close();
+        }
+        if (current == null && !haveUser(publicHash)) {
+          return false;
+        }
+        // Lost a race with another request in the session, try again
+      }
+    } catch (SQLException e) {
+      log.warning(e.getMessage());
+      return false;
+    }
+  }
+
   @Override
   public void clearOldNonces() {
-    // TODO(drt24) implement clearOldNonces    
+    // A nonce first used before this was issued at most SKEW_ALLOWANCE after its use, so it is no
+    // longer recent and would be rejected without its row
+    long before = System.currentTimeMillis() - (Nonce.TWO_DAYS + Nonce.SKEW_ALLOWANCE) * 1000L;
+    PreparedStatement statement = null;
+    try {
+      statement = con.prepareStatement("DELETE FROM nonces WHERE use < ?");
+      statement.setTimestamp(1, new Timestamp(before));
+      statement.executeUpdate();
+    } catch (SQLException e) {
+      log.warning(e.getMessage());
+    } finally {
+      if (statement != null)
+        try {
+          statement.close();
+        } catch (SQLException e) {
+          log.fine(e.getMessage());
+        }
+    }
+    statement = null;
+    try {
+      statement = con.prepareStatement("DELETE FROM counters WHERE expires < ?");
+      statement.setTimestamp(1, new Timestamp(System.currentTimeMillis()));
+      statement.executeUpdate();
+    } catch (SQLException e) {
+      log.warning(e.getMessage());
+    } finally {
+      if (statement != null)
+        try {
+          statement.close();
+        } catch (SQLException e) {
+          log.fine(e.getMessage());
+        }
+    }
   }
 
 }
@@ -20,7 +20,8 @@ CREATE TABLE stores (
   sid  serial  PRIMARY KEY,
   ph   bytea   NOT NULL  UNIQUE,
   pk   bytea   NOT NULL  UNIQUE,
-  reg  TIMESTAMP WITH TIME ZONE  NOT NULL
+  reg  TIMESTAMP WITH TIME ZONE  NOT NULL,
+  seq  bigint  NOT NULL  DEFAULT 0
 ) WITH (OIDS=FALSE);
 
 CREATE INDEX stores_ph ON stores (ph);
@@ -62,5 +63,25 @@ CREATE TABLE nonces (
 ) WITH (OIDS=FALSE);
 
 CREATE INDEX nonces_sid_nonce ON nonces (sid, nonce);
+CREATE INDEX nonces_use ON nonces (use);
 
-/* TODO some automated delete of old nonces */
+CREATE TABLE counters (
+  sid      integer  REFERENCES stores (sid)  ON DELETE CASCADE,
+  session  bytea    NOT NULL,
+  highest  bigint   NOT NULL,
+  bitmap   bigint   NOT NULL,
+  expires  TIMESTAMP WITH TIME ZONE  NOT NULL,
+  PRIMARY KEY (sid, session)
+) WITH (OIDS=FALSE);
+
+/* seq is taken from stores.seq in the same transaction, the row lock on stores means that a
+   user's changes commit in sequence order so a reader never skips one which commits later */
+CREATE TABLE changes (
+  sid     integer    REFERENCES stores (sid)  ON DELETE CASCADE,
+  seq     bigint     NOT NULL,
+  lookup  bytea      NOT NULL,
+  rev     bytea,
+  PRIMARY KEY (sid, seq)
+) WITH (OIDS=FALSE);
+
+/* Old nonces and expired counters are deleted by SQLDatabase.clearOldNonces() */
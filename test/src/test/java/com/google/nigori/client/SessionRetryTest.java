@@ -0,0 +1,94 @@
+/*
+ * Copyright (C) 2012 Daniel R. Thomas (drt24)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.nigori.client;
+
+import static com.google.nigori.common.MessageLibrary.toBytes;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.google.nigori.common.Index;
+import com.google.nigori.common.NigoriProtocol;
+import com.google.nigori.common.RevValue;
+import com.google.nigori.common.Revision;
+import com.google.nigori.server.Database;
+import com.google.nigori.server.DatabaseNigoriProtocol;
+import com.google.nigori.server.HashMapDatabase;
+
+/**
+ * Requests in a session reaching a server instance which does not accept the session's ticket
+ *
+ * @author drt24
+ *
+ */
+public class SessionRetryTest {
+
+  /**
+   * Sends each request to {@link #current}, as a load balancer might
+   */
+  private static class Router implements InvocationHandler {
+    private volatile NigoriProtocol current;
+    private int sessions = 0;
+
+    Router(NigoriProtocol current) {
+      this.current = current;
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+      if (method.getName().equals("session")) {
+        ++sessions;
+      }
+      try {
+        return method.invoke(current, args);
+      } catch (InvocationTargetException e) {
+        throw e.getCause();
+      }
+    }
+  }
+
+  @Test
+  public void retriedWithDSA() throws Exception {
+    Database database = new HashMapDatabase();
+    Router router = new Router(new DatabaseNigoriProtocol(database));
+    NigoriProtocol protocol =
+        (NigoriProtocol) Proxy.newProxyInstance(NigoriProtocol.class.getClassLoader(),
+            new Class<?>[] {NigoriProtocol.class}, router);
+    CryptoNigoriDatastore store =
+        new CryptoNigoriDatastore(protocol, "username", "password", "server");
+    Index index = new Index("index");
+    Revision revision = new Revision(toBytes("revision"));
+    byte[] value = toBytes("value");
+
+    assertTrue(store.register());
+    store.startSession();
+    assertEquals(1, router.sessions);
+    // Another instance with its own ticket keys
+    router.current = new DatabaseNigoriProtocol(database);
+    assertTrue(store.put(index, revision, value));
+    List<RevValue> revisions = store.get(index);
+    assertEquals(1, revisions.size());
+    assertArrayEquals(value, revisions.get(0).getValue());
+    assertEquals(2, router.sessions);
+    assertTrue(store.unregister());
+  }
+}
@@ -53,8 +53,8 @@ import com.google.nigori.common.NigoriMessages.GetRequest;
 import com.google.nigori.common.NigoriMessages.GetResponse;
 import com.google.nigori.common.NigoriMessages.RevisionValue;
 import com.google.nigori.common.Nonce;
-import com.google.nigori.common.RevValue;
 import com.google.nigori.server.appengine.AEUser;
+import com.google.protobuf.ByteString;
 import com.google.protobuf.Descriptors.FieldDescriptor;
 
 public class NigoriServletTest {
@@ -100,6 +100,10 @@ public class NigoriServletTest {
       in = new ByteArrayInputStream(toBytes(s));
     }
 
+    TestInputStream(byte[] bytes) {
+      in = new ByteArrayInputStream(bytes);
+    }
+
     @Override
     public int read() throws IOException {
 
@@ -117,6 +121,15 @@ public class NigoriServletTest {
     expect(request.getInputStream()).andReturn(new TestInputStream(json));
   }
 
+  private void expectedCallsForProtobufRequest(byte[] body, String requestType) throws IOException {
+
+    expect(request.getServletPath()).andReturn("nigori");
+    expect(request.getRequestURI()).andReturn("nigori/" + requestType);
+    expect(request.getContentType()).andReturn(MessageLibrary.MIMETYPE_PROTOBUF);
+    expect(request.getContentLength()).andReturn(body.length);
+    expect(request.getInputStream()).andReturn(new TestInputStream(body));
+  }
+
   /**
    * Expect headers to be added for CORS - we don't care about their structure
    */
@@ -158,11 +171,9 @@ public class NigoriServletTest {
 
   private void expectedCallsToAuthenticateUser(byte[] publicHash) throws UserNotFoundException,
       NigoriCryptographyException {
-    expect(database.getPublicKey(aryEq(publicHash))).andReturn(keyManager.signer().getPublicKey());
+    expect(database.resolveUser(aryEq(publicHash))).andReturn(user);
     expect(database.checkAndAddNonce(anyObject(Nonce.class), anyObject(byte[].class))).andReturn(
         true);
-    expect(database.getUser(aryEq(publicHash))).andReturn(user);
-    expect(database.haveUser(aryEq(publicHash))).andReturn(true);
   }
 
   private void runReplayVerifyWithDoPost(ServletOutputStream out) throws IOException {
@@ -193,7 +204,7 @@ public class NigoriServletTest {
     final String json = MessageLibrary.getRequestAsJson(serverName, keyManager.signer(), key, null);
     expectedCallsForJsonRequest(json, MessageLibrary.REQUEST_GET);
     expectedCallsToAuthenticateUser(publicHash);
-    expect(database.getRecord(eq(user), aryEq(key))).andReturn(null);
+    expect(database.getRecordValues(eq(user), eq(ByteString.copyFrom(key)))).andReturn(null);
     ServletOutputStream out = expectedCallsForErrorResponse(HttpServletResponse.SC_NOT_FOUND);
 
     runReplayVerifyWithDoPost(out);
@@ -211,7 +222,8 @@ public class NigoriServletTest {
         MessageLibrary.putRequestAsJson(serverName, keyManager.signer(), index, revision, value);
     expectedCallsForJsonRequest(jsonPut, MessageLibrary.REQUEST_PUT);
     expectedCallsToAuthenticateUser(publicHash);
-    expect(database.putRecord(eq(user), aryEq(index), aryEq(revision), aryEq(value))).andReturn(
+    expect(database.putRecord(eq(user), eq(ByteString.copyFrom(index)),
+        eq(ByteString.copyFrom(revision)), eq(ByteString.copyFrom(value)))).andReturn(
         true);
     expectedCallsToOutputOkay();
 
@@ -230,8 +242,9 @@ public class NigoriServletTest {
         MessageLibrary.getRequestAsJson(serverName, keyManager.signer(), key, null);
     expectedCallsForJsonRequest(jsonGet, MessageLibrary.REQUEST_GET);
     expectedCallsToAuthenticateUser(publicHash);
-    expect(database.getRecord(eq(user), aryEq(key))).andReturn(
-        Arrays.asList(new RevValue[] {new RevValue(revision, value)}));
+    expect(database.getRecordValues(eq(user), eq(ByteString.copyFrom(key)))).andReturn(
+        Arrays.asList(new ByteRevValue[] {new ByteRevValue(ByteString.copyFrom(revision),
+            ByteString.copyFrom(value))}));
     ServletOutputStream out = expectedCallsForJsonResponse();
     Capture<byte[]> result = new Capture<byte[]>();
     Capture<Integer> size = new Capture<Integer>();
@@ -305,5 +318,109 @@ public class NigoriServletTest {
     runReplayVerifyWithDoPost(out);
   }
 
+  @Test
+  public void testProtobufPutRequest() throws Exception {
+
+    final byte[] index = toBytes("an index");
+    final byte[] revision = toBytes("a revision");
+    final byte[] value = toBytes("a value");
+    final byte[] publicHash = keyManager.signer().getPublicHash();
+
+    final byte[] put =
+        MessageLibrary.putRequestAsProtobuf(serverName, keyManager.signer(), index, revision,
+            value).toByteArray();
+    expectedCallsForProtobufRequest(put, MessageLibrary.REQUEST_PUT);
+    expectedCallsToAuthenticateUser(publicHash);
+    expect(database.putRecord(eq(user), eq(ByteString.copyFrom(index)),
+        eq(ByteString.copyFrom(revision)), eq(ByteString.copyFrom(value)))).andReturn(
+        true);
+    corsHeaders();
+    response.setContentType(MessageLibrary.MIMETYPE_PROTOBUF);
+    response.setStatus(HttpServletResponse.SC_OK);
+    response.flushBuffer();
+
+    runReplayVerifyWithDoPost(null);
+  }
+
+  @Test
+  public void testProtobufGetRequestKeyExists() throws Exception {
+
+    final byte[] key = toBytes("a key");
+    final byte[] revision = toBytes("a revision");
+    final byte[] value = toBytes("a value");
+    final byte[] publicHash = keyManager.signer().getPublicHash();
+
+    final byte[] get =
+        MessageLibrary.getRequestAsProtobuf(serverName, keyManager.signer(), key, null)
+            .toByteArray();
+    expectedCallsForProtobufRequest(get, MessageLibrary.REQUEST_GET);
+    expectedCallsToAuthenticateUser(publicHash);
+    expect(database.getRecordValues(eq(user), eq(ByteString.copyFrom(key)))).andReturn(
+        Arrays.asList(new ByteRevValue[] {new ByteRevValue(ByteString.copyFrom(revision),
+            ByteString.copyFrom(value))}));
+    expect(request.getHeader("Accept")).andReturn(MessageLibrary.MIMETYPE_PROTOBUF);
+    corsHeaders();
+    final ServletOutputStream out = createMock(ServletOutputStream.class);
+    response.setContentType(MessageLibrary.MIMETYPE_PROTOBUF);
+    response.setStatus(HttpServletResponse.SC_OK);
+    Capture<Integer> length = new Capture<Integer>();
+    response.setContentLength(capture(length));
+    expect(response.getOutputStream()).andReturn(out);
+    Capture<byte[]> result = new Capture<byte[]>();
+    Capture<Integer> size = new Capture<Integer>();
+    out.write(capture(result), eq(0), capture(size));
+    out.flush();
+
+    runReplayVerifyWithDoPost(out);
+
+    assertEquals(length.getValue(), size.getValue());
+    GetResponse getResponse =
+        GetResponse.parseFrom(Arrays.copyOf(result.getValue(), size.getValue()));
+    List<RevisionValue> revs = getResponse.getRevisionsList();
+    assertEquals(1, revs.size());
+    assertArrayEquals(revision, revs.get(0).getRevision().toByteArray());
+    assertArrayEquals(value, revs.get(0).getValue().toByteArray());
+  }
+
+  @Test
+  public void testProtobufGetRequestJsonAccepted() throws Exception {
+
+    final byte[] key = toBytes("a key");
+    final byte[] revision = toBytes("a revision");
+    final byte[] value = toBytes("a value");
+    final byte[] publicHash = keyManager.signer().getPublicHash();
+
+    final byte[] get =
+        MessageLibrary.getRequestAsProtobuf(serverName, keyManager.signer(), key, null)
+            .toByteArray();
+    expectedCallsForProtobufRequest(get, MessageLibrary.REQUEST_GET);
+    expectedCallsToAuthenticateUser(publicHash);
+    expect(database.getRecordValues(eq(user), eq(ByteString.copyFrom(key)))).andReturn(
+        Arrays.asList(new ByteRevValue[] {new ByteRevValue(ByteString.copyFrom(revision),
+            ByteString.copyFrom(value))}));
+    expect(request.getHeader("Accept")).andReturn(MessageLibrary.MIMETYPE_JSON);
+    ServletOutputStream out = expectedCallsForJsonResponse();
+    Capture<byte[]> result = new Capture<byte[]>();
+    Capture<Integer> size = new Capture<Integer>();
+    out.write(capture(result), eq(0), capture(size));
+    out.flush();
+
+    runReplayVerifyWithDoPost(out);
+
+    String jsonResponse = new String(result.getValue(), 0, size.getValue(), MessageLibrary.CHARSET);
+    GetResponse getResponse = MessageLibrary.getResponseFromJson(jsonResponse);
+    assertEquals(1, getResponse.getRevisionsCount());
+  }
+
+  @Test
+  public void testMalformedProtobufGetRequest() throws Exception {
+
+    expectedCallsForProtobufRequest(toBytes("A malformed protobuf message"),
+        MessageLibrary.REQUEST_GET);
+    ServletOutputStream out = expectedCallsForErrorResponse(HttpServletResponse.SC_BAD_REQUEST);
+
+    runReplayVerifyWithDoPost(out);
+  }
+
   // TODO(beresford): Tests similar to Get above for Put, Authenticate, and Register
 }
\ No newline at end of file